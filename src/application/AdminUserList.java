@@ -7,10 +7,10 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import javafx.collections.*;
 import javafx.beans.property.*;
-import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
 import javafx.util.Callback;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 import databasePart1.*;
 
@@ -18,7 +18,7 @@ import databasePart1.*;
 /**
  * The AdminUserList class provides an interface that displays a table listing users currently registered in the system including their userName, first and
  * last name, email, and roles. The Admin can search the list by keyword or access the individual profile for each user via a click of the "User Profile" 
- * button.
+ * button. The table is filled one page at a time as the Admin scrolls, with searching and sorting done by the database.
  * 
  * @author Cristina Hooe
  * @version 1.0 2/5/2025
@@ -35,6 +35,11 @@ public class AdminUserList extends Application { // class required to use JavaFX
 	 */
 	private User user;
 	
+	/**
+	 * The search and sort order of the rows shown, read by the worker thread fetching the next page
+	 */
+	private volatile UserQuery userQuery = UserQuery.ALL_USERS;
+	
 	/**
 	 * Constructor used to create a new instance of AdminUserList within classes AdminHomePage or AdminUserModifications
 	 * 
@@ -240,15 +245,14 @@ public class AdminUserList extends Application { // class required to use JavaFX
 		// Create a TableView
 		TableView<UserData> tableView = new TableView<>();
 		
-		// ArrayList to pull user information from database
-		ArrayList<User> userList = databaseHelper.getUserList();
-		
-		// Convert array list userList from User (User.java) type to UserData type (AdminUserList.java) and save in userDataList
-		ArrayList<UserData> userDataList = UserData.convertToUserDataList(userList);
-		
-		// Pull from database to populate table
-		ObservableList<UserData> pullDatabaseData = FXCollections.observableArrayList(userDataList);
-		// function to pull each set of data from database
+		// Rows are appended page by page as the table is scrolled
+		ObservableList<UserData> pullDatabaseData = FXCollections.observableArrayList();
+		tableView.setItems(pullDatabaseData);
+		PagedListLoader<UserData> userLoader = new PagedListLoader<>(databaseHelper.getAsync(), tableView, pullDatabaseData, (after, pageSize) -> {
+			// Convert the page from User (User.java) type to UserData type (AdminUserList.java)
+			Page<User> page = databaseHelper.getUserDirectoryPage(userQuery, after, pageSize);
+			return new Page<>(UserData.convertToUserDataList(new ArrayList<>(page.getItems())), page.getNextCursor(), page.hasMore());
+		}, userData -> userData.getUserNameValue().get(), PagedListLoader.DEFAULT_PAGE_SIZE);
 		
 		// Create columns for each field to display in the table
 		TableColumn<UserData, String> userNameColumn = new TableColumn<>("USERNAME");
@@ -444,53 +448,35 @@ public class AdminUserList extends Application { // class required to use JavaFX
 		// Add columns to TableView
 		tableView.getColumns().addAll(userNameColumn, firstNameColumn, lastNameColumn, emailColumn, adminRoleColumn, studentRoleColumn, reviewerRoleColumn, instructorRoleColumn, staffRoleColumn, profileButtonColumn);
 		
+		// Only the text columns can be sorted by the database, the role columns are filtered by searching for a role instead
+		Map<TableColumn<UserData, ?>, UserQuery.SortColumn> sortColumns = new HashMap<>();
+		sortColumns.put(userNameColumn, UserQuery.SortColumn.USER_NAME);
+		sortColumns.put(firstNameColumn, UserQuery.SortColumn.FIRST_NAME);
+		sortColumns.put(lastNameColumn, UserQuery.SortColumn.LAST_NAME);
+		sortColumns.put(emailColumn, UserQuery.SortColumn.EMAIL);
+		for (TableColumn<UserData, ?> column : tableView.getColumns()) {
+			column.setSortable(sortColumns.containsKey(column));
+		}
 		
 		// Create a search box 
 		TextField searchBox = new TextField();
-        searchBox.setPromptText("Search");
+        searchBox.setPromptText("Search: name, @domain, role, muted");
         searchBox.setMaxWidth(250);
-    	
-    	// Set up sorting capability
-        FilteredList<UserData> filteredUserData = new FilteredList<>(pullDatabaseData, p -> true);
         
-        // Enable the text entered in searchBox to filter the data
+        // Enable the text entered in searchBox to filter the data, e.g. "student @asu.edu jo" for students at asu.edu whose name starts with jo
         searchBox.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredUserData.setPredicate(userData -> {
-            	if (newValue == null || newValue.isEmpty()) {
-            		return true; // display full user list as searchBox is null or empty
-            	}
-            	String convertToLowerCase = newValue.toLowerCase(); //converts the searched value to lower case
-            	
-            	// checks for search terms specific to boolean role values so ignoring case
-            	if ("admin".equalsIgnoreCase(convertToLowerCase)) {
-            		return userData.getAdminRoleValue().get(); // return only rows where the value is "True" for Admin Role column
-            	}
-            	if ("student".equalsIgnoreCase(convertToLowerCase)) {
-            		return userData.getStudentRoleValue().get(); // return only rows where the value is "True" for Student Role column
-            	}
-            	if ("reviewer".equalsIgnoreCase(convertToLowerCase)) {
-            		return userData.getReviewerRoleValue().get(); // return only rows where the value is "True" for Reviewer Role column
-            	}
-            	if ("instructor".equalsIgnoreCase(convertToLowerCase)) {
-            		return userData.getInstructorRoleValue().get(); // return only rows where the value is "True" for Instructor Role column
-            	}
-            	if ("staff".equalsIgnoreCase(convertToLowerCase)) {
-            		return userData.getStaffRoleValue().get(); // return only rows where the value is "True" for Staff Role column
-            	}
-            	
-            	return userData.getUserNameValue().get().toLowerCase().contains(convertToLowerCase) || // converts all returned values to lower case for comparison with search term
-            		   userData.getFirstNameValue().get().toLowerCase().contains(convertToLowerCase) ||
-            		   userData.getLastNameValue().get().toLowerCase().contains(convertToLowerCase) ||
-            		   userData.getEmailValue().get().toLowerCase().contains(convertToLowerCase);
-            });
+        	userQuery = queryFor(tableView, newValue, sortColumns);
+        	userLoader.loadFirstPage();
         });
         
-        SortedList<UserData> sortedUserData = new SortedList<>(filteredUserData); // applies sorting to data
-        sortedUserData.comparatorProperty().bind(tableView.comparatorProperty()); // keeps the data accurate when sort of a column is done
-        
-        // set the table items with the sorted database data
-        tableView.setItems(sortedUserData);
-     		
+        // Clicking a column header sorts in the database and reloads from the first page instead of sorting the loaded rows.
+        // Setting the policy sorts the table straight away, which loads the first page.
+        tableView.setSortPolicy(table -> {
+        	userQuery = queryFor(table, searchBox.getText(), sortColumns);
+        	userLoader.loadFirstPage();
+        	return true;
+        });
+
         
 	    Button returnButton = new Button("Return to Admin homepage");
 	    // Button to return to the Admin homepage
@@ -513,6 +499,23 @@ public class AdminUserList extends Application { // class required to use JavaFX
     }
 	
 
+	/**
+	 * Creates the query for the text in the search box and the column the table is sorted by, by userName if it is not
+	 * sorted.
+	 * 
+	 * @param tableView the user table
+	 * @param search the text in the search box
+	 * @param sortColumns the directory column each sortable table column is sorted by
+	 * @return the query of the rows to show
+	 */
+	private static UserQuery queryFor(TableView<UserData> tableView, String search, Map<TableColumn<UserData, ?>, UserQuery.SortColumn> sortColumns) {
+		if (tableView.getSortOrder().isEmpty()) {
+			return UserQuery.fromSearch(search, UserQuery.SortColumn.USER_NAME, true);
+		}
+		TableColumn<UserData, ?> sortedBy = tableView.getSortOrder().get(0);
+		return UserQuery.fromSearch(search, sortColumns.get(sortedBy), sortedBy.getSortType() == TableColumn.SortType.ASCENDING);
+	}
+
 	@Override
     public void start(Stage primaryStage) {
         show(primaryStage, user);
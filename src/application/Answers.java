@@ -1,6 +1,8 @@
 package application;
 
 import databasePart1.DatabaseHelper;
+import databasePart1.Page;
+import databasePart1.PageCursor;
 import java.util.ArrayList;
 
 /**
@@ -60,6 +62,18 @@ public class Answers {
         return answers;
     }
 
+    /**
+     * Getter for obtaining one page of answers, for lists which load as the user scrolls
+     * 
+     * @param user current user in the system
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of answers on the page
+     * @return a page of answers
+     */
+    public Page<Answer> getAnswersPage(User user, PageCursor after, int pageSize) {
+        return databaseHelper.getAnswersPage(user, after, pageSize);
+    }
+
     /**
      * Getter for obtaining all answer for specific question
      * 
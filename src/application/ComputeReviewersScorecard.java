@@ -1,6 +1,7 @@
 package application;
 
 import databasePart1.DatabaseHelper;
+import databasePart1.ReviewerScorecards;
 import application.InstructorStudentInteractionView;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
@@ -13,6 +14,7 @@ import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +33,7 @@ public class ComputeReviewersScorecard {
     private Label scorecardLabel;
     private TextField manualEditField;
     private String preselectedReviewer;
+    private Map<String, ReviewerScorecards.Scorecard> scorecards = new HashMap<>();
 	
 	/**
 	 * Constructor creates an instance of the ComputeReviewersScorecard interface
@@ -73,19 +76,16 @@ public class ComputeReviewersScorecard {
         Label title = new Label("Reviewer Scorecard Dashboard");
         title.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
 
-        // Reviewer Dropdown
+        // Scorecard Label
+        scorecardLabel = new Label("Loading scorecards...");
+        scorecardLabel.setStyle("-fx-padding: 10px; -fx-font-size: 14px;");
+
+        // Reviewer Dropdown, filled once the scorecards have been refreshed on a worker thread
         reviewerDropdown = new ComboBox<>();
         reviewerDropdown.setPromptText("Select a Reviewer");
-        reviewerDropdown.setItems(getReviewerUsernames());
         reviewerDropdown.setOnAction(e -> computeScorecard());
-        if (preselectedReviewer != null && !preselectedReviewer.isEmpty()) {
-            reviewerDropdown.setValue(preselectedReviewer);
-            computeScorecard();
-        }
-
-        // Scorecard Label
-        scorecardLabel = new Label("Select a reviewer to view scorecard.");
-        scorecardLabel.setStyle("-fx-padding: 10px; -fx-font-size: 14px;");
+        new LatestRequest<List<ReviewerScorecards.Scorecard>>(databaseHelper.getAsync()).submit(
+                databaseHelper::getReviewerScorecards, this::showScorecards);
 
         // Manual Edit Field
         manualEditField = new TextField();
@@ -124,30 +124,42 @@ public class ComputeReviewersScorecard {
     }
     
     /**
-     * Computes and displays the scorecard for the selected reviewer.
-     * (Dummy logic for now; this should be replaced with actual DB calculations.)
+     * Fills the reviewer dropdown from freshly computed scorecards, highest score first, and shows the preselected
+     * reviewer's scorecard if there is one.
+     *
+     * @param loaded the scorecards of every reviewer
      */
-    private void computeScorecard() {
-        String selectedReviewer = reviewerDropdown.getValue();
-        if (selectedReviewer == null) return;
-
-        // Dummy scoring logic - replace with DB logic
-        int totalReviews = 12;
-        int helpfulReviews = 7;
-        double score = (helpfulReviews / (double) totalReviews) * 100;
-
-        scorecardLabel.setText(String.format("Reviewer: %s\nTotal Reviews: %d\nHelpful Reviews: %d\nScorecard: %.2f%%",
-                selectedReviewer, totalReviews, helpfulReviews, score));
+    private void showScorecards(List<ReviewerScorecards.Scorecard> loaded) {
+        ObservableList<String> reviewers = FXCollections.observableArrayList();
+        scorecards = new HashMap<>();
+        for (ReviewerScorecards.Scorecard scorecard : loaded) {
+            reviewers.add(scorecard.getReviewerUserName());
+            scorecards.put(scorecard.getReviewerUserName(), scorecard);
+        }
+        reviewerDropdown.setItems(reviewers);
+        scorecardLabel.setText(reviewers.isEmpty() ? "There are no reviewers yet." : "Select a reviewer to view scorecard.");
+        if (preselectedReviewer != null && !preselectedReviewer.isEmpty()) {
+            reviewerDropdown.setValue(preselectedReviewer);
+            computeScorecard();
+        }
     }
 
     /**
-     * Retrieves a list of reviewer usernames.
-     * (Replace with actual DB query for real implementation.)
-     * @return list of usernames
+     * Displays the scorecard of the selected reviewer.
      */
-    private ObservableList<String> getReviewerUsernames() {
-        // Dummy list - replace with DB retrieval
-        return FXCollections.observableArrayList("reviewer1", "reviewer2", "reviewer3");
+    private void computeScorecard() {
+        String selectedReviewer = reviewerDropdown.getValue();
+        if (selectedReviewer == null) return;
+
+        ReviewerScorecards.Scorecard scorecard = scorecards.get(selectedReviewer);
+        if (scorecard == null) {
+            scorecardLabel.setText("Reviewer: " + selectedReviewer + "\nNo scorecard, as this user is not a reviewer.");
+            return;
+        }
+        scorecardLabel.setText(String.format("Reviewer: %s\nTotal Reviews: %d\nHelpful Reviews (answer resolved): %d\nFlagged or Hidden Reviews: %d\n"
+                + "Trusted by: %d student(s), mean weight %.1f of %d\nFeedback Messages: %d\nScorecard: %.2f%%",
+                selectedReviewer, scorecard.getTotalReviews(), scorecard.getHelpfulReviews(), scorecard.getFlaggedReviews(), scorecard.getTrustedBy(),
+                scorecard.getMeanTrustWeight(), ReviewerScorecards.MAX_TRUST_WEIGHT, scorecard.getFeedbackMessages(), scorecard.getScore()));
     }
 	
 	/**
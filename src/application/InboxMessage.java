@@ -0,0 +1,207 @@
+package application;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The InboxMessage class represents one private message read from the unified messages table, whichever of the
+ * student, reviewer, staff or instructor messaging features it was sent through. The source and sourceID identify
+ * the row of the original messages table. Messages are formatted for display only when a list cell shows them.
+ */
+public class InboxMessage {
+
+	/**
+	 * The messaging feature a message was sent through, one value per original messages table
+	 */
+	public enum Source {
+		/** PrivateMessages, between students and from students to reviewers */
+		STUDENT,
+		/** reviewerMessages, about a review */
+		REVIEWER,
+		/** staffMessages */
+		STAFF,
+		/** instructorMessages */
+		INSTRUCTOR
+	}
+
+	/**
+	 * Format of the date shown in message lists
+	 */
+	private static final DateTimeFormatter DISPLAY_TIME = DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
+
+	private final int messageID;
+	private final Source source;
+	private final int sourceID;
+	private final String sender;
+	private final String senderRole;
+	private final String recipient;
+	private final String recipientRole;
+	private final String subject;
+	private final String body;
+	private final LocalDateTime sentTime;
+	private final boolean isRead;
+	private final int questionID;
+	private final int reviewID;
+	private final boolean isFlagged;
+	private final String reasonIsFlagged;
+
+	/**
+	 * Constructs an InboxMessage.
+	 *
+	 * @param messageID the messageID in the messages table
+	 * @param source the messaging feature the message was sent through
+	 * @param sourceID the messageID in the original messages table
+	 * @param sender the sender's userName
+	 * @param senderRole the sender's role, or null if not recorded
+	 * @param recipient the recipient's userName
+	 * @param recipientRole the recipient's role, or null if not recorded
+	 * @param subject the subject
+	 * @param body the message text
+	 * @param sentTime when the message was sent
+	 * @param isRead whether the recipient has read the message
+	 * @param questionID the question the message is about, or -1
+	 * @param reviewID the review the message is about, or -1
+	 * @param isFlagged whether the message has been flagged
+	 * @param reasonIsFlagged the reason the message was flagged
+	 */
+	public InboxMessage(int messageID, Source source, int sourceID, String sender, String senderRole, String recipient, String recipientRole,
+			String subject, String body, LocalDateTime sentTime, boolean isRead, int questionID, int reviewID, boolean isFlagged, String reasonIsFlagged) {
+		this.messageID = messageID;
+		this.source = source;
+		this.sourceID = sourceID;
+		this.sender = sender;
+		this.senderRole = senderRole;
+		this.recipient = recipient;
+		this.recipientRole = recipientRole;
+		this.subject = subject;
+		this.body = body;
+		this.sentTime = sentTime;
+		this.isRead = isRead;
+		this.questionID = questionID;
+		this.reviewID = reviewID;
+		this.isFlagged = isFlagged;
+		this.reasonIsFlagged = reasonIsFlagged;
+	}
+
+	/**
+	 * @return the messageID in the messages table
+	 */
+	public int getMessageID() { return messageID; }
+
+	/**
+	 * @return the messaging feature the message was sent through
+	 */
+	public Source getSource() { return source; }
+
+	/**
+	 * @return the messageID in the original messages table
+	 */
+	public int getSourceID() { return sourceID; }
+
+	/**
+	 * @return the sender's userName
+	 */
+	public String getSender() { return sender; }
+
+	/**
+	 * @return the sender's role, or null if not recorded
+	 */
+	public String getSenderRole() { return senderRole; }
+
+	/**
+	 * @return the recipient's userName
+	 */
+	public String getRecipient() { return recipient; }
+
+	/**
+	 * @return the recipient's role, or null if not recorded
+	 */
+	public String getRecipientRole() { return recipientRole; }
+
+	/**
+	 * @return the subject
+	 */
+	public String getSubject() { return subject; }
+
+	/**
+	 * @return the message text
+	 */
+	public String getBody() { return body; }
+
+	/**
+	 * @return when the message was sent
+	 */
+	public LocalDateTime getSentTime() { return sentTime; }
+
+	/**
+	 * @return true if the recipient has read the message
+	 */
+	public boolean isRead() { return isRead; }
+
+	/**
+	 * @return the question the message is about, or -1
+	 */
+	public int getQuestionID() { return questionID; }
+
+	/**
+	 * @return the review the message is about, or -1
+	 */
+	public int getReviewID() { return reviewID; }
+
+	/**
+	 * @return true if the message has been flagged
+	 */
+	public boolean isFlagged() { return isFlagged; }
+
+	/**
+	 * @return the reason the message was flagged
+	 */
+	public String getReasonIsFlagged() { return reasonIsFlagged; }
+
+	/**
+	 * Formats the message the way the message lists show it.
+	 *
+	 * @param shownRecipientRole the role shown for the recipient
+	 * @param shownSenderRole the role shown for the sender
+	 * @return the recipient, sender, date, subject and body on separate lines
+	 */
+	public String toDisplayString(String shownRecipientRole, String shownSenderRole) {
+		String formattedTime = sentTime == null ? "" : sentTime.format(DISPLAY_TIME);
+		return "To [" + shownRecipientRole + "]: " + recipient + "\n" + "From [" + shownSenderRole + "]: " + sender + "\n" + "Date: " + formattedTime + "\n"
+				+ "Message Subject: " + subject + "\n" + "Message Body: " + body;
+	}
+
+	/**
+	 * Returns a string representation of the message for display in a ListView. Roles which were not recorded are
+	 * shown as Student, except the sender of a reviewer message to a student.
+	 *
+	 * @return the recipient, sender, date, subject and body on separate lines
+	 */
+	@Override
+	public String toString() {
+		String shownRecipientRole = recipientRole != null ? recipientRole : "Student";
+		String shownSenderRole = senderRole;
+		if (shownSenderRole == null) {
+			shownSenderRole = source == Source.REVIEWER && !shownRecipientRole.equals("Reviewer") ? "Reviewer" : "Student";
+		}
+		return toDisplayString(shownRecipientRole, shownSenderRole);
+	}
+
+	/**
+	 * Checks if a keyword appears in the sender, recipient, subject or body, ignoring case.
+	 *
+	 * @param keyword the keyword, in lower case
+	 * @return true if the message contains the keyword
+	 */
+	public boolean contains(String keyword) {
+		return containsIgnoreCase(sender, keyword) || containsIgnoreCase(recipient, keyword) || containsIgnoreCase(subject, keyword)
+				|| containsIgnoreCase(body, keyword);
+	}
+
+	/**
+	 * @return true if text is not null and contains the lower case keyword, ignoring case
+	 */
+	private static boolean containsIgnoreCase(String text, String keyword) {
+		return text != null && text.toLowerCase().contains(keyword);
+	}
+}
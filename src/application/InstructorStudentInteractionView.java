@@ -1,13 +1,8 @@
 package application;
 
 import java.sql.SQLException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 
 import databasePart1.DatabaseHelper;
 import javafx.collections.FXCollections;
@@ -53,9 +48,109 @@ public class InstructorStudentInteractionView {
         this.databaseHelper = databaseHelper;
         this.user = user;
     }
-    
-    private static final DateTimeFormatter timeMessageSent =
-    	    DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
+
+    /**
+     * Everything shown by the dashboard lists, loaded together on a worker thread.
+     */
+    private static class DashboardData {
+    	List<InboxMessage> ssMessages = List.of();
+    	List<InboxMessage> rsMessages = List.of();
+    	final ObservableList<Question> qItems   = FXCollections.observableArrayList();
+    	final ObservableList<Answer> aItems     = FXCollections.observableArrayList();
+    	final ObservableList<Review> rItems     = FXCollections.observableArrayList();
+    	final ObservableList<String> mutedUsers = FXCollections.observableArrayList();
+    }
+
+    /**
+     * A cell of the Student↔Student or Reviewer↔Student messages lists. It shows the message, and for a flagged message the
+     * 🚩 icon, the reason and an “Unflag” button which clears the flag by the message’s ID and reloads the lists.
+     */
+    private class MessageCell extends ListCell<InboxMessage> {
+        private final Label content   = new Label();
+        private final Label flagIcon  = new Label("🚩");
+        private final Label reasonLbl = new Label();
+        private final Button unflag   = new Button("Unflag");
+        private final HBox box        = new HBox(8, content);
+
+        /**
+         * Constructs a message cell.
+         *
+         * @param populate reloads the dashboard lists after a flag is cleared
+         */
+        MessageCell(Runnable populate) {
+            content.setWrapText(true);
+            flagIcon.setStyle("-fx-font-size:16px;");
+            reasonLbl.setStyle("-fx-font-style:italic; -fx-font-size:11px;");
+            HBox.setHgrow(content, Priority.ALWAYS);
+
+            unflag.setOnAction(e -> {
+                InboxMessage message = getItem();
+                if (message == null) return;
+                databaseHelper.clearMessageFlags(message.getSource(), List.of(message.getSourceID()));
+                populate.run();
+            });
+        }
+
+        @Override
+        protected void updateItem(InboxMessage message, boolean empty) {
+            super.updateItem(message, empty);
+            if (empty || message == null) {
+                setGraphic(null);
+                return;
+            }
+
+            content.setText(message.toString());
+            box.getChildren().setAll(content);
+            if (message.isFlagged()) {
+                reasonLbl.setText("Reason: " + message.getReasonIsFlagged());
+                box.getChildren().addAll(flagIcon, reasonLbl, unflag);
+            }
+            setGraphic(box);
+        }
+    }
+
+    /**
+     * Loads the dashboard lists for the selected filter. Runs on a worker thread, so it only reads from the database
+     * and never touches the scene.
+     *
+     * @param qHelper  the {@link Questions} helper used to load the replies
+     * @param mode     the selected filter: "All", "Student" or "Reviewer"
+     * @return the loaded lists
+     */
+    private DashboardData loadDashboard(Questions qHelper, String mode) {
+    	DashboardData data = new DashboardData();
+    	try {
+    	    // --- Student↔Student ---
+    	    data.ssMessages = databaseHelper.getMessagesBySource(InboxMessage.Source.STUDENT, false);
+
+    	    // --- Reviewer↔Student ---
+    	    data.rsMessages = databaseHelper.getMessagesBySource(InboxMessage.Source.REVIEWER, false);
+    	} catch (SQLException ex) {
+    	    ex.printStackTrace();
+    	}
+
+    	if ("All".equals(mode) || "Student".equals(mode)) {
+    	    data.qItems.addAll(qHelper.getAllReplies());
+    	    data.qItems.addAll(databaseHelper.getAllQuestionsEvenHidden(user));
+    	    data.aItems.addAll(databaseHelper.getAllAnswersEvenHidden(user));
+    	    data.rItems.addAll(databaseHelper.getAllReviewsEvenHidden(user));
+    	}
+
+    	if ("All".equals(mode) || "Reviewer".equals(mode)) {
+    	    data.rItems.addAll(databaseHelper.getAllReviewsEvenHidden(user));
+    	}
+
+    	try {
+    	    if ("All".equals(mode)) {
+    	        data.mutedUsers.addAll(databaseHelper.getMutedUsers());
+    	    } else {
+    	        data.mutedUsers.addAll(databaseHelper.getMutedUsersByRole(mode));
+    	    }
+    	} catch (SQLException ex) {
+    	    ex.printStackTrace();
+    	}
+    	return data;
+    }
 
     /**
      * Builds and displays the JavaFX scene containing tabs for each type of
@@ -67,7 +162,6 @@ public class InstructorStudentInteractionView {
      * @param user          the {@link User} context (instructor) for data filtering
      */
     public void show(Stage primaryStage, User user){
-    	DateTimeFormatter msgFmt = DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
         this.user = user;
 
 
@@ -76,8 +170,8 @@ public class InstructorStudentInteractionView {
         final ListView<Question> questionsList = new ListView<>();
         final ListView<Answer> answersList = new ListView<>();
         final ListView<Review> reviewsList = new ListView<>();
-        final ListView<String> ssList = new ListView<>();
-        final ListView<String> rsList = new ListView<>();
+        final ListView<InboxMessage> ssList = new ListView<>();
+        final ListView<InboxMessage> rsList = new ListView<>();
         final ListView<String> mutedList = new ListView<>();
         final ListView<ReviewerMessage> messageListView = new ListView<>();
         
@@ -92,89 +186,22 @@ public class InstructorStudentInteractionView {
         );
         filterBy.getSelectionModel().select("All");  // default
 
-        // 2) Extract the populate logic into a method
+        // 2) Extract the populate logic into a method. The lists are loaded on a worker thread and shown in one
+        //    hand-off; changing the filter again before they arrive drops the older load.
+        LatestRequest<DashboardData> populateRequest = new LatestRequest<>(databaseHelper.getAsync());
         Runnable populate = () -> {
-        	
-        		
-        	try {
-        	    // --- Student↔Student ---
-        	    Map<String,Integer> ssMap =
-        	        databaseHelper.getAllStudentMessagesWithIds();
-        	    ssList.setItems(FXCollections.observableArrayList(ssMap.keySet()));
-        	    ssList.getProperties().put("idMap", ssMap);
-        	    ssList.getProperties().put(
-        	      "flaggedSet",
-        	      new HashSet<>(databaseHelper.getFlaggedStudentMessagesWithIds().keySet())
-        	    );
-
-        	    // --- Reviewer↔Student ---
-        	    Map<String,Integer> rsMap =
-        	        databaseHelper.getAllReviewerMessagesWithIds();
-        	    rsList.setItems(FXCollections.observableArrayList(rsMap.keySet()));
-        	    rsList.getProperties().put("idMap", rsMap);
-        	    rsList.getProperties().put(
-        	      "flaggedSet",
-        	      new HashSet<>(databaseHelper.getFlaggedReviewerMessagesWithIds().keySet())
-        	    );
-
-        	  } catch (SQLException ex) {
-        	    ex.printStackTrace();
-        	  }
-        	
-        	
-        	
-        		String mode = filterBy.getSelectionModel().getSelectedItem();
-        		
-        	    ObservableList<Question> qItems   = FXCollections.observableArrayList();
-        	    ObservableList<Answer> aItems     = FXCollections.observableArrayList();
-        	    ObservableList<Review> rItems     = FXCollections.observableArrayList();
-        	    ObservableList<String> ssItems    = FXCollections.observableArrayList();
-        	   
-        	    ObservableList<String> mutedUsers = FXCollections.observableArrayList();
-        	    ObservableList<String> rsItems = FXCollections.observableArrayList();
-        	    
-        	    // don’t create an empty msgs here:
-        	    // ObservableList<ReviewerMessage> msgs = FXCollections.observableArrayList();
-
-        	    if ("All".equals(mode) || "Student".equals(mode)) {
-        	        qItems.addAll(qHelper.getAllReplies());
-        	        qItems.addAll(databaseHelper.getAllQuestionsEvenHidden(user));
-        	        aItems.addAll(databaseHelper.getAllAnswersEvenHidden(user));
-        	        ssItems.addAll(databaseHelper.getAllMessagesBetweenStudents());
-        	        rsItems.addAll(databaseHelper.getAllMessagesBetweenReviewersAndStudents());
-        	        rItems.addAll(databaseHelper.getAllReviewsEvenHidden(user));
-        	        
-        	    }
+        	String mode = filterBy.getSelectionModel().getSelectedItem();
+        	populateRequest.submit(() -> loadDashboard(qHelper, mode), data -> {
+        	    ssList.setItems(FXCollections.observableArrayList(data.ssMessages));
+        	    rsList.setItems(FXCollections.observableArrayList(data.rsMessages));
+
+        	    reviewsList.setItems(data.rItems);
+        	    questionsList.setItems(data.qItems);
+        	    answersList.setItems(data.aItems);
+        	    mutedList.setItems(data.mutedUsers);
+        	});
+        };
 
-        	    if ("All".equals(mode) || "Reviewer".equals(mode)) {
-        	    	rsItems.addAll(databaseHelper.getAllMessagesBetweenReviewersAndStudents());
-        	    	rItems.addAll(databaseHelper.getAllReviewsEvenHidden(user));
-        	    	
-        	    }
-
-
-        	    try {
-        	        if ("All".equals(mode)) {
-        	            mutedUsers.addAll(databaseHelper.getMutedUsers());
-        	        } else {
-        	            mutedUsers.addAll(databaseHelper.getMutedUsersByRole(mode));
-        	        }
-        	    } catch (SQLException ex) {
-        	        ex.printStackTrace();
-        	    }
-
-        	    reviewsList.setItems(rItems);
-        	    questionsList.setItems(qItems);
-        	    answersList.setItems(aItems);
-        	    reviewsList.setItems(rItems);
-        	    mutedList.setItems(mutedUsers);
-        	    
-
-        	};
-
-    
-        
-        
         // 3) Hook the listener to call that method
         filterBy.getSelectionModel().selectedItemProperty().addListener((obs, old, nw) -> populate.run());
 
@@ -540,12 +567,8 @@ public class InstructorStudentInteractionView {
          *   <li>A speaker-muted icon and the username.</li>
          *   <li>An "Unmute" button that:
          *     <ul>
-         *       <li>Calls {@link DatabaseHelper#unmuteUser(String)} to unmute the user.</li>
-         *       <li>Clears all hidden content for that user via
-         *           {@link DatabaseHelper#clearHiddenQuestionsForUser(String)},
-         *           {@link DatabaseHelper#clearHiddenRepliesForUser(String)},
-         *           {@link DatabaseHelper#clearHiddenAnswersForUser(String)}, and
-         *           {@link DatabaseHelper#clearHiddenReviewsForUser(String)}.</li>
+         *       <li>Calls {@link DatabaseHelper#unmuteUser(String)} to unmute the user and clear all hidden content
+         *           for that user in one transaction.</li>
          *       <li>Invokes the shared {@code populate} {@link Runnable} to refresh the view.</li>
          *     </ul>
          *   </li>
@@ -572,12 +595,8 @@ public class InstructorStudentInteractionView {
                 unmuteBtn.setOnAction(e -> {
                 	  String name = getItem();
                 	  if (name != null) {
+                	    // also un-hides their content
                 	    databaseHelper.unmuteUser(name);
-                	    // now un-hide their content
-                	    databaseHelper.clearHiddenQuestionsForUser(name);
-                	    databaseHelper.clearHiddenRepliesForUser(name);
-                	    databaseHelper.clearHiddenAnswersForUser(name);
-                	    databaseHelper.clearHiddenReviewsForUser(name);
                 	    populate.run();
                 	  }
                 	});
@@ -612,78 +631,7 @@ public class InstructorStudentInteractionView {
      // ------------------------------------
      // CellFactory for Student↔Student Messages
      
-        ssList.setCellFactory(lv -> new ListCell<String>() {
-            private final Label content   = new Label();
-            private final Label flagIcon  = new Label("🚩");
-            private final Label reasonLbl = new Label();
-            private final Button unflag   = new Button("Unflag");
-            private final HBox box        = new HBox(8, content);
-
-            {
-                content.setWrapText(true);
-                flagIcon.setStyle("-fx-font-size:16px;");
-                reasonLbl.setStyle("-fx-font-style:italic; -fx-font-size:11px;");
-                HBox.setHgrow(content, Priority.ALWAYS);
-
-                unflag.setOnAction(e -> {
-                    String raw = getItem();
-                    if (raw == null) return;
-
-                    // parse to the same pieces...
-                    String[] lines = raw.split("\n");
-                    String to   = lines[0].substring("To [Student]: ".length());
-                    String from = lines[1].substring("From [Student]: ".length());
-                    LocalDateTime ts = LocalDateTime.parse(
-                        lines[2].substring("Date: ".length()), timeMessageSent
-                    );
-                    String subj = lines[3].substring("Message Subject: ".length());
-                    String body = lines[4].substring("Message Body: ".length());
-
-                    // clear the flag
-                    databaseHelper.clearStudentPrivateMessageFlag(to, from, ts, subj, body);
-
-                    // reload everything (including the flaggedSet)
-                    populate.run();
-                });
-            }
-
-            @Override
-            protected void updateItem(String raw, boolean empty) {
-                super.updateItem(raw, empty);
-                if (empty || raw == null) {
-                    setGraphic(null);
-                    return;
-                }
-
-                content.setText(raw);
-                box.getChildren().setAll(content);
-
-                // pull the flaggedSet out of the ListView’s properties
-                @SuppressWarnings("unchecked")
-                Set<String> flaggedSet = (Set<String>) ssList.getProperties()
-                                                             .get("flaggedSet");
-
-                if (flaggedSet != null && flaggedSet.contains(raw)) {
-                    // only hit the DB now to get the reason
-                    String[] lines = raw.split("\n");
-                    String to   = lines[0].substring("To [Student]: ".length());
-                    String from = lines[1].substring("From [Student]: ".length());
-                    LocalDateTime ts = LocalDateTime.parse(
-                        lines[2].substring("Date: ".length()), timeMessageSent
-                    );
-                    String subj = lines[3].substring("Message Subject: ".length());
-                    String body = lines[4].substring("Message Body: ".length());
-
-                    String reason = databaseHelper.getReasonStudentPrivateMessageFlagged(
-                        to, from, ts, subj, body
-                    );
-                    reasonLbl.setText("Reason: " + reason);
-                    box.getChildren().addAll(flagIcon, reasonLbl, unflag);
-                }
-
-                setGraphic(box);
-            }
-        });
+        ssList.setCellFactory(lv -> new MessageCell(populate));
 
         
         /**
@@ -691,17 +639,16 @@ public class InstructorStudentInteractionView {
          * <p>
          * Each cell displays:
          * <ul>
-         *   <li>The full raw message text in a wrapping {@link Label}.</li>
-         *   <li>If the message is flagged (determined by the {@code flaggedSet} in the ListView’s properties):
+         *   <li>The message text, formatted when the cell is shown, in a wrapping {@link Label}.</li>
+         *   <li>If the message is flagged:
          *     <ul>
          *       <li>A 🚩 icon ({@code flagIcon}).</li>
          *       <li>The reason text in an italic {@code reasonLbl}.</li>
          *       <li>An “Unflag” {@link Button} which, when pressed:
          *         <ul>
-         *           <li>Parses the message’s recipient, sender, timestamp, subject, and body.</li>
-         *           <li>Calls {@link DatabaseHelper#clearReviewerPrivateMessageFlag(String,String,LocalDateTime,String,String)}
-         *               to clear the flag in the database.</li>
-         *           <li>Invokes the shared {@code populate} {@link Runnable} to refresh both lists and flagged sets.</li>
+         *           <li>Calls {@link DatabaseHelper#clearMessageFlags(InboxMessage.Source, java.util.Collection)}
+         *               with the message’s ID to clear the flag in the database.</li>
+         *           <li>Invokes the shared {@code populate} {@link Runnable} to refresh both lists.</li>
          *         </ul>
          *       </li>
          *     </ul>
@@ -709,88 +656,7 @@ public class InstructorStudentInteractionView {
          * </ul>
          */
      
-        rsList.setCellFactory(lv -> new ListCell<String>() {
-            private final Label content   = new Label();
-            private final Label flagIcon  = new Label("🚩");
-            private final Label reasonLbl = new Label();
-            private final Button unflag   = new Button("Unflag");
-            private final HBox box        = new HBox(8, content);
-
-            {
-                content.setWrapText(true);
-                flagIcon.setStyle("-fx-font-size:16px;");
-                reasonLbl.setStyle("-fx-font-style:italic; -fx-font-size:11px;");
-                HBox.setHgrow(content, Priority.ALWAYS);
-
-                unflag.setOnAction(e -> {
-                    String raw = getItem();
-                    if (raw == null) return;
-
-                    String[] lines = raw.split("\n");
-                    String receiver = lines[0]
-                        .substring(lines[0].indexOf("]:") + 2).trim();
-                    String sender   = lines[1]
-                        .substring(lines[1].indexOf("]:") + 2).trim();
-                    LocalDateTime ts = LocalDateTime.parse(
-                        lines[2].substring("Date: ".length()).trim(),
-                        timeMessageSent
-                    );
-                    String subj = lines[3]
-                        .substring("Message Subject: ".length()).trim();
-                    String body = lines[4]
-                        .substring("Message Body: ".length()).trim();
-
-                    // clear the flag in DB
-                    databaseHelper.clearReviewerPrivateMessageFlag(
-                        receiver, sender, ts, subj, body
-                    );
-                    // reload both lists & flagged sets
-                    populate.run();
-                });
-            }
-
-            @Override
-            protected void updateItem(String raw, boolean empty) {
-                super.updateItem(raw, empty);
-                if (empty || raw == null) {
-                    setGraphic(null);
-                    return;
-                }
-
-                content.setText(raw);
-                box.getChildren().setAll(content);
-
-                @SuppressWarnings("unchecked")
-                Set<String> flaggedSet =
-                    (Set<String>) rsList.getProperties().get("flaggedSet");
-
-                if (flaggedSet != null && flaggedSet.contains(raw)) {
-                    // only one more DB call to get the reason
-                    String[] lines = raw.split("\n");
-                    String receiver = lines[0]
-                        .substring(lines[0].indexOf("]:") + 2).trim();
-                    String sender   = lines[1]
-                        .substring(lines[1].indexOf("]:") + 2).trim();
-                    LocalDateTime ts = LocalDateTime.parse(
-                        lines[2].substring("Date: ".length()).trim(),
-                        timeMessageSent
-                    );
-                    String subj = lines[3]
-                        .substring("Message Subject: ".length()).trim();
-                    String body = lines[4]
-                        .substring("Message Body: ".length()).trim();
-
-                    String reason = databaseHelper
-                        .getReasonReviewerPrivateMessageFlagged(
-                            receiver, sender, ts, subj, body
-                        );
-                    reasonLbl.setText("Reason: " + reason);
-                    box.getChildren().addAll(flagIcon, reasonLbl, unflag);
-                }
-
-                setGraphic(box);
-            }
-        });
+        rsList.setCellFactory(lv -> new MessageCell(populate));
     
      			
         
@@ -928,31 +794,19 @@ public class InstructorStudentInteractionView {
         	
         	//Student↔Student Messages
         	if (tab.getText().equals("Student↔Student Messages")) {
-        	    String raw = ssList.getSelectionModel().getSelectedItem();
-        	    if (raw != null && confirmDialog("Delete this private message?")) {
-        	        @SuppressWarnings("unchecked")
-        	        Map<String,Integer> idMap =
-        	            (Map<String,Integer>) ssList.getProperties().get("idMap");
-        	        Integer messageID = idMap.get(raw);
-        	        if (messageID != null) {
-        	            databaseHelper.deletePrivateMessage(String.valueOf(messageID));
-        	            populate.run();
-        	        }
+        	    InboxMessage message = ssList.getSelectionModel().getSelectedItem();
+        	    if (message != null && confirmDialog("Delete this private message?")) {
+        	        databaseHelper.deletePrivateMessage(String.valueOf(message.getSourceID()));
+        	        populate.run();
         	    }
         	}
         	
         	//Reviewer↔Student Messages
         	if (tab.getText().equals("Reviewer↔Student Messages")) {
-        	    String raw = rsList.getSelectionModel().getSelectedItem();
-        	    if (raw != null && confirmDialog("Delete this reviewer message?")) {
-        	        @SuppressWarnings("unchecked")
-        	        Map<String,Integer> idMap =
-        	            (Map<String,Integer>) rsList.getProperties().get("idMap");
-        	        Integer msgId = idMap.get(raw);
-        	        if (msgId != null) {
-        	            databaseHelper.deleteReviewerMessage(msgId);
-        	            populate.run();
-        	        }
+        	    InboxMessage message = rsList.getSelectionModel().getSelectedItem();
+        	    if (message != null && confirmDialog("Delete this reviewer message?")) {
+        	        databaseHelper.deleteReviewerMessage(message.getSourceID());
+        	        populate.run();
         	    }
         	}
         	
@@ -0,0 +1,225 @@
+package application;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import databasePart1.ChangeEvent;
+import databasePart1.DatabaseHelper;
+import databasePart1.SearchIndex;
+import javafx.animation.PauseTransition;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+import javafx.util.Duration;
+
+/**
+ * The KeywordSearch class filters a ListView by the text typed into its "Search by Keyword" field using the
+ * DatabaseHelper SearchIndex, instead of lower-casing and scanning every loaded post on every keystroke.
+ *
+ * Typing restarts a short pause, and the search only runs once the user stops typing. It then runs on an
+ * AsyncDatabase worker thread through a LatestRequest, so a slow search for an old keyword never replaces the result
+ * for the current one. If no post contains the words typed, the posts with the most similar words are shown instead,
+ * so misspelled terms and names still find something. The matching rows are shown most relevant first; in a list of
+ * questions and their replies a whole thread is ranked by its best match and keeps its question-then-replies order.
+ * The words which matched can be shown in bold with {@link #show(Label, String)}.
+ *
+ * @param <T> the type of the rows, such as Question, Answer or Review
+ */
+public class KeywordSearch<T> {
+
+	/**
+	 * How long typing must pause before the search runs
+	 */
+	public static final Duration DEBOUNCE = Duration.millis(200);
+
+	/**
+	 * Most rows shown for a misspelled query with no exact matches
+	 */
+	public static final int FUZZY_LIMIT = 50;
+
+	private final DatabaseHelper databaseHelper;
+	private final FilteredList<T> filteredItems;
+	private final SortedList<T> rankedItems;
+	private final Set<ChangeEvent.Entity> entities;
+	private final ToLongFunction<T> keyOf;
+	private final ToIntFunction<T> threadOf;
+	private final LatestRequest<List<SearchIndex.Hit>> request;
+	private final PauseTransition debounce = new PauseTransition(DEBOUNCE);
+
+	/**
+	 * The query whose results are shown, empty when the list is not filtered
+	 */
+	private String query = "";
+
+	/**
+	 * Score of each matching row, keyed by SearchIndex key
+	 */
+	private Map<Long, Double> scores = new HashMap<>();
+
+	/**
+	 * Best score in each matching thread, keyed by questionID
+	 */
+	private Map<Integer, Double> threadScores = new HashMap<>();
+
+	/**
+	 * Constructs a KeywordSearch.
+	 *
+	 * @param databaseHelper the DatabaseHelper whose SearchIndex is used
+	 * @param filteredItems the FilteredList shown by the ListView
+	 * @param entities the kinds of post shown by the ListView
+	 * @param keyOf returns the SearchIndex key of a row, see {@link SearchIndex#key(ChangeEvent.Entity, int)}
+	 * @param threadOf returns the questionID of a row to rank whole question threads together, or null to rank each
+	 *        row on its own
+	 */
+	public KeywordSearch(DatabaseHelper databaseHelper, FilteredList<T> filteredItems, Set<ChangeEvent.Entity> entities, ToLongFunction<T> keyOf,
+			ToIntFunction<T> threadOf) {
+		this.databaseHelper = databaseHelper;
+		this.filteredItems = filteredItems;
+		this.rankedItems = new SortedList<>(filteredItems);
+		this.entities = entities;
+		this.keyOf = keyOf;
+		this.threadOf = threadOf;
+		this.request = new LatestRequest<>(databaseHelper.getAsync());
+	}
+
+	/**
+	 * Searches whenever the user pauses typing in the field, and shows the results in the ListView.
+	 *
+	 * @param keywordField the "Search by Keyword" field
+	 * @param listView the ListView which shows the rows
+	 */
+	public void attach(TextField keywordField, ListView<T> listView) {
+		debounce.setOnFinished(e -> search(keywordField.getText(), listView));
+		keywordField.textProperty().addListener((observable, oldValue, newValue) -> debounce.playFromStart());
+	}
+
+	/**
+	 * @return the rows which match the current query, most relevant first, or every row when there is no query
+	 */
+	public SortedList<T> getRankedItems() {
+		return rankedItems;
+	}
+
+	/**
+	 * @return whether the list is filtered by a query
+	 */
+	public boolean isActive() {
+		return !query.isEmpty();
+	}
+
+	/**
+	 * Shows text in a Label, with the words which match the current query in bold.
+	 *
+	 * @param label the Label
+	 * @param text the text to show
+	 */
+	public void show(Label label, String text) {
+		if (!isActive()) {
+			label.setGraphic(null);
+			label.setText(text);
+			return;
+		}
+		label.setText("");
+		label.setGraphic(highlight(text));
+	}
+
+	/**
+	 * Builds a TextFlow of text with the words which match the current query in bold.
+	 *
+	 * @param text the text
+	 * @return the TextFlow
+	 */
+	public TextFlow highlight(String text) {
+		TextFlow flow = new TextFlow();
+		if (text == null) {
+			return flow;
+		}
+		int shown = 0;
+		for (int[] range : SearchIndex.highlight(text, query)) {
+			if (range[0] > shown) {
+				flow.getChildren().add(new Text(text.substring(shown, range[0])));
+			}
+			Text match = new Text(text.substring(range[0], range[1]));
+			match.setFont(Font.font(Font.getDefault().getFamily(), FontWeight.BOLD, Font.getDefault().getSize()));
+			flow.getChildren().add(match);
+			shown = range[1];
+		}
+		if (shown < text.length()) {
+			flow.getChildren().add(new Text(text.substring(shown)));
+		}
+		return flow;
+	}
+
+	/**
+	 * Runs the search for the text in the field, or clears the filter if it is empty.
+	 *
+	 * @param text the text in the field
+	 * @param listView the ListView which shows the rows
+	 */
+	private void search(String text, ListView<T> listView) {
+		String trimmed = text == null ? "" : text.trim();
+		if (trimmed.isEmpty()) {
+			request.cancel();
+			apply("", List.of(), listView);
+			return;
+		}
+		request.submit(() -> {
+			List<SearchIndex.Hit> hits = databaseHelper.search(trimmed, entities);
+			return hits.isEmpty() ? databaseHelper.fuzzySearch(trimmed, entities, FUZZY_LIMIT) : hits;
+		}, hits -> apply(trimmed, hits, listView));
+	}
+
+	/**
+	 * Filters and orders the rows by the results of a search.
+	 *
+	 * @param newQuery the query searched for, empty to show every row
+	 * @param hits the matching posts
+	 * @param listView the ListView which shows the rows
+	 */
+	private void apply(String newQuery, List<SearchIndex.Hit> hits, ListView<T> listView) {
+		query = newQuery;
+		Map<Long, Double> newScores = new HashMap<>();
+		Map<Integer, Double> newThreadScores = new HashMap<>();
+		for (SearchIndex.Hit hit : hits) {
+			newScores.put(hit.getKey(), hit.getScore());
+			newThreadScores.merge(hit.getQuestionID(), hit.getScore(), Math::max);
+		}
+		scores = newScores;
+		threadScores = newThreadScores;
+
+		if (query.isEmpty()) {
+			filteredItems.setPredicate(null);
+			rankedItems.setComparator(null);
+		}
+		else {
+			filteredItems.setPredicate(item -> scores.containsKey(keyOf.applyAsLong(item)));
+			rankedItems.setComparator(ranking());
+		}
+		// The Filter buttons show lists of their own, so switch back to the searchable list
+		listView.setItems(rankedItems);
+		listView.refresh();
+	}
+
+	/**
+	 * @return the order of the matching rows, best match first
+	 */
+	private Comparator<T> ranking() {
+		Comparator<T> byKey = Comparator.comparingLong(keyOf);
+		if (threadOf == null) {
+			return Comparator.<T>comparingDouble(item -> scores.get(keyOf.applyAsLong(item))).reversed().thenComparing(byKey);
+		}
+		return Comparator.<T>comparingDouble(item -> threadScores.getOrDefault(threadOf.applyAsInt(item), 0.0)).reversed()
+				.thenComparingInt(threadOf).thenComparing(byKey);
+	}
+}
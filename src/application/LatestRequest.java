@@ -0,0 +1,133 @@
+package application;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import databasePart1.AsyncDatabase;
+import databasePart1.DatabaseHelper;
+import javafx.application.Platform;
+
+/**
+ * The LatestRequest class runs the database work behind one part of a view, such as a ListView and its filter, on the
+ * AsyncDatabase worker threads and hands the result back to the JavaFX Application Thread with a single
+ * Platform.runLater call.
+ *
+ * Only the most recent request counts: submitting a new request cancels the previous one, and a result which arrives
+ * after a newer request was submitted is dropped, so a slow query for an old filter can never overwrite the list
+ * shown for the current filter. Every method must be called on the JavaFX Application Thread.
+ *
+ * Without an AsyncDatabase, for example when the DatabaseHelper has not been connected, the work runs on the calling
+ * thread and the result is delivered before submit() returns.
+ *
+ * @param <T> the type of the result of the work
+ */
+public class LatestRequest<T> {
+
+	private final AsyncDatabase asyncDatabase;
+
+	/**
+	 * Runs the result callbacks, Platform::runLater outside of tests
+	 */
+	private final Executor uiThread;
+
+	/**
+	 * The request whose result will be delivered, null when there is none
+	 */
+	private CompletableFuture<T> current = null;
+
+	/**
+	 * Constructs a LatestRequest which delivers its results on the JavaFX Application Thread.
+	 *
+	 * @param asyncDatabase the worker threads which run the work, or null to run it on the calling thread
+	 */
+	public LatestRequest(AsyncDatabase asyncDatabase) {
+		this(asyncDatabase, Platform::runLater);
+	}
+
+	/**
+	 * Constructs a LatestRequest which delivers its results with the specified executor.
+	 *
+	 * @param asyncDatabase the worker threads which run the work, or null to run it on the calling thread
+	 * @param uiThread runs the result callbacks; must be a single thread, the one every other method is called on
+	 */
+	public LatestRequest(AsyncDatabase asyncDatabase, Executor uiThread) {
+		this.asyncDatabase = asyncDatabase;
+		this.uiThread = uiThread;
+	}
+
+	/**
+	 * Cancels the previous request and runs the work on a worker thread. If no newer request has been submitted by
+	 * the time the work completes, onResult is called on the JavaFX Application Thread with its result. A failure is
+	 * printed in the same way as the DatabaseHelper methods print theirs.
+	 *
+	 * @param work the database work to run
+	 * @param onResult receives the result on the JavaFX Application Thread
+	 * @return the future of the request
+	 */
+	public CompletableFuture<T> submit(DatabaseHelper.SqlWork<T> work, Consumer<T> onResult) {
+		return submit(work, onResult, Throwable::printStackTrace);
+	}
+
+	/**
+	 * Cancels the previous request and runs the work on a worker thread. If no newer request has been submitted by
+	 * the time the work completes, onResult or onFailure is called on the JavaFX Application Thread.
+	 *
+	 * @param work the database work to run
+	 * @param onResult receives the result on the JavaFX Application Thread
+	 * @param onFailure receives the exception thrown by the work on the JavaFX Application Thread
+	 * @return the future of the request
+	 */
+	public CompletableFuture<T> submit(DatabaseHelper.SqlWork<T> work, Consumer<T> onResult, Consumer<Throwable> onFailure) {
+		cancel();
+		if (asyncDatabase == null) {
+			T value;
+			try {
+				value = work.execute();
+			}
+			catch (Exception e) {
+				onFailure.accept(e);
+				return CompletableFuture.failedFuture(e);
+			}
+			onResult.accept(value);
+			return CompletableFuture.completedFuture(value);
+		}
+		CompletableFuture<T> request = asyncDatabase.submit(work);
+		current = request;
+		request.whenComplete((value, error) -> {
+			if (request.isCancelled()) {
+				return;
+			}
+			uiThread.execute(() -> {
+				if (current != request) {
+					return;
+				}
+				current = null;
+				if (error != null) {
+					onFailure.accept(error);
+				}
+				else {
+					onResult.accept(value);
+				}
+			});
+		});
+		return request;
+	}
+
+	/**
+	 * Cancels the pending request, if any, so its result is never delivered.
+	 */
+	public void cancel() {
+		if (current != null) {
+			current.cancel(false);
+			current = null;
+		}
+	}
+
+	/**
+	 * @return true if a request has been submitted and its result has not been delivered yet
+	 */
+	public boolean isPending() {
+		return current != null;
+	}
+}
@@ -0,0 +1,367 @@
+package application;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+import databasePart1.AsyncDatabase;
+import databasePart1.ChangeBus;
+import databasePart1.ChangeEvent;
+import databasePart1.DatabaseHelper;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+/**
+ * The LiveListUpdater class keeps the ObservableList behind a ListView up to date with the changes published on the
+ * DatabaseHelper ChangeBus, so a view shows new, edited, hidden and deleted rows without reloading the whole table.
+ *
+ * When a row is added or updated, that single row is read again on a worker thread and then added to the list or
+ * swapped in place of the old copy. A row which no longer exists, or which the view does not show (for example a
+ * hidden answer in the student view), is removed. A change to many rows at once calls the reload action instead.
+ * Updated rows which have not been loaded into the list yet are ignored, as they will arrive with their page.
+ *
+ * Two changes to the same row in quick succession read the row twice on different worker threads, and the reads may
+ * finish in either order. Each event is numbered, and a row read for an event is dropped if a later event for the same
+ * row has arrived since, so an older copy never replaces a newer one. A row whose ADDED read was dropped is added by
+ * the read which replaced it.
+ *
+ * A list may also show the child rows of a second entity directly after their parent, as the question lists show each
+ * question followed by its replies. A new child row is inserted after its parent's last child, and the children of a
+ * parent are removed with it. Child rows whose parent has not been loaded are ignored.
+ *
+ * @param <T> the type of the rows, such as Question, Answer or Review
+ */
+public class LiveListUpdater<T> implements AutoCloseable {
+
+	/**
+	 * Reads one row from the database.
+	 *
+	 * @param <T> the type of the row
+	 */
+	@FunctionalInterface
+	public interface RowLoader<T> {
+
+		/**
+		 * Reads one row.
+		 *
+		 * @param id the primary key of the row
+		 * @return the row, or null if it does not exist or is not shown by the view
+		 */
+		T load(int id);
+	}
+
+	/**
+	 * Describes the child rows a list shows directly after their parent row.
+	 *
+	 * @param <T> the type of the rows
+	 */
+	public static final class ChildRows<T> {
+
+		private final ChangeEvent.Entity entity;
+		private final ToIntFunction<T> idOf;
+		private final ToIntFunction<T> parentIdOf;
+		private final RowLoader<T> rowLoader;
+
+		/**
+		 * Constructs a ChildRows.
+		 *
+		 * @param entity the entity of the child rows
+		 * @param idOf returns the primary key of a child row, or a negative number for a parent row
+		 * @param parentIdOf returns the primary key of a child row's parent
+		 * @param rowLoader reads one child row from the database
+		 */
+		public ChildRows(ChangeEvent.Entity entity, ToIntFunction<T> idOf, ToIntFunction<T> parentIdOf, RowLoader<T> rowLoader) {
+			this.entity = entity;
+			this.idOf = idOf;
+			this.parentIdOf = parentIdOf;
+			this.rowLoader = rowLoader;
+		}
+	}
+
+	private final ObservableList<T> items;
+	private final ChangeEvent.Entity entity;
+	private final ToIntFunction<T> idOf;
+	private final RowLoader<T> rowLoader;
+
+	/**
+	 * The child rows shown after their parent, null if the list has none
+	 */
+	private final ChildRows<T> children;
+
+	private final Runnable reload;
+	private final AsyncDatabase asyncDatabase;
+
+	/**
+	 * Runs the list updates, Platform::runLater outside of tests
+	 */
+	private final Executor uiThread;
+
+	private final ChangeBus.Subscription subscription;
+
+	/**
+	 * Numbers the events as they arrive
+	 */
+	private final AtomicLong requestCounter = new AtomicLong();
+
+	/**
+	 * The number of the latest event for each parent row and each child row whose update has not been applied yet
+	 */
+	private final Map<Integer, Long> latestRequests = new ConcurrentHashMap<>();
+	private final Map<Integer, Long> latestChildRequests = new ConcurrentHashMap<>();
+
+	/**
+	 * The parent and child rows added to the database whose addition has not been applied yet, so a later update
+	 * still adds a row whose ADDED read was dropped
+	 */
+	private final Set<Integer> pendingAdds = ConcurrentHashMap.newKeySet();
+	private final Set<Integer> pendingChildAdds = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Constructs a LiveListUpdater which applies its updates on the JavaFX Application Thread.
+	 *
+	 * @param databaseHelper the DatabaseHelper whose ChangeBus is followed
+	 * @param entity the entity shown by the list
+	 * @param items the ObservableList to update
+	 * @param idOf returns the primary key of a row, or a negative number for rows of another entity in the same list
+	 * @param rowLoader reads one row from the database
+	 * @param reload reloads the whole list after a change to many rows
+	 */
+	public LiveListUpdater(DatabaseHelper databaseHelper, ChangeEvent.Entity entity, ObservableList<T> items, ToIntFunction<T> idOf,
+			RowLoader<T> rowLoader, Runnable reload) {
+		this(databaseHelper, entity, items, idOf, rowLoader, null, reload, Platform::runLater);
+	}
+
+	/**
+	 * Constructs a LiveListUpdater for a list which shows each row followed by its child rows, applying its updates on
+	 * the JavaFX Application Thread.
+	 *
+	 * @param databaseHelper the DatabaseHelper whose ChangeBus is followed
+	 * @param entity the entity of the parent rows
+	 * @param items the ObservableList to update
+	 * @param idOf returns the primary key of a parent row, or a negative number for a child row
+	 * @param rowLoader reads one parent row from the database
+	 * @param children the child rows shown after their parent
+	 * @param reload reloads the whole list after a change to many rows
+	 */
+	public LiveListUpdater(DatabaseHelper databaseHelper, ChangeEvent.Entity entity, ObservableList<T> items, ToIntFunction<T> idOf,
+			RowLoader<T> rowLoader, ChildRows<T> children, Runnable reload) {
+		this(databaseHelper, entity, items, idOf, rowLoader, children, reload, Platform::runLater);
+	}
+
+	/**
+	 * Constructs a LiveListUpdater which applies its updates with the specified executor.
+	 *
+	 * @param databaseHelper the DatabaseHelper whose ChangeBus is followed
+	 * @param entity the entity shown by the list
+	 * @param items the ObservableList to update
+	 * @param idOf returns the primary key of a row, or a negative number for rows of another entity in the same list
+	 * @param rowLoader reads one row from the database
+	 * @param reload reloads the whole list after a change to many rows
+	 * @param uiThread applies the updates to the list; must be the single thread which owns the list
+	 */
+	public LiveListUpdater(DatabaseHelper databaseHelper, ChangeEvent.Entity entity, ObservableList<T> items, ToIntFunction<T> idOf,
+			RowLoader<T> rowLoader, Runnable reload, Executor uiThread) {
+		this(databaseHelper, entity, items, idOf, rowLoader, null, reload, uiThread);
+	}
+
+	/**
+	 * Constructs a LiveListUpdater for a list which shows each row followed by its child rows, applying its updates
+	 * with the specified executor.
+	 *
+	 * @param databaseHelper the DatabaseHelper whose ChangeBus is followed
+	 * @param entity the entity of the parent rows
+	 * @param items the ObservableList to update
+	 * @param idOf returns the primary key of a parent row, or a negative number for a child row
+	 * @param rowLoader reads one parent row from the database
+	 * @param children the child rows shown after their parent, or null if the list has none
+	 * @param reload reloads the whole list after a change to many rows
+	 * @param uiThread applies the updates to the list; must be the single thread which owns the list
+	 */
+	public LiveListUpdater(DatabaseHelper databaseHelper, ChangeEvent.Entity entity, ObservableList<T> items, ToIntFunction<T> idOf,
+			RowLoader<T> rowLoader, ChildRows<T> children, Runnable reload, Executor uiThread) {
+		this.items = items;
+		this.entity = entity;
+		this.idOf = idOf;
+		this.rowLoader = rowLoader;
+		this.children = children;
+		this.reload = reload;
+		this.asyncDatabase = databaseHelper.getAsync();
+		this.uiThread = uiThread;
+		this.subscription = databaseHelper.getChangeBus().subscribe(children == null ? EnumSet.of(entity) : EnumSet.of(entity, children.entity),
+				this::onChange);
+	}
+
+	/**
+	 * Stops following the ChangeBus once the stage shows another scene, so views which are left behind do not keep
+	 * receiving events. Call this after the view's scene has been set on the stage.
+	 *
+	 * @param stage the stage showing the view
+	 */
+	public void closeWhenSceneReplaced(Stage stage) {
+		Scene shown = stage.getScene();
+		ChangeListener<Scene> listener = new ChangeListener<Scene>() {
+			@Override
+			public void changed(javafx.beans.value.ObservableValue<? extends Scene> observable, Scene oldScene, Scene newScene) {
+				if (newScene != shown) {
+					close();
+					stage.sceneProperty().removeListener(this);
+				}
+			}
+		};
+		stage.sceneProperty().addListener(listener);
+	}
+
+	/**
+	 * Stops following the ChangeBus.
+	 */
+	@Override
+	public void close() {
+		subscription.close();
+	}
+
+	/**
+	 * Handles an event on the thread which made the change.
+	 *
+	 * @param event the event
+	 */
+	private void onChange(ChangeEvent event) {
+		if (event.affectsAllRows()) {
+			uiThread.execute(reload);
+			return;
+		}
+		int id = event.getId();
+		boolean child = event.getEntity() != entity;
+		Map<Integer, Long> requests = child ? latestChildRequests : latestRequests;
+		Set<Integer> adds = child ? pendingChildAdds : pendingAdds;
+		if (event.getKind() == ChangeEvent.Kind.ADDED) {
+			adds.add(id);
+		}
+		long request = requestCounter.incrementAndGet();
+		requests.merge(id, request, Math::max);
+		if (event.getKind() == ChangeEvent.Kind.DELETED) {
+			uiThread.execute(() -> {
+				if (isLatest(requests, id, request)) {
+					adds.remove(id);
+					remove(id, child);
+				}
+			});
+			return;
+		}
+		RowLoader<T> loader = child ? children.rowLoader : rowLoader;
+		if (asyncDatabase == null) {
+			T row = loader.load(id);
+			uiThread.execute(() -> {
+				if (isLatest(requests, id, request)) {
+					apply(id, row, adds.remove(id), child);
+				}
+			});
+			return;
+		}
+		asyncDatabase.submit(() -> loader.load(id)).whenComplete((row, error) -> {
+			if (error != null) {
+				error.printStackTrace();
+				return;
+			}
+			uiThread.execute(() -> {
+				if (isLatest(requests, id, request)) {
+					apply(id, row, adds.remove(id), child);
+				}
+			});
+		});
+	}
+
+	/**
+	 * Checks that no later event for a row has arrived, and forgets the row's number if none has.
+	 *
+	 * @param requests the latest event numbers of the parent or the child rows
+	 * @param id the primary key of the row
+	 * @param request the number of the event being applied
+	 * @return true if the event is the latest for the row and should be applied
+	 */
+	private static boolean isLatest(Map<Integer, Long> requests, int id, long request) {
+		Long latest = requests.get(id);
+		if (latest != null && latest > request) {
+			return false;
+		}
+		requests.remove(id, request);
+		return true;
+	}
+
+	/**
+	 * Adds, replaces or removes a row in the list.
+	 *
+	 * @param id the primary key of the row
+	 * @param row the row read from the database, or null if the view does not show it
+	 * @param added whether the row was just added to the database
+	 * @param child whether the row is a child row
+	 */
+	private void apply(int id, T row, boolean added, boolean child) {
+		int index = indexOf(id, child);
+		if (index >= 0) {
+			if (row == null) {
+				remove(id, child);
+			}
+			else {
+				items.set(index, row);
+			}
+			return;
+		}
+		if (!added || row == null) {
+			return;
+		}
+		if (!child) {
+			items.add(row);
+			return;
+		}
+		int parentID = children.parentIdOf.applyAsInt(row);
+		int parent = indexOf(parentID, false);
+		if (parent < 0) {
+			return;
+		}
+		int insertAt = parent + 1;
+		while (insertAt < items.size() && children.idOf.applyAsInt(items.get(insertAt)) >= 0
+				&& children.parentIdOf.applyAsInt(items.get(insertAt)) == parentID) {
+			insertAt++;
+		}
+		items.add(insertAt, row);
+	}
+
+	/**
+	 * Removes a row from the list, together with its child rows if it is a parent row.
+	 *
+	 * @param id the primary key of the row
+	 * @param child whether the row is a child row
+	 */
+	private void remove(int id, boolean child) {
+		if (child) {
+			items.removeIf(row -> children.idOf.applyAsInt(row) == id);
+			return;
+		}
+		items.removeIf(row -> idOf.applyAsInt(row) == id
+				|| (children != null && children.idOf.applyAsInt(row) >= 0 && children.parentIdOf.applyAsInt(row) == id));
+	}
+
+	/**
+	 * Finds a row in the list.
+	 *
+	 * @param id the primary key of the row
+	 * @param child whether the row is a child row
+	 * @return the index of the row, or -1 if it is not in the list
+	 */
+	private int indexOf(int id, boolean child) {
+		ToIntFunction<T> key = child ? children.idOf : idOf;
+		for (int i = 0; i < items.size(); i++) {
+			if (key.applyAsInt(items.get(i)) == id) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
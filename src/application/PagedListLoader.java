@@ -0,0 +1,296 @@
+package application;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import databasePart1.AsyncDatabase;
+import databasePart1.Page;
+import databasePart1.PageCursor;
+import javafx.application.Platform;
+import javafx.beans.property.ObjectProperty;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.Control;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+/**
+ * The PagedListLoader class fills a ListView one page at a time instead of loading an entire table up front. The
+ * first page is loaded straight away and the next page is fetched whenever the user scrolls close to the bottom of
+ * the list, until the database reports that there are no more rows.
+ *
+ * Pages are appended to the backing ObservableList of the ListView, so FilteredLists, cell factories and the code
+ * which adds, edits or removes single rows keep working unchanged. Rows that are already in the list (for example a
+ * question the user posted before scrolling down to it) are not added a second time.
+ *
+ * When it is given an AsyncDatabase the pages are fetched on a worker thread and appended once they arrive, so the
+ * JavaFX Application Thread never waits for the database. Reloading the first page drops any page still in flight.
+ *
+ * A TableView is filled the same way, so a table of every user only ever holds the rows the admin has scrolled to.
+ *
+ * @param <T> the type of the rows, such as Question, Answer or Review
+ */
+public class PagedListLoader<T> {
+
+	/**
+	 * Default number of rows fetched per page
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 50;
+
+	/**
+	 * Fraction of the list which must have been scrolled past before the next page is fetched
+	 */
+	private static final double LOAD_THRESHOLD = 0.9;
+
+	/**
+	 * Fetches one page of rows.
+	 *
+	 * @param <T> the type of the rows
+	 */
+	@FunctionalInterface
+	public interface PageFetcher<T> {
+
+		/**
+		 * Fetches the page after the cursor.
+		 *
+		 * @param after the cursor returned with the previous page, or null for the first page
+		 * @param pageSize the maximum number of rows to return
+		 * @return the page
+		 */
+		Page<T> fetch(PageCursor after, int pageSize);
+	}
+
+	/**
+	 * The ListView or TableView displaying the rows
+	 */
+	private final Control view;
+
+	/**
+	 * Items property of the view
+	 */
+	private final ObjectProperty<ObservableList<T>> viewItems;
+
+	private final ObservableList<T> items;
+	private final PageFetcher<T> fetcher;
+	private final Function<T, Object> keyOf;
+	private final int pageSize;
+	
+	/**
+	 * Fetches pages on a worker thread, null when pages are fetched on the calling thread
+	 */
+	private final LatestRequest<Page<T>> request;
+
+	/**
+	 * Items the view showed when the loader was attached; pages are only fetched while the view still shows
+	 * them, so a filter which replaces the view items stops the loader
+	 */
+	private ObservableList<T> shownItems;
+
+	private PageCursor cursor = null;
+	private boolean hasMore = true;
+	private boolean loading = false;
+
+	/**
+	 * Constructs a PagedListLoader which fetches pages on the JavaFX Application Thread. Call
+	 * {@link #loadFirstPage()} once the ListView items have been set.
+	 *
+	 * @param listView the ListView displaying the rows
+	 * @param items the ObservableList the pages are appended to, usually wrapped by the ListView items
+	 * @param fetcher fetches one page of rows from the database
+	 * @param keyOf returns a key identifying a row, used to skip rows which are already in the list
+	 * @param pageSize the number of rows fetched per page
+	 */
+	public PagedListLoader(ListView<T> listView, ObservableList<T> items, PageFetcher<T> fetcher, Function<T, Object> keyOf, int pageSize) {
+		this(null, listView, items, fetcher, keyOf, pageSize);
+	}
+	
+	/**
+	 * Constructs a PagedListLoader which fetches pages on the worker threads of an AsyncDatabase. Call
+	 * {@link #loadFirstPage()} once the ListView items have been set.
+	 *
+	 * @param asyncDatabase the worker threads which fetch the pages, or null to fetch them on the calling thread
+	 * @param listView the ListView displaying the rows
+	 * @param items the ObservableList the pages are appended to, usually wrapped by the ListView items
+	 * @param fetcher fetches one page of rows from the database
+	 * @param keyOf returns a key identifying a row, used to skip rows which are already in the list
+	 * @param pageSize the number of rows fetched per page
+	 */
+	public PagedListLoader(AsyncDatabase asyncDatabase, ListView<T> listView, ObservableList<T> items, PageFetcher<T> fetcher, Function<T, Object> keyOf, int pageSize) {
+		this(asyncDatabase, listView, listView.itemsProperty(), items, fetcher, keyOf, pageSize);
+	}
+
+	/**
+	 * Constructs a PagedListLoader which fills a TableView on the worker threads of an AsyncDatabase. Call
+	 * {@link #loadFirstPage()} once the TableView items have been set.
+	 *
+	 * @param asyncDatabase the worker threads which fetch the pages, or null to fetch them on the calling thread
+	 * @param tableView the TableView displaying the rows
+	 * @param items the ObservableList the pages are appended to, usually the TableView items
+	 * @param fetcher fetches one page of rows from the database
+	 * @param keyOf returns a key identifying a row, used to skip rows which are already in the table
+	 * @param pageSize the number of rows fetched per page
+	 */
+	public PagedListLoader(AsyncDatabase asyncDatabase, TableView<T> tableView, ObservableList<T> items, PageFetcher<T> fetcher, Function<T, Object> keyOf, int pageSize) {
+		this(asyncDatabase, tableView, tableView.itemsProperty(), items, fetcher, keyOf, pageSize);
+	}
+
+	/**
+	 * Constructs a PagedListLoader for a ListView or a TableView.
+	 *
+	 * @param asyncDatabase the worker threads which fetch the pages, or null to fetch them on the calling thread
+	 * @param view the ListView or TableView displaying the rows
+	 * @param viewItems the items property of the view
+	 * @param items the ObservableList the pages are appended to
+	 * @param fetcher fetches one page of rows from the database
+	 * @param keyOf returns a key identifying a row, used to skip rows which are already in the list
+	 * @param pageSize the number of rows fetched per page
+	 */
+	private PagedListLoader(AsyncDatabase asyncDatabase, Control view, ObjectProperty<ObservableList<T>> viewItems, ObservableList<T> items,
+			PageFetcher<T> fetcher, Function<T, Object> keyOf, int pageSize) {
+		this.request = asyncDatabase == null ? null : new LatestRequest<>(asyncDatabase);
+		this.view = view;
+		this.viewItems = viewItems;
+		this.items = items;
+		this.fetcher = fetcher;
+		this.keyOf = keyOf;
+		this.pageSize = pageSize;
+
+		if (view.getSkin() != null) {
+			attachScrollListener();
+		}
+		view.skinProperty().addListener((observable, oldSkin, newSkin) -> attachScrollListener());
+	}
+
+	/**
+	 * Clears the list and loads the first page again.
+	 */
+	public void loadFirstPage() {
+		if (request != null) {
+			request.cancel();
+			loading = false;
+		}
+		shownItems = viewItems.get();
+		items.clear();
+		cursor = null;
+		hasMore = true;
+		loadNextPage();
+	}
+
+	/**
+	 * Fetches the next page and appends it to the list, unless every page has been loaded already or the view is
+	 * showing different items.
+	 */
+	public void loadNextPage() {
+		if (loading || !hasMore || viewItems.get() != shownItems) {
+			return;
+		}
+		loading = true;
+		if (request != null) {
+			PageCursor after = cursor;
+			request.submit(() -> fetcher.fetch(after, pageSize), page -> {
+				loading = false;
+				append(page);
+				fillViewport();
+			}, error -> {
+				loading = false;
+				error.printStackTrace();
+			});
+			return;
+		}
+		try {
+			append(fetcher.fetch(cursor, pageSize));
+		}
+		finally {
+			loading = false;
+		}
+		fillViewport();
+	}
+	
+	/**
+	 * Appends the rows of a page which are not in the list yet and moves the cursor past the page.
+	 *
+	 * @param page the page fetched after the current cursor
+	 */
+	private void append(Page<T> page) {
+		Set<Object> present = new HashSet<>();
+		for (T item : items) {
+			present.add(keyOf.apply(item));
+		}
+		List<T> rows = page.getItems();
+		for (T row : rows) {
+			if (present.add(keyOf.apply(row))) {
+				items.add(row);
+			}
+		}
+		cursor = page.getNextCursor();
+		hasMore = page.hasMore();
+	}
+	
+	/**
+	 * Keeps loading pages until the view can be scrolled. If a page did not fill the view there is no scroll
+	 * bar to drag yet, so the next page would otherwise never be requested.
+	 */
+	private void fillViewport() {
+		Platform.runLater(() -> {
+			ScrollBar scrollBar = findVerticalScrollBar();
+			if (hasMore && scrollBar != null && !scrollBar.isVisible()) {
+				loadNextPage();
+			}
+		});
+	}
+
+	/**
+	 * @return true if there are rows in the database which have not been loaded yet
+	 */
+	public boolean hasMore() {
+		return hasMore;
+	}
+
+	/**
+	 * Listens to the vertical scroll bar of the view and fetches the next page when it nears the bottom.
+	 */
+	private void attachScrollListener() {
+		ScrollBar scrollBar = findVerticalScrollBar();
+		if (scrollBar == null) {
+			// The skin creates its scroll bars on the first layout pass
+			Platform.runLater(() -> {
+				ScrollBar created = findVerticalScrollBar();
+				if (created != null) {
+					listenTo(created);
+				}
+			});
+		}
+		else {
+			listenTo(scrollBar);
+		}
+	}
+
+	/**
+	 * Fetches the next page whenever the scroll bar passes the load threshold.
+	 *
+	 * @param scrollBar the vertical scroll bar of the view
+	 */
+	private void listenTo(ScrollBar scrollBar) {
+		scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> {
+			if (newValue.doubleValue() >= scrollBar.getMax() * LOAD_THRESHOLD) {
+				loadNextPage();
+			}
+		});
+	}
+
+	/**
+	 * @return the vertical scroll bar of the view, or null if the skin has not created it yet
+	 */
+	private ScrollBar findVerticalScrollBar() {
+		for (Node node : view.lookupAll(".scroll-bar")) {
+			if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+				return (ScrollBar) node;
+			}
+		}
+		return null;
+	}
+}
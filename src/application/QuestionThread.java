@@ -0,0 +1,197 @@
+package application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The QuestionThread class groups a question with everything posted under it: its replies, its answers and the
+ * reviews of each answer. Threads are built from flat lists of rows in one pass over each list, keyed by questionID,
+ * so the question lists can show every question followed by its replies without searching the list for each reply's
+ * parent.
+ */
+public class QuestionThread {
+
+	private final Question question;
+	private final List<Question> replies = new ArrayList<>();
+	private final List<Answer> answers = new ArrayList<>();
+	private final Map<Integer, List<Review>> reviewsByAnswerID = new HashMap<>();
+
+	/**
+	 * Constructs a QuestionThread with no replies, answers or reviews.
+	 *
+	 * @param question the question which starts the thread
+	 */
+	public QuestionThread(Question question) {
+		this.question = question;
+	}
+
+	/**
+	 * Builds the threads of a list of questions. Replies, answers and reviews whose question is not in the list are
+	 * left out, so the lists may hold the rows of every question while the questions are filtered.
+	 *
+	 * @param questions the questions, in the order the threads are returned; any replies among them are treated as
+	 *        replies
+	 * @param replies the replies, in the order they are shown under their question
+	 * @param answers the answers
+	 * @param reviews the reviews
+	 * @return a thread for each question, in the order of the questions
+	 */
+	public static List<QuestionThread> build(Collection<Question> questions, Collection<Question> replies, Collection<Answer> answers,
+			Collection<Review> reviews) {
+		Map<Integer, QuestionThread> threads = new LinkedHashMap<>();
+		List<Question> repliesAmongQuestions = new ArrayList<>();
+		for (Question question : questions) {
+			if (question.getReplyID() != -1) {
+				repliesAmongQuestions.add(question);
+			}
+			else {
+				threads.putIfAbsent(question.getQuestionID(), new QuestionThread(question));
+			}
+		}
+		for (Question reply : repliesAmongQuestions) {
+			addReply(threads, reply);
+		}
+		for (Question reply : replies) {
+			addReply(threads, reply);
+		}
+		for (Answer answer : answers) {
+			QuestionThread thread = threads.get(answer.getQuestionID());
+			if (thread != null) {
+				thread.answers.add(answer);
+			}
+		}
+		for (Review review : reviews) {
+			QuestionThread thread = threads.get(review.getQuestionID());
+			if (thread != null) {
+				thread.reviewsByAnswerID.computeIfAbsent(review.getAnswerID(), id -> new ArrayList<>()).add(review);
+			}
+		}
+		return new ArrayList<>(threads.values());
+	}
+
+	/**
+	 * Builds the threads of a list of questions and their replies, without answers or reviews.
+	 *
+	 * @param questions the questions, in the order the threads are returned
+	 * @param replies the replies, in the order they are shown under their question
+	 * @return a thread for each question, in the order of the questions
+	 */
+	public static List<QuestionThread> build(Collection<Question> questions, Collection<Question> replies) {
+		return build(questions, replies, List.of(), List.of());
+	}
+
+	/**
+	 * Lists the questions of the threads in order, each directly followed by its replies, as the question ListViews
+	 * show them.
+	 *
+	 * @param threads the threads
+	 * @return the questions and replies
+	 */
+	public static ArrayList<Question> toQuestionsAndReplies(Collection<QuestionThread> threads) {
+		ArrayList<Question> questionsAndReplies = new ArrayList<>();
+		for (QuestionThread thread : threads) {
+			questionsAndReplies.add(thread.question);
+			questionsAndReplies.addAll(thread.replies);
+		}
+		return questionsAndReplies;
+	}
+
+	/**
+	 * Lists the questions of the threads which contain a keyword in the question's title, body or author's name, or
+	 * in the text or author's name of a reply. A matching question is followed by all of its replies; otherwise the
+	 * question is followed by only the replies which match.
+	 *
+	 * @param threads the threads
+	 * @param keyword the keyword, matched ignoring case
+	 * @return the matching questions and replies
+	 */
+	public static ArrayList<Question> toQuestionsAndRepliesContaining(Collection<QuestionThread> threads, String keyword) {
+		String lowerCaseKeyword = keyword.toLowerCase(Locale.ROOT);
+		ArrayList<Question> questionsAndReplies = new ArrayList<>();
+		for (QuestionThread thread : threads) {
+			if (contains(lowerCaseKeyword, thread.question.getQuestionTitle(), thread.question.getQuestionBody(), thread.question.getStudentFirstName(),
+					thread.question.getStudentLastName())) {
+				questionsAndReplies.add(thread.question);
+				questionsAndReplies.addAll(thread.replies);
+				continue;
+			}
+			boolean questionAdded = false;
+			for (Question reply : thread.replies) {
+				if (contains(lowerCaseKeyword, reply.getQuestionReply(), reply.getStudentFirstName(), reply.getStudentLastName())) {
+					if (!questionAdded) {
+						questionsAndReplies.add(thread.question);
+						questionAdded = true;
+					}
+					questionsAndReplies.add(reply);
+				}
+			}
+		}
+		return questionsAndReplies;
+	}
+
+	/**
+	 * @return the question which starts the thread
+	 */
+	public Question getQuestion() {
+		return question;
+	}
+
+	/**
+	 * @return the replies to the question, in order
+	 */
+	public List<Question> getReplies() {
+		return Collections.unmodifiableList(replies);
+	}
+
+	/**
+	 * @return the answers to the question, in order
+	 */
+	public List<Answer> getAnswers() {
+		return Collections.unmodifiableList(answers);
+	}
+
+	/**
+	 * Returns the reviews of one answer in the thread.
+	 *
+	 * @param answerID the answerID of the answer
+	 * @return the reviews of the answer, in order; empty if it has none
+	 */
+	public List<Review> getReviews(int answerID) {
+		return Collections.unmodifiableList(reviewsByAnswerID.getOrDefault(answerID, List.of()));
+	}
+
+	/**
+	 * Adds a reply to the thread of its question, if that question is one of the threads.
+	 *
+	 * @param threads the threads keyed by questionID
+	 * @param reply the reply
+	 */
+	private static void addReply(Map<Integer, QuestionThread> threads, Question reply) {
+		QuestionThread thread = threads.get(reply.getQuestionID());
+		if (thread != null) {
+			thread.replies.add(reply);
+		}
+	}
+
+	/**
+	 * Checks whether any of the texts contains a keyword, ignoring case.
+	 *
+	 * @param lowerCaseKeyword the keyword in lower case
+	 * @param texts the texts, any of which may be null
+	 * @return true if a text contains the keyword
+	 */
+	private static boolean contains(String lowerCaseKeyword, String... texts) {
+		for (String text : texts) {
+			if (text != null && text.toLowerCase(Locale.ROOT).contains(lowerCaseKeyword)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
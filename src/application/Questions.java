@@ -1,6 +1,8 @@
 package application;
 
 import databasePart1.DatabaseHelper;
+import databasePart1.Page;
+import databasePart1.PageCursor;
 import java.util.ArrayList;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
@@ -87,6 +89,18 @@ public class Questions {
         return questions;
     }
     
+    /**
+     * Retrieves one page of questions, each followed by its replies, for lists which load as the user scrolls.
+     *
+     * @param user     the user for whom questions are retrieved
+     * @param after    the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of questions on the page
+     * @return a page of questions and their replies
+     */
+    public Page<Question> getQuestionsPage(User user, PageCursor after, int pageSize) {
+        return databaseHelper.addRepliesToPage(databaseHelper.getQuestionsPage(user, after, pageSize), false);
+    }
+    
     /**
      * Retrieves all replies.
      *
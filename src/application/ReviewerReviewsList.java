@@ -1,8 +1,7 @@
 package application;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 import databasePart1.DatabaseHelper;
 import javafx.collections.FXCollections;
@@ -255,25 +254,12 @@ public class ReviewerReviewsList {
 		initialQuestionsList = new Questions(databaseHelper, user);
 		allQuestionsObservable = FXCollections.observableArrayList();
 
-		// Load all the questions first
-		allQuestionsObservable.addAll(initialQuestionsList.getAllQuestions(user));
-
-		// Then grab all the replies
-		ObservableList<Question> replies = FXCollections.observableArrayList(initialQuestionsList.getAllReplies());
-
-		// Then iterate to connect each reply with its parent question
-		for (Question reply : replies) {
-		    boolean parentFound = false;
-		    for (int i = 0; i < allQuestionsObservable.size(); i++) {
-		        Question parentQuestion = allQuestionsObservable.get(i);
-
-		        if (parentQuestion.getQuestionID() == reply.getQuestionID()) {
-		            allQuestionsObservable.add(i + 1, reply);
-		            parentFound = true;
-		            break;
-		        }
-		    }
-		}
+		// Load the questions and their replies on a worker thread and show them once they arrive
+		new LatestRequest<ArrayList<Question>>(databaseHelper.getAsync()).submit(() -> {
+			// Group the replies under their parent questions in one pass
+			List<QuestionThread> threads = QuestionThread.build(initialQuestionsList.getAllQuestions(user), initialQuestionsList.getAllReplies());
+			return QuestionThread.toQuestionsAndReplies(threads);
+		}, allQuestionsObservable::setAll);
 
 		// Apply the submittedQuestionsList to the Filtered List
 		FilteredList<Question> filteredQuestionsSearch = new FilteredList<>(allQuestionsObservable, q -> true);
@@ -323,75 +309,14 @@ public class ReviewerReviewsList {
 					filteredQuestions.addAll(initialQuestionsList.getAllQuestions(user));
 					break;
 			}
-			// Combine replies with their parents to maintain the hierarchy when filtering (replies indented underneath their parent questions)
-			ArrayList<Question> filteredQuestionsAndReplies = new ArrayList<>();
+			// Group the replies under their parent questions in one pass to maintain the hierarchy when filtering (replies indented underneath their parent questions)
+			List<QuestionThread> filteredThreads = QuestionThread.build(filteredQuestions, initialQuestionsList.getAllReplies());
 			
-			for (Question q : filteredQuestions) {
-				filteredQuestionsAndReplies.add(q);
-				if (filter != "Answered") {
-					for (Question r: initialQuestionsList.getAllReplies()) {
-						if (r.getQuestionID() == q.getQuestionID()) {
-							filteredQuestionsAndReplies.add(r);
-						}
-					}
-				}
-			}
 			// Enable keyword search to further filter results displayed by selected filter
 			String keyword = questionsKeywordField.getText();
-			ArrayList<Question> filteredQuestionsKey = new ArrayList<Question>();
-
-			 if (keyword.length() > 0) {
-				int questionID = -1;
-					boolean keywordFound = false;
-					String whereKeywordFound = "";
-					Set<Integer> addedReplies = new HashSet<>(); // used to keep track of replyID() and questionID() already added to filtered view
-					// If a question is found to have the keyword, add its corresponding replies to the filtered view
-				for (Question q : filteredQuestionsAndReplies) {
-					if ((q.getQuestionTitle() != null && q.getQuestionTitle().toLowerCase().contains(keyword.toLowerCase())) ||
-						(q.getQuestionBody() != null && q.getQuestionBody().toLowerCase().contains(keyword.toLowerCase())) ||
-						(q.getStudentFirstName() != null && q.getStudentFirstName().toLowerCase().contains(keyword.toLowerCase())) ||
-						(q.getStudentLastName() != null && q.getStudentLastName().toLowerCase().contains(keyword.toLowerCase()))) {
-						keywordFound = true;
-						whereKeywordFound = "question";
-						questionID = q.getQuestionID();
-						filteredQuestionsKey.add(q);
-					}
-					if (keywordFound && whereKeywordFound.equals("question")) {
-						for (Question r: initialQuestionsList.getAllReplies()) {
-		    				if (r.getQuestionID() == questionID && !addedReplies.contains(r.getReplyID())) {
-		    					filteredQuestionsKey.add(r);
-		    					addedReplies.add(r.getReplyID());
-		    					break;
-		    				}
-		    			}
-					}
-				}
-				// If a reply is found to have the keyword, add the corresponding question first and then the reply to the filtered view
-				for (Question r : initialQuestionsList.getAllReplies()) {
-					if ((r.getQuestionReply() != null && r.getQuestionReply().toLowerCase().contains(keyword.toLowerCase())) ||
-							(r.getStudentFirstName() != null && r.getStudentFirstName().toLowerCase().contains(keyword.toLowerCase())) ||
-		    				(r.getStudentLastName() != null && r.getStudentLastName().toLowerCase().contains(keyword.toLowerCase()))) {
-							keywordFound = true;
-							whereKeywordFound = "reply";
-							questionID = r.getQuestionID();
-
-							if (!addedReplies.contains(r.getReplyID())) {
-								for (Question q : filteredQuestionsAndReplies) {
-		    						if (q.getQuestionID() == questionID && !addedReplies.contains(q.getQuestionID())) {
-		    							filteredQuestionsKey.add(q);
-		    							addedReplies.add(q.getQuestionID());
-		    							break;
-		    						}
-		    					}
-								filteredQuestionsKey.add(r);
-								addedReplies.add(r.getReplyID());
-							}
-					}	
-				}
-			 }
-			 else {
-				 filteredQuestionsKey = filteredQuestionsAndReplies;
-			 }
+			ArrayList<Question> filteredQuestionsKey = keyword.length() > 0 ? QuestionThread.toQuestionsAndRepliesContaining(filteredThreads, keyword)
+					: QuestionThread.toQuestionsAndReplies(filteredThreads);
+			
 			// Displays filtered list
 			ObservableList<Question> filteredQuestionsObservable = FXCollections.observableArrayList(filteredQuestionsKey);
 			submittedQuestionsList.setItems(filteredQuestionsObservable); 
@@ -506,7 +431,7 @@ public class ReviewerReviewsList {
 		// Load AnswerList upon opening
 		initialAnswersList = new Answers(databaseHelper, user);
 		ObservableList<Answer> allAnswersObservable = FXCollections.observableArrayList();
-		allAnswersObservable.addAll(initialAnswersList.getAllAnswers(user));
+		new LatestRequest<ArrayList<Answer>>(databaseHelper.getAsync()).submit(() -> initialAnswersList.getAllAnswers(user), allAnswersObservable::setAll);
 
 		// Apply the submittedAnswersList to the Filtered List
 		FilteredList<Answer> filteredAnswersSearch = new FilteredList<>(allAnswersObservable, a -> true);
@@ -652,22 +577,7 @@ public class ReviewerReviewsList {
 		// Load Reviews List View upon opening with only reviews created by current user
 		initialReviewsList = new Reviews(databaseHelper, user);
 		ObservableList<Review> allReviewsObservable = FXCollections.observableArrayList();
-		allReviewsObservable.addAll(initialReviewsList.getReviewsByUsername(userName));
-		
-		// FOR DEBUGGING
-		ArrayList<Review> reviewsFromDB = initialReviewsList.getReviewsByUsername(userName);
-    	
-    	System.out.println("Fetched reviews from database:");
-    	for (Review review : reviewsFromDB) {
-    	    System.out.println("Review ID: " + review.getReviewID() + 
-    	    				   ", Answer ID: " + review.getAnswerID() +
-    	                       ", Question ID: " + review.getQuestionID() + 
-    	                       ", Reviewer userName: " + review.getReviewerUserName() + 
-    	                       ", Reviewer First Name: " + review.getReviewerFirstName() + 
-    	                       ", Reviewer Last Name: " + review.getReviewerLastName() + 
-    	                       ", Previous Review ID: " + review.getPrevReviewID() + 
-    	                       ", Review Text: " + review.getReviewBody());
-    	}
+		new LatestRequest<ArrayList<Review>>(databaseHelper.getAsync()).submit(() -> initialReviewsList.getReviewsByUsername(userName), allReviewsObservable::setAll);
     	
 		// Apply the submittedReviewsList to the FilteredList
 		FilteredList<Review> filteredReviewsSearch = new FilteredList<>(allReviewsObservable, a -> true);
@@ -1,5 +1,7 @@
 package application;
 import databasePart1.DatabaseHelper;
+import databasePart1.Page;
+import databasePart1.PageCursor;
 
 import java.util.ArrayList;
 
@@ -78,6 +80,18 @@ public class Reviews {
 		return databaseHelper.getAllReviews(user);
 	}
 	
+	/**
+	 * Getter for obtaining one page of reviews, for lists which load as the user scrolls
+	 * 
+	 * @param user current user in the system
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of reviews on the page
+	 * @return a page of reviews
+	 */
+	public Page<Review> getReviewsPage(User user, PageCursor after, int pageSize) {
+		return databaseHelper.getReviewsPage(user, after, pageSize);
+	}
+	
 	/**
 	 * Getter for obtaining all reviews by identified username
 	 * 
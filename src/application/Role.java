@@ -0,0 +1,99 @@
+package application;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The Role enum lists the roles a user can hold, in the order of the boolean array stored in the role column of
+ * cse360users: Admin[0], Student[1], Reviewer[2], Instructor[3], Staff[4]. The roleMask column holds the same roles as
+ * one bit per role, in the same order.
+ */
+public enum Role {
+	ADMIN,
+	STUDENT,
+	REVIEWER,
+	INSTRUCTOR,
+	STAFF;
+
+	/**
+	 * @return the bit of this role in the roleMask column of cse360users
+	 */
+	public int bit() {
+		return 1 << ordinal();
+	}
+
+	/**
+	 * Converts a set of roles into the value of the roleMask column.
+	 *
+	 * @param roles the roles held
+	 * @return the bits of the roles held
+	 */
+	public static int toMask(Set<Role> roles) {
+		int mask = 0;
+		for (Role role : roles) {
+			mask |= role.bit();
+		}
+		return mask;
+	}
+
+	/**
+	 * Converts a value of the roleMask column into the set of roles it holds.
+	 *
+	 * @param mask the bits of the roles held
+	 * @return the roles held
+	 */
+	public static EnumSet<Role> fromMask(int mask) {
+		EnumSet<Role> held = EnumSet.noneOf(Role.class);
+		for (Role role : values()) {
+			if ((mask & role.bit()) != 0) {
+				held.add(role);
+			}
+		}
+		return held;
+	}
+
+	/**
+	 * Finds a role by its name, ignoring case, such as "Student".
+	 *
+	 * @param name the role's name
+	 * @return the role, or null if there is no role of that name
+	 */
+	public static Role fromName(String name) {
+		for (Role role : values()) {
+			if (role.name().equalsIgnoreCase(name)) {
+				return role;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Converts a role array into the set of roles it holds.
+	 *
+	 * @param roles the role array, true for each role held; may be shorter than the number of roles
+	 * @return the roles held
+	 */
+	public static EnumSet<Role> fromArray(boolean[] roles) {
+		EnumSet<Role> held = EnumSet.noneOf(Role.class);
+		for (Role role : values()) {
+			if (roles != null && role.ordinal() < roles.length && roles[role.ordinal()]) {
+				held.add(role);
+			}
+		}
+		return held;
+	}
+
+	/**
+	 * Converts a set of roles into a role array.
+	 *
+	 * @param roles the roles held
+	 * @return an array with one entry per role, true for each role held
+	 */
+	public static boolean[] toArray(Set<Role> roles) {
+		boolean[] array = new boolean[values().length];
+		for (Role role : roles) {
+			array[role.ordinal()] = true;
+		}
+		return array;
+	}
+}
@@ -2,6 +2,8 @@ package application;
 
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 
 import databasePart1.DatabaseHelper;
 import javafx.collections.FXCollections;
@@ -36,6 +38,11 @@ import java.time.format.DateTimeFormatter;
  * @version 1.0 4/8/2025
  */
 public class StaffPrivateMessages {
+	/**
+	 * Most Staff and Instructor users listed at once in the staffAndInstructors ListView
+	 */
+	private static final int MAX_LISTED_USERS = 50;
+	
 	/**
 	 * Declaration of a DatabaseHelper object for database interactions
 	 */
@@ -255,21 +262,19 @@ public class StaffPrivateMessages {
     	noUserSelectedErrorLabel.setStyle("-fx-text-fill: red; -fx-font-size: 12px;");
     	noUserSelectedErrorLabel.setVisible(false);
     	
-    	// Load the list of all registered Staff and Instructor users
+    	// TextField to narrow down the Staff and Instructor users listed as a name or email is typed
+    	TextField findUserTextField = new TextField();
+    	findUserTextField.setPromptText("Search by name or email");
+    	findUserTextField.setMaxWidth(280);
+    	
+    	// Load the registered Staff and Instructor users, alphabetically until something is typed into findUserTextField
     	ListView<User> staffAndInstructors = new ListView<>();
     	ObservableList<User> staffAndInstructorsObservable = FXCollections.observableArrayList();
-    	staffAndInstructorsObservable.addAll(databaseHelper.getStaffAndInstructorUsers(user));
+    	staffAndInstructorsObservable.addAll(findStaffAndInstructors(""));
     	staffAndInstructors.setItems(staffAndInstructorsObservable);
-    	
-    	// FOR DEBUGGING
-    	ArrayList<User> usersFromDB = databaseHelper.getStaffAndInstructorUsers(user);
-    	
-    	System.out.println("Fetched Instructor and Staff Users from database:");
-    	for (User userList : usersFromDB) {
-    	    System.out.println("First Name: " + userList.getFirstName() + 
-    	                       ", Last Name: " + userList.getLastName() + 
-    	                       ", Email: " + userList.getEmail());
-    	}
+    	findUserTextField.textProperty().addListener((observable, oldText, newText) -> {
+    		staffAndInstructorsObservable.setAll(findStaffAndInstructors(newText));
+    	});
     	
     	// Cell Factory for Instructor and Staff user list
     	staffAndInstructors.setCellFactory(new Callback<ListView<User>, ListCell<User>>() {
@@ -788,7 +793,7 @@ public class StaffPrivateMessages {
     	    
     	});
     	
-    	leftUsersList.getChildren().addAll(availableUsersLabel, staffAndInstructors, sendMessageToSpecifiedUser, returnButton, noUserSelectedErrorLabel);
+    	leftUsersList.getChildren().addAll(availableUsersLabel, findUserTextField, staffAndInstructors, sendMessageToSpecifiedUser, returnButton, noUserSelectedErrorLabel);
     	topHeaders.getChildren().addAll(countUnreadMessagesLabel, spacerLeft, inboxLabel, spacerRight);
     	centerButtons.getChildren().addAll(deleteInboxMessageButton, messageReplyButton);
     	centerInbox.getChildren().addAll(messageTypeTabPane, topHeaders, inbox, centerButtons, inboxListViewErrorLabel);
@@ -807,4 +812,17 @@ public class StaffPrivateMessages {
 	    primaryStage.setTitle("Staff Private Messages");
 	    primaryStage.show();
     }
+    
+    /**
+     * Finds the Staff and Instructor users other than the current Staff user whose name, userName or email starts with the text typed.
+     * 
+     * @param typed the text typed into the search box, empty to list users alphabetically
+     * @return at most MAX_LISTED_USERS matching users
+     */
+    private List<User> findStaffAndInstructors(String typed) {
+    	// One extra user is requested in case the current Staff user is among them
+    	List<User> found = databaseHelper.completeUsers(typed, EnumSet.of(Role.STAFF, Role.INSTRUCTOR), MAX_LISTED_USERS + 1);
+    	found.removeIf(listed -> listed.getUserName().equals(user.getUserName()));
+    	return found.size() > MAX_LISTED_USERS ? found.subList(0, MAX_LISTED_USERS) : found;
+    }
 }
\ No newline at end of file
@@ -1,12 +1,13 @@
 package application;
 
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.EnumSet;
+import java.util.List;
+import databasePart1.ChangeEvent;
 import databasePart1.DatabaseHelper;
+import databasePart1.ModerationBatch;
+import databasePart1.SearchIndex;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
@@ -32,6 +33,11 @@ import javafx.util.Callback;
  * @version 2.0 4/19/2025
  */
 public class StaffStudentInteractionView {
+	/**
+	 * Most Student and Reviewer users listed at once in the Mute User pop-up window
+	 */
+	private static final int MAX_LISTED_USERS = 50;
+	
 	/**
 	 * Declaration of a DatabaseHelper object for database interactions
 	 */
@@ -343,41 +349,20 @@ public class StaffStudentInteractionView {
     	initialQuestionsList = new Questions(databaseHelper, user);
     	allQuestionsObservable = FXCollections.observableArrayList();
 
-    	// Load all the questions first
-    	allQuestionsObservable.addAll(databaseHelper.getAllQuestionsEvenHidden(user));
-
-    	// Then grab all the replies
-    	ObservableList<Question> replies = FXCollections.observableArrayList(databaseHelper.getAllRepliesEvenHidden());
-
-    	// Then iterate to connect each reply with its parent question
-    	for (Question reply : replies) {
-    	    boolean parentFound = false;
-    	    for (int i = 0; i < allQuestionsObservable.size(); i++) {
-    	        Question parentQuestion = allQuestionsObservable.get(i);
-
-    	        if (parentQuestion.getQuestionID() == reply.getQuestionID()) {
-    	            allQuestionsObservable.add(i + 1, reply);
-    	            parentFound = true;
-    	            break;
-    	        }
-    	    }
-    	}
-    	
-    	// DEBUGGING
-    	ArrayList<Question> questionsFromDB = databaseHelper.getAllQuestionsEvenHidden(user);
-    	System.out.println("Fetched questions from database:");
-    	for (Question question : questionsFromDB) {
-    	    System.out.println("Question ID: " + question.getQuestionID() + 
-    	                       ", Question Title: " + question.getQuestionTitle() + 
-    	                       ", Is Resolved: " + question.getIsResolved() + 
-    	                       ", Question Body: " + question.getQuestionBody() +
-    	                       ", IsFlagged: " + question.getIsFlagged());
-    	}
-    	
-    	// Apply the submittedQuestionsList to the Filtered List
+    	// Apply the submittedQuestionsList to the Filtered List and load it one page at a time, each question followed by its replies
     	FilteredList<Question> filteredQuestionsSearch = new FilteredList<>(allQuestionsObservable, q -> true);
     	submittedQuestionsList.setItems(filteredQuestionsSearch);
     	submittedQuestionsList.setPrefWidth(425);
+    	PagedListLoader<Question> questionsLoader = new PagedListLoader<>(databaseHelper.getAsync(), submittedQuestionsList, allQuestionsObservable,
+    			(after, pageSize) -> databaseHelper.addRepliesToPage(databaseHelper.getQuestionsPageEvenHidden(user, after, pageSize), true),
+    			q -> q.getReplyID() > 0 ? "reply " + q.getReplyID() : "question " + q.getQuestionID(), PagedListLoader.DEFAULT_PAGE_SIZE);
+    	questionsLoader.loadFirstPage();
+    	// Keep the list current as rows are added, edited, hidden or deleted elsewhere
+    	LiveListUpdater<Question> liveQuestions = new LiveListUpdater<>(databaseHelper, ChangeEvent.Entity.QUESTION, allQuestionsObservable,
+    			q -> q.getReplyID() > 0 ? -1 : q.getQuestionID(), id -> databaseHelper.getQuestionRow(id, true),
+    			new LiveListUpdater.ChildRows<>(ChangeEvent.Entity.REPLY, q -> q.getReplyID() > 0 ? q.getReplyID() : -1, Question::getQuestionID,
+    					id -> databaseHelper.getReplyRow(id, true)),
+    			questionsLoader::loadFirstPage);
 
     	// List of question filtering options
     	ObservableList<String> questionsFilterOptions = FXCollections.observableArrayList();
@@ -419,110 +404,24 @@ public class StaffStudentInteractionView {
     				filteredQuestions.addAll(databaseHelper.getAllQuestionsEvenHidden(user));
     				break;
     		}
-    		// Combine replies with their parents to maintain the hierarchy when filtering (replies indented underneath their parent questions)
-    		ArrayList<Question> filteredQuestionsAndReplies = new ArrayList<>();
+    		// Group the replies under their parent questions in one pass to maintain the hierarchy when filtering (replies indented underneath their parent questions)
+    		List<QuestionThread> filteredThreads = QuestionThread.build(filteredQuestions, databaseHelper.getAllRepliesEvenHidden());
     		
-    		for (Question q : filteredQuestions) {
-    			filteredQuestionsAndReplies.add(q);
-    			if (filter != "Answered") {
-    				for (Question r: databaseHelper.getAllRepliesEvenHidden()) {
-    					if (r.getQuestionID() == q.getQuestionID()) {
-    						filteredQuestionsAndReplies.add(r);
-    					}
-    				}
-    			}
-    		}
     		// Enable keyword search to further filter results displayed by selected filter
     		String keyword = questionsKeywordField.getText();
-    		ArrayList<Question> filteredQuestionsKey = new ArrayList<Question>();
-
-    		 if (keyword.length() > 0) {
-    			int questionID = -1;
-    				boolean keywordFound = false;
-    				String whereKeywordFound = "";
-    				Set<Integer> addedReplies = new HashSet<>(); // used to keep track of replyID() and questionID() already added to filtered view
-    				// If a question is found to have the keyword, add its corresponding replies to the filtered view
-    			for (Question q : filteredQuestionsAndReplies) {
-    				if ((q.getQuestionTitle() != null && q.getQuestionTitle().toLowerCase().contains(keyword.toLowerCase())) ||
-    					(q.getQuestionBody() != null && q.getQuestionBody().toLowerCase().contains(keyword.toLowerCase())) ||
-    					(q.getStudentFirstName() != null && q.getStudentFirstName().toLowerCase().contains(keyword.toLowerCase())) ||
-    					(q.getStudentLastName() != null && q.getStudentLastName().toLowerCase().contains(keyword.toLowerCase()))) {
-    					keywordFound = true;
-    					whereKeywordFound = "question";
-    					questionID = q.getQuestionID();
-    					filteredQuestionsKey.add(q);
-    				}
-    				if (keywordFound && whereKeywordFound.equals("question")) {
-    					for (Question r: databaseHelper.getAllRepliesEvenHidden()) {
-    	    				if (r.getQuestionID() == questionID && !addedReplies.contains(r.getReplyID())) {
-    	    					filteredQuestionsKey.add(r);
-    	    					addedReplies.add(r.getReplyID());
-    	    					break;
-    	    				}
-    	    			}
-    				}
-    			}
-    			// If a reply is found to have the keyword, add the corresponding question first and then the reply to the filtered view
-    			for (Question r : initialQuestionsList.getAllReplies()) {
-    				if ((r.getQuestionReply() != null && r.getQuestionReply().toLowerCase().contains(keyword.toLowerCase())) ||
-    						(r.getStudentFirstName() != null && r.getStudentFirstName().toLowerCase().contains(keyword.toLowerCase())) ||
-    	    				(r.getStudentLastName() != null && r.getStudentLastName().toLowerCase().contains(keyword.toLowerCase()))) {
-    						keywordFound = true;
-    						whereKeywordFound = "reply";
-    						questionID = r.getQuestionID();
-
-    						if (!addedReplies.contains(r.getReplyID())) {
-    							for (Question q : filteredQuestionsAndReplies) {
-    	    						if (q.getQuestionID() == questionID && !addedReplies.contains(q.getQuestionID())) {
-    	    							filteredQuestionsKey.add(q);
-    	    							addedReplies.add(q.getQuestionID());
-    	    							break;
-    	    						}
-    	    					}
-    							filteredQuestionsKey.add(r);
-    							addedReplies.add(r.getReplyID());
-    						}
-    				}	
-    			}
-    		 }
-    		 else {
-    			 filteredQuestionsKey = filteredQuestionsAndReplies;
-    		 }
+    		ArrayList<Question> filteredQuestionsKey = keyword.length() > 0 ? QuestionThread.toQuestionsAndRepliesContaining(filteredThreads, keyword)
+    				: QuestionThread.toQuestionsAndReplies(filteredThreads);
     		// Displays filtered list
     		ObservableList<Question> filteredQuestionsObservable = FXCollections.observableArrayList(filteredQuestionsKey);
     		submittedQuestionsList.setItems(filteredQuestionsObservable); 
     	});
 
-    	// Enable only Question keyword searching to filter list (no filter selected)
-    	questionsKeywordField.textProperty().addListener((observable, oldValue, newValue) -> {
-    		filteredQuestionsSearch.setPredicate(question -> {
-    			if (newValue == null || newValue.isEmpty()) {
-    				return true;
-    			}
-    			String convertToLowerCase = newValue.toLowerCase();
-    			boolean checkQuestionsForKeyword = 
-    				   (question.getQuestionTitle() != null && question.getQuestionTitle().toLowerCase().contains(convertToLowerCase)) ||
-    				   (question.getQuestionBody() != null && question.getQuestionBody().toLowerCase().contains(convertToLowerCase)) ||
-    				   (question.getStudentFirstName() != null && question.getStudentFirstName().toLowerCase().contains(convertToLowerCase)) ||
-    				   (question.getStudentLastName() != null && question.getStudentLastName().toLowerCase().contains(convertToLowerCase));
-    			
-    			boolean checkRepliesForKeyword = 
-    					   (question.getQuestionReply() != null && question.getQuestionReply().toLowerCase().contains(convertToLowerCase)) ||
-    					   (question.getStudentFirstName() != null && question.getStudentFirstName().toLowerCase().contains(convertToLowerCase)) ||
-    					   (question.getStudentLastName() != null && question.getStudentLastName().toLowerCase().contains(convertToLowerCase));
-    				
-    			if (checkQuestionsForKeyword) {
-    				return true;
-    			}
-    			
-    			if (checkRepliesForKeyword) {
-    				return true;
-    			}
-    			return false;
-
-    		});
-    		submittedQuestionsList.setItems(filteredQuestionsSearch);
-    	});
+    	// Search questions and replies by keyword once the user stops typing, ranking whole threads by their best match (no filter selected)
+    	KeywordSearch<Question> questionsSearch = new KeywordSearch<>(databaseHelper, filteredQuestionsSearch, EnumSet.of(ChangeEvent.Entity.QUESTION, ChangeEvent.Entity.REPLY),
+    			q -> q.getReplyID() != -1 ? SearchIndex.key(ChangeEvent.Entity.REPLY, q.getReplyID()) : SearchIndex.key(ChangeEvent.Entity.QUESTION, q.getQuestionID()),
+    			Question::getQuestionID);
+    	questionsSearch.attach(questionsKeywordField, submittedQuestionsList);
+    	submittedQuestionsList.setItems(questionsSearch.getRankedItems());
 
     	// CellFactory to display questions in the ListView
     	submittedQuestionsList.setCellFactory(new Callback<ListView<Question>, ListCell<Question>>() {
@@ -569,7 +468,7 @@ public class StaffStudentInteractionView {
     	                	content.getChildren().removeIf(node -> node instanceof Label && ((Label) node).getText().equals("🚩"));
     	                    formattedText = String.format("Author: %s\n%s\nReplyText: %s", question.getStudentFirstName() + " " + question.getStudentLastName(), question.getReplyingTo(), question.getQuestionReply());
     	                    questionContent.setStyle("-fx-padding: 0 0 0 40px;");
-    	                    questionContent.setText(formattedText);
+    	                    questionsSearch.show(questionContent, formattedText);
     	                    questionReply.setVisible(false);
     	                }
     	                // the question is not a reply but is also marked deleted so do not indent, display with attributes set to "Deleted"
@@ -580,7 +479,7 @@ public class StaffStudentInteractionView {
     	                            initialQuestionsList.countUnreadPotentialAnswers(question.getQuestionID()),
     	                            question.getQuestionBody());
     	                			questionContent.setStyle("-fx-padding: 0 0 0 0;");
-    	    	                	questionContent.setText(formattedText);
+    	    	                	questionsSearch.show(questionContent, formattedText);
     	    	                	questionReply.setVisible(false);
     	                }
     	                // the question is not a reply so do not indent, just display the question
@@ -593,7 +492,7 @@ public class StaffStudentInteractionView {
     	                			question.getStudentFirstName() + " " + question.getStudentLastName(),
     	                            question.getQuestionTitle(), 
     	                            initialQuestionsList.countUnreadPotentialAnswers(question.getQuestionID()),question.getQuestionBody());
-    		                    	questionContent.setText(formattedText);
+    		                    	questionsSearch.show(questionContent, formattedText);
     		                    	questionContent.setStyle("-fx-padding: 0 0 0 0;");
     		                    	questionReply.setVisible(true);
     	                }
@@ -603,7 +502,7 @@ public class StaffStudentInteractionView {
     		                	question.getStudentFirstName() + " " + question.getStudentLastName(),
     	                        question.getQuestionTitle(), 
     	                        initialQuestionsList.countUnreadPotentialAnswers(question.getQuestionID()),question.getQuestionBody());
-    	                	questionContent.setText(formattedText);
+    	                	questionsSearch.show(questionContent, formattedText);
     	                	questionContent.setStyle("-fx-padding: 0 0 0 0;");
     	                	questionReply.setVisible(true);
     	                	Label checkmarkLabel = new Label("✔️");
@@ -717,24 +616,16 @@ public class StaffStudentInteractionView {
     	Answers initialAnswersList;
     	initialAnswersList = new Answers(databaseHelper, user);
     	ObservableList<Answer> allAnswersObservable = FXCollections.observableArrayList();
-    	allAnswersObservable.addAll(databaseHelper.getAllAnswersEvenHidden(user));
 
-    	// DEBUGGING
-    	ArrayList<Answer> answersFromDB = databaseHelper.getAllAnswersEvenHidden(user);
-    	
-    	System.out.println("Fetched answers from database:");
-    	for (Answer answer : answersFromDB) {
-    	    System.out.println("Answer ID: " + answer.getAnswerID() + 
-    	                       ", Question ID: " + answer.getQuestionID() + 
-    	                       ", Is Resolved: " + answer.getIsResolved() + 
-    	                       ", Answer Text: " + answer.getAnswerText() +
-    	                       ", IsFlagged: " + answer.getIsFlagged());
-    	}
-    	
-    	// Apply the submittedAnswersList to the Filtered List
+    	// Apply the submittedAnswersList to the Filtered List and load it one page at a time
     	FilteredList<Answer> filteredAnswersSearch = new FilteredList<>(allAnswersObservable, a -> true);
     	submittedAnswersList.setItems(filteredAnswersSearch);
     	submittedAnswersList.setPrefWidth(425);
+    	PagedListLoader<Answer> answersLoader = new PagedListLoader<>(databaseHelper.getAsync(), submittedAnswersList, allAnswersObservable,
+    			(after, pageSize) -> databaseHelper.getAnswersPageEvenHidden(user, after, pageSize), Answer::getAnswerID, PagedListLoader.DEFAULT_PAGE_SIZE);
+    	answersLoader.loadFirstPage();
+    	LiveListUpdater<Answer> liveAnswers = new LiveListUpdater<>(databaseHelper, ChangeEvent.Entity.ANSWER, allAnswersObservable,
+    			Answer::getAnswerID, id -> databaseHelper.getAnswerRow(id, true), answersLoader::loadFirstPage);
 
     	//List of answer filtering options
     	ObservableList<String> answersFilterOptions = FXCollections.observableArrayList();
@@ -824,19 +715,11 @@ public class StaffStudentInteractionView {
     		 submittedAnswersList.setItems(filteredAnswersObservable);
     	});
 
-    	// Enable only Answer keyword searching to filter list (no filter selected)
-    	answersKeywordField.textProperty().addListener((observable, oldValue, newValue) -> {
-    		filteredAnswersSearch.setPredicate(answer -> {
-    			if (newValue == null || newValue.isEmpty()) {
-    				return true;
-    			}
-    			String convertToLowerCase = newValue.toLowerCase();
-    			return answer.getAnswerText().toLowerCase().contains(convertToLowerCase) ||
-    					answer.getStudentFirstName().toLowerCase().contains(convertToLowerCase) ||
-    					answer.getStudentLastName().toLowerCase().contains(convertToLowerCase);
-    		});
-    		submittedAnswersList.setItems(filteredAnswersSearch);
-    	});
+    	// Search answers by keyword once the user stops typing, best match first (no filter selected)
+    	KeywordSearch<Answer> answersSearch = new KeywordSearch<>(databaseHelper, filteredAnswersSearch, EnumSet.of(ChangeEvent.Entity.ANSWER),
+    			answer -> SearchIndex.key(ChangeEvent.Entity.ANSWER, answer.getAnswerID()), null);
+    	answersSearch.attach(answersKeywordField, submittedAnswersList);
+    	submittedAnswersList.setItems(answersSearch.getRankedItems());
 
     	// CellFactory to display formatted Answers in the ListView
     	submittedAnswersList.setCellFactory(new Callback<ListView<Answer>, ListCell<Answer>>() {
@@ -860,7 +743,7 @@ public class StaffStudentInteractionView {
     	                	String formattedText = String.format("Author: %s\nAnswer: %s", 
     	                			answer.getStudentFirstName() + " " + answer.getStudentLastName(),
     	                            answer.getAnswerText());
-    	                			answerContent.setText(formattedText);
+    	                			answersSearch.show(answerContent, formattedText);
     	                			answerContent.setStyle("-fx-padding: 0 0 0 0;");
     	                		if (answer.getIsResolved()) {
     	                			Label checkmarkLabel = new Label("✔️");
@@ -1012,27 +895,16 @@ public class StaffStudentInteractionView {
     	ObservableList<Review> allReviewsObservable;
     	Reviews initialReviewsList = new Reviews(databaseHelper, user);
     	allReviewsObservable = FXCollections.observableArrayList();
-    	allReviewsObservable.addAll(databaseHelper.getAllReviewsEvenHidden(user));
-
-    	// DEBUGGING
-    	ArrayList<Review> reviewsFromDB = databaseHelper.getAllReviewsEvenHidden(user);
 
-    	System.out.println("Fetched reviews from database:");
-    	for (Review review : reviewsFromDB) {
-    	    System.out.println("Review ID: " + review.getReviewID() + 
-    	    				   ", Answer ID: " + review.getAnswerID() +
-    	                       ", Question ID: " + review.getQuestionID() + 
-    	                       ", Reviewer userName: " + review.getReviewerUserName() + 
-    	                       ", Reviewer First Name: " + review.getReviewerFirstName() + 
-    	                       ", Reviewer Last Name: " + review.getReviewerLastName() + 
-    	                       ", Previous Review ID: " + review.getPrevReviewID() + 
-    	                       ", Review Text: " + review.getReviewBody());
-    	}
-
-    	// Apply the submittedReviewsList to the FilteredList
+    	// Apply the submittedReviewsList to the FilteredList and load it one page at a time
     	FilteredList<Review> filteredReviewsSearch = new FilteredList<>(allReviewsObservable, a -> true);
     	submittedReviewsList.setItems(filteredReviewsSearch);
     	submittedReviewsList.setPrefWidth(425);
+    	PagedListLoader<Review> reviewsLoader = new PagedListLoader<>(databaseHelper.getAsync(), submittedReviewsList, allReviewsObservable,
+    			(after, pageSize) -> databaseHelper.getReviewsPageEvenHidden(user, after, pageSize), Review::getReviewID, PagedListLoader.DEFAULT_PAGE_SIZE);
+    	reviewsLoader.loadFirstPage();
+    	LiveListUpdater<Review> liveReviews = new LiveListUpdater<>(databaseHelper, ChangeEvent.Entity.REVIEW, allReviewsObservable,
+    			Review::getReviewID, id -> databaseHelper.getReviewRow(id, true), reviewsLoader::loadFirstPage);
 
     	// List of review filtering options
     	ObservableList<String> reviewsFilterOptions = FXCollections.observableArrayList();
@@ -1166,19 +1038,11 @@ public class StaffStudentInteractionView {
     	     submittedReviewsList.setItems(filteredReviewsObservable);
     	});
 
-    	// Enable only Review keyword searching to filter list (no filter selected)
-    	reviewsKeywordField.textProperty().addListener((observable, oldValue, newValue) -> {
-    		filteredReviewsSearch.setPredicate(review -> {
-    	                if (newValue == null || newValue.isEmpty()) {
-    	                        return true;
-    	                }
-    	                String convertToLowerCase = newValue.toLowerCase();
-    	                return review.getReviewBody().toLowerCase().contains(convertToLowerCase) ||
-    	                                review.getReviewerFirstName().toLowerCase().contains(convertToLowerCase) ||
-    	                                review.getReviewerLastName().toLowerCase().contains(convertToLowerCase);
-    	        });
-    	});
-    	submittedReviewsList.setItems(filteredReviewsSearch);
+    	// Search reviews by keyword once the user stops typing, best match first (no filter selected)
+    	KeywordSearch<Review> reviewsSearch = new KeywordSearch<>(databaseHelper, filteredReviewsSearch, EnumSet.of(ChangeEvent.Entity.REVIEW),
+    			review -> SearchIndex.key(ChangeEvent.Entity.REVIEW, review.getReviewID()), null);
+    	reviewsSearch.attach(reviewsKeywordField, submittedReviewsList);
+    	submittedReviewsList.setItems(reviewsSearch.getRankedItems());
 
     	// CellFactory to display formatted Reviews in the ListView
     	submittedReviewsList.setCellFactory(new Callback<ListView<Review>, ListCell<Review>>() {
@@ -1205,7 +1069,7 @@ public class StaffStudentInteractionView {
     	                	String formattedText = String.format("Author: %s\nReview: %s", 
     	                            review.getReviewerFirstName() + " " + review.getReviewerLastName(),
     	                            review.getReviewBody());
-    	                	reviewContent.setText(formattedText);
+    	                	reviewsSearch.show(reviewContent, formattedText);
     	           
     	                	// if the current Review is a review which just not have any clones, just display with no indent
     	                	if (review.getPrevReviewID() == -1) {
@@ -1294,43 +1158,25 @@ public class StaffStudentInteractionView {
     		
     	// PRIVATE MESSAGES DISPLAYS AND LISTENERS
     	// ListView for both messages between Students and other Students and Reviewers and Students
-    	ListView<String> privateMessages = new ListView<>();
+    	ListView<InboxMessage> privateMessages = new ListView<>();
 
     	// Observable List for messages between Students and other Students
-    	ObservableList<String> studentStudentMessageObservable = FXCollections.observableArrayList();
-    	studentStudentMessageObservable.addAll(databaseHelper.getAllMessagesBetweenStudents());
+    	ObservableList<InboxMessage> studentStudentMessageObservable = FXCollections.observableArrayList(databaseHelper.getMessagesBetweenStudents());
     	
     	// Filtered list for messages between Students and other Students
-    	FilteredList<String> filteredStudentStudentMessages = new FilteredList<>(studentStudentMessageObservable, s -> true);
-    	
-    	// FOR DEBUGGING
-    	System.out.println("Student to Student");
-    	ArrayList<String> messagesBetweenStudents = new ArrayList<>();
-    	messagesBetweenStudents = databaseHelper.getAllMessagesBetweenStudents();
-    	for(String message : messagesBetweenStudents) {
-    		System.out.println(message);
-    	}
+    	FilteredList<InboxMessage> filteredStudentStudentMessages = new FilteredList<>(studentStudentMessageObservable, s -> true);
     	
     	// Observable List for messages between Reviewers and Students
-    	ObservableList<String> reviewerStudentMessageObservable = FXCollections.observableArrayList();
-    	reviewerStudentMessageObservable.addAll(databaseHelper.getAllMessagesBetweenReviewersAndStudents());
+    	ObservableList<InboxMessage> reviewerStudentMessageObservable = FXCollections.observableArrayList(databaseHelper.getMessagesBetweenReviewersAndStudents());
     	
     	// Filtered List for messages between Reviewers and Students
-    	FilteredList<String> filteredReviewerStudentMessages = new FilteredList<>(reviewerStudentMessageObservable, r -> true);
-    	
-    	// FOR DEBUGGING
-    	System.out.println("Student to Reviewer and Reviewer to Student");
-    	ArrayList<String> messagesBetweenReviewerStudents = new ArrayList<>();
-    	messagesBetweenReviewerStudents = databaseHelper.getAllMessagesBetweenReviewersAndStudents();
-    	for (String message : messagesBetweenReviewerStudents) {
-    		System.out.println(message);
-    	}
+    	FilteredList<InboxMessage> filteredReviewerStudentMessages = new FilteredList<>(reviewerStudentMessageObservable, r -> true);
     	
     	// Enable listener to filter by user input keyword text
     	messagesKeywordField.textProperty().addListener((observableList, oldValue, newValue) -> {
     		String messageKeyword = newValue.toLowerCase();
-    		filteredStudentStudentMessages.setPredicate(message -> message.toLowerCase().contains(messageKeyword));
-    		filteredReviewerStudentMessages.setPredicate(message -> message.toLowerCase().contains(messageKeyword));
+    		filteredStudentStudentMessages.setPredicate(message -> message.contains(messageKeyword));
+    		filteredReviewerStudentMessages.setPredicate(message -> message.contains(messageKeyword));
     	});
     	
     	// Display messages based on which tab is clicked
@@ -1339,20 +1185,20 @@ public class StaffStudentInteractionView {
     			privateMessages.setItems(filteredStudentStudentMessages);
     			
     			// Cell Factory for messages between two Students
-    			privateMessages.setCellFactory(new Callback<ListView<String>, ListCell<String>>() {
+    			privateMessages.setCellFactory(new Callback<ListView<InboxMessage>, ListCell<InboxMessage>>() {
     				@Override
-    	    		public ListCell<String> call(ListView<String> param) {
-    					return new ListCell<String>() {
+    	    		public ListCell<InboxMessage> call(ListView<InboxMessage> param) {
+    					return new ListCell<InboxMessage>() {
     	    				@Override
-    	    				protected void updateItem(String message, boolean empty) {
+    	    				protected void updateItem(InboxMessage message, boolean empty) {
     	    					super.updateItem(message,  empty);
     	    					if (empty || message == null) {
     	    						setText(null);
     	    						setGraphic(null);
     	    					}
     	    					else {
-    	    						String reasonIsFlagged = checkIfMessageIsFlagged(message, studentStudentTab);
-    	    						Label messageContent = new Label(message);
+    	    						String reasonIsFlagged = checkIfMessageIsFlagged(message);
+    	    						Label messageContent = new Label(formatMessage(message, newTab));
     	    						HBox content = new HBox(5, messageContent);
         							content.setAlignment(Pos.CENTER_LEFT);
     	    						// Flagged
@@ -1381,20 +1227,20 @@ public class StaffStudentInteractionView {
     			privateMessages.setItems(filteredReviewerStudentMessages);
     			
     			// Cell factory for messages between a Reviewer and a Student
-    			privateMessages.setCellFactory(new Callback<ListView<String>, ListCell<String>>() {
+    			privateMessages.setCellFactory(new Callback<ListView<InboxMessage>, ListCell<InboxMessage>>() {
     				@Override
-    	    		public ListCell<String> call(ListView<String> param) {
-    					return new ListCell<String>() {
+    	    		public ListCell<InboxMessage> call(ListView<InboxMessage> param) {
+    					return new ListCell<InboxMessage>() {
     	    				@Override
-    	    				protected void updateItem(String message, boolean empty) {
+    	    				protected void updateItem(InboxMessage message, boolean empty) {
     	    					super.updateItem(message,  empty);
     	    					if (empty || message == null) {
     	    						setText(null);
     	    						setGraphic(null);
     	    					}
     	    					else {
-    	    						String reasonIsFlagged = checkIfMessageIsFlagged(message, reviewersStudentTab);
-    	    						Label messageContent = new Label(message);
+    	    						String reasonIsFlagged = checkIfMessageIsFlagged(message);
+    	    						Label messageContent = new Label(formatMessage(message, newTab));
     	    						HBox content = new HBox(5, messageContent);
         							content.setAlignment(Pos.CENTER_LEFT);
     	    						// Flagged
@@ -1424,10 +1270,8 @@ public class StaffStudentInteractionView {
     	// If "Flag selected Private Message" is clicked
     	privateMessageFlagButton.setOnAction(p -> {
     		clearAllErrors();
-    		String messageToFlag = privateMessages.getSelectionModel().getSelectedItem();
+    		InboxMessage messageToFlag = privateMessages.getSelectionModel().getSelectedItem();
     		Tab currentTab = studentMessagesTabPane.getSelectionModel().getSelectedItem();
-    		String[] splitFormattedMessage;
-    		DateTimeFormatter timeMessageSent = DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
     		
     		if (messageToFlag == null) {
     			privateMessagesListViewErrorLabel.setVisible(true);
@@ -1439,8 +1283,6 @@ public class StaffStudentInteractionView {
     			flagReasonDialog.setHeaderText(null);
     			flagReasonDialog.setContentText("Enter reason for flag:");
     			
-    			splitFormattedMessage = messageToFlag.split("\n");
-    			
     			flagReasonDialog.showAndWait().ifPresent(reasonIsFlagged -> {
     				if (reasonIsFlagged.trim().isEmpty()) {
     					Alert errorAlert = new Alert(Alert.AlertType.ERROR);
@@ -1450,64 +1292,15 @@ public class StaffStudentInteractionView {
     					errorAlert.showAndWait();
     				}
     				else {
-    					if (currentTab == studentStudentTab) {
-    	    				int index = studentStudentMessageObservable.indexOf(messageToFlag);
-    	    				
-    	    				String to = splitFormattedMessage[0].replace("To [Student]: ", "").trim();
-    	    				String from = splitFormattedMessage[1].replace("From [Student]: ", "").trim();
-    	    				String formattedDate = splitFormattedMessage[2].replace("Date: ", "").trim();
-    	    				String messageSubject = splitFormattedMessage[3].replace("Message Subject: ", "").trim();
-    	    				String messageBody = splitFormattedMessage[4].replace("Message Body: ", "").trim();
-    	    				
-    	    				LocalDateTime dateLocalDateTime = LocalDateTime.parse(formattedDate, timeMessageSent);
-    	    				
-    	    				// Flag message between two students
-    	    				databaseHelper.markStudentPrivateMessageFlagged(reasonIsFlagged, to, from, dateLocalDateTime, messageSubject, messageBody);
-    	    				studentStudentMessageObservable.set(index, messageToFlag);
-    	    			}
-    	    			else if (currentTab == reviewersStudentTab) {
-    	    				int index = reviewerStudentMessageObservable.indexOf(messageToFlag);
-    	    				String toRole = "";
-    	    				String fromRole = "";
-    	    				
-    	    				// Determine if its a message from Reviewer to Student or Student to Reviewer to call the correct database function
-    	    				for (String formattedMessage : splitFormattedMessage) {
-    	    					if (formattedMessage.startsWith("To [")) {
-    	    						toRole = formattedMessage.substring(formattedMessage.indexOf('[') + 1, formattedMessage.indexOf(']'));
-    	    					}
-    	    					else if (formattedMessage.startsWith("From [")) {
-    	    						fromRole = formattedMessage.substring(formattedMessage.indexOf('[') + 1, formattedMessage.indexOf(']'));
-    	    					}
-    	    				}
-    	    				// If From: Student, To Reviewer
-    	    				if (toRole.equals("Reviewer") && fromRole.equals("Student")) {
-    	    					String to = splitFormattedMessage[0].replace("To [Reviewer]: ", "").trim();
-    		    				String from = splitFormattedMessage[1].replace("From [Student]: ", "").trim();
-    		    				String formattedDate = splitFormattedMessage[2].replace("Date: ", "").trim();
-    		    				String messageSubject = splitFormattedMessage[3].replace("Message Subject: ", "").trim();
-    		    				String messageBody = splitFormattedMessage[4].replace("Message Body: ", "").trim();
-    		    				
-    		    				LocalDateTime dateLocalDateTime = LocalDateTime.parse(formattedDate, timeMessageSent);
-    		    				
-    		    				// Flag message from a Student to a Reviewer
-    		    				databaseHelper.markStudentPrivateMessageFlagged(reasonIsFlagged, to, from, dateLocalDateTime, messageSubject, messageBody);
-    	    				}
-    	    				// If From: Reviewer, To Student
-    	    				else if(toRole.equals("Student") && fromRole.equals("Reviewer")) {
-    	    					String to = splitFormattedMessage[0].replace("To [Student]: ", "").trim();
-    		    				String from = splitFormattedMessage[1].replace("From [Reviewer]: ", "").trim();
-    		    				String formattedDate = splitFormattedMessage[2].replace("Date: ", "").trim();
-    		    				String messageSubject = splitFormattedMessage[3].replace("Message Subject: ", "").trim();
-    		    				String messageBody = splitFormattedMessage[4].replace("Message Body: ", "").trim();
-    		    				
-    		    				LocalDateTime dateLocalDateTime = LocalDateTime.parse(formattedDate, timeMessageSent);
-    		    				
-    		    				// Flag message from Reviewer to a Student
-    		    				databaseHelper.markReviewerPrivateMessageFlagged(reasonIsFlagged, to, from, dateLocalDateTime, messageSubject, messageBody);
-    	    				}
-    	    				reviewerStudentMessageObservable.set(index, messageToFlag);
-    	    			}
-    	    			privateMessages.refresh();
+    					// Flag the message by its messageID and show its flagged copy
+    					databaseHelper.markMessagesFlagged(messageToFlag.getSource(), List.of(messageToFlag.getSourceID()), reasonIsFlagged);
+    					InboxMessage flagged = databaseHelper.getMessage(messageToFlag.getSource(), messageToFlag.getSourceID());
+    					ObservableList<InboxMessage> currentMessages = currentTab == studentStudentTab ? studentStudentMessageObservable : reviewerStudentMessageObservable;
+    					int index = currentMessages.indexOf(messageToFlag);
+    					if (index >= 0 && flagged != null) {
+    						currentMessages.set(index, flagged);
+    					}
+    					privateMessages.refresh();
     				}
     			});
     		}
@@ -1530,21 +1323,18 @@ public class StaffStudentInteractionView {
     		Stage muteUserPopUpStage = new Stage();
     		muteUserPopUpStage.setTitle("Mute User With Student or Reviewer Role");
     		
-    		// Load the list of all Student and Reviewer users
+    		// TextField to narrow down the Student and Reviewer users listed as a name or email is typed
+    		TextField findUserField = new TextField();
+    		findUserField.setPromptText("Search by name or email");
+    		
+    		// Load the Student and Reviewer users, alphabetically until something is typed into findUserField
     		ListView<User> studentsAndReviewers = new ListView<>();
     		ObservableList<User> studentsAndReviewersObservable = FXCollections.observableArrayList();
-    		studentsAndReviewersObservable.addAll(databaseHelper.getStudentAndReviewerUsers());
+    		studentsAndReviewersObservable.addAll(databaseHelper.completeUsers("", EnumSet.of(Role.STUDENT, Role.REVIEWER), MAX_LISTED_USERS));
     		studentsAndReviewers.setItems(studentsAndReviewersObservable);
-    		
-    		// FOR DEBUGGING
-    		ArrayList<User> usersFromDB = databaseHelper.getStudentAndReviewerUsers();
-
-    		System.out.println("Fetched Student and Reviewer Users from database:");
-    		for (User userList : usersFromDB) {
-    		    System.out.println("First Name: " + userList.getFirstName() + 
-    		                       ", Last Name: " + userList.getLastName() + 
-    		                       ", Email: " + userList.getEmail());
-    		}
+    		findUserField.textProperty().addListener((observable, oldText, newText) -> {
+    			studentsAndReviewersObservable.setAll(databaseHelper.completeUsers(newText, EnumSet.of(Role.STUDENT, Role.REVIEWER), MAX_LISTED_USERS));
+    		});
 
     		// Cell Factory for Instructor and Staff user list
     		studentsAndReviewers.setCellFactory(new Callback<ListView<User>, ListCell<User>>() {
@@ -1592,17 +1382,11 @@ public class StaffStudentInteractionView {
 
     				alert.showAndWait().ifPresent(response -> {
     				    if (response == muteConfirmation) {
-    				    	// Mute user
-    	    				databaseHelper.muteUser(selectedUser);
+    				    	// Mute user and hide all user content in one transaction
+    	    				databaseHelper.applyModeration(new ModerationBatch().mute(selectedUser.getUserName()));
     	    				selectedUser.setIsMuted(true);
     	    				studentsAndReviewers.refresh();
     	    				
-    	    				// Hide all user content
-    	    				databaseHelper.hideAllQuestionsForMutedUser(selectedUser);
-    	    				databaseHelper.hideAllQuestionRepliesForMutedUser(selectedUser);
-    	    				databaseHelper.hideAllAnswersForMutedUser(selectedUser);
-    	    				databaseHelper.hideAllReviewsForMutedUser(selectedUser);
-    	    				
     	    				// Mark all the questions submitted by muted user from submittedQuestions ListView in grey
     	    				for (Question question : allQuestionsObservable) {
     	    					if (question.getStudentUserName().equals(selectedUser.getUserName()) && question.getStudentFirstName().equals(selectedUser.getFirstName()) && question.getStudentLastName().equals(selectedUser.getLastName())) {
@@ -1648,7 +1432,7 @@ public class StaffStudentInteractionView {
     		usersList.setPrefWidth(300);
     		usersList.setStyle("-fx-alignment: center; -fx-padding: 10; -fx-border-color: black; -fx-border-width: 1;");
     		usersList.setPadding(new Insets(20));
-    		usersList.getChildren().addAll(studentsAndReviewers, muteSelectedUser, userErrorLabel);
+    		usersList.getChildren().addAll(findUserField, studentsAndReviewers, muteSelectedUser, userErrorLabel);
     		
     		Scene muteUserPopUpScene = new Scene(usersList, 1000, 400);
     		muteUserPopUpStage.setScene(muteUserPopUpScene);
@@ -1683,6 +1467,9 @@ public class StaffStudentInteractionView {
 
 	    // Set the scene to primary stage
 	    primaryStage.setScene(staffStudentInteractionView);
+	    liveQuestions.closeWhenSceneReplaced(primaryStage);
+	    liveAnswers.closeWhenSceneReplaced(primaryStage);
+	    liveReviews.closeWhenSceneReplaced(primaryStage);
 	    primaryStage.setTitle("Student and Reviewer Interactions");
     }
     
@@ -1748,87 +1535,36 @@ public class StaffStudentInteractionView {
     
     /**
      * The checkIfMessageIsFlagged method is used within the privateMessages Cell Factory to determine whether a particular message
-     * has true or false for its isFlagged attribute in the database and returns the reasonIsFlagged as String. If the message is not 
-     * flagged, an empty string is returned. 
+     * has true or false for its isFlagged attribute and returns the reasonIsFlagged as String. If the message is not flagged, an empty
+     * string is returned. The flag is read from the message loaded with the list, which is replaced when the message is flagged, so
+     * rendering a cell does not query the database.
      * 
      * @param message the message whose flag status is being checked
-     * @param currTab the current tab within the studentMessagesTabPane
      * @return a String with the user input reason for the flag of the specified private message or an empty string if not flagged
      */
-    private String checkIfMessageIsFlagged(String message, Tab currTab) {
-    	boolean isFlaggedStatus = false;
-    	String reasonIsFlagged = "";
-    	String[] splitFormattedMessage = message.split("\n");
-    	DateTimeFormatter timeMessageSent = DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
-    	
-    	if (currTab == studentStudentTab) {
-    		String to = splitFormattedMessage[0].replace("To [Student]: ", "").trim();
-			String from = splitFormattedMessage[1].replace("From [Student]: ", "").trim();
-			String formattedDate = splitFormattedMessage[2].replace("Date: ", "").trim();
-			String messageSubject = splitFormattedMessage[3].replace("Message Subject: ", "").trim();
-			String messageBody = splitFormattedMessage[4].replace("Message Body: ", "").trim();
-			
-			LocalDateTime dateLocalDateTime = LocalDateTime.parse(formattedDate, timeMessageSent);
-			isFlaggedStatus = databaseHelper.checkIfStudentPrivateMessageFlagged(to, from, dateLocalDateTime, messageSubject, messageBody);
-			
-			if (isFlaggedStatus) {
-				reasonIsFlagged = databaseHelper.getReasonStudentPrivateMessageFlagged(to, from, dateLocalDateTime, messageSubject, messageBody);
-			}
-			else if (!isFlaggedStatus) {
-				reasonIsFlagged = "";
-			}
+    private String checkIfMessageIsFlagged(InboxMessage message) {
+    	if (!message.isFlagged() || message.getReasonIsFlagged() == null) {
+    		return "";
+    	}
+    	return message.getReasonIsFlagged();
+    }
+    
+    /**
+     * Formats a private message when its cell is shown. Messages from Students to Reviewers were sent through PrivateMessages and
+     * replies from Reviewers through reviewerMessages, so on the Reviewers and Students tab the source decides the roles shown.
+     * 
+     * @param message the message
+     * @param tab the tab the message is shown on
+     * @return the recipient, sender, date, subject and body on separate lines
+     */
+    private String formatMessage(InboxMessage message, Tab tab) {
+    	if (tab == studentStudentTab) {
+    		return message.toDisplayString("Student", "Student");
     	}
-    	else if (currTab == reviewersStudentTab) {
-    		String toRole = "";
-			String fromRole = "";
-			
-			// Determine if its a message from Reviewer to Student or Student to Reviewer to call the correct database function
-			for (String formattedMessage : splitFormattedMessage) {
-				if (formattedMessage.startsWith("To [")) {
-					toRole = formattedMessage.substring(formattedMessage.indexOf('[') + 1, formattedMessage.indexOf(']'));
-				}
-				else if (formattedMessage.trim().startsWith("From [")) {
-					fromRole = formattedMessage.substring(formattedMessage.indexOf('[') + 1, formattedMessage.indexOf(']'));
-				}
-			}
-			// If From: Student, To Reviewer
-			if (toRole.equals("Reviewer") && fromRole.equals("Student")) {
-				String to = splitFormattedMessage[0].replace("To [Reviewer]: ", "").trim();
-				String from = splitFormattedMessage[1].replace("From [Student]: ", "").trim();
-				String formattedDate = splitFormattedMessage[2].replace("Date: ", "").trim();
-				String messageSubject = splitFormattedMessage[3].replace("Message Subject: ", "").trim();
-				String messageBody = splitFormattedMessage[4].replace("Message Body: ", "").trim();
-				
-				LocalDateTime dateLocalDateTime = LocalDateTime.parse(formattedDate, timeMessageSent);
-				isFlaggedStatus = databaseHelper.checkIfStudentPrivateMessageFlagged(to, from, dateLocalDateTime, messageSubject, messageBody);
-				
-				if (isFlaggedStatus) {
-					reasonIsFlagged = databaseHelper.getReasonStudentPrivateMessageFlagged(to, from, dateLocalDateTime, messageSubject, messageBody);
-				}
-				else if (!isFlaggedStatus) {
-					reasonIsFlagged = "";
-				}
-			}
-			// If From: Reviewer, To Student
-			else if(toRole.equals("Student") && fromRole.equals("Reviewer")) {
-				String to = splitFormattedMessage[0].replace("To [Student]: ", "").trim();
-				String from = splitFormattedMessage[1].replace("From [Reviewer]: ", "").trim();
-				String formattedDate = splitFormattedMessage[2].replace("Date: ", "").trim();
-				String messageSubject = splitFormattedMessage[3].replace("Message Subject: ", "").trim();
-				String messageBody = splitFormattedMessage[4].replace("Message Body: ", "").trim();
-				
-				LocalDateTime dateLocalDateTime = LocalDateTime.parse(formattedDate, timeMessageSent);
-				isFlaggedStatus = databaseHelper.checkIfReviewerPrivateMessageFlagged(to, from, dateLocalDateTime, messageSubject, messageBody);
-				
-				if (isFlaggedStatus) {
-					reasonIsFlagged = databaseHelper.getReasonReviewerPrivateMessageFlagged(to, from, dateLocalDateTime, messageSubject, messageBody);
-				}
-				else if (!isFlaggedStatus) {
-					reasonIsFlagged = "";
-				}
-			}
+    	if (message.getSource() == InboxMessage.Source.STUDENT) {
+    		return message.toDisplayString("Reviewer", "Student");
     	}
-    	return reasonIsFlagged;
+    	return message.toDisplayString("Student", "Reviewer");
     }
     
     /**
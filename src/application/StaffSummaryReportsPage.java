@@ -1,6 +1,7 @@
 package application;
 
 import databasePart1.DatabaseHelper;
+import databasePart1.QAStatistics;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -9,7 +10,9 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 
 /**
  * The {@code StaffSummaryReportsPage} class provides functionality for staff users
@@ -30,6 +33,12 @@ public class StaffSummaryReportsPage {
     /** The currently logged-in staff user. */
     private final User staffUser;
 
+    /** The number of weeks of activity shown in the report. */
+    public static final int TREND_WEEKS = 8;
+
+    /** The format of the first day of each week in the report. */
+    private static final DateTimeFormatter WEEK_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+
     /**
      * Constructs a {@code StaffSummaryReportsPage} with the specified database helper
      * and the staff user who is currently logged in.
@@ -45,9 +54,10 @@ public class StaffSummaryReportsPage {
     /**
      * Displays the summary reports page in the provided {@link Stage}.
      * <p>
-     * This method retrieves all questions and answers from the database, calculates
-     * basic statistics (such as the number of total questions, answered vs. unanswered,
-     * and resolved vs. unresolved), and displays the results in a read-only text area.
+     * This method reads the statistics which {@link DatabaseHelper} keeps up to date as
+     * questions and answers change (such as the number of total questions, answered vs.
+     * unanswered, and resolved vs. unresolved, plus weekly activity), so the report does
+     * not load every question and answer, and displays the results in a read-only text area.
      * A Back button is provided to return to the {@code StaffHomePage}.
      * </p>
      *
@@ -69,51 +79,15 @@ public class StaffSummaryReportsPage {
         reportArea.setEditable(false);
         reportArea.setPrefHeight(300);
 
-        // 4) Retrieve data from DB (assuming these methods exist in DatabaseHelper)
-        ArrayList<Question> allQuestions = databaseHelper.getAllQuestions(staffUser);
-        ArrayList<Answer>   allAnswers   = databaseHelper.getAllAnswers(staffUser);
-
-        // 5) Compute basic stats
-        int totalQuestions   = allQuestions.size();
-        int resolvedCount    = 0;
-        int unansweredCount  = 0;  // for questions with zero answers
-
-        // Count how many are resolved
-        for (Question q : allQuestions) {
-            if (q.getIsResolved()) {
-                resolvedCount++;
-            }
-        }
-
-        // Count how many have no answers
-        for (Question q : allQuestions) {
-            boolean hasAnswer = false;
-            for (Answer a : allAnswers) {
-                if (a.getQuestionID() == q.getQuestionID()) {
-                    hasAnswer = true;
-                    break;
-                }
-            }
-            if (!hasAnswer) {
-                unansweredCount++;
-            }
-        }
-
-        int totalAnswers = allAnswers.size();
+        // 4) Read the maintained counts on a worker thread, as the first report after startup loads them
+        reportArea.setText("Loading...");
+        new LatestRequest<String>(databaseHelper.getAsync()).submit(
+                () -> buildReport(databaseHelper.getStatistics(), LocalDate.now()), reportArea::setText);
 
-        // 6) Build the summary string
-        StringBuilder sb = new StringBuilder();
-        sb.append("Total Questions: ").append(totalQuestions).append("\n");
-        sb.append("Resolved: ").append(resolvedCount).append("\n");
-        sb.append("Unresolved: ").append(totalQuestions - resolvedCount).append("\n");
-        sb.append("Unanswered: ").append(unansweredCount).append("\n\n");
-        sb.append("Total Answers: ").append(totalAnswers).append("\n");
-
-        // 7) Show result in the text area
-        reportArea.setText(sb.toString());
+        // 5) Show result in the text area
         root.getChildren().add(reportArea);
 
-        // 8) A back button to return staff to the StaffHomePage
+        // 6) A back button to return staff to the StaffHomePage
         Button backButton = new Button("Back");
         backButton.setOnAction(e -> {
             StaffHomePage staffHome = new StaffHomePage(databaseHelper, staffUser);
@@ -121,10 +95,37 @@ public class StaffSummaryReportsPage {
         });
         root.getChildren().add(backButton);
 
-        // 9) Build scene
+        // 7) Build scene
         Scene scene = new Scene(root, 600, 400);
         primaryStage.setScene(scene);
         primaryStage.setTitle("Staff: Summary Reports");
         primaryStage.show();
     }
+
+    /**
+     * Builds the text of the report from the maintained statistics: the question and
+     * answer counts, followed by the questions and answers posted in each of the last
+     * {@link #TREND_WEEKS} weeks.
+     *
+     * @param statistics the {@link QAStatistics} kept by the {@link DatabaseHelper}
+     * @param today      the current day, which ends the weekly trend
+     * @return the report
+     */
+    public static String buildReport(QAStatistics statistics, LocalDate today) {
+        QAStatistics.Summary summary = statistics.getSummary();
+        StringBuilder sb = new StringBuilder();
+        sb.append("Total Questions: ").append(summary.getTotalQuestions()).append("\n");
+        sb.append("Resolved: ").append(summary.getResolvedQuestions()).append("\n");
+        sb.append("Unresolved: ").append(summary.getUnresolvedQuestions()).append("\n");
+        sb.append("Unanswered: ").append(summary.getUnansweredQuestions()).append("\n\n");
+        sb.append("Total Answers: ").append(summary.getTotalAnswers()).append("\n");
+        sb.append(String.format("Answers per Question: %.2f%n%n", summary.getAnswersPerQuestion()));
+
+        sb.append("Weekly Activity (questions / answers):\n");
+        for (QAStatistics.TrendBucket week : statistics.getTrend(ChronoUnit.WEEKS, TREND_WEEKS, today)) {
+            sb.append("  Week of ").append(week.getStart().format(WEEK_FORMAT)).append(": ")
+              .append(week.getQuestionsAsked()).append(" / ").append(week.getAnswersPosted()).append("\n");
+        }
+        return sb.toString();
+    }
 }
\ No newline at end of file
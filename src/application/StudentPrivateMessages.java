@@ -11,10 +11,9 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
 import java.sql.SQLException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -43,10 +42,14 @@ public class StudentPrivateMessages {
 
     private User student;
     private DatabaseHelper dbHelper;
-    private ListView<String> messageListView;
+    private ListView<InboxMessage> messageListView;
     
-    private ObservableList<String> inboxObservable;
-    private ObservableList<String> sentMessageObservable;
+    private ObservableList<InboxMessage> inboxObservable;
+    private ObservableList<InboxMessage> sentMessageObservable;
+    
+    // Every loaded inbox and sent message, before searching
+    private final List<InboxMessage> allInboxMessages = new ArrayList<>();
+    private final List<InboxMessage> allSentMessages = new ArrayList<>();
     
     private TextArea messageInput;
     private TextField recipientField, subjectField, searchField;
@@ -100,7 +103,7 @@ public class StudentPrivateMessages {
         // Double-click to open message detail view
         messageListView.setOnMouseClicked(event -> {
             if (event.getClickCount() == 2) {
-                String selectedMessage = messageListView.getSelectionModel().getSelectedItem();
+                InboxMessage selectedMessage = messageListView.getSelectionModel().getSelectedItem();
                 if (selectedMessage != null) {
                     openMessageDetails(selectedMessage);
                 }
@@ -149,50 +152,21 @@ public class StudentPrivateMessages {
         
         // Listener to mark a private message as read once clicked on
         messageListView.getSelectionModel().selectedItemProperty().addListener((observableList, oldMessage, newMessage) -> {
-        	if (newMessage != null) {
-        		int index = -1;
-        		String messageToMarkRead = messageListView.getSelectionModel().getSelectedItem();
-        		String[] splitFormattedMessage = newMessage.split("\n");
-        		
-        		String toRole = "";
-        		String fromRole = "";
+        	if (newMessage != null && !newMessage.isRead() && newMessage.getRecipient().equals(student.getUserName())) {
+        		dbHelper.markMessagesRead(newMessage.getSource(), List.of(newMessage.getSourceID()));
         		
-        		// Determine if its a message from Reviewer to this Student or another Student to this Student to call the correct database function
-        		for (String formattedMessage : splitFormattedMessage) {
-        			if (formattedMessage.startsWith("To [")) {
-        				toRole = formattedMessage.substring(formattedMessage.indexOf('[') + 1, formattedMessage.indexOf(']'));
-        			}
-        			else if (formattedMessage.trim().startsWith("From [")) {
-        				fromRole = formattedMessage.substring(formattedMessage.indexOf('[') + 1, formattedMessage.indexOf(']'));
-        			}
-        		}
-        		
-        		// Message is from another Student to this Student
-        		if (toRole.equals("Student") && fromRole.equals("Student")) {
-        			String to = splitFormattedMessage[0].replace("To [Student]: ", "").trim();
-            		String from = splitFormattedMessage[1].replace("From [Student]: ", "").trim();
-            		//String formattedDate = splitFormattedMessage[2].replace("Date: ", "").trim();
-            		String messageSubject = splitFormattedMessage[3].replace("Message Subject: ", "").trim();
-            		String messageBody = splitFormattedMessage[4].replace("Message Body: ", "").trim();
-
-            		dbHelper.markStudentToStudentMessageAsRead(to, from, messageSubject, messageBody);
-        		}
-        		// Message is from Reviewer to this Student
-        		else if (toRole.equals("Student") && fromRole.equals("Reviewer")) {
-		        	String to = splitFormattedMessage[0].replace("To [Student]: ", "").trim();
-					String from = splitFormattedMessage[1].replace("From [Reviewer]: ", "").trim();
-					//String formattedDate = splitFormattedMessage[2].replace("Date: ", "").trim();
-					String messageSubject = splitFormattedMessage[3].replace("Message Subject: ", "").trim();
-					String messageBody = splitFormattedMessage[4].replace("Message Body: ", "").trim();
-					
-					dbHelper.markReviewerToStudentMessageAsRead(to, from, messageSubject, messageBody);
-        		}
         		// Update the total count of unread messages
         		unreadCountLabel.setText("Total Unread Messages: " + getUnreadMessageCount());
         		
-        		// Update ListView/Observable List
-        		index = inboxObservable.indexOf(messageToMarkRead);
-        		inboxObservable.set(index, messageToMarkRead);
+        		// Replace the message with its read copy in the ListView/Observable List
+        		InboxMessage readMessage = dbHelper.getMessage(newMessage.getSource(), newMessage.getSourceID());
+        		if (readMessage != null) {
+        			allInboxMessages.replaceAll(m -> m == newMessage ? readMessage : m);
+        			int index = inboxObservable.indexOf(newMessage);
+        			if (index >= 0) {
+        				inboxObservable.set(index, readMessage);
+        			}
+        		}
         		messageListView.refresh();
         	}
         });
@@ -228,13 +202,13 @@ public class StudentPrivateMessages {
      * Loads all private messages for the current student and updates the view.
      */
     private void loadMessages() {
-    	inboxObservable.clear();
-    	ArrayList<String> inboxMsgs = dbHelper.getPrivateMessagesForStudent(student.getUserName());
-    	inboxObservable.addAll(inboxMsgs);
+    	allInboxMessages.clear();
+    	allInboxMessages.addAll(dbHelper.getStudentInbox(student.getUserName()));
+    	inboxObservable.setAll(allInboxMessages);
   
-    	sentMessageObservable.clear();
-    	ArrayList<String> sentMsgs = dbHelper.getPrivateMessagesSentByStudent(student.getUserName());
-    	sentMessageObservable.addAll(sentMsgs);
+    	allSentMessages.clear();
+    	allSentMessages.addAll(dbHelper.getStudentSentMessages(student.getUserName()));
+    	sentMessageObservable.setAll(allSentMessages);
     }
 
     /**
@@ -273,24 +247,28 @@ public class StudentPrivateMessages {
      * Autofills the recipient and subject fields.
      */
     private void prepareReply() {
-        String selected = messageListView.getSelectionModel().getSelectedItem();
+        InboxMessage selected = messageListView.getSelectionModel().getSelectedItem();
         if (selected == null) return;
 
-        String recipient = extractRecipientFromMessage(selected);
-        recipientField.setText(recipient);
-        subjectField.setText("RE: " + extractSubjectFromMessage(selected));
-        replyToMessageID = extractMessageIDFromMessage(selected);
+        recipientField.setText(selected.getSender());
+        subjectField.setText("RE: " + selected.getSubject());
+        // Only private messages between students are threaded by the message they reply to
+        replyToMessageID = selected.getSource() == InboxMessage.Source.STUDENT ? String.valueOf(selected.getSourceID()) : null;
     }
 
     /**
      * Deletes the currently selected message.
      */
     private void deleteSelectedMessage() {
-        String selected = messageListView.getSelectionModel().getSelectedItem();
+        InboxMessage selected = messageListView.getSelectionModel().getSelectedItem();
         if (selected == null) return;
 
-        String messageID = extractMessageIDFromMessage(selected);
-        dbHelper.deletePrivateMessage(messageID);
+        if (selected.getSource() == InboxMessage.Source.REVIEWER) {
+        	dbHelper.deleteReviewerMessage(selected.getSourceID());
+        }
+        else {
+        	dbHelper.deletePrivateMessage(String.valueOf(selected.getSourceID()));
+        }
         loadMessages();
         unreadCountLabel.setText("Unread Messages: " + getUnreadMessageCount());
     }
@@ -303,9 +281,11 @@ public class StudentPrivateMessages {
     private void searchMessages(String query) {
     	Tab currentTab = messageTypeTabPane.getSelectionModel().getSelectedItem();
     	
-        ArrayList<String> filtered = dbHelper.getPrivateMessagesForStudent(student.getUserName())
+        List<InboxMessage> messages = currentTab == sentMessagesTab ? allSentMessages : allInboxMessages;
+        String keyword = query.toLowerCase();
+        ArrayList<InboxMessage> filtered = messages
                 .stream()
-                .filter(m -> m.toLowerCase().contains(query.toLowerCase()))
+                .filter(m -> m.contains(keyword))
                 .collect(Collectors.toCollection(ArrayList::new));
         
         if (currentTab == inboxTab) {
@@ -323,17 +303,18 @@ public class StudentPrivateMessages {
      */
     private void sortMessages(String criterion) {
     	Tab currentTab = messageTypeTabPane.getSelectionModel().getSelectedItem();
-        Comparator<String> comparator;
+        Comparator<InboxMessage> comparator;
 
         switch (criterion) {
             case "Sort by Recipient":
-                comparator = Comparator.comparing(this::extractRecipientFromMessage);
+                comparator = Comparator.comparing(currentTab == sentMessagesTab ? InboxMessage::getRecipient : InboxMessage::getSender,
+                		Comparator.nullsLast(Comparator.naturalOrder()));
                 break;
             case "Sort by Read/Unread":
-                comparator = Comparator.comparing(msg -> msg.contains("[UNREAD]") ? 0 : 1);
+                comparator = Comparator.comparing(msg -> msg.isRead() ? 1 : 0);
                 break;
             default: // Sort by Date
-                comparator = Comparator.comparing(this::extractDateFromMessage).reversed();
+                comparator = Comparator.comparing(InboxMessage::getSentTime, Comparator.nullsFirst(Comparator.naturalOrder())).reversed();
         }
         
         if (currentTab == inboxTab) {
@@ -353,103 +334,23 @@ public class StudentPrivateMessages {
         return dbHelper.getUnreadPrivateMessageCount(student.getUserName());
     }
 
-    // ============================
-    // Utility parsing methods
-    // ============================
-
-    /**
-     * Extracts the recipient from the raw message string.
-     *
-     * @param msg raw message string
-     * @return extracted recipient username
-     */
-    private String extractRecipientFromMessage(String msg) {
-    	String[] splitFormattedMessage = msg.split("\n");
-    	String toRole = "";
-    	String fromRole = "";
-    	String from = "";
-
-    	// Determine if its a message from Reviewer to this Student or another Student to this Student
-    	for (String formattedMessage : splitFormattedMessage) {
-    		if (formattedMessage.startsWith("To [")) {
-    			toRole = formattedMessage.substring(formattedMessage.indexOf('[') + 1, formattedMessage.indexOf(']'));
-    		}
-    		else if (formattedMessage.trim().startsWith("From [")) {
-    			fromRole = formattedMessage.substring(formattedMessage.indexOf('[') + 1, formattedMessage.indexOf(']'));
-    		}
-    	}
-    	
-    	// Message is from another Student to this Student
-    	if (toRole.equals("Student") && fromRole.equals("Student")) {
-    		from = splitFormattedMessage[1].replace("From [Student]: ", "").trim();
-
-    	}
-    	// Message is from Reviewer to this Student
-    	else if (toRole.equals("Student") && fromRole.equals("Reviewer")) {
-    		from = splitFormattedMessage[1].replace("From [Reviewer]: ", "").trim();
-    	}
-        return from;
-    }
-
-    /**
-     * Extracts the subject from the raw message string.
-     *
-     * @param msg raw message string
-     * @return extracted subject
-     */
-    private String extractSubjectFromMessage(String msg) {
-    	String[] splitFormattedMessage = msg.split("\n");
-    	String messageSubject = splitFormattedMessage[3].replace("Message Subject: ", "").trim();
-        return messageSubject;
-    }
-
-    /**
-     * Extracts the message ID from the raw message string.
-     *
-     * @param msg raw message string
-     * @return extracted message ID
-     */
-    private String extractMessageIDFromMessage(String msg) {
-        return "123"; // TODO: implement actual parsing
-    }
-
-    /**
-     * Extracts the timestamp from the raw message string.
-     *
-     * @param msg raw message string
-     * @return extracted {@link LocalDateTime}
-     */
-    private LocalDateTime extractDateFromMessage(String msg) {
-    	String[] splitFormattedMessage = msg.split("\n");
-    	DateTimeFormatter timeMessageSent = DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
-    	String formattedDate = splitFormattedMessage[2].replace("Date: ", "").trim();
-    	LocalDateTime dateLocalDateTime = LocalDateTime.parse(formattedDate, timeMessageSent);
-        return dateLocalDateTime;
-    }
-
     /**
      * Opens a dialog window showing the full details of the selected message.
      *
-     * @param message the message string to display
+     * @param message the message to display
      */
-    private void openMessageDetails(String message) {
+    private void openMessageDetails(InboxMessage message) {
         Stage dialog = new Stage();
         dialog.setTitle("Message Details");
 
-        String[] parts = message.split("\\|");
-
-        String fromPart    = parts.length > 0 ? parts[0].trim() : "";
-        String subjectPart = parts.length > 1 ? parts[1].trim() : "";
-        String bodyPart    = parts.length > 2 ? parts[2].trim() : "";
-        String datePart    = parts.length > 3 ? parts[3].trim() : "";
-        String idPart      = parts.length > 4 ? parts[4].trim() : "";
+        String[] lines = message.toString().split("\n", 5);
 
         StringBuilder sb = new StringBuilder();
-        sb.append(fromPart).append("\n");
-        sb.append("Subject: ").append(subjectPart).append("\n");
-        sb.append(datePart).append("\n");
-        sb.append(idPart).append("\n\n");
-        sb.append("Message:\n").append(bodyPart);
+        sb.append(lines[1]).append("\n");
+        sb.append("Subject: ").append(message.getSubject()).append("\n");
+        sb.append(lines[2]).append("\n");
+        sb.append("Message ID: ").append(message.getSourceID()).append("\n\n");
+        sb.append("Message:\n").append(message.getBody());
 
         TextArea textArea = new TextArea(sb.toString());
         textArea.setEditable(false);
@@ -2,8 +2,11 @@
 package application;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 
+import databasePart1.ChangeEvent;
 import databasePart1.DatabaseHelper;
+import databasePart1.SearchIndex;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
@@ -17,8 +20,7 @@ import javafx.util.Callback;
 import java.time.LocalDateTime;
 import javafx.geometry.Pos;
 import java.util.Objects;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 import javafx.collections.transformation.FilteredList;
 import javafx.geometry.Insets;
 import java.util.function.Predicate;
@@ -317,84 +319,47 @@ public class StudentQuestionsAnswers {
 	    initialQuestionList = new Questions(databaseHelper, user);
 	    allQuestionsObservable = FXCollections.observableArrayList();
 
-	    // Load all the questions first
-	    allQuestionsObservable.addAll(initialQuestionList.getAllQuestions(user));
-
-	    // Then grab all the replies
-	    ObservableList<Question> replies = FXCollections.observableArrayList(initialQuestionList.getAllReplies());
-	    
-	    // Then iterate to connect each reply with its parent question
-	    for (Question reply : replies) {
-	        boolean parentFound = false;
-	        for (int i = 0; i < allQuestionsObservable.size(); i++) {
-	            Question parentQuestion = allQuestionsObservable.get(i);
-
-	            if (parentQuestion.getQuestionID() == reply.getQuestionID()) {
-	                allQuestionsObservable.add(i + 1, reply);
-	                parentFound = true;
-	                break;
-	            }
-	        }
-	    }
-	    ArrayList<Question> questionsFromDB = initialQuestionList.getAllQuestions(user);
-	    
-	    System.out.println("Fetched questions from database:");
-    	for (Question question : questionsFromDB) {
-    	    System.out.println("Question ID: " + question.getQuestionID() + 
-    	                       ", Question Title: " + question.getQuestionTitle() + 
-    	                       ", Is Resolved: " + question.getIsResolved() + 
-    	                       ", Question Body: " + question.getQuestionBody());
-    	}
-	    
-	    // Apply the updated list to the ListView
+	    // Apply the list to the ListView and load it one page at a time, each question followed by its replies
 	    FilteredList<Question> filteredQuestionsSearch = new FilteredList<>(allQuestionsObservable, q -> true);
 	    submittedQuestionsList.setItems(filteredQuestionsSearch);
     	submittedQuestionsList.setPrefWidth(425);
+    	PagedListLoader<Question> questionsLoader = new PagedListLoader<>(databaseHelper.getAsync(), submittedQuestionsList, allQuestionsObservable,
+    			(after, pageSize) -> initialQuestionList.getQuestionsPage(user, after, pageSize),
+    			q -> q.getReplyID() > 0 ? "reply " + q.getReplyID() : "question " + q.getQuestionID(), PagedListLoader.DEFAULT_PAGE_SIZE);
+    	questionsLoader.loadFirstPage();
+    	// Keep the list current as rows are added, edited, hidden or deleted elsewhere
+    	LiveListUpdater<Question> liveQuestions = new LiveListUpdater<>(databaseHelper, ChangeEvent.Entity.QUESTION, allQuestionsObservable,
+    			q -> q.getReplyID() > 0 ? -1 : q.getQuestionID(), id -> databaseHelper.getQuestionRow(id, false),
+    			new LiveListUpdater.ChildRows<>(ChangeEvent.Entity.REPLY, q -> q.getReplyID() > 0 ? q.getReplyID() : -1, Question::getQuestionID,
+    					id -> databaseHelper.getReplyRow(id, false)),
+    			questionsLoader::loadFirstPage);
     	
-    	// Load AnswerList upon opening
+    	// Load AnswerList upon opening, one page at a time
     	initialAnswerList = new Answers(databaseHelper, user);
     	ObservableList<Answer> allAnswersObservable = FXCollections.observableArrayList();
-    	allAnswersObservable.addAll(initialAnswerList.getAllAnswers(user));
-    	
-    	ArrayList<Answer> answersFromDB = initialAnswerList.getAllAnswers(user);
-    	
-    	System.out.println("Fetched answers from database:");
-    	for (Answer answer : answersFromDB) {
-    	    System.out.println("Answer ID: " + answer.getAnswerID() + 
-    	                       ", Question ID: " + answer.getQuestionID() + 
-    	                       ", Is Resolved: " + answer.getIsResolved() + 
-    	                       ", Answer Text: " + answer.getAnswerText() +
-    	                       ", isHidden: " + answer.getIsHidden());
-    	}
     	
     	FilteredList<Answer> filteredAnswersSearch = new FilteredList<>(allAnswersObservable, a -> true);
     	submittedAnswerList.setItems(filteredAnswersSearch);
     	submittedAnswerList.setPrefWidth(425);
+    	PagedListLoader<Answer> answersLoader = new PagedListLoader<>(databaseHelper.getAsync(), submittedAnswerList, allAnswersObservable,
+    			(after, pageSize) -> initialAnswerList.getAnswersPage(user, after, pageSize), Answer::getAnswerID, PagedListLoader.DEFAULT_PAGE_SIZE);
+    	answersLoader.loadFirstPage();
+    	LiveListUpdater<Answer> liveAnswers = new LiveListUpdater<>(databaseHelper, ChangeEvent.Entity.ANSWER, allAnswersObservable,
+    			Answer::getAnswerID, id -> databaseHelper.getAnswerRow(id, false), answersLoader::loadFirstPage);
     	
-    	// Load Reviews List View upon opening with only reviews created by current user
+    	// Load Reviews List View upon opening, one page at a time
 		initialReviewsList = new Reviews(databaseHelper, user);
 		allReviewsObservable = FXCollections.observableArrayList();
-		allReviewsObservable.addAll(initialReviewsList.getAllReviews(user));
-		
-		// FOR DEBUGGING
-		ArrayList<Review> reviewsFromDB = initialReviewsList.getAllReviews(user);
-    	
-    	System.out.println("Fetched reviews from database:");
-    	for (Review review : reviewsFromDB) {
-    	    System.out.println("Review ID: " + review.getReviewID() + 
-    	    				   ", Answer ID: " + review.getAnswerID() +
-    	                       ", Question ID: " + review.getQuestionID() + 
-    	                       ", Reviewer userName: " + review.getReviewerUserName() + 
-    	                       ", Reviewer First Name: " + review.getReviewerFirstName() + 
-    	                       ", Reviewer Last Name: " + review.getReviewerLastName() + 
-    	                       ", Previous Review ID: " + review.getPrevReviewID() + 
-    	                       ", Review Text: " + review.getReviewBody());
-    	}
     	
 		// Apply the submittedReviewsList to the FilteredList
 		FilteredList<Review> filteredReviewsSearch = new FilteredList<>(allReviewsObservable, a -> true);
 		submittedReviewsList.setItems(filteredReviewsSearch);
 		submittedReviewsList.setPrefWidth(425);
+		PagedListLoader<Review> reviewsLoader = new PagedListLoader<>(databaseHelper.getAsync(), submittedReviewsList, allReviewsObservable,
+				(after, pageSize) -> initialReviewsList.getReviewsPage(user, after, pageSize), Review::getReviewID, PagedListLoader.DEFAULT_PAGE_SIZE);
+		reviewsLoader.loadFirstPage();
+		LiveListUpdater<Review> liveReviews = new LiveListUpdater<>(databaseHelper, ChangeEvent.Entity.REVIEW, allReviewsObservable,
+				Review::getReviewID, id -> databaseHelper.getReviewRow(id, false), reviewsLoader::loadFirstPage);
         
         // This includes the "Create New Question" and "Answer Question" text areas and labels of the HBox
         inputSide = new VBox(10);
@@ -508,110 +473,24 @@ public class StudentQuestionsAnswers {
     				filteredQuestions.addAll(initialQuestionList.getAllQuestions(user));
     				break;
     		}
-    		// combine replies with their parents to maintain the hierarchy when filtering (replies indented underneath their parent questions)
-    		ArrayList<Question> filteredQuestionsAndReplies = new ArrayList<>();
-    		
-    		for (Question q : filteredQuestions) {
-    			filteredQuestionsAndReplies.add(q);
-    			if (filter != "Answered") {
-	    			for (Question r: initialQuestionList.getAllReplies()) {
-	    				if (r.getQuestionID() == q.getQuestionID()) {
-	    					filteredQuestionsAndReplies.add(r);
-	    				}
-	    			}
-    			}
-    		}
+    		// Group the replies under their parent questions in one pass to maintain the hierarchy when filtering (replies indented underneath their parent questions)
+    		List<QuestionThread> filteredThreads = QuestionThread.build(filteredQuestions, initialQuestionList.getAllReplies());
     		
+    		// Enable keyword search to further filter results displayed by selected filter
     		String keyword = questionsKeywordField.getText();
-    		ArrayList<Question> filteredQuestionsKey = new ArrayList<Question>();
-
-    		 if (keyword.length() > 0) {
-    			int questionID = -1;
- 				boolean keywordFound = false;
- 				String whereKeywordFound = "";
- 				Set<Integer> addedReplies = new HashSet<>(); // used to keep track of replyID() and questionID() already added to filtered view
- 				// If a question is found to have the keyword, add its corresponding replies to the filtered view
-    			for (Question q : filteredQuestionsAndReplies) {
-    				if ((q.getQuestionTitle() != null && q.getQuestionTitle().toLowerCase().contains(keyword.toLowerCase())) ||
-    					(q.getQuestionBody() != null && q.getQuestionBody().toLowerCase().contains(keyword.toLowerCase())) ||
-    					(q.getStudentFirstName() != null && q.getStudentFirstName().toLowerCase().contains(keyword.toLowerCase())) ||
-        				(q.getStudentLastName() != null && q.getStudentLastName().toLowerCase().contains(keyword.toLowerCase()))) {
-    					keywordFound = true;
-    					whereKeywordFound = "question";
-    					questionID = q.getQuestionID();
-    					filteredQuestionsKey.add(q);
-    				}
-    				if (keywordFound && whereKeywordFound.equals("question")) {
-    					for (Question r: initialQuestionList.getAllReplies()) {
-    	    				if (r.getQuestionID() == questionID && !addedReplies.contains(r.getReplyID())) {
-    	    					filteredQuestionsKey.add(r);
-    	    					addedReplies.add(r.getReplyID());
-    	    					break;
-    	    				}
-    	    			}
-    				}
-    			}
-    			// If a reply is found to have the keyword, add the corresponding question first and then the reply to the filtered view
-    			for (Question r : initialQuestionList.getAllReplies()) {
-    				if ((r.getQuestionReply() != null && r.getQuestionReply().toLowerCase().contains(keyword.toLowerCase())) ||
-        					(r.getStudentFirstName() != null && r.getStudentFirstName().toLowerCase().contains(keyword.toLowerCase())) ||
-            				(r.getStudentLastName() != null && r.getStudentLastName().toLowerCase().contains(keyword.toLowerCase()))) {
-    						keywordFound = true;
-    						whereKeywordFound = "reply";
-    						questionID = r.getQuestionID();
- 
-							if (!addedReplies.contains(r.getReplyID())) {
-    							for (Question q : filteredQuestionsAndReplies) {
-    	    						if (q.getQuestionID() == questionID && !addedReplies.contains(q.getQuestionID())) {
-    	    							filteredQuestionsKey.add(q);
-    	    							addedReplies.add(q.getQuestionID());
-    	    							break;
-    	    						}
-    	    					}
-    							filteredQuestionsKey.add(r);
-    							addedReplies.add(r.getReplyID());
-							}
-    				}	
-    			}
-    		 }
-    		 else {
-    			 filteredQuestionsKey = filteredQuestionsAndReplies;
-    		 }
-    		 
+    		ArrayList<Question> filteredQuestionsKey = keyword.length() > 0 ? QuestionThread.toQuestionsAndRepliesContaining(filteredThreads, keyword)
+    				: QuestionThread.toQuestionsAndReplies(filteredThreads);
+    		
     		ObservableList<Question> filteredQuestionsObservable = FXCollections.observableArrayList(filteredQuestionsKey);
     		submittedQuestionsList.setItems(filteredQuestionsObservable); 
     	});
     	
-    	// enable question keyword searching to filter list
-    	questionsKeywordField.textProperty().addListener((observable, oldValue, newValue) -> {
-    		filteredQuestionsSearch.setPredicate(question -> {
-    			if (newValue == null || newValue.isEmpty()) {
-    				return true;
-    			}
-    			String convertToLowerCase = newValue.toLowerCase();
-    			boolean checkQuestionsForKeyword = 
-    				   (question.getQuestionTitle() != null && question.getQuestionTitle().toLowerCase().contains(convertToLowerCase)) ||
-    				   (question.getQuestionBody() != null && question.getQuestionBody().toLowerCase().contains(convertToLowerCase)) ||
-    				   (question.getStudentFirstName() != null && question.getStudentFirstName().toLowerCase().contains(convertToLowerCase)) ||
-    				   (question.getStudentLastName() != null && question.getStudentLastName().toLowerCase().contains(convertToLowerCase));
-    			
-    			boolean checkRepliesForKeyword = 
-     				   (question.getQuestionReply() != null && question.getQuestionReply().toLowerCase().contains(convertToLowerCase)) ||
-     				   (question.getStudentFirstName() != null && question.getStudentFirstName().toLowerCase().contains(convertToLowerCase)) ||
-     				   (question.getStudentLastName() != null && question.getStudentLastName().toLowerCase().contains(convertToLowerCase));
-    				
-    			if (checkQuestionsForKeyword) {
-    				return true;
-    			}
-    			
-    			if (checkRepliesForKeyword) {
-    				return true;
-    			}
-    			return false;
-
-    		});
-    		submittedQuestionsList.setItems(filteredQuestionsSearch);
-    	});
+    	// Search questions and replies by keyword once the user stops typing, ranking whole threads by their best match
+    	KeywordSearch<Question> questionsSearch = new KeywordSearch<>(databaseHelper, filteredQuestionsSearch, EnumSet.of(ChangeEvent.Entity.QUESTION, ChangeEvent.Entity.REPLY),
+    			q -> q.getReplyID() != -1 ? SearchIndex.key(ChangeEvent.Entity.REPLY, q.getReplyID()) : SearchIndex.key(ChangeEvent.Entity.QUESTION, q.getQuestionID()),
+    			Question::getQuestionID);
+    	questionsSearch.attach(questionsKeywordField, submittedQuestionsList);
+    	submittedQuestionsList.setItems(questionsSearch.getRankedItems());
     	
     	// Display questions as a list
     	// CellFactory to display questions in the ListView
@@ -664,7 +543,7 @@ public class StudentQuestionsAnswers {
     	                	content.getChildren().removeIf(node -> node instanceof Label && ((Label) node).getText().equals("✔️"));
     	                    formattedText = String.format("Author: %s\n%s\nReplyText: %s", question.getStudentFirstName() + " " + question.getStudentLastName(), question.getReplyingTo(), question.getQuestionReply());
     	                    questionContent.setStyle("-fx-padding: 0 0 0 40px;");
-    	                    questionContent.setText(formattedText);
+    	                    questionsSearch.show(questionContent, formattedText);
     	                    questionReply.setVisible(false);
     	                }
     	                // the question is not a reply but is also marked deleted so do not indent but display without a "Request question clarification" button
@@ -676,7 +555,7 @@ public class StudentQuestionsAnswers {
 	                                initialQuestionList.countUnreadPotentialAnswers(question.getQuestionID()),
 	                                question.getQuestionBody());
     	                			questionContent.setStyle("-fx-padding: 0 0 0 0;");
-		    	                	questionContent.setText(formattedText);
+		    	                	questionsSearch.show(questionContent, formattedText);
 			                    	questionReply.setVisible(false);
     	                }
     	                // the question is not a reply so do not indent but do display a "Request question clarification" button
@@ -690,7 +569,7 @@ public class StudentQuestionsAnswers {
 	                                question.getQuestionTitle(), 
 	                                initialQuestionList.countUnreadPotentialAnswers(question.getQuestionID()),
 	                                question.getQuestionBody());
-			                    	questionContent.setText(formattedText);
+			                    	questionsSearch.show(questionContent, formattedText);
 			                    	questionContent.setStyle("-fx-padding: 0 0 0 0;");
 			                    	questionReply.setVisible(true);
     	                }
@@ -702,7 +581,7 @@ public class StudentQuestionsAnswers {
 	                            question.getQuestionTitle(), 
 	                            initialQuestionList.countUnreadPotentialAnswers(question.getQuestionID()),
 	                            question.getQuestionBody());
-	                    	questionContent.setText(formattedText);
+	                    	questionsSearch.show(questionContent, formattedText);
 	                    	questionContent.setStyle("-fx-padding: 0 0 0 0;");
 	                    	questionReply.setVisible(true);
     	                	Label checkmarkLabel = new Label("✔️");
@@ -875,15 +754,20 @@ public class StudentQuestionsAnswers {
     	Button answersFilterButton = new Button("Filter");
     	
     	//Filters all answers by selected question
-    	answersFilterButton.setOnAction(a -> {														
-    		ArrayList<Answer> filteredAnswers = new ArrayList<Answer>();	
-
+    	// The answers are looked up on a worker thread; filtering again before they arrive drops the older request
+    	LatestRequest<ArrayList<Answer>> answersFilterRequest = new LatestRequest<>(databaseHelper.getAsync());
+    	answersFilterButton.setOnAction(a -> {
     		//First filters by selection
     		String filter = answersFilterChoice.getValue();
+    		Question selectedQuestion = submittedQuestionsList.getSelectionModel().getSelectedItem();
+    		String keyword = answersKeywordField.getText();
     		
+    		answersFilterRequest.submit(() -> {
+    		ArrayList<Answer> filteredAnswers = new ArrayList<Answer>();	
+
     		//Returns answers to selected question
-    		if(submittedQuestionsList.getSelectionModel().getSelectedItem() != null) {
-    			ArrayList<Answer> selectedAnswers = initialAnswerList.getAnswersByQuestionID(submittedQuestionsList.getSelectionModel().getSelectedItem().getQuestionID());
+    		if(selectedQuestion != null) {
+    			ArrayList<Answer> selectedAnswers = initialAnswerList.getAnswersByQuestionID(selectedQuestion.getQuestionID());
     			switch(filter) {
     			
     			case "Not Resolving":
@@ -940,7 +824,6 @@ public class StudentQuestionsAnswers {
     					break;
     			}
     		}
-    		String keyword = answersKeywordField.getText();
     		ArrayList<Answer> filteredAnswersKey = new ArrayList<Answer>();
     		
     		 if(keyword.length() > 0) {
@@ -955,24 +838,17 @@ public class StudentQuestionsAnswers {
     		 else {
     			 filteredAnswersKey = filteredAnswers;
     		 }
+    		 return filteredAnswersKey;
+    		},
     		 //Displays filtered list
-    		 ObservableList<Answer> filteredAnswersObservable = FXCollections.observableArrayList(filteredAnswersKey);
-    		 submittedAnswerList.setItems(filteredAnswersObservable);
+    		 filteredAnswersKey -> submittedAnswerList.setItems(FXCollections.observableArrayList(filteredAnswersKey)));
     	});
 
-    	// enable answer keyword searching to filter list
-    	answersKeywordField.textProperty().addListener((observable, oldValue, newValue) -> {
-    		filteredAnswersSearch.setPredicate(answer -> {
-    			if (newValue == null || newValue.isEmpty()) {
-    				return true;
-    			}
-    			String convertToLowerCase = newValue.toLowerCase();
-    			return answer.getAnswerText().toLowerCase().contains(convertToLowerCase) ||
-    					answer.getStudentFirstName().toLowerCase().contains(convertToLowerCase) ||
-    					answer.getStudentLastName().toLowerCase().contains(convertToLowerCase);
-    		});
-    	});
-    	submittedAnswerList.setItems(filteredAnswersSearch);
+    	// Search answers by keyword once the user stops typing, best match first
+    	KeywordSearch<Answer> answersSearch = new KeywordSearch<>(databaseHelper, filteredAnswersSearch, EnumSet.of(ChangeEvent.Entity.ANSWER),
+    			answer -> SearchIndex.key(ChangeEvent.Entity.ANSWER, answer.getAnswerID()), null);
+    	answersSearch.attach(answersKeywordField, submittedAnswerList);
+    	submittedAnswerList.setItems(answersSearch.getRankedItems());
     	
     	// Display answers as a list
         submittedAnswerList.setCellFactory(new Callback<ListView<Answer>, ListCell<Answer>>() {
@@ -998,6 +874,16 @@ public class StudentQuestionsAnswers {
                         		else {
                         			setGraphic(null);
                         		}
+                        		// While searching, show the matching words in bold next to the checkmark
+                        		if (answersSearch.isActive()) {
+                        			HBox highlighted = new HBox(5);
+                        			if (getGraphic() != null) {
+                        				highlighted.getChildren().add(getGraphic());
+                        			}
+                        			highlighted.getChildren().add(answersSearch.highlight(formattedText));
+                        			setText(null);
+                        			setGraphic(highlighted);
+                        		}
                         	
                         }
                     }
@@ -1595,19 +1481,11 @@ public class StudentQuestionsAnswers {
 	         submittedReviewsList.setItems(filteredReviewsObservable);
 		});
 		
-		// Enable only Review keyword searching to filter list (no filter selected)
-		reviewsKeywordField.textProperty().addListener((observable, oldValue, newValue) -> {
-			filteredReviewsSearch.setPredicate(review -> {
-		                if (newValue == null || newValue.isEmpty()) {
-		                        return true;
-		                }
-		                String convertToLowerCase = newValue.toLowerCase();
-		                return review.getReviewBody().toLowerCase().contains(convertToLowerCase) ||
-		                                review.getReviewerFirstName().toLowerCase().contains(convertToLowerCase) ||
-		                                review.getReviewerLastName().toLowerCase().contains(convertToLowerCase);
-		        });
-		});
-		submittedReviewsList.setItems(filteredReviewsSearch);
+		// Search reviews by keyword once the user stops typing, best match first (no filter selected)
+		KeywordSearch<Review> reviewsSearch = new KeywordSearch<>(databaseHelper, filteredReviewsSearch, EnumSet.of(ChangeEvent.Entity.REVIEW),
+				review -> SearchIndex.key(ChangeEvent.Entity.REVIEW, review.getReviewID()), null);
+		reviewsSearch.attach(reviewsKeywordField, submittedReviewsList);
+		submittedReviewsList.setItems(reviewsSearch.getRankedItems());
 		
 		// CellFactory to display formatted Reviews in the ListView
 		submittedReviewsList.setCellFactory(new Callback<ListView<Review>, ListCell<Review>>() {
@@ -1651,7 +1529,7 @@ public class StudentQuestionsAnswers {
 		                            review.getReviewerFirstName() + " " + review.getReviewerLastName(),
 		                            review.getReviewBody(),
 		                            databaseHelper.countUnreadReviewerPrivateMessages(userName, review.getReviewID())); 
-		                	reviewContent.setText(formattedText);
+		                	reviewsSearch.show(reviewContent, formattedText);
 		                	reviewContent.setStyle("-fx-padding: 0 0 0 0px;");
 	                       studentPrivateMessages.setVisible(true);
 	                        
@@ -1749,6 +1627,9 @@ public class StudentQuestionsAnswers {
 
 	    // Set the scene to primary stage
 	    primaryStage.setScene(studentScene);
+	    liveQuestions.closeWhenSceneReplaced(primaryStage);
+	    liveAnswers.closeWhenSceneReplaced(primaryStage);
+	    liveReviews.closeWhenSceneReplaced(primaryStage);
 	    primaryStage.setTitle("Student Question, Answer, and Review Dashboard");
 	    primaryStage.show();
     }
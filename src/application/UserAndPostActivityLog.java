@@ -1,9 +1,11 @@
 package application;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.List;
 
 import databasePart1.DatabaseHelper;
+import databasePart1.ModerationFlag;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.Scene;
@@ -41,14 +43,14 @@ public class UserAndPostActivityLog {
 	private ObservableList<String> mutedUsersObservable;
 	
 	 /**
-     * The ListView UI component showing the Question.
+     * The ListView UI component showing the open moderation queue entries.
      */
-	private ListView<Question> flaggedQuestionList;
+	private ListView<ModerationFlag> flaggedItemList;
 	
 	/**
-     * An observable list of Questions that will be displayed in the ListView.
+     * An observable list of open moderation queue entries, filled page by page, that will be displayed in the ListView.
      */
-	private ObservableList<Question> flaggedQuestionObservable;
+	private ObservableList<ModerationFlag> flaggedItemObservable;
 	
 	 /**
      * The ListView UI component showing the Question.
@@ -63,42 +65,42 @@ public class UserAndPostActivityLog {
 	 /**
      * The ListView UI component showing the Answer.
      */
-	private ListView<Answer> flaggedAnswerList;
+	private ListView<Answer> hiddenAnswerList;
 	
 	/**
      * An observable list of Answers that will be displayed in the ListView.
      */
-	private ObservableList<Answer> flaggedAnswerObservable;
+	private ObservableList<Answer> hiddenAnswerObservable;
 	
 	 /**
-     * The ListView UI component showing the Answer.
+     * The ListView UI component showing the Review.
      */
-	private ListView<Answer> hiddenAnswerList;
+	private ListView<Review> hiddenReviewList;
 	
 	/**
-     * An observable list of Answers that will be displayed in the ListView.
+     * An observable list of Reviews that will be displayed in the ListView.
      */
-	private ObservableList<Answer> hiddenAnswerObservable;
+	private ObservableList<Review> hiddenReviewObservable;
 	
-	 /**
-     * The ListView UI component showing the Review.
+	/**
+     * Number of moderation queue entries claimed by each press of Claim Next.
      */
-	private ListView<Review> flaggedReviewList;
+	private static final int QUEUE_CLAIM_SIZE = 5;
 	
 	/**
-     * An observable list of Reviews that will be displayed in the ListView.
+     * How long claimed moderation queue entries are held before other staff may claim them.
      */
-	private ObservableList<Review> flaggedReviewObservable;
+	private static final Duration QUEUE_LEASE = Duration.ofMinutes(15);
 	
 	 /**
-     * The ListView UI component showing the Review.
+     * The ListView UI component showing the moderation queue entries claimed by the current user.
      */
-	private ListView<Review> hiddenReviewList;
+	private ListView<ModerationFlag> claimedFlagList;
 	
 	/**
-     * An observable list of Reviews that will be displayed in the ListView.
+     * An observable list of claimed moderation queue entries that will be displayed in the ListView.
      */
-	private ObservableList<Review> hiddenReviewObservable;
+	private ObservableList<ModerationFlag> claimedFlagObservable;
 	
 	
 	public UserAndPostActivityLog(DatabaseHelper databaseHelper, User user) {
@@ -116,12 +118,11 @@ public class UserAndPostActivityLog {
     	
     	// Create list views
     	mutedUsersList = new ListView<String>();
-    	flaggedQuestionList = new ListView<Question>();
+    	flaggedItemList = new ListView<ModerationFlag>();
     	hiddenQuestionList = new ListView<Question>();
-    	flaggedAnswerList = new ListView<Answer>();
     	hiddenAnswerList = new ListView<Answer>();
-    	flaggedReviewList = new ListView<Review>();
     	hiddenReviewList = new ListView<Review>();
+    	claimedFlagList = new ListView<ModerationFlag>();
     	
     	// Establish boxes for layout
     	VBox mainlayout = new VBox(10);
@@ -129,65 +130,70 @@ public class UserAndPostActivityLog {
     	VBox leftBox = new VBox(10);
     	VBox centerBox = new VBox(10);
     	VBox rightBox = new VBox(10);
+    	VBox queueBox = new VBox(10);
     	
     	// Align all boxes
 	    mainlayout.setStyle("-fx-alignment: center; -fx-padding: 20;");
 	    leftBox.setStyle("-fx-alignment: center");
 	    centerBox.setStyle("-fx-alignment: center");
 	    rightBox.setStyle("-fx-alignment: center");
+	    queueBox.setStyle("-fx-alignment: center");
 	   
 	    // Attempt to get all required lists from database
 	    try {
 	    	mutedUsersObservable = FXCollections.observableArrayList(databaseHelper.getMutedUsers());
-	    	flaggedQuestionObservable = FXCollections.observableArrayList(databaseHelper.getAllQuestionsFlagged(user));
 	    	hiddenQuestionObservable = FXCollections.observableArrayList(databaseHelper.getAllQuestionsHidden(user));
-	    	flaggedAnswerObservable = FXCollections.observableArrayList(databaseHelper.getAllAnswersFlagged(user));
 	    	hiddenAnswerObservable = FXCollections.observableArrayList(databaseHelper.getAllAnswersHidden(user));
-	    	flaggedReviewObservable = FXCollections.observableArrayList(databaseHelper.getAllReviewsFlagged(user));
 	    	hiddenReviewObservable = FXCollections.observableArrayList(databaseHelper.getAllReviewsHidden(user));
 	    }catch(SQLException e){
 	    	e.printStackTrace();
 	    }
 	    
+	    // The flagged posts and messages are read from the moderation queue a page at a time, and the queue panel is
+	    // filled on worker threads so the page never waits for the database
+	    flaggedItemObservable = FXCollections.observableArrayList();
+	    flaggedItemList.setItems(flaggedItemObservable);
+	    PagedListLoader<ModerationFlag> flaggedItemLoader = new PagedListLoader<>(databaseHelper.getAsync(), flaggedItemList, flaggedItemObservable,
+	    		databaseHelper::getOpenFlagsPage, ModerationFlag::getFlagID, PagedListLoader.DEFAULT_PAGE_SIZE);
+	    flaggedItemLoader.loadFirstPage();
+	    claimedFlagObservable = FXCollections.observableArrayList();
+	    LatestRequest<Integer> queueCountRequest = new LatestRequest<>(databaseHelper.getAsync());
+	    // One queue action runs at a time; a newer one would cancel the write of the one still pending
+	    LatestRequest<List<ModerationFlag>> queueActionRequest = new LatestRequest<>(databaseHelper.getAsync());
+	    // Entries claimed earlier and not resolved yet are still held for this user
+	    queueActionRequest.submit(() -> databaseHelper.getClaimedFlags(user.getUserName()), claimedFlagObservable::setAll);
+	    
 	    
 	    // Prepare lists and style
 	    mutedUsersList.setPrefHeight(250);
 	    mutedUsersList.setPrefWidth(500);
 	    mutedUsersList.setEditable(true);
 	    mutedUsersList.setItems(mutedUsersObservable);
-	    flaggedQuestionList.setPrefHeight(250);
-	    flaggedQuestionList.setPrefWidth(500);
-	    flaggedQuestionList.setEditable(true);
-	    flaggedQuestionList.setItems(flaggedQuestionObservable);
+	    flaggedItemList.setPrefHeight(750);
+	    flaggedItemList.setPrefWidth(500);
 	    hiddenQuestionList.setPrefHeight(250);
 	    hiddenQuestionList.setPrefWidth(500);
 	    hiddenQuestionList.setEditable(true);
 	    hiddenQuestionList.setItems(hiddenQuestionObservable);
-	    flaggedAnswerList.setPrefHeight(250);
-	    flaggedAnswerList.setPrefWidth(500);
-	    flaggedAnswerList.setEditable(true);
-	    flaggedAnswerList.setItems(flaggedAnswerObservable);
 	    hiddenAnswerList.setPrefHeight(250);
 	    hiddenAnswerList.setPrefWidth(500);
 	    hiddenAnswerList.setEditable(true);
 	    hiddenAnswerList.setItems(hiddenAnswerObservable);
-	    flaggedReviewList.setPrefHeight(250);
-	    flaggedReviewList.setPrefWidth(500);
-	    flaggedReviewList.setEditable(true);
-	    flaggedReviewList.setItems(flaggedReviewObservable);
 	    hiddenReviewList.setPrefHeight(250);
 	    hiddenReviewList.setPrefWidth(500);
 	    hiddenReviewList.setEditable(true);
 	    hiddenReviewList.setItems(hiddenReviewObservable);
+	    claimedFlagList.setPrefHeight(250);
+	    claimedFlagList.setPrefWidth(400);
+	    claimedFlagList.setItems(claimedFlagObservable);
 	    
 	    // Set selection modes for all lists
 	    mutedUsersList.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
-	    flaggedQuestionList.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
+	    flaggedItemList.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
 	    hiddenQuestionList.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
-	    flaggedAnswerList.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
 	    hiddenAnswerList.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
-	    flaggedReviewList.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
 	    hiddenReviewList.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
+	    claimedFlagList.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
 	    
 	    
 	    // Create and style all labels
@@ -195,9 +201,10 @@ public class UserAndPostActivityLog {
 	    Label leftBoxLabel = new Label("Muted Users");
 	    Label centerBoxLabel = new Label("Flagged Posts");
 	    Label rightBoxLabel = new Label("Hidden Posts");
-	    Label innerQuestionLabel = new Label("Questions");
-	    Label innerAnswerLabel = new Label("Answers");
-	    Label innerReviewLabel = new Label("Reviews");
+	    Label queueBoxLabel = new Label("Moderation Queue");
+	    Label queueCountLabel = new Label("Waiting: ...");
+	    Runnable refreshQueueCount = () -> queueCountRequest.submit(databaseHelper::countOpenFlags, count -> queueCountLabel.setText("Waiting: " + count));
+	    refreshQueueCount.run();
 	    Label innerQuestionLabel2 = new Label("Questions");
 	    Label innerAnswerLabel2 = new Label("Answers");
 	    Label innerReviewLabel2 = new Label("Reviews");
@@ -205,9 +212,8 @@ public class UserAndPostActivityLog {
 	    leftBoxLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
 	    centerBoxLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
 	    rightBoxLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
-	    innerQuestionLabel.setStyle("-fx-font-size: 12px; -fx-font-weight: bold;");
-	    innerAnswerLabel.setStyle("-fx-font-size: 12px; -fx-font-weight: bold;");
-	    innerReviewLabel.setStyle("-fx-font-size: 12px; -fx-font-weight: bold;");
+	    queueBoxLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+	    queueCountLabel.setStyle("-fx-font-size: 12px;");
 	    innerQuestionLabel2.setStyle("-fx-font-size: 12px; -fx-font-weight: bold;");
 	    innerAnswerLabel2.setStyle("-fx-font-size: 12px; -fx-font-weight: bold;");
 	    innerReviewLabel2.setStyle("-fx-font-size: 12px; -fx-font-weight: bold;");
@@ -217,10 +223,16 @@ public class UserAndPostActivityLog {
 	    Button unflagButton = new Button("Unflag");
 	    Button unhideButton = new Button("Unhide");
 	    Button backButton = new Button("Back");
+	    Button claimButton = new Button("Claim Next");
+	    Button resolveButton = new Button("Resolve");
+	    Button releaseButton = new Button("Release");
 	    unmuteButton.setStyle("-fx-font-size: 12px; -fx-alignment: center;");
 	    unflagButton.setStyle("-fx-font-size: 12px; -fx-alignment: center;");
 	    unhideButton.setStyle("-fx-font-size: 12px; -fx-alignment: center;");
 	    backButton.setStyle("-fx-font-size: 12px; -fx-alignment: center;");
+	    claimButton.setStyle("-fx-font-size: 12px; -fx-alignment: center;");
+	    resolveButton.setStyle("-fx-font-size: 12px; -fx-alignment: center;");
+	    releaseButton.setStyle("-fx-font-size: 12px; -fx-alignment: center;");
 	    
 	    // Button to allow unmuting selected user
 	    unmuteButton.setOnAction(e -> {
@@ -234,23 +246,54 @@ public class UserAndPostActivityLog {
 	    	}
 	    	});
 	    
-	    // Button to allow unflagging a question, answer or review.
+	    // Button to allow unflagging the selected post or message.
 	    unflagButton.setOnAction(e -> {
-	    	Question selectedItem = flaggedQuestionList.getSelectionModel().getSelectedItem();
-	    	Answer selectedAnswer = flaggedAnswerList.getSelectionModel().getSelectedItem();
-	    	Review selectedReview = flaggedReviewList.getSelectionModel().getSelectedItem();
-	    	if(selectedItem != null) {
-	    		databaseHelper.clearQuestionFlag(selectedItem.getQuestionID());
-	    		flaggedQuestionObservable = FXCollections.observableArrayList(databaseHelper.getAllQuestionsFlagged(user));
-	    		flaggedQuestionList.setItems(flaggedQuestionObservable);
-	    	}else if(selectedAnswer != null){
-	    		databaseHelper.clearAnswerFlag(selectedAnswer.getAnswerID());
-	    		flaggedAnswerObservable = FXCollections.observableArrayList(databaseHelper.getAllAnswersFlagged(user));
-	    		flaggedAnswerList.setItems(flaggedAnswerObservable);
-	    	}else if(selectedReview != null) {
-	    		databaseHelper.clearReviewFlag(selectedReview.getReviewID());
-			    flaggedReviewObservable = FXCollections.observableArrayList(databaseHelper.getAllReviewsFlagged(user));
-			    flaggedReviewList.setItems(flaggedReviewObservable);
+	    	ModerationFlag selectedFlag = flaggedItemList.getSelectionModel().getSelectedItem();
+	    	if(selectedFlag != null && !queueActionRequest.isPending()) {
+	    		queueActionRequest.submit(() -> {
+	    			databaseHelper.clearFlaggedItem(selectedFlag);
+	    			return List.of(selectedFlag);
+	    		}, cleared -> {
+	    			claimedFlagObservable.removeIf(flag -> flag.getFlagID() == selectedFlag.getFlagID());
+	    			flaggedItemLoader.loadFirstPage();
+	    			refreshQueueCount.run();
+	    		});
+	    	}
+	    });
+	    
+	    // Button to claim the next queue entries nobody else is working on
+	    claimButton.setOnAction(e -> {
+	    	if(!queueActionRequest.isPending()) {
+	    		queueActionRequest.submit(() -> databaseHelper.claimFlags(user.getUserName(), QUEUE_CLAIM_SIZE, QUEUE_LEASE), claimed -> {
+	    			claimedFlagObservable.addAll(claimed);
+	    			refreshQueueCount.run();
+	    		});
+	    	}
+	    });
+	    
+	    // Button to resolve the selected queue entry, which also unflags its post or message
+	    resolveButton.setOnAction(e -> {
+	    	ModerationFlag selectedFlag = claimedFlagList.getSelectionModel().getSelectedItem();
+	    	if(selectedFlag != null && !queueActionRequest.isPending()) {
+	    		queueActionRequest.submit(() -> {
+	    			databaseHelper.resolveFlag(selectedFlag.getFlagID(), user.getUserName());
+	    			return List.of(selectedFlag);
+	    		}, resolved -> {
+	    			claimedFlagObservable.remove(selectedFlag);
+	    			flaggedItemLoader.loadFirstPage();
+	    			refreshQueueCount.run();
+	    		});
+	    	}
+	    });
+	    
+	    // Button to hand the selected queue entry back to other staff without resolving it
+	    releaseButton.setOnAction(e -> {
+	    	ModerationFlag selectedFlag = claimedFlagList.getSelectionModel().getSelectedItem();
+	    	if(selectedFlag != null && !queueActionRequest.isPending()) {
+	    		queueActionRequest.submit(() -> {
+	    			databaseHelper.releaseFlag(selectedFlag.getFlagID(), user.getUserName());
+	    			return List.of(selectedFlag);
+	    		}, released -> claimedFlagObservable.remove(selectedFlag));
 	    	}
 	    });
 	    
@@ -287,18 +330,22 @@ public class UserAndPostActivityLog {
 	    // If Instructor
 	    if(user.getRole()[3]) {
 	    	leftBox.getChildren().addAll(leftBoxLabel, mutedUsersList, unmuteButton);
-	    	centerBox.getChildren().addAll(centerBoxLabel, innerQuestionLabel, flaggedQuestionList, innerAnswerLabel, flaggedAnswerList, innerReviewLabel, flaggedReviewList, unflagButton);
+	    	centerBox.getChildren().addAll(centerBoxLabel, flaggedItemList, unflagButton);
 	    	rightBox.getChildren().addAll(rightBoxLabel, innerQuestionLabel2, hiddenQuestionList, innerAnswerLabel2, hiddenAnswerList, innerReviewLabel2, hiddenReviewList, unhideButton);
 	   // If staff
 	    }else {
 	    	leftBox.getChildren().addAll(leftBoxLabel, mutedUsersList);
-	    	centerBox.getChildren().addAll(centerBoxLabel, innerQuestionLabel, flaggedQuestionList, innerAnswerLabel, flaggedAnswerList, innerReviewLabel, flaggedReviewList);
+	    	centerBox.getChildren().addAll(centerBoxLabel, flaggedItemList);
 	    	rightBox.getChildren().addAll(rightBoxLabel, innerQuestionLabel2, hiddenQuestionList, innerAnswerLabel2, hiddenAnswerList, innerReviewLabel2, hiddenReviewList);
 	    }
 	    
-	    innerLayout.getChildren().addAll(leftBox, centerBox, rightBox);
+	    HBox queueButtons = new HBox(5, claimButton, resolveButton, releaseButton);
+	    queueButtons.setStyle("-fx-alignment: center");
+	    queueBox.getChildren().addAll(queueBoxLabel, queueCountLabel, claimedFlagList, queueButtons);
+	    
+	    innerLayout.getChildren().addAll(leftBox, centerBox, rightBox, queueBox);
 	    mainlayout.getChildren().addAll(pageLabel, innerLayout, backButton);
-	    Scene logScene = new Scene(mainlayout, 1200, 600);
+	    Scene logScene = new Scene(mainlayout, 1600, 600);
 
 	    // Set the scene to primary stage
 	    primaryStage.setScene(logScene);
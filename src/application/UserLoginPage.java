@@ -43,6 +43,9 @@ public class UserLoginPage {
      * @param passedUser				The logged in user's information
      */
     public void show(Stage primaryStage, User passedUser) {
+    	// Reached at startup and on logout, so whoever was logged in no longer is
+    	databaseHelper.closeSession();
+    	
     	VBox layout = new VBox(10);
         layout.setStyle("-fx-padding: 20; -fx-alignment: center;");
     	
@@ -95,6 +98,7 @@ public class UserLoginPage {
 	    			
 	    				user.setRole(role);
 	            		if (databaseHelper.login(user)) {
+	            			databaseHelper.openSession(userName);
 	        				//If user has only 1 role, send directly to welcome page
 	            			if (getRoleCount(role) > 1) {
 		                		new RoleSelectPage(databaseHelper).show(primaryStage, user);
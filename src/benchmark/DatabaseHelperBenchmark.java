@@ -0,0 +1,406 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import application.InboxMessage;
+import application.Role;
+import application.User;
+import databasePart1.DatabaseHelper;
+import server.Json;
+
+/**
+ * The DatabaseHelperBenchmark class measures the DatabaseHelper methods on the hottest paths of the application
+ * against in-memory H2 databases seeded with increasing numbers of rows. It follows the JMH approach: each benchmark
+ * runs for a number of timed warmup iterations which are thrown away, then for a number of timed measurement
+ * iterations, and every result is passed to a sink so the JIT cannot remove the work.
+ *
+ * Results are printed as a table and written as JSON in the layout JMH uses for -rf json, so existing JMH tooling can
+ * read them. Passing a previous results file with --baseline compares every score against it and exits with status 1
+ * if any benchmark is slower by more than --threshold percent.
+ *
+ * Usage: java benchmark.DatabaseHelperBenchmark [--rows 1000,10000,100000] [--warmup 3] [--iterations 5]
+ *        [--time-ms 1000] [--filter text] [--json results.json] [--baseline old.json] [--threshold 10]
+ */
+public class DatabaseHelperBenchmark {
+
+	/**
+	 * Number of distinct users the generated rows are spread across
+	 */
+	private static final int USERS = 1_000;
+
+	/**
+	 * Password of every generated user
+	 */
+	private static final String PASSWORD = "Password1!";
+
+	/**
+	 * Roles of every generated user, a student
+	 */
+	private static final boolean[] ROLES = {false, true, false, false, false};
+
+	/**
+	 * Receives every benchmark result so the work cannot be optimized away
+	 */
+	private static volatile long sink;
+
+	/**
+	 * One call to a DatabaseHelper method.
+	 */
+	@FunctionalInterface
+	private interface Operation {
+
+		/**
+		 * Runs the call once.
+		 *
+		 * @param random the source of IDs and userNames
+		 * @return the result of the call
+		 * @throws SQLException if the call fails
+		 */
+		Object run(Random random) throws SQLException;
+	}
+
+	/**
+	 * A named operation measured by the benchmark.
+	 */
+	private static class Benchmark {
+		final String name;
+		final Operation operation;
+
+		Benchmark(String name, Operation operation) {
+			this.name = name;
+			this.operation = operation;
+		}
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args the options described in the class comment
+	 * @throws Exception if the database cannot be seeded or the results cannot be written
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new LinkedHashMap<>();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			options.put(args[i], args[i + 1]);
+		}
+		int[] volumes = Arrays.stream(options.getOrDefault("--rows", "1000,10000,100000").split(",")).mapToInt(Integer::parseInt).toArray();
+		int warmup = Integer.parseInt(options.getOrDefault("--warmup", "3"));
+		int iterations = Integer.parseInt(options.getOrDefault("--iterations", "5"));
+		long iterationNanos = Long.parseLong(options.getOrDefault("--time-ms", "1000")) * 1_000_000L;
+		String filter = options.getOrDefault("--filter", "");
+		Path jsonFile = Path.of(options.getOrDefault("--json", "benchmark-results.json"));
+
+		List<Object> results = new ArrayList<>();
+		System.out.printf("%-48s %9s %14s %12s%n", "benchmark", "rows", "score (us/op)", "error");
+		for (int rows : volumes) {
+			String url = "jdbc:h2:mem:databaseHelperBenchmark" + rows + ";DB_CLOSE_DELAY=-1";
+			DatabaseHelper databaseHelper = new DatabaseHelper(url);
+			databaseHelper.connectToDatabase();
+			try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+				populate(conn, rows);
+				for (Benchmark benchmark : benchmarks(databaseHelper, rows)) {
+					if (!benchmark.name.contains(filter)) {
+						continue;
+					}
+					Random random = new Random(42);
+					for (int i = 0; i < warmup; i++) {
+						runIteration(benchmark.operation, random, iterationNanos);
+					}
+					double[] scores = new double[iterations];
+					for (int i = 0; i < iterations; i++) {
+						scores[i] = runIteration(benchmark.operation, random, iterationNanos);
+					}
+					Map<String, Object> result = result(benchmark.name, rows, warmup, iterations, iterationNanos, scores);
+					Map<?, ?> metric = (Map<?, ?>) result.get("primaryMetric");
+					System.out.printf("%-48s %,9d %14.1f %12.1f%n", benchmark.name, rows, metric.get("score"), metric.get("scoreError"));
+					results.add(result);
+				}
+			}
+			finally {
+				databaseHelper.closeConnection();
+				try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+					conn.createStatement().execute("DROP ALL OBJECTS");
+				}
+			}
+		}
+
+		Files.writeString(jsonFile, Json.write(results), StandardCharsets.UTF_8);
+		System.out.println("\nResults written to " + jsonFile.toAbsolutePath());
+
+		if (options.containsKey("--baseline")) {
+			double threshold = Double.parseDouble(options.getOrDefault("--threshold", "10"));
+			if (!compare(results, Path.of(options.get("--baseline")), threshold)) {
+				System.exit(1);
+			}
+		}
+	}
+
+	/**
+	 * Creates the benchmarks for a database with the specified number of rows per table.
+	 *
+	 * @param databaseHelper the DatabaseHelper connected to the seeded database
+	 * @param rows the number of rows per table, used to pick IDs
+	 * @return the benchmarks
+	 */
+	private static List<Benchmark> benchmarks(DatabaseHelper databaseHelper, int rows) {
+		return List.of(
+				new Benchmark("getAllQuestions", random -> databaseHelper.getAllQuestions(randomUser(random))),
+				new Benchmark("getAnswersByQuestionID", random -> databaseHelper.getAnswersByQuestionID(1 + random.nextInt(rows))),
+				new Benchmark("getOnlyAnswersReviewedByTrustedReviewers", random -> databaseHelper.getOnlyAnswersReviewedByTrustedReviewers(randomUser(random))),
+				new Benchmark("getUnreadPrivateMessageCount", random -> databaseHelper.getUnreadPrivateMessageCount(randomUser(random).getUserName())),
+				new Benchmark("getMessagesBySource", random -> databaseHelper.getMessagesBySource(InboxMessage.Source.STUDENT, false)),
+				new Benchmark("getStaffAndInstructorUsers", random -> databaseHelper.getStaffAndInstructorUsers(randomUser(random))),
+				new Benchmark("completeUsers", random -> databaseHelper.completeUsers("first" + random.nextInt(USERS / 10), EnumSet.of(Role.STUDENT), 20)),
+				new Benchmark("getUserInfoByName", random -> databaseHelper.getUserInfoByName("First" + random.nextInt(USERS) + " Last" + random.nextInt(USERS))),
+				// Leases of zero expire at once, so the same entries can be claimed again by the next call
+				new Benchmark("claimFlags", random -> databaseHelper.claimFlags("staff" + random.nextInt(10), 5, Duration.ZERO)),
+				new Benchmark("login", random -> databaseHelper.login(randomUser(random))));
+	}
+
+	/**
+	 * @param random the source of userNames
+	 * @return one of the generated users, with the password and roles needed to log in
+	 */
+	private static User randomUser(Random random) {
+		int n = random.nextInt(USERS);
+		return new User("user" + n, PASSWORD, ROLES, "user" + n + "@asu.edu", "First" + n, "Last" + n);
+	}
+
+	/**
+	 * Runs an operation repeatedly for the length of one iteration.
+	 *
+	 * @param operation the operation
+	 * @param random the source of IDs and userNames
+	 * @param iterationNanos the length of the iteration
+	 * @return the mean time of one call in microseconds
+	 * @throws SQLException if a call fails
+	 */
+	private static double runIteration(Operation operation, Random random, long iterationNanos) throws SQLException {
+		long start = System.nanoTime();
+		long deadline = start + iterationNanos;
+		long calls = 0;
+		long now;
+		do {
+			consume(operation.run(random));
+			calls++;
+			now = System.nanoTime();
+		} while (now < deadline);
+		return (now - start) / 1_000.0 / calls;
+	}
+
+	/**
+	 * Passes a result to the sink.
+	 *
+	 * @param result the result of a call
+	 */
+	private static void consume(Object result) {
+		if (result instanceof Collection) {
+			sink += ((Collection<?>) result).size();
+		}
+		else if (result instanceof Map) {
+			sink += ((Map<?, ?>) result).size();
+		}
+		else if (result instanceof Number) {
+			sink += ((Number) result).longValue();
+		}
+		else {
+			sink += System.identityHashCode(result);
+		}
+	}
+
+	/**
+	 * Builds the result of one benchmark in the layout of a JMH JSON result.
+	 *
+	 * @param name the benchmark name
+	 * @param rows the number of rows per table
+	 * @param warmup the number of warmup iterations
+	 * @param iterations the number of measurement iterations
+	 * @param iterationNanos the length of each iteration
+	 * @param scores the mean time of one call in each measurement iteration, in microseconds
+	 * @return the result
+	 */
+	private static Map<String, Object> result(String name, int rows, int warmup, int iterations, long iterationNanos, double[] scores) {
+		double mean = Arrays.stream(scores).average().orElse(0);
+		double variance = scores.length < 2 ? 0 : Arrays.stream(scores).map(s -> (s - mean) * (s - mean)).sum() / (scores.length - 1);
+		// 99.9% confidence interval, using the normal approximation instead of JMH's Student's t distribution
+		double error = 3.29 * Math.sqrt(variance / scores.length);
+
+		List<Object> rawData = new ArrayList<>();
+		for (double score : scores) {
+			rawData.add(score);
+		}
+		Map<String, Object> metric = new LinkedHashMap<>();
+		metric.put("score", mean);
+		metric.put("scoreError", error);
+		metric.put("scoreUnit", "us/op");
+		metric.put("rawData", List.of(rawData));
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("benchmark", "benchmark.DatabaseHelperBenchmark." + name);
+		result.put("mode", "avgt");
+		result.put("threads", 1);
+		result.put("forks", 0);
+		result.put("warmupIterations", warmup);
+		result.put("warmupTime", iterationNanos / 1_000_000 + " ms");
+		result.put("measurementIterations", iterations);
+		result.put("measurementTime", iterationNanos / 1_000_000 + " ms");
+		result.put("params", Map.of("rows", String.valueOf(rows)));
+		result.put("primaryMetric", metric);
+		return result;
+	}
+
+	/**
+	 * Compares the results with a previous results file and prints every benchmark which became slower.
+	 *
+	 * @param results the results of this run
+	 * @param baselineFile the previous results file
+	 * @param thresholdPercent how much slower a benchmark may be before it counts as a regression
+	 * @return true if there are no regressions
+	 * @throws IOException if the baseline cannot be read
+	 */
+	private static boolean compare(List<Object> results, Path baselineFile, double thresholdPercent) throws IOException {
+		Map<String, Double> baseline = new LinkedHashMap<>();
+		for (Object item : (List<?>) Json.parse(Files.readString(baselineFile, StandardCharsets.UTF_8))) {
+			baseline.put(key((Map<?, ?>) item), score((Map<?, ?>) item));
+		}
+		boolean ok = true;
+		System.out.printf("%nCompared with %s (threshold %.0f%%)%n", baselineFile, thresholdPercent);
+		for (Object item : results) {
+			String key = key((Map<?, ?>) item);
+			Double before = baseline.get(key);
+			if (before == null) {
+				continue;
+			}
+			double change = (score((Map<?, ?>) item) - before) / before * 100;
+			boolean regression = change > thresholdPercent;
+			ok &= !regression;
+			System.out.printf("%-60s %+8.1f%%%s%n", key, change, regression ? "  REGRESSION" : "");
+		}
+		return ok;
+	}
+
+	/**
+	 * @param result a result
+	 * @return the benchmark name and parameters, identifying the result across runs
+	 */
+	private static String key(Map<?, ?> result) {
+		return result.get("benchmark") + " " + result.get("params");
+	}
+
+	/**
+	 * @param result a result
+	 * @return the score of the result
+	 */
+	private static double score(Map<?, ?> result) {
+		return ((Number) ((Map<?, ?>) result.get("primaryMetric")).get("score")).doubleValue();
+	}
+
+	/**
+	 * Inserts the users and the specified number of questions, answers, reviews and private messages.
+	 *
+	 * @param conn the connection to the benchmark database
+	 * @param rows the number of rows per table
+	 * @throws SQLException if the rows cannot be inserted
+	 */
+	private static void populate(Connection conn, int rows) throws SQLException {
+		Random random = new Random(42);
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		conn.setAutoCommit(false);
+		try (PreparedStatement users = conn.prepareStatement("INSERT INTO cse360users (userName, password, firstName, lastName, email, role, isMuted) VALUES (?, ?, ?, ?, ?, ?, FALSE)");
+				PreparedStatement questions = conn.prepareStatement("INSERT INTO questions (studentUserName, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden) VALUES (?, ?, ?, ?, ?, FALSE, ?, ?, ?, FALSE)");
+				PreparedStatement answers = conn.prepareStatement("INSERT INTO answers (studentUserName, studentFirstName, studentLastName, questionID, answerText, isAnswerUnread, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden) VALUES (?, ?, ?, ?, ?, ?, FALSE, ?, FALSE, '', FALSE)");
+				PreparedStatement reviews = conn.prepareStatement("INSERT INTO reviews (reviewerUserName, reviewerFirstName, reviewerLastName, reviewBody, questionID, answerID, prevReviewID, isFlagged, reasonIsFlagged, isHidden) VALUES (?, ?, ?, ?, ?, ?, -1, FALSE, '', FALSE)");
+				PreparedStatement messages = conn.prepareStatement("INSERT INTO PrivateMessages (sender_user_name, receiver_user_name, subject, message_body, is_read, timestamp, isFlagged, reasonIsFlagged, questionID, reviewID) VALUES (?, ?, ?, ?, ?, ?, FALSE, '', -1, -1)");
+				PreparedStatement trusted = conn.prepareStatement("INSERT INTO trustedReviewers (studentUserName, reviewerUserName, weight) VALUES (?, ?, ?)")) {
+			for (int u = 0; u < USERS; u++) {
+				users.setString(1, "user" + u);
+				users.setString(2, PASSWORD);
+				users.setString(3, "First" + u);
+				users.setString(4, "Last" + u);
+				users.setString(5, "user" + u + "@asu.edu");
+				users.setString(6, Arrays.toString(ROLES));
+				users.addBatch();
+
+				// Every student trusts five reviewers
+				for (int t = 1; t <= 5; t++) {
+					trusted.setString(1, "user" + u);
+					trusted.setString(2, "user" + ((u + t * 97) % USERS));
+					trusted.setInt(3, t);
+					trusted.addBatch();
+				}
+			}
+			users.executeBatch();
+			trusted.executeBatch();
+
+			for (int i = 1; i <= rows; i++) {
+				int author = random.nextInt(USERS);
+				questions.setString(1, "user" + author);
+				questions.setString(2, "First" + author);
+				questions.setString(3, "Last" + author);
+				questions.setString(4, "Question " + i);
+				questions.setString(5, "Body of question " + i);
+				questions.setTimestamp(6, now);
+				// One question in twenty waits in the moderation queue
+				questions.setBoolean(7, i % 20 == 0);
+				questions.setString(8, i % 20 == 0 ? "Flagged " + i : "");
+				questions.addBatch();
+
+				author = random.nextInt(USERS);
+				answers.setString(1, "user" + author);
+				answers.setString(2, "First" + author);
+				answers.setString(3, "Last" + author);
+				answers.setInt(4, 1 + random.nextInt(rows));
+				answers.setString(5, "Answer " + i);
+				answers.setBoolean(6, random.nextBoolean());
+				answers.setTimestamp(7, now);
+				answers.addBatch();
+
+				author = random.nextInt(USERS);
+				reviews.setString(1, "user" + author);
+				reviews.setString(2, "First" + author);
+				reviews.setString(3, "Last" + author);
+				reviews.setString(4, "Review " + i);
+				reviews.setInt(5, 1 + random.nextInt(rows));
+				reviews.setInt(6, 1 + random.nextInt(rows));
+				reviews.addBatch();
+
+				messages.setString(1, "user" + random.nextInt(USERS));
+				messages.setString(2, "user" + random.nextInt(USERS));
+				messages.setString(3, "Subject " + i);
+				messages.setString(4, "Message " + i);
+				messages.setBoolean(5, random.nextBoolean());
+				messages.setTimestamp(6, now);
+				messages.addBatch();
+
+				if (i % 5_000 == 0 || i == rows) {
+					questions.executeBatch();
+					answers.executeBatch();
+					reviews.executeBatch();
+					messages.executeBatch();
+					conn.commit();
+				}
+			}
+		}
+		finally {
+			conn.setAutoCommit(true);
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import databasePart1.DatabaseHelper;
+import databasePart1.SchemaMigrator;
+
+/**
+ * The IndexBenchmark class measures the lookup queries used by DatabaseHelper before and after the indexes added by
+ * {@link SchemaMigrator} are created. It fills an in-memory H2 database with the application schema and a large
+ * number of rows, drops every migration index to simulate the old schema, times each query, runs the migrations
+ * and times the queries again.
+ *
+ * Usage: java benchmark.IndexBenchmark [rowsPerTable] [lookupsPerQuery]
+ */
+public class IndexBenchmark {
+
+	/**
+	 * Number of distinct users the generated rows are spread across
+	 */
+	private static final int USERS = 2_000;
+
+	/**
+	 * A lookup query timed by the benchmark, with a generator for its parameters.
+	 */
+	private static class Lookup {
+		final String name;
+		final String sql;
+		final int parameterCount;
+		final boolean userParameter;
+
+		Lookup(String name, String sql, int parameterCount, boolean userParameter) {
+			this.name = name;
+			this.sql = sql;
+			this.parameterCount = parameterCount;
+			this.userParameter = userParameter;
+		}
+	}
+
+	/**
+	 * The queries timed by the benchmark, copied from the DatabaseHelper methods that run them most often
+	 */
+	private static final List<Lookup> LOOKUPS = List.of(
+			new Lookup("answers by questionID", "SELECT * FROM answers WHERE questionID = ?", 1, false),
+			new Lookup("unread answers count", "SELECT COUNT(*) AS unreadCount FROM answers WHERE questionID = ? AND isAnswerUnread = TRUE", 1, false),
+			new Lookup("reviews by answerID", "SELECT * FROM reviews WHERE answerID = ?", 1, false),
+			new Lookup("questions by student", "SELECT * FROM questions WHERE studentUserName = ?", 1, true),
+			new Lookup("reviews by reviewer", "SELECT * FROM reviews WHERE reviewerUserName = ?", 1, true),
+			new Lookup("unread private messages", "SELECT COUNT(*) AS unread_count FROM PrivateMessages WHERE receiver_user_name = ? AND is_read = FALSE", 1, true),
+			new Lookup("trusted reviewers", "SELECT reviewerUserName, weight FROM trustedReviewers WHERE studentUserName = ?", 1, true));
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional number of rows per table and number of lookups per query
+	 * @throws SQLException if the database cannot be populated or queried
+	 */
+	public static void main(String[] args) throws SQLException {
+		int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		String url = "jdbc:h2:mem:indexBenchmark;DB_CLOSE_DELAY=-1";
+
+		DatabaseHelper databaseHelper = new DatabaseHelper(url);
+		databaseHelper.connectToDatabase();
+		try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+			System.out.printf("Populating %,d rows per table...%n", rows);
+			populate(conn, rows);
+			dropMigrationIndexes(conn);
+
+			System.out.printf("%nBefore migrations (%d lookups per query)%n", lookups);
+			double[] before = timeLookups(conn, rows, lookups);
+
+			long start = System.nanoTime();
+			new SchemaMigrator(conn).migrate();
+			System.out.printf("%nMigrations applied in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+			System.out.printf("%nAfter migrations (%d lookups per query)%n", lookups);
+			double[] after = timeLookups(conn, rows, lookups);
+
+			System.out.printf("%n%-26s %14s %14s %9s%n", "query", "before (us)", "after (us)", "speedup");
+			for (int i = 0; i < LOOKUPS.size(); i++) {
+				System.out.printf("%-26s %14.1f %14.1f %8.1fx%n", LOOKUPS.get(i).name, before[i], after[i], before[i] / after[i]);
+			}
+		}
+		finally {
+			databaseHelper.closeConnection();
+		}
+	}
+
+	/**
+	 * Inserts the specified number of rows into each of the tables used by the lookups.
+	 *
+	 * @param conn the connection to the benchmark database
+	 * @param rows the number of rows per table
+	 * @throws SQLException if the rows cannot be inserted
+	 */
+	private static void populate(Connection conn, int rows) throws SQLException {
+		Random random = new Random(42);
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		conn.setAutoCommit(false);
+		try (PreparedStatement questions = conn.prepareStatement("INSERT INTO questions (studentUserName, questionTitle, questionBody, creationTime) VALUES (?, ?, ?, ?)");
+				PreparedStatement answers = conn.prepareStatement("INSERT INTO answers (studentUserName, questionID, answerText, isAnswerUnread, creationTime) VALUES (?, ?, ?, ?, ?)");
+				PreparedStatement reviews = conn.prepareStatement("INSERT INTO reviews (questionID, answerID, reviewerUserName, reviewBody) VALUES (?, ?, ?, ?)");
+				PreparedStatement messages = conn.prepareStatement("INSERT INTO PrivateMessages (sender_user_name, receiver_user_name, questionID, message_body, is_read, timestamp) VALUES (?, ?, ?, ?, ?, ?)");
+				PreparedStatement trusted = conn.prepareStatement("INSERT INTO trustedReviewers (studentUserName, reviewerUserName, weight) VALUES (?, ?, ?)")) {
+			for (int i = 1; i <= rows; i++) {
+				questions.setString(1, "user" + random.nextInt(USERS));
+				questions.setString(2, "Question " + i);
+				questions.setString(3, "Body of question " + i);
+				questions.setTimestamp(4, now);
+				questions.addBatch();
+
+				answers.setString(1, "user" + random.nextInt(USERS));
+				answers.setInt(2, 1 + random.nextInt(rows));
+				answers.setString(3, "Answer " + i);
+				answers.setBoolean(4, random.nextBoolean());
+				answers.setTimestamp(5, now);
+				answers.addBatch();
+
+				reviews.setInt(1, 1 + random.nextInt(rows));
+				reviews.setInt(2, 1 + random.nextInt(rows));
+				reviews.setString(3, "user" + random.nextInt(USERS));
+				reviews.setString(4, "Review " + i);
+				reviews.addBatch();
+
+				messages.setString(1, "user" + random.nextInt(USERS));
+				messages.setString(2, "user" + random.nextInt(USERS));
+				messages.setInt(3, 1 + random.nextInt(rows));
+				messages.setString(4, "Message " + i);
+				messages.setBoolean(5, random.nextBoolean());
+				messages.setTimestamp(6, now);
+				messages.addBatch();
+
+				// Each pair is unique so the trusted reviewer migration has nothing to remove
+				trusted.setString(1, "user" + (i % USERS));
+				trusted.setString(2, "reviewer" + (i / USERS));
+				trusted.setInt(3, 1 + random.nextInt(10));
+				trusted.addBatch();
+
+				if (i % 5_000 == 0 || i == rows) {
+					questions.executeBatch();
+					answers.executeBatch();
+					reviews.executeBatch();
+					messages.executeBatch();
+					trusted.executeBatch();
+					conn.commit();
+				}
+			}
+		}
+		finally {
+			conn.setAutoCommit(true);
+		}
+	}
+
+	/**
+	 * Drops every index created by the migrations and forgets that they were applied, leaving only the primary keys
+	 * created by DatabaseHelper.createTables().
+	 *
+	 * @param conn the connection to the benchmark database
+	 * @throws SQLException if the indexes cannot be dropped
+	 */
+	private static void dropMigrationIndexes(Connection conn) throws SQLException {
+		List<String> indexes = new ArrayList<>();
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME LIKE 'IDX\\_%'")) {
+			while (rs.next()) {
+				indexes.add(rs.getString(1));
+			}
+		}
+		try (Statement stmt = conn.createStatement()) {
+			for (String index : indexes) {
+				stmt.execute("DROP INDEX IF EXISTS " + index);
+			}
+			stmt.execute("DELETE FROM schema_version");
+		}
+	}
+
+	/**
+	 * Times every lookup query.
+	 *
+	 * @param conn the connection to the benchmark database
+	 * @param rows the number of rows per table, used to pick IDs to look up
+	 * @param lookups the number of times each query is run
+	 * @return the mean time of each query in microseconds, in the order of LOOKUPS
+	 * @throws SQLException if a query fails
+	 */
+	private static double[] timeLookups(Connection conn, int rows, int lookups) throws SQLException {
+		double[] means = new double[LOOKUPS.size()];
+		for (int q = 0; q < LOOKUPS.size(); q++) {
+			Lookup lookup = LOOKUPS.get(q);
+			Random random = new Random(7);
+			try (PreparedStatement pstmt = conn.prepareStatement(lookup.sql)) {
+				// Warm up before measuring
+				runLookup(pstmt, lookup, random, rows, Math.max(1, lookups / 10));
+				long start = System.nanoTime();
+				long resultRows = runLookup(pstmt, lookup, random, rows, lookups);
+				means[q] = (System.nanoTime() - start) / 1_000.0 / lookups;
+				System.out.printf("  %-26s %10.1f us/query (%d result rows)%n", lookup.name, means[q], resultRows);
+			}
+		}
+		return means;
+	}
+
+	/**
+	 * Runs a lookup query repeatedly with random parameters.
+	 *
+	 * @param pstmt the prepared query
+	 * @param lookup the lookup being run
+	 * @param random the source of parameters
+	 * @param rows the number of rows per table
+	 * @param times the number of times to run the query
+	 * @return the total number of rows read, so the work cannot be optimized away
+	 * @throws SQLException if the query fails
+	 */
+	private static long runLookup(PreparedStatement pstmt, Lookup lookup, Random random, int rows, int times) throws SQLException {
+		long resultRows = 0;
+		for (int i = 0; i < times; i++) {
+			for (int p = 1; p <= lookup.parameterCount; p++) {
+				if (lookup.userParameter) {
+					pstmt.setString(p, "user" + random.nextInt(USERS));
+				}
+				else {
+					pstmt.setInt(p, 1 + random.nextInt(rows));
+				}
+			}
+			try (ResultSet rs = pstmt.executeQuery()) {
+				while (rs.next()) {
+					resultRows++;
+				}
+			}
+		}
+		return resultRows;
+	}
+}
@@ -0,0 +1,201 @@
+package benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.LatencyHistogram;
+import databasePart1.PoolConfig;
+import server.Json;
+import server.StudySyncServer;
+
+/**
+ * The LoadGenerator class drives a StudySyncServer with a number of concurrent clients for a fixed time and reports
+ * the throughput and latency percentiles of the requests. Each client loops over a mix of reads (a page of
+ * questions, one question, the answers to a question) and writes (a new question or answer), with the share of
+ * writes set on the command line.
+ *
+ * Without a server URL an embedded server is started on an in-memory database, seeded with one user and a few
+ * questions, so the benchmark can be run on its own.
+ *
+ * Usage: java benchmark.LoadGenerator [clients] [seconds] [writePercent] [serverUrl]
+ */
+public class LoadGenerator {
+
+	/**
+	 * userName of the user the generated questions and answers are posted as
+	 */
+	private static final String USER_NAME = "loadgen";
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional number of clients, duration in seconds, percentage of writes and server URL
+	 * @throws Exception if the embedded server cannot be started
+	 */
+	public static void main(String[] args) throws Exception {
+		int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int writePercent = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		String baseUrl = args.length > 3 ? args[3] : null;
+
+		DatabaseHelper databaseHelper = null;
+		StudySyncServer server = null;
+		if (baseUrl == null) {
+			databaseHelper = new DatabaseHelper("jdbc:h2:mem:loadGenerator;DB_CLOSE_DELAY=-1");
+			databaseHelper.connectToDatabase(new PoolConfig(2, StudySyncServer.DEFAULT_THREADS + 1));
+			databaseHelper.register(new User(USER_NAME, "Password1!", new boolean[] {false, true, false, false, false}, "loadgen@example.com", "Load", "Generator"));
+			server = new StudySyncServer(databaseHelper, 0, StudySyncServer.DEFAULT_THREADS);
+			server.start();
+			baseUrl = "http://localhost:" + server.getPort();
+		}
+
+		try {
+			HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(5)).build();
+			AtomicInteger highestQuestionID = new AtomicInteger();
+			for (int i = 0; i < 20; i++) {
+				post(client, baseUrl + "/api/questions", questionBody(i), highestQuestionID);
+			}
+
+			LatencyHistogram reads = new LatencyHistogram();
+			LatencyHistogram writes = new LatencyHistogram();
+			AtomicLong errors = new AtomicLong();
+			long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+			String url = baseUrl;
+
+			System.out.printf("Running %d clients for %d s with %d%% writes against %s%n", clients, seconds, writePercent, url);
+			List<Thread> threads = new ArrayList<>();
+			for (int c = 0; c < clients; c++) {
+				Thread thread = new Thread(() -> runClient(client, url, deadline, writePercent, highestQuestionID, reads, writes, errors), "load-client-" + c);
+				threads.add(thread);
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+
+			long total = reads.getSampleCount() + writes.getSampleCount();
+			System.out.printf("%nRequests: %,d (%,d errors), throughput %.0f requests/s%n", total, errors.get(), total / (double) seconds);
+			System.out.printf("%-8s %10s %10s %10s %10s %10s%n", "", "count", "p50 (us)", "p95 (us)", "p99 (us)", "max (us)");
+			report("reads", reads);
+			report("writes", writes);
+		}
+		finally {
+			if (server != null) {
+				server.close();
+				databaseHelper.closeConnection();
+			}
+		}
+	}
+
+	/**
+	 * Sends requests from one client until the deadline.
+	 *
+	 * @param client the HTTP client
+	 * @param baseUrl the URL of the server
+	 * @param deadline the System.nanoTime() at which to stop
+	 * @param writePercent the percentage of requests which are writes
+	 * @param highestQuestionID the highest questionID created so far, used to pick questions to read and answer
+	 * @param reads latency of the reads
+	 * @param writes latency of the writes
+	 * @param errors number of failed requests
+	 */
+	private static void runClient(HttpClient client, String baseUrl, long deadline, int writePercent, AtomicInteger highestQuestionID,
+			LatencyHistogram reads, LatencyHistogram writes, AtomicLong errors) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (System.nanoTime() < deadline) {
+			int questionID = 1 + random.nextInt(Math.max(1, highestQuestionID.get()));
+			boolean write = random.nextInt(100) < writePercent;
+			long start = System.nanoTime();
+			boolean ok;
+			if (write) {
+				ok = random.nextBoolean()
+						? post(client, baseUrl + "/api/questions", questionBody(random.nextInt()), highestQuestionID)
+						: post(client, baseUrl + "/api/questions/" + questionID + "/answers", "{\"userName\":\"" + USER_NAME + "\",\"text\":\"Generated answer\"}", null);
+			}
+			else {
+				switch (random.nextInt(3)) {
+					case 0: ok = get(client, baseUrl + "/api/questions?limit=20"); break;
+					case 1: ok = get(client, baseUrl + "/api/questions/" + questionID); break;
+					default: ok = get(client, baseUrl + "/api/questions/" + questionID + "/answers"); break;
+				}
+			}
+			(write ? writes : reads).record(System.nanoTime() - start);
+			if (!ok) {
+				errors.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Sends a GET request.
+	 *
+	 * @param client the HTTP client
+	 * @param url the URL
+	 * @return true if the server answered with a 2xx status, or 404 for a question which has since been deleted
+	 */
+	private static boolean get(HttpClient client, String url) {
+		try {
+			int status = client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString()).statusCode();
+			return status / 100 == 2 || status == 404;
+		}
+		catch (Exception e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Sends a POST request with a JSON body.
+	 *
+	 * @param client the HTTP client
+	 * @param url the URL
+	 * @param json the body
+	 * @param highestQuestionID updated with the questionID in the response, or null if the response has none
+	 * @return true if the server answered with a 2xx status
+	 */
+	private static boolean post(HttpClient client, String url, String json, AtomicInteger highestQuestionID) {
+		try {
+			HttpRequest request = HttpRequest.newBuilder(URI.create(url)).header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(json)).build();
+			HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+			if (highestQuestionID != null && response.statusCode() == 201) {
+				Object id = Json.parseObject(response.body()).get("questionID");
+				if (id instanceof Number) {
+					highestQuestionID.accumulateAndGet(((Number) id).intValue(), Math::max);
+				}
+			}
+			return response.statusCode() / 100 == 2;
+		}
+		catch (Exception e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @param n a number which makes the question distinct
+	 * @return the JSON body of a new question
+	 */
+	private static String questionBody(int n) {
+		return "{\"userName\":\"" + USER_NAME + "\",\"title\":\"Generated question " + n + "\",\"body\":\"Body of generated question " + n + "\"}";
+	}
+
+	/**
+	 * Prints one line of the latency table.
+	 *
+	 * @param name the name of the line
+	 * @param histogram the latencies
+	 */
+	private static void report(String name, LatencyHistogram histogram) {
+		System.out.printf("%-8s %,10d %10d %10d %10d %10d%n", name, histogram.getSampleCount(), histogram.getPercentileMicros(50),
+				histogram.getPercentileMicros(95), histogram.getPercentileMicros(99), histogram.getMaxMicros());
+	}
+}
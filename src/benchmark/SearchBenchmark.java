@@ -0,0 +1,259 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import databasePart1.ChangeEvent;
+import databasePart1.SearchIndex;
+
+/**
+ * The SearchBenchmark class compares keyword search over question titles, bodies and author names in three ways: the
+ * linear scan the question lists used before, which lower-cases every post and checks whether it contains the
+ * keyword; the prefix search of {@link SearchIndex}; and its trigram fuzzy search, given misspelled keywords. It
+ * generates the posts in memory, so no database is needed. As in real text, word frequencies follow Zipf's law over a
+ * vocabulary of common words, course terms spread through the ranks and made-up words filling the long tail.
+ *
+ * For each way it prints the mean time per query and the mean number of posts found. A misspelled keyword only
+ * finds the few posts which happen to contain the misspelling with the linear scan, while the fuzzy search returns
+ * the best matches for the intended word.
+ *
+ * Usage: java benchmark.SearchBenchmark [posts] [queries] [fuzzyLimit]
+ */
+public class SearchBenchmark {
+
+	private static final String[] TERMS = {
+			"algorithm", "array", "binary", "boolean", "class", "compiler", "constructor", "database", "debugging",
+			"exception", "function", "generic", "graph", "hashmap", "inheritance", "interface", "iterator", "javafx",
+			"lambda", "linked", "list", "loop", "matrix", "method", "object", "parameter", "pointer", "polymorphism",
+			"queue", "recursion", "reference", "scanner", "sorting", "stack", "static", "string", "syntax", "thread",
+			"traversal", "tree", "variable", "vector"};
+
+	private static final String[] FILLER = {
+			"how", "why", "does", "my", "the", "a", "not", "work", "when", "with", "in", "for", "is", "help", "error",
+			"question", "assignment", "homework", "example", "problem"};
+
+	private static final String[] FIRST_NAMES = {
+			"Aiden", "Beatriz", "Chen", "Dmitri", "Emily", "Fatima", "Gabriel", "Hannah", "Ibrahim", "Julia", "Kenji",
+			"Lucia", "Mateo", "Nadia", "Oliver", "Priya", "Quentin", "Rosa", "Samuel", "Tatiana"};
+
+	private static final String[] LAST_NAMES = {
+			"Anderson", "Brown", "Castillo", "Davis", "Eriksson", "Fernandez", "Garcia", "Hernandez", "Ivanova", "Johnson",
+			"Kowalski", "Lopez", "Martinez", "Nguyen", "Okafor", "Patel", "Rodriguez", "Schneider", "Thompson", "Williams"};
+
+	private static final String[] SYLLABLES = {"ba", "ko", "ri", "tu", "me", "sa", "lo", "ne", "vi", "da", "ge", "pu", "zor", "fen", "mil", "tas"};
+
+	/**
+	 * Number of distinct words in the generated posts, apart from author names
+	 */
+	private static final int VOCABULARY = 10_000;
+
+	/**
+	 * A course term is placed at every this many ranks of the vocabulary
+	 */
+	private static final int TERM_SPACING = 40;
+
+	private static final Set<ChangeEvent.Entity> QUESTIONS = EnumSet.of(ChangeEvent.Entity.QUESTION);
+
+	/**
+	 * Receives every result so the work cannot be optimized away
+	 */
+	private static volatile long sink;
+
+	/**
+	 * A generated question.
+	 */
+	private static class Post {
+		final String title;
+		final String body;
+		final String firstName;
+		final String lastName;
+
+		Post(String title, String body, String firstName, String lastName) {
+			this.title = title;
+			this.body = body;
+			this.firstName = firstName;
+			this.lastName = lastName;
+		}
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args optional number of posts, number of queries per way and most posts returned by a fuzzy search
+	 */
+	public static void main(String[] args) {
+		int postCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		int fuzzyLimit = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+		Random random = new Random(42);
+		List<String> vocabulary = vocabulary(random);
+		double[] cumulative = zipf(vocabulary.size());
+		List<Post> posts = new ArrayList<>(postCount);
+		for (int i = 0; i < postCount; i++) {
+			posts.add(new Post(sentence(random, vocabulary, cumulative, 6), sentence(random, vocabulary, cumulative, 30), pick(random, FIRST_NAMES),
+					pick(random, LAST_NAMES)));
+		}
+
+		long start = System.nanoTime();
+		SearchIndex index = new SearchIndex();
+		for (int i = 0; i < postCount; i++) {
+			Post post = posts.get(i);
+			index.put(ChangeEvent.Entity.QUESTION, i + 1, i + 1, post.title, post.body, post.firstName, post.lastName);
+		}
+		System.out.printf("Indexed %,d posts in %.1f ms%n", postCount, (System.nanoTime() - start) / 1e6);
+
+		List<String> keywords = new ArrayList<>();
+		List<String> misspelled = new ArrayList<>();
+		for (int i = 0; i < queryCount; i++) {
+			String keyword = random.nextInt(4) == 0 ? pick(random, LAST_NAMES) : pick(random, TERMS);
+			keywords.add(keyword);
+			misspelled.add(misspell(keyword, random));
+		}
+
+		System.out.printf("%n%-34s %14s %14s%n", "search (" + queryCount + " queries)", "mean (us)", "mean hits");
+		time("linear scan", keywords, keyword -> linearScan(posts, keyword));
+		time("linear scan, misspelled", misspelled, keyword -> linearScan(posts, keyword));
+		time("index prefix search", keywords, keyword -> index.search(keyword, QUESTIONS).size());
+		time("index prefix search, misspelled", misspelled, keyword -> index.search(keyword, QUESTIONS).size());
+		time("index fuzzy top " + fuzzyLimit + ", misspelled", misspelled, keyword -> index.fuzzySearch(keyword, QUESTIONS, fuzzyLimit).size());
+	}
+
+	/**
+	 * Times one way of searching, after running it once over every query to warm up.
+	 *
+	 * @param name the name printed for the way of searching
+	 * @param queries the queries to run
+	 * @param search runs one query and returns the number of posts found
+	 */
+	private static void time(String name, List<String> queries, Function<String, Integer> search) {
+		for (String query : queries) {
+			sink += search.apply(query);
+		}
+		long hits = 0;
+		long start = System.nanoTime();
+		for (String query : queries) {
+			hits += search.apply(query);
+		}
+		double micros = (System.nanoTime() - start) / 1_000.0 / queries.size();
+		sink += hits;
+		System.out.printf("%-34s %14.1f %14.1f%n", name, micros, (double) hits / queries.size());
+	}
+
+	/**
+	 * Counts the posts containing a keyword the way the question lists filtered before the SearchIndex.
+	 *
+	 * @param posts the posts
+	 * @param keyword the keyword
+	 * @return the number of matching posts
+	 */
+	private static int linearScan(List<Post> posts, String keyword) {
+		String lowerCaseKeyword = keyword.toLowerCase(Locale.ROOT);
+		int matches = 0;
+		for (Post post : posts) {
+			if (post.title.toLowerCase(Locale.ROOT).contains(lowerCaseKeyword) || post.body.toLowerCase(Locale.ROOT).contains(lowerCaseKeyword)
+					|| post.firstName.toLowerCase(Locale.ROOT).contains(lowerCaseKeyword) || post.lastName.toLowerCase(Locale.ROOT).contains(lowerCaseKeyword)) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Builds the vocabulary from the most to the least frequent word: the filler words, then made-up words with a
+	 * course term every TERM_SPACING ranks.
+	 *
+	 * @param random the source of made-up words
+	 * @return the distinct words in order of rank
+	 */
+	private static List<String> vocabulary(Random random) {
+		Set<String> words = new LinkedHashSet<>(List.of(FILLER));
+		int term = 0;
+		while (words.size() < VOCABULARY) {
+			if (words.size() % TERM_SPACING == 0 && term < TERMS.length) {
+				words.add(TERMS[term++]);
+				continue;
+			}
+			StringBuilder word = new StringBuilder();
+			for (int syllables = 2 + random.nextInt(3); syllables > 0; syllables--) {
+				word.append(pick(random, SYLLABLES));
+			}
+			words.add(word.toString());
+		}
+		return new ArrayList<>(words);
+	}
+
+	/**
+	 * Computes the cumulative probabilities of a Zipf distribution, where the word of rank r is used in proportion to
+	 * 1 / r.
+	 *
+	 * @param size the number of words
+	 * @return the probability of picking a word of each rank or a more frequent one
+	 */
+	private static double[] zipf(int size) {
+		double[] cumulative = new double[size];
+		double sum = 0;
+		for (int rank = 0; rank < size; rank++) {
+			sum += 1.0 / (rank + 1);
+			cumulative[rank] = sum;
+		}
+		for (int rank = 0; rank < size; rank++) {
+			cumulative[rank] /= sum;
+		}
+		return cumulative;
+	}
+
+	/**
+	 * Builds a sentence of words picked by their Zipf frequency.
+	 *
+	 * @param random the source of words
+	 * @param vocabulary the words in order of rank
+	 * @param cumulative the cumulative probabilities of the ranks
+	 * @param words the number of words
+	 * @return the sentence
+	 */
+	private static String sentence(Random random, List<String> vocabulary, double[] cumulative, int words) {
+		StringBuilder sentence = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			if (i > 0) {
+				sentence.append(' ');
+			}
+			int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+			sentence.append(vocabulary.get(rank >= 0 ? rank : Math.min(-rank - 1, cumulative.length - 1)));
+		}
+		return sentence.toString();
+	}
+
+	/**
+	 * Makes a typical typo in a word by dropping, doubling or swapping a letter after the first two.
+	 *
+	 * @param word the correctly spelled word
+	 * @param random the source of typos
+	 * @return the misspelled word
+	 */
+	private static String misspell(String word, Random random) {
+		int i = 2 + random.nextInt(word.length() - 3);
+		switch (random.nextInt(3)) {
+			case 0:
+				return word.substring(0, i) + word.substring(i + 1);
+			case 1:
+				return word.substring(0, i) + word.charAt(i) + word.substring(i);
+			default:
+				return word.substring(0, i) + word.charAt(i + 1) + word.charAt(i) + word.substring(i + 2);
+		}
+	}
+
+	/**
+	 * @return a random element of words
+	 */
+	private static String pick(Random random, String[] words) {
+		return words[random.nextInt(words.length)];
+	}
+}
@@ -0,0 +1,139 @@
+package databasePart1;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The AsyncDatabase class runs DatabaseHelper work on a small, bounded pool of worker threads and returns a
+ * CompletableFuture for the result, so the JavaFX Application Thread can start a query and carry on drawing frames
+ * instead of waiting for JDBC.
+ *
+ * Each piece of work runs inside {@link DatabaseHelper#withPooledConnection(DatabaseHelper.SqlWork)}, so it has a
+ * pooled connection of its own for as long as it runs. The number of worker threads is kept below the pool size so
+ * that workers never queue for a connection behind each other, and at most {@code queueCapacity} requests may wait
+ * for a worker; further requests fail with a RejectedExecutionException instead of piling up.
+ *
+ * Cancelling a returned future removes the work from the queue if it has not started. Work which is already running
+ * is left to finish, because interrupting a thread in the middle of a JDBC call can close the database file, and its
+ * result is simply dropped.
+ */
+public class AsyncDatabase implements AutoCloseable {
+
+	/**
+	 * Default number of requests which may wait for a worker thread
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+	/**
+	 * DatabaseHelper whose methods are run by the work
+	 */
+	private final DatabaseHelper databaseHelper;
+
+	/**
+	 * Bounded pool of worker threads
+	 */
+	private final ThreadPoolExecutor executor;
+
+	private final AtomicLong submitted = new AtomicLong();
+	private final AtomicLong cancelledBeforeStart = new AtomicLong();
+
+	/**
+	 * Constructs an AsyncDatabase.
+	 *
+	 * @param databaseHelper the connected DatabaseHelper whose methods are run by the work
+	 * @param threads the number of worker threads, at least 1
+	 * @param queueCapacity the number of requests which may wait for a worker thread, at least 1
+	 */
+	public AsyncDatabase(DatabaseHelper databaseHelper, int threads, int queueCapacity) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be at least 1");
+		}
+		if (queueCapacity < 1) {
+			throw new IllegalArgumentException("queueCapacity must be at least 1");
+		}
+		this.databaseHelper = databaseHelper;
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+			Thread thread = new Thread(runnable, "db-async-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Runs the work on a worker thread with its own pooled connection.
+	 *
+	 * @param <T> the type of the result of the work
+	 * @param work the database work to run
+	 * @return a future completed with the result of the work, or exceptionally with the SQLException it threw or a
+	 *         RejectedExecutionException if the queue is full or this AsyncDatabase has been closed
+	 */
+	public <T> CompletableFuture<T> submit(DatabaseHelper.SqlWork<T> work) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		Runnable task = () -> {
+			if (result.isDone()) {
+				return;
+			}
+			try {
+				result.complete(databaseHelper.withPooledConnection(work));
+			}
+			catch (Throwable t) {
+				result.completeExceptionally(t);
+			}
+		};
+		result.whenComplete((value, error) -> {
+			if (result.isCancelled() && executor.remove(task)) {
+				cancelledBeforeStart.incrementAndGet();
+			}
+		});
+		try {
+			executor.execute(task);
+			submitted.incrementAndGet();
+		}
+		catch (RejectedExecutionException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of requests accepted by submit()
+	 */
+	public long getSubmittedCount() {
+		return submitted.get();
+	}
+
+	/**
+	 * @return the number of requests which were cancelled while still waiting for a worker thread, and never ran
+	 */
+	public long getCancelledBeforeStartCount() {
+		return cancelledBeforeStart.get();
+	}
+
+	/**
+	 * @return the number of requests waiting for a worker thread
+	 */
+	public int getQueuedCount() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * Stops accepting work and waits briefly for running work to finish.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
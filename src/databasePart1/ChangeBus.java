@@ -0,0 +1,100 @@
+package databasePart1;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * The ChangeBus class is an in-process publish/subscribe channel for {@link ChangeEvent}s. DatabaseHelper publishes
+ * an event after every change it writes to the questions, replies, answers, reviews and private message tables, and
+ * after a user is muted, unmuted, given new roles or deleted. Views subscribe to the entities they display.
+ *
+ * Listeners are called synchronously on the thread which made the change, in the order they subscribed, and must not
+ * block. A JavaFX view should hand the event to the JavaFX Application Thread with Platform.runLater before touching
+ * its ObservableLists. An exception thrown by one listener is printed and does not stop the others.
+ */
+public class ChangeBus {
+
+	/**
+	 * A registered listener together with the entities it wants to hear about
+	 */
+	private static class Listener {
+		final Set<ChangeEvent.Entity> entities;
+		final Consumer<ChangeEvent> consumer;
+
+		Listener(Set<ChangeEvent.Entity> entities, Consumer<ChangeEvent> consumer) {
+			this.entities = entities;
+			this.consumer = consumer;
+		}
+	}
+
+	/**
+	 * A subscription returned by subscribe(), closing it removes the listener.
+	 */
+	@FunctionalInterface
+	public interface Subscription extends AutoCloseable {
+
+		/**
+		 * Removes the listener from the bus.
+		 */
+		@Override
+		void close();
+	}
+
+	private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Constructs a ChangeBus with no listeners. DatabaseHelper owns the bus its views subscribe to.
+	 */
+	ChangeBus() {
+	}
+
+	/**
+	 * Subscribes to every change.
+	 *
+	 * @param consumer receives the events
+	 * @return the subscription, close it when the view is no longer shown
+	 */
+	public Subscription subscribe(Consumer<ChangeEvent> consumer) {
+		return subscribe(EnumSet.allOf(ChangeEvent.Entity.class), consumer);
+	}
+
+	/**
+	 * Subscribes to the changes of one or more entities.
+	 *
+	 * @param entities the entities to hear about
+	 * @param consumer receives the events
+	 * @return the subscription, close it when the view is no longer shown
+	 */
+	public Subscription subscribe(Set<ChangeEvent.Entity> entities, Consumer<ChangeEvent> consumer) {
+		Listener listener = new Listener(EnumSet.copyOf(entities), consumer);
+		listeners.add(listener);
+		return () -> listeners.remove(listener);
+	}
+
+	/**
+	 * Delivers an event to every listener subscribed to its entity.
+	 *
+	 * @param event the event
+	 */
+	public void publish(ChangeEvent event) {
+		for (Listener listener : listeners) {
+			if (listener.entities.contains(event.getEntity())) {
+				try {
+					listener.consumer.accept(event);
+				}
+				catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of registered listeners
+	 */
+	public int getListenerCount() {
+		return listeners.size();
+	}
+}
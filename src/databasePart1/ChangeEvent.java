@@ -0,0 +1,84 @@
+package databasePart1;
+
+/**
+ * The ChangeEvent class describes one change made through DatabaseHelper, such as an answer being added, a review
+ * being hidden or a private message being marked as read. Events are published on the {@link ChangeBus} after the
+ * change has been written, so an open view can add, replace or remove the affected row instead of reloading the
+ * whole table.
+ *
+ * Changes which touch many rows at once, such as hiding every post of a muted user, carry an id of
+ * {@link #ALL_ROWS}; a view should reload the affected list when it receives one.
+ */
+public class ChangeEvent {
+
+	/**
+	 * Id used when the change affected several rows or the id of the row is not known
+	 */
+	public static final int ALL_ROWS = -1;
+
+	/**
+	 * The kind of row which changed, one value per table
+	 */
+	public enum Entity {
+		QUESTION,
+		REPLY,
+		ANSWER,
+		REVIEW,
+		STUDENT_MESSAGE,
+		REVIEWER_MESSAGE,
+		STAFF_MESSAGE,
+		INSTRUCTOR_MESSAGE,
+		USER
+	}
+
+	/**
+	 * What happened to the row
+	 */
+	public enum Kind {
+		ADDED,
+		UPDATED,
+		DELETED
+	}
+
+	private final Entity entity;
+	private final Kind kind;
+	private final int id;
+
+	/**
+	 * Constructs a ChangeEvent.
+	 *
+	 * @param entity the kind of row which changed
+	 * @param kind what happened to the row
+	 * @param id the primary key of the row, or ALL_ROWS
+	 */
+	public ChangeEvent(Entity entity, Kind kind, int id) {
+		this.entity = entity;
+		this.kind = kind;
+		this.id = id;
+	}
+
+	/**
+	 * @return the kind of row which changed
+	 */
+	public Entity getEntity() { return entity; }
+
+	/**
+	 * @return what happened to the row
+	 */
+	public Kind getKind() { return kind; }
+
+	/**
+	 * @return the primary key of the row, or ALL_ROWS
+	 */
+	public int getId() { return id; }
+
+	/**
+	 * @return true if the change affected several rows, or a row whose id is not known
+	 */
+	public boolean affectsAllRows() { return id == ALL_ROWS; }
+
+	@Override
+	public String toString() {
+		return entity + " " + kind + " " + (affectsAllRows() ? "*" : String.valueOf(id));
+	}
+}
@@ -0,0 +1,423 @@
+package databasePart1;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The ConnectionPool class keeps a bounded set of JDBC connections open to the database so that several views and
+ * worker threads can run queries at the same time instead of taking turns on a single shared connection.
+ *
+ * Connections are handed out by {@link #borrow()} and given back by calling close() on the returned connection, which
+ * makes the pool usable with try-with-resources. Every connection is validated before it is handed out, idle
+ * connections above the minimum size are closed after the configured idle timeout, and connections that stay
+ * borrowed longer than the leak threshold are reported together with the stack trace of the code that borrowed them.
+ * Each physical connection also keeps a {@link StatementCache}, so prepareStatement(sql) on a borrowed connection
+ * reuses a statement prepared earlier for the same SQL text instead of asking the database to parse it again.
+ * A snapshot of the pool counters can be taken at any time with {@link #getMetrics()}.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+	/**
+	 * JDBC URL used to open physical connections
+	 */
+	private final String url;
+
+	/**
+	 * Database UserName credentials
+	 */
+	private final String user;
+
+	/**
+	 * Database Password credentials
+	 */
+	private final String password;
+
+	/**
+	 * Pool settings
+	 */
+	private final PoolConfig config;
+
+	/**
+	 * One permit per connection that may be open at the same time
+	 */
+	private final Semaphore permits;
+
+	/**
+	 * Connections not currently borrowed, most recently used first
+	 */
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+	/**
+	 * Connections currently borrowed
+	 */
+	private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Background task which evicts idle connections, tops the pool up to its minimum size and looks for leaks
+	 */
+	private final ScheduledExecutorService maintenance;
+
+	/**
+	 * Set once the pool has been closed
+	 */
+	private volatile boolean closed = false;
+
+	private final AtomicInteger waiting = new AtomicInteger();
+	private final AtomicLong totalBorrows = new AtomicLong();
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+	private final AtomicLong timeouts = new AtomicLong();
+	private final AtomicLong leaksDetected = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong statementCacheHits = new AtomicLong();
+	private final AtomicLong statementCacheMisses = new AtomicLong();
+	private final AtomicLong statementCacheEvictions = new AtomicLong();
+	private final LatencyHistogram borrowLatency = new LatencyHistogram();
+
+	/**
+	 * Creates a pool and opens the configured minimum number of connections.
+	 *
+	 * @param url the JDBC URL of the database
+	 * @param user the database UserName credentials
+	 * @param password the database Password credentials
+	 * @param config the pool settings
+	 * @throws SQLException if the initial connections cannot be opened
+	 */
+	public ConnectionPool(String url, String user, String password, PoolConfig config) throws SQLException {
+		if (config.getMinSize() > config.getMaxSize()) {
+			throw new IllegalArgumentException("minSize " + config.getMinSize() + " is larger than maxSize " + config.getMaxSize());
+		}
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.config = config;
+		this.permits = new Semaphore(config.getMaxSize(), true);
+
+		for (int i = 0; i < config.getMinSize(); i++) {
+			idle.offerLast(open());
+		}
+
+		maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "db-pool-maintenance");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = config.getMaintenanceIntervalMillis();
+		maintenance.scheduleWithFixedDelay(this::runMaintenance, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Borrows a connection from the pool, waiting up to the configured borrow timeout if all connections are in use.
+	 * The connection is returned to the pool when close() is called on it.
+	 *
+	 * @return a validated connection
+	 * @throws SQLException if the pool is closed, no connection became free in time or a new connection cannot be opened
+	 */
+	public Connection borrow() throws SQLException {
+		return borrow(false);
+	}
+
+	/**
+	 * Borrows a connection which is expected to be held for the lifetime of its owner, such as the connection used by
+	 * the JavaFX Application Thread. Pinned connections count against the pool size but are never reported as leaks.
+	 *
+	 * @return a validated connection
+	 * @throws SQLException if the pool is closed, no connection became free in time or a new connection cannot be opened
+	 */
+	public Connection borrowPinned() throws SQLException {
+		return borrow(true);
+	}
+
+	/**
+	 * Shared implementation of borrow() and borrowPinned().
+	 *
+	 * @param pinned whether the connection is exempt from leak detection
+	 * @return a validated connection
+	 * @throws SQLException if no connection could be handed out
+	 */
+	private Connection borrow(boolean pinned) throws SQLException {
+		if (closed) {
+			throw new SQLException("Connection pool is closed");
+		}
+		long start = System.nanoTime();
+		boolean acquired;
+		waiting.incrementAndGet();
+		try {
+			acquired = permits.tryAcquire(config.getBorrowTimeoutMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a database connection", e);
+		}
+		finally {
+			waiting.decrementAndGet();
+		}
+		if (!acquired) {
+			timeouts.incrementAndGet();
+			throw new SQLTimeoutException("Timed out after " + config.getBorrowTimeoutMillis() + " ms waiting for a database connection (" + getMetrics() + ")");
+		}
+		long waitNanos = System.nanoTime() - start;
+
+		try {
+			PooledConnection pooled = takeValidIdleConnection();
+			if (pooled == null) {
+				pooled = open();
+			}
+			pooled.pinned = pinned;
+			pooled.leakReported = false;
+			pooled.borrowedAtMillis = System.currentTimeMillis();
+			pooled.borrowedBy = new Exception("Connection borrowed by thread " + Thread.currentThread().getName());
+			borrowed.add(pooled);
+
+			totalBorrows.incrementAndGet();
+			totalWaitNanos.addAndGet(waitNanos);
+			maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+			borrowLatency.record(System.nanoTime() - start);
+			return createLease(pooled);
+		}
+		catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Takes idle connections off the pool until one passes validation. Connections that fail validation are closed.
+	 *
+	 * @return a valid idle connection, or null if the pool has no idle connections left
+	 */
+	private PooledConnection takeValidIdleConnection() {
+		PooledConnection pooled;
+		while ((pooled = idle.pollFirst()) != null) {
+			try {
+				if (!pooled.physical.isClosed() && pooled.physical.isValid(config.getValidationTimeoutSeconds())) {
+					return pooled;
+				}
+			}
+			catch (SQLException e) {
+				e.printStackTrace();
+			}
+			evictions.incrementAndGet();
+			closePhysical(pooled);
+		}
+		return null;
+	}
+
+	/**
+	 * Opens a new physical connection.
+	 *
+	 * @return the new pooled connection
+	 * @throws SQLException if the connection cannot be opened
+	 */
+	private PooledConnection open() throws SQLException {
+		return new PooledConnection(DriverManager.getConnection(url, user, password),
+				new StatementCache(config.getStatementCacheSize(), statementCacheHits, statementCacheMisses, statementCacheEvictions));
+	}
+
+	/**
+	 * Gives a borrowed connection back to the pool. Any transaction left open by the borrower is rolled back and
+	 * auto-commit is restored so the next borrower starts from a clean state.
+	 *
+	 * @param pooled the connection being returned
+	 */
+	private void release(PooledConnection pooled) {
+		if (!borrowed.remove(pooled)) {
+			return;
+		}
+		pooled.borrowedBy = null;
+		boolean reusable = !closed;
+		try {
+			if (pooled.physical.isClosed()) {
+				reusable = false;
+			}
+			else if (!pooled.physical.getAutoCommit()) {
+				pooled.physical.rollback();
+				pooled.physical.setAutoCommit(true);
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			reusable = false;
+		}
+
+		if (reusable) {
+			pooled.lastUsedMillis = System.currentTimeMillis();
+			idle.offerFirst(pooled);
+		}
+		else {
+			evictions.incrementAndGet();
+			closePhysical(pooled);
+		}
+		permits.release();
+	}
+
+	/**
+	 * Evicts connections that have been idle too long, tops the pool back up to its minimum size and reports
+	 * connections that have been borrowed for longer than the leak threshold.
+	 */
+	private void runMaintenance() {
+		try {
+			long now = System.currentTimeMillis();
+
+			Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+			while (oldestFirst.hasNext() && idle.size() + borrowed.size() > config.getMinSize()) {
+				PooledConnection pooled = oldestFirst.next();
+				if (now - pooled.lastUsedMillis > config.getIdleTimeoutMillis() && idle.remove(pooled)) {
+					evictions.incrementAndGet();
+					closePhysical(pooled);
+				}
+			}
+
+			while (!closed && idle.size() + borrowed.size() < config.getMinSize()) {
+				idle.offerLast(open());
+			}
+
+			if (config.getLeakThresholdMillis() > 0) {
+				for (PooledConnection pooled : borrowed) {
+					Exception borrowedBy = pooled.borrowedBy;
+					if (!pooled.pinned && !pooled.leakReported && borrowedBy != null
+							&& now - pooled.borrowedAtMillis > config.getLeakThresholdMillis()) {
+						pooled.leakReported = true;
+						leaksDetected.incrementAndGet();
+						System.err.println("Possible connection leak: connection borrowed " + (now - pooled.borrowedAtMillis) + " ms ago has not been returned to the pool");
+						borrowedBy.printStackTrace();
+					}
+				}
+			}
+		}
+		catch (SQLException | RuntimeException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Closes a physical connection, ignoring errors.
+	 *
+	 * @param pooled the connection to close
+	 */
+	private void closePhysical(PooledConnection pooled) {
+		pooled.statements.clear();
+		try {
+			pooled.physical.close();
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Takes a snapshot of the pool counters.
+	 *
+	 * @return the current pool metrics
+	 */
+	public PoolMetrics getMetrics() {
+		return new PoolMetrics(borrowed.size(), idle.size(), waiting.get(), totalBorrows.get(),
+				TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+				timeouts.get(), leaksDetected.get(), evictions.get(), borrowLatency,
+				statementCacheHits.get(), statementCacheMisses.get(), statementCacheEvictions.get());
+	}
+
+	/**
+	 * @return the settings this pool was created with
+	 */
+	public PoolConfig getConfig() {
+		return config;
+	}
+
+	/**
+	 * Closes every idle connection and stops the maintenance task. Connections still borrowed are closed as they are
+	 * returned.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		maintenance.shutdownNow();
+		PooledConnection pooled;
+		while ((pooled = idle.pollFirst()) != null) {
+			closePhysical(pooled);
+		}
+	}
+
+	/**
+	 * Wraps a pooled connection in a proxy whose close() method returns the connection to the pool instead of
+	 * closing it. Once closed, the proxy rejects further use so a stale reference cannot touch a connection which
+	 * has since been handed to another borrower. prepareStatement(sql) is served from the connection's statement cache.
+	 *
+	 * @param pooled the connection being handed out
+	 * @return the connection proxy given to the borrower
+	 */
+	private Connection createLease(PooledConnection pooled) {
+		InvocationHandler handler = new InvocationHandler() {
+			private boolean returned = false;
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "close":
+					if (!returned) {
+						returned = true;
+						release(pooled);
+					}
+					return null;
+				case "isClosed":
+					return returned || pooled.physical.isClosed();
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "PooledConnection[" + pooled.physical + "]";
+				default:
+					break;
+				}
+				if (returned) {
+					throw new SQLException("Connection has already been returned to the pool");
+				}
+				if ("prepareStatement".equals(method.getName()) && args.length == 1) {
+					return pooled.statements.prepare(pooled.physical, (Connection) proxy, (String) args[0]);
+				}
+				try {
+					return method.invoke(pooled.physical, args);
+				}
+				catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		};
+		return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(), new Class<?>[] { Connection.class }, handler);
+	}
+
+	/**
+	 * A physical connection together with the bookkeeping the pool keeps about it.
+	 */
+	private static class PooledConnection {
+		final Connection physical;
+		final StatementCache statements;
+		volatile long lastUsedMillis = System.currentTimeMillis();
+		volatile long borrowedAtMillis;
+		volatile Exception borrowedBy;
+		volatile boolean pinned;
+		volatile boolean leakReported;
+
+		PooledConnection(Connection physical, StatementCache statements) {
+			this.physical = physical;
+			this.statements = statements;
+		}
+	}
+}
@@ -1,22 +1,34 @@
 package databasePart1;
 import java.sql.*;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
 
 import application.Answer;
+import application.InboxMessage;
 import application.InstructorMessage;
 import application.InstructorReviewerRequests;
 import application.Question;
+import application.QuestionThread;
 import application.Review;
 import application.ReviewerMessage;
 import application.ReviewerPrivateMessages;
+import application.Role;
 import application.StaffMessage;
 import application.User;
 import javafx.collections.FXCollections;
@@ -69,20 +81,167 @@ public class DatabaseHelper {
 	private final int expirationTimer = 15 * 60;
 	
 	/**
-	 * Instantiation of the connection to the database as null 
+	 * Database URL used by this instance, defaults to DB_URL
+	 */
+	private final String dbUrl;
+	
+	/**
+	 * Pool of connections to the database shared by the JavaFX Application Thread and worker threads
+	 */
+	private ConnectionPool connectionPool = null;
+	
+	/**
+	 * Long-lived connection borrowed from the pool and used by any thread which has not bound its own pooled connection
 	 */
 	private Connection connection = null;
 	
+	/**
+	 * Pooled connection bound to the current thread by withPooledConnection(), if any
+	 */
+	private final ThreadLocal<Connection> boundConnection = new ThreadLocal<>();
+	
+	/**
+	 * Worker threads which run DatabaseHelper calls off the JavaFX Application Thread
+	 */
+	private AsyncDatabase asyncDatabase = null;
+	
 	/**
 	 * PreparedStatement pstmt
 	 */
 	private Statement statement = null; 
 	
+	/**
+	 * Number of unread answers per questionID, loaded with one GROUP BY query and invalidated whenever an answer is
+	 * added, deleted or marked as read
+	 */
+	private final SnapshotCache<Map<Integer, Integer>> unreadAnswerCounts = new SnapshotCache<>(this::loadUnreadAnswerCounts);
+	
+	/**
+	 * Trusted Reviewers List of each student, loaded on first use and updated by the methods which change it
+	 */
+	private final TrustedReviewerCache trustedReviewerCache = new TrustedReviewerCache(this::loadTrustedReviewerWeights);
+	
+	/**
+	 * Receives a ChangeEvent after every change to the questions, replies, answers, reviews and private messages
+	 */
+	private final ChangeBus changeBus = new ChangeBus();
+	
+	/**
+	 * Keyword search index over questions, replies, answers and reviews, loaded by the first search and then kept up
+	 * to date from the ChangeBus
+	 */
+	private final SearchIndex searchIndex = new SearchIndex();
+	
+	/**
+	 * Whether searchIndex has been loaded; cleared when a change affects too many rows to apply one at a time
+	 */
+	private volatile boolean searchIndexLoaded = false;
+	
+	/**
+	 * Held while searchIndex is being loaded
+	 */
+	private final Object searchIndexLock = new Object();
+	
+	/**
+	 * Question and answer counts for the summary report, loaded on first use and then kept up to date from the
+	 * ChangeBus
+	 */
+	private final QAStatistics statistics = new QAStatistics();
+	
+	/**
+	 * Whether statistics has been loaded; cleared when a change affects too many rows to apply one at a time
+	 */
+	private volatile boolean statisticsLoaded = false;
+	
+	/**
+	 * Held while statistics is being loaded
+	 */
+	private final Object statisticsLock = new Object();
+	
+	/**
+	 * Cached reviewer scorecards, marked out of date from the ChangeBus and by the Trusted Reviewers List methods
+	 */
+	private final ReviewerScorecards reviewerScorecards = new ReviewerScorecards();
+	
+	/**
+	 * Unified copy of the four private messages tables, kept up to date from the ChangeBus
+	 */
+	private final MessageStore messageStore = new MessageStore(this::currentConnection);
+	
+	/**
+	 * Applies batches of muting and hiding in one transaction each
+	 */
+	private final ModerationEngine moderationEngine = new ModerationEngine(this::currentConnection);
+	
+	/**
+	 * Moderation queue over the flagged items of six tables, kept up to date from the ChangeBus
+	 */
+	private final FlagQueue flagQueue = new FlagQueue(this::currentConnection);
+	
+	/**
+	 * Unread private message counts of every user, loaded on first use and then kept up to date from the ChangeBus
+	 */
+	private final UnreadCounters unreadCounters = new UnreadCounters();
+	
+	/**
+	 * Whether unreadCounters has been loaded; cleared when a change affects too many rows to apply one at a time
+	 */
+	private volatile boolean unreadCountersLoaded = false;
+	
+	/**
+	 * Held while unreadCounters is being loaded
+	 */
+	private final Object unreadCountersLock = new Object();
+	
+	/**
+	 * Prefix index over the names and emails of every user, loaded on first use and then kept up to date from the
+	 * ChangeBus
+	 */
+	private final UserIndex userIndex = new UserIndex();
+	
+	/**
+	 * Whether userIndex has been loaded; cleared when a change affects too many rows to apply one at a time
+	 */
+	private volatile boolean userIndexLoaded = false;
+	
+	/**
+	 * Held while userIndex is being loaded
+	 */
+	private final Object userIndexLock = new Object();
+	
+	/**
+	 * Profile of the logged in user, opened at login; null when nobody is logged in
+	 */
+	private volatile SessionContext session;
+	
+	/**
+	 * Subscription dropping the session's userID when the logged in user changes
+	 */
+	private ChangeBus.Subscription sessionSubscription;
+	
 	/**
 	 * Default constructor
 	 */
 	public DatabaseHelper() {
-		// empty constructor
+		this(DB_URL);
+	}
+	
+	/**
+	 * Constructs a DatabaseHelper which connects to the specified database URL instead of DB_URL, such as an in-memory
+	 * H2 database used by tests.
+	 * 
+	 * @param dbUrl the JDBC URL of the database to connect to
+	 */
+	public DatabaseHelper(String dbUrl) {
+		this.dbUrl = dbUrl;
+		changeBus.subscribe(EnumSet.of(ChangeEvent.Entity.STUDENT_MESSAGE, ChangeEvent.Entity.REVIEWER_MESSAGE, ChangeEvent.Entity.STAFF_MESSAGE,
+				ChangeEvent.Entity.INSTRUCTOR_MESSAGE), this::updateUnreadCounters);
+		changeBus.subscribe(EnumSet.of(ChangeEvent.Entity.QUESTION, ChangeEvent.Entity.REPLY, ChangeEvent.Entity.ANSWER, ChangeEvent.Entity.REVIEW),
+				this::updateSearchIndex);
+		changeBus.subscribe(EnumSet.of(ChangeEvent.Entity.QUESTION, ChangeEvent.Entity.ANSWER), this::updateStatistics);
+		changeBus.subscribe(EnumSet.of(ChangeEvent.Entity.USER), this::updateUserIndex);
+		changeBus.subscribe(EnumSet.of(ChangeEvent.Entity.USER, ChangeEvent.Entity.ANSWER, ChangeEvent.Entity.REVIEW, ChangeEvent.Entity.REVIEWER_MESSAGE),
+				this::markScorecardsChanged);
 	}
 	
 	/**
@@ -91,18 +250,141 @@ public class DatabaseHelper {
 	 * @throws SQLException if a database access error if the JDBC Driver is not found
 	 */
 	public void connectToDatabase() throws SQLException {
+		connectToDatabase(new PoolConfig());
+	}
+	
+	/**
+	 * Establishes a pool of connections to the database using the specified URL, UserName, Password and pool settings.
+	 * One connection is borrowed for the lifetime of this DatabaseHelper and is used by every thread which has not
+	 * bound its own connection with withPooledConnection().
+	 * 
+	 * @param poolConfig the minimum/maximum pool size, timeouts and leak detection settings
+	 * @throws SQLException if a database access error if the JDBC Driver is not found
+	 */
+	public void connectToDatabase(PoolConfig poolConfig) throws SQLException {
 		try {
 			Class.forName(JDBC_DRIVER); // Load the JDBC driver
 			System.out.println("Connecting to database...");
-			connection = DriverManager.getConnection(DB_URL, USER, PASS);
+			connectionPool = new ConnectionPool(dbUrl, USER, PASS, poolConfig);
+			connection = connectionPool.borrowPinned();
 			statement = connection.createStatement(); 
 			//statement.execute("DROP ALL OBJECTS");
 
 			createTables();  // Create the necessary tables if they don't exist
+			
+			// One connection stays pinned to the JavaFX Application Thread, the rest are left for the workers
+			asyncDatabase = new AsyncDatabase(this, Math.max(1, poolConfig.getMaxSize() - 1), AsyncDatabase.DEFAULT_QUEUE_CAPACITY);
 		} catch (ClassNotFoundException e) {
 			System.err.println("JDBC Driver not found: " + e.getMessage());
 		}
 	}
+	
+	/**
+	 * Returns the connection to use for the current thread: the pooled connection bound by withPooledConnection() if
+	 * there is one, otherwise the long-lived connection shared by the JavaFX Application Thread.
+	 * 
+	 * @return the connection for the current thread
+	 */
+	private Connection currentConnection() {
+		Connection bound = boundConnection.get();
+		return bound != null ? bound : connection;
+	}
+	
+	/**
+	 * Borrows a connection from the pool, binds it to the current thread for the duration of the work and returns it
+	 * to the pool afterwards. Every DatabaseHelper method called inside the work runs on the borrowed connection, so
+	 * worker threads can query the database at the same time as the JavaFX Application Thread. Nested calls on a
+	 * thread which already has a bound connection reuse it.
+	 * 
+	 * @param <T> the type of the result of the work
+	 * @param work the database work to run
+	 * @return the result of the work
+	 * @throws SQLException if no connection could be borrowed or the work fails
+	 */
+	public <T> T withPooledConnection(SqlWork<T> work) throws SQLException {
+		if (boundConnection.get() != null) {
+			return work.execute();
+		}
+		try (Connection pooled = connectionPool.borrow()) {
+			boundConnection.set(pooled);
+			try {
+				return work.execute();
+			}
+			finally {
+				boundConnection.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Takes a snapshot of the connection pool counters, including active and idle connections, wait time and the
+	 * borrow latency histogram.
+	 * 
+	 * @return the current pool metrics, or null if connectToDatabase() has not been called
+	 */
+	public PoolMetrics getPoolMetrics() {
+		return connectionPool == null ? null : connectionPool.getMetrics();
+	}
+	
+	/**
+	 * Returns the worker threads used to run DatabaseHelper calls without blocking the JavaFX Application Thread.
+	 * 
+	 * @return the AsyncDatabase of this DatabaseHelper, or null if connectToDatabase() has not been called
+	 */
+	public AsyncDatabase getAsync() {
+		return asyncDatabase;
+	}
+	
+	/**
+	 * Returns the bus on which a ChangeEvent is published after every change this DatabaseHelper makes to the
+	 * questions, replies, answers, reviews, private messages and users, so open views can update the affected rows.
+	 * 
+	 * @return the ChangeBus of this DatabaseHelper
+	 */
+	public ChangeBus getChangeBus() {
+		return changeBus;
+	}
+	
+	/**
+	 * Publishes a ChangeEvent on the ChangeBus.
+	 * 
+	 * @param entity the kind of row which changed
+	 * @param kind what happened to the row
+	 * @param id the primary key of the row, or ChangeEvent.ALL_ROWS
+	 */
+	private void publish(ChangeEvent.Entity entity, ChangeEvent.Kind kind, int id) {
+		changeBus.publish(new ChangeEvent(entity, kind, id));
+	}
+	
+	/**
+	 * Reads the primary key generated by an INSERT, to publish the ChangeEvent of the new row.
+	 * 
+	 * @param pstmt the executed statement, prepared with Statement.RETURN_GENERATED_KEYS
+	 * @return the generated key, or ChangeEvent.ALL_ROWS if there is none
+	 * @throws SQLException if the key cannot be read
+	 */
+	private static int generatedKey(PreparedStatement pstmt) throws SQLException {
+		try (ResultSet rs = pstmt.getGeneratedKeys()) {
+			return rs.next() ? rs.getInt(1) : ChangeEvent.ALL_ROWS;
+		}
+	}
+	
+	/**
+	 * A unit of database work run by withPooledConnection().
+	 * 
+	 * @param <T> the type of the result of the work
+	 */
+	@FunctionalInterface
+	public interface SqlWork<T> {
+		
+		/**
+		 * Runs the work.
+		 * 
+		 * @return the result of the work
+		 * @throws SQLException if the work fails
+		 */
+		T execute() throws SQLException;
+	}
 
 	/**
 	 * Creates the database tables if they do not already exist
@@ -297,6 +579,9 @@ public class DatabaseHelper {
 				+ "timeSent DATETIME"
 				+ ");";
 		statement.execute(instructorMessagesTable);
+		
+		// Bring indexes and later schema changes up to date
+		new SchemaMigrator(connection).migrate();
 	}
 
 	/**
@@ -338,14 +623,16 @@ public class DatabaseHelper {
 	 * @return the count of Admin users in the database
 	 */
 	public int countAdminDataBase(){
-		ArrayList<User> userList = getUserList();
-		int count = 0;
-		for(User u : userList) {
-			if(u.getRole()[0]) {
-				count++;
+		String query = "SELECT COUNT(*) FROM cse360users WHERE " + roleCondition(EnumSet.of(Role.ADMIN));
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+			if (rs.next()) {
+				return rs.getInt(1);
 			}
 		}
-		return count;
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return 0;
 	}
 	
 	/**
@@ -356,7 +643,7 @@ public class DatabaseHelper {
 	 */
 	public void register(User user) throws SQLException {
 		String insertUser = "INSERT INTO cse360users (userName, password, firstName, lastName, email, role, isMuted) VALUES (?, ?, ?, ?, ?, ?, ?)";
-		try (PreparedStatement pstmt = connection.prepareStatement(insertUser)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(insertUser, Statement.RETURN_GENERATED_KEYS)) {
 			pstmt.setString(1, user.getUserName());
 			pstmt.setString(2, user.getPassword());
 			pstmt.setString(3, user.getFirstName());
@@ -365,6 +652,7 @@ public class DatabaseHelper {
 			pstmt.setString(6, Arrays.toString(user.getRole())); 
 			pstmt.setBoolean(7, false);
 			pstmt.executeUpdate();
+			publish(ChangeEvent.Entity.USER, ChangeEvent.Kind.ADDED, generatedKey(pstmt));
 		}
 	}
 
@@ -378,7 +666,7 @@ public class DatabaseHelper {
 	 */
 	public boolean login(User user) throws SQLException {
 		String query = "SELECT * FROM cse360users WHERE userName = ? AND password = ? AND role = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setString(1, user.getUserName());
 			pstmt.setString(2, user.getPassword());
 			pstmt.setString(3, Arrays.toString(user.getRole()));
@@ -388,6 +676,71 @@ public class DatabaseHelper {
 		}
 	}
 	
+	/**
+	 * Opens the session of a user who has logged in, closing any earlier session. Until it is closed, getUserID answers
+	 * for this user from the session instead of the database.
+	 * 
+	 * @param userName the logged in user's userName
+	 * @return the SessionContext of the user
+	 */
+	public synchronized SessionContext openSession(String userName) {
+		closeSession();
+		SessionContext opened = new SessionContext(userName, this::loadSessionProfile);
+		sessionSubscription = changeBus.subscribe(EnumSet.of(ChangeEvent.Entity.USER), opened::onUserChanged);
+		session = opened;
+		return opened;
+	}
+	
+	/**
+	 * Closes the session of the logged in user, if any, when they log out.
+	 */
+	public synchronized void closeSession() {
+		if (sessionSubscription != null) {
+			sessionSubscription.close();
+			sessionSubscription = null;
+		}
+		session = null;
+	}
+	
+	/**
+	 * @return the SessionContext of the logged in user, or null if nobody is logged in
+	 */
+	public SessionContext getSession() {
+		return session;
+	}
+	
+	/**
+	 * Returns the session if it belongs to a user.
+	 * 
+	 * @param userName the user's userName
+	 * @return the SessionContext, or null if the user is not the logged in user
+	 */
+	private SessionContext sessionOf(String userName) {
+		SessionContext current = session;
+		return current != null && current.getUserName().equals(userName) ? current : null;
+	}
+	
+	/**
+	 * Reads the profile of the logged in user for the SessionContext with one query.
+	 * 
+	 * @param userName the user's userName
+	 * @return the profile, or null if there is no such user
+	 * @throws SQLException if the profile cannot be read
+	 */
+	private SessionContext.Profile loadSessionProfile(String userName) throws SQLException {
+		String query = "SELECT id, firstName, lastName, email, roleMask, isMuted FROM cse360users WHERE userName = ?";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
+			pstmt.setString(1, userName);
+			try (ResultSet rs = pstmt.executeQuery()) {
+				if (!rs.next()) {
+					return null;
+				}
+				return new SessionContext.Profile(rs.getInt("id"), rs.getString("firstName"), rs.getString("lastName"), rs.getString("email"),
+						Role.fromMask(rs.getInt("roleMask")), rs.getBoolean("isMuted"));
+			}
+		}
+	}
+	
 	/**
 	 * Returns a User object if a user exists for the specified userName and password for use in the UserLoginPage class.
 	 * 
@@ -397,7 +750,7 @@ public class DatabaseHelper {
 	 */
 	public User getUser(String userName, String password) {
 		String getUser = "SELECT * FROM cse360users WHERE userName = ? AND password = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(getUser)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(getUser)) {
 			pstmt.setString(1, userName);
 			pstmt.setString(2, password);
 			
@@ -428,7 +781,7 @@ public class DatabaseHelper {
 	 */
 	public boolean doesUserExist(String userName) {
 	    String query = "SELECT COUNT(*) FROM cse360users WHERE userName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        
 	        pstmt.setString(1, userName);
 	        ResultSet rs = pstmt.executeQuery();
@@ -444,20 +797,17 @@ public class DatabaseHelper {
 	}
 	
 	/**
-	 * Retrieve all users information from database excluding password.
+	 * Retrieve all users information from database excluding password. Pages which list users should page through
+	 * {@link #getUserDirectoryPage(UserQuery, PageCursor, int)} instead of reading every user at once.
 	 * 
 	 * @return an ArrayList of all users in the database including all their attributes except for password
 	 */
 	public ArrayList<User> getUserList(){
 		ArrayList<User>  userList = new ArrayList<>();
-		String query = "SELECT userName || ',' || firstName || ',' || lastName ||  " 
-				+ "',' || email || ',' || role FROM cse360users";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			ResultSet rs = pstmt.executeQuery();
+		String query = "SELECT " + USER_COLUMNS + " FROM cse360users ORDER BY id";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
 			while(rs.next()){
-				String[] userInfoString = rs.getString(1).split(",");
-				boolean[] roles = stringToBoolArray(userInfoString, 4);
-				userList.add(new User(userInfoString[0], "", roles, userInfoString[3], userInfoString[1], userInfoString[2]));
+				userList.add(readUser(rs));
 			}
 		}catch (SQLException e) {
 			e.printStackTrace();
@@ -466,7 +816,7 @@ public class DatabaseHelper {
 	}
 	
 	/**
-	 * Retrieves the role of a user from the database using their UserName.
+	 * Retrieves the role of a user using their UserName.
 	 * The order of roles as is stored in the database is Admin[0], Student[1], Reviewer[2], Instructor[3], Staff[4].
 	 * 
 	 * @param userName the userName of the user
@@ -474,7 +824,7 @@ public class DatabaseHelper {
 	 */
 	public boolean[] getUserRole(String userName) {
 	    String query = "SELECT role FROM cse360users WHERE userName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setString(1, userName);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -498,7 +848,7 @@ public class DatabaseHelper {
 	 */
 	public boolean[] getInvitedUserRole(String email) {
 	    String query = "SELECT role FROM InvitationCodes WHERE email = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setString(1, email);
 	        ResultSet rs = pstmt.executeQuery();
 	        
@@ -523,7 +873,7 @@ public class DatabaseHelper {
 	 */
 	public boolean[] getInvitedUserRoleEmailAndCode(String email, String code) {
 	    String query = "SELECT role FROM InvitationCodes WHERE email = ? AND code  = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setString(1, email);
 	        pstmt.setString(2, code);
 	        ResultSet rs = pstmt.executeQuery();
@@ -545,10 +895,13 @@ public class DatabaseHelper {
 	 * @param user the user object that contains the userName for the user to delete
 	 */
 	public void deleteUser(User user) {
+		int userID = userIDOf(user.getUserName());
 		String query = "DELETE FROM cse360users WHERE userName = ?";
-		try(PreparedStatement pstmt = connection.prepareStatement(query)){
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(query)){
 			pstmt.setString(1, user.getUserName());
-			pstmt.executeUpdate();
+			if (pstmt.executeUpdate() > 0) {
+				publish(ChangeEvent.Entity.USER, ChangeEvent.Kind.DELETED, userID);
+			}
 		}catch(SQLException e) {
 			e.printStackTrace();
 		}
@@ -566,7 +919,7 @@ public class DatabaseHelper {
 	    String code = UUID.randomUUID().toString().substring(0, 4); // Generate a random 4-character code
 	    String query = "INSERT INTO InvitationCodes (email, code, role, deadline) VALUES (?, ?, ?, ?)";
 	    System.out.println(code);
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setString(1, email);
 	        pstmt.setString(2, code);
 	        pstmt.setString(3,	Arrays.toString(roles));
@@ -587,7 +940,7 @@ public class DatabaseHelper {
 	 */
 	public boolean validateInvitationCode(String code) {
 	    String query = "SELECT COUNT(*) FROM InvitationCodes WHERE code = ? AND isUsed = FALSE";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setString(1, code);
 	        ResultSet rs = pstmt.executeQuery();
 	        if (rs.next()) {
@@ -613,7 +966,7 @@ public class DatabaseHelper {
 	 */
 	private void markInvitationCodeAsUsed(String code) {
 	    String query = "UPDATE InvitationCodes SET isUsed = TRUE WHERE code = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setString(1, code);
 	        pstmt.executeUpdate();
 	    } catch (SQLException e) {
@@ -629,7 +982,7 @@ public class DatabaseHelper {
 	 */
 	public boolean checkExpiration(String code) {
 		String query = "SELECT deadline FROM InvitationCodes WHERE code = ?";
-		try(PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setString(1,  code);
 			ResultSet rs = pstmt.executeQuery();
 			if(rs.next()) {
@@ -647,9 +1000,10 @@ public class DatabaseHelper {
 		return false;
 	}
 	 /**
-	  * Closes the database connection and statement.
+	  * Closes the database connection and statement and shuts down the connection pool.
 	  */
 	public void closeConnection() {
+		if(asyncDatabase!=null) asyncDatabase.close();
 		try{ 
 			if(statement!=null) statement.close(); 
 		} catch(SQLException se2) { 
@@ -660,6 +1014,7 @@ public class DatabaseHelper {
 		} catch(SQLException se){ 
 			se.printStackTrace(); 
 		} 
+		if(connectionPool!=null) connectionPool.close();
 	}
 
 	/**
@@ -671,7 +1026,7 @@ public class DatabaseHelper {
 	 */
 	public void setUserPassword(String userName, String newPass, String oneTimePass) {
 		String query = "UPDATE cse360users SET password = ? WHERE userName = ?";
-		try(PreparedStatement pstmt = connection.prepareStatement(query)){
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(query)){
 			pstmt.setString(1, newPass);
 			pstmt.setString(2, userName);
 			pstmt.executeUpdate();
@@ -689,7 +1044,7 @@ public class DatabaseHelper {
 	public void createRequest(String userName, String oneTimePass) {
 		int expiration = (int) System.currentTimeMillis() / 1000; //Stores creation time in seconds.
 		String query = "INSERT INTO passwordResets (userName, resetCode, expiration) VALUES(?, ?, ?)"; 
-		try(PreparedStatement pstmt = connection.prepareStatement(query)){
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(query)){
 			pstmt.setString(1, userName);
 			pstmt.setString(2, oneTimePass);
 			pstmt.setInt(3, expiration);
@@ -706,7 +1061,7 @@ public class DatabaseHelper {
 	 */
 	public void deleteRequest(String userName) {
 		String query = "DELETE FROM passwordResets WHERE userName = ?";
-		try(PreparedStatement pstmt = connection.prepareStatement(query)){
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(query)){
 			pstmt.setString(1, userName);
 			pstmt.executeUpdate();
 		}catch(SQLException e) {
@@ -722,7 +1077,7 @@ public class DatabaseHelper {
 	public ArrayList<String> getRequests() {
 		ArrayList<String> requests = new ArrayList<String>();
 		String query = "SELECT userName || ',' || resetCode || ',' || expiration FROM passwordResets";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()){
 				requests.add(rs.getString(1));
@@ -741,7 +1096,7 @@ public class DatabaseHelper {
 	 */
 	public boolean doesRequestExist(String userName) {
 		String query = "SELECT * FROM passwordResets WHERE userName = ?";
-		try(PreparedStatement pstmt = connection.prepareStatement(query)){
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(query)){
 			pstmt.setString(1, userName);
 			ResultSet rs = pstmt.executeQuery();
 			return rs.next() ? true : false;
@@ -760,7 +1115,7 @@ public class DatabaseHelper {
 	public User getUserInfo(String userName) {
 		String query = "SELECT firstName || ',' || lastName || " 
 				+ "',' || email || ',' || role FROM cse360users WHERE userName = ?";
-		try(PreparedStatement pstmt = connection.prepareStatement(query)){
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(query)){
 			pstmt.setString(1, userName);
 			ResultSet rs = pstmt.executeQuery();
 			if(rs.next()){
@@ -785,10 +1140,11 @@ public class DatabaseHelper {
 	 */
 	public void setUserRoles(User user, boolean[] roles) {
 		String query = "UPDATE cse360users SET role = ? WHERE userName = ?";
-		try(PreparedStatement pstmt = connection.prepareStatement(query)){
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(query)){
 			pstmt.setString(1, Arrays.toString(roles));
 			pstmt.setString(2,  user.getUserName());
 			pstmt.executeUpdate();
+			publish(ChangeEvent.Entity.USER, ChangeEvent.Kind.UPDATED, userIDOf(user.getUserName()));
 		}catch(SQLException e) {
 			e.printStackTrace();
 		}
@@ -829,7 +1185,7 @@ public class DatabaseHelper {
 	public int addQuestion(String questionTitle, String questionBody, Question question, User student) throws SQLException {
 		String insertQuestion = "INSERT INTO questions (studentUserName, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime, oldQuestionID, isFlagged, reasonIsFlagged, isHidden) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ";
 		int questionIDGenerated = -1;
-		try (PreparedStatement pstmt = connection.prepareStatement(insertQuestion, Statement.RETURN_GENERATED_KEYS)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(insertQuestion, Statement.RETURN_GENERATED_KEYS)) {
 			pstmt.setString(1, student.getUserName());
 			pstmt.setString(2, student.getFirstName());
 			pstmt.setString(3, student.getLastName());
@@ -852,6 +1208,7 @@ public class DatabaseHelper {
 					questionIDGenerated = rs.getInt(1);
 				}
 			}
+			publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.ADDED, questionIDGenerated);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -868,7 +1225,7 @@ public class DatabaseHelper {
 	public String getUserFromQuestionID(int questionID) {
 		String studentUserName = "";
 		String getUser = "SELECT studentUserName FROM questions WHERE questionID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(getUser)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(getUser)) {
 			pstmt.setInt(1, questionID);
 			
 			ResultSet rs = pstmt.executeQuery();
@@ -893,7 +1250,7 @@ public class DatabaseHelper {
 	public ArrayList<Question> getAllQuestions(User user) { 
 		ArrayList<Question> allQuestions = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, studentUserName, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime, isFlagged, reasonIsFlagged FROM questions WHERE isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -926,7 +1283,7 @@ public class DatabaseHelper {
 	public ArrayList<Question> getAllReplies() {
 		ArrayList<Question> allReplies = new ArrayList<>();
 		String sqlQuery = "SELECT replyID, questionID, studentUserName, studentFirstName, studentLastName, questionReplyText, replyingTo, isFlagged, reasonIsFlagged FROM questionReplies WHERE isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int replyID = rs.getInt("replyID");
@@ -959,7 +1316,7 @@ public class DatabaseHelper {
 	public ArrayList<Question> getUnresolvedQuestions() { 
 		ArrayList<Question> unresolvedQuestions = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, studentUserName, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime, isFlagged, reasonIsFlagged FROM questions WHERE isResolved = false AND isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -992,7 +1349,7 @@ public class DatabaseHelper {
 	public ArrayList<Question> getAnsweredQuestions() {
 		ArrayList<Question> getAnsweredQuestions = new ArrayList<>();
 		String sqlQuery = "SELECT q.questionID, q.studentUserName, q.studentFirstName, q.studentLastName, q.questionTitle, q.questionBody, q.isResolved, q.creationTime, q.isFlagged, q.reasonIsFlagged FROM questions q WHERE q.questionID IN (SELECT a.questionID FROM answers a) AND q.isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -1025,7 +1382,7 @@ public class DatabaseHelper {
 	 */
 	public ArrayList<Question> addQuestionRepliesToAnsweredQuestions(ArrayList<Question> answeredQuestions) {
 		String sqlQuery = "SELECT r.replyID, r.studentFirstName, r.studentLastName, r.questionReplyText, r.replyingTo FROM questionReplies r WHERE r.questionID IN (SELECT a.questionID FROM answers a) AND r.isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int replyID = rs.getInt("replyID");
@@ -1055,7 +1412,7 @@ public class DatabaseHelper {
 		// This can be changed to 24 hours, or 168 for a week..
 		LocalDateTime last48Hours = LocalDateTime.now().minusHours(48);
 		String sqlQuery = "SELECT questionID, studentUserName, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime FROM questions WHERE creationTime >= ? AND isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setTimestamp(1, Timestamp.valueOf(last48Hours));
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
@@ -1086,9 +1443,10 @@ public class DatabaseHelper {
 	 */
 	public void markQuestionDeleted(int questionID){
 		String sqlUpdate = "UPDATE questions SET studentUserName = 'Deleted Student User Name', studentFirstName = 'Deleted Student First Name', studentLastName = 'Deleted Student Last Name', questionTitle = 'Deleted Question Title', questionBody = 'Deleted Question Body' WHERE questionID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlUpdate)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlUpdate)) {
 			pstmt.setInt(1, questionID);
 			pstmt.executeUpdate();
+			publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.UPDATED, questionID);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -1102,9 +1460,10 @@ public class DatabaseHelper {
 	 */
 	public void deleteQuestion(int questionID) {
 		String sqlDelete = "DELETE FROM questions where questionID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlDelete)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlDelete)) {
 			pstmt.setInt(1, questionID);
 			pstmt.executeUpdate();
+			publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.DELETED, questionID);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -1118,9 +1477,10 @@ public class DatabaseHelper {
 	 */
 	public void deleteRepliesForQuestion(int questionID) {
 		String sqlDelete = "DELETE FROM questionReplies where questionID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlDelete)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlDelete)) {
 			pstmt.setInt(1, questionID);
 			pstmt.executeUpdate();
+			publish(ChangeEvent.Entity.REPLY, ChangeEvent.Kind.DELETED, ChangeEvent.ALL_ROWS);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -1136,7 +1496,7 @@ public class DatabaseHelper {
 	public Question getQuestionByID(int questionID) {
 		Question question = null;
 		String sqlQuery = "SELECT studentUserName, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime FROM questions WHERE questionID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setInt(1, questionID);
 			ResultSet rs = pstmt.executeQuery();
 			if (rs.next()) {
@@ -1170,7 +1530,7 @@ public class DatabaseHelper {
 	public int createNewQuestionfromOld(String newQuestionTitle, String newQuestionBody, Question newQuestion, User student, int oldQuestionID) {
 		int questionIDGenerated = -1;
 		String insertQuestion = "INSERT INTO questions (studentUserName, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime, oldQuestionID) VALUES (?, ?, ?, ?, ?, ?, ?, ?) ";
-		try (PreparedStatement pstmt = connection.prepareStatement(insertQuestion, Statement.RETURN_GENERATED_KEYS)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(insertQuestion, Statement.RETURN_GENERATED_KEYS)) {
 			pstmt.setString(1, newQuestion.getStudentUserName());
 			pstmt.setString(2, newQuestion.getStudentFirstName());
 			pstmt.setString(3, newQuestion.getStudentLastName());
@@ -1186,6 +1546,7 @@ public class DatabaseHelper {
 					questionIDGenerated = rs.getInt(1);
 				}
 			}
+			publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.ADDED, questionIDGenerated);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -1202,11 +1563,12 @@ public class DatabaseHelper {
 	 */
 	public void editQuestion(String modifiedQuestionTitle, String modifiedQuestionBody, int questionID) {
 		String sqlUpdate = "UPDATE questions SET questionTitle = ?, questionBody = ? WHERE questionID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlUpdate)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlUpdate)) {
 			pstmt.setString(1, modifiedQuestionTitle);
 			pstmt.setString(2, modifiedQuestionBody);
 			pstmt.setInt(3, questionID);
 			pstmt.executeUpdate();
+			publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.UPDATED, questionID);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -1222,10 +1584,11 @@ public class DatabaseHelper {
 	 */
 	public boolean markQuestionResolved(int questionID, Question question) {
 	    String sqlUpdate = "UPDATE questions SET isResolved = TRUE WHERE questionID = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(sqlUpdate)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlUpdate)) {
 	        pstmt.setInt(1, questionID);
 	        int rowsAffected = pstmt.executeUpdate();
-	        connection.commit(); 
+	        currentConnection().commit(); 
+	        publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.UPDATED, questionID);
 	        if (rowsAffected > 0) {
 				question.setIsResolved(true);
 			}
@@ -1249,7 +1612,7 @@ public class DatabaseHelper {
 	public int addAnswers(String answerText, Answer answer, User student, int questionID) {
 		String insertAnswer = "INSERT INTO answers (studentUserName, studentFirstName, studentLastName, questionID, answerText, isAnswerUnread, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden) VALUES (?, ?, ?, ?, ?, TRUE, FALSE, ?, ?, ?, ?) ";
 		int answerIDGenerated = -1;
-		try (PreparedStatement pstmt = connection.prepareStatement(insertAnswer, Statement.RETURN_GENERATED_KEYS)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(insertAnswer, Statement.RETURN_GENERATED_KEYS)) {
 			pstmt.setString(1, student.getUserName());
 			pstmt.setString(2, student.getFirstName());
 			pstmt.setString(3, student.getLastName());
@@ -1264,12 +1627,14 @@ public class DatabaseHelper {
 			pstmt.setString(8, "");
 			pstmt.setBoolean(9, false);
 			pstmt.executeUpdate();
+			unreadAnswerCounts.invalidate();
 			
 			try(ResultSet rs = pstmt.getGeneratedKeys()) {
 				if (rs.next()) {
 					answerIDGenerated = rs.getInt(1);
 				}
 			}
+			publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.ADDED, answerIDGenerated);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -1286,7 +1651,7 @@ public class DatabaseHelper {
 	public ArrayList<Answer> getAllAnswers(User user) { 
 		ArrayList<Answer> allAnswers = new ArrayList<>();
 		String sqlQuery = "SELECT answerID, questionID, studentUserName, studentFirstName, studentLastName, answerText, isAnswerUnread, isResolved, creationTime, isFlagged, reasonIsFlagged FROM answers WHERE isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int answerID = rs.getInt("answerID");
@@ -1321,7 +1686,7 @@ public class DatabaseHelper {
 	public ArrayList<Answer> getAnswersByQuestionID(int questionID) {
 		ArrayList<Answer> answersForQuestionID = new ArrayList<>();
 		String sqlQuery = "SELECT answerID, questionID, studentUserName, studentFirstName, studentLastName, answerText, isResolved, isAnswerUnread, creationTime, isFlagged, reasonIsFlagged FROM answers WHERE questionID = ? AND isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setInt(1, questionID);
 			ResultSet rs = pstmt.executeQuery();
 			while (rs.next()) {
@@ -1356,7 +1721,7 @@ public class DatabaseHelper {
 	public int getQuestionIDForAnswer(int answerID) {
 		int questionID = -1;
 		String sqlQuery = "SELECT questionID FROM answers WHERE answerID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setInt(1, answerID);
 			ResultSet rs = pstmt.executeQuery();
 			if (rs.next()) {
@@ -1377,7 +1742,7 @@ public class DatabaseHelper {
 	public ArrayList<Answer> getUnreadAnswers() { 
 		ArrayList<Answer> unreadAnswers = new ArrayList<>();
 		String sqlQuery = "SELECT studentFirstName, studentLastName, answerText FROM answers WHERE isAnswerUnread = true";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery(sqlQuery);
 			while(rs.next()) {
 				String studentFirstName = rs.getString("studentFirstName");
@@ -1403,7 +1768,7 @@ public class DatabaseHelper {
 	public ArrayList<Answer> getAnswersUnresolvedQuestions() {
 		ArrayList<Answer> answersForUnresolvedQuestions = new ArrayList<>();
 		String sqlQuery = "SELECT studentFirstName, studentLastName, answerText FROM answers WHERE isResolved = false";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery(sqlQuery);
 			while(rs.next()) {
 				String studentFirstName = rs.getString("studentFirstName");
@@ -1430,7 +1795,7 @@ public class DatabaseHelper {
 	public ArrayList<Answer> getResolvedAnswers() {
 		ArrayList<Answer> resolvedAnswers = new ArrayList<>();
 		String sqlQuery = "SELECT answerID, questionID, studentUserName, studentFirstName, studentLastName, answerText, isAnswerUnread, isResolved, creationTime, isFlagged, reasonIsFlagged FROM answers WHERE isResolved = TRUE AND isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int answerID = rs.getInt("answerID");
@@ -1464,7 +1829,7 @@ public class DatabaseHelper {
 	public ArrayList<Answer> getUnresolvedAnswers() {
 		ArrayList<Answer> unresolvedAnswers = new ArrayList<>();
 		String sqlQuery = "SELECT answerID, questionID, studentUserName, studentFirstName, studentLastName, answerText, isAnswerUnread, isResolved, creationTime, isFlagged, reasonIsFlagged FROM answers WHERE isResolved = FALSE AND isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int answerID = rs.getInt("answerID");
@@ -1499,7 +1864,7 @@ public class DatabaseHelper {
 	public Answer getAnswerByID(int answerID) {
 		Answer answer = null;
 		String sqlQuery = "SELECT questionID, studentUserName, studentFirstName, studentLastName, answerText, isAnswerUnread, isResolved, creationTime FROM answers WHERE answerID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setInt(1, answerID);
 			ResultSet rs = pstmt.executeQuery();
 			if (rs.next()) {
@@ -1528,9 +1893,11 @@ public class DatabaseHelper {
 	 */
 	public void deleteAnswer(int answerID) {
 		String sqlDelete = "DELETE FROM answers where answerID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlDelete)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlDelete)) {
 			pstmt.setInt(1, answerID);
 			pstmt.executeUpdate();
+			unreadAnswerCounts.invalidate();
+			publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.DELETED, answerID);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -1545,10 +1912,11 @@ public class DatabaseHelper {
 	 */
 	public void editAnswer(String modifiedAnswer, int answerID) {
 		String sqlUpdate = "UPDATE answers SET answerText = ? WHERE answerID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlUpdate)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlUpdate)) {
 			pstmt.setString(1, modifiedAnswer);
 			pstmt.setInt(2, answerID);
 			pstmt.executeUpdate();
+			publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.UPDATED, answerID);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -1564,10 +1932,11 @@ public class DatabaseHelper {
 	 */
 	public boolean markAnswerResolved(int answerID, Answer answer) {
 		String sqlUpdate = "UPDATE answers SET isResolved = TRUE WHERE answerID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlUpdate)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlUpdate)) {
 			pstmt.setInt(1, answerID);
 			int rowsAffected = pstmt.executeUpdate();
-			connection.commit(); 
+			currentConnection().commit(); 
+			publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.UPDATED, answerID);
 			if (rowsAffected > 0) {
 				answer.setIsResolved(true);
 			}
@@ -1594,7 +1963,7 @@ public class DatabaseHelper {
 	public int addReply(String replyText, int parentQuestionID, Question questionReply, User student, String replyingTo) {
 		String insertQuestionReply = "INSERT INTO questionReplies (questionID, studentUserName, studentFirstName, studentLastName, questionReplyText, creationTime, replyingTo, isFlagged, reasonIsFlagged, isHidden) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ";
 		int replyIDGenerated = -1;
-		try (PreparedStatement pstmt = connection.prepareStatement(insertQuestionReply, Statement.RETURN_GENERATED_KEYS)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(insertQuestionReply, Statement.RETURN_GENERATED_KEYS)) {
 			pstmt.setInt(1, parentQuestionID);
 			pstmt.setString(2, student.getUserName());
 			pstmt.setString(3, student.getFirstName());
@@ -1615,6 +1984,7 @@ public class DatabaseHelper {
 					replyIDGenerated = rs.getInt(1);
 				}
 			}
+			publish(ChangeEvent.Entity.REPLY, ChangeEvent.Kind.ADDED, replyIDGenerated);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -1633,7 +2003,7 @@ public class DatabaseHelper {
 				"FROM questions q LEFT JOIN answers a ON q.questionID = a.questionID " +
 				"WHERE a.answerID IS NULL AND q.isHidden = FALSE";
 
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while (rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -1668,7 +2038,7 @@ public class DatabaseHelper {
 		String sqlQuery = "SELECT questionID, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime " +
 				"FROM questions WHERE studentUserName = ? AND isHidden = FALSE";
 
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setString(1, userName);
 			ResultSet rs = pstmt.executeQuery();
 			while (rs.next()) {
@@ -1691,25 +2061,51 @@ public class DatabaseHelper {
 	}
 
 	/**
-	 * Retrieves the count of all answers for a specified questionID who are marked as having been unread.
+	 * Retrieves the count of all answers for a specified questionID who are marked as having been unread. The count is
+	 * read from the cached result of getUnreadAnswerCounts(), so calling this from a ListView cell factory for every
+	 * row does not query the database.
 	 * 
 	 * @param questionID the questionID of the question 
 	 * @return the number of answers associated with the specified answerID whose attribute isAnswerUnread in the database is set to true
 	 */
 	public int countUnreadPotentialAnswers(int questionID) {
-		int unreadCount = 0;
-		String sqlQuery = "SELECT COUNT(*) AS unreadCount FROM answers WHERE questionID = ? AND isAnswerUnread = TRUE";
-
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
-			pstmt.setInt(1, questionID);
-			ResultSet rs = pstmt.executeQuery();
-			if (rs.next()) {
-				unreadCount = rs.getInt("unreadCount");
+		return getUnreadAnswerCounts().getOrDefault(questionID, 0);
+	}
+	
+	/**
+	 * Retrieves the number of unread answers for every question which has at least one. The counts are loaded with a
+	 * single GROUP BY query and cached until an answer is added, deleted or marked as read.
+	 * 
+	 * @return an unmodifiable map from questionID to the number of unread answers for that question
+	 */
+	public Map<Integer, Integer> getUnreadAnswerCounts() {
+		return unreadAnswerCounts.get();
+	}
+	
+	/**
+	 * Discards the cached unread answer counts so they are loaded again on the next call to getUnreadAnswerCounts().
+	 * Only needed when the answers table has been changed without going through this DatabaseHelper.
+	 */
+	public void invalidateUnreadAnswerCounts() {
+		unreadAnswerCounts.invalidate();
+	}
+	
+	/**
+	 * Loads the number of unread answers for every question from the database.
+	 * 
+	 * @return an unmodifiable map from questionID to the number of unread answers for that question
+	 */
+	private Map<Integer, Integer> loadUnreadAnswerCounts() {
+		Map<Integer, Integer> counts = new HashMap<>();
+		String sqlQuery = "SELECT questionID, COUNT(*) AS unreadCount FROM answers WHERE isAnswerUnread = TRUE GROUP BY questionID";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery); ResultSet rs = pstmt.executeQuery()) {
+			while (rs.next()) {
+				counts.put(rs.getInt("questionID"), rs.getInt("unreadCount"));
 			}
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
-		return unreadCount;
+		return Collections.unmodifiableMap(counts);
 	}
 
 	/**
@@ -1723,7 +2119,7 @@ public class DatabaseHelper {
 				"FROM answers a JOIN questions q ON a.questionID = q.questionID " +
 				"WHERE a.isResolved = TRUE AND a.isHidden = FALSE";
 
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while (rs.next()) {
 				int answerID = rs.getInt("answerID");
@@ -1765,7 +2161,7 @@ public class DatabaseHelper {
 		int roleRequestIDGenerated = -1;
 		String requestStatus = "Pending";
 		String query = "INSERT INTO newRoleRequests (userID, userName, userFirstName, userLastName, isRequestApproved, requestStatus, role) VALUES (?, ?, ?, ?, ?, ?, ?)";
-		try(PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)){
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)){
 			pstmt.setInt(1, userID);
 			pstmt.setString(2, user.getUserName());
 			pstmt.setString(3, user.getFirstName());
@@ -1796,7 +2192,7 @@ public class DatabaseHelper {
 	public String getNewRoleRequestStatus(int roleRequestID) {
 		String roleRequestStatus = "";
 		String query = " SELECT requestStatus FROM newRoleRequests WHERE roleRequestID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setInt(1, roleRequestID);
 			ResultSet rs = pstmt.executeQuery();
 			
@@ -1821,7 +2217,7 @@ public class DatabaseHelper {
 	public String[] getAllRoleRequestsByUserID(int userID) {
 		String[] roleRequests = null;
 		String query = "SELECT userName, userFirstName, userLastName, role, requestStatus FROM newRoleRequests WHERE userID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setInt(1, userID);
 			
 			try (ResultSet rs = pstmt.executeQuery()) {
@@ -1864,7 +2260,7 @@ public class DatabaseHelper {
 		int i = 0;
 		int indexMatching = -1;
 		String query = "SELECT role, requestStatus FROM newRoleRequests WHERE userID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setInt(1, userID);
 			try (ResultSet rs = pstmt.executeQuery()) {
 				if (!rs.next()) {
@@ -1920,7 +2316,7 @@ public class DatabaseHelper {
 	 */
 	public void deleteRoleRequest(String userName) {
 		String query = "DELETE FROM newRoleRequests WHERE userName = ?";
-		try(PreparedStatement pstmt = connection.prepareStatement(query)){
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(query)){
 			pstmt.setString(1, userName);
 			pstmt.executeUpdate();
 		}catch(SQLException e) {
@@ -1930,16 +2326,27 @@ public class DatabaseHelper {
 	
 	
 	/**
-	 * Get a user's userID from the database by specified User object.
+	 * Get a user's userID by specified User object, from the session if it is the logged in user and otherwise from
+	 * the database.
 	 * 
 	 * @param user the User object for the current user
 	 * @return the userID associated with the specified User object
 	 */
 	public int getUserID(User user) {
+		SessionContext current = sessionOf(user.getUserName());
+		return current != null ? current.getUserID() : userIDOf(user.getUserName());
+	}
+	
+	/**
+	 * Reads a user's userID from the database.
+	 * 
+	 * @param userName the user's userName
+	 * @return the userID, or -1 if there is no such user
+	 */
+	private int userIDOf(String userName) {
 		int userID = -1;
-		String userName = user.getUserName();
 		String query = "SELECT id FROM cse360users WHERE userName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setString(1, userName);
 			ResultSet rs = pstmt.executeQuery();
 			
@@ -1968,7 +2375,7 @@ public class DatabaseHelper {
 	public int addReview(String userName, String firstName, String lastName, String reviewBody, int questionID, int answerID, int prevID) {
 		String insertReview = "INSERT INTO reviews (reviewerUserName, reviewerFirstName, reviewerLastName, reviewBody, questionID, answerID, prevReviewID, isFlagged, reasonIsFlagged, isHidden) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ";
 		int reviewIDGenerated = -1;
-		try (PreparedStatement pstmt = connection.prepareStatement(insertReview, Statement.RETURN_GENERATED_KEYS)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(insertReview, Statement.RETURN_GENERATED_KEYS)) {
 			pstmt.setString(1, userName);
 			pstmt.setString(2, firstName);
 			pstmt.setString(3, lastName);
@@ -1987,6 +2394,7 @@ public class DatabaseHelper {
 					reviewIDGenerated = rs.getInt(1);
 				}
 			}
+			publish(ChangeEvent.Entity.REVIEW, ChangeEvent.Kind.ADDED, reviewIDGenerated);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -2002,10 +2410,11 @@ public class DatabaseHelper {
 	 */
 	public void editReview(String newBody, int reviewID) {
 		String editReview = "UPDATE reviews SET reviewBody = ? WHERE reviewID = ?";
-		try(PreparedStatement pstmt = connection.prepareStatement(editReview)){
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(editReview)){
 			pstmt.setString(1, newBody);
 			pstmt.setInt(2, reviewID);
 			pstmt.executeUpdate();
+			publish(ChangeEvent.Entity.REVIEW, ChangeEvent.Kind.UPDATED, reviewID);
 		}catch(SQLException e) {
 			e.printStackTrace();
 		}
@@ -2020,7 +2429,7 @@ public class DatabaseHelper {
 	public ArrayList<Review> getAllReviews(User user) { 
 		ArrayList<Review> allReviews = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, answerID, prevReviewID, reviewID, reviewBody, reviewerUserName, reviewerFirstName, reviewerLastName, isFlagged, reasonIsFlagged FROM reviews WHERE isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -2046,45 +2455,1212 @@ public class DatabaseHelper {
 	}
 	
 	/**
-	 * Confirms if a specified review was created by a Trusted Reviewer of the specified user.
+	 * Rows read per query when a method returns a whole inbox or sent list from the messages table
+	 */
+	private static final int MESSAGE_PAGE_SIZE = 500;
+	
+	/**
+	 * Private messages between students and from students to reviewers, and messages from reviewers
+	 */
+	private static final Set<InboxMessage.Source> STUDENT_AND_REVIEWER_MESSAGES = Collections.unmodifiableSet(EnumSet.of(InboxMessage.Source.STUDENT,
+			InboxMessage.Source.REVIEWER));
+	
+	/**
+	 * Selects the userNames of Student users
+	 */
+	private static final String STUDENT_USERS = "SELECT userName FROM cse360users WHERE " + roleCondition(EnumSet.of(Role.STUDENT));
+	
+	/**
+	 * Selects the userNames of Reviewer users
+	 */
+	private static final String REVIEWER_USERS = "SELECT userName FROM cse360users WHERE " + roleCondition(EnumSet.of(Role.REVIEWER));
+	
+	/**
+	 * Columns read by readQuestion()
+	 */
+	private static final String QUESTION_COLUMNS = "questionID, studentUserName, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden";
+	
+	/**
+	 * Columns read by readReply()
+	 */
+	private static final String REPLY_COLUMNS = "replyID, questionID, studentUserName, studentFirstName, studentLastName, questionReplyText, replyingTo, isFlagged, reasonIsFlagged, isHidden";
+	
+	/**
+	 * Columns read by readAnswer()
+	 */
+	private static final String ANSWER_COLUMNS = "answerID, questionID, studentUserName, studentFirstName, studentLastName, answerText, isAnswerUnread, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden";
+	
+	/**
+	 * Columns read by readReview()
+	 */
+	private static final String REVIEW_COLUMNS = "questionID, answerID, prevReviewID, reviewID, reviewBody, reviewerUserName, reviewerFirstName, reviewerLastName, isFlagged, reasonIsFlagged, isHidden";
+	
+	/**
+	 * Retrieves one page of the questions which are not hidden, ordered by creationTime and questionID. Pass null as
+	 * the cursor for the first page and the returned Page's next cursor for every page after it.
+	 * 
+	 * @param user a User object representing the current user
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of questions to return
+	 * @return a Page containing at most pageSize questions
+	 */
+	public Page<Question> getQuestionsPage(User user, PageCursor after, int pageSize) {
+		String sqlQuery = "SELECT " + QUESTION_COLUMNS + " FROM questions WHERE isHidden = FALSE";
+		return getPage(sqlQuery, "creationTime", "questionID", after, pageSize, this::readQuestion, question -> new PageCursor(question.getCreationTime(), question.getQuestionID()));
+	}
+	
+	/**
+	 * Retrieves one page of all questions including hidden ones, ordered by creationTime and questionID, specifically
+	 * for Instructor and Staff Student Interaction View pages.
 	 * 
-	 * @param review the Review object of the review being parsed by the CellFactory
-	 * @param user the User object for the current user
-	 * @return true or false based on whether the specified review was submitted by a Trusted Reviewer of the specified user
+	 * @param user a User object representing the current user
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of questions to return
+	 * @return a Page containing at most pageSize questions
 	 */
-	public boolean checkIfReviewCreatedByTrustedReviewer(Review review, User user) {
-		boolean reviewCreatedByTrustedReviewer = false;
-		String reviewerUserName = review.getReviewerUserName();
-		String sqlQuery = "SELECT t.reviewerUserName FROM trustedReviewers t INNER JOIN reviews r ON r.reviewerUserName = t.reviewerUserName WHERE t.studentUserName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
-			pstmt.setString(1,user.getUserName());
-			ResultSet rs = pstmt.executeQuery();
-			while (rs.next()) {
-				if (rs.getString("reviewerUserName").equals(reviewerUserName)) {
-					reviewCreatedByTrustedReviewer = true;
-					break;
+	public Page<Question> getQuestionsPageEvenHidden(User user, PageCursor after, int pageSize) {
+		String sqlQuery = "SELECT " + QUESTION_COLUMNS + " FROM questions WHERE TRUE";
+		return getPage(sqlQuery, "creationTime", "questionID", after, pageSize, this::readQuestion, question -> new PageCursor(question.getCreationTime(), question.getQuestionID()));
+	}
+	
+	/**
+	 * Adds the replies of every question on a page directly underneath their parent question, keeping the hierarchy
+	 * shown by the question ListViews. The cursor of the page is unchanged, so it still points at the last question.
+	 * 
+	 * @param page a page of questions
+	 * @param includeHidden whether hidden replies are included
+	 * @return a Page containing the questions of the page, each followed by its replies
+	 */
+	public Page<Question> addRepliesToPage(Page<Question> page, boolean includeHidden) {
+		if (page.getItems().isEmpty()) {
+			return page;
+		}
+		List<Question> replies = new ArrayList<>();
+		String sqlQuery = "SELECT " + REPLY_COLUMNS + " FROM questionReplies WHERE questionID = ANY(?)" + (includeHidden ? "" : " AND isHidden = FALSE") + " ORDER BY replyID";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
+			Object[] questionIDs = page.getItems().stream().map(Question::getQuestionID).toArray();
+			pstmt.setArray(1, currentConnection().createArrayOf("INTEGER", questionIDs));
+			try (ResultSet rs = pstmt.executeQuery()) {
+				while (rs.next()) {
+					replies.add(readReply(rs));
 				}
 			}
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
 		}
-		return reviewCreatedByTrustedReviewer;		
+		List<QuestionThread> threads = QuestionThread.build(page.getItems(), replies);
+		return new Page<>(QuestionThread.toQuestionsAndReplies(threads), page.getNextCursor(), page.hasMore());
 	}
 	
 	/**
-	 * Retrieves all reviews from the database where the reviewer is on the specified users Trusted Reviewers List.
+	 * Retrieves every question as a QuestionThread holding its replies, answers and the reviews of each answer. Each
+	 * table is read with one query and the threads are assembled in a single pass over the rows.
 	 * 
-	 * @param user the User object for the current user
-	 * @return an ArrayList containing only the reviews submitted by reviewers who have been added to the specified users Trusted Reviewers List
+	 * @param includeHidden whether hidden questions, replies, answers and reviews are included
+	 * @return the threads, ordered by the creationTime and questionID of their questions
 	 */
-	public ArrayList<Review> getOnlyReviewsForTrustedReviewers(User user) {
-		ArrayList<Review> ReviewsByTrustedReviewer = new ArrayList<>();
-		
-		String sqlQuery = "SELECT r.questionID, r.answerID, r.prevReviewID, r.reviewID, r.reviewBody, r.reviewerUserName, r.reviewerFirstName, r.reviewerLastName FROM reviews r " +
-				"INNER JOIN trustedReviewers t ON r.reviewerUserName = t.reviewerUserName WHERE t.studentUserName = ? AND r.isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
-			pstmt.setString(1,user.getUserName());
+	public List<QuestionThread> getQuestionThreads(boolean includeHidden) {
+		String where = includeHidden ? "" : " WHERE isHidden = FALSE";
+		List<Question> questions = new ArrayList<>();
+		List<Question> replies = new ArrayList<>();
+		List<Answer> answers = new ArrayList<>();
+		List<Review> reviews = new ArrayList<>();
+		try (Statement stmt = currentConnection().createStatement()) {
+			try (ResultSet rs = stmt.executeQuery("SELECT " + QUESTION_COLUMNS + " FROM questions" + where + " ORDER BY creationTime, questionID")) {
+				while (rs.next()) {
+					questions.add(readQuestion(rs));
+				}
+			}
+			try (ResultSet rs = stmt.executeQuery("SELECT " + REPLY_COLUMNS + " FROM questionReplies" + where + " ORDER BY replyID")) {
+				while (rs.next()) {
+					replies.add(readReply(rs));
+				}
+			}
+			try (ResultSet rs = stmt.executeQuery("SELECT " + ANSWER_COLUMNS + " FROM answers" + where + " ORDER BY creationTime, answerID")) {
+				while (rs.next()) {
+					answers.add(readAnswer(rs));
+				}
+			}
+			try (ResultSet rs = stmt.executeQuery("SELECT " + REVIEW_COLUMNS + " FROM reviews" + where + " ORDER BY reviewID")) {
+				while (rs.next()) {
+					reviews.add(readReview(rs));
+				}
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return QuestionThread.build(questions, replies, answers, reviews);
+	}
+	
+	/**
+	 * Retrieves one page of the answers which are not hidden, ordered by creationTime and answerID.
+	 * 
+	 * @param user the User object representing the current user
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of answers to return
+	 * @return a Page containing at most pageSize answers
+	 */
+	public Page<Answer> getAnswersPage(User user, PageCursor after, int pageSize) {
+		String sqlQuery = "SELECT " + ANSWER_COLUMNS + " FROM answers WHERE isHidden = FALSE";
+		return getPage(sqlQuery, "creationTime", "answerID", after, pageSize, this::readAnswer, answer -> new PageCursor(answer.getCreationTime(), answer.getAnswerID()));
+	}
+	
+	/**
+	 * Retrieves one page of all answers including hidden ones, ordered by creationTime and answerID, specifically for
+	 * Instructor and Staff Student Interaction View pages.
+	 * 
+	 * @param user the User object representing the current user
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of answers to return
+	 * @return a Page containing at most pageSize answers
+	 */
+	public Page<Answer> getAnswersPageEvenHidden(User user, PageCursor after, int pageSize) {
+		String sqlQuery = "SELECT " + ANSWER_COLUMNS + " FROM answers WHERE TRUE";
+		return getPage(sqlQuery, "creationTime", "answerID", after, pageSize, this::readAnswer, answer -> new PageCursor(answer.getCreationTime(), answer.getAnswerID()));
+	}
+	
+	/**
+	 * Retrieves one page of the reviews which are not hidden, ordered by reviewID since reviews have no creationTime.
+	 * 
+	 * @param user the User object for the current user
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of reviews to return
+	 * @return a Page containing at most pageSize reviews
+	 */
+	public Page<Review> getReviewsPage(User user, PageCursor after, int pageSize) {
+		String sqlQuery = "SELECT " + REVIEW_COLUMNS + " FROM reviews WHERE isHidden = FALSE";
+		return getPage(sqlQuery, null, "reviewID", after, pageSize, this::readReview, review -> new PageCursor(null, review.getReviewID()));
+	}
+	
+	/**
+	 * Retrieves one page of all reviews including hidden ones, ordered by reviewID, specifically for Instructor and
+	 * Staff Student Interaction View pages.
+	 * 
+	 * @param user the User object for the current user
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of reviews to return
+	 * @return a Page containing at most pageSize reviews
+	 */
+	public Page<Review> getReviewsPageEvenHidden(User user, PageCursor after, int pageSize) {
+		String sqlQuery = "SELECT " + REVIEW_COLUMNS + " FROM reviews WHERE TRUE";
+		return getPage(sqlQuery, null, "reviewID", after, pageSize, this::readReview, review -> new PageCursor(null, review.getReviewID()));
+	}
+	
+	/**
+	 * Retrieves a single question with every column, used to refresh one row of a list after a ChangeEvent.
+	 * 
+	 * @param questionID the questionID of the question
+	 * @param includeHidden whether a hidden question is returned
+	 * @return the Question, or null if it does not exist or is hidden and includeHidden is false
+	 */
+	public Question getQuestionRow(int questionID, boolean includeHidden) {
+		return getRow("SELECT " + QUESTION_COLUMNS + " FROM questions WHERE questionID = ?", questionID, includeHidden, this::readQuestion);
+	}
+	
+	/**
+	 * Retrieves a single question reply with every column, used to refresh one row of a list after a ChangeEvent.
+	 * 
+	 * @param replyID the replyID of the reply
+	 * @param includeHidden whether a hidden reply is returned
+	 * @return the reply, or null if it does not exist or is hidden and includeHidden is false
+	 */
+	public Question getReplyRow(int replyID, boolean includeHidden) {
+		return getRow("SELECT " + REPLY_COLUMNS + " FROM questionReplies WHERE replyID = ?", replyID, includeHidden, this::readReply);
+	}
+	
+	/**
+	 * Retrieves a single answer with every column, used to refresh one row of a list after a ChangeEvent.
+	 * 
+	 * @param answerID the answerID of the answer
+	 * @param includeHidden whether a hidden answer is returned
+	 * @return the Answer, or null if it does not exist or is hidden and includeHidden is false
+	 */
+	public Answer getAnswerRow(int answerID, boolean includeHidden) {
+		return getRow("SELECT " + ANSWER_COLUMNS + " FROM answers WHERE answerID = ?", answerID, includeHidden, this::readAnswer);
+	}
+	
+	/**
+	 * Retrieves a single review with every column, used to refresh one row of a list after a ChangeEvent.
+	 * 
+	 * @param reviewID the reviewID of the review
+	 * @param includeHidden whether a hidden review is returned
+	 * @return the Review, or null if it does not exist or is hidden and includeHidden is false
+	 */
+	public Review getReviewRow(int reviewID, boolean includeHidden) {
+		return getRow("SELECT " + REVIEW_COLUMNS + " FROM reviews WHERE reviewID = ?", reviewID, includeHidden, this::readReview);
+	}
+	
+	/**
+	 * Runs a query selecting a single row by its primary key.
+	 * 
+	 * @param <T> the type of the row
+	 * @param sqlQuery the SELECT statement with the primary key as its only parameter
+	 * @param id the primary key
+	 * @param includeHidden whether the row is returned when its isHidden column is set
+	 * @param reader converts the row into an object
+	 * @return the row, or null if it does not exist or is hidden and includeHidden is false
+	 */
+	private <T> T getRow(String sqlQuery, int id, boolean includeHidden, RowReader<T> reader) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery + (includeHidden ? "" : " AND isHidden = FALSE"))) {
+			pstmt.setInt(1, id);
+			try (ResultSet rs = pstmt.executeQuery()) {
+				if (rs.next()) {
+					return reader.read(rs);
+				}
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+	
+	/**
+	 * Searches the questions, replies, answers and reviews for posts containing every word of the query, using the
+	 * in-memory SearchIndex instead of scanning the text of every post. The index is loaded from the database by the
+	 * first search, so call this from a worker thread.
+	 * 
+	 * @param query the words to search for; the last word may be incomplete
+	 * @param entities the kinds of post to return: QUESTION, REPLY, ANSWER and/or REVIEW
+	 * @return the matching posts, most relevant first, including hidden posts
+	 */
+	public List<SearchIndex.Hit> search(String query, Set<ChangeEvent.Entity> entities) {
+		loadSearchIndex();
+		return searchIndex.search(query, entities);
+	}
+	
+	/**
+	 * Searches the questions, replies, answers and reviews for the posts whose words are most similar to the words of
+	 * the query, so misspelled terms and names still find posts. Use this when {@link #search(String, Set)} finds
+	 * nothing. Call this from a worker thread, as the first search loads the index.
+	 * 
+	 * @param query the words to search for
+	 * @param entities the kinds of post to return: QUESTION, REPLY, ANSWER and/or REVIEW
+	 * @param limit the most posts to return
+	 * @return at most limit posts, most relevant first, including hidden posts
+	 */
+	public List<SearchIndex.Hit> fuzzySearch(String query, Set<ChangeEvent.Entity> entities, int limit) {
+		loadSearchIndex();
+		return searchIndex.fuzzySearch(query, entities, limit);
+	}
+	
+	/**
+	 * Returns the SELECT statement which reads the searchable text of one kind of post, with the columns renamed to
+	 * id, questionID, title, body, firstName and lastName.
+	 * 
+	 * @param entity QUESTION, REPLY, ANSWER or REVIEW
+	 * @return the SELECT statement, without a WHERE clause
+	 */
+	private static String searchableTextQuery(ChangeEvent.Entity entity) {
+		switch (entity) {
+			case QUESTION:
+				return "SELECT questionID AS id, questionID, questionTitle AS title, questionBody AS body, studentFirstName AS firstName, studentLastName AS lastName FROM questions";
+			case REPLY:
+				return "SELECT replyID AS id, questionID, NULL AS title, questionReplyText AS body, studentFirstName AS firstName, studentLastName AS lastName FROM questionReplies";
+			case ANSWER:
+				return "SELECT answerID AS id, questionID, NULL AS title, answerText AS body, studentFirstName AS firstName, studentLastName AS lastName FROM answers";
+			case REVIEW:
+				return "SELECT reviewID AS id, questionID, NULL AS title, reviewBody AS body, reviewerFirstName AS firstName, reviewerLastName AS lastName FROM reviews";
+			default:
+				throw new IllegalArgumentException("No searchable text for " + entity);
+		}
+	}
+	
+	/**
+	 * Loads every question, reply, answer and review into the SearchIndex, unless it is already loaded.
+	 */
+	private void loadSearchIndex() {
+		if (searchIndexLoaded) {
+			return;
+		}
+		synchronized (searchIndexLock) {
+			if (searchIndexLoaded) {
+				return;
+			}
+			searchIndex.clear();
+			// Set first so posts changed while the tables are being read are applied as well
+			searchIndexLoaded = true;
+			for (ChangeEvent.Entity entity : EnumSet.of(ChangeEvent.Entity.QUESTION, ChangeEvent.Entity.REPLY, ChangeEvent.Entity.ANSWER, ChangeEvent.Entity.REVIEW)) {
+				try (PreparedStatement pstmt = currentConnection().prepareStatement(searchableTextQuery(entity));
+						ResultSet rs = pstmt.executeQuery()) {
+					while (rs.next()) {
+						putSearchableText(entity, rs);
+					}
+				}
+				catch (SQLException e) {
+					e.printStackTrace();
+					searchIndexLoaded = false;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Applies a ChangeEvent to the SearchIndex by reading the changed post again. A change to many rows at once
+	 * unloads the index so the next search loads it again.
+	 * 
+	 * @param event the event
+	 */
+	private void updateSearchIndex(ChangeEvent event) {
+		if (!searchIndexLoaded) {
+			return;
+		}
+		if (event.affectsAllRows()) {
+			searchIndexLoaded = false;
+			return;
+		}
+		if (event.getKind() == ChangeEvent.Kind.DELETED) {
+			searchIndex.remove(event.getEntity(), event.getId());
+			return;
+		}
+		String idColumn = event.getEntity() == ChangeEvent.Entity.QUESTION ? "questionID" : event.getEntity() == ChangeEvent.Entity.REPLY ? "replyID"
+				: event.getEntity() == ChangeEvent.Entity.ANSWER ? "answerID" : "reviewID";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(searchableTextQuery(event.getEntity()) + " WHERE " + idColumn + " = ?")) {
+			pstmt.setInt(1, event.getId());
+			try (ResultSet rs = pstmt.executeQuery()) {
+				if (rs.next()) {
+					putSearchableText(event.getEntity(), rs);
+				}
+				else {
+					searchIndex.remove(event.getEntity(), event.getId());
+				}
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Adds the current row of a searchableTextQuery() result to the SearchIndex.
+	 * 
+	 * @param entity the kind of post
+	 * @param rs the result, positioned on the row
+	 * @throws SQLException if the row cannot be read
+	 */
+	private void putSearchableText(ChangeEvent.Entity entity, ResultSet rs) throws SQLException {
+		searchIndex.put(entity, rs.getInt("id"), rs.getInt("questionID"), rs.getString("title"), rs.getString("body"),
+				rs.getString("firstName"), rs.getString("lastName"));
+	}
+	
+	/**
+	 * Returns the question and answer counts shown by the summary report, which are kept up to date as questions and
+	 * answers change. The counts are loaded from the database on first use, so call this from a worker thread.
+	 * 
+	 * @return the QAStatistics of the questions and answers which are not hidden
+	 */
+	public QAStatistics getStatistics() {
+		if (!statisticsLoaded) {
+			synchronized (statisticsLock) {
+				if (!statisticsLoaded) {
+					statistics.clear();
+					// Set first so rows changed while the tables are being read are applied as well
+					statisticsLoaded = true;
+					try (Statement stmt = currentConnection().createStatement()) {
+						try (ResultSet rs = stmt.executeQuery("SELECT questionID, isResolved, isHidden, creationTime FROM questions")) {
+							while (rs.next()) {
+								putQuestionStatistics(rs);
+							}
+						}
+						try (ResultSet rs = stmt.executeQuery("SELECT answerID, questionID, isHidden, creationTime FROM answers")) {
+							while (rs.next()) {
+								putAnswerStatistics(rs);
+							}
+						}
+					}
+					catch (SQLException e) {
+						e.printStackTrace();
+						statisticsLoaded = false;
+					}
+				}
+			}
+		}
+		return statistics;
+	}
+	
+	/**
+	 * Applies a ChangeEvent for a question or answer to the QAStatistics by reading the changed row again. A change
+	 * to many rows at once unloads the statistics so they are loaded again on next use.
+	 * 
+	 * @param event the event
+	 */
+	private void updateStatistics(ChangeEvent event) {
+		if (!statisticsLoaded) {
+			return;
+		}
+		if (event.affectsAllRows()) {
+			statisticsLoaded = false;
+			return;
+		}
+		boolean question = event.getEntity() == ChangeEvent.Entity.QUESTION;
+		String sqlQuery = question ? "SELECT questionID, isResolved, isHidden, creationTime FROM questions WHERE questionID = ?"
+				: "SELECT answerID, questionID, isHidden, creationTime FROM answers WHERE answerID = ?";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
+			pstmt.setInt(1, event.getId());
+			try (ResultSet rs = pstmt.executeQuery()) {
+				if (rs.next()) {
+					if (question) {
+						putQuestionStatistics(rs);
+					}
+					else {
+						putAnswerStatistics(rs);
+					}
+				}
+				else if (question) {
+					statistics.removeQuestion(event.getId());
+				}
+				else {
+					statistics.removeAnswer(event.getId());
+				}
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Counts the current row of a questions ResultSet in the QAStatistics.
+	 * 
+	 * @param rs a ResultSet with the questionID, isResolved, isHidden and creationTime columns
+	 * @throws SQLException if a column cannot be read
+	 */
+	private void putQuestionStatistics(ResultSet rs) throws SQLException {
+		Timestamp creationTime = rs.getTimestamp("creationTime");
+		statistics.putQuestion(rs.getInt("questionID"), rs.getBoolean("isResolved"), rs.getBoolean("isHidden"),
+				creationTime == null ? null : creationTime.toLocalDateTime());
+	}
+	
+	/**
+	 * Counts the current row of an answers ResultSet in the QAStatistics.
+	 * 
+	 * @param rs a ResultSet with the answerID, questionID, isHidden and creationTime columns
+	 * @throws SQLException if a column cannot be read
+	 */
+	private void putAnswerStatistics(ResultSet rs) throws SQLException {
+		Timestamp creationTime = rs.getTimestamp("creationTime");
+		statistics.putAnswer(rs.getInt("answerID"), rs.getInt("questionID"), rs.getBoolean("isHidden"),
+				creationTime == null ? null : creationTime.toLocalDateTime());
+	}
+	
+	/**
+	 * Retrieves one page of a user's inbox from the unified messages table, newest first, with a single indexed
+	 * query whichever messaging features are included.
+	 * 
+	 * @param recipient the recipient's userName
+	 * @param sources the messaging features to include
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of messages to return
+	 * @return a Page containing at most pageSize messages; empty if the messages cannot be read
+	 */
+	public Page<InboxMessage> getInboxPage(String recipient, Set<InboxMessage.Source> sources, PageCursor after, int pageSize) {
+		try {
+			return messageStore.getInboxPage(recipient, sources, after, pageSize);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return new Page<>(new ArrayList<>(), null, false);
+		}
+	}
+	
+	/**
+	 * Retrieves one page of the messages a user has sent from the unified messages table, newest first.
+	 * 
+	 * @param sender the sender's userName
+	 * @param sources the messaging features to include
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of messages to return
+	 * @return a Page containing at most pageSize messages; empty if the messages cannot be read
+	 */
+	public Page<InboxMessage> getSentMessagesPage(String sender, Set<InboxMessage.Source> sources, PageCursor after, int pageSize) {
+		try {
+			return messageStore.getSentPage(sender, sources, after, pageSize);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return new Page<>(new ArrayList<>(), null, false);
+		}
+	}
+	
+	/**
+	 * Counts the unread messages in a user's inbox from the UnreadCounters, without reading the database once they
+	 * are loaded.
+	 * 
+	 * @param recipient the recipient's userName
+	 * @param sources the messaging features to include
+	 * @return the number of unread messages; 0 if they cannot be counted
+	 */
+	public int countUnreadMessages(String recipient, Set<InboxMessage.Source> sources) {
+		return getUnreadCounters().getUnread(recipient, sources);
+	}
+	
+	/**
+	 * Returns the unread private message counts of every user, which are kept up to date as messages are sent, read
+	 * and deleted. The counts are loaded from the database with one query on first use, so call this from a worker
+	 * thread the first time.
+	 * 
+	 * @return the UnreadCounters
+	 */
+	public UnreadCounters getUnreadCounters() {
+		if (!unreadCountersLoaded) {
+			synchronized (unreadCountersLock) {
+				if (!unreadCountersLoaded) {
+					unreadCounters.clear();
+					// Set first so messages changed while the table is being read are applied as well
+					unreadCountersLoaded = true;
+					try {
+						messageStore.loadUnread(unreadCounters);
+					}
+					catch (SQLException e) {
+						e.printStackTrace();
+						unreadCountersLoaded = false;
+					}
+				}
+			}
+		}
+		return unreadCounters;
+	}
+	
+	/**
+	 * Applies a ChangeEvent for a private message to the UnreadCounters by reading its copy in the messages table
+	 * again. A change to many messages at once, or a message which cannot be read, unloads the counters so they are
+	 * loaded again on next use instead of drifting from the table.
+	 * 
+	 * @param event the event
+	 */
+	private void updateUnreadCounters(ChangeEvent event) {
+		if (!unreadCountersLoaded) {
+			return;
+		}
+		if (event.affectsAllRows()) {
+			unreadCountersLoaded = false;
+			return;
+		}
+		try {
+			messageStore.updateUnread(unreadCounters, MessageStore.sourceOf(event.getEntity()), event.getId());
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			unreadCountersLoaded = false;
+		}
+	}
+	
+	/**
+	 * Retrieves one private message by the messageID of its row in the table of the feature it was sent through.
+	 * 
+	 * @param source the messaging feature the message was sent through
+	 * @param messageID the messageID in that feature's table
+	 * @return the message, or null if it does not exist or cannot be read
+	 */
+	public InboxMessage getMessage(InboxMessage.Source source, int messageID) {
+		try {
+			return messageStore.getMessage(source, messageID);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	/**
+	 * Marks private messages as read by messageID, with one statement for the whole batch.
+	 * 
+	 * @param source the messaging feature the messages were sent through
+	 * @param messageIDs the messageIDs in that feature's table
+	 * @return the number of messages updated
+	 */
+	public int markMessagesRead(InboxMessage.Source source, Collection<Integer> messageIDs) {
+		try {
+			int updated = messageStore.markRead(source, messageIDs);
+			currentConnection().commit();
+			publishMessages(source, messageIDs);
+			return updated;
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return 0;
+		}
+	}
+	
+	/**
+	 * Marks private messages between students, or between students and reviewers, as flagged by messageID, with one
+	 * statement for the whole batch.
+	 * 
+	 * @param source the messaging feature the messages were sent through, STUDENT or REVIEWER
+	 * @param messageIDs the messageIDs in that feature's table
+	 * @param reasonIsFlagged the user defined reason the messages are flagged
+	 * @return the number of messages updated
+	 */
+	public int markMessagesFlagged(InboxMessage.Source source, Collection<Integer> messageIDs, String reasonIsFlagged) {
+		return setMessagesFlagged(source, messageIDs, true, reasonIsFlagged);
+	}
+	
+	/**
+	 * Clears the flag and flag reason of private messages by messageID, with one statement for the whole batch.
+	 * 
+	 * @param source the messaging feature the messages were sent through, STUDENT or REVIEWER
+	 * @param messageIDs the messageIDs in that feature's table
+	 * @return the number of messages updated
+	 */
+	public int clearMessageFlags(InboxMessage.Source source, Collection<Integer> messageIDs) {
+		return setMessagesFlagged(source, messageIDs, false, null);
+	}
+	
+	/**
+	 * Retrieves all private messages received by a student, from other students and from reviewers, newest first.
+	 * 
+	 * @param studentUserName the student's userName
+	 * @return the messages; empty if they cannot be read
+	 */
+	public List<InboxMessage> getStudentInbox(String studentUserName) {
+		try {
+			return getAllMessages(false, studentUserName, STUDENT_AND_REVIEWER_MESSAGES);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return new ArrayList<>();
+		}
+	}
+	
+	/**
+	 * Retrieves all private messages sent by a student to other students and to reviewers, newest first.
+	 * 
+	 * @param studentUserName the student's userName
+	 * @return the messages; empty if they cannot be read
+	 */
+	public List<InboxMessage> getStudentSentMessages(String studentUserName) {
+		try {
+			return getAllMessages(true, studentUserName, STUDENT_AND_REVIEWER_MESSAGES);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return new ArrayList<>();
+		}
+	}
+	
+	/**
+	 * Retrieves every private message sent through one messaging feature, newest first, for lists which format each
+	 * message only when it is shown.
+	 * 
+	 * @param source the messaging feature
+	 * @param flaggedOnly true to retrieve only the flagged messages
+	 * @return the messages
+	 * @throws SQLException if the messages cannot be read
+	 */
+	public List<InboxMessage> getMessagesBySource(InboxMessage.Source source, boolean flaggedOnly) throws SQLException {
+		return messageStore.getMessages(source, flaggedOnly);
+	}
+	
+	/**
+	 * Retrieves all the private messages sent from a Student user to another Student user, with their messageIDs and
+	 * flags.
+	 * 
+	 * @return the messages, oldest first; empty if they cannot be read
+	 */
+	public List<InboxMessage> getMessagesBetweenStudents() {
+		try {
+			return messageStore.getMessagesTo(InboxMessage.Source.STUDENT, STUDENT_USERS);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return new ArrayList<>();
+		}
+	}
+	
+	/**
+	 * Retrieves all the private messages sent from Student users to Reviewer users followed by those sent from
+	 * Reviewer users to Student users, with their messageIDs and flags.
+	 * 
+	 * @return the messages; empty if they cannot be read
+	 */
+	public List<InboxMessage> getMessagesBetweenReviewersAndStudents() {
+		List<InboxMessage> messages = new ArrayList<>();
+		try {
+			messages.addAll(messageStore.getMessagesTo(InboxMessage.Source.STUDENT, REVIEWER_USERS));
+			messages.addAll(messageStore.getMessagesTo(InboxMessage.Source.REVIEWER, STUDENT_USERS));
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return messages;
+	}
+	
+	/**
+	 * Flags or clears the flag of private messages by messageID and publishes the change of each.
+	 * 
+	 * @param source the messaging feature the messages were sent through, STUDENT or REVIEWER
+	 * @param messageIDs the messageIDs in that feature's table
+	 * @param isFlagged true to flag the messages, false to clear their flag
+	 * @param reasonIsFlagged the reason, or null when clearing
+	 * @return the number of messages updated
+	 */
+	private int setMessagesFlagged(InboxMessage.Source source, Collection<Integer> messageIDs, boolean isFlagged, String reasonIsFlagged) {
+		try {
+			int updated = messageStore.setFlagged(source, messageIDs, isFlagged, reasonIsFlagged);
+			currentConnection().commit();
+			publishMessages(source, messageIDs);
+			return updated;
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return 0;
+		}
+	}
+	
+	/**
+	 * Publishes an update of each of a batch of private messages, so only their rows are copied into the unified
+	 * messages table.
+	 * 
+	 * @param source the messaging feature the messages were sent through
+	 * @param messageIDs the messageIDs in that feature's table
+	 */
+	private void publishMessages(InboxMessage.Source source, Collection<Integer> messageIDs) {
+		ChangeEvent.Entity entity = MessageStore.entityOf(source);
+		for (int messageID : messageIDs) {
+			publish(entity, ChangeEvent.Kind.UPDATED, messageID);
+		}
+	}
+	
+	/**
+	 * Finds private messages by their recipient, sender, subject and body, for the methods which identify a message
+	 * by its text.
+	 * 
+	 * @param source the messaging feature the message was sent through
+	 * @param receiverUserName the recipient's userName
+	 * @param senderUserName the sender's userName
+	 * @param messageSubject the subject
+	 * @param messageBody the message body
+	 * @return the messageIDs of the matching messages; empty if none match or they cannot be read
+	 */
+	private List<Integer> findMessageIDs(InboxMessage.Source source, String receiverUserName, String senderUserName, String messageSubject, String messageBody) {
+		try {
+			return messageStore.findSourceIDs(source, receiverUserName, senderUserName, messageSubject, messageBody);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return new ArrayList<>();
+		}
+	}
+	
+	/**
+	 * Reads every page of an inbox or of a user's sent messages.
+	 * 
+	 * @param sent true for the messages the user sent, false for the user's inbox
+	 * @param userName the user's userName
+	 * @param sources the messaging features to include
+	 * @return the messages, newest first
+	 * @throws SQLException if the messages cannot be read
+	 */
+	private List<InboxMessage> getAllMessages(boolean sent, String userName, Set<InboxMessage.Source> sources) throws SQLException {
+		List<InboxMessage> messages = new ArrayList<>();
+		PageCursor after = null;
+		Page<InboxMessage> page;
+		do {
+			page = sent ? messageStore.getSentPage(userName, sources, after, MESSAGE_PAGE_SIZE) : messageStore.getInboxPage(userName, sources, after, MESSAGE_PAGE_SIZE);
+			messages.addAll(page.getItems());
+			after = page.getNextCursor();
+		} while (page.hasMore());
+		return messages;
+	}
+	
+	/**
+	 * Returns the scorecard of every reviewer, recomputing only the scorecards whose reviews, reviewed answers,
+	 * trusted reviewer weights or feedback messages have changed since the last call. The first call loads every
+	 * reviewer, so call this from a worker thread.
+	 * 
+	 * @return the scorecards, by descending score; empty if they cannot be loaded
+	 */
+	public List<ReviewerScorecards.Scorecard> getReviewerScorecards() {
+		try {
+			return reviewerScorecards.refresh(scorecardSource);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return reviewerScorecards.getScorecards();
+		}
+	}
+	
+	/**
+	 * Reads the inputs of the reviewer scorecards, one query per table for any number of reviewers.
+	 */
+	private final ReviewerScorecards.ActivitySource scorecardSource = new ReviewerScorecards.ActivitySource() {
+		
+		/**
+		 * Lists the users holding the Reviewer role.
+		 * 
+		 * @return the reviewer userNames
+		 * @throws SQLException if the users cannot be read
+		 */
+		@Override
+		public Set<String> loadReviewerUserNames() throws SQLException {
+			return loadUserNames(REVIEWER_USERS);
+		}
+		
+		/**
+		 * Lists everyone who has written a review.
+		 * 
+		 * @return the review authors' userNames
+		 * @throws SQLException if the reviews cannot be read
+		 */
+		@Override
+		public Set<String> loadReviewAuthorUserNames() throws SQLException {
+			return loadUserNames("SELECT DISTINCT reviewerUserName FROM reviews WHERE reviewerUserName IS NOT NULL");
+		}
+		
+		/**
+		 * Runs a query selecting userNames.
+		 * 
+		 * @param sqlQuery the query, selecting the userName as its only column
+		 * @return the userNames
+		 * @throws SQLException if the query fails
+		 */
+		private Set<String> loadUserNames(String sqlQuery) throws SQLException {
+			Set<String> userNames = new HashSet<>();
+			try (Statement stmt = currentConnection().createStatement(); ResultSet rs = stmt.executeQuery(sqlQuery)) {
+				while (rs.next()) {
+					userNames.add(rs.getString(1));
+				}
+			}
+			return userNames;
+		}
+		
+		/**
+		 * Reads the reviews with the outcome of the reviewed answer, the trust weights and the feedback messages of
+		 * some reviewers.
+		 * 
+		 * @param reviewerUserNames the reviewers
+		 * @return the inputs keyed by reviewer userName
+		 * @throws SQLException if the inputs cannot be read
+		 */
+		@Override
+		public Map<String, ReviewerScorecards.ReviewerActivity> loadActivity(Set<String> reviewerUserNames) throws SQLException {
+			Map<String, ReviewerScorecards.ReviewerActivity> activities = new HashMap<>();
+			Connection conn = currentConnection();
+			Array names = conn.createArrayOf("VARCHAR", reviewerUserNames.toArray());
+			String reviewsQuery = "SELECT r.reviewID, r.answerID, r.reviewerUserName, r.isHidden, r.isFlagged, a.isResolved FROM reviews r "
+					+ "LEFT JOIN answers a ON a.answerID = r.answerID WHERE r.reviewerUserName = ANY(?)";
+			try (PreparedStatement pstmt = conn.prepareStatement(reviewsQuery)) {
+				pstmt.setArray(1, names);
+				try (ResultSet rs = pstmt.executeQuery()) {
+					while (rs.next()) {
+						activities.computeIfAbsent(rs.getString("reviewerUserName"), reviewer -> new ReviewerScorecards.ReviewerActivity())
+								.addReview(rs.getInt("reviewID"), rs.getInt("answerID"), rs.getBoolean("isResolved"), rs.getBoolean("isHidden"), rs.getBoolean("isFlagged"));
+					}
+				}
+			}
+			try (PreparedStatement pstmt = conn.prepareStatement("SELECT reviewerUserName, weight FROM trustedReviewers WHERE reviewerUserName = ANY(?)")) {
+				pstmt.setArray(1, names);
+				try (ResultSet rs = pstmt.executeQuery()) {
+					while (rs.next()) {
+						activities.computeIfAbsent(rs.getString("reviewerUserName"), reviewer -> new ReviewerScorecards.ReviewerActivity())
+								.addTrust(rs.getInt("weight"));
+					}
+				}
+			}
+			// Feedback is what others sent the reviewer about a review, not the reviewer's own replies
+			String feedbackQuery = "SELECT m.messageID, r.reviewerUserName FROM reviewerMessages m INNER JOIN reviews r ON m.reviewID = r.reviewID "
+					+ "WHERE r.reviewerUserName = ANY(?) AND m.recipient = r.reviewerUserName AND m.sender <> r.reviewerUserName";
+			try (PreparedStatement pstmt = conn.prepareStatement(feedbackQuery)) {
+				pstmt.setArray(1, names);
+				try (ResultSet rs = pstmt.executeQuery()) {
+					while (rs.next()) {
+						activities.computeIfAbsent(rs.getString("reviewerUserName"), reviewer -> new ReviewerScorecards.ReviewerActivity())
+								.addFeedback(rs.getInt("messageID"));
+					}
+				}
+			}
+			return activities;
+		}
+	};
+	
+	/**
+	 * Marks the reviewer scorecards affected by a ChangeEvent as out of date: the author of a changed review, the
+	 * reviewers of a changed answer, the reviewer a feedback message was about, or a user whose roles changed. The
+	 * previous author or reviewer is taken from the cached scorecard inputs and the current one is read from the
+	 * changed row. A deleted user is not known by id, so it marks every scorecard.
+	 * 
+	 * @param event the event
+	 */
+	private void markScorecardsChanged(ChangeEvent event) {
+		if (reviewerScorecards.isAllChanged()) {
+			return;
+		}
+		if (event.affectsAllRows()) {
+			reviewerScorecards.markAllChanged();
+			return;
+		}
+		String sqlQuery;
+		switch (event.getEntity()) {
+			case USER:
+				updateReviewerRole(event);
+				return;
+			case ANSWER:
+				// A new review of the answer arrives as its own REVIEW event
+				reviewerScorecards.markAnswerChanged(event.getId());
+				return;
+			case REVIEW:
+				reviewerScorecards.markReviewChanged(event.getId());
+				sqlQuery = "SELECT reviewerUserName FROM reviews WHERE reviewID = ?";
+				break;
+			default:
+				reviewerScorecards.markFeedbackChanged(event.getId());
+				sqlQuery = "SELECT r.reviewerUserName FROM reviewerMessages m INNER JOIN reviews r ON m.reviewID = r.reviewID WHERE m.messageID = ?";
+				break;
+		}
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
+			pstmt.setInt(1, event.getId());
+			try (ResultSet rs = pstmt.executeQuery()) {
+				if (rs.next()) {
+					reviewerScorecards.markReviewerChanged(rs.getString(1));
+				}
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			reviewerScorecards.markAllChanged();
+		}
+	}
+	
+	/**
+	 * Records whether the user of a USER ChangeEvent holds the Reviewer role, for the reviewer scorecards.
+	 * 
+	 * @param event the event
+	 */
+	private void updateReviewerRole(ChangeEvent event) {
+		if (event.getKind() == ChangeEvent.Kind.DELETED) {
+			reviewerScorecards.markAllChanged();
+			return;
+		}
+		try (PreparedStatement pstmt = currentConnection().prepareStatement("SELECT userName, roleMask FROM cse360users WHERE id = ?")) {
+			pstmt.setInt(1, event.getId());
+			try (ResultSet rs = pstmt.executeQuery()) {
+				if (rs.next()) {
+					reviewerScorecards.setReviewerRole(rs.getString("userName"), Role.fromMask(rs.getInt("roleMask")).contains(Role.REVIEWER));
+				}
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			reviewerScorecards.markAllChanged();
+		}
+	}
+	
+	/**
+	 * Runs a keyset paginated query. The rows after the cursor are selected with a condition on the sort columns
+	 * instead of an OFFSET, so every page costs the same no matter how far the user has scrolled. One extra row is
+	 * requested to find out whether another page follows.
+	 * 
+	 * @param <T> the type of the rows
+	 * @param selectWhere the SELECT statement up to and including its WHERE condition, without ORDER BY
+	 * @param timeColumn the creationTime column to order by first, or null to order by the ID column alone
+	 * @param idColumn the primary key column
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of rows to return
+	 * @param reader converts the current row of the ResultSet into an object
+	 * @param cursorOf creates the cursor positioned at an object
+	 * @return a Page containing at most pageSize rows
+	 */
+	private <T> Page<T> getPage(String selectWhere, String timeColumn, String idColumn, PageCursor after, int pageSize,
+			RowReader<T> reader, Function<T, PageCursor> cursorOf) {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("pageSize must be at least 1");
+		}
+		StringBuilder sqlQuery = new StringBuilder(selectWhere);
+		boolean timeKeyed = after != null && timeColumn != null && after.getCreationTime() != null;
+		if (after != null) {
+			if (timeColumn == null) {
+				sqlQuery.append(" AND ").append(idColumn).append(" > ?");
+			}
+			else if (timeKeyed) {
+				sqlQuery.append(" AND (").append(timeColumn).append(" > ? OR (").append(timeColumn).append(" = ? AND ").append(idColumn).append(" > ?))");
+			}
+			else {
+				// H2 sorts NULL first, so a cursor on a row without a creationTime is followed by the remaining NULL rows and then every dated row
+				sqlQuery.append(" AND (").append(timeColumn).append(" IS NOT NULL OR ").append(idColumn).append(" > ?)");
+			}
+		}
+		sqlQuery.append(" ORDER BY ");
+		if (timeColumn != null) {
+			sqlQuery.append(timeColumn).append(", ");
+		}
+		sqlQuery.append(idColumn).append(" LIMIT ?");
+		
+		ArrayList<T> items = new ArrayList<>();
+		boolean hasMore = false;
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery.toString())) {
+			int index = 1;
+			if (timeKeyed) {
+				Timestamp creationTime = Timestamp.valueOf(after.getCreationTime());
+				pstmt.setTimestamp(index++, creationTime);
+				pstmt.setTimestamp(index++, creationTime);
+			}
+			if (after != null) {
+				pstmt.setInt(index++, after.getId());
+			}
+			pstmt.setInt(index, pageSize + 1);
+			try (ResultSet rs = pstmt.executeQuery()) {
+				while (rs.next()) {
+					if (items.size() == pageSize) {
+						hasMore = true;
+						break;
+					}
+					items.add(reader.read(rs));
+				}
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+		PageCursor nextCursor = items.isEmpty() ? after : cursorOf.apply(items.get(items.size() - 1));
+		return new Page<>(items, nextCursor, hasMore);
+	}
+	
+	/**
+	 * Converts the current row of a questions ResultSet into a Question.
+	 * 
+	 * @param rs a ResultSet positioned on a row of the questions table
+	 * @return the Question
+	 * @throws SQLException if a column cannot be read
+	 */
+	private Question readQuestion(ResultSet rs) throws SQLException {
+		Timestamp creationTime = rs.getTimestamp("creationTime");
+		return new Question(rs.getInt("questionID"), rs.getString("studentUserName"), rs.getString("studentFirstName"), rs.getString("studentLastName"),
+				rs.getString("questionTitle"), rs.getString("questionBody"), rs.getBoolean("isResolved"), creationTime == null ? null : creationTime.toLocalDateTime(),
+				rs.getBoolean("isFlagged"), rs.getString("reasonIsFlagged"), rs.getBoolean("isHidden"));
+	}
+	
+	/**
+	 * Converts the current row of a questionReplies ResultSet into a Question representing the reply.
+	 * 
+	 * @param rs a ResultSet positioned on a row of the questionReplies table
+	 * @return the reply
+	 * @throws SQLException if a column cannot be read
+	 */
+	private Question readReply(ResultSet rs) throws SQLException {
+		return new Question(rs.getInt("replyID"), rs.getInt("questionID"), rs.getString("studentUserName"), rs.getString("studentFirstName"),
+				rs.getString("studentLastName"), rs.getString("questionReplyText"), rs.getString("replyingTo"), rs.getBoolean("isFlagged"),
+				rs.getString("reasonIsFlagged"), rs.getBoolean("isHidden"));
+	}
+	
+	/**
+	 * Converts the current row of an answers ResultSet into an Answer.
+	 * 
+	 * @param rs a ResultSet positioned on a row of the answers table
+	 * @return the Answer
+	 * @throws SQLException if a column cannot be read
+	 */
+	private Answer readAnswer(ResultSet rs) throws SQLException {
+		Timestamp creationTime = rs.getTimestamp("creationTime");
+		return new Answer(rs.getInt("answerID"), rs.getInt("questionID"), rs.getString("studentUserName"), rs.getString("studentFirstName"), rs.getString("studentLastName"),
+				rs.getString("answerText"), rs.getBoolean("isAnswerUnread"), rs.getBoolean("isResolved"), creationTime == null ? null : creationTime.toLocalDateTime(),
+				rs.getBoolean("isFlagged"), rs.getString("reasonIsFlagged"), rs.getBoolean("isHidden"));
+	}
+	
+	/**
+	 * Converts the current row of a reviews ResultSet into a Review.
+	 * 
+	 * @param rs a ResultSet positioned on a row of the reviews table
+	 * @return the Review
+	 * @throws SQLException if a column cannot be read
+	 */
+	private Review readReview(ResultSet rs) throws SQLException {
+		return new Review(rs.getInt("questionID"), rs.getInt("answerID"), rs.getInt("prevReviewID"), rs.getInt("reviewID"), rs.getString("reviewBody"),
+				rs.getString("reviewerUserName"), rs.getString("reviewerFirstName"), rs.getString("reviewerLastName"), rs.getBoolean("isFlagged"),
+				rs.getString("reasonIsFlagged"), rs.getBoolean("isHidden"));
+	}
+	
+	/**
+	 * Converts the current row of a ResultSet into an object, used by the paginated queries.
+	 * 
+	 * @param <T> the type of the object
+	 */
+	@FunctionalInterface
+	private interface RowReader<T> {
+		
+		/**
+		 * Converts the current row.
+		 * 
+		 * @param rs a ResultSet positioned on a row
+		 * @return the object
+		 * @throws SQLException if a column cannot be read
+		 */
+		T read(ResultSet rs) throws SQLException;
+	}
+	
+	/**
+	 * Confirms if a specified review was created by a Trusted Reviewer of the specified user. The user's Trusted
+	 * Reviewers List is loaded once and kept in memory, so this is a hash lookup even when called by the CellFactory
+	 * for every review displayed.
+	 * 
+	 * @param review the Review object of the review being parsed by the CellFactory
+	 * @param user the User object for the current user
+	 * @return true or false based on whether the specified review was submitted by a Trusted Reviewer of the specified user
+	 */
+	public boolean checkIfReviewCreatedByTrustedReviewer(Review review, User user) {
+		return trustedReviewerCache.isTrusted(user.getUserName(), review.getReviewerUserName());
+	}
+	
+	/**
+	 * Retrieves the Trusted Reviewers List of the specified user with the weight assigned to each reviewer, from the
+	 * in-memory copy of the list.
+	 * 
+	 * @param user the User object for the current user
+	 * @return an unmodifiable map from reviewer userName to weight
+	 */
+	public Map<String, Integer> getTrustedReviewerWeights(User user) {
+		return trustedReviewerCache.getWeights(user.getUserName());
+	}
+	
+	/**
+	 * Discards every in-memory Trusted Reviewers List so they are loaded again when next needed. Only needed when the
+	 * trustedReviewers table has been changed without going through this DatabaseHelper.
+	 */
+	public void invalidateTrustedReviewers() {
+		trustedReviewerCache.clear();
+		reviewerScorecards.markAllChanged();
+	}
+	
+	/**
+	 * Loads the Trusted Reviewers List of a student from the database.
+	 * 
+	 * @param studentUserName the userName of the student
+	 * @return a map from reviewer userName to weight
+	 */
+	private Map<String, Integer> loadTrustedReviewerWeights(String studentUserName) {
+		Map<String, Integer> weights = new HashMap<>();
+		String sqlQuery = "SELECT reviewerUserName, weight FROM trustedReviewers WHERE studentUserName = ?";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
+			pstmt.setString(1, studentUserName);
+			try (ResultSet rs = pstmt.executeQuery()) {
+				while (rs.next()) {
+					String reviewerUserName = rs.getString("reviewerUserName");
+					if (reviewerUserName != null) {
+						weights.put(reviewerUserName, rs.getInt("weight"));
+					}
+				}
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+		return weights;
+	}
+	
+	/**
+	 * Retrieves all reviews from the database where the reviewer is on the specified users Trusted Reviewers List.
+	 * 
+	 * @param user the User object for the current user
+	 * @return an ArrayList containing only the reviews submitted by reviewers who have been added to the specified users Trusted Reviewers List
+	 */
+	public ArrayList<Review> getOnlyReviewsForTrustedReviewers(User user) {
+		ArrayList<Review> ReviewsByTrustedReviewer = new ArrayList<>();
+		
+		String sqlQuery = "SELECT r.questionID, r.answerID, r.prevReviewID, r.reviewID, r.reviewBody, r.reviewerUserName, r.reviewerFirstName, r.reviewerLastName FROM reviews r " +
+				"INNER JOIN trustedReviewers t ON r.reviewerUserName = t.reviewerUserName WHERE t.studentUserName = ? AND r.isHidden = FALSE";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
+			pstmt.setString(1,user.getUserName());
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -2120,7 +3696,7 @@ public class DatabaseHelper {
 				"INNER JOIN reviews r ON a.answerID = r.answerID " +
 				"INNER JOIN trustedReviewers t ON r.reviewerUserName = t.reviewerUserName " +
 				"WHERE t.studentUserName = ? AND a.isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setString(1,user.getUserName());
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
@@ -2155,7 +3731,7 @@ public class DatabaseHelper {
 	public ArrayList<Review> getReviewsByUsername(String userName) {
 		ArrayList<Review> reviews = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, answerID, prevReviewID, reviewID, reviewBody, reviewerUserName, reviewerFirstName, reviewerLastName FROM reviews WHERE reviewerUserName = ? AND isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setString(1, userName);
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
@@ -2188,7 +3764,7 @@ public class DatabaseHelper {
 	public ArrayList<Review> getReviewByAnswerID(int answerID){
 		ArrayList<Review> reviews = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, answerID, prevReviewID, reviewID, reviewBody, reviewerUserName, reviewerFirstName, reviewerLastName, isFlagged, reasonIsFlagged FROM reviews WHERE answerID = ? AND isHidden = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setInt(1, answerID);
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
@@ -2222,7 +3798,7 @@ public class DatabaseHelper {
 	public Review getReviewByID(int ID){
 		Review review = null;
 		String sqlQuery = "SELECT questionID, answerID, prevReviewID, reviewID, reviewBody, reviewerUserName, reviewerFirstName, reviewerLastName FROM reviews WHERE reviewID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setInt(1, ID);
 			ResultSet rs = pstmt.executeQuery();
 			int questionID = rs.getInt("questionID");
@@ -2249,9 +3825,10 @@ public class DatabaseHelper {
 	 */
 	public void deleteReview(int reviewID) {
 		String sqlDelete = "DELETE FROM reviews WHERE reviewID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlDelete)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlDelete)) {
 			pstmt.setInt(1, reviewID);
 			pstmt.executeUpdate();
+			publish(ChangeEvent.Entity.REVIEW, ChangeEvent.Kind.DELETED, reviewID);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -2267,7 +3844,7 @@ public class DatabaseHelper {
 	public ArrayList<Integer> getAnswerIDsForQuestion(int questionID) {
 		ArrayList<Integer> answerIDs = new ArrayList<>();
 		String sqlQuery = "SELECT answerID FROM answers WHERE questionID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setInt(1, questionID);
 			try (ResultSet rs = pstmt.executeQuery()) {
 				while(rs.next()) {
@@ -2289,10 +3866,11 @@ public class DatabaseHelper {
 	 */
 	public void markReviewerMessageAsRead(int messageID, ReviewerMessage message) {
 	    String query = "UPDATE reviewerMessages SET isRead = TRUE WHERE messageID = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setInt(1, messageID);
 	        int rowsAffected = pstmt.executeUpdate();
-	        connection.commit();
+	        currentConnection().commit();
+	        publish(ChangeEvent.Entity.REVIEWER_MESSAGE, ChangeEvent.Kind.UPDATED, messageID);
 	        if (rowsAffected > 0) {
 	        	message.setRead(true);
 	        }
@@ -2311,7 +3889,7 @@ public class DatabaseHelper {
 	    String sql = "INSERT INTO reviewerMessages (sender, recipient, recipientRole, subject, body, sentTime, isRead, reviewID, isFlagged, reasonIsFlagged) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 	    int messageIDGenerated = -1;
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 	        pstmt.setString(1, message.getSender());
 	        pstmt.setString(2, message.getRecipient());
 	        pstmt.setString(3, message.getRecipientRole());
@@ -2330,6 +3908,7 @@ public class DatabaseHelper {
 	                messageIDGenerated = rs.getInt(1);
 	            }
 	        }
+	        publish(ChangeEvent.Entity.REVIEWER_MESSAGE, ChangeEvent.Kind.ADDED, messageIDGenerated);
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
@@ -2345,9 +3924,10 @@ public class DatabaseHelper {
 	 */
 	public void deleteReviewerMessage(int messageID) {
 		String sqlDelete = "DELETE FROM reviewerMessages WHERE messageID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlDelete)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlDelete)) {
 			pstmt.setInt(1, messageID);
 			pstmt.executeUpdate();
+			publish(ChangeEvent.Entity.REVIEWER_MESSAGE, ChangeEvent.Kind.DELETED, messageID);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -2363,7 +3943,7 @@ public class DatabaseHelper {
 	public ObservableList<ReviewerMessage> getReviewerMessagesForReview(int reviewID) {
 	    ObservableList<ReviewerMessage> messageList = FXCollections.observableArrayList();
 	    String query = "SELECT messageID, sender, recipient, recipientRole, subject, body, sentTime, isRead FROM reviewerMessages WHERE reviewID = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setInt(1, reviewID);
 	        ResultSet rs = pstmt.executeQuery();
 	        while (rs.next()) {
@@ -2396,7 +3976,7 @@ public class DatabaseHelper {
 	    ObservableList<ReviewerMessage> messageList = FXCollections.observableArrayList();
 	    String query = "SELECT messageID, sender, recipient, recipientRole, subject, body, sentTime, isRead FROM reviewerMessages WHERE recipient = ?";
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setString(1, recipient);
 	        ResultSet rs = pstmt.executeQuery();
 	        while (rs.next()) {
@@ -2432,7 +4012,8 @@ public class DatabaseHelper {
 	
 
 	/**
-	 * Retrieves the count of all unread reviewer private messages from the database for a specified review and reviewer userName.
+	 * Retrieves the count of all unread reviewer private messages for a specified review and reviewer userName from the
+	 * UnreadCounters, so list cells can show it without a query each.
 	 * 
 	 * @param recipient the reviewer userName who received the private messages from sender Student
 	 * @param reviewID the reviewID for a specific review
@@ -2440,19 +4021,7 @@ public class DatabaseHelper {
 	 * attribute isRead is false
 	 */
 	public int countUnreadReviewerPrivateMessages(String recipient, int reviewID) {
-		int unreadCount = 0;
-		String sqlQuery = "SELECT COUNT(*) AS unreadCount FROM reviewerMessages WHERE recipient = ? AND reviewID = ? AND isRead = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
-			pstmt.setString(1, recipient);
-			pstmt.setInt(2, reviewID);
-			ResultSet rs = pstmt.executeQuery();
-			if (rs.next()) {
-				unreadCount = rs.getInt("unreadCount");
-			}
-		} catch (SQLException e) {
-			e.printStackTrace();
-		}
-		return unreadCount;
+		return getUnreadCounters().getUnreadAboutReview(recipient, InboxMessage.Source.REVIEWER, reviewID);
 	}
 	
 	/**
@@ -2466,7 +4035,7 @@ public class DatabaseHelper {
 	    String sql = "SELECT a.* FROM Answers a " +
                 "JOIN Questions q ON a.questionID = q.questionID " +
                 "WHERE q.studentUserName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(sql)) {
 	        pstmt.setString(1, userName);
 	        ResultSet rs = pstmt.executeQuery();
 
@@ -2497,7 +4066,7 @@ public class DatabaseHelper {
 	public ArrayList<Question> getSubmittedQuestionsByUser(String userName) {
 	    ArrayList<Question> questions = new ArrayList<>();
 	    String sql = "SELECT * FROM Questions WHERE studentUserName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(sql)){
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(sql)){
 	        pstmt.setString(1, userName);
 	        ResultSet rs = pstmt.executeQuery();
 
@@ -2525,7 +4094,7 @@ public class DatabaseHelper {
 	public ArrayList<Review> getReviewsForUserAnswers(String userName) {
 		ArrayList<Review> reviews = new ArrayList<>();
 		String sql = "SELECT * FROM Reviews WHERE questionID IN (SELECT questionID FROM questions WHERE studentUserName = ?)";
-		try (PreparedStatement pstmt = connection.prepareStatement(sql)){
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sql)){
 	        pstmt.setString(1, userName);
 	        ResultSet rs = pstmt.executeQuery();
 
@@ -2555,7 +4124,7 @@ public class DatabaseHelper {
 	public String getReviewerUserNameByAnswerID(int answerID) {
 		String reviewerUserName = "";
 		String sqlQuery = "SELECT reviewerUserName FROM reviews WHERE answerID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setInt(1, answerID);
 			ResultSet rs = pstmt.executeQuery();
 			if (rs.next()) {
@@ -2570,50 +4139,18 @@ public class DatabaseHelper {
 	
 	
 	/**
-	 * Retrieves all private messages received by a specific student user.
+	 * Retrieves all private messages received by a specific student user, from other students and from reviewers,
+	 * newest first.
 	 *
 	 * @param studentUserName The username of the student.
 	 * @return A list of message strings formatted with recipient, subject, date, and message contents.
+	 * @see #getStudentInbox(String)
 	 */
 	public ArrayList<String> getPrivateMessagesForStudent(String studentUserName) {
 	    ArrayList<String> messages = new ArrayList<>();
-	    DateTimeFormatter timeMessageSent = DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
-	    
-	    // Retrieve messages sent from another Student to this Student
-	    String query1 = "SELECT p.sender_user_name, p.receiver_user_name, p.subject, p.message_body, p.timestamp FROM PrivateMessages p WHERE p.receiver_user_name = ?";
-	    
-	    // Retrieve messages sent from Reviewers to this Student 
-		String query2 = "SELECT r.sender, r.recipient, r.subject, r.body, r.sentTime FROM reviewerMessages r WHERE r.recipient = ?";
-	    
 		try {
-			try (PreparedStatement pstmt1 = connection.prepareStatement(query1)) {
-				pstmt1.setString(1, studentUserName);
-				ResultSet rs = pstmt1.executeQuery();
-		        while (rs.next()) {
-		        	String senderUserName = rs.getString("sender_user_name");
-		        	String receiverUserName = rs.getString("receiver_user_name");
-		        	String messageSubject = rs.getString("subject");
-		        	String messageBody = rs.getString("message_body");
-		        	Timestamp timeSent = rs.getTimestamp("timestamp");
-		        	String formattedTime = timeSent.toLocalDateTime().format(timeMessageSent);
-		        	
-		        	messages.add("To [Student]: " + receiverUserName + "\n" + "From [Student]: " + senderUserName + "\n" + "Date: " + formattedTime + "\n" + "Message Subject: " + messageSubject + "\n" + "Message Body: " + messageBody);
-		        }
-			}
-			
-			try (PreparedStatement pstmt2 = connection.prepareStatement(query2)) {
-				pstmt2.setString(1, studentUserName);
-				ResultSet rs2 = pstmt2.executeQuery();
-				while (rs2.next()) {
-					String reviewer2UserName = rs2.getString("sender");
-					String student2UserName = rs2.getString("recipient");
-					String messageSubject2 = rs2.getString("subject");
-					String messageBody2 = rs2.getString("body");
-					Timestamp timeSent2 = rs2.getTimestamp("sentTime");
-					String formattedTime2 = timeSent2.toLocalDateTime().format(timeMessageSent);
-					
-					messages.add("To [Student]: " + student2UserName + "\n" + "From [Reviewer]: " + reviewer2UserName + "\n" + "Date: " + formattedTime2 + "\n" + "Message Subject: " + messageSubject2 + "\n" + "Message Body: " + messageBody2);
-				}
+			for (InboxMessage message : getAllMessages(false, studentUserName, STUDENT_AND_REVIEWER_MESSAGES)) {
+				messages.add(message.toString());
 			}
 		}
 		catch (SQLException e) {
@@ -2635,7 +4172,7 @@ public class DatabaseHelper {
 	public boolean sendPrivateMessage(String sender, String receiver, String subject, String body, String replyToMessageID) {
 	    String sql = "INSERT INTO PrivateMessages (sender_user_name, receiver_user_name, subject, message_body, is_read, timestamp, isFlagged, reasonIsFlagged, questionID, reviewID) VALUES (?, ?, ?, ?, FALSE, ?, ?, ?, ?, ?)";
 
-	    try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 	        pstmt.setString(1, sender);
 	        pstmt.setString(2, receiver);
 	        pstmt.setString(3, subject);
@@ -2647,6 +4184,7 @@ public class DatabaseHelper {
 	        pstmt.setInt(9, -1);
 
 	        pstmt.executeUpdate();
+	        publish(ChangeEvent.Entity.STUDENT_MESSAGE, ChangeEvent.Kind.ADDED, generatedKey(pstmt));
 	        return true;
 	    } catch (SQLException e) {
 	        e.printStackTrace();
@@ -2661,29 +4199,33 @@ public class DatabaseHelper {
 	 */
 	public void deletePrivateMessage(String messageID) {
 	    String sql = "DELETE FROM PrivateMessages WHERE messageID = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(sql)) {
 	        pstmt.setString(1, messageID);
 	        pstmt.executeUpdate();
+	        publish(ChangeEvent.Entity.STUDENT_MESSAGE, ChangeEvent.Kind.DELETED, Integer.parseInt(messageID.trim()));
 	    } catch (SQLException e) {
 	        e.printStackTrace();
 	    }
 	}
 	
 	/**
-	 * Adds a trusted reviewer to the trustedReviewers table in the database.
+	 * Adds a trusted reviewer to the trustedReviewers table in the database. If the reviewer is already trusted by the
+	 * user, the weight is updated instead of adding a second row.
 	 * 
 	 * @param user the User object for the current user
 	 * @param weight the weight assigned by the current user as an integer value
 	 * @param reviewerUserName the userName of the reviewer being added as a trusted reviewer
 	 */
 	public void addTrustedReviewer(User user, int weight, String reviewerUserName) {
-		String sqlQuery = "INSERT INTO trustedReviewers (studentUserName, reviewerUserName, weight) VALUES(?, ?, ?)";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		String sqlQuery = "MERGE INTO trustedReviewers (studentUserName, reviewerUserName, weight) KEY (studentUserName, reviewerUserName) VALUES(?, ?, ?)";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setString(1, user.getUserName());
 			pstmt.setString(2,  reviewerUserName);
 			pstmt.setInt(3, weight);
 			
 			pstmt.executeUpdate();
+			trustedReviewerCache.put(user.getUserName(), reviewerUserName, weight);
+			reviewerScorecards.markReviewerChanged(reviewerUserName);
 		} catch (SQLException e) {
 	        e.printStackTrace();
 	    }
@@ -2697,11 +4239,13 @@ public class DatabaseHelper {
 	 */
 	public void removeTrustedReviewer(User user, String reviewerUserName) {
 		String sqlQuery = "DELETE FROM trustedReviewers WHERE studentUserName = ? AND reviewerUserName = ?";
-		try(PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setString(1, user.getUserName());
 			pstmt.setString(2, reviewerUserName);
 			
-			pstmt.executeUpdate();		
+			pstmt.executeUpdate();
+			trustedReviewerCache.remove(user.getUserName(), reviewerUserName);
+			reviewerScorecards.markReviewerChanged(reviewerUserName);
 		} catch (SQLException e) {
 	        e.printStackTrace();
 	    }
@@ -2716,12 +4260,14 @@ public class DatabaseHelper {
 	 */
 	public void assignTrustedReviewerWeight(User user, int weight, String reviewerUserName) {
 		String sqlQuery = "UPDATE trustedReviewers SET weight = ? WHERE studentUserName = ? AND reviewerUserName = ?";
-		try(PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try(PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setInt(1, weight);
 			pstmt.setString(2, user.getUserName());
 			pstmt.setString(3, reviewerUserName);
 			
 			pstmt.executeUpdate();
+			trustedReviewerCache.updateWeight(user.getUserName(), reviewerUserName, weight);
+			reviewerScorecards.markReviewerChanged(reviewerUserName);
 		} catch (SQLException e) {
 	        e.printStackTrace();
 	    }
@@ -2736,7 +4282,7 @@ public class DatabaseHelper {
 	public ArrayList<String> getTrustedReviewers(User user) {
 		ArrayList<String> reviewers = new ArrayList<String>();		
 		String sqlQuery = "SELECT reviewerUserName, weight FROM trustedReviewers WHERE studentUserName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setString(1, user.getUserName());
 			
 			ResultSet rs = pstmt.executeQuery();
@@ -2766,7 +4312,7 @@ public class DatabaseHelper {
 	 */
 	public boolean doesReviewerExist(User user, String reviewerUserName) {
 		String query = "SELECT COUNT(*) FROM trustedReviewers WHERE reviewerUserName = ?";
-	    try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	    try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        
 	        pstmt.setString(1, reviewerUserName);
 	        ResultSet rs = pstmt.executeQuery();
@@ -2795,7 +4341,7 @@ public class DatabaseHelper {
 	  // If you only want to display pending requests, you can do:
 	  // "FROM newRoleRequests WHERE requestStatus = 'Pending'";
 	
-	  try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	  try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	      ResultSet rs = pstmt.executeQuery();
 	      while (rs.next()) {
 	          int roleRequestID = rs.getInt("roleRequestID");
@@ -2826,7 +4372,7 @@ public class DatabaseHelper {
 	  String query = "UPDATE newRoleRequests "
 	               + "SET isRequestApproved = TRUE, requestStatus = 'Approved' "
 	               + "WHERE roleRequestID = ?";
-	  try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	  try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	      pstmt.setInt(1, roleRequestID);
 	      pstmt.executeUpdate();
 	  } catch (SQLException e) {
@@ -2843,7 +4389,7 @@ public class DatabaseHelper {
 	  String query = "UPDATE newRoleRequests "
 	               + "SET isRequestApproved = FALSE, requestStatus = 'Denied' "
 	               + "WHERE roleRequestID = ?";
-	  try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+	  try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	      pstmt.setInt(1, roleRequestID);
 	      pstmt.executeUpdate();
 	  } catch (SQLException e) {
@@ -2853,35 +4399,102 @@ public class DatabaseHelper {
 	
 	/**
 	 * Retrieve the userName, roles, and email specific to a specified users first and last name which is passed as an argument as a single string.
+	 * The user is found in the in-memory UserIndex, so first and last names may themselves contain spaces.
 	 * 
 	 * @param fullName the fullName of the user
 	 * @return a User object containing the attributes associated with the specified name 
 	 */
 	public User getUserInfoByName(String fullName) {
-		User recipientUser = null;
-		String[] fullNameParts = fullName.split(" ");
-		String firstName = fullNameParts[0];
-		if (fullNameParts.length == 1) {
-			recipientUser = null;
-			return recipientUser;
-		}
-		String lastName = fullNameParts[1];
-		String query = "SELECT userName, role, email FROM cse360users WHERE firstName = ? AND lastName = ?";
-		try(PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, firstName);
-			pstmt.setString(2, lastName);
-			ResultSet rs = pstmt.executeQuery();
-			if (rs.next()) {
-				String userName = rs.getString("userName");
-				boolean[] role = getUserRole(userName);
-				String email = rs.getString("email");
-				recipientUser = new User(userName, role, email, firstName, lastName);
+		loadUserIndex();
+		List<User> named = userIndex.findByFullName(fullName);
+		return named.isEmpty() ? null : named.get(0);
+	}
+	
+	/**
+	 * Suggests users for a recipient picker as their name is typed, from the in-memory UserIndex. A user matches when
+	 * their userName, first name, last name, full name or email starts with the text, ignoring case. The index is
+	 * loaded from the database on first use.
+	 * 
+	 * @param prefix the text typed so far; empty to list users alphabetically
+	 * @param roles the users must hold at least one of these roles; empty for users with any roles
+	 * @param limit the most users to return, at least 1
+	 * @return the suggested users, without passwords
+	 */
+	public List<User> completeUsers(String prefix, Set<Role> roles, int limit) {
+		loadUserIndex();
+		return userIndex.complete(prefix, roles, limit);
+	}
+	
+	/**
+	 * Loads every user into the UserIndex, unless it is already loaded.
+	 */
+	private void loadUserIndex() {
+		if (userIndexLoaded) {
+			return;
+		}
+		synchronized (userIndexLock) {
+			if (userIndexLoaded) {
+				return;
+			}
+			userIndex.clear();
+			// Set first so users who change while the table is being read are applied as well
+			userIndexLoaded = true;
+			try (PreparedStatement pstmt = currentConnection().prepareStatement("SELECT id, " + USER_COLUMNS + " FROM cse360users");
+					ResultSet rs = pstmt.executeQuery()) {
+				while (rs.next()) {
+					putIndexedUser(rs);
+				}
+			}
+			catch (SQLException e) {
+				e.printStackTrace();
+				userIndexLoaded = false;
+			}
+		}
+	}
+	
+	/**
+	 * Applies a USER ChangeEvent to the UserIndex by reading the user again. A change to many users at once unloads
+	 * the index so the next lookup loads it again.
+	 * 
+	 * @param event the event
+	 */
+	private void updateUserIndex(ChangeEvent event) {
+		if (!userIndexLoaded) {
+			return;
+		}
+		if (event.affectsAllRows()) {
+			userIndexLoaded = false;
+			return;
+		}
+		if (event.getKind() == ChangeEvent.Kind.DELETED) {
+			userIndex.remove(event.getId());
+			return;
+		}
+		try (PreparedStatement pstmt = currentConnection().prepareStatement("SELECT id, " + USER_COLUMNS + " FROM cse360users WHERE id = ?")) {
+			pstmt.setInt(1, event.getId());
+			try (ResultSet rs = pstmt.executeQuery()) {
+				if (rs.next()) {
+					putIndexedUser(rs);
+				}
+				else {
+					userIndex.remove(event.getId());
+				}
 			}
 		}
 		catch (SQLException e) {
-		     e.printStackTrace();
+			e.printStackTrace();
 		}
-		return recipientUser;
+	}
+	
+	/**
+	 * Adds the current row of a ResultSet holding id and {@link #USER_COLUMNS} to the UserIndex.
+	 * 
+	 * @param rs the result, positioned on the row
+	 * @throws SQLException if the row cannot be read
+	 */
+	private void putIndexedUser(ResultSet rs) throws SQLException {
+		userIndex.put(rs.getInt("id"), rs.getString("userName"), rs.getString("firstName"), rs.getString("lastName"), rs.getString("email"),
+				rs.getInt("roleMask"), rs.getBoolean("isMuted"));
 	}
 	
 	/**
@@ -2891,39 +4504,13 @@ public class DatabaseHelper {
 	 * @return an ArrayList containing all the registered users who have been provisioned Staff and Instructor roles
 	 */
 	public ArrayList<User> getStaffAndInstructorUsers(User user) {
-		String currUserName = user.getUserName();
-		String userRole = "";
 		ArrayList<User> staffAndInstructorUsers = new ArrayList<>();
-		String query = "SELECT userName, firstName, lastName, email FROM cse360users";
-		try(PreparedStatement pstmt = connection.prepareStatement(query)) {
-			ResultSet rs = pstmt.executeQuery();
-			while (rs.next()) {
-				userRole = "";
-				String userName = rs.getString("userName");
-				String firstName = rs.getString("firstName");
-				String lastName = rs.getString("lastName");
-				String email = rs.getString("email");
-				boolean[] roles = getUserRole(userName);
-				
-				if (roles[3] == true) {
-					userRole = "Staff";
-				}
-				else if (roles[4] == true) {
-					userRole = "Instructor";
-				}
-				
-				// Only users with Instructor and Staff roles and excluding the currently logged in Staff user
-				if (userRole.equals("Staff") || userRole.equals("Instructor")) {
-					if (!currUserName.equals(userName)) {
-						User instructorOrStaff = new User(userName, roles, email, firstName, lastName);
-						staffAndInstructorUsers.add(instructorOrStaff);
-					}
-				}
+		for (User staffOrInstructor : getUsersWithAnyRole(EnumSet.of(Role.STAFF, Role.INSTRUCTOR))) {
+			// Excluding the currently logged in Staff user
+			if (!staffOrInstructor.getUserName().equals(user.getUserName())) {
+				staffAndInstructorUsers.add(staffOrInstructor);
 			}
 		}
-		catch (SQLException e) {
-	      e.printStackTrace();
-		}
 		return staffAndInstructorUsers;
 	}
 	
@@ -2937,7 +4524,7 @@ public class DatabaseHelper {
 	public int addStaffPrivateMessage(StaffMessage message) {
 		String query = "INSERT INTO staffMessages (senderEmail, senderUserName, senderFirstName, senderLastName, senderRole, messageSubject, messageBody, isMessageRead, recipientEmail, recipientUserName, recipientFirstName, recipientLastName, recipientRole, timeSent) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 		int staffPrivateMessageIDGenerated = -1;
-		try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 			pstmt.setString(1, message.getSenderEmail());
 			pstmt.setString(2, message.getSenderUserName());
 			pstmt.setString(3, message.getSenderFirstName());
@@ -2959,6 +4546,7 @@ public class DatabaseHelper {
 					message.setMessageID(staffPrivateMessageIDGenerated);
 				}
 			}
+			publish(ChangeEvent.Entity.STAFF_MESSAGE, ChangeEvent.Kind.ADDED, staffPrivateMessageIDGenerated);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -2973,9 +4561,10 @@ public class DatabaseHelper {
 	 */
 	public void deleteStaffPrivateMessage(int staffPrivateMessageID) {
 		String query = "DELETE FROM staffMessages WHERE messageID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setInt(1, staffPrivateMessageID);
 			pstmt.executeUpdate();
+			publish(ChangeEvent.Entity.STAFF_MESSAGE, ChangeEvent.Kind.DELETED, staffPrivateMessageID);
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
@@ -2991,7 +4580,7 @@ public class DatabaseHelper {
 	public ArrayList<StaffMessage> getAllReceivedStaffPrivateMessages(String userName) {
 		ArrayList<StaffMessage> allStaffPrivateMessages = new ArrayList<>();
 		String query = "SELECT messageID, senderFirstName, senderLastName, senderEmail, senderUserName, senderRole, messageSubject, messageBody, isMessageRead, timeSent FROM staffMessages WHERE recipientUserName = ?";
-			try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+			try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 		        pstmt.setString(1, userName);
 		        ResultSet rs = pstmt.executeQuery();
 		        while (rs.next()) {
@@ -3025,7 +4614,7 @@ public class DatabaseHelper {
 	public ArrayList<StaffMessage> getAllPrivateMessagesSentFromStaff(String userName) {
 		ArrayList<StaffMessage> allMessagesSentStaff = new ArrayList<>();
 		String query = "SELECT messageID, recipientFirstName, recipientLastName, recipientEmail, recipientUserName, recipientRole, messageSubject, messageBody, isMessageRead, timeSent FROM staffMessages where senderUserName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setString(1, userName);
 	        ResultSet rs = pstmt.executeQuery();
 	        while(rs.next()) {
@@ -3060,7 +4649,7 @@ public class DatabaseHelper {
 	public ArrayList<StaffMessage> getMessagesSentToStaffByUser(User sender, User currStaffUser) {
 		ArrayList<StaffMessage> messagesReceivedBySpecifiedUser = new ArrayList<>();
 		String query = "SELECT messageID, senderFirstName, senderLastName, senderEmail, senderUserName, senderRole, messageSubject, messageBody, isMessageRead, timeSent FROM staffMessages WHERE senderUserName = ? AND recipientUserName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setString(1, sender.getUserName());
 	        pstmt.setString(2, currStaffUser.getUserName());
 	        ResultSet rs = pstmt.executeQuery();
@@ -3096,7 +4685,7 @@ public class DatabaseHelper {
 	public ArrayList<StaffMessage> getMessagesSentByStaffToUser(User recipient, User currStaffUser) {
 		ArrayList<StaffMessage> messagesSentByStaffToSpecifiedUser = new ArrayList<>();
 		String query = "SELECT messageID, recipientFirstName, recipientLastName, recipientEmail, recipientUserName, recipientRole, messageSubject, messageBody, isMessageRead, timeSent FROM staffMessages where recipientUserName = ? AND senderUserName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setString(1, recipient.getUserName());
 			pstmt.setString(2, currStaffUser.getUserName());
 	        ResultSet rs = pstmt.executeQuery();
@@ -3129,45 +4718,19 @@ public class DatabaseHelper {
 	 * @return the count of unread messages received by the current Staff user
 	 */
 	public int countUnreadStaffPrivateMessages(User user) {
-		int unreadCount = 0;
-		String userName = user.getUserName();
-		String query = "SELECT COUNT(*) AS unreadCount FROM staffMessages WHERE recipientUserName = ? AND isMessageRead = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, userName);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                unreadCount = rs.getInt("unreadCount");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return unreadCount;
+		return countUnreadMessages(user.getUserName(), EnumSet.of(InboxMessage.Source.STAFF));
 	}
 	
 	/**
 	 * Retrieves all the private feedback messages sent between two Student users.
 	 * 
 	 * @return an ArrayList containing all of the messages sent between two Student users
+	 * @see #getMessagesBetweenStudents()
 	 */
 	public ArrayList<String> getAllMessagesBetweenStudents() {
 		ArrayList<String> allStudentToStudentMessages = new ArrayList<>();
-		DateTimeFormatter timeMessageSent = DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
-		String query = "SELECT p.sender_user_name, p.receiver_user_name, p.subject, p.message_body, p.timestamp FROM PrivateMessages p WHERE p.receiver_user_name IN (SELECT c.userName FROM cse360users c WHERE p.receiver_user_name = c.userName AND role LIKE '[true, true%' OR role LIKE '[false, true%')";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			ResultSet rs = pstmt.executeQuery();
-	        while (rs.next()) {
-	        	String senderUserName = rs.getString("sender_user_name");
-	        	String receiverUserName = rs.getString("receiver_user_name");
-	        	String messageSubject = rs.getString("subject");
-	        	String messageBody = rs.getString("message_body");
-	        	Timestamp timeSent = rs.getTimestamp("timestamp");
-	        	String formattedTime = timeSent.toLocalDateTime().format(timeMessageSent);
-	        	
-	        	allStudentToStudentMessages.add("To [Student]: " + receiverUserName + "\n" + "From [Student]: " + senderUserName + "\n" + "Date: " + formattedTime + "\n" + "Message Subject: " + messageSubject + "\n" + "Message Body: " + messageBody);
-	        }
-		}
-		catch (SQLException e) {
-			e.printStackTrace();
+		for (InboxMessage message : getMessagesBetweenStudents()) {
+			allStudentToStudentMessages.add(message.toDisplayString("Student", "Student"));
 		}
 		return allStudentToStudentMessages;
 	}
@@ -3176,48 +4739,14 @@ public class DatabaseHelper {
 	 * Retrieves all the private feedback messages sent between a Student user and a Reviewer user.
 	 * 
 	 * @return an ArrayList containing all of the messages sent between a Student user and a Reviewer user
+	 * @see #getMessagesBetweenReviewersAndStudents()
 	 */
 	public ArrayList<String> getAllMessagesBetweenReviewersAndStudents() {
 		ArrayList<String> allReviewerToStudentMessages = new ArrayList<>();
-		DateTimeFormatter timeMessageSent = DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
-		
-		// Retrieve messages sent from Students to Reviewers
-		String query1 = "SELECT p.sender_user_name, p.receiver_user_name, p.subject, p.message_body, p.timestamp FROM PrivateMessages p WHERE p.receiver_user_name IN (SELECT c.userName FROM cse360users c WHERE p.receiver_user_name = c.userName AND role LIKE '[false, false, true%' OR role LIKE '[false, true, true%' OR role LIKE '[true, true, true%')";
-		
-		// Retrieve messages sent from Reviewers to Students
-		String query2 = "SELECT r.sender, r.recipient, r.subject, r.body, r.sentTime FROM reviewerMessages r WHERE r.recipient IN (SELECT c.userName FROM cse360users c WHERE r.recipient = c.userName AND role LIKE '[true, true%' OR role LIKE '[false, true%')";
-		
-		try {
-			try (PreparedStatement pstmt1 = connection.prepareStatement(query1)) {
-				ResultSet rs1 = pstmt1.executeQuery();
-				while (rs1.next()) {
-					String student1UserName = rs1.getString("sender_user_name");
-		        	String reviewer1UserName = rs1.getString("receiver_user_name");
-		        	String messageSubject1 = rs1.getString("subject");
-		        	String messageBody1 = rs1.getString("message_body");
-		        	Timestamp timeSent1 = rs1.getTimestamp("timestamp");
-		        	String formattedTime1 = timeSent1.toLocalDateTime().format(timeMessageSent);
-		        	
-		        	allReviewerToStudentMessages.add("To [Reviewer]: " + reviewer1UserName + "\n" + "From [Student]: " + student1UserName + "\n" +  "Date: " + formattedTime1 + "\n" + "Message Subject: " + messageSubject1 + "\n" + "Message Body: " + messageBody1);
-				}
-			}
-			
-			try (PreparedStatement pstmt2 = connection.prepareStatement(query2)) {
-				ResultSet rs2 = pstmt2.executeQuery();
-				while (rs2.next()) {
-					String reviewer2UserName = rs2.getString("sender");
-					String student2UserName = rs2.getString("recipient");
-					String messageSubject2 = rs2.getString("subject");
-					String messageBody2 = rs2.getString("body");
-					Timestamp timeSent2 = rs2.getTimestamp("sentTime");
-					String formattedTime2 = timeSent2.toLocalDateTime().format(timeMessageSent);
-					
-					allReviewerToStudentMessages.add("To [Student]: " + student2UserName + "\n" + "From [Reviewer]: " + reviewer2UserName + "\n" + "Date: " + formattedTime2 + "\n" + "Message Subject: " + messageSubject2 + "\n" + "Message Body: " + messageBody2);
-				}
-			}
-		}
-		catch (SQLException e) {
-			e.printStackTrace();
+		for (InboxMessage message : getMessagesBetweenReviewersAndStudents()) {
+			// Messages sent through PrivateMessages go from a Student to a Reviewer, reviewerMessages the other way
+			boolean fromStudent = message.getSource() == InboxMessage.Source.STUDENT;
+			allReviewerToStudentMessages.add(message.toDisplayString(fromStudent ? "Reviewer" : "Student", fromStudent ? "Student" : "Reviewer"));
 		}
 		return allReviewerToStudentMessages;
 	}
@@ -3229,10 +4758,11 @@ public class DatabaseHelper {
 	 */
 	public void markStaffMessageAsRead(StaffMessage message) {
 		String query = "UPDATE staffMessages SET isMessageRead = TRUE WHERE messageID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setInt(1, message.getMessageID());
 			int rowsAffected = pstmt.executeUpdate();
-			connection.commit();
+			currentConnection().commit();
+			publish(ChangeEvent.Entity.STAFF_MESSAGE, ChangeEvent.Kind.UPDATED, message.getMessageID());
 			if (rowsAffected > 0) {
 				message.setIsMessageRead(true);
 			}
@@ -3240,90 +4770,411 @@ public class DatabaseHelper {
 		catch (SQLException e) {
 			e.printStackTrace();
 		}
-	}	
+	}	
+	
+	/**
+	 * Marks a Question as flagged by a Staff user.
+	 * 
+	 * @param question question object to mark isFlagged attribute as true
+	 */
+	public void markQuestionFlagged(Question question) {
+		String query = "UPDATE questions SET isFlagged = TRUE, reasonIsFlagged = ? where questionID = ?";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
+			pstmt.setString(1, question.getReasonIsFlagged());
+			pstmt.setInt(2, question.getQuestionID());
+			int rowsAffected = pstmt.executeUpdate();
+			currentConnection().commit();
+			publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.UPDATED, question.getQuestionID());
+			if (rowsAffected > 0) {
+				question.setIsFlagged(true);
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Marks a Question Reply as flagged by a Staff user.
+	 * 
+	 * @param reply reply object to mark isFlagged attribute as true
+	 */
+	public void markQuestionReplyFlagged(Question reply) {
+		String query = "UPDATE questionReplies SET isFlagged = TRUE, reasonIsFlagged = ? where replyID = ?";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
+			pstmt.setString(1, reply.getReasonIsFlagged());
+			pstmt.setInt(2, reply.getReplyID());
+			int rowsAffected = pstmt.executeUpdate();
+			currentConnection().commit();
+			publish(ChangeEvent.Entity.REPLY, ChangeEvent.Kind.UPDATED, reply.getReplyID());
+			if (rowsAffected > 0) {
+				reply.setIsFlagged(true);
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Marks an Answer as flagged by a Staff user.
+	 * 
+	 * @param answer answer object to mark isFlagged attribute as true
+	 */
+	public void markAnswerFlagged(Answer answer) {
+		String query = "UPDATE answers SET isFlagged = TRUE, reasonIsFlagged = ? where answerID = ?";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
+			pstmt.setString(1, answer.getReasonIsFlagged());
+			pstmt.setInt(2, answer.getAnswerID());
+			int rowsAffected = pstmt.executeUpdate();
+			currentConnection().commit();
+			publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.UPDATED, answer.getAnswerID());
+			if (rowsAffected > 0) {
+				answer.setIsFlagged(true);
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Marks a Review as flagged by a Staff user.
+	 * 
+	 * @param review review object to mark isFlagged attribute as true
+	 */
+	public void markReviewFlagged(Review review) {
+		String query = "UPDATE reviews SET isFlagged = TRUE, reasonIsFlagged = ? where reviewID = ?";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
+			pstmt.setString(1, review.getReasonIsFlagged());
+			pstmt.setInt(2, review.getReviewID());
+			int rowsAffected = pstmt.executeUpdate();
+			currentConnection().commit();
+			publish(ChangeEvent.Entity.REVIEW, ChangeEvent.Kind.UPDATED, review.getReviewID());
+			if (rowsAffected > 0) {
+				review.setIsFlagged(true);
+			}
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Claims the next entries of the moderation queue for a staff member, highest priority first. Other staff members
+	 * claiming at the same time never receive the same entries, and entries whose claim has expired are handed out
+	 * again.
+	 * 
+	 * @param staffUserName the staff member's userName
+	 * @param count the most entries to claim, at least 1
+	 * @param lease how long the entries are held for the staff member
+	 * @return the claimed entries, in queue order; empty if none are waiting or the queue cannot be read
+	 */
+	public List<ModerationFlag> claimFlags(String staffUserName, int count, Duration lease) {
+		if (count < 1) {
+			throw new IllegalArgumentException("count must be at least 1");
+		}
+		if (lease.isNegative()) {
+			throw new IllegalArgumentException("lease must not be negative");
+		}
+		LocalDateTime now = LocalDateTime.now();
+		try {
+			return flagQueue.claim(staffUserName, count, now, now.plus(lease));
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return new ArrayList<>();
+		}
+	}
+	
+	/**
+	 * Extends a staff member's claim on a moderation queue entry.
+	 * 
+	 * @param flagID the entry's id
+	 * @param staffUserName the staff member's userName
+	 * @param lease how long from now the entry is held
+	 * @return true if the staff member still held the entry
+	 */
+	public boolean renewFlagLease(int flagID, String staffUserName, Duration lease) {
+		try {
+			return flagQueue.renew(flagID, staffUserName, LocalDateTime.now().plus(lease));
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
+	/**
+	 * Returns a claimed moderation queue entry to the queue for another staff member.
+	 * 
+	 * @param flagID the entry's id
+	 * @param staffUserName the staff member's userName
+	 * @return true if the staff member held the entry
+	 */
+	public boolean releaseFlag(int flagID, String staffUserName) {
+		try {
+			return flagQueue.release(flagID, staffUserName);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
+	/**
+	 * Resolves a moderation queue entry and clears the flag and flag reason of its item, in one transaction.
+	 * 
+	 * @param flagID the entry's id
+	 * @param staffUserName the staff member's userName, who must hold the entry unless nobody does
+	 * @return true if the entry was resolved, false if it was resolved already or is held by another staff member
+	 */
+	public boolean resolveFlag(int flagID, String staffUserName) {
+		try {
+			ModerationFlag flag = flagQueue.resolve(flagID, staffUserName, LocalDateTime.now());
+			if (flag == null) {
+				return false;
+			}
+			publish(flag.getItemType(), ChangeEvent.Kind.UPDATED, flag.getItemID());
+			return true;
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
+	/**
+	 * Changes the priority of an open moderation queue entry. Entries are claimed highest priority first; each time
+	 * an item is flagged again its entry goes one higher.
+	 * 
+	 * @param flagID the entry's id
+	 * @param priority the new priority
+	 * @return true if the entry was open
+	 */
+	public boolean setFlagPriority(int flagID, int priority) {
+		try {
+			return flagQueue.setPriority(flagID, priority);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
+	/**
+	 * Retrieves the open moderation queue entries a staff member holds, such as when they come back to the queue.
+	 * 
+	 * @param staffUserName the staff member's userName
+	 * @return the entries, in queue order; empty if the queue cannot be read
+	 */
+	public List<ModerationFlag> getClaimedFlags(String staffUserName) {
+		try {
+			return flagQueue.getClaimed(staffUserName);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return new ArrayList<>();
+		}
+	}
+	
+	/**
+	 * Retrieves one page of the open moderation queue entries, claimed or not, ordered by flaggedTime and flagID, so
+	 * the flagged posts and messages are listed without reading every flagged row of their tables. Pass null as the
+	 * cursor for the first page and the returned Page's next cursor for every page after it.
+	 * 
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of entries to return
+	 * @return a Page containing at most pageSize entries
+	 */
+	public Page<ModerationFlag> getOpenFlagsPage(PageCursor after, int pageSize) {
+		return getPage(FlagQueue.SELECT_OPEN, "flaggedTime", "flagID", after, pageSize, FlagQueue::readFlag,
+				flag -> new PageCursor(flag.getFlaggedTime(), flag.getFlagID()));
+	}
+	
+	/**
+	 * Clears the flag of the question, reply, answer, review or private message of a moderation queue entry with the
+	 * method its page uses, which resolves the entry whoever holds it.
+	 * 
+	 * @param flag the entry
+	 * @return true if the item was unflagged
+	 */
+	public boolean clearFlaggedItem(ModerationFlag flag) {
+		int itemID = flag.getItemID();
+		switch (flag.getItemType()) {
+			case QUESTION:
+				return clearQuestionFlag(itemID);
+			case REPLY:
+				clearQuestionReplyFlag(itemID);
+				return true;
+			case ANSWER:
+				return clearAnswerFlag(itemID);
+			case REVIEW:
+				return clearReviewFlag(itemID);
+			case STUDENT_MESSAGE:
+				return clearMessageFlags(InboxMessage.Source.STUDENT, List.of(itemID)) > 0;
+			case REVIEWER_MESSAGE:
+				return clearMessageFlags(InboxMessage.Source.REVIEWER, List.of(itemID)) > 0;
+			default:
+				throw new IllegalArgumentException(flag.getItemType() + " cannot be flagged");
+		}
+	}
 	
 	/**
-	 * Marks a Question as flagged by a Staff user.
+	 * Counts the flagged items waiting in the moderation queue, claimed or not.
 	 * 
-	 * @param question question object to mark isFlagged attribute as true
+	 * @return the number of open entries; 0 if the queue cannot be read
 	 */
-	public void markQuestionFlagged(Question question) {
-		String query = "UPDATE questions SET isFlagged = TRUE, reasonIsFlagged = ? where questionID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, question.getReasonIsFlagged());
-			pstmt.setInt(2, question.getQuestionID());
-			int rowsAffected = pstmt.executeUpdate();
-			connection.commit();
-			if (rowsAffected > 0) {
-				question.setIsFlagged(true);
-			}
+	public int countOpenFlags() {
+		try {
+			return flagQueue.countOpen();
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
+			return 0;
 		}
 	}
 	
 	/**
-	 * Marks a Question Reply as flagged by a Staff user.
+	 * Retrieves the users holding at least one of some roles, with one query on the indexed roleMask column.
 	 * 
-	 * @param reply reply object to mark isFlagged attribute as true
+	 * @param roles the roles
+	 * @return the users, in the order they registered, with their roles and isMuted status but no password
 	 */
-	public void markQuestionReplyFlagged(Question reply) {
-		String query = "UPDATE questionReplies SET isFlagged = TRUE, reasonIsFlagged = ? where replyID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, reply.getReasonIsFlagged());
-			pstmt.setInt(2, reply.getReplyID());
-			int rowsAffected = pstmt.executeUpdate();
-			connection.commit();
-			if (rowsAffected > 0) {
-				reply.setIsFlagged(true);
+	public ArrayList<User> getUsersWithAnyRole(Set<Role> roles) {
+		ArrayList<User> users = new ArrayList<>();
+		String query = "SELECT " + USER_COLUMNS + " FROM cse360users WHERE " + roleCondition(roles) + " ORDER BY id";
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+			while (rs.next()) {
+				users.add(readUser(rs));
 			}
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
 		}
+		return users;
 	}
 	
 	/**
-	 * Marks an Answer as flagged by a Staff user.
+	 * Retrieves one page of the user directory: the users matching a query, filtered and sorted in the database. The
+	 * page after a cursor is selected by the sort column and id of the cursor's row rather than an OFFSET, so every
+	 * page of a large roster costs the same.
 	 * 
-	 * @param answer answer object to mark isFlagged attribute as true
+	 * Users without a value in the sort column are listed before the others from A to Z and after them from Z to A.
+	 * 
+	 * @param query the filters and sort order
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of users to return
+	 * @return a Page containing at most pageSize users with their roles and isMuted status but no password
 	 */
-	public void markAnswerFlagged(Answer answer) {
-		String query = "UPDATE answers SET isFlagged = TRUE, reasonIsFlagged = ? where answerID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, answer.getReasonIsFlagged());
-			pstmt.setInt(2, answer.getAnswerID());
-			int rowsAffected = pstmt.executeUpdate();
-			connection.commit();
-			if (rowsAffected > 0) {
-				answer.setIsFlagged(true);
+	public Page<User> getUserDirectoryPage(UserQuery query, PageCursor after, int pageSize) {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("pageSize must be at least 1");
+		}
+		String column = query.getSortColumn().getColumn();
+		List<Object> parameters = new ArrayList<>();
+		StringBuilder sqlQuery = new StringBuilder("SELECT id, ").append(USER_COLUMNS).append(", ").append(column).append(" AS sortKey FROM cse360users WHERE TRUE");
+		if (!query.getRoles().isEmpty()) {
+			sqlQuery.append(" AND ").append(roleCondition(query.getRoles()));
+		}
+		if (query.getNamePrefix() != null) {
+			String pattern = escapeLike(query.getNamePrefix().toLowerCase()) + "%";
+			sqlQuery.append(" AND (LOWER(userName) LIKE ? OR LOWER(firstName) LIKE ? OR LOWER(lastName) LIKE ?)");
+			Collections.addAll(parameters, pattern, pattern, pattern);
+		}
+		if (query.getEmailDomain() != null) {
+			sqlQuery.append(" AND emailDomain = ?");
+			parameters.add(query.getEmailDomain().toLowerCase());
+		}
+		if (query.getMuted() != null) {
+			sqlQuery.append(" AND isMuted = ?");
+			parameters.add(query.getMuted());
+		}
+		
+		String direction = query.isAscending() ? " > ?" : " < ?";
+		if (after != null && after.getSortKey() != null) {
+			sqlQuery.append(" AND (").append(column).append(direction).append(" OR (").append(column).append(" = ? AND id").append(direction).append(")");
+			// NULL sort keys come last from Z to A
+			sqlQuery.append(query.isAscending() ? ")" : " OR " + column + " IS NULL)");
+			Collections.addAll(parameters, after.getSortKey(), after.getSortKey(), after.getId());
+		}
+		else if (after != null) {
+			// A cursor on a row without a sort key is followed by the remaining NULL rows, then from A to Z by every other row
+			sqlQuery.append(" AND (").append(column).append(" IS NULL AND id").append(direction);
+			sqlQuery.append(query.isAscending() ? " OR " + column + " IS NOT NULL)" : ")");
+			parameters.add(after.getId());
+		}
+		sqlQuery.append(" ORDER BY ").append(column).append(query.isAscending() ? " NULLS FIRST, id LIMIT ?" : " DESC NULLS LAST, id DESC LIMIT ?");
+		parameters.add(pageSize + 1);
+		
+		ArrayList<User> users = new ArrayList<>();
+		boolean hasMore = false;
+		PageCursor nextCursor = after;
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery.toString())) {
+			for (int i = 0; i < parameters.size(); i++) {
+				pstmt.setObject(i + 1, parameters.get(i));
+			}
+			try (ResultSet rs = pstmt.executeQuery()) {
+				while (rs.next()) {
+					if (users.size() == pageSize) {
+						hasMore = true;
+						break;
+					}
+					users.add(readUser(rs));
+					nextCursor = new PageCursor(null, rs.getString("sortKey"), rs.getInt("id"));
+				}
 			}
 		}
 		catch (SQLException e) {
 			e.printStackTrace();
 		}
+		return new Page<>(users, nextCursor, hasMore);
 	}
 	
 	/**
-	 * Marks a Review as flagged by a Staff user.
+	 * Escapes the wildcards of a LIKE pattern so the text is matched literally.
 	 * 
-	 * @param review review object to mark isFlagged attribute as true
+	 * @param text the text to match
+	 * @return the text with backslashes, '%' and '_' escaped by a backslash, H2's default LIKE escape character
 	 */
-	public void markReviewFlagged(Review review) {
-		String query = "UPDATE reviews SET isFlagged = TRUE, reasonIsFlagged = ? where reviewID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, review.getReasonIsFlagged());
-			pstmt.setInt(2, review.getReviewID());
-			int rowsAffected = pstmt.executeUpdate();
-			connection.commit();
-			if (rowsAffected > 0) {
-				review.setIsFlagged(true);
+	private static String escapeLike(String text) {
+		return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+	
+	/**
+	 * Columns of cse360users read by {@link #readUser(ResultSet)}
+	 */
+	private static final String USER_COLUMNS = "userName, firstName, lastName, email, roleMask, isMuted";
+	
+	/**
+	 * Converts the current row of a ResultSet holding {@link #USER_COLUMNS} into a User without a password.
+	 * 
+	 * @param rs a ResultSet positioned on a row of cse360users
+	 * @return the user with their roles and isMuted status
+	 * @throws SQLException if a column cannot be read
+	 */
+	private User readUser(ResultSet rs) throws SQLException {
+		return new User(rs.getString("userName"), Role.toArray(Role.fromMask(rs.getInt("roleMask"))), rs.getString("email"),
+				rs.getString("firstName"), rs.getString("lastName"), rs.getBoolean("isMuted"));
+	}
+	
+	/**
+	 * Builds the condition selecting the users who hold at least one of some roles. The condition lists every roleMask
+	 * value with one of the roles' bits set, so it is answered from the index on roleMask.
+	 * 
+	 * @param roles the roles
+	 * @return the condition on the roleMask column
+	 */
+	private static String roleCondition(Set<Role> roles) {
+		int bits = Role.toMask(roles);
+		StringJoiner masks = new StringJoiner(", ", "roleMask IN (", ")");
+		masks.setEmptyValue("FALSE");
+		for (int mask = 1; mask < 1 << Role.values().length; mask++) {
+			if ((mask & bits) != 0) {
+				masks.add(Integer.toString(mask));
 			}
 		}
-		catch (SQLException e) {
-			e.printStackTrace();
-		}
+		return masks.toString();
 	}
 	
 	/**
@@ -3332,38 +5183,7 @@ public class DatabaseHelper {
 	 * @return an ArrayList containing all the registered users who have been provisioned Student and Reviewer roles
 	 */
 	public ArrayList<User> getStudentAndReviewerUsers() {
-		String userRole = "";
-		ArrayList<User> studentAndReviewerUsers = new ArrayList<>();
-		String query = "SELECT userName, firstName, lastName, email, isMuted FROM cse360users";
-		try(PreparedStatement pstmt = connection.prepareStatement(query)) {
-			ResultSet rs = pstmt.executeQuery();
-			while (rs.next()) {
-				userRole = "";
-				String userName = rs.getString("userName");
-				String firstName = rs.getString("firstName");
-				String lastName = rs.getString("lastName");
-				String email = rs.getString("email");
-				boolean isMuted = rs.getBoolean("isMuted");
-				boolean[] roles = getUserRole(userName);
-				
-				if (roles[1] == true) {
-					userRole = "Student";
-				}
-				else if (roles[2] == true) {
-					userRole = "Reviewer";
-				}
-				
-				// Only users with Instructor and Staff roles and excluding the currently logged in Staff user
-				if (userRole.equals("Student") || userRole.equals("Reviewer")) {
-					User studentOrReviewer = new User(userName, roles, email, firstName, lastName, isMuted);
-					studentAndReviewerUsers.add(studentOrReviewer);
-				}
-			}
-		}
-		catch (SQLException e) {
-	      e.printStackTrace();
-		}
-		return studentAndReviewerUsers;
+		return getUsersWithAnyRole(EnumSet.of(Role.STUDENT, Role.REVIEWER));
 	}
 	
 	/**
@@ -3373,14 +5193,15 @@ public class DatabaseHelper {
 	 */
 	public void muteUser(User user) {
 		String query = "UPDATE cse360users SET isMuted = TRUE WHERE userName = ? AND firstName = ? AND lastName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setString(1, user.getUserName());
 	        pstmt.setString(2, user.getFirstName());
 	        pstmt.setString(3, user.getLastName());
 	        int rowsAffected = pstmt.executeUpdate();
-	        connection.commit(); 
+	        currentConnection().commit(); 
 	        if (rowsAffected > 0) {
 				user.setIsMuted(true);
+				publish(ChangeEvent.Entity.USER, ChangeEvent.Kind.UPDATED, userIDOf(user.getUserName()));
 			}
 	    } catch (SQLException e) {
 	        e.printStackTrace();
@@ -3388,7 +5209,47 @@ public class DatabaseHelper {
 	}
 	
 	/**
-	 * Retrieves the isMuted attribute value for the selected user.
+	 * Applies a batch of moderation actions in one transaction: muting users and hiding all their posts, unmuting users
+	 * and showing their posts again, and hiding or showing single posts. Either every action is applied or, if any
+	 * fails, none is.
+	 * 
+	 * @param batch the actions to apply
+	 * @return the number of rows changed by entity; no rows if the batch could not be applied
+	 */
+	public ModerationResult applyModeration(ModerationBatch batch) {
+		ModerationResult result;
+		try {
+			result = moderationEngine.apply(batch);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return new ModerationResult();
+		}
+		for (int userID : result.getUserIDs()) {
+			publish(ChangeEvent.Entity.USER, ChangeEvent.Kind.UPDATED, userID);
+		}
+		boolean byAuthor = !batch.getMutedUsers().isEmpty() || !batch.getUnmutedUsers().isEmpty();
+		for (ChangeEvent.Entity entity : ModerationBatch.HIDEABLE) {
+			if (result.getCount(entity) == 0) {
+				continue;
+			}
+			if (byAuthor) {
+				publish(entity, ChangeEvent.Kind.UPDATED, ChangeEvent.ALL_ROWS);
+				continue;
+			}
+			for (int id : batch.getHiddenPosts(entity)) {
+				publish(entity, ChangeEvent.Kind.UPDATED, id);
+			}
+			for (int id : batch.getShownPosts(entity)) {
+				publish(entity, ChangeEvent.Kind.UPDATED, id);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Retrieves the isMuted attribute value for the selected user. It is always read from the database, so a user muted
+	 * by another DatabaseHelper or by the server process is muted here at once.
 	 * 
 	 * @param user the User object for the user whose isMuted attribute is being checked
 	 * @return true if the user is muted, false if not
@@ -3396,7 +5257,7 @@ public class DatabaseHelper {
 	public boolean checkIfUserMuted(User user) {
 		Boolean isMutedStatus = false;
 		String query = "SELECT isMuted FROM cse360users WHERE userName = ? AND firstName = ? AND lastName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setString(1, user.getUserName());
 	        pstmt.setString(2, user.getFirstName());
 	        pstmt.setString(3, user.getLastName());
@@ -3419,10 +5280,11 @@ public class DatabaseHelper {
 	 */
 	public void hideQuestion(Question question) {
 		String query = "UPDATE questions SET isHidden = TRUE WHERE questionID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setInt(1, question.getQuestionID());
 	        int rowsAffected = pstmt.executeUpdate();
-	        connection.commit(); 
+	        currentConnection().commit(); 
+	        publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.UPDATED, question.getQuestionID());
 	        if (rowsAffected > 0) {
 				question.setIsHidden(true);
 			}
@@ -3438,10 +5300,11 @@ public class DatabaseHelper {
 	 */
 	public void hideQuestionReply(Question questionReply) {
 		String query = "UPDATE questionReplies SET isHidden = TRUE WHERE replyID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setInt(1, questionReply.getReplyID());
 	        int rowsAffected = pstmt.executeUpdate();
-	        connection.commit(); 
+	        currentConnection().commit(); 
+	        publish(ChangeEvent.Entity.REPLY, ChangeEvent.Kind.UPDATED, questionReply.getReplyID());
 	        if (rowsAffected > 0) {
 				questionReply.setIsHidden(true);
 			}
@@ -3457,10 +5320,11 @@ public class DatabaseHelper {
 	 */
 	public void hideAnswer(Answer answer) {
 		String query = "UPDATE answers SET isHidden = TRUE WHERE answerID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setInt(1, answer.getAnswerID());
 	        int rowsAffected = pstmt.executeUpdate();
-	        connection.commit(); 
+	        currentConnection().commit(); 
+	        publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.UPDATED, answer.getAnswerID());
 	        if (rowsAffected > 0) {
 				answer.setIsHidden(true);
 			}
@@ -3476,10 +5340,11 @@ public class DatabaseHelper {
 	 */
 	public void hideReview(Review review) {
 		String query = "UPDATE reviews SET isHidden = TRUE WHERE reviewID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 	        pstmt.setInt(1, review.getReviewID());
 	        int rowsAffected = pstmt.executeUpdate();
-	        connection.commit(); 
+	        currentConnection().commit(); 
+	        publish(ChangeEvent.Entity.REVIEW, ChangeEvent.Kind.UPDATED, review.getReviewID());
 	        if (rowsAffected > 0) {
 				review.setIsHidden(true);
 			}
@@ -3497,11 +5362,12 @@ public class DatabaseHelper {
 	public boolean hideAllQuestionsForMutedUser(User user) {
 		boolean updateStatus = false;
 		String query = "UPDATE questions SET isHidden = TRUE WHERE studentUserName = ? AND studentFirstName = ? AND studentLastName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setString(1, user.getUserName());
 	        pstmt.setString(2, user.getFirstName());
 	        pstmt.setString(3, user.getLastName());
 	        int rowsAffected =  pstmt.executeUpdate();
+	        publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.UPDATED, ChangeEvent.ALL_ROWS);
 	        if (rowsAffected > 0) {
 	        	updateStatus = true;
 	        }
@@ -3520,11 +5386,12 @@ public class DatabaseHelper {
 	public boolean hideAllQuestionRepliesForMutedUser(User user) {
 		boolean updateStatus = false;
 		String query = "UPDATE questionReplies SET isHidden = TRUE WHERE studentUserName = ? AND studentFirstName = ? AND studentLastName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setString(1, user.getUserName());
 	        pstmt.setString(2, user.getFirstName());
 	        pstmt.setString(3, user.getLastName());
 	        int rowsAffected = pstmt.executeUpdate();
+	        publish(ChangeEvent.Entity.REPLY, ChangeEvent.Kind.UPDATED, ChangeEvent.ALL_ROWS);
 	        if (rowsAffected > 0) {
 	        	updateStatus = true;
 	        }
@@ -3543,11 +5410,12 @@ public class DatabaseHelper {
 	public boolean hideAllAnswersForMutedUser(User user) {
 		boolean updateStatus = false;
 		String query = "UPDATE answers SET isHidden = TRUE WHERE studentUserName = ? AND studentFirstName = ? AND studentLastName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setString(1, user.getUserName());
 	        pstmt.setString(2, user.getFirstName());
 	        pstmt.setString(3, user.getLastName());
 	        int rowsAffected = pstmt.executeUpdate();
+	        publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.UPDATED, ChangeEvent.ALL_ROWS);
 	        if (rowsAffected > 0) {
 	        	updateStatus = true;
 	        }
@@ -3566,11 +5434,12 @@ public class DatabaseHelper {
 	public boolean hideAllReviewsForMutedUser(User user) {
 		boolean updateStatus = false;
 		String query = "UPDATE reviews SET isHidden = TRUE WHERE reviewerUserName = ? AND reviewerFirstName = ? AND reviewerLastName = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setString(1, user.getUserName());
 	        pstmt.setString(2, user.getFirstName());
 	        pstmt.setString(3, user.getLastName());
 	        int rowsAffected = pstmt.executeUpdate();
+	        publish(ChangeEvent.Entity.REVIEW, ChangeEvent.Kind.UPDATED, ChangeEvent.ALL_ROWS);
 	        if (rowsAffected > 0) {
 	        	updateStatus = true;
 	        }
@@ -3589,22 +5458,10 @@ public class DatabaseHelper {
 	 * @param timeSent the original time the message was sent
 	 * @param messageSubject the user defined subject of the message
 	 * @param messageBody the user defined message body
+	 * @see #markMessagesFlagged(InboxMessage.Source, Collection, String)
 	 */
 	public void markStudentPrivateMessageFlagged(String reasonIsFlagged, String receiverUserName, String senderUserName, LocalDateTime timeSent, String messageSubject, String messageBody) {
-		String query = "UPDATE PrivateMessages SET isFlagged = TRUE, reasonIsFlagged = ? WHERE sender_user_name = ? AND receiver_user_name = ? AND subject = ? AND message_body = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, reasonIsFlagged);
-			pstmt.setString(2, senderUserName);
-			pstmt.setString(3, receiverUserName);
-			pstmt.setString(4, messageSubject);
-			pstmt.setString(5, messageBody);
-			//pstmt.setTimestamp(6, Timestamp.valueOf(timeSent));
-			pstmt.executeUpdate();
-	        connection.commit(); 
-		}
-		catch (SQLException e) {
-			e.printStackTrace();
-		}
+		markMessagesFlagged(InboxMessage.Source.STUDENT, findMessageIDs(InboxMessage.Source.STUDENT, receiverUserName, senderUserName, messageSubject, messageBody), reasonIsFlagged);
 	}
 	
 	/**
@@ -3616,22 +5473,10 @@ public class DatabaseHelper {
 	 * @param timeSent the original time the message was sent
 	 * @param messageSubject the user defined subject of the message
 	 * @param messageBody the user defined message body
+	 * @see #markMessagesFlagged(InboxMessage.Source, Collection, String)
 	 */
 	public void markReviewerPrivateMessageFlagged(String reasonIsFlagged, String receiverUserName, String senderUserName, LocalDateTime timeSent, String messageSubject, String messageBody) {
-		String query = "UPDATE reviewerMessages SET isFlagged = TRUE, reasonIsFlagged = ? WHERE sender = ? AND recipient = ? AND subject = ? AND body = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, reasonIsFlagged);
-			pstmt.setString(2, senderUserName);
-			pstmt.setString(3, receiverUserName);
-			pstmt.setString(4, messageSubject);
-			pstmt.setString(5, messageBody);
-			//pstmt.setTimestamp(6, Timestamp.valueOf(timeSent));
-			pstmt.executeUpdate();
-			connection.commit();
-		}
-		catch (SQLException e) {
-			e.printStackTrace();
-		}
+		markMessagesFlagged(InboxMessage.Source.REVIEWER, findMessageIDs(InboxMessage.Source.REVIEWER, receiverUserName, senderUserName, messageSubject, messageBody), reasonIsFlagged);
 	}
 	
 	/**
@@ -3643,25 +5488,14 @@ public class DatabaseHelper {
 	 * @param messageSubject the user defined subject of the message
 	 * @param messageBody the user defined message body
 	 * @return true if the private message is flagged, false if not
+	 * @see #getMessage(InboxMessage.Source, int)
 	 */
 	public boolean checkIfStudentPrivateMessageFlagged(String receiverUserName, String senderUserName, LocalDateTime timeSent, String messageSubject, String messageBody) {
-		Boolean isFlaggedStatus = false;
-		String query = "SELECT isFlagged from PrivateMessages WHERE sender_user_name = ? AND receiver_user_name = ? AND subject = ? AND message_body = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, senderUserName);
-			pstmt.setString(2, receiverUserName);
-			pstmt.setString(3, messageSubject);
-			pstmt.setString(4, messageBody);
-			//pstmt.setTimestamp(5, Timestamp.valueOf(timeSent));
-	        ResultSet rs = pstmt.executeQuery();
-	        if (rs.next()) {
-	        	isFlaggedStatus = rs.getBoolean("isFlagged");
-	        }
-			
-		} catch (SQLException e) {
-	        e.printStackTrace();
-	    }	
-		return isFlaggedStatus;
+		for (int messageID : findMessageIDs(InboxMessage.Source.STUDENT, receiverUserName, senderUserName, messageSubject, messageBody)) {
+			InboxMessage message = getMessage(InboxMessage.Source.STUDENT, messageID);
+			return message != null && message.isFlagged();
+		}
+		return false;
 	}
 	
 	/**
@@ -3673,25 +5507,14 @@ public class DatabaseHelper {
 	 * @param messageSubject the user defined subject of the message
 	 * @param messageBody the user defined message body
 	 * @return true if the private message is flagged, false if not
+	 * @see #getMessage(InboxMessage.Source, int)
 	 */
 	public boolean checkIfReviewerPrivateMessageFlagged(String receiverUserName, String senderUserName, LocalDateTime timeSent, String messageSubject, String messageBody) {
-		Boolean isFlaggedStatus = false;
-		String query = "SELECT isFlagged from reviewerMessages WHERE sender = ? AND recipient = ? AND subject = ? AND body = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, senderUserName);
-			pstmt.setString(2, receiverUserName);
-			pstmt.setString(3, messageSubject);
-			pstmt.setString(4, messageBody);
-			//pstmt.setTimestamp(5, Timestamp.valueOf(timeSent));
-	        ResultSet rs = pstmt.executeQuery();
-	        if (rs.next()) {
-	        	isFlaggedStatus = rs.getBoolean("isFlagged");
-	        }
-			
-		} catch (SQLException e) {
-	        e.printStackTrace();
-	    }	
-		return isFlaggedStatus;
+		for (int messageID : findMessageIDs(InboxMessage.Source.REVIEWER, receiverUserName, senderUserName, messageSubject, messageBody)) {
+			InboxMessage message = getMessage(InboxMessage.Source.REVIEWER, messageID);
+			return message != null && message.isFlagged();
+		}
+		return false;
 	}
 	
 	/**
@@ -3703,25 +5526,14 @@ public class DatabaseHelper {
 	 * @param messageSubject the user defined subject of the message
 	 * @param messageBody the user defined message body
 	 * @return the staff user defined reason a private message was flagged
+	 * @see #getMessage(InboxMessage.Source, int)
 	 */
 	public String getReasonStudentPrivateMessageFlagged(String receiverUserName, String senderUserName, LocalDateTime timeSent, String messageSubject, String messageBody) {
-		String reasonIsFlagged = "";
-		String query = "SELECT reasonIsFlagged from PrivateMessages WHERE sender_user_name = ? AND receiver_user_name = ? AND subject = ? AND message_body = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, senderUserName);
-			pstmt.setString(2, receiverUserName);
-			pstmt.setString(3, messageSubject);
-			pstmt.setString(4, messageBody);
-			//pstmt.setTimestamp(5, Timestamp.valueOf(timeSent));
-	        ResultSet rs = pstmt.executeQuery();
-	        if (rs.next()) {
-	        	reasonIsFlagged = rs.getString("reasonIsFlagged");
-	        }
-			
-		} catch (SQLException e) {
-	        e.printStackTrace();
-	    }	
-		return reasonIsFlagged;		
+		for (int messageID : findMessageIDs(InboxMessage.Source.STUDENT, receiverUserName, senderUserName, messageSubject, messageBody)) {
+			InboxMessage message = getMessage(InboxMessage.Source.STUDENT, messageID);
+			return message == null ? "" : message.getReasonIsFlagged();
+		}
+		return "";
 	}
 	
 	/**
@@ -3733,25 +5545,14 @@ public class DatabaseHelper {
 	 * @param messageSubject the user defined subject of the message
 	 * @param messageBody the user defined message body
 	 * @return the staff user defined reason a private message was flagged
+	 * @see #getMessage(InboxMessage.Source, int)
 	 */
 	public String getReasonReviewerPrivateMessageFlagged(String receiverUserName, String senderUserName, LocalDateTime timeSent, String messageSubject, String messageBody) {
-		String reasonIsFlagged = "";
-		String query = "SELECT reasonIsFlagged from reviewerMessages WHERE sender = ? AND recipient = ? AND subject = ? AND body = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, senderUserName);
-			pstmt.setString(2, receiverUserName);
-			pstmt.setString(3, messageSubject);
-			pstmt.setString(4, messageBody);
-			//pstmt.setTimestamp(5, Timestamp.valueOf(timeSent));
-	        ResultSet rs = pstmt.executeQuery();
-	        if (rs.next()) {
-	        	reasonIsFlagged = rs.getString("reasonIsFlagged");
-	        }
-			
-		} catch (SQLException e) {
-	        e.printStackTrace();
-	    }	
-		return reasonIsFlagged;
+		for (int messageID : findMessageIDs(InboxMessage.Source.REVIEWER, receiverUserName, senderUserName, messageSubject, messageBody)) {
+			InboxMessage message = getMessage(InboxMessage.Source.REVIEWER, messageID);
+			return message == null ? "" : message.getReasonIsFlagged();
+		}
+		return "";
 	}
 	
 	/**
@@ -3763,7 +5564,7 @@ public class DatabaseHelper {
 	public ArrayList<Question> getAllQuestionsEvenHidden(User user) { 
 		ArrayList<Question> allQuestions = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, studentUserName, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden FROM questions";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -3798,7 +5599,7 @@ public class DatabaseHelper {
 	public ArrayList<Question> getAllQuestionsFlagged(User user) { 
 		ArrayList<Question> allQuestions = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, studentUserName, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden FROM questions WHERE isFlagged = TRUE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -3833,7 +5634,7 @@ public class DatabaseHelper {
 	public ArrayList<Question> getAllQuestionsHidden(User user) { 
 		ArrayList<Question> allQuestions = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, studentUserName, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden FROM questions WHERE isHidden = TRUE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -3867,7 +5668,7 @@ public class DatabaseHelper {
 	public ArrayList<Question> getAllRepliesEvenHidden() {
 		ArrayList<Question> allReplies = new ArrayList<>();
 		String sqlQuery = "SELECT replyID, questionID, studentUserName, studentFirstName, studentLastName, questionReplyText, replyingTo, isFlagged, reasonIsFlagged, isHidden FROM questionReplies";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int replyID = rs.getInt("replyID");
@@ -3899,7 +5700,7 @@ public class DatabaseHelper {
 	public ArrayList<Question> getAnsweredQuestionsEvenHidden() {
 		ArrayList<Question> getAnsweredQuestions = new ArrayList<>();
 		String sqlQuery = "SELECT q.questionID, q.studentUserName, q.studentFirstName, q.studentLastName, q.questionTitle, q.questionBody, q.isResolved, q.creationTime, q.isFlagged, q.reasonIsFlagged, q.isHidden FROM questions q WHERE q.questionID IN (SELECT a.questionID FROM answers a)";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -3936,7 +5737,7 @@ public class DatabaseHelper {
 				"FROM questions q LEFT JOIN answers a ON q.questionID = a.questionID " +
 				"WHERE a.answerID IS NULL";
 
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while (rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -3969,7 +5770,7 @@ public class DatabaseHelper {
 	public ArrayList<Question> getUnresolvedQuestionsEvenHidden() { 
 		ArrayList<Question> unresolvedQuestions = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, studentUserName, studentFirstName, studentLastName, questionTitle, questionBody, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden FROM questions WHERE isResolved = false";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -4004,7 +5805,7 @@ public class DatabaseHelper {
 	public ArrayList<Answer> getAllAnswersEvenHidden(User user) { 
 		ArrayList<Answer> allAnswers = new ArrayList<>();
 		String sqlQuery = "SELECT answerID, questionID, studentUserName, studentFirstName, studentLastName, answerText, isAnswerUnread, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden FROM answers";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int answerID = rs.getInt("answerID");
@@ -4040,7 +5841,7 @@ public class DatabaseHelper {
 	public ArrayList<Answer> getAllAnswersFlagged(User user) { 
 		ArrayList<Answer> allAnswers = new ArrayList<>();
 		String sqlQuery = "SELECT answerID, questionID, studentUserName, studentFirstName, studentLastName, answerText, isAnswerUnread, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden FROM answers WHERE isFlagged = TRUE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int answerID = rs.getInt("answerID");
@@ -4076,7 +5877,7 @@ public class DatabaseHelper {
 	public ArrayList<Answer> getAllAnswersHidden(User user) { 
 		ArrayList<Answer> allAnswers = new ArrayList<>();
 		String sqlQuery = "SELECT answerID, questionID, studentUserName, studentFirstName, studentLastName, answerText, isAnswerUnread, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden FROM answers WHERE isHidden = TRUE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int answerID = rs.getInt("answerID");
@@ -4112,7 +5913,7 @@ public class DatabaseHelper {
 	public ArrayList<Answer> getAnswersByQuestionIDEvenHidden(int questionID) {
 		ArrayList<Answer> answersForQuestionID = new ArrayList<>();
 		String sqlQuery = "SELECT answerID, questionID, studentUserName, studentFirstName, studentLastName, answerText, isResolved, isAnswerUnread, creationTime, , isFlagged, reasonIsFlagged, isHidden FROM answers WHERE questionID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setInt(1, questionID);
 			ResultSet rs = pstmt.executeQuery();
 			while (rs.next()) {
@@ -4147,7 +5948,7 @@ public class DatabaseHelper {
 	public ArrayList<Answer> getResolvedAnswersEvenHidden() {
 		ArrayList<Answer> resolvedAnswers = new ArrayList<>();
 		String sqlQuery = "SELECT answerID, questionID, studentUserName, studentFirstName, studentLastName, answerText, isAnswerUnread, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden FROM answers WHERE isResolved = TRUE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int answerID = rs.getInt("answerID");
@@ -4182,7 +5983,7 @@ public class DatabaseHelper {
 	public ArrayList<Answer> getUnresolvedAnswersEvenHidden() {
 		ArrayList<Answer> unresolvedAnswers = new ArrayList<>();
 		String sqlQuery = "SELECT answerID, questionID, studentUserName, studentFirstName, studentLastName, answerText, isAnswerUnread, isResolved, creationTime, isFlagged, reasonIsFlagged, isHidden FROM answers WHERE isResolved = FALSE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int answerID = rs.getInt("answerID");
@@ -4220,7 +6021,7 @@ public class DatabaseHelper {
 				"FROM answers a JOIN questions q ON a.questionID = q.questionID " +
 				"WHERE a.isResolved = TRUE";
 
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while (rs.next()) {
 				int answerID = rs.getInt("answerID");
@@ -4261,7 +6062,7 @@ public class DatabaseHelper {
 	public ArrayList<Review> getAllReviewsEvenHidden(User user) { 
 		ArrayList<Review> allReviews = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, answerID, prevReviewID, reviewID, reviewBody, reviewerUserName, reviewerFirstName, reviewerLastName, isFlagged, reasonIsFlagged, isHidden FROM reviews";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -4296,7 +6097,7 @@ public class DatabaseHelper {
 	public ArrayList<Review> getAllReviewsFlagged(User user) { 
 		ArrayList<Review> allReviews = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, answerID, prevReviewID, reviewID, reviewBody, reviewerUserName, reviewerFirstName, reviewerLastName, isFlagged, reasonIsFlagged, isHidden FROM reviews WHERE isFlagged = TRUE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -4331,7 +6132,7 @@ public class DatabaseHelper {
 	public ArrayList<Review> getAllReviewsHidden(User user) { 
 		ArrayList<Review> allReviews = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, answerID, prevReviewID, reviewID, reviewBody, reviewerUserName, reviewerFirstName, reviewerLastName, isFlagged, reasonIsFlagged, isHidden FROM reviews WHERE isHidden = TRUE";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
 				int questionID = rs.getInt("questionID");
@@ -4366,7 +6167,7 @@ public class DatabaseHelper {
 	public ArrayList<Review> getReviewByAnswerIDEvenHidden(int answerID){
 		ArrayList<Review> reviews = new ArrayList<>();
 		String sqlQuery = "SELECT questionID, answerID, prevReviewID, reviewID, reviewBody, reviewerUserName, reviewerFirstName, reviewerLastName, isFlagged, reasonIsFlagged, isHidden FROM reviews WHERE answerID = ? ";
-		try (PreparedStatement pstmt = connection.prepareStatement(sqlQuery)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(sqlQuery)) {
 			pstmt.setInt(1, answerID);
 			ResultSet rs = pstmt.executeQuery();
 			while(rs.next()) {
@@ -4399,12 +6200,14 @@ public class DatabaseHelper {
 	 */
 	public void markAnswerAsRead(Answer answer) {
 		String query = "UPDATE answers SET isAnswerUnread = FALSE WHERE answerID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+		try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			pstmt.setInt(1, answer.getAnswerID());
 			int rowsAffected = pstmt.executeUpdate();
-			connection.commit();
+			currentConnection().commit();
+			publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.UPDATED, answer.getAnswerID());
 			if (rowsAffected > 0) {
 				answer.setIsAnswerUnread(false);
+				unreadAnswerCounts.invalidate();
 			}
 		}
 		catch (SQLException e) {
@@ -4420,19 +6223,7 @@ public class DatabaseHelper {
 	 * @return the number of unread messages for the specified questionID.
 	 */
 	public int getUnreadPrivateMessageCountByQuestion(String studentUserName, int questionID) {
-		int count = -1;
-		String sql = "SELECT COUNT(*) AS unread_count FROM PrivateMessages WHERE receiver_user_name = ? AND is_read = FALSE AND questionID = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-	        pstmt.setString(1, studentUserName);
-	        pstmt.setInt(2, questionID);
-	        ResultSet rs = pstmt.executeQuery();
-	        if (rs.next()) {
-	            count = rs.getInt("unread_count");
-	        }
-	    } catch (SQLException e) {
-	        e.printStackTrace();
-	    }
-	    return count;
+		return getUnreadCounters().getUnreadAboutQuestion(studentUserName, InboxMessage.Source.STUDENT, questionID);
 	}
 	
 	/**
@@ -4447,7 +6238,7 @@ public class DatabaseHelper {
 	public boolean sendPrivateMessageToReviewer(String senderUserName, String receiverUserName, int reviewID, String subject, String messageBody) {
 	    try {
 	        String sql = "INSERT INTO PrivateMessages (sender_user_name, receiver_user_name, reviewID, message_body, subject, is_read, timestamp, isFlagged, reasonIsFlagged, questionID) VALUES (?, ?, ?, ?, ?, FALSE, ?, FALSE, ?, ?)";
-	        PreparedStatement pstmt = connection.prepareStatement(sql);
+	        PreparedStatement pstmt = currentConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
 	        pstmt.setString(1, senderUserName);
 	        pstmt.setString(2, receiverUserName);
 	        pstmt.setInt(3, reviewID);
@@ -4457,6 +6248,7 @@ public class DatabaseHelper {
 	        pstmt.setString(7, "");
 	        pstmt.setInt(8, -1);
 	        int rows = pstmt.executeUpdate();
+	        publish(ChangeEvent.Entity.STUDENT_MESSAGE, ChangeEvent.Kind.ADDED, generatedKey(pstmt));
 	        pstmt.close();
 	        return rows > 0;
 	    } catch (SQLException e) {
@@ -4477,7 +6269,7 @@ public class DatabaseHelper {
 	public boolean sendPrivateMessageToStudent(String senderUserName, String receiverUserName, int questionID, String subject, String messageBody) {
 	    try {
 	        String sql = "INSERT INTO PrivateMessages (sender_user_name, receiver_user_name, questionID, message_body, subject, is_read, timestamp, isFlagged, reasonIsFlagged, reviewID) VALUES (?, ?, ?, ?, ?, FALSE, ?, FALSE, ?, ?)";
-	        PreparedStatement pstmt = connection.prepareStatement(sql);
+	        PreparedStatement pstmt = currentConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
 	        pstmt.setString(1, senderUserName);
 	        pstmt.setString(2, receiverUserName);
 	        pstmt.setInt(3, questionID);
@@ -4487,6 +6279,7 @@ public class DatabaseHelper {
 	        pstmt.setString(7, "");
 	        pstmt.setInt(8, -1);
 	        int rows = pstmt.executeUpdate();
+	        publish(ChangeEvent.Entity.STUDENT_MESSAGE, ChangeEvent.Kind.ADDED, generatedKey(pstmt));
 	        pstmt.close();
 	        return rows > 0;
 	    } catch (SQLException e) {
@@ -4502,20 +6295,10 @@ public class DatabaseHelper {
 	 * @param senderUserName the username of the Student who sent the message
 	 * @param messageSubject the message subject of the message to mark as read
 	 * @param messageBody the message body of the message to mark as read
+	 * @see #markMessagesRead(InboxMessage.Source, Collection)
 	 */
 	public void markStudentToStudentMessageAsRead(String receiverUserName, String senderUserName, String messageSubject, String messageBody) {
-		String query = "UPDATE PrivateMessages SET is_read = TRUE WHERE sender_user_name = ? AND receiver_user_name = ? AND subject = ? AND message_body = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, senderUserName);
-			pstmt.setString(2, receiverUserName);
-			pstmt.setString(3, messageSubject);
-			pstmt.setString(4, messageBody);
-			pstmt.executeUpdate();
-	        connection.commit(); 
-		}
-		catch (SQLException e) {
-			e.printStackTrace();
-		}
+		markMessagesRead(InboxMessage.Source.STUDENT, findMessageIDs(InboxMessage.Source.STUDENT, receiverUserName, senderUserName, messageSubject, messageBody));
 	}
 	
 	/**
@@ -4525,105 +6308,35 @@ public class DatabaseHelper {
 	 * @param senderUserName the username of the reviewer who sent the message
 	 * @param messageSubject the message subject of the message to mark as read
 	 * @param messageBody the message body of the message to mark as read
+	 * @see #markMessagesRead(InboxMessage.Source, Collection)
 	 */
 	public void markReviewerToStudentMessageAsRead(String receiverUserName, String senderUserName, String messageSubject, String messageBody) {
-		String query = "UPDATE reviewerMessages SET isRead = TRUE WHERE sender = ? AND recipient = ? AND subject = ? AND body = ?";
-		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-			pstmt.setString(1, senderUserName);
-			pstmt.setString(2, receiverUserName);
-			pstmt.setString(3, messageSubject);
-			pstmt.setString(4, messageBody);
-			pstmt.executeUpdate();
-			connection.commit();
-		}
-		catch (SQLException e) {
-			e.printStackTrace();
-		}
+		markMessagesRead(InboxMessage.Source.REVIEWER, findMessageIDs(InboxMessage.Source.REVIEWER, receiverUserName, senderUserName, messageSubject, messageBody));
 	}
 	
 	/**
-	 * Retrieves the count of unread private messages for a specific student.
+	 * Retrieves the count of unread private messages for a specific student, from other students and from
+	 * reviewers.
 	 *
 	 * @param studentUserName The student's username.
 	 * @return The number of unread messages.
 	 */
 	public int getUnreadPrivateMessageCount(String studentUserName) {
-	    int count = 0;
-	    // Fetch from PrivateMessages table
-	    String query1 = "SELECT COUNT(*) AS unread_count FROM PrivateMessages WHERE receiver_user_name = ? AND is_read = FALSE";
-	    
-	    // Fetch from reviewerMessages table
-	    String query2 =  "SELECT COUNT(*) AS unreadCount FROM reviewerMessages WHERE recipient = ? AND isRead = FALSE";
-	    
-	    try {
-	    	// First query
-	    	try (PreparedStatement pstmt1 = connection.prepareStatement(query1)) {
-	            pstmt1.setString(1, studentUserName);
-	            ResultSet rs = pstmt1.executeQuery();
-	            if (rs.next()) {
-	                count = rs.getInt("unread_count");
-	            }
-	    	}
-	    	// Second query
-            try (PreparedStatement pstmt2 = connection.prepareStatement(query2)) {
-        		pstmt2.setString(1, studentUserName);
-        		ResultSet rs = pstmt2.executeQuery();
-        		if (rs.next()) {
-        			count += rs.getInt("unreadCount");
-        		}
-            }
-	    }
-	    catch (SQLException e) {
-	        e.printStackTrace();
-	    }
-	    return count;
+		return countUnreadMessages(studentUserName, STUDENT_AND_REVIEWER_MESSAGES);
 	}
 	
 	/**
-	 * Retrieves all private messages sent by a specific student user.
+	 * Retrieves all private messages sent by a specific student user, newest first.
 	 *
 	 * @param studentUserName The username of the student.
 	 * @return A list of message strings formatted with recipient, subject, date, and message contents.
+	 * @see #getStudentSentMessages(String)
 	 */
 	public ArrayList<String> getPrivateMessagesSentByStudent(String studentUserName) {
 	    ArrayList<String> messages = new ArrayList<>();
-	    DateTimeFormatter timeMessageSent = DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
-	    
-	    // Retrieve messages sent from another Student to this Student
-	    String query1 = "SELECT p.sender_user_name, p.receiver_user_name, p.subject, p.message_body, p.timestamp FROM PrivateMessages p WHERE p.sender_user_name = ?";
-	    
-	    // Retrieve messages sent from Reviewers to this Student 
-		String query2 = "SELECT r.sender, r.recipient, r.subject, r.body, r.sentTime FROM reviewerMessages r WHERE r.sender = ?";
-	    
 		try {
-			try (PreparedStatement pstmt1 = connection.prepareStatement(query1)) {
-				pstmt1.setString(1, studentUserName);
-				ResultSet rs = pstmt1.executeQuery();
-		        while (rs.next()) {
-		        	String senderUserName = rs.getString("sender_user_name");
-		        	String receiverUserName = rs.getString("receiver_user_name");
-		        	String messageSubject = rs.getString("subject");
-		        	String messageBody = rs.getString("message_body");
-		        	Timestamp timeSent = rs.getTimestamp("timestamp");
-		        	String formattedTime = timeSent.toLocalDateTime().format(timeMessageSent);
-		        	
-		        	messages.add("To [Student]: " + receiverUserName + "\n" + "From [Student]: " + senderUserName + "\n" + "Date: " + formattedTime + "\n" + "Message Subject: " + messageSubject + "\n" + "Message Body: " + messageBody);
-		        }
-			}
-			
-			try (PreparedStatement pstmt2 = connection.prepareStatement(query2)) {
-				pstmt2.setString(1, studentUserName);
-				ResultSet rs2 = pstmt2.executeQuery();
-				while (rs2.next()) {
-					String reviewer2UserName = rs2.getString("sender");
-					String student2UserName = rs2.getString("recipient");
-					String messageSubject2 = rs2.getString("subject");
-					String messageBody2 = rs2.getString("body");
-					Timestamp timeSent2 = rs2.getTimestamp("sentTime");
-					String formattedTime2 = timeSent2.toLocalDateTime().format(timeMessageSent);
-					
-					messages.add("To [Student]: " + student2UserName + "\n" + "From [Reviewer]: " + reviewer2UserName + "\n" + "Date: " + formattedTime2 + "\n" + "Message Subject: " + messageSubject2 + "\n" + "Message Body: " + messageBody2);
-				}
+			for (InboxMessage message : getAllMessages(true, studentUserName, STUDENT_AND_REVIEWER_MESSAGES)) {
+				messages.add(message.toString());
 			}
 		}
 		catch (SQLException e) {
@@ -4632,23 +6345,6 @@ public class DatabaseHelper {
 	    return messages;
 	}
 	
-	/**
-     * Creates the flags table if it does not already exist.
-     *
-     * @throws SQLException If an error occurs while creating the table.
-     */
-    private void createFlagTable() throws SQLException {
-        String sql = "CREATE TABLE IF NOT EXISTS flags (" +
-                     "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                     "itemType TEXT, " +
-                     "itemId INTEGER, " +
-                     "reason TEXT, " +
-                     "flaggedBy TEXT)";
-        connection.createStatement().execute(sql);
-    }
-    
-  
-    
     /**
      * Deletes a question from the database as a staff member.
      * This is used for moderation purposes and bypasses normal user permissions.
@@ -4658,9 +6354,13 @@ public class DatabaseHelper {
      */
     public boolean staffDeleteQuestion(int questionId) {
         String query = "DELETE FROM Questions WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (PreparedStatement stmt = currentConnection().prepareStatement(query)) {
             stmt.setInt(1, questionId);
-            return stmt.executeUpdate() > 0;
+            boolean changed = stmt.executeUpdate() > 0;
+            if (changed) {
+                publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.DELETED, questionId);
+            }
+            return changed;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -4676,9 +6376,13 @@ public class DatabaseHelper {
      */
     public boolean staffDeleteAnswer(int answerId) {
         String query = "DELETE FROM Answers WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (PreparedStatement stmt = currentConnection().prepareStatement(query)) {
             stmt.setInt(1, answerId);
-            return stmt.executeUpdate() > 0;
+            boolean changed = stmt.executeUpdate() > 0;
+            if (changed) {
+                publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.DELETED, answerId);
+            }
+            return changed;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -4694,9 +6398,13 @@ public class DatabaseHelper {
      */
     public boolean staffDeleteReply(int replyId) {
         String query = "DELETE FROM Replies WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (PreparedStatement stmt = currentConnection().prepareStatement(query)) {
             stmt.setInt(1, replyId);
-            return stmt.executeUpdate() > 0;
+            boolean changed = stmt.executeUpdate() > 0;
+            if (changed) {
+                publish(ChangeEvent.Entity.REPLY, ChangeEvent.Kind.DELETED, replyId);
+            }
+            return changed;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -4712,9 +6420,13 @@ public class DatabaseHelper {
      */
     public boolean staffDeleteReview(int reviewId) {
         String query = "DELETE FROM Reviews WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        try (PreparedStatement stmt = currentConnection().prepareStatement(query)) {
             stmt.setInt(1, reviewId);
-            return stmt.executeUpdate() > 0;
+            boolean changed = stmt.executeUpdate() > 0;
+            if (changed) {
+                publish(ChangeEvent.Entity.REVIEW, ChangeEvent.Kind.DELETED, reviewId);
+            }
+            return changed;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -4728,7 +6440,11 @@ public class DatabaseHelper {
         String sql = "UPDATE Questions SET visible = false WHERE question_id = ?";
         try (Connection conn = this.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, questionId);
-            return pstmt.executeUpdate() > 0;
+            boolean changed = pstmt.executeUpdate() > 0;
+            if (changed) {
+                publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.UPDATED, questionId);
+            }
+            return changed;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -4754,7 +6470,11 @@ public class DatabaseHelper {
         String sql = "UPDATE Answers SET visible = false WHERE answer_id = ?";
         try (Connection conn = this.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, answerId);
-            return pstmt.executeUpdate() > 0;
+            boolean changed = pstmt.executeUpdate() > 0;
+            if (changed) {
+                publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.UPDATED, answerId);
+            }
+            return changed;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -4768,7 +6488,11 @@ public class DatabaseHelper {
         String sql = "UPDATE Replies SET visible = false WHERE reply_id = ?";
         try (Connection conn = this.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, replyId);
-            return pstmt.executeUpdate() > 0;
+            boolean changed = pstmt.executeUpdate() > 0;
+            if (changed) {
+                publish(ChangeEvent.Entity.REPLY, ChangeEvent.Kind.UPDATED, replyId);
+            }
+            return changed;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -4782,7 +6506,11 @@ public class DatabaseHelper {
         String sql = "UPDATE Reviews SET visible = false WHERE review_id = ?";
         try (Connection conn = this.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, reviewId);
-            return pstmt.executeUpdate() > 0;
+            boolean changed = pstmt.executeUpdate() > 0;
+            if (changed) {
+                publish(ChangeEvent.Entity.REVIEW, ChangeEvent.Kind.UPDATED, reviewId);
+            }
+            return changed;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -4822,7 +6550,11 @@ public class DatabaseHelper {
             pstmt.setInt(1, questionId);
             pstmt.setInt(2, staffId);
             pstmt.setString(3, content);
-            return pstmt.executeUpdate() > 0;
+            boolean changed = pstmt.executeUpdate() > 0;
+            if (changed) {
+                publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.ADDED, ChangeEvent.ALL_ROWS);
+            }
+            return changed;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -4838,7 +6570,11 @@ public class DatabaseHelper {
             pstmt.setString(1, sender);
             pstmt.setString(2, recipient);
             pstmt.setString(3, messageBody);
-            return pstmt.executeUpdate() > 0;
+            boolean changed = pstmt.executeUpdate() > 0;
+            if (changed) {
+                publish(ChangeEvent.Entity.STUDENT_MESSAGE, ChangeEvent.Kind.ADDED, ChangeEvent.ALL_ROWS);
+            }
+            return changed;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -4993,25 +6729,13 @@ public class DatabaseHelper {
 		 * @return	int count of the number of unread messages sent to the given user
 		 */
 		public int countUnreadInstructorPrivateMessages(User user) {
-			int unreadCount = 0;
-			String userName = user.getUserName();
-			String query = "SELECT COUNT(*) AS unreadCount FROM instructorMessages WHERE recipientUserName = ? AND isMessageRead = FALSE";
-			try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-	            pstmt.setString(1, userName);
-	            ResultSet rs = pstmt.executeQuery();
-	            if (rs.next()) {
-	                unreadCount = rs.getInt("unreadCount");
-	            }
-	        } catch (SQLException e) {
-	            e.printStackTrace();
-	        }
-	        return unreadCount;
+			return countUnreadMessages(user.getUserName(), EnumSet.of(InboxMessage.Source.INSTRUCTOR));
 		}
 		
 		public int addInstructorPrivateMessage(InstructorMessage message) {
 			String query = "INSERT INTO instructorMessages (senderEmail, senderUserName, senderFirstName, senderLastName, senderRole, messageSubject, messageBody, isMessageRead, recipientEmail, recipientUserName, recipientFirstName, recipientLastName, recipientRole, timeSent) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 			int instructorPrivateMessageIDGenerated = -1;
-			try (PreparedStatement pstmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+			try (PreparedStatement pstmt = currentConnection().prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 				pstmt.setString(1, message.sender().getEmail());
 				pstmt.setString(2, message.sender().getUserName());
 				pstmt.setString(3, message.sender().getFirstName());
@@ -5033,6 +6757,7 @@ public class DatabaseHelper {
 						message.setMessageID(instructorPrivateMessageIDGenerated);
 					}
 				}
+				publish(ChangeEvent.Entity.INSTRUCTOR_MESSAGE, ChangeEvent.Kind.ADDED, instructorPrivateMessageIDGenerated);
 			}
 			catch (SQLException e) {
 				e.printStackTrace();
@@ -5047,10 +6772,11 @@ public class DatabaseHelper {
 		 */
 		public void markInstructorMessageAsRead(InstructorMessage message) {
 			String query = "UPDATE instructorMessages SET isMessageRead = TRUE WHERE messageID = ?";
-			try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+			try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 				pstmt.setInt(1, message.messageID());
 				int rowsAffected = pstmt.executeUpdate();
-				connection.commit();
+				currentConnection().commit();
+				publish(ChangeEvent.Entity.INSTRUCTOR_MESSAGE, ChangeEvent.Kind.UPDATED, message.messageID());
 				if (rowsAffected > 0) {
 					message.markRead();
 				}
@@ -5069,7 +6795,7 @@ public class DatabaseHelper {
 		public ArrayList<InstructorMessage> getAllReceivedInstructorPrivateMessages(String userName) {
 			ArrayList<InstructorMessage> allInstructorPrivateMessages = new ArrayList<>();
 			String query = "SELECT messageID, senderFirstName, senderLastName, senderEmail, senderUserName, senderRole, messageSubject, messageBody, isMessageRead, isDeletedInbox, timeSent FROM instructorMessages WHERE recipientUserName = ?";
-				try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+				try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			        pstmt.setString(1, userName);
 			        ResultSet rs = pstmt.executeQuery();
 			        while (rs.next()) {
@@ -5104,7 +6830,7 @@ public class DatabaseHelper {
 		public ArrayList<InstructorMessage> getAllReceivedInstructorPrivateMessagesWithoutHidden(String userName) {
 			ArrayList<InstructorMessage> allInstructorPrivateMessages = new ArrayList<>();
 			String query = "SELECT messageID, senderFirstName, senderLastName, senderEmail, senderUserName, senderRole, messageSubject, messageBody, isMessageRead, isDeletedInbox, timeSent FROM instructorMessages WHERE recipientUserName = ? AND isDeletedInbox = false";
-				try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+				try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			        pstmt.setString(1, userName);
 			        ResultSet rs = pstmt.executeQuery();
 			        while (rs.next()) {
@@ -5139,7 +6865,7 @@ public class DatabaseHelper {
 		public ArrayList<InstructorMessage> getAllPrivateMessagesSentFromInstructor(String userName) {
 			ArrayList<InstructorMessage> allMessagesSentInstructor = new ArrayList<>();
 			String query = "SELECT messageID, recipientFirstName, recipientLastName, recipientEmail, recipientUserName, recipientRole, messageSubject, messageBody, isMessageRead, timeSent FROM instructorMessages where senderUserName = ?";
-			try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+			try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 				pstmt.setString(1, userName);
 		        ResultSet rs = pstmt.executeQuery();
 		        while(rs.next()) {
@@ -5171,9 +6897,10 @@ public class DatabaseHelper {
 		 */
 		public void deleteInstructorPrivateMessageFromInbox(int messageID) {
 			String query = "UPDATE instructorMessages SET isDeletedInbox = TRUE WHERE messageID = ?";
-			try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+			try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 				pstmt.setInt(1, messageID);
 				pstmt.executeUpdate();
+				publish(ChangeEvent.Entity.INSTRUCTOR_MESSAGE, ChangeEvent.Kind.UPDATED, messageID);
 			}
 			catch (SQLException e) {
 				e.printStackTrace();
@@ -5187,9 +6914,10 @@ public class DatabaseHelper {
 		 */
 		public void deleteInstructorPrivateMessage(int messageID) {
 			String query = "DELETE FROM instructorMessages WHERE messageID = ?";
-			try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+			try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 				pstmt.setInt(1, messageID);
 				pstmt.executeUpdate();
+				publish(ChangeEvent.Entity.INSTRUCTOR_MESSAGE, ChangeEvent.Kind.DELETED, messageID);
 			}
 			catch (SQLException e) {
 				e.printStackTrace();
@@ -5205,7 +6933,7 @@ public class DatabaseHelper {
 		public ArrayList<StaffMessage> getAllReceivedStaffPrivateMessagesWithoutHidden(String userName) { 
 			ArrayList<StaffMessage> allStaffPrivateMessages = new ArrayList<>();
 			String query = "SELECT messageID, senderFirstName, senderLastName, senderEmail, senderUserName, senderRole, messageSubject, messageBody, isMessageRead, isDeletedInbox, timeSent, isRepliedTo FROM staffMessages WHERE recipientUserName = ? AND isDeletedInbox = false";
-				try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+				try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 			        pstmt.setString(1, userName);
 			        ResultSet rs = pstmt.executeQuery();
 			        while (rs.next()) {
@@ -5239,9 +6967,10 @@ public class DatabaseHelper {
 		 */
 		public void markStaffMessageReplied(int staffPrivateMessageID) {
 			String query = "UPDATE staffMessages SET isRepliedTo = TRUE WHERE messageID = ?";
-			try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+			try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 				pstmt.setInt(1, staffPrivateMessageID);
 				pstmt.executeUpdate();
+				publish(ChangeEvent.Entity.STAFF_MESSAGE, ChangeEvent.Kind.UPDATED, staffPrivateMessageID);
 			}
 			catch (SQLException e) {
 				e.printStackTrace();
@@ -5255,9 +6984,10 @@ public class DatabaseHelper {
 		 */
 		public void deleteStaffPrivateMessageFromInbox(int staffPrivateMessageID) {
 			String query = "UPDATE staffMessages SET isDeletedInbox = TRUE WHERE messageID = ?";
-			try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+			try (PreparedStatement pstmt = currentConnection().prepareStatement(query)) {
 				pstmt.setInt(1, staffPrivateMessageID);
 				pstmt.executeUpdate();
+				publish(ChangeEvent.Entity.STAFF_MESSAGE, ChangeEvent.Kind.UPDATED, staffPrivateMessageID);
 			}
 			catch (SQLException e) {
 				e.printStackTrace();
@@ -5275,7 +7005,7 @@ public class DatabaseHelper {
 		public ArrayList<String> getMutedUsers() throws SQLException {
 			  ArrayList<String> users = new ArrayList<String>();
 			  String sql = "SELECT userName FROM cse360users WHERE isMuted = TRUE";
-			  try (PreparedStatement p = connection.prepareStatement(sql);
+			  try (PreparedStatement p = currentConnection().prepareStatement(sql);
 			       ResultSet rs = p.executeQuery()) {
 			    while (rs.next()) {
 			      users.add(rs.getString("userName"));
@@ -5289,16 +7019,19 @@ public class DatabaseHelper {
 		/**
 	     * Retrieves a list of muted usernames filtered by a specific user role.
 	     *
-	     * @param role the role to filter muted users by (e.g., "student", "instructor", "reviewer")
-	     * @return a List of usernames for users whose isMuted flag is TRUE and whose role matches the given value
+	     * @param role the role to filter muted users by, ignoring case (e.g., "student", "instructor", "reviewer")
+	     * @return a List of usernames for users whose isMuted flag is TRUE and who hold the given role, empty if there is no such role
 	     * @throws SQLException if a database access error occurs
 	     */
 		
 		public List<String> getMutedUsersByRole(String role) throws SQLException {
 		    List<String> users = new ArrayList<>();
-		    String sql = "SELECT userName FROM cse360users WHERE isMuted = TRUE AND role = ?";
-		    try (PreparedStatement p = connection.prepareStatement(sql)) {
-		        p.setString(1, role);
+		    Role heldRole = Role.fromName(role);
+		    if (heldRole == null) {
+		    	return users;
+		    }
+		    String sql = "SELECT userName FROM cse360users WHERE isMuted = TRUE AND " + roleCondition(EnumSet.of(heldRole)) + " ORDER BY id";
+		    try (PreparedStatement p = currentConnection().prepareStatement(sql)) {
 		        try (ResultSet rs = p.executeQuery()) {
 		            while (rs.next()) {
 		                users.add(rs.getString("userName"));
@@ -5317,20 +7050,8 @@ public class DatabaseHelper {
 	     * @param userName the username of the user to unmute
 	     */
 		public void unmuteUser(String userName) {
-			  // 1) flip the bit
-			  try ( PreparedStatement p = connection.prepareStatement(
-			         "UPDATE cse360users SET isMuted = FALSE WHERE userName = ?"
-			       ) ) {
-			    p.setString(1, userName);
-			    p.executeUpdate();
-			  } catch(SQLException e) {
-			    e.printStackTrace();
-			  }
-			  // 2) now un-hide everything we hid when we muted them
-			  clearHiddenQuestionsForUser(userName);
-			  clearHiddenRepliesForUser(userName);
-			  clearHiddenAnswersForUser(userName);
-			  clearHiddenReviewsForUser(userName);
+			  // both steps are applied in one transaction, so the user is never unmuted with posts still hidden
+			  applyModeration(new ModerationBatch().unmute(userName));
 			}
 		
 		/**
@@ -5343,9 +7064,10 @@ public class DatabaseHelper {
 		public boolean clearQuestionFlag(int questionID) {
 			boolean wasFlagCleared = false;
 			String sql = "UPDATE questions SET isFlagged = FALSE, reasonIsFlagged = '' WHERE questionID = ?";
-			try (PreparedStatement p = connection.prepareStatement(sql)) {
+			try (PreparedStatement p = currentConnection().prepareStatement(sql)) {
 				p.setInt(1, questionID);
 				int rowsAffected = p.executeUpdate();
+				publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.UPDATED, questionID);
 				if (rowsAffected > 0) {
 					wasFlagCleared = true;
 				}
@@ -5364,10 +7086,11 @@ public class DatabaseHelper {
 		public boolean clearHiddenQuestion(int questionID) {
 			boolean isNowUnHidden = false;
 		    String sql = "UPDATE questions SET isHidden = ? WHERE questionID = ?";
-		    try (PreparedStatement p = connection.prepareStatement(sql)) {
+		    try (PreparedStatement p = currentConnection().prepareStatement(sql)) {
 		        p.setBoolean(1, false);
 		        p.setInt(2, questionID);
 		        int rowsAffected = p.executeUpdate();
+		        publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.UPDATED, questionID);
 		        if (rowsAffected > 0) {
 		        	isNowUnHidden = true;
 		        }
@@ -5386,10 +7109,11 @@ public class DatabaseHelper {
 		public boolean clearHiddenAnswer(int answerID) {
 			boolean isNowUnHidden = false;
 		    String sql = "UPDATE answers SET isHidden = ? WHERE answerID = ?";
-		    try (PreparedStatement p = connection.prepareStatement(sql)) {
+		    try (PreparedStatement p = currentConnection().prepareStatement(sql)) {
 		        p.setBoolean(1, false);
 		        p.setInt(2, answerID);
 		        int rowsAffected = p.executeUpdate();
+		        publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.UPDATED, answerID);
 		        if (rowsAffected > 0) {
 		        	isNowUnHidden = true;
 		        }
@@ -5409,10 +7133,11 @@ public class DatabaseHelper {
 		public boolean clearHiddenReview(int reviewID) {
 			boolean isNowUnHidden = false;
 			String sql = "UPDATE reviews SET isHidden = ? WHERE reviewID = ?";
-			try (PreparedStatement p = connection.prepareStatement(sql)) {
+			try (PreparedStatement p = currentConnection().prepareStatement(sql)) {
 		        p.setBoolean(1, false);
 		        p.setInt(2, reviewID);
 		        int rowsAffected = p.executeUpdate();
+		        publish(ChangeEvent.Entity.REVIEW, ChangeEvent.Kind.UPDATED, reviewID);
 		        if (rowsAffected > 0) {
 		        	isNowUnHidden = true;
 		        }
@@ -5429,9 +7154,10 @@ public class DatabaseHelper {
 	     */
 		public void clearQuestionReplyFlag(int replyID) {
 			String sql ="UPDATE questionReplies SET isFlagged = FALSE, reasonIsFlagged = '' WHERE replyID = ?";
-			try (PreparedStatement p = connection.prepareStatement(sql)){
+			try (PreparedStatement p = currentConnection().prepareStatement(sql)){
 				p.setInt(1, replyID);
 				p.executeUpdate();
+				publish(ChangeEvent.Entity.REPLY, ChangeEvent.Kind.UPDATED, replyID);
 			} catch(SQLException e) {
 				e.printStackTrace();
 			}}
@@ -5446,9 +7172,10 @@ public class DatabaseHelper {
 		public boolean clearAnswerFlag(int answerID) {
 			boolean wasFlagCleared = false;
 			String sql = "UPDATE answers SET isFlagged = FALSE, reasonIsFlagged = '' WHERE answerID = ?";
-			try(PreparedStatement p = connection.prepareStatement(sql)){
+			try(PreparedStatement p = currentConnection().prepareStatement(sql)){
 				p.setInt(1, answerID);
 				int rowsAffected = p.executeUpdate();
+				publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.UPDATED, answerID);
 				if (rowsAffected > 0) {
 					wasFlagCleared = true;
 				}
@@ -5468,9 +7195,10 @@ public class DatabaseHelper {
 		public boolean clearReviewFlag(int reviewID) {
 			boolean wasFlagCleared = false;
 			String sql = "UPDATE reviews SET isFlagged = FALSE, reasonIsFlagged = '' WHERE reviewID = ?";
-			try(PreparedStatement p = connection.prepareStatement(sql)){
+			try(PreparedStatement p = currentConnection().prepareStatement(sql)){
 				p.setInt(1, reviewID);
 				int rowsAffected = p.executeUpdate();
+				publish(ChangeEvent.Entity.REVIEW, ChangeEvent.Kind.UPDATED, reviewID);
 				if (rowsAffected > 0) {
 					wasFlagCleared = true;
 				}
@@ -5490,9 +7218,10 @@ public class DatabaseHelper {
 		public boolean clearHiddenQuestionsForUser(String userName) {
 			boolean isNowUnHidden = false;
 			  String sql = "UPDATE questions SET isHidden = FALSE WHERE studentUserName = ?";
-			  try (PreparedStatement p = connection.prepareStatement(sql)) {
+			  try (PreparedStatement p = currentConnection().prepareStatement(sql)) {
 			    p.setString(1, userName);
 			    int rowsAffected = p.executeUpdate();
+			    publish(ChangeEvent.Entity.QUESTION, ChangeEvent.Kind.UPDATED, ChangeEvent.ALL_ROWS);
 		        if (rowsAffected > 0) {
 		        	isNowUnHidden = true;
 		        }
@@ -5511,9 +7240,10 @@ public class DatabaseHelper {
 		public boolean clearHiddenRepliesForUser(String userName) {
 		  boolean isNowUnHidden = false;
 		  String sql = "UPDATE questionReplies SET isHidden = FALSE WHERE studentUserName = ?";
-		  try (PreparedStatement p = connection.prepareStatement(sql)) {
+		  try (PreparedStatement p = currentConnection().prepareStatement(sql)) {
 		    p.setString(1, userName);
 		    int rowsAffected = p.executeUpdate();
+		    publish(ChangeEvent.Entity.REPLY, ChangeEvent.Kind.UPDATED, ChangeEvent.ALL_ROWS);
 	        if (rowsAffected > 0) {
 	        	isNowUnHidden = true;
 	        }
@@ -5533,9 +7263,10 @@ public class DatabaseHelper {
 		public boolean clearHiddenAnswersForUser(String userName) {
 			boolean isNowUnHidden = false;
 		  String sql = "UPDATE answers SET isHidden = FALSE WHERE studentUserName = ?";
-		  try (PreparedStatement p = connection.prepareStatement(sql)) {
+		  try (PreparedStatement p = currentConnection().prepareStatement(sql)) {
 		    p.setString(1, userName);
 		    int rowsAffected = p.executeUpdate();
+		    publish(ChangeEvent.Entity.ANSWER, ChangeEvent.Kind.UPDATED, ChangeEvent.ALL_ROWS);
 	        if (rowsAffected > 0) {
 	        	isNowUnHidden = true;
 	        }
@@ -5554,9 +7285,10 @@ public class DatabaseHelper {
 		public boolean clearHiddenReviewsForUser(String userName) {
 		  boolean isNowUnHidden = false;
 		  String sql = "UPDATE reviews SET isHidden = FALSE WHERE reviewerUserName = ?";
-		  try (PreparedStatement p = connection.prepareStatement(sql)) {
+		  try (PreparedStatement p = currentConnection().prepareStatement(sql)) {
 		    p.setString(1, userName);
 		    int rowsAffected = p.executeUpdate();
+		    publish(ChangeEvent.Entity.REVIEW, ChangeEvent.Kind.UPDATED, ChangeEvent.ALL_ROWS);
 	        if (rowsAffected > 0) {
 	        	isNowUnHidden = true;
 	        }
@@ -5580,23 +7312,7 @@ public class DatabaseHelper {
                 	LocalDateTime timeSent,
                 	String messageSubject,
                 	String messageBody) {
-					String sql =
-							"UPDATE reviewerMessages " +
-							"SET isFlagged = FALSE, reasonIsFlagged = NULL " +
-							"WHERE sender    = ? " +
-							"  AND recipient = ? " +
-							"  AND subject   = ? " +
-							"  AND body      = ?";
-				try (PreparedStatement p = connection.prepareStatement(sql)) {
-						p.setString(1, senderUserName);
-						p.setString(2, receiverUserName);
-						p.setString(3, messageSubject);
-						p.setString(4, messageBody);
-						p.executeUpdate();
-						connection.commit();
-						} catch (SQLException e) {
-					e.printStackTrace();
-			  }
+			clearMessageFlags(InboxMessage.Source.REVIEWER, findMessageIDs(InboxMessage.Source.REVIEWER, receiverUserName, senderUserName, messageSubject, messageBody));
 		}
 		
 		/**
@@ -5616,25 +7332,8 @@ public class DatabaseHelper {
 			    String subject,
 			    String body
 			) {
-			    String sql =
-			      "UPDATE PrivateMessages " +
-			      "SET isFlagged = FALSE, reasonIsFlagged = NULL " +
-			      "WHERE sender_user_name    = ? " +
-			      "  AND receiver_user_name  = ? " +
-			      "  AND timestamp = ? " +
-			      "  AND subject   = ? " +
-			      "  AND message_body      = ?";
-			    try (PreparedStatement p = connection.prepareStatement(sql)) {
-			      p.setString(1, from);                // the actual sender
-			      p.setString(2, to);                  // the actual receiver
-			      p.setTimestamp(3, Timestamp.valueOf(timestamp));
-			      p.setString(4, subject);
-			      p.setString(5, body);
-			      p.executeUpdate();
-			    } catch (SQLException e) {
-			      e.printStackTrace();
-			    }
-			}
+			clearMessageFlags(InboxMessage.Source.STUDENT, findMessageIDs(InboxMessage.Source.STUDENT, to, from, subject, body));
+		}
 		
 		 /**
 	     * Retrieves all flagged student↔student private messages from the database
@@ -5655,48 +7354,9 @@ public class DatabaseHelper {
 	     */
 		public List<String> getFlaggedStudentPrivateMessages() throws SQLException {
 		    List<String> rows = new ArrayList<>();
-
-		    // Note: use "PrivateMessages" (your table name) and the exact column names
-		    String sql = """
-		        SELECT
-		            receiver_user_name AS toUser,
-		            sender_user_name   AS fromUser,
-		            timestamp,
-		            subject,
-		            message_body       AS body
-		          FROM PrivateMessages
-		         WHERE isFlagged = TRUE
-		      ORDER BY timestamp DESC
-		    """;
-
-		    // reuse your existing formatter or define one here
-		    DateTimeFormatter msgFmt =
-		        DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
-
-		    try (PreparedStatement p = connection.prepareStatement(sql);
-		         ResultSet rs = p.executeQuery()) {
-
-		        while (rs.next()) {
-		            String to      = rs.getString("toUser");
-		            String from    = rs.getString("fromUser");
-		            LocalDateTime ts = rs.getTimestamp("timestamp")
-		                                 .toLocalDateTime();
-		            String dateStr = ts.format(msgFmt);
-		            String subj    = rs.getString("subject");
-		            String body    = rs.getString("body");
-
-		            // build the same 5-line format your UI expects:
-		            String formatted =
-		                "To [Student]: "     + to      + "\n" +
-		                "From [Student]: "   + from    + "\n" +
-		                "Date: "             + dateStr + "\n" +
-		                "Message Subject: "  + subj    + "\n" +
-		                "Message Body: "     + body;
-
-		            rows.add(formatted);
-		        }
+		    for (InboxMessage message : getMessagesBySource(InboxMessage.Source.STUDENT, true)) {
+		        rows.add(message.toString());
 		    }
-
 		    return rows;
 		}
 
@@ -5708,7 +7368,7 @@ public class DatabaseHelper {
 	     * Each entry in the returned list is formatted as five lines:
 	     * <pre>
 	     * To [role]: &lt;recipient username&gt;
-	     * From [Student]: &lt;sender username&gt;
+	     * From [role]: &lt;sender username&gt;
 	     * Date: &lt;formatted timestamp (MMM dd, yyyy hh:mm a)&gt;
 	     * Message Subject: &lt;subject&gt;
 	     * Message Body: &lt;body&gt;
@@ -5720,48 +7380,9 @@ public class DatabaseHelper {
 	     */
 		public List<String> getFlaggedReviewerPrivateMessages() throws SQLException {
 		    List<String> rows = new ArrayList<>();
-
-		    // Alias columns so your ResultSet.getXXX names line up with your parser:
-		    String sql = """
-		        SELECT
-		            recipientRole AS toRole,
-		            sender        AS fromUser,
-		            recipient     AS toUser,
-		            sentTime      AS timestamp,
-		            subject,
-		            body
-		          FROM reviewerMessages
-		         WHERE isFlagged = TRUE
-		      ORDER BY sentTime DESC
-		    """;
-
-		    DateTimeFormatter msgFmt =
-		        DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a");
-
-		    try (PreparedStatement p = connection.prepareStatement(sql);
-		         ResultSet rs = p.executeQuery()) {
-
-		        while (rs.next()) {
-		            String toRole   = rs.getString("toRole");
-		            String fromUser = rs.getString("fromUser");
-		            String toUser   = rs.getString("toUser");
-		            LocalDateTime ts = rs.getTimestamp("timestamp")
-		                                 .toLocalDateTime();
-		            String dateStr  = ts.format(msgFmt);
-		            String subj     = rs.getString("subject");
-		            String body     = rs.getString("body");
-
-		            String formatted =
-		                "To ["   + toRole   + "]: " + toUser   + "\n" +
-		                "From [Student]: "    + fromUser + "\n" +
-		                "Date: "              + dateStr  + "\n" +
-		                "Message Subject: "   + subj     + "\n" +
-		                "Message Body: "      + body;
-
-		            rows.add(formatted);
-		        }
+		    for (InboxMessage message : getMessagesBySource(InboxMessage.Source.REVIEWER, true)) {
+		        rows.add(message.toString());
 		    }
-
 		    return rows;
 		}
 		
@@ -5792,36 +7413,7 @@ public class DatabaseHelper {
 	     * @throws SQLException if an error occurs while querying the database
 	     */
 		public Map<String,Integer> getAllStudentMessagesWithIds() throws SQLException {
-		    Map<String,Integer> map = new LinkedHashMap<>();
-		    String sql = """
-		        SELECT messageID, receiver_user_name, sender_user_name,
-		               timestamp, subject, message_body
-		          FROM PrivateMessages
-		      ORDER BY timestamp DESC
-		    """;
-		    try (PreparedStatement p = connection.prepareStatement(sql);
-		         ResultSet rs = p.executeQuery()) {
-		        while (rs.next()) {
-		            int id        = rs.getInt("messageID");
-		            String to     = rs.getString("receiver_user_name");
-		            String from   = rs.getString("sender_user_name");
-		            LocalDateTime ts = rs.getTimestamp("timestamp").toLocalDateTime();
-		            String date   = ts.format(DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a"));
-		            String subj   = rs.getString("subject");
-		            String body   = rs.getString("message_body");
-
-		            String raw = String.join("\n",
-		                "To [Student]: "    + to,
-		                "From [Student]: "  + from,
-		                "Date: "            + date,
-		                "Message Subject: " + subj,
-		                "Message Body: "    + body
-		            );
-
-		            map.put(raw, id);
-		        }
-		    }
-		    return map;
+		    return byDisplayString(getMessagesBySource(InboxMessage.Source.STUDENT, false));
 		}
 
 		
@@ -5837,16 +7429,7 @@ public class DatabaseHelper {
 	     */
 		
 		public Map<String,Integer> getFlaggedStudentMessagesWithIds() throws SQLException {
-		    Map<String,Integer> map = new LinkedHashMap<>();
-		    String sql = """
-		        SELECT messageID, receiver_user_name, sender_user_name,
-		               timestamp, subject, message_body
-		          FROM PrivateMessages
-		         WHERE isFlagged = TRUE
-		      ORDER BY timestamp DESC
-		    """;
-		    // …same loop, building `raw` and `map.put(raw,id)`…
-		    return map;
+		    return byDisplayString(getMessagesBySource(InboxMessage.Source.STUDENT, true));
 		}
 
 		 /**
@@ -5860,46 +7443,7 @@ public class DatabaseHelper {
 	     * @throws SQLException if a database access error occurs while querying
 	     */
 		public Map<String,Integer> getAllReviewerMessagesWithIds() throws SQLException {
-		    Map<String,Integer> map = new LinkedHashMap<>();
-		    String sql = """
-		        SELECT messageID,
-		               sender        AS fromUser,
-		               recipient     AS toUser,
-		               recipientRole AS toRole,
-		               sentTime,
-		               subject,
-		               body
-		          FROM reviewerMessages
-		      ORDER BY sentTime DESC
-		    """;
-		    try (PreparedStatement p = connection.prepareStatement(sql);
-		         ResultSet rs = p.executeQuery()) {
-		        while (rs.next()) {
-		            int id              = rs.getInt("messageID");
-		            String fromUser     = rs.getString("fromUser");
-		            String toUser       = rs.getString("toUser");
-		            String toRole       = rs.getString("toRole");
-		            LocalDateTime ts    = rs.getTimestamp("sentTime")
-		                                     .toLocalDateTime();
-		            String date         = ts.format(
-		                DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a")
-		            );
-		            String subj         = rs.getString("subject");
-		            String body         = rs.getString("body");
-
-		            // build the same raw string your cell-factory expects
-		            String raw = String.join("\n",
-		                "To ["   + toRole + "]: "           + toUser,
-		                "From [" + (toRole.equals("Reviewer") ? "Student" : "Reviewer") +
-		                          "]: "         + fromUser,
-		                "Date: "                          + date,
-		                "Message Subject: "               + subj,
-		                "Message Body: "                  + body
-		            );
-		            map.put(raw, id);
-		        }
-		    }
-		    return map;
+		    return byDisplayString(getMessagesBySource(InboxMessage.Source.REVIEWER, false));
 		}
 
 		/**
@@ -5913,43 +7457,19 @@ public class DatabaseHelper {
 	     * @throws SQLException if a database access error occurs while querying
 	     */
 		public Map<String,Integer> getFlaggedReviewerMessagesWithIds() throws SQLException {
-		    Map<String,Integer> map = new LinkedHashMap<>();
-		    String sql = """
-		        SELECT messageID,
-		               sender        AS fromUser,
-		               recipient     AS toUser,
-		               recipientRole AS toRole,
-		               sentTime,
-		               subject,
-		               body
-		          FROM reviewerMessages
-		         WHERE isFlagged = TRUE
-		      ORDER BY sentTime DESC
-		    """;
-		    try (PreparedStatement p = connection.prepareStatement(sql);
-		         ResultSet rs = p.executeQuery()) {
-		        while (rs.next()) {
-		            int id           = rs.getInt("messageID");
-		            String fromUser  = rs.getString("fromUser");
-		            String toUser    = rs.getString("toUser");
-		            String toRole    = rs.getString("toRole");
-		            LocalDateTime ts = rs.getTimestamp("sentTime").toLocalDateTime();
-		            String date      = ts.format(
-		                DateTimeFormatter.ofPattern("MMM dd, yyyy hh:mm a")
-		            );
-		            String subj      = rs.getString("subject");
-		            String body      = rs.getString("body");
+		    return byDisplayString(getMessagesBySource(InboxMessage.Source.REVIEWER, true));
+		}
 
-		            String raw = String.join("\n",
-		                "To ["   + toRole + "]: " + toUser,
-		                "From [" + (toRole.equals("Reviewer") ? "Student" : "Reviewer") +
-		                          "]: " + fromUser,
-		                "Date: "            + date,
-		                "Message Subject: " + subj,
-		                "Message Body: "    + body
-		            );
-		            map.put(raw, id);
-		        }
+		/**
+	     * Maps each message's display string to its messageID, keeping the order of the messages.
+	     *
+	     * @param messages the messages
+	     * @return a {@code Map<String,Integer>} from the formatted message to its {@code messageID} in its original table
+	     */
+		private static Map<String,Integer> byDisplayString(List<InboxMessage> messages) {
+		    Map<String,Integer> map = new LinkedHashMap<>();
+		    for (InboxMessage message : messages) {
+		        map.put(message.toString(), message.getSourceID());
 		    }
 		    return map;
 		}
@@ -5968,7 +7488,7 @@ public class DatabaseHelper {
 		    + "       role, requestStatus "
 		    + "  FROM newRoleRequests "
 		    + " WHERE userID = ?";
-		    try (PreparedStatement p = connection.prepareStatement(sql)) {
+		    try (PreparedStatement p = currentConnection().prepareStatement(sql)) {
 		        p.setInt(1, userID);
 		        try (ResultSet rs = p.executeQuery()) {
 		            while (rs.next()) {
@@ -0,0 +1,410 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * The FlagQueue class keeps the flags table, the moderation queue staff work through instead of loading every
+ * flagged item of six tables. The isFlagged and reasonIsFlagged columns of questions, questionReplies, answers,
+ * reviews, PrivateMessages and reviewerMessages are still written by the flagging features; a
+ * {@link FlagQueueTrigger} on each of them brings the queue up to date in the same transaction, so every flagged item
+ * has exactly one open entry and an unflagged item none.
+ *
+ * Entries are claimed in priority order from the idx_flags_queue index. A claim is a lease: a conditional update
+ * which only succeeds while nobody else holds an unexpired claim, so two staff members claiming at once never get
+ * the same entry, and an entry whose holder walked away returns to the queue once the lease expires.
+ */
+class FlagQueue {
+
+	/**
+	 * The entities whose rows can be flagged
+	 */
+	static final Set<ChangeEvent.Entity> FLAGGABLE = Collections.unmodifiableSet(EnumSet.of(ChangeEvent.Entity.QUESTION, ChangeEvent.Entity.REPLY,
+			ChangeEvent.Entity.ANSWER, ChangeEvent.Entity.REVIEW, ChangeEvent.Entity.STUDENT_MESSAGE, ChangeEvent.Entity.REVIEWER_MESSAGE));
+
+	/**
+	 * Columns of the flags table read into a ModerationFlag
+	 */
+	private static final String COLUMNS = "flagID, itemType, itemID, reason, priority, flagCount, flaggedTime, claimedBy, leaseExpires";
+
+	/**
+	 * Condition selecting the entries nobody holds an unexpired claim on, given the current time
+	 */
+	private static final String UNCLAIMED = "(claimedBy IS NULL OR leaseExpires <= ?)";
+
+	/**
+	 * Condition selecting one open entry by flagID. Written as IS NOT TRUE rather than = FALSE so that H2 looks the
+	 * entry up by its primary key instead of scanning the open entries of idx_flags_queue while the table is small.
+	 */
+	private static final String OPEN_FLAG = "flagID = ? AND isResolved IS NOT TRUE";
+
+	/**
+	 * Query selecting the open entries, for DatabaseHelper to page through by flaggedTime and flagID
+	 */
+	static final String SELECT_OPEN = "SELECT " + COLUMNS + " FROM flags WHERE isResolved = FALSE";
+
+	/**
+	 * Supplies the connection of the calling thread
+	 */
+	private final Supplier<Connection> connections;
+
+	/**
+	 * Constructs a FlagQueue.
+	 *
+	 * @param connections supplies the connection of the calling thread
+	 */
+	FlagQueue(Supplier<Connection> connections) {
+		this.connections = connections;
+	}
+
+	/**
+	 * Creates the flags table and its indexes, adds an entry for every item already flagged and creates a
+	 * {@link FlagQueueTrigger} on each table whose rows can be flagged.
+	 *
+	 * @param statement a statement on the connection being migrated
+	 * @throws SQLException if the table cannot be created or filled, or a trigger cannot be created
+	 */
+	static void createAndCopy(Statement statement) throws SQLException {
+		statement.execute("CREATE TABLE IF NOT EXISTS flags ("
+				+ "flagID INT AUTO_INCREMENT PRIMARY KEY, "
+				+ "itemType VARCHAR(20) NOT NULL, "
+				+ "itemID INT NOT NULL, "
+				+ "reason VARCHAR(255), "
+				+ "priority INT DEFAULT 0 NOT NULL, "
+				+ "flagCount INT DEFAULT 1 NOT NULL, "
+				+ "flaggedTime TIMESTAMP NOT NULL, "
+				+ "claimedBy VARCHAR(255), "
+				+ "leaseExpires TIMESTAMP, "
+				+ "isResolved BOOLEAN DEFAULT FALSE NOT NULL, "
+				+ "resolvedBy VARCHAR(255)"
+				+ ")");
+		statement.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_flags_item ON flags (itemType, itemID)");
+		statement.execute("CREATE INDEX IF NOT EXISTS idx_flags_queue ON flags (isResolved, priority DESC, flaggedTime, flagID)");
+		statement.execute("CREATE INDEX IF NOT EXISTS idx_flags_claimedBy ON flags (claimedBy)");
+		statement.execute("CREATE INDEX IF NOT EXISTS idx_flags_open ON flags (isResolved, flaggedTime, flagID)");
+		for (ChangeEvent.Entity entity : FLAGGABLE) {
+			statement.execute(copyQuery(entity));
+			statement.execute("CREATE TRIGGER IF NOT EXISTS trg_" + tableOf(entity) + "_flags AFTER INSERT, UPDATE, DELETE ON " + tableOf(entity)
+					+ " FOR EACH ROW CALL '" + FlagQueueTrigger.class.getName() + "'");
+		}
+	}
+
+	/**
+	 * Opens the entry of an item which was flagged, reopening it if it had been resolved. Every flag after the first
+	 * raises the entry's flagCount and priority by one, whether the entry was open or resolved, and leaves the latest
+	 * reason on it. Called by {@link FlagQueueTrigger} on the connection which flagged the item.
+	 *
+	 * @param connection the connection which flagged the item
+	 * @param entity the entity of the item
+	 * @param itemID the primary key of the item
+	 * @param reason the reason the item was flagged
+	 * @throws SQLException if the entry cannot be updated
+	 */
+	static void flag(Connection connection, ChangeEvent.Entity entity, int itemID, String reason) throws SQLException {
+		String sqlMerge = "MERGE INTO flags f USING (VALUES (CAST(? AS VARCHAR(20)), CAST(? AS INT), CAST(? AS VARCHAR(255)))) s (itemType, itemID, reason) "
+				+ "ON f.itemType = s.itemType AND f.itemID = s.itemID "
+				+ "WHEN MATCHED THEN UPDATE SET isResolved = FALSE, resolvedBy = NULL, reason = s.reason, flagCount = f.flagCount + 1, "
+				+ "priority = f.priority + 1, flaggedTime = CASE WHEN f.isResolved THEN LOCALTIMESTAMP ELSE f.flaggedTime END "
+				+ "WHEN NOT MATCHED THEN INSERT (itemType, itemID, reason, flaggedTime) VALUES (s.itemType, s.itemID, s.reason, LOCALTIMESTAMP)";
+		try (PreparedStatement pstmt = connection.prepareStatement(sqlMerge)) {
+			pstmt.setString(1, entity.name());
+			pstmt.setInt(2, itemID);
+			pstmt.setString(3, reason);
+			pstmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Resolves the open entry of an item which was unflagged or deleted. Called by {@link FlagQueueTrigger} on the
+	 * connection which changed the item.
+	 *
+	 * @param connection the connection which changed the item
+	 * @param entity the entity of the item
+	 * @param itemID the primary key of the item
+	 * @throws SQLException if the entry cannot be updated
+	 */
+	static void unflag(Connection connection, ChangeEvent.Entity entity, int itemID) throws SQLException {
+		String sqlUpdate = "UPDATE flags SET isResolved = TRUE, claimedBy = NULL, leaseExpires = NULL WHERE itemType = ? AND itemID = ? AND isResolved = FALSE";
+		try (PreparedStatement pstmt = connection.prepareStatement(sqlUpdate)) {
+			pstmt.setString(1, entity.name());
+			pstmt.setInt(2, itemID);
+			pstmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Claims the open entries with the highest priority which nobody else holds, oldest first among equal priorities.
+	 * Entries the staff member already holds are not returned again.
+	 *
+	 * @param staffUserName the staff member claiming the entries
+	 * @param count the most entries to claim
+	 * @param now the current time
+	 * @param leaseExpires when the claims expire
+	 * @return the claimed entries, in queue order
+	 * @throws SQLException if the queue cannot be read or updated
+	 */
+	List<ModerationFlag> claim(String staffUserName, int count, LocalDateTime now, LocalDateTime leaseExpires) throws SQLException {
+		List<ModerationFlag> claimed = new ArrayList<>();
+		Connection connection = connections.get();
+		// Ordering by the constant isResolved as well lets H2 read idx_flags_queue in order instead of sorting every open entry
+		String query = "SELECT " + COLUMNS + " FROM flags WHERE isResolved = FALSE AND " + UNCLAIMED + " ORDER BY isResolved, priority DESC, flaggedTime, flagID LIMIT ?";
+		String sqlUpdate = "UPDATE flags SET claimedBy = ?, leaseExpires = ? WHERE " + OPEN_FLAG + " AND " + UNCLAIMED;
+		try (PreparedStatement select = connection.prepareStatement(query); PreparedStatement update = connection.prepareStatement(sqlUpdate)) {
+			// Entries lost to another staff member are claimed by them now, so each round reads only entries not tried yet
+			boolean lostAny = true;
+			while (claimed.size() < count && lostAny) {
+				lostAny = false;
+				select.setTimestamp(1, Timestamp.valueOf(now));
+				select.setInt(2, count - claimed.size());
+				List<ModerationFlag> candidates = readFlags(select);
+				for (ModerationFlag candidate : candidates) {
+					update.setString(1, staffUserName);
+					update.setTimestamp(2, Timestamp.valueOf(leaseExpires));
+					update.setInt(3, candidate.getFlagID());
+					update.setTimestamp(4, Timestamp.valueOf(now));
+					if (update.executeUpdate() > 0) {
+						claimed.add(new ModerationFlag(candidate.getFlagID(), candidate.getItemType(), candidate.getItemID(), candidate.getReason(),
+								candidate.getPriority(), candidate.getFlagCount(), candidate.getFlaggedTime(), staffUserName, leaseExpires));
+					}
+					else {
+						lostAny = true;
+					}
+				}
+			}
+		}
+		return claimed;
+	}
+
+	/**
+	 * Extends a claim the staff member still holds, or takes it again if nobody claimed it since it expired.
+	 *
+	 * @param flagID the entry's id
+	 * @param staffUserName the staff member holding the entry
+	 * @param leaseExpires when the claim now expires
+	 * @return true if the claim was extended
+	 * @throws SQLException if the entry cannot be updated
+	 */
+	boolean renew(int flagID, String staffUserName, LocalDateTime leaseExpires) throws SQLException {
+		String sqlUpdate = "UPDATE flags SET leaseExpires = ? WHERE " + OPEN_FLAG + " AND claimedBy = ?";
+		try (PreparedStatement pstmt = connections.get().prepareStatement(sqlUpdate)) {
+			pstmt.setTimestamp(1, Timestamp.valueOf(leaseExpires));
+			pstmt.setInt(2, flagID);
+			pstmt.setString(3, staffUserName);
+			return pstmt.executeUpdate() > 0;
+		}
+	}
+
+	/**
+	 * Returns a claimed entry to the queue without resolving it.
+	 *
+	 * @param flagID the entry's id
+	 * @param staffUserName the staff member holding the entry
+	 * @return true if the entry was released
+	 * @throws SQLException if the entry cannot be updated
+	 */
+	boolean release(int flagID, String staffUserName) throws SQLException {
+		String sqlUpdate = "UPDATE flags SET claimedBy = NULL, leaseExpires = NULL WHERE " + OPEN_FLAG + " AND claimedBy = ?";
+		try (PreparedStatement pstmt = connections.get().prepareStatement(sqlUpdate)) {
+			pstmt.setInt(1, flagID);
+			pstmt.setString(2, staffUserName);
+			return pstmt.executeUpdate() > 0;
+		}
+	}
+
+	/**
+	 * Resolves an entry and clears the flag of its item, in one transaction. The staff member must hold the entry, or
+	 * nobody may hold an unexpired claim on it.
+	 *
+	 * @param flagID the entry's id
+	 * @param staffUserName the staff member resolving the entry
+	 * @param now the current time
+	 * @return the resolved entry, or null if it is resolved already or held by someone else
+	 * @throws SQLException if the entry or its item cannot be updated; nothing has been changed
+	 */
+	ModerationFlag resolve(int flagID, String staffUserName, LocalDateTime now) throws SQLException {
+		Connection connection = connections.get();
+		boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try {
+			ModerationFlag flag = null;
+			String sqlUpdate = "UPDATE flags SET isResolved = TRUE, resolvedBy = ?, claimedBy = NULL, leaseExpires = NULL "
+					+ "WHERE " + OPEN_FLAG + " AND (claimedBy = ? OR " + UNCLAIMED + ")";
+			try (PreparedStatement pstmt = connection.prepareStatement(sqlUpdate)) {
+				pstmt.setString(1, staffUserName);
+				pstmt.setInt(2, flagID);
+				pstmt.setString(3, staffUserName);
+				pstmt.setTimestamp(4, Timestamp.valueOf(now));
+				if (pstmt.executeUpdate() > 0) {
+					flag = get(connection, flagID);
+				}
+			}
+			if (flag != null) {
+				String clearItem = "UPDATE " + tableOf(flag.getItemType()) + " SET isFlagged = FALSE, reasonIsFlagged = '' WHERE "
+						+ idColumnOf(flag.getItemType()) + " = ?";
+				try (PreparedStatement pstmt = connection.prepareStatement(clearItem)) {
+					pstmt.setInt(1, flag.getItemID());
+					pstmt.executeUpdate();
+				}
+			}
+			connection.commit();
+			return flag;
+		}
+		catch (SQLException | RuntimeException e) {
+			connection.rollback();
+			throw e;
+		}
+		finally {
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+
+	/**
+	 * Changes the priority of an open entry.
+	 *
+	 * @param flagID the entry's id
+	 * @param priority the new priority, higher first
+	 * @return true if the entry was updated
+	 * @throws SQLException if the entry cannot be updated
+	 */
+	boolean setPriority(int flagID, int priority) throws SQLException {
+		try (PreparedStatement pstmt = connections.get().prepareStatement("UPDATE flags SET priority = ? WHERE " + OPEN_FLAG)) {
+			pstmt.setInt(1, priority);
+			pstmt.setInt(2, flagID);
+			return pstmt.executeUpdate() > 0;
+		}
+	}
+
+	/**
+	 * Reads the open entries a staff member holds, including those whose lease has expired but nobody has claimed.
+	 *
+	 * @param staffUserName the staff member
+	 * @return the entries, in queue order
+	 * @throws SQLException if the queue cannot be read
+	 */
+	List<ModerationFlag> getClaimed(String staffUserName) throws SQLException {
+		String query = "SELECT " + COLUMNS + " FROM flags WHERE claimedBy = ? AND isResolved = FALSE ORDER BY priority DESC, flaggedTime, flagID";
+		try (PreparedStatement pstmt = connections.get().prepareStatement(query)) {
+			pstmt.setString(1, staffUserName);
+			return readFlags(pstmt);
+		}
+	}
+
+	/**
+	 * Counts the open entries.
+	 *
+	 * @return the number of flagged items waiting to be resolved
+	 * @throws SQLException if the queue cannot be read
+	 */
+	int countOpen() throws SQLException {
+		try (Statement statement = connections.get().createStatement();
+				ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM flags WHERE isResolved = FALSE")) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
+	/**
+	 * Reads one entry.
+	 */
+	private static ModerationFlag get(Connection connection, int flagID) throws SQLException {
+		try (PreparedStatement pstmt = connection.prepareStatement("SELECT " + COLUMNS + " FROM flags WHERE flagID = ?")) {
+			pstmt.setInt(1, flagID);
+			List<ModerationFlag> flags = readFlags(pstmt);
+			return flags.isEmpty() ? null : flags.get(0);
+		}
+	}
+
+	/**
+	 * Runs a query on the flags table selecting COLUMNS.
+	 */
+	private static List<ModerationFlag> readFlags(PreparedStatement pstmt) throws SQLException {
+		List<ModerationFlag> flags = new ArrayList<>();
+		try (ResultSet rs = pstmt.executeQuery()) {
+			while (rs.next()) {
+				flags.add(readFlag(rs));
+			}
+		}
+		return flags;
+	}
+
+	/**
+	 * Converts the current row of a ResultSet selecting COLUMNS into a ModerationFlag.
+	 *
+	 * @param rs a ResultSet positioned on a row of the flags table
+	 * @return the entry
+	 * @throws SQLException if a column cannot be read
+	 */
+	static ModerationFlag readFlag(ResultSet rs) throws SQLException {
+		Timestamp leaseExpires = rs.getTimestamp("leaseExpires");
+		return new ModerationFlag(rs.getInt("flagID"), ChangeEvent.Entity.valueOf(rs.getString("itemType")), rs.getInt("itemID"),
+				rs.getString("reason"), rs.getInt("priority"), rs.getInt("flagCount"), rs.getTimestamp("flaggedTime").toLocalDateTime(),
+				rs.getString("claimedBy"), leaseExpires == null ? null : leaseExpires.toLocalDateTime());
+	}
+
+	/**
+	 * Builds the statement opening an entry for every flagged item of an entity which has none.
+	 *
+	 * @param entity the entity of the items
+	 */
+	private static String copyQuery(ChangeEvent.Entity entity) {
+		String itemType = "'" + entity.name() + "'";
+		return "INSERT INTO flags (itemType, itemID, reason, flaggedTime) SELECT " + itemType + ", t." + idColumnOf(entity) + ", t.reasonIsFlagged, "
+				+ "LOCALTIMESTAMP FROM " + tableOf(entity) + " t WHERE t.isFlagged = TRUE AND NOT EXISTS (SELECT 1 FROM flags f WHERE f.itemType = "
+				+ itemType + " AND f.itemID = t." + idColumnOf(entity) + ")";
+	}
+
+	/**
+	 * @return the table holding the items of an entity
+	 */
+	private static String tableOf(ChangeEvent.Entity entity) {
+		switch (entity) {
+			case QUESTION: return "questions";
+			case REPLY: return "questionReplies";
+			case ANSWER: return "answers";
+			case REVIEW: return "reviews";
+			case STUDENT_MESSAGE: return "PrivateMessages";
+			case REVIEWER_MESSAGE: return "reviewerMessages";
+			default: throw new IllegalArgumentException(entity + " cannot be flagged");
+		}
+	}
+
+	/**
+	 * Maps the name of a table whose rows can be flagged to its entity, ignoring case.
+	 *
+	 * @param tableName the table name
+	 * @return the entity, or null if the rows of the table cannot be flagged
+	 */
+	static ChangeEvent.Entity entityOfTable(String tableName) {
+		for (ChangeEvent.Entity entity : FLAGGABLE) {
+			if (tableOf(entity).equalsIgnoreCase(tableName)) {
+				return entity;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the primary key column of the table of an entity
+	 */
+	static String idColumnOf(ChangeEvent.Entity entity) {
+		switch (entity) {
+			case QUESTION: return "questionID";
+			case REPLY: return "replyID";
+			case ANSWER: return "answerID";
+			case REVIEW: return "reviewID";
+			case STUDENT_MESSAGE:
+			case REVIEWER_MESSAGE: return "messageID";
+			default: throw new IllegalArgumentException(entity + " cannot be flagged");
+		}
+	}
+}
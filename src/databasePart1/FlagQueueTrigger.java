@@ -0,0 +1,98 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import org.h2.api.Trigger;
+
+/**
+ * The FlagQueueTrigger class keeps the moderation queue in the flags table in step with one of the tables whose rows
+ * can be flagged. H2 fires it for each inserted, updated or deleted row inside the statement which changed it, so the
+ * queue is committed or rolled back together with the flag, and a queue update which fails makes the original
+ * statement fail. Rows flagged by any connection, not only through DatabaseHelper, are queued.
+ *
+ * A row is counted as flagged when it becomes flagged or its flag reason changes, and its entry is resolved when it
+ * is unflagged or deleted. The triggers are created by {@link FlagQueue#createAndCopy(java.sql.Statement)}.
+ */
+public class FlagQueueTrigger implements Trigger {
+
+	/**
+	 * The entity of the table the trigger is on
+	 */
+	private ChangeEvent.Entity entity;
+
+	/**
+	 * Indexes of the primary key, isFlagged and reasonIsFlagged columns in the rows passed to fire()
+	 */
+	private int idIndex = -1;
+	private int isFlaggedIndex = -1;
+	private int reasonIndex = -1;
+
+	/**
+	 * Constructs a FlagQueueTrigger; H2 creates one for each trigger and calls init() before firing it.
+	 */
+	public FlagQueueTrigger() {
+	}
+
+	/**
+	 * Finds the entity of the table and the positions of its primary key and flag columns.
+	 *
+	 * @param connection the connection of the session creating the trigger
+	 * @param schemaName the schema of the table
+	 * @param triggerName the name of the trigger
+	 * @param tableName the name of the table
+	 * @param before whether the trigger fires before the change
+	 * @param type the operations the trigger fires on
+	 * @throws SQLException if the rows of the table cannot be flagged
+	 */
+	@Override
+	public void init(Connection connection, String schemaName, String triggerName, String tableName, boolean before, int type) throws SQLException {
+		entity = FlagQueue.entityOfTable(tableName);
+		if (entity == null) {
+			throw new SQLException("Rows of " + tableName + " cannot be flagged");
+		}
+		String idColumn = FlagQueue.idColumnOf(entity);
+		try (ResultSet rs = connection.getMetaData().getColumns(null, schemaName, tableName, null)) {
+			while (rs.next()) {
+				String column = rs.getString("COLUMN_NAME");
+				int index = rs.getInt("ORDINAL_POSITION") - 1;
+				if (column.equalsIgnoreCase(idColumn)) {
+					idIndex = index;
+				}
+				else if (column.equalsIgnoreCase("isFlagged")) {
+					isFlaggedIndex = index;
+				}
+				else if (column.equalsIgnoreCase("reasonIsFlagged")) {
+					reasonIndex = index;
+				}
+			}
+		}
+		if (idIndex < 0 || isFlaggedIndex < 0 || reasonIndex < 0) {
+			throw new SQLException(tableName + " has no " + idColumn + ", isFlagged or reasonIsFlagged column");
+		}
+	}
+
+	/**
+	 * Opens or updates the entry of a row which was flagged, and resolves the entry of a row which was unflagged or
+	 * deleted.
+	 *
+	 * @param connection the connection of the session which changed the row
+	 * @param oldRow the row before the change, null for an insert
+	 * @param newRow the row after the change, null for a delete
+	 * @throws SQLException if the queue cannot be updated
+	 */
+	@Override
+	public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+		boolean wasFlagged = oldRow != null && Boolean.TRUE.equals(oldRow[isFlaggedIndex]);
+		boolean isFlagged = newRow != null && Boolean.TRUE.equals(newRow[isFlaggedIndex]);
+		boolean sameRow = oldRow != null && newRow != null && oldRow[idIndex].equals(newRow[idIndex]);
+		if (wasFlagged && (!isFlagged || !sameRow)) {
+			FlagQueue.unflag(connection, entity, ((Number) oldRow[idIndex]).intValue());
+		}
+		if (isFlagged && (!wasFlagged || !sameRow || !Objects.equals(oldRow[reasonIndex], newRow[reasonIndex]))) {
+			FlagQueue.flag(connection, entity, ((Number) newRow[idIndex]).intValue(), (String) newRow[reasonIndex]);
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package databasePart1;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram class records durations into a fixed set of buckets so that latency percentiles can be
+ * reported without keeping every sample. Recording is lock free and safe to call from many threads at once.
+ *
+ * Bucket upper bounds are expressed in microseconds. A sample larger than the last bound is counted in an overflow
+ * bucket.
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Upper bound (inclusive) of each bucket in microseconds
+	 */
+	private static final long[] BUCKET_BOUNDS_MICROS = {
+			50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000
+	};
+
+	/**
+	 * Sample counts for each bucket, with one extra slot for samples above the last bound
+	 */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS_MICROS.length + 1);
+
+	/**
+	 * Total number of samples recorded
+	 */
+	private final AtomicLong sampleCount = new AtomicLong();
+
+	/**
+	 * Sum of all samples recorded in nanoseconds
+	 */
+	private final AtomicLong totalNanos = new AtomicLong();
+
+	/**
+	 * Largest sample recorded in nanoseconds
+	 */
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Constructs an empty LatencyHistogram.
+	 */
+	public LatencyHistogram() {
+	}
+
+	/**
+	 * Records a single duration.
+	 *
+	 * @param nanos the duration to record in nanoseconds
+	 */
+	public void record(long nanos) {
+		long micros = nanos / 1_000;
+		int bucket = BUCKET_BOUNDS_MICROS.length;
+		for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+			if (micros <= BUCKET_BOUNDS_MICROS[i]) {
+				bucket = i;
+				break;
+			}
+		}
+		counts.incrementAndGet(bucket);
+		sampleCount.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+		maxNanos.accumulateAndGet(nanos, Math::max);
+	}
+
+	/**
+	 * @return the total number of samples recorded
+	 */
+	public long getSampleCount() {
+		return sampleCount.get();
+	}
+
+	/**
+	 * @return the mean of all samples in microseconds, or 0 if nothing has been recorded
+	 */
+	public double getMeanMicros() {
+		long samples = sampleCount.get();
+		return samples == 0 ? 0 : totalNanos.get() / 1_000.0 / samples;
+	}
+
+	/**
+	 * @return the largest sample recorded in microseconds
+	 */
+	public long getMaxMicros() {
+		return maxNanos.get() / 1_000;
+	}
+
+	/**
+	 * Estimates a percentile from the bucket counts. The upper bound of the bucket containing the percentile is
+	 * returned, so the result is never lower than the true value.
+	 *
+	 * @param percentile the percentile to estimate, between 0 and 100
+	 * @return the estimated percentile in microseconds, or 0 if nothing has been recorded
+	 */
+	public long getPercentileMicros(double percentile) {
+		long samples = sampleCount.get();
+		if (samples == 0) {
+			return 0;
+		}
+		long target = (long) Math.ceil(samples * percentile / 100.0);
+		long seen = 0;
+		for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+			seen += counts.get(i);
+			if (seen >= target) {
+				return BUCKET_BOUNDS_MICROS[i];
+			}
+		}
+		return getMaxMicros();
+	}
+
+	/**
+	 * Returns a copy of the bucket counts. Index i holds the number of samples at or below getBucketBoundsMicros()[i]
+	 * and above the previous bound; the last index holds the samples above the largest bound.
+	 *
+	 * @return a copy of the bucket counts
+	 */
+	public long[] getBucketCounts() {
+		long[] copy = new long[counts.length()];
+		for (int i = 0; i < copy.length; i++) {
+			copy[i] = counts.get(i);
+		}
+		return copy;
+	}
+
+	/**
+	 * @return a copy of the bucket upper bounds in microseconds
+	 */
+	public static long[] getBucketBoundsMicros() {
+		return BUCKET_BOUNDS_MICROS.clone();
+	}
+}
@@ -0,0 +1,83 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.h2.api.Trigger;
+
+import application.InboxMessage;
+
+/**
+ * The MessageCopyTrigger class copies every inserted, updated or deleted row of one of the four private messages
+ * tables into the unified messages table. H2 fires it for each changed row inside the statement which changed it, so
+ * the copy is committed or rolled back together with the original row, and a copy which fails makes the original
+ * statement fail. Rows written by any connection, not only through DatabaseHelper, are copied.
+ *
+ * The triggers are created by {@link MessageStore#createTriggers(java.sql.Statement)}.
+ */
+public class MessageCopyTrigger implements Trigger {
+
+	/**
+	 * The original messages table the trigger is on
+	 */
+	private InboxMessage.Source source;
+
+	/**
+	 * Index of the messageID column in the rows passed to fire()
+	 */
+	private int messageIDIndex = -1;
+
+	/**
+	 * Constructs a MessageCopyTrigger; H2 creates one for each trigger and calls init() before firing it.
+	 */
+	public MessageCopyTrigger() {
+	}
+
+	/**
+	 * Finds the source of the table and the position of its messageID column.
+	 *
+	 * @param connection the connection of the session creating the trigger
+	 * @param schemaName the schema of the table
+	 * @param triggerName the name of the trigger
+	 * @param tableName the name of the table
+	 * @param before whether the trigger fires before the change
+	 * @param type the operations the trigger fires on
+	 * @throws SQLException if the table is not a messages table or has no messageID column
+	 */
+	@Override
+	public void init(Connection connection, String schemaName, String triggerName, String tableName, boolean before, int type) throws SQLException {
+		source = MessageStore.sourceOfTable(tableName);
+		if (source == null) {
+			throw new SQLException(tableName + " is not a private messages table");
+		}
+		try (ResultSet rs = connection.getMetaData().getColumns(null, schemaName, tableName, null)) {
+			while (rs.next()) {
+				if (rs.getString("COLUMN_NAME").equalsIgnoreCase("messageID")) {
+					messageIDIndex = rs.getInt("ORDINAL_POSITION") - 1;
+				}
+			}
+		}
+		if (messageIDIndex < 0) {
+			throw new SQLException(tableName + " has no messageID column");
+		}
+	}
+
+	/**
+	 * Copies the changed row into the messages table, or removes its copy if the row was deleted.
+	 *
+	 * @param connection the connection of the session which changed the row
+	 * @param oldRow the row before the change, null for an insert
+	 * @param newRow the row after the change, null for a delete
+	 * @throws SQLException if the row cannot be copied
+	 */
+	@Override
+	public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+		if (oldRow != null && (newRow == null || !oldRow[messageIDIndex].equals(newRow[messageIDIndex]))) {
+			MessageStore.copy(connection, source, ((Number) oldRow[messageIDIndex]).intValue());
+		}
+		if (newRow != null) {
+			MessageStore.copy(connection, source, ((Number) newRow[messageIDIndex]).intValue());
+		}
+	}
+}
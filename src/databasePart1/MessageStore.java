@@ -0,0 +1,572 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+import application.InboxMessage;
+
+/**
+ * The MessageStore class keeps the unified messages table, which holds a copy of every row of the four private
+ * messages tables (PrivateMessages, reviewerMessages, staffMessages and instructorMessages) in one schema. The
+ * original tables are still written by the messaging features; a {@link MessageCopyTrigger} on each of them copies
+ * every changed row into the messages table in the same transaction, so the inbox and sent messages of a user are
+ * each read with a single indexed query ordered by time, instead of one query per table merged in Java. Messages are
+ * marked read or flagged in the original tables by messageID, a batch of rows per statement. The store also fills the
+ * UnreadCounters from the messages table, in full once and then one copied row at a time.
+ */
+class MessageStore {
+
+	/**
+	 * Columns of the messages table read into an InboxMessage
+	 */
+	private static final String COLUMNS = "messageID, source, sourceID, sender, senderRole, recipient, recipientRole, subject, body, sentTime, isRead, "
+			+ "questionID, reviewID, isFlagged, reasonIsFlagged";
+
+	/**
+	 * Columns of the messages table copied from an original messages table, in the order of copyQuery()
+	 */
+	private static final String COPIED_COLUMNS = "source, sourceID, sender, senderRole, recipient, recipientRole, subject, body, sentTime, isRead, "
+			+ "questionID, reviewID, isFlagged, reasonIsFlagged, isDeletedInbox";
+
+	/**
+	 * Columns of the messages table counted by the UnreadCounters
+	 */
+	private static final String UNREAD_COLUMNS = "source, sourceID, recipient, questionID, reviewID";
+
+	/**
+	 * Condition selecting the messages counted as unread
+	 */
+	private static final String UNREAD_CONDITION = "isRead = FALSE AND isDeletedInbox = FALSE";
+
+	/**
+	 * Supplies the connection of the calling thread
+	 */
+	private final Supplier<Connection> connections;
+
+	/**
+	 * Constructs a MessageStore.
+	 *
+	 * @param connections supplies the connection of the calling thread
+	 */
+	MessageStore(Supplier<Connection> connections) {
+		this.connections = connections;
+	}
+
+	/**
+	 * Creates the messages table and its indexes and copies every row of the original messages tables into it. Rows
+	 * already copied are updated in place, so the step can be run again after an interruption.
+	 *
+	 * @param statement a statement on the connection being migrated
+	 * @throws SQLException if the table cannot be created or filled
+	 */
+	static void createAndCopy(Statement statement) throws SQLException {
+		statement.execute("CREATE TABLE IF NOT EXISTS messages ("
+				+ "messageID INT AUTO_INCREMENT PRIMARY KEY, "
+				+ "source VARCHAR(20) NOT NULL, "
+				+ "sourceID INT NOT NULL, "
+				+ "sender VARCHAR(255), "
+				+ "senderRole VARCHAR(255), "
+				+ "recipient VARCHAR(255), "
+				+ "recipientRole VARCHAR(255), "
+				+ "subject VARCHAR(255), "
+				+ "body TEXT, "
+				+ "sentTime DATETIME, "
+				+ "isRead BOOLEAN DEFAULT FALSE, "
+				+ "questionID INT DEFAULT -1, "
+				+ "reviewID INT DEFAULT -1, "
+				+ "isFlagged BOOLEAN DEFAULT FALSE, "
+				+ "reasonIsFlagged VARCHAR(255), "
+				+ "isDeletedInbox BOOLEAN DEFAULT FALSE"
+				+ ")");
+		statement.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_messages_source ON messages (source, sourceID)");
+		statement.execute("CREATE INDEX IF NOT EXISTS idx_messages_unread ON messages (recipient, isRead, sentTime)");
+		statement.execute("CREATE INDEX IF NOT EXISTS idx_messages_inbox ON messages (recipient, sentTime, messageID)");
+		statement.execute("CREATE INDEX IF NOT EXISTS idx_messages_sent ON messages (sender, sentTime, messageID)");
+		for (InboxMessage.Source source : InboxMessage.Source.values()) {
+			statement.execute(mergeQuery(source, ""));
+		}
+	}
+
+	/**
+	 * Copies every row of the original messages tables into the messages table again, removes the copies of deleted
+	 * rows and creates a {@link MessageCopyTrigger} on each original table, so that from then on every change is
+	 * copied in the transaction which made it.
+	 *
+	 * @param statement a statement on the connection being migrated
+	 * @throws SQLException if the rows cannot be copied or a trigger cannot be created
+	 */
+	static void createTriggers(Statement statement) throws SQLException {
+		for (InboxMessage.Source source : InboxMessage.Source.values()) {
+			statement.execute(mergeQuery(source, ""));
+			statement.execute("DELETE FROM messages m WHERE m.source = '" + source.name() + "' AND NOT EXISTS (SELECT 1 FROM " + tableOf(source)
+					+ " t WHERE t.messageID = m.sourceID)");
+			statement.execute("CREATE TRIGGER IF NOT EXISTS trg_" + tableOf(source) + "_copy AFTER INSERT, UPDATE, DELETE ON " + tableOf(source)
+					+ " FOR EACH ROW CALL '" + MessageCopyTrigger.class.getName() + "'");
+		}
+	}
+
+	/**
+	 * Copies one row of an original messages table into the messages table again, or removes its copy if the row
+	 * has been deleted. Called by {@link MessageCopyTrigger} on the connection which changed the row.
+	 *
+	 * @param connection the connection which changed the row
+	 * @param source the original messages table
+	 * @param sourceID the messageID of the row in that table
+	 * @throws SQLException if the row cannot be copied
+	 */
+	static void copy(Connection connection, InboxMessage.Source source, int sourceID) throws SQLException {
+		try (PreparedStatement pstmt = connection.prepareStatement(mergeQuery(source, " WHERE messageID = ?"))) {
+			pstmt.setInt(1, sourceID);
+			if (pstmt.executeUpdate() > 0) {
+				return;
+			}
+		}
+		try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM messages WHERE source = ? AND sourceID = ?")) {
+			pstmt.setString(1, source.name());
+			pstmt.setInt(2, sourceID);
+			pstmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Reads one page of a user's inbox, newest first. Messages the recipient deleted from their inbox are left out.
+	 *
+	 * @param recipient the recipient's userName
+	 * @param sources the messaging features to include
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of messages to return
+	 * @return a Page containing at most pageSize messages
+	 * @throws SQLException if the messages cannot be read
+	 */
+	Page<InboxMessage> getInboxPage(String recipient, Set<InboxMessage.Source> sources, PageCursor after, int pageSize) throws SQLException {
+		return getPage("recipient = ? AND isDeletedInbox = FALSE", recipient, sources, after, pageSize);
+	}
+
+	/**
+	 * Reads one page of the messages a user has sent, newest first.
+	 *
+	 * @param sender the sender's userName
+	 * @param sources the messaging features to include
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of messages to return
+	 * @return a Page containing at most pageSize messages
+	 * @throws SQLException if the messages cannot be read
+	 */
+	Page<InboxMessage> getSentPage(String sender, Set<InboxMessage.Source> sources, PageCursor after, int pageSize) throws SQLException {
+		return getPage("sender = ?", sender, sources, after, pageSize);
+	}
+
+	/**
+	 * Counts every unread message of every user in the UnreadCounters, with one query reading only the unread
+	 * messages which have not been deleted from their recipient's inbox.
+	 *
+	 * @param counters the counters, cleared beforehand
+	 * @throws SQLException if the messages cannot be read
+	 */
+	void loadUnread(UnreadCounters counters) throws SQLException {
+		try (Statement statement = connections.get().createStatement();
+				ResultSet rs = statement.executeQuery("SELECT " + UNREAD_COLUMNS + " FROM messages WHERE " + UNREAD_CONDITION)) {
+			while (rs.next()) {
+				putUnread(counters, rs);
+			}
+		}
+	}
+
+	/**
+	 * Counts one message in the UnreadCounters again after its row has been copied, or stops counting it if it has
+	 * been read, deleted from the inbox or deleted.
+	 *
+	 * @param counters the counters
+	 * @param source the original messages table
+	 * @param sourceID the messageID of the row in that table
+	 * @throws SQLException if the message cannot be read
+	 */
+	void updateUnread(UnreadCounters counters, InboxMessage.Source source, int sourceID) throws SQLException {
+		String sqlQuery = "SELECT " + UNREAD_COLUMNS + " FROM messages WHERE source = ? AND sourceID = ? AND " + UNREAD_CONDITION;
+		try (PreparedStatement pstmt = connections.get().prepareStatement(sqlQuery)) {
+			pstmt.setString(1, source.name());
+			pstmt.setInt(2, sourceID);
+			try (ResultSet rs = pstmt.executeQuery()) {
+				if (rs.next()) {
+					putUnread(counters, rs);
+				}
+				else {
+					counters.remove(source, sourceID);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads one message by the messageID of its row in the original messages table, through the unique index on the
+	 * source and sourceID.
+	 *
+	 * @param source the original messages table
+	 * @param sourceID the messageID of the row in that table
+	 * @return the message, or null if there is no such message
+	 * @throws SQLException if the message cannot be read
+	 */
+	InboxMessage getMessage(InboxMessage.Source source, int sourceID) throws SQLException {
+		String sqlQuery = "SELECT " + COLUMNS + " FROM messages WHERE source = ? AND sourceID = ?";
+		try (PreparedStatement pstmt = connections.get().prepareStatement(sqlQuery)) {
+			pstmt.setString(1, source.name());
+			pstmt.setInt(2, sourceID);
+			try (ResultSet rs = pstmt.executeQuery()) {
+				return rs.next() ? read(rs) : null;
+			}
+		}
+	}
+
+	/**
+	 * Reads the messages sent through one messaging feature to any of the users selected by a query, oldest first.
+	 *
+	 * @param source the messaging feature
+	 * @param recipientsQuery a query without parameters selecting the userNames of the recipients
+	 * @return the messages
+	 * @throws SQLException if the messages cannot be read
+	 */
+	List<InboxMessage> getMessagesTo(InboxMessage.Source source, String recipientsQuery) throws SQLException {
+		String sqlQuery = "SELECT " + COLUMNS + " FROM messages WHERE source = ? AND recipient IN (" + recipientsQuery + ") ORDER BY sentTime, messageID";
+		List<InboxMessage> messages = new ArrayList<>();
+		try (PreparedStatement pstmt = connections.get().prepareStatement(sqlQuery)) {
+			pstmt.setString(1, source.name());
+			try (ResultSet rs = pstmt.executeQuery()) {
+				while (rs.next()) {
+					messages.add(read(rs));
+				}
+			}
+		}
+		return messages;
+	}
+
+	/**
+	 * Reads every message sent through one messaging feature, newest first.
+	 *
+	 * @param source the messaging feature
+	 * @param flaggedOnly true to read only the flagged messages
+	 * @return the messages
+	 * @throws SQLException if the messages cannot be read
+	 */
+	List<InboxMessage> getMessages(InboxMessage.Source source, boolean flaggedOnly) throws SQLException {
+		String sqlQuery = "SELECT " + COLUMNS + " FROM messages WHERE source = ?" + (flaggedOnly ? " AND isFlagged = TRUE" : "")
+				+ " ORDER BY sentTime DESC, messageID DESC";
+		List<InboxMessage> messages = new ArrayList<>();
+		try (PreparedStatement pstmt = connections.get().prepareStatement(sqlQuery)) {
+			pstmt.setString(1, source.name());
+			try (ResultSet rs = pstmt.executeQuery()) {
+				while (rs.next()) {
+					messages.add(read(rs));
+				}
+			}
+		}
+		return messages;
+	}
+
+	/**
+	 * Finds the messages matching a recipient, sender, subject and body, for callers which still identify a message
+	 * by its text. The recipient narrows the search through the inbox index before the text is compared.
+	 *
+	 * @param source the original messages table
+	 * @param recipient the recipient's userName
+	 * @param sender the sender's userName
+	 * @param subject the subject
+	 * @param body the message text
+	 * @return the messageIDs of the matching rows in the original table
+	 * @throws SQLException if the messages cannot be read
+	 */
+	List<Integer> findSourceIDs(InboxMessage.Source source, String recipient, String sender, String subject, String body) throws SQLException {
+		String sqlQuery = "SELECT sourceID FROM messages WHERE recipient = ? AND source = ? AND sender = ? AND subject = ? AND body = ?";
+		List<Integer> sourceIDs = new ArrayList<>();
+		try (PreparedStatement pstmt = connections.get().prepareStatement(sqlQuery)) {
+			pstmt.setString(1, recipient);
+			pstmt.setString(2, source.name());
+			pstmt.setString(3, sender);
+			pstmt.setString(4, subject);
+			pstmt.setString(5, body);
+			try (ResultSet rs = pstmt.executeQuery()) {
+				while (rs.next()) {
+					sourceIDs.add(rs.getInt(1));
+				}
+			}
+		}
+		return sourceIDs;
+	}
+
+	/**
+	 * Marks rows of an original messages table as read with one primary key update.
+	 *
+	 * @param source the original messages table
+	 * @param sourceIDs the messageIDs of the rows
+	 * @return the number of rows updated
+	 * @throws SQLException if the rows cannot be updated
+	 */
+	int markRead(InboxMessage.Source source, Collection<Integer> sourceIDs) throws SQLException {
+		if (sourceIDs.isEmpty()) {
+			return 0;
+		}
+		String sqlUpdate = "UPDATE " + tableOf(source) + " SET " + readColumnOf(source) + " = TRUE WHERE messageID = ANY(?)";
+		Connection connection = connections.get();
+		try (PreparedStatement pstmt = connection.prepareStatement(sqlUpdate)) {
+			pstmt.setArray(1, connection.createArrayOf("INTEGER", sourceIDs.toArray()));
+			return pstmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Flags or clears the flag of rows of an original messages table with one primary key update. Only messages
+	 * between students and reviewers can be flagged.
+	 *
+	 * @param source the original messages table, STUDENT or REVIEWER
+	 * @param sourceIDs the messageIDs of the rows
+	 * @param isFlagged true to flag the rows, false to clear their flag
+	 * @param reasonIsFlagged the reason the rows are flagged, or null when clearing
+	 * @return the number of rows updated
+	 * @throws SQLException if the rows cannot be updated
+	 */
+	int setFlagged(InboxMessage.Source source, Collection<Integer> sourceIDs, boolean isFlagged, String reasonIsFlagged) throws SQLException {
+		if (source != InboxMessage.Source.STUDENT && source != InboxMessage.Source.REVIEWER) {
+			throw new IllegalArgumentException("Messages sent through " + source + " cannot be flagged");
+		}
+		if (sourceIDs.isEmpty()) {
+			return 0;
+		}
+		String sqlUpdate = "UPDATE " + tableOf(source) + " SET isFlagged = ?, reasonIsFlagged = ? WHERE messageID = ANY(?)";
+		Connection connection = connections.get();
+		try (PreparedStatement pstmt = connection.prepareStatement(sqlUpdate)) {
+			pstmt.setBoolean(1, isFlagged);
+			pstmt.setString(2, reasonIsFlagged);
+			pstmt.setArray(3, connection.createArrayOf("INTEGER", sourceIDs.toArray()));
+			return pstmt.executeUpdate();
+		}
+	}
+
+	/**
+	 * Maps the ChangeBus entity of an original messages table to its source.
+	 *
+	 * @param entity the entity
+	 * @return the source, or null if the entity is not a messages table
+	 */
+	static InboxMessage.Source sourceOf(ChangeEvent.Entity entity) {
+		switch (entity) {
+			case STUDENT_MESSAGE:
+				return InboxMessage.Source.STUDENT;
+			case REVIEWER_MESSAGE:
+				return InboxMessage.Source.REVIEWER;
+			case STAFF_MESSAGE:
+				return InboxMessage.Source.STAFF;
+			case INSTRUCTOR_MESSAGE:
+				return InboxMessage.Source.INSTRUCTOR;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Maps the name of an original messages table to its source, ignoring case.
+	 *
+	 * @param tableName the table name
+	 * @return the source, or null if the table is not a messages table
+	 */
+	static InboxMessage.Source sourceOfTable(String tableName) {
+		for (InboxMessage.Source source : InboxMessage.Source.values()) {
+			if (tableOf(source).equalsIgnoreCase(tableName)) {
+				return source;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Maps a source to the ChangeBus entity of its original messages table.
+	 *
+	 * @param source the source
+	 * @return the entity
+	 */
+	static ChangeEvent.Entity entityOf(InboxMessage.Source source) {
+		switch (source) {
+			case STUDENT:
+				return ChangeEvent.Entity.STUDENT_MESSAGE;
+			case REVIEWER:
+				return ChangeEvent.Entity.REVIEWER_MESSAGE;
+			case STAFF:
+				return ChangeEvent.Entity.STAFF_MESSAGE;
+			default:
+				return ChangeEvent.Entity.INSTRUCTOR_MESSAGE;
+		}
+	}
+
+	/**
+	 * Runs a keyset paginated query on the messages table ordered by sentTime and messageID, newest first. Messages
+	 * without a sentTime come last.
+	 *
+	 * @param userCondition the condition on the user, with one parameter
+	 * @param userName the userName bound to the condition
+	 * @param sources the messaging features to include
+	 * @param after the cursor returned with the previous page, or null for the first page
+	 * @param pageSize the maximum number of messages to return
+	 * @return a Page containing at most pageSize messages
+	 * @throws SQLException if the messages cannot be read
+	 */
+	private Page<InboxMessage> getPage(String userCondition, String userName, Set<InboxMessage.Source> sources, PageCursor after, int pageSize)
+			throws SQLException {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("pageSize must be at least 1");
+		}
+		StringBuilder sqlQuery = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM messages WHERE ").append(userCondition)
+				.append(" AND ").append(sourceCondition(sources));
+		boolean timeKeyed = after != null && after.getCreationTime() != null;
+		if (timeKeyed) {
+			sqlQuery.append(" AND (sentTime < ? OR (sentTime = ? AND messageID < ?) OR sentTime IS NULL)");
+		}
+		else if (after != null) {
+			sqlQuery.append(" AND sentTime IS NULL AND messageID < ?");
+		}
+		sqlQuery.append(" ORDER BY sentTime DESC, messageID DESC LIMIT ?");
+
+		List<InboxMessage> items = new ArrayList<>();
+		boolean hasMore = false;
+		try (PreparedStatement pstmt = connections.get().prepareStatement(sqlQuery.toString())) {
+			int index = 1;
+			pstmt.setString(index++, userName);
+			if (timeKeyed) {
+				Timestamp sentTime = Timestamp.valueOf(after.getCreationTime());
+				pstmt.setTimestamp(index++, sentTime);
+				pstmt.setTimestamp(index++, sentTime);
+			}
+			if (after != null) {
+				pstmt.setInt(index++, after.getId());
+			}
+			pstmt.setInt(index, pageSize + 1);
+			try (ResultSet rs = pstmt.executeQuery()) {
+				while (rs.next()) {
+					if (items.size() == pageSize) {
+						hasMore = true;
+						break;
+					}
+					items.add(read(rs));
+				}
+			}
+		}
+		InboxMessage last = items.isEmpty() ? null : items.get(items.size() - 1);
+		return new Page<>(items, last == null ? null : new PageCursor(last.getSentTime(), last.getMessageID()), hasMore);
+	}
+
+	/**
+	 * Converts the current row of a query on COLUMNS into an InboxMessage.
+	 *
+	 * @param rs a ResultSet positioned on a row
+	 * @return the message
+	 * @throws SQLException if a column cannot be read
+	 */
+	private static InboxMessage read(ResultSet rs) throws SQLException {
+		Timestamp sentTime = rs.getTimestamp("sentTime");
+		return new InboxMessage(rs.getInt("messageID"), InboxMessage.Source.valueOf(rs.getString("source")), rs.getInt("sourceID"),
+				rs.getString("sender"), rs.getString("senderRole"), rs.getString("recipient"), rs.getString("recipientRole"), rs.getString("subject"),
+				rs.getString("body"), sentTime == null ? null : sentTime.toLocalDateTime(), rs.getBoolean("isRead"), rs.getInt("questionID"),
+				rs.getInt("reviewID"), rs.getBoolean("isFlagged"), rs.getString("reasonIsFlagged"));
+	}
+
+	/**
+	 * Counts the current row of a query on UNREAD_COLUMNS in the UnreadCounters.
+	 *
+	 * @param counters the counters
+	 * @param rs a ResultSet positioned on a row
+	 * @throws SQLException if a column cannot be read
+	 */
+	private static void putUnread(UnreadCounters counters, ResultSet rs) throws SQLException {
+		counters.putUnread(InboxMessage.Source.valueOf(rs.getString("source")), rs.getInt("sourceID"), rs.getString("recipient"),
+				rs.getInt("questionID"), rs.getInt("reviewID"));
+	}
+
+	/**
+	 * Builds the condition selecting messages sent through some messaging features.
+	 *
+	 * @param sources the messaging features, at least one
+	 * @return the condition on the source column
+	 */
+	private static String sourceCondition(Set<InboxMessage.Source> sources) {
+		if (sources.isEmpty()) {
+			throw new IllegalArgumentException("At least one message source is needed");
+		}
+		StringJoiner names = new StringJoiner("', '", "source IN ('", "')");
+		for (InboxMessage.Source source : sources) {
+			names.add(source.name());
+		}
+		return names.toString();
+	}
+
+	/**
+	 * Builds the MERGE statement copying rows of an original messages table into the messages table.
+	 *
+	 * @param source the original messages table
+	 * @param where a WHERE clause selecting the rows to copy, or an empty string for every row
+	 * @return the statement
+	 */
+	private static String mergeQuery(InboxMessage.Source source, String where) {
+		return "MERGE INTO messages (" + COPIED_COLUMNS + ") KEY (source, sourceID) " + copyQuery(source) + where;
+	}
+
+	/**
+	 * Builds the SELECT reading the rows of an original messages table as the COPIED_COLUMNS of the messages table.
+	 *
+	 * @param source the original messages table
+	 * @return the query, without a WHERE clause
+	 */
+	private static String copyQuery(InboxMessage.Source source) {
+		String select = "SELECT '" + source.name() + "', messageID, ";
+		switch (source) {
+			case STUDENT:
+				return select + "sender_user_name, NULL, receiver_user_name, NULL, subject, message_body, timestamp, is_read, "
+						+ "COALESCE(questionID, -1), COALESCE(reviewID, -1), isFlagged, reasonIsFlagged, FALSE FROM PrivateMessages";
+			case REVIEWER:
+				return select + "sender, NULL, recipient, recipientRole, subject, body, sentTime, isRead, "
+						+ "-1, COALESCE(reviewID, -1), isFlagged, reasonIsFlagged, FALSE FROM reviewerMessages";
+			case STAFF:
+				return select + "senderUserName, senderRole, recipientUserName, recipientRole, messageSubject, messageBody, timeSent, isMessageRead, "
+						+ "-1, -1, FALSE, NULL, FALSE FROM staffMessages";
+			default:
+				return select + "senderUserName, senderRole, recipientUserName, recipientRole, messageSubject, messageBody, timeSent, isMessageRead, "
+						+ "-1, -1, FALSE, NULL, isDeletedInbox FROM instructorMessages";
+		}
+	}
+
+	/**
+	 * @return the name of the original messages table of a source
+	 */
+	private static String tableOf(InboxMessage.Source source) {
+		switch (source) {
+			case STUDENT:
+				return "PrivateMessages";
+			case REVIEWER:
+				return "reviewerMessages";
+			case STAFF:
+				return "staffMessages";
+			default:
+				return "instructorMessages";
+		}
+	}
+
+	/**
+	 * @return the column of the original messages table of a source recording whether a message was read
+	 */
+	private static String readColumnOf(InboxMessage.Source source) {
+		switch (source) {
+			case STUDENT:
+				return "is_read";
+			case REVIEWER:
+				return "isRead";
+			default:
+				return "isMessageRead";
+		}
+	}
+}
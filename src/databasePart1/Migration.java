@@ -0,0 +1,93 @@
+package databasePart1;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The Migration class describes one versioned change to the database schema applied by {@link SchemaMigrator}.
+ * Every migration must be idempotent (for example CREATE INDEX IF NOT EXISTS), because H2 commits DDL statements
+ * immediately and a migration interrupted part way through is run again from the start on the next launch.
+ */
+public class Migration {
+
+	/**
+	 * The work performed by a migration.
+	 */
+	@FunctionalInterface
+	public interface Step {
+
+		/**
+		 * Applies the migration.
+		 *
+		 * @param statement a statement on the connection being migrated
+		 * @throws SQLException if the migration fails
+		 */
+		void apply(Statement statement) throws SQLException;
+	}
+
+	/**
+	 * Schema version reached once this migration has been applied
+	 */
+	private final int version;
+
+	/**
+	 * Short description recorded in the schema_version table
+	 */
+	private final String description;
+
+	/**
+	 * The work performed by this migration
+	 */
+	private final Step step;
+
+	/**
+	 * Constructs a Migration which runs arbitrary JDBC work.
+	 *
+	 * @param version the schema version reached once this migration has been applied, starting at 1
+	 * @param description a short description of the change
+	 * @param step the work performed by the migration
+	 */
+	public Migration(int version, String description, Step step) {
+		if (version < 1) {
+			throw new IllegalArgumentException("Migration version must be at least 1");
+		}
+		this.version = version;
+		this.description = description;
+		this.step = step;
+	}
+
+	/**
+	 * Constructs a Migration which executes a fixed list of SQL statements in order.
+	 *
+	 * @param version the schema version reached once this migration has been applied, starting at 1
+	 * @param description a short description of the change
+	 * @param sql the statements to execute
+	 */
+	public Migration(int version, String description, String... sql) {
+		this(version, description, statement -> {
+			for (String command : sql) {
+				statement.execute(command);
+			}
+		});
+	}
+
+	/**
+	 * @return the schema version reached once this migration has been applied
+	 */
+	public int getVersion() { return version; }
+
+	/**
+	 * @return the short description of the change
+	 */
+	public String getDescription() { return description; }
+
+	/**
+	 * Applies the migration.
+	 *
+	 * @param statement a statement on the connection being migrated
+	 * @throws SQLException if the migration fails
+	 */
+	void apply(Statement statement) throws SQLException {
+		step.apply(statement);
+	}
+}
@@ -0,0 +1,181 @@
+package databasePart1;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The ModerationBatch class collects moderation actions to be applied together by
+ * {@link DatabaseHelper#applyModeration(ModerationBatch)}: muting and unmuting users, and hiding and showing single
+ * questions, replies, answers and reviews.
+ *
+ * Muting a user also hides everything they have posted, and unmuting them shows it again. A later action on the
+ * same user or post replaces an earlier one, so a batch never both mutes and unmutes a user.
+ */
+public class ModerationBatch {
+
+	/**
+	 * The entities whose rows can be hidden, in the order their tables are updated
+	 */
+	static final Set<ChangeEvent.Entity> HIDEABLE = Collections.unmodifiableSet(EnumSet.of(
+			ChangeEvent.Entity.QUESTION, ChangeEvent.Entity.REPLY, ChangeEvent.Entity.ANSWER, ChangeEvent.Entity.REVIEW));
+
+	/**
+	 * userNames of the users to mute
+	 */
+	private final Set<String> mutedUsers = new LinkedHashSet<>();
+
+	/**
+	 * userNames of the users to unmute
+	 */
+	private final Set<String> unmutedUsers = new LinkedHashSet<>();
+
+	/**
+	 * ids of the posts to hide, by entity
+	 */
+	private final Map<ChangeEvent.Entity, Set<Integer>> hiddenPosts = new EnumMap<>(ChangeEvent.Entity.class);
+
+	/**
+	 * ids of the posts to show, by entity
+	 */
+	private final Map<ChangeEvent.Entity, Set<Integer>> shownPosts = new EnumMap<>(ChangeEvent.Entity.class);
+
+	/**
+	 * Constructs an empty ModerationBatch.
+	 */
+	public ModerationBatch() {
+	}
+
+	/**
+	 * Mutes a user and hides all their questions, replies, answers and reviews.
+	 *
+	 * @param userName the user's userName
+	 * @return this batch
+	 */
+	public ModerationBatch mute(String userName) {
+		unmutedUsers.remove(userName);
+		mutedUsers.add(userName);
+		return this;
+	}
+
+	/**
+	 * Unmutes a user and shows all their questions, replies, answers and reviews again.
+	 *
+	 * @param userName the user's userName
+	 * @return this batch
+	 */
+	public ModerationBatch unmute(String userName) {
+		mutedUsers.remove(userName);
+		unmutedUsers.add(userName);
+		return this;
+	}
+
+	/**
+	 * Hides a single post.
+	 *
+	 * @param entity QUESTION, REPLY, ANSWER or REVIEW
+	 * @param id the questionID, replyID, answerID or reviewID
+	 * @return this batch
+	 */
+	public ModerationBatch hide(ChangeEvent.Entity entity, int id) {
+		postsOf(shownPosts, entity).remove(id);
+		postsOf(hiddenPosts, entity).add(id);
+		return this;
+	}
+
+	/**
+	 * Shows a single hidden post again.
+	 *
+	 * @param entity QUESTION, REPLY, ANSWER or REVIEW
+	 * @param id the questionID, replyID, answerID or reviewID
+	 * @return this batch
+	 */
+	public ModerationBatch unhide(ChangeEvent.Entity entity, int id) {
+		postsOf(hiddenPosts, entity).remove(id);
+		postsOf(shownPosts, entity).add(id);
+		return this;
+	}
+
+	/**
+	 * @return a new batch which undoes this one, unmuting the muted users, muting the unmuted users and showing the
+	 *         hidden posts and hiding the shown ones
+	 */
+	public ModerationBatch reversed() {
+		ModerationBatch reversed = new ModerationBatch();
+		reversed.mutedUsers.addAll(unmutedUsers);
+		reversed.unmutedUsers.addAll(mutedUsers);
+		for (ChangeEvent.Entity entity : HIDEABLE) {
+			reversed.postsOf(reversed.hiddenPosts, entity).addAll(getShownPosts(entity));
+			reversed.postsOf(reversed.shownPosts, entity).addAll(getHiddenPosts(entity));
+		}
+		return reversed;
+	}
+
+	/**
+	 * @return true if the batch has no actions
+	 */
+	public boolean isEmpty() {
+		if (!mutedUsers.isEmpty() || !unmutedUsers.isEmpty()) {
+			return false;
+		}
+		for (ChangeEvent.Entity entity : HIDEABLE) {
+			if (!getHiddenPosts(entity).isEmpty() || !getShownPosts(entity).isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the userNames of the users to mute
+	 */
+	public Set<String> getMutedUsers() {
+		return Collections.unmodifiableSet(mutedUsers);
+	}
+
+	/**
+	 * @return the userNames of the users to unmute
+	 */
+	public Set<String> getUnmutedUsers() {
+		return Collections.unmodifiableSet(unmutedUsers);
+	}
+
+	/**
+	 * @param entity QUESTION, REPLY, ANSWER or REVIEW
+	 * @return the ids of the posts of the entity to hide
+	 */
+	public Set<Integer> getHiddenPosts(ChangeEvent.Entity entity) {
+		return Collections.unmodifiableSet(hiddenPosts.getOrDefault(entity, Set.of()));
+	}
+
+	/**
+	 * @param entity QUESTION, REPLY, ANSWER or REVIEW
+	 * @return the ids of the posts of the entity to show
+	 */
+	public Set<Integer> getShownPosts(ChangeEvent.Entity entity) {
+		return Collections.unmodifiableSet(shownPosts.getOrDefault(entity, Set.of()));
+	}
+
+	/**
+	 * Finds the set of post ids of an entity, creating it on first use.
+	 *
+	 * @throws IllegalArgumentException if posts of the entity cannot be hidden
+	 */
+	private Set<Integer> postsOf(Map<ChangeEvent.Entity, Set<Integer>> posts, ChangeEvent.Entity entity) {
+		if (!HIDEABLE.contains(entity)) {
+			throw new IllegalArgumentException(entity + " cannot be hidden");
+		}
+		return posts.computeIfAbsent(entity, e -> new LinkedHashSet<>());
+	}
+
+	/**
+	 * @return the actions of the batch, for logging
+	 */
+	@Override
+	public String toString() {
+		return "ModerationBatch [mute=" + mutedUsers + ", unmute=" + unmutedUsers + ", hide=" + hiddenPosts + ", unhide=" + shownPosts + "]";
+	}
+}
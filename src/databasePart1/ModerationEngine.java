@@ -0,0 +1,167 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The ModerationEngine class applies a {@link ModerationBatch} in a single transaction, so a user is never left
+ * muted with some of their posts still shown, or unmuted with some still hidden. Each table is changed by one prepared
+ * statement run as a JDBC batch, the hiding and the showing direction each matching their whole set of userNames or
+ * ids with {@code = ANY(?)}. Users are matched by their unique userName alone. Rows already in the requested state are
+ * left alone, so the counts returned are the rows actually changed.
+ */
+class ModerationEngine {
+
+	/**
+	 * Supplies the connection of the calling thread
+	 */
+	private final Supplier<Connection> connections;
+
+	/**
+	 * Constructs a ModerationEngine.
+	 *
+	 * @param connections supplies the connection of the calling thread
+	 */
+	ModerationEngine(Supplier<Connection> connections) {
+		this.connections = connections;
+	}
+
+	/**
+	 * Applies every action of a batch, committing them together or, if any statement fails, rolling all of them back.
+	 *
+	 * @param batch the actions to apply
+	 * @return the number of rows changed by entity, and the users whose muted state changed
+	 * @throws SQLException if the batch cannot be applied; nothing has been changed
+	 */
+	ModerationResult apply(ModerationBatch batch) throws SQLException {
+		ModerationResult result = new ModerationResult();
+		if (batch.isEmpty()) {
+			return result;
+		}
+		Connection connection = connections.get();
+		boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try {
+			List<Integer> muted = userIDsToChange(connection, batch.getMutedUsers(), true);
+			List<Integer> unmuted = userIDsToChange(connection, batch.getUnmutedUsers(), false);
+			result.add(ChangeEvent.Entity.USER, update(connection, "UPDATE cse360users SET isMuted = ? WHERE id = ANY(?) AND isMuted IS DISTINCT FROM ?",
+					"INTEGER", muted, unmuted));
+			for (ChangeEvent.Entity entity : ModerationBatch.HIDEABLE) {
+				String setHidden = "UPDATE " + tableOf(entity) + " SET isHidden = ? WHERE ";
+				result.add(entity, update(connection, setHidden + authorColumnOf(entity) + " = ANY(?) AND isHidden IS DISTINCT FROM ?",
+						"VARCHAR", batch.getMutedUsers(), batch.getUnmutedUsers()));
+				result.add(entity, update(connection, setHidden + idColumnOf(entity) + " = ANY(?) AND isHidden IS DISTINCT FROM ?",
+						"INTEGER", batch.getHiddenPosts(entity), batch.getShownPosts(entity)));
+			}
+			connection.commit();
+			result.addUserIDs(muted);
+			result.addUserIDs(unmuted);
+			return result;
+		}
+		catch (SQLException | RuntimeException e) {
+			connection.rollback();
+			throw e;
+		}
+		finally {
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+
+	/**
+	 * Finds the users whose muted state a batch changes.
+	 *
+	 * @param userNames the userNames to mute or unmute
+	 * @param isMuted true to mute, false to unmute
+	 * @return the ids of the users not already in that state
+	 */
+	private static List<Integer> userIDsToChange(Connection connection, Collection<String> userNames, boolean isMuted) throws SQLException {
+		List<Integer> userIDs = new ArrayList<>();
+		if (userNames.isEmpty()) {
+			return userIDs;
+		}
+		String query = "SELECT id FROM cse360users WHERE userName = ANY(?) AND isMuted IS DISTINCT FROM ? ORDER BY id";
+		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+			pstmt.setArray(1, connection.createArrayOf("VARCHAR", userNames.toArray()));
+			pstmt.setBoolean(2, isMuted);
+			try (ResultSet rs = pstmt.executeQuery()) {
+				while (rs.next()) {
+					userIDs.add(rs.getInt("id"));
+				}
+			}
+		}
+		return userIDs;
+	}
+
+	/**
+	 * Runs one flag update as a JDBC batch of up to two entries, the first setting the flag on the matched rows and the
+	 * second clearing it. The statement's parameters are the new value, the array of keys and the new value again, to
+	 * skip rows already in that state.
+	 *
+	 * @param sql the update
+	 * @param arrayType the SQL type of the keys
+	 * @param set the keys of the rows to set the flag on
+	 * @param cleared the keys of the rows to clear the flag on
+	 * @return the number of rows changed
+	 */
+	private static int update(Connection connection, String sql, String arrayType, Collection<?> set, Collection<?> cleared) throws SQLException {
+		if (set.isEmpty() && cleared.isEmpty()) {
+			return 0;
+		}
+		try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+			for (boolean value : new boolean[] {true, false}) {
+				Collection<?> keys = value ? set : cleared;
+				if (keys.isEmpty()) {
+					continue;
+				}
+				pstmt.setBoolean(1, value);
+				pstmt.setArray(2, connection.createArrayOf(arrayType, keys.toArray()));
+				pstmt.setBoolean(3, value);
+				pstmt.addBatch();
+			}
+			int changed = 0;
+			for (int count : pstmt.executeBatch()) {
+				changed += Math.max(count, 0);
+			}
+			return changed;
+		}
+	}
+
+	/**
+	 * @return the table holding the posts of an entity
+	 */
+	private static String tableOf(ChangeEvent.Entity entity) {
+		switch (entity) {
+			case QUESTION: return "questions";
+			case REPLY: return "questionReplies";
+			case ANSWER: return "answers";
+			case REVIEW: return "reviews";
+			default: throw new IllegalArgumentException(entity + " cannot be hidden");
+		}
+	}
+
+	/**
+	 * @return the primary key column of the table of an entity
+	 */
+	private static String idColumnOf(ChangeEvent.Entity entity) {
+		switch (entity) {
+			case QUESTION: return "questionID";
+			case REPLY: return "replyID";
+			case ANSWER: return "answerID";
+			case REVIEW: return "reviewID";
+			default: throw new IllegalArgumentException(entity + " cannot be hidden");
+		}
+	}
+
+	/**
+	 * @return the column holding the userName of the author of a post of an entity
+	 */
+	private static String authorColumnOf(ChangeEvent.Entity entity) {
+		return entity == ChangeEvent.Entity.REVIEW ? "reviewerUserName" : "studentUserName";
+	}
+}
@@ -0,0 +1,130 @@
+package databasePart1;
+
+import java.time.LocalDateTime;
+
+/**
+ * The ModerationFlag class is one entry of the moderation queue: a flagged question, reply, answer, review or private
+ * message waiting for a staff member. An item has at most one entry, however many times it is flagged; flagCount
+ * counts the times it was flagged, and each flag after the first raises its priority by one.
+ *
+ * An entry claimed by a staff member is held for them until its lease expires, after which another staff member may
+ * claim it.
+ */
+public class ModerationFlag {
+
+	private final int flagID;
+
+	/**
+	 * QUESTION, REPLY, ANSWER, REVIEW, STUDENT_MESSAGE or REVIEWER_MESSAGE
+	 */
+	private final ChangeEvent.Entity itemType;
+
+	/**
+	 * Primary key of the flagged item in its own table
+	 */
+	private final int itemID;
+
+	private final String reason;
+
+	/**
+	 * Entries with a higher priority are claimed first
+	 */
+	private final int priority;
+
+	private final int flagCount;
+
+	/**
+	 * When the item was flagged, or flagged again after being resolved
+	 */
+	private final LocalDateTime flaggedTime;
+
+	/**
+	 * userName of the staff member holding the entry, null if it is not claimed
+	 */
+	private final String claimedBy;
+
+	/**
+	 * When the claim expires, null if the entry is not claimed
+	 */
+	private final LocalDateTime leaseExpires;
+
+	/**
+	 * Constructs a ModerationFlag.
+	 *
+	 * @param flagID the entry's id
+	 * @param itemType the entity of the flagged item
+	 * @param itemID the primary key of the flagged item
+	 * @param reason the reason given when the item was flagged
+	 * @param priority the entry's priority, higher first
+	 * @param flagCount the number of times the item has been flagged
+	 * @param flaggedTime when the item was last flagged
+	 * @param claimedBy the staff member holding the entry, or null
+	 * @param leaseExpires when the claim expires, or null
+	 */
+	public ModerationFlag(int flagID, ChangeEvent.Entity itemType, int itemID, String reason, int priority, int flagCount,
+			LocalDateTime flaggedTime, String claimedBy, LocalDateTime leaseExpires) {
+		this.flagID = flagID;
+		this.itemType = itemType;
+		this.itemID = itemID;
+		this.reason = reason;
+		this.priority = priority;
+		this.flagCount = flagCount;
+		this.flaggedTime = flaggedTime;
+		this.claimedBy = claimedBy;
+		this.leaseExpires = leaseExpires;
+	}
+
+	/**
+	 * @return the entry's id
+	 */
+	public int getFlagID() { return flagID; }
+
+	/**
+	 * @return the entity of the flagged item
+	 */
+	public ChangeEvent.Entity getItemType() { return itemType; }
+
+	/**
+	 * @return the primary key of the flagged item
+	 */
+	public int getItemID() { return itemID; }
+
+	/**
+	 * @return the reason given when the item was flagged
+	 */
+	public String getReason() { return reason; }
+
+	/**
+	 * @return the entry's priority, higher first
+	 */
+	public int getPriority() { return priority; }
+
+	/**
+	 * @return the number of times the item has been flagged
+	 */
+	public int getFlagCount() { return flagCount; }
+
+	/**
+	 * @return when the item was last flagged
+	 */
+	public LocalDateTime getFlaggedTime() { return flaggedTime; }
+
+	/**
+	 * @return the userName of the staff member holding the entry, or null
+	 */
+	public String getClaimedBy() { return claimedBy; }
+
+	/**
+	 * @return when the claim expires, or null
+	 */
+	public LocalDateTime getLeaseExpires() { return leaseExpires; }
+
+	/**
+	 * @return the entry as listed in the moderation queue
+	 */
+	@Override
+	public String toString() {
+		return itemType + " #" + itemID + ": " + (reason == null || reason.isEmpty() ? "(no reason)" : reason)
+				+ " [priority " + priority + ", flagged " + flagCount + (flagCount == 1 ? " time]" : " times]");
+	}
+}
@@ -0,0 +1,87 @@
+package databasePart1;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ModerationResult class reports how many rows a {@link ModerationBatch} changed, by entity: USER for users
+ * muted or unmuted, and QUESTION, REPLY, ANSWER and REVIEW for posts hidden or shown. Rows which were already in the
+ * requested state are not counted.
+ */
+public class ModerationResult {
+
+	/**
+	 * Rows changed by entity
+	 */
+	private final Map<ChangeEvent.Entity, Integer> counts = new EnumMap<>(ChangeEvent.Entity.class);
+
+	/**
+	 * ids of the users muted or unmuted, to publish their ChangeEvents
+	 */
+	private final List<Integer> userIDs = new ArrayList<>();
+
+	/**
+	 * Constructs a ModerationResult with no rows changed, which DatabaseHelper fills while applying a batch.
+	 */
+	ModerationResult() {
+	}
+
+	/**
+	 * Adds changed rows of an entity.
+	 *
+	 * @param entity the entity
+	 * @param count the number of rows changed
+	 */
+	void add(ChangeEvent.Entity entity, int count) {
+		if (count > 0) {
+			counts.merge(entity, count, Integer::sum);
+		}
+	}
+
+	/**
+	 * Records users whose muted state changed.
+	 *
+	 * @param changed the users' ids
+	 */
+	void addUserIDs(Collection<Integer> changed) {
+		userIDs.addAll(changed);
+	}
+
+	/**
+	 * @return the ids of the users whose muted state changed
+	 */
+	List<Integer> getUserIDs() {
+		return Collections.unmodifiableList(userIDs);
+	}
+
+	/**
+	 * @param entity USER, QUESTION, REPLY, ANSWER or REVIEW
+	 * @return the number of rows of the entity changed
+	 */
+	public int getCount(ChangeEvent.Entity entity) {
+		return counts.getOrDefault(entity, 0);
+	}
+
+	/**
+	 * @return the number of rows changed in all tables
+	 */
+	public int getTotal() {
+		int total = 0;
+		for (int count : counts.values()) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * @return the rows changed by entity, for logging
+	 */
+	@Override
+	public String toString() {
+		return "ModerationResult " + counts;
+	}
+}
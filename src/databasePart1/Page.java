@@ -0,0 +1,56 @@
+package databasePart1;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The Page class holds one page of rows returned by a keyset paginated DatabaseHelper method, together with the
+ * cursor to pass back to fetch the next page.
+ *
+ * @param <T> the type of the rows, such as Question, Answer or Review
+ */
+public class Page<T> {
+
+	/**
+	 * Rows of this page, in display order
+	 */
+	private final List<T> items;
+
+	/**
+	 * Cursor positioned after the last row of this page, null if the page is empty
+	 */
+	private final PageCursor nextCursor;
+
+	/**
+	 * Whether there are more rows after this page
+	 */
+	private final boolean hasMore;
+
+	/**
+	 * Constructs a Page.
+	 *
+	 * @param items the rows of this page
+	 * @param nextCursor the cursor positioned after the last row of this page, null if the page is empty
+	 * @param hasMore whether there are more rows after this page
+	 */
+	public Page(List<T> items, PageCursor nextCursor, boolean hasMore) {
+		this.items = Collections.unmodifiableList(items);
+		this.nextCursor = nextCursor;
+		this.hasMore = hasMore;
+	}
+
+	/**
+	 * @return the rows of this page, in display order
+	 */
+	public List<T> getItems() { return items; }
+
+	/**
+	 * @return the cursor to pass back to fetch the next page, null if the page is empty
+	 */
+	public PageCursor getNextCursor() { return nextCursor; }
+
+	/**
+	 * @return true if there are more rows after this page
+	 */
+	public boolean hasMore() { return hasMore; }
+}
@@ -0,0 +1,74 @@
+package databasePart1;
+
+import java.time.LocalDateTime;
+
+/**
+ * The PageCursor class marks the position of the last row of a page returned by one of the keyset paginated
+ * DatabaseHelper methods. Passing it back returns the rows which come after it, ordered by creationTime and then by
+ * ID, without the database having to skip over the earlier rows the way an OFFSET would.
+ *
+ * Tables without a creationTime column (such as reviews) are ordered by ID alone and leave creationTime null. Pages
+ * ordered by a text column (such as the user directory, which may be sorted by name or email) keep the value of that
+ * column in sortKey instead.
+ */
+public class PageCursor {
+
+	/**
+	 * creationTime of the last row of the page, null for tables ordered by ID alone
+	 */
+	private final LocalDateTime creationTime;
+
+	/**
+	 * Value of the text column the page is ordered by in the last row of the page, null for pages ordered by
+	 * creationTime or ID or when that row has no value
+	 */
+	private final String sortKey;
+
+	/**
+	 * Primary key of the last row of the page
+	 */
+	private final int id;
+
+	/**
+	 * Constructs a PageCursor.
+	 *
+	 * @param creationTime the creationTime of the last row of the page, null for tables ordered by ID alone
+	 * @param id the primary key of the last row of the page
+	 */
+	public PageCursor(LocalDateTime creationTime, int id) {
+		this(creationTime, null, id);
+	}
+
+	/**
+	 * Constructs a PageCursor for a page which may be ordered by a text column.
+	 *
+	 * @param creationTime the creationTime of the last row of the page, null unless the page is ordered by it
+	 * @param sortKey the value of the text column the page is ordered by in the last row, or null
+	 * @param id the primary key of the last row of the page
+	 */
+	public PageCursor(LocalDateTime creationTime, String sortKey, int id) {
+		this.creationTime = creationTime;
+		this.sortKey = sortKey;
+		this.id = id;
+	}
+
+	/**
+	 * @return the creationTime of the last row of the page, null for tables ordered by ID alone
+	 */
+	public LocalDateTime getCreationTime() { return creationTime; }
+
+	/**
+	 * @return the value of the text column the page is ordered by in the last row of the page, or null
+	 */
+	public String getSortKey() { return sortKey; }
+
+	/**
+	 * @return the primary key of the last row of the page
+	 */
+	public int getId() { return id; }
+
+	@Override
+	public String toString() {
+		return "PageCursor[creationTime=" + creationTime + ", sortKey=" + sortKey + ", id=" + id + "]";
+	}
+}
@@ -0,0 +1,165 @@
+package databasePart1;
+
+/**
+ * The PoolConfig class holds the tunable settings used by {@link ConnectionPool}, such as the minimum and maximum
+ * number of connections, how long an idle connection may sit in the pool before it is evicted, and how long a
+ * connection may be borrowed before it is reported as a possible leak.
+ *
+ * All durations are expressed in milliseconds. The default values are sized for the desktop client, where the JavaFX
+ * Application Thread holds one long-lived connection and a small number of worker threads borrow the rest.
+ */
+public class PoolConfig {
+
+	/**
+	 * Minimum number of physical connections kept open by the pool
+	 */
+	private int minSize = 2;
+
+	/**
+	 * Maximum number of physical connections the pool will ever open at the same time
+	 */
+	private int maxSize = 8;
+
+	/**
+	 * Time a caller will wait for a free connection before the borrow fails
+	 */
+	private long borrowTimeoutMillis = 5_000;
+
+	/**
+	 * Time an idle connection may sit in the pool before it is closed (while the pool is above its minimum size)
+	 */
+	private long idleTimeoutMillis = 60_000;
+
+	/**
+	 * Time a connection may be borrowed before it is reported as a possible leak, 0 disables leak detection
+	 */
+	private long leakThresholdMillis = 30_000;
+
+	/**
+	 * Interval between runs of the background task that evicts idle connections and looks for leaks
+	 */
+	private long maintenanceIntervalMillis = 10_000;
+
+	/**
+	 * Number of seconds the driver is given to answer Connection.isValid() when a connection is validated on borrow
+	 */
+	private int validationTimeoutSeconds = 2;
+
+	/**
+	 * Number of prepared statements cached per physical connection, 0 disables the statement cache
+	 */
+	private int statementCacheSize = 128;
+
+	/**
+	 * Default constructor using the default pool settings
+	 */
+	public PoolConfig() {
+		// default settings
+	}
+
+	/**
+	 * Constructs a PoolConfig with the specified minimum and maximum pool sizes and the default timeouts.
+	 *
+	 * @param minSize the minimum number of physical connections kept open
+	 * @param maxSize the maximum number of physical connections opened at the same time
+	 */
+	public PoolConfig(int minSize, int maxSize) {
+		setMinSize(minSize);
+		setMaxSize(maxSize);
+	}
+
+	/**
+	 * @return the minimum number of physical connections kept open
+	 */
+	public int getMinSize() { return minSize; }
+
+	/**
+	 * @param minSize the minimum number of physical connections kept open, must not be negative
+	 */
+	public void setMinSize(int minSize) {
+		if (minSize < 0) {
+			throw new IllegalArgumentException("minSize must not be negative");
+		}
+		this.minSize = minSize;
+	}
+
+	/**
+	 * @return the maximum number of physical connections opened at the same time
+	 */
+	public int getMaxSize() { return maxSize; }
+
+	/**
+	 * @param maxSize the maximum number of physical connections opened at the same time, must be at least 1
+	 */
+	public void setMaxSize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("maxSize must be at least 1");
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return the time in milliseconds a caller waits for a free connection
+	 */
+	public long getBorrowTimeoutMillis() { return borrowTimeoutMillis; }
+
+	/**
+	 * @param borrowTimeoutMillis the time in milliseconds a caller waits for a free connection
+	 */
+	public void setBorrowTimeoutMillis(long borrowTimeoutMillis) { this.borrowTimeoutMillis = borrowTimeoutMillis; }
+
+	/**
+	 * @return the time in milliseconds an idle connection may sit in the pool before it is evicted
+	 */
+	public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+
+	/**
+	 * @param idleTimeoutMillis the time in milliseconds an idle connection may sit in the pool before it is evicted
+	 */
+	public void setIdleTimeoutMillis(long idleTimeoutMillis) { this.idleTimeoutMillis = idleTimeoutMillis; }
+
+	/**
+	 * @return the time in milliseconds a connection may be borrowed before it is reported as a leak
+	 */
+	public long getLeakThresholdMillis() { return leakThresholdMillis; }
+
+	/**
+	 * @param leakThresholdMillis the time in milliseconds a connection may be borrowed before it is reported as a leak, 0 disables leak detection
+	 */
+	public void setLeakThresholdMillis(long leakThresholdMillis) { this.leakThresholdMillis = leakThresholdMillis; }
+
+	/**
+	 * @return the interval in milliseconds between runs of the eviction and leak detection task
+	 */
+	public long getMaintenanceIntervalMillis() { return maintenanceIntervalMillis; }
+
+	/**
+	 * @param maintenanceIntervalMillis the interval in milliseconds between runs of the eviction and leak detection task
+	 */
+	public void setMaintenanceIntervalMillis(long maintenanceIntervalMillis) { this.maintenanceIntervalMillis = maintenanceIntervalMillis; }
+
+	/**
+	 * @return the number of seconds the driver is given to validate a connection on borrow
+	 */
+	public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+
+	/**
+	 * @param validationTimeoutSeconds the number of seconds the driver is given to validate a connection on borrow
+	 */
+	public void setValidationTimeoutSeconds(int validationTimeoutSeconds) { this.validationTimeoutSeconds = validationTimeoutSeconds; }
+
+	/**
+	 * @return the number of prepared statements cached per physical connection
+	 */
+	public int getStatementCacheSize() { return statementCacheSize; }
+
+	/**
+	 * @param statementCacheSize the number of prepared statements cached per physical connection, 0 disables the cache
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		if (statementCacheSize < 0) {
+			throw new IllegalArgumentException("statementCacheSize must not be negative");
+		}
+		this.statementCacheSize = statementCacheSize;
+	}
+}
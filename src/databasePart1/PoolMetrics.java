@@ -0,0 +1,111 @@
+package databasePart1;
+
+/**
+ * The PoolMetrics class is a point-in-time snapshot of the state of a {@link ConnectionPool}. It reports how many
+ * connections are in use and idle, how long callers have waited for a connection, how many possible leaks have been
+ * detected, and a summary of the borrow latency histogram.
+ */
+public class PoolMetrics {
+
+	private final int active;
+	private final int idle;
+	private final int waiting;
+	private final long totalBorrows;
+	private final long totalWaitMillis;
+	private final long maxWaitMillis;
+	private final long timeouts;
+	private final long leaksDetected;
+	private final long evictions;
+	private final LatencyHistogram borrowLatency;
+	private final long statementCacheHits;
+	private final long statementCacheMisses;
+	private final long statementCacheEvictions;
+
+	/**
+	 * Constructs a PoolMetrics snapshot. Only the pool creates snapshots.
+	 *
+	 * @param active number of connections currently borrowed
+	 * @param idle number of connections currently sitting idle in the pool
+	 * @param waiting number of threads currently waiting for a connection
+	 * @param totalBorrows number of successful borrows since the pool was created
+	 * @param totalWaitMillis total time callers spent waiting for a connection
+	 * @param maxWaitMillis longest time a single caller spent waiting for a connection
+	 * @param timeouts number of borrows that gave up waiting for a connection
+	 * @param leaksDetected number of borrowed connections reported as possible leaks
+	 * @param evictions number of idle or invalid connections closed by the pool
+	 * @param borrowLatency the histogram of borrow latencies recorded by the pool
+	 * @param statementCacheHits number of prepareStatement calls served from a statement cache
+	 * @param statementCacheMisses number of prepareStatement calls which had to prepare a new statement
+	 * @param statementCacheEvictions number of cached statements closed to make room for newer ones
+	 */
+	PoolMetrics(int active, int idle, int waiting, long totalBorrows, long totalWaitMillis, long maxWaitMillis,
+			long timeouts, long leaksDetected, long evictions, LatencyHistogram borrowLatency,
+			long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+		this.active = active;
+		this.idle = idle;
+		this.waiting = waiting;
+		this.totalBorrows = totalBorrows;
+		this.totalWaitMillis = totalWaitMillis;
+		this.maxWaitMillis = maxWaitMillis;
+		this.timeouts = timeouts;
+		this.leaksDetected = leaksDetected;
+		this.evictions = evictions;
+		this.borrowLatency = borrowLatency;
+		this.statementCacheHits = statementCacheHits;
+		this.statementCacheMisses = statementCacheMisses;
+		this.statementCacheEvictions = statementCacheEvictions;
+	}
+
+	/** @return number of connections currently borrowed */
+	public int getActive() { return active; }
+
+	/** @return number of connections currently sitting idle in the pool */
+	public int getIdle() { return idle; }
+
+	/** @return number of threads currently waiting for a connection */
+	public int getWaiting() { return waiting; }
+
+	/** @return number of successful borrows since the pool was created */
+	public long getTotalBorrows() { return totalBorrows; }
+
+	/** @return total time in milliseconds callers spent waiting for a connection */
+	public long getTotalWaitMillis() { return totalWaitMillis; }
+
+	/** @return longest time in milliseconds a single caller spent waiting for a connection */
+	public long getMaxWaitMillis() { return maxWaitMillis; }
+
+	/** @return number of borrows that gave up waiting for a connection */
+	public long getTimeouts() { return timeouts; }
+
+	/** @return number of borrowed connections reported as possible leaks */
+	public long getLeaksDetected() { return leaksDetected; }
+
+	/** @return number of idle or invalid connections closed by the pool */
+	public long getEvictions() { return evictions; }
+
+	/** @return the histogram of borrow latencies, measured from the call to borrow until a connection was handed out */
+	public LatencyHistogram getBorrowLatency() { return borrowLatency; }
+
+	/** @return number of prepareStatement calls served from a statement cache */
+	public long getStatementCacheHits() { return statementCacheHits; }
+
+	/** @return number of prepareStatement calls which had to prepare a new statement */
+	public long getStatementCacheMisses() { return statementCacheMisses; }
+
+	/** @return number of cached statements closed to make room for newer ones */
+	public long getStatementCacheEvictions() { return statementCacheEvictions; }
+
+	/** @return fraction of prepareStatement calls served from a statement cache, or 0 if none were made */
+	public double getStatementCacheHitRatio() {
+		long total = statementCacheHits + statementCacheMisses;
+		return total == 0 ? 0 : (double) statementCacheHits / total;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("active=%d idle=%d waiting=%d borrows=%d wait(total=%dms, max=%dms) timeouts=%d leaks=%d evictions=%d borrowLatency(p50=%dus, p99=%dus, max=%dus) statementCache(hits=%d, misses=%d, evictions=%d)",
+				active, idle, waiting, totalBorrows, totalWaitMillis, maxWaitMillis, timeouts, leaksDetected, evictions,
+				borrowLatency.getPercentileMicros(50), borrowLatency.getPercentileMicros(99), borrowLatency.getMaxMicros(),
+				statementCacheHits, statementCacheMisses, statementCacheEvictions);
+	}
+}
@@ -0,0 +1,356 @@
+package databasePart1;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The QAStatistics class keeps the question and answer counts shown by the staff summary report: the number of
+ * questions, how many are resolved, unresolved and unanswered, the number of answers and the average number of answers
+ * per question, together with how many questions and answers were posted on each day. Hidden questions and answers
+ * are not counted.
+ *
+ * The counts are kept up to date one question or answer at a time as rows are added, changed and deleted, so reading
+ * the summary takes the same time however many posts there are. Every method is synchronized, so updates and reads
+ * may come from different threads.
+ */
+public class QAStatistics {
+
+	/**
+	 * The counts at one moment.
+	 */
+	public static class Summary {
+		private final int totalQuestions;
+		private final int resolvedQuestions;
+		private final int unansweredQuestions;
+		private final int totalAnswers;
+		private final int answersToQuestions;
+
+		/**
+		 * Constructs a Summary.
+		 *
+		 * @param totalQuestions the number of questions
+		 * @param resolvedQuestions the number of resolved questions
+		 * @param unansweredQuestions the number of questions without an answer
+		 * @param totalAnswers the number of answers
+		 * @param answersToQuestions the number of answers to the counted questions
+		 */
+		Summary(int totalQuestions, int resolvedQuestions, int unansweredQuestions, int totalAnswers, int answersToQuestions) {
+			this.totalQuestions = totalQuestions;
+			this.resolvedQuestions = resolvedQuestions;
+			this.unansweredQuestions = unansweredQuestions;
+			this.totalAnswers = totalAnswers;
+			this.answersToQuestions = answersToQuestions;
+		}
+
+		/**
+		 * @return the number of questions
+		 */
+		public int getTotalQuestions() { return totalQuestions; }
+
+		/**
+		 * @return the number of resolved questions
+		 */
+		public int getResolvedQuestions() { return resolvedQuestions; }
+
+		/**
+		 * @return the number of questions not marked resolved
+		 */
+		public int getUnresolvedQuestions() { return totalQuestions - resolvedQuestions; }
+
+		/**
+		 * @return the number of questions without an answer
+		 */
+		public int getUnansweredQuestions() { return unansweredQuestions; }
+
+		/**
+		 * @return the number of answers
+		 */
+		public int getTotalAnswers() { return totalAnswers; }
+
+		/**
+		 * @return the mean number of answers to each question, 0 if there are no questions
+		 */
+		public double getAnswersPerQuestion() {
+			return totalQuestions == 0 ? 0 : (double) answersToQuestions / totalQuestions;
+		}
+	}
+
+	/**
+	 * The number of questions and answers posted in one period of a trend.
+	 */
+	public static class TrendBucket {
+		private final LocalDate start;
+		private final int questionsAsked;
+		private final int answersPosted;
+
+		/**
+		 * Constructs a TrendBucket.
+		 *
+		 * @param start the first day of the period
+		 * @param questionsAsked the number of questions posted in the period
+		 * @param answersPosted the number of answers posted in the period
+		 */
+		TrendBucket(LocalDate start, int questionsAsked, int answersPosted) {
+			this.start = start;
+			this.questionsAsked = questionsAsked;
+			this.answersPosted = answersPosted;
+		}
+
+		/**
+		 * @return the first day of the period
+		 */
+		public LocalDate getStart() { return start; }
+
+		/**
+		 * @return the number of questions posted in the period
+		 */
+		public int getQuestionsAsked() { return questionsAsked; }
+
+		/**
+		 * @return the number of answers posted in the period
+		 */
+		public int getAnswersPosted() { return answersPosted; }
+	}
+
+	/**
+	 * What is counted of a question.
+	 */
+	private static class QuestionState {
+		final boolean resolved;
+		final boolean hidden;
+		final LocalDate day;
+
+		QuestionState(boolean resolved, boolean hidden, LocalDate day) {
+			this.resolved = resolved;
+			this.hidden = hidden;
+			this.day = day;
+		}
+	}
+
+	/**
+	 * What is counted of an answer.
+	 */
+	private static class AnswerState {
+		final int questionID;
+		final boolean hidden;
+		final LocalDate day;
+
+		AnswerState(int questionID, boolean hidden, LocalDate day) {
+			this.questionID = questionID;
+			this.hidden = hidden;
+			this.day = day;
+		}
+	}
+
+	private final Map<Integer, QuestionState> questions = new HashMap<>();
+	private final Map<Integer, AnswerState> answers = new HashMap<>();
+
+	/**
+	 * Number of answers which are not hidden, keyed by questionID, including questions which are hidden or deleted
+	 */
+	private final Map<Integer, Integer> answerCounts = new HashMap<>();
+
+	/**
+	 * Questions (index 0) and answers (index 1) posted on each day
+	 */
+	private final TreeMap<LocalDate, int[]> daily = new TreeMap<>();
+
+	private int totalQuestions;
+	private int resolvedQuestions;
+	private int unansweredQuestions;
+	private int totalAnswers;
+	private int answersToQuestions;
+
+	/**
+	 * Constructs QAStatistics with nothing counted yet.
+	 */
+	public QAStatistics() {
+	}
+
+	/**
+	 * Counts a question, replacing what was counted for an earlier version of it.
+	 *
+	 * @param questionID the questionID
+	 * @param resolved whether the question is marked resolved
+	 * @param hidden whether the question is hidden
+	 * @param creationTime when the question was posted, or null if unknown
+	 */
+	public synchronized void putQuestion(int questionID, boolean resolved, boolean hidden, LocalDateTime creationTime) {
+		removeQuestion(questionID);
+		QuestionState question = new QuestionState(resolved, hidden, creationTime == null ? null : creationTime.toLocalDate());
+		questions.put(questionID, question);
+		countQuestion(questionID, question, 1);
+	}
+
+	/**
+	 * Stops counting a question.
+	 *
+	 * @param questionID the questionID
+	 */
+	public synchronized void removeQuestion(int questionID) {
+		QuestionState old = questions.remove(questionID);
+		if (old != null) {
+			countQuestion(questionID, old, -1);
+		}
+	}
+
+	/**
+	 * Counts an answer, replacing what was counted for an earlier version of it.
+	 *
+	 * @param answerID the answerID
+	 * @param questionID the question answered
+	 * @param hidden whether the answer is hidden
+	 * @param creationTime when the answer was posted, or null if unknown
+	 */
+	public synchronized void putAnswer(int answerID, int questionID, boolean hidden, LocalDateTime creationTime) {
+		removeAnswer(answerID);
+		AnswerState answer = new AnswerState(questionID, hidden, creationTime == null ? null : creationTime.toLocalDate());
+		answers.put(answerID, answer);
+		countAnswer(answer, 1);
+	}
+
+	/**
+	 * Stops counting an answer.
+	 *
+	 * @param answerID the answerID
+	 */
+	public synchronized void removeAnswer(int answerID) {
+		AnswerState old = answers.remove(answerID);
+		if (old != null) {
+			countAnswer(old, -1);
+		}
+	}
+
+	/**
+	 * Stops counting every question and answer.
+	 */
+	public synchronized void clear() {
+		questions.clear();
+		answers.clear();
+		answerCounts.clear();
+		daily.clear();
+		totalQuestions = 0;
+		resolvedQuestions = 0;
+		unansweredQuestions = 0;
+		totalAnswers = 0;
+		answersToQuestions = 0;
+	}
+
+	/**
+	 * @return the current counts
+	 */
+	public synchronized Summary getSummary() {
+		return new Summary(totalQuestions, resolvedQuestions, unansweredQuestions, totalAnswers, answersToQuestions);
+	}
+
+	/**
+	 * Counts the questions and answers posted in each of the most recent periods.
+	 *
+	 * @param unit the length of a period: DAYS, WEEKS starting on Monday, or MONTHS
+	 * @param buckets the number of periods
+	 * @param today the day in the last period
+	 * @return the periods, oldest first, ending with the period containing today
+	 */
+	public synchronized List<TrendBucket> getTrend(ChronoUnit unit, int buckets, LocalDate today) {
+		LocalDate lastStart;
+		switch (unit) {
+			case DAYS:
+				lastStart = today;
+				break;
+			case WEEKS:
+				lastStart = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+				break;
+			case MONTHS:
+				lastStart = today.withDayOfMonth(1);
+				break;
+			default:
+				throw new IllegalArgumentException("Trends are by DAYS, WEEKS or MONTHS, not " + unit);
+		}
+		List<TrendBucket> trend = new ArrayList<>(buckets);
+		for (int i = buckets - 1; i >= 0; i--) {
+			LocalDate start = lastStart.minus(i, unit);
+			int questionsAsked = 0;
+			int answersPosted = 0;
+			for (int[] counts : daily.subMap(start, start.plus(1, unit)).values()) {
+				questionsAsked += counts[0];
+				answersPosted += counts[1];
+			}
+			trend.add(new TrendBucket(start, questionsAsked, answersPosted));
+		}
+		return trend;
+	}
+
+	/**
+	 * Adds a question to the counts, or takes it away.
+	 *
+	 * @param questionID the questionID
+	 * @param question the question
+	 * @param sign 1 to add, -1 to take away
+	 */
+	private void countQuestion(int questionID, QuestionState question, int sign) {
+		if (question.hidden) {
+			return;
+		}
+		int answered = answerCounts.getOrDefault(questionID, 0);
+		totalQuestions += sign;
+		resolvedQuestions += question.resolved ? sign : 0;
+		unansweredQuestions += answered == 0 ? sign : 0;
+		answersToQuestions += sign * answered;
+		countDay(question.day, 0, sign);
+	}
+
+	/**
+	 * Adds an answer to the counts, or takes it away.
+	 *
+	 * @param answer the answer
+	 * @param sign 1 to add, -1 to take away
+	 */
+	private void countAnswer(AnswerState answer, int sign) {
+		if (answer.hidden) {
+			return;
+		}
+		int before = answerCounts.getOrDefault(answer.questionID, 0);
+		int after = before + sign;
+		if (after == 0) {
+			answerCounts.remove(answer.questionID);
+		}
+		else {
+			answerCounts.put(answer.questionID, after);
+		}
+		totalAnswers += sign;
+		QuestionState question = questions.get(answer.questionID);
+		if (question != null && !question.hidden) {
+			answersToQuestions += sign;
+			if (before == 0 || after == 0) {
+				unansweredQuestions -= sign;
+			}
+		}
+		countDay(answer.day, 1, sign);
+	}
+
+	/**
+	 * Changes the number of questions or answers posted on a day.
+	 *
+	 * @param day the day, or null if unknown
+	 * @param index 0 for questions, 1 for answers
+	 * @param sign 1 to add, -1 to take away
+	 */
+	private void countDay(LocalDate day, int index, int sign) {
+		if (day == null) {
+			return;
+		}
+		int[] counts = daily.computeIfAbsent(day, d -> new int[2]);
+		counts[index] += sign;
+		if (counts[0] == 0 && counts[1] == 0) {
+			daily.remove(day);
+		}
+	}
+}
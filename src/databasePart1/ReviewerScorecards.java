@@ -0,0 +1,487 @@
+package databasePart1;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The ReviewerScorecards class computes a scorecard for every reviewer from four inputs: the reviews they wrote, the
+ * outcome of each reviewed answer (whether it was later marked resolved), the weights students gave them on their
+ * Trusted Reviewers Lists and the feedback messages sent to them about their reviews.
+ *
+ * The scorecards are cached. Changes to the inputs only mark the reviewers they affect, and refresh() loads the
+ * inputs of those reviewers alone and computes their scorecards in parallel, so a refresh after one new review costs
+ * one reviewer's queries instead of a pass over every table.
+ *
+ * A reviewer is a user holding the Reviewer role or anyone who has written a review. The users holding the role are
+ * kept up to date by setReviewerRole() as users change, and whether someone has written a review is known from their
+ * cached inputs, so the list of reviewers is only read from the tables again after markAllChanged().
+ */
+public class ReviewerScorecards {
+
+	/**
+	 * Highest weight a student can give a trusted reviewer
+	 */
+	public static final int MAX_TRUST_WEIGHT = 10;
+
+	/**
+	 * Share of the score given by the fraction of reviews whose answer was resolved
+	 */
+	static final double HELPFUL_WEIGHT = 0.5;
+
+	/**
+	 * Share of the score given by the mean trust weight
+	 */
+	static final double TRUST_WEIGHT = 0.3;
+
+	/**
+	 * Share of the score given by feedback received per review
+	 */
+	static final double FEEDBACK_WEIGHT = 0.2;
+
+	/**
+	 * The scorecard of one reviewer.
+	 */
+	public static class Scorecard {
+		private final String reviewerUserName;
+		private final int totalReviews;
+		private final int helpfulReviews;
+		private final int flaggedReviews;
+		private final int trustedBy;
+		private final double meanTrustWeight;
+		private final int feedbackMessages;
+		private final double score;
+
+		/**
+		 * Constructs a Scorecard.
+		 *
+		 * @param reviewerUserName the reviewer's userName
+		 * @param totalReviews the number of reviews which are not hidden
+		 * @param helpfulReviews the number of those reviews whose answer was marked resolved
+		 * @param flaggedReviews the number of reviews flagged or hidden by staff
+		 * @param trustedBy the number of students who trust the reviewer
+		 * @param meanTrustWeight the mean weight those students gave the reviewer
+		 * @param feedbackMessages the number of messages sent to the reviewer about their reviews
+		 * @param score the overall score, from 0 to 100
+		 */
+		Scorecard(String reviewerUserName, int totalReviews, int helpfulReviews, int flaggedReviews, int trustedBy, double meanTrustWeight,
+				int feedbackMessages, double score) {
+			this.reviewerUserName = reviewerUserName;
+			this.totalReviews = totalReviews;
+			this.helpfulReviews = helpfulReviews;
+			this.flaggedReviews = flaggedReviews;
+			this.trustedBy = trustedBy;
+			this.meanTrustWeight = meanTrustWeight;
+			this.feedbackMessages = feedbackMessages;
+			this.score = score;
+		}
+
+		/**
+		 * @return the reviewer's userName
+		 */
+		public String getReviewerUserName() { return reviewerUserName; }
+
+		/**
+		 * @return the number of reviews which are not hidden
+		 */
+		public int getTotalReviews() { return totalReviews; }
+
+		/**
+		 * @return the number of reviews, not hidden, of answers which were marked resolved
+		 */
+		public int getHelpfulReviews() { return helpfulReviews; }
+
+		/**
+		 * @return the number of reviews flagged or hidden by staff
+		 */
+		public int getFlaggedReviews() { return flaggedReviews; }
+
+		/**
+		 * @return the number of students with the reviewer on their Trusted Reviewers List
+		 */
+		public int getTrustedBy() { return trustedBy; }
+
+		/**
+		 * @return the mean weight given by the students who trust the reviewer, 0 if none do
+		 */
+		public double getMeanTrustWeight() { return meanTrustWeight; }
+
+		/**
+		 * @return the number of messages sent to the reviewer about their reviews
+		 */
+		public int getFeedbackMessages() { return feedbackMessages; }
+
+		/**
+		 * @return the overall score, from 0 to 100
+		 */
+		public double getScore() { return score; }
+	}
+
+	/**
+	 * The inputs of one reviewer's scorecard, gathered from the tables.
+	 */
+	public static class ReviewerActivity {
+		private final Map<Integer, Integer> answerIDByReviewID = new HashMap<>();
+		private final Set<Integer> feedbackMessageIDs = new HashSet<>();
+		private final List<Integer> trustWeights = new ArrayList<>();
+		private int totalReviews;
+		private int helpfulReviews;
+		private int flaggedReviews;
+
+		/**
+		 * Constructs ReviewerActivity with nothing added yet.
+		 */
+		public ReviewerActivity() {
+		}
+
+		/**
+		 * Adds one of the reviewer's reviews.
+		 *
+		 * @param reviewID the reviewID
+		 * @param answerID the answer reviewed
+		 * @param answerResolved whether the answer was marked resolved
+		 * @param hidden whether the review is hidden
+		 * @param flagged whether the review is flagged
+		 */
+		public void addReview(int reviewID, int answerID, boolean answerResolved, boolean hidden, boolean flagged) {
+			answerIDByReviewID.put(reviewID, answerID);
+			if (hidden || flagged) {
+				flaggedReviews++;
+			}
+			if (!hidden) {
+				totalReviews++;
+				helpfulReviews += answerResolved ? 1 : 0;
+			}
+		}
+
+		/**
+		 * Adds a student's trust in the reviewer.
+		 *
+		 * @param weight the weight the student gave the reviewer
+		 */
+		public void addTrust(int weight) {
+			trustWeights.add(weight);
+		}
+
+		/**
+		 * Adds a message sent to the reviewer about one of their reviews.
+		 *
+		 * @param messageID the messageID
+		 */
+		public void addFeedback(int messageID) {
+			feedbackMessageIDs.add(messageID);
+		}
+
+		/**
+		 * @return true if the reviewer has written a review, hidden or not
+		 */
+		boolean hasReviews() {
+			return !answerIDByReviewID.isEmpty();
+		}
+
+		/**
+		 * Computes the scorecard. The score adds the fraction of reviews whose answer was resolved, the mean trust
+		 * weight as a fraction of MAX_TRUST_WEIGHT and the feedback messages per review (at most 1), in the shares
+		 * HELPFUL_WEIGHT, TRUST_WEIGHT and FEEDBACK_WEIGHT, and then takes away the fraction of reviews which were
+		 * flagged or hidden.
+		 *
+		 * @param reviewerUserName the reviewer's userName
+		 * @return the scorecard
+		 */
+		Scorecard toScorecard(String reviewerUserName) {
+			double meanTrustWeight = trustWeights.stream().mapToInt(Integer::intValue).average().orElse(0);
+			int allReviews = answerIDByReviewID.size();
+			double helpfulRate = totalReviews == 0 ? 0 : (double) helpfulReviews / totalReviews;
+			double feedbackRate = totalReviews == 0 ? 0 : Math.min(1.0, (double) feedbackMessageIDs.size() / totalReviews);
+			double flaggedRate = allReviews == 0 ? 0 : (double) flaggedReviews / allReviews;
+			double score = HELPFUL_WEIGHT * helpfulRate + TRUST_WEIGHT * Math.min(1.0, meanTrustWeight / MAX_TRUST_WEIGHT) + FEEDBACK_WEIGHT * feedbackRate;
+			return new Scorecard(reviewerUserName, totalReviews, helpfulReviews, flaggedReviews, trustWeights.size(), meanTrustWeight,
+					feedbackMessageIDs.size(), 100 * score * (1 - flaggedRate));
+		}
+	}
+
+	/**
+	 * Reads the inputs of the scorecards from the database.
+	 */
+	public interface ActivitySource {
+
+		/**
+		 * @return the userNames of the users holding the Reviewer role
+		 * @throws SQLException if the users cannot be read
+		 */
+		Set<String> loadReviewerUserNames() throws SQLException;
+
+		/**
+		 * @return the userNames of everyone who has written a review
+		 * @throws SQLException if the reviews cannot be read
+		 */
+		Set<String> loadReviewAuthorUserNames() throws SQLException;
+
+		/**
+		 * Reads the inputs of some reviewers.
+		 *
+		 * @param reviewerUserNames the reviewers
+		 * @return the inputs keyed by reviewer userName; reviewers with no reviews, trust or feedback may be left out
+		 * @throws SQLException if the inputs cannot be read
+		 */
+		Map<String, ReviewerActivity> loadActivity(Set<String> reviewerUserNames) throws SQLException;
+	}
+
+	private final Map<String, Scorecard> scorecards = new HashMap<>();
+	private final Map<String, ReviewerActivity> activities = new HashMap<>();
+
+	/**
+	 * Reviewer of each review, answer and feedback message in the cached inputs, to find whose scorecard a change
+	 * affects
+	 */
+	private final Map<Integer, String> reviewerByReviewID = new HashMap<>();
+	private final Map<Integer, Set<String>> reviewersByAnswerID = new HashMap<>();
+	private final Map<Integer, String> reviewerByMessageID = new HashMap<>();
+
+	/**
+	 * userNames of the users holding the Reviewer role
+	 */
+	private final Set<String> roleReviewers = new HashSet<>();
+
+	/**
+	 * Counts the calls to setReviewerRole(), so a refresh which reads the roles can tell whether a role changed while
+	 * it was reading
+	 */
+	private long roleChanges;
+
+	/**
+	 * Reviewers whose inputs changed since their scorecard was computed
+	 */
+	private final Set<String> changed = new HashSet<>();
+	private boolean allChanged = true;
+
+	/**
+	 * Held by refresh() so only one refresh loads at a time
+	 */
+	private final Object refreshLock = new Object();
+
+	/**
+	 * Constructs ReviewerScorecards which load every reviewer on the first refresh.
+	 */
+	public ReviewerScorecards() {
+	}
+
+	/**
+	 * Marks a reviewer's scorecard as out of date.
+	 *
+	 * @param reviewerUserName the reviewer's userName, or null to do nothing
+	 */
+	public synchronized void markReviewerChanged(String reviewerUserName) {
+		if (reviewerUserName != null) {
+			changed.add(reviewerUserName);
+		}
+	}
+
+	/**
+	 * Marks the scorecard of the author of a cached review as out of date.
+	 *
+	 * @param reviewID the reviewID
+	 */
+	public synchronized void markReviewChanged(int reviewID) {
+		markReviewerChanged(reviewerByReviewID.get(reviewID));
+	}
+
+	/**
+	 * Marks the scorecards of every reviewer of an answer as out of date, as its outcome counts towards them.
+	 *
+	 * @param answerID the answerID
+	 */
+	public synchronized void markAnswerChanged(int answerID) {
+		changed.addAll(reviewersByAnswerID.getOrDefault(answerID, Set.of()));
+	}
+
+	/**
+	 * Marks the scorecard of the reviewer who received a cached feedback message as out of date.
+	 *
+	 * @param messageID the messageID
+	 */
+	public synchronized void markFeedbackChanged(int messageID) {
+		markReviewerChanged(reviewerByMessageID.get(messageID));
+	}
+
+	/**
+	 * Records whether a user holds the Reviewer role, marking their scorecard as out of date if that changed. A user
+	 * who loses the role keeps their scorecard while they have written reviews.
+	 *
+	 * @param userName the user's userName
+	 * @param reviewer whether the user holds the Reviewer role
+	 */
+	public synchronized void setReviewerRole(String userName, boolean reviewer) {
+		if (reviewer ? roleReviewers.add(userName) : roleReviewers.remove(userName)) {
+			roleChanges++;
+			changed.add(userName);
+		}
+	}
+
+	/**
+	 * Marks every scorecard as out of date, and the list of reviewers with them.
+	 */
+	public synchronized void markAllChanged() {
+		allChanged = true;
+	}
+
+	/**
+	 * @return true if every scorecard is out of date, as before the first refresh, so changes to single rows need not
+	 *         be looked up
+	 */
+	public synchronized boolean isAllChanged() {
+		return allChanged;
+	}
+
+	/**
+	 * Brings the scorecards up to date: reviewers marked as changed and role holders without a scorecard have their
+	 * inputs loaded and their scorecards computed in parallel, and users who turn out to be neither role holders nor
+	 * authors of a review lose their scorecard. After markAllChanged() the role holders and review authors are read
+	 * again and every scorecard is computed. Reviewers marked while the refresh is loading stay marked for the next
+	 * refresh.
+	 *
+	 * @param source reads the inputs from the database
+	 * @return every scorecard, by descending score
+	 * @throws SQLException if the inputs cannot be read; the reviewers stay marked
+	 */
+	public List<Scorecard> refresh(ActivitySource source) throws SQLException {
+		synchronized (refreshLock) {
+			Set<String> stale;
+			boolean all;
+			long roleChangesBefore;
+			synchronized (this) {
+				stale = new HashSet<>(changed);
+				all = allChanged;
+				roleChangesBefore = roleChanges;
+				changed.clear();
+				allChanged = false;
+			}
+			try {
+				Set<String> toCompute = new HashSet<>(stale);
+				if (all) {
+					Set<String> roleHolders = source.loadReviewerUserNames();
+					toCompute.addAll(roleHolders);
+					toCompute.addAll(source.loadReviewAuthorUserNames());
+					synchronized (this) {
+						roleReviewers.clear();
+						roleReviewers.addAll(roleHolders);
+						// A role changed while it was being read, so the roles read may already be out of date
+						allChanged |= roleChanges != roleChangesBefore;
+						for (String reviewer : new ArrayList<>(scorecards.keySet())) {
+							if (!toCompute.contains(reviewer)) {
+								forget(reviewer);
+								scorecards.remove(reviewer);
+							}
+						}
+					}
+				}
+				else {
+					synchronized (this) {
+						for (String reviewer : roleReviewers) {
+							if (!scorecards.containsKey(reviewer)) {
+								toCompute.add(reviewer);
+							}
+						}
+					}
+				}
+				if (!toCompute.isEmpty()) {
+					Map<String, ReviewerActivity> loaded = source.loadActivity(toCompute);
+					Map<String, Scorecard> computed = toCompute.parallelStream()
+							.map(reviewer -> loaded.getOrDefault(reviewer, new ReviewerActivity()).toScorecard(reviewer))
+							.collect(Collectors.toMap(Scorecard::getReviewerUserName, scorecard -> scorecard));
+					synchronized (this) {
+						for (String reviewer : toCompute) {
+							ReviewerActivity activity = loaded.getOrDefault(reviewer, new ReviewerActivity());
+							forget(reviewer);
+							if (roleReviewers.contains(reviewer) || activity.hasReviews()) {
+								remember(reviewer, activity);
+								scorecards.put(reviewer, computed.get(reviewer));
+							}
+							else {
+								scorecards.remove(reviewer);
+							}
+						}
+					}
+				}
+			}
+			catch (SQLException e) {
+				synchronized (this) {
+					changed.addAll(stale);
+					allChanged |= all;
+				}
+				throw e;
+			}
+			return getScorecards();
+		}
+	}
+
+	/**
+	 * Returns the cached scorecards without refreshing them.
+	 *
+	 * @return every cached scorecard, by descending score and then userName
+	 */
+	public synchronized List<Scorecard> getScorecards() {
+		List<Scorecard> sorted = new ArrayList<>(scorecards.values());
+		sorted.sort(Comparator.comparingDouble(Scorecard::getScore).reversed().thenComparing(Scorecard::getReviewerUserName));
+		return Collections.unmodifiableList(sorted);
+	}
+
+	/**
+	 * Returns one cached scorecard without refreshing it.
+	 *
+	 * @param reviewerUserName the reviewer's userName
+	 * @return the scorecard, or null if the user has none
+	 */
+	public synchronized Scorecard getScorecard(String reviewerUserName) {
+		return scorecards.get(reviewerUserName);
+	}
+
+	/**
+	 * Drops a reviewer's cached inputs from the lookups by review, answer and message.
+	 *
+	 * @param reviewer the reviewer's userName
+	 */
+	private void forget(String reviewer) {
+		ReviewerActivity activity = activities.remove(reviewer);
+		if (activity == null) {
+			return;
+		}
+		for (Map.Entry<Integer, Integer> review : activity.answerIDByReviewID.entrySet()) {
+			reviewerByReviewID.remove(review.getKey());
+			Set<String> reviewers = reviewersByAnswerID.get(review.getValue());
+			if (reviewers != null) {
+				reviewers.remove(reviewer);
+				if (reviewers.isEmpty()) {
+					reviewersByAnswerID.remove(review.getValue());
+				}
+			}
+		}
+		for (int messageID : activity.feedbackMessageIDs) {
+			reviewerByMessageID.remove(messageID);
+		}
+	}
+
+	/**
+	 * Adds a reviewer's inputs to the lookups by review, answer and message.
+	 *
+	 * @param reviewer the reviewer's userName
+	 * @param activity the reviewer's inputs
+	 */
+	private void remember(String reviewer, ReviewerActivity activity) {
+		activities.put(reviewer, activity);
+		for (Map.Entry<Integer, Integer> review : activity.answerIDByReviewID.entrySet()) {
+			reviewerByReviewID.put(review.getKey(), reviewer);
+			reviewersByAnswerID.computeIfAbsent(review.getValue(), id -> new HashSet<>()).add(reviewer);
+		}
+		for (int messageID : activity.feedbackMessageIDs) {
+			reviewerByMessageID.put(messageID, reviewer);
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package databasePart1;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The SchemaMigrator class brings the database schema up to date. Every applied migration is recorded in the
+ * schema_version table, and every migration which has not been recorded yet is applied in version order. Running
+ * the migrator against an up to date database does nothing, so it is safe to call on every start-up.
+ *
+ * New schema changes are added by appending a {@link Migration} with the next version number to {@link #MIGRATIONS}.
+ * Migrations that have been released must never be edited or reordered.
+ */
+public class SchemaMigrator {
+
+	/**
+	 * Every migration known to the application, in version order
+	 */
+	public static final List<Migration> MIGRATIONS = Collections.unmodifiableList(List.of(
+			new Migration(1, "Index question threads by questionID",
+					"CREATE INDEX IF NOT EXISTS idx_answers_question ON answers (questionID, isAnswerUnread)",
+					"CREATE INDEX IF NOT EXISTS idx_questionReplies_question ON questionReplies (questionID)",
+					"CREATE INDEX IF NOT EXISTS idx_reviews_answer ON reviews (answerID)",
+					"CREATE INDEX IF NOT EXISTS idx_reviews_question ON reviews (questionID)"),
+			new Migration(2, "Index posts by author",
+					"CREATE INDEX IF NOT EXISTS idx_questions_student ON questions (studentUserName)",
+					"CREATE INDEX IF NOT EXISTS idx_answers_student ON answers (studentUserName)",
+					"CREATE INDEX IF NOT EXISTS idx_questionReplies_student ON questionReplies (studentUserName)",
+					"CREATE INDEX IF NOT EXISTS idx_reviews_reviewer ON reviews (reviewerUserName)"),
+			new Migration(3, "Index message inboxes by recipient and unread state",
+					"CREATE INDEX IF NOT EXISTS idx_privateMessages_receiver ON PrivateMessages (receiver_user_name, is_read, questionID)",
+					"CREATE INDEX IF NOT EXISTS idx_privateMessages_sender ON PrivateMessages (sender_user_name)",
+					"CREATE INDEX IF NOT EXISTS idx_reviewerMessages_recipient ON reviewerMessages (recipient, isRead, reviewID)",
+					"CREATE INDEX IF NOT EXISTS idx_reviewerMessages_sender ON reviewerMessages (sender)",
+					"CREATE INDEX IF NOT EXISTS idx_staffMessages_recipient ON staffMessages (recipientUserName, isMessageRead)",
+					"CREATE INDEX IF NOT EXISTS idx_staffMessages_sender ON staffMessages (senderUserName)",
+					"CREATE INDEX IF NOT EXISTS idx_instructorMessages_recipient ON instructorMessages (recipientUserName, isMessageRead)",
+					"CREATE INDEX IF NOT EXISTS idx_instructorMessages_sender ON instructorMessages (senderUserName)"),
+			new Migration(4, "Make trusted reviewer pairs unique",
+					// Earlier versions allowed the same reviewer to be trusted twice; keep the first row of each pair
+					"CREATE INDEX IF NOT EXISTS idx_trustedReviewers_dedupe ON trustedReviewers (studentUserName, reviewerUserName)",
+					"DELETE FROM trustedReviewers t WHERE EXISTS (SELECT 1 FROM trustedReviewers d "
+							+ "WHERE d.studentUserName = t.studentUserName AND d.reviewerUserName = t.reviewerUserName AND d._ROWID_ < t._ROWID_)",
+					"CREATE UNIQUE INDEX IF NOT EXISTS idx_trustedReviewers_pair ON trustedReviewers (studentUserName, reviewerUserName)",
+					"DROP INDEX IF EXISTS idx_trustedReviewers_dedupe",
+					"CREATE INDEX IF NOT EXISTS idx_trustedReviewers_reviewer ON trustedReviewers (reviewerUserName)"),
+			new Migration(5, "Index questions and answers by creation time for keyset pagination",
+					"CREATE INDEX IF NOT EXISTS idx_questions_created ON questions (creationTime, questionID)",
+					"CREATE INDEX IF NOT EXISTS idx_answers_created ON answers (creationTime, answerID)"),
+			new Migration(6, "Copy private messages into one messages table", MessageStore::createAndCopy),
+			new Migration(7, "Add an indexed role bitmask to users",
+					// Generated from the role text, so every statement writing the text keeps the bitmask in step
+					"ALTER TABLE cse360users ADD COLUMN IF NOT EXISTS roleMask INT GENERATED ALWAYS AS ("
+							+ "CASEWHEN(REGEXP_LIKE(role, '^\\[true'), 1, 0) "
+							+ "+ CASEWHEN(REGEXP_LIKE(role, '^\\[([a-z]+, ){1}true'), 2, 0) "
+							+ "+ CASEWHEN(REGEXP_LIKE(role, '^\\[([a-z]+, ){2}true'), 4, 0) "
+							+ "+ CASEWHEN(REGEXP_LIKE(role, '^\\[([a-z]+, ){3}true'), 8, 0) "
+							+ "+ CASEWHEN(REGEXP_LIKE(role, '^\\[([a-z]+, ){4}true'), 16, 0))",
+					"CREATE INDEX IF NOT EXISTS idx_users_roleMask ON cse360users (roleMask)"),
+			new Migration(8, "Index the user directory by its sort columns and email domain",
+					"ALTER TABLE cse360users ADD COLUMN IF NOT EXISTS emailDomain VARCHAR(255) GENERATED ALWAYS AS ("
+							+ "CASEWHEN(LOCATE('@', email) > 0, LOWER(SUBSTRING(email, LOCATE('@', email) + 1)), NULL))",
+					"CREATE INDEX IF NOT EXISTS idx_users_emailDomain ON cse360users (emailDomain)",
+					"CREATE INDEX IF NOT EXISTS idx_users_firstName ON cse360users (firstName, id)",
+					"CREATE INDEX IF NOT EXISTS idx_users_lastName ON cse360users (lastName, id)",
+					"CREATE INDEX IF NOT EXISTS idx_users_email ON cse360users (email, id)"),
+			new Migration(9, "Queue flagged items for moderation in the flags table", FlagQueue::createAndCopy),
+			new Migration(10, "Copy private messages into the messages table by trigger", MessageStore::createTriggers)
+	));
+
+	/**
+	 * Connection the migrations are applied to
+	 */
+	private final Connection connection;
+
+	/**
+	 * Migrations applied by this migrator, in version order
+	 */
+	private final List<Migration> migrations;
+
+	/**
+	 * Constructs a SchemaMigrator which applies {@link #MIGRATIONS}.
+	 *
+	 * @param connection the connection the migrations are applied to
+	 */
+	public SchemaMigrator(Connection connection) {
+		this(connection, MIGRATIONS);
+	}
+
+	/**
+	 * Constructs a SchemaMigrator which applies the specified migrations.
+	 *
+	 * @param connection the connection the migrations are applied to
+	 * @param migrations the migrations, in strictly increasing version order
+	 */
+	public SchemaMigrator(Connection connection, List<Migration> migrations) {
+		int previous = 0;
+		for (Migration migration : migrations) {
+			if (migration.getVersion() <= previous) {
+				throw new IllegalArgumentException("Migration versions must be strictly increasing, found " + migration.getVersion() + " after " + previous);
+			}
+			previous = migration.getVersion();
+		}
+		this.connection = connection;
+		this.migrations = migrations;
+	}
+
+	/**
+	 * Applies every migration which has not been applied yet.
+	 *
+	 * @return the migrations which were applied, empty if the schema was already up to date
+	 * @throws SQLException if a migration fails; the migrations applied before it remain recorded
+	 */
+	public List<Migration> migrate() throws SQLException {
+		return migrate(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Applies every migration which has not been applied yet, up to and including the target version.
+	 *
+	 * @param targetVersion the highest version to apply
+	 * @return the migrations which were applied, empty if the schema was already up to date
+	 * @throws SQLException if a migration fails; the migrations applied before it remain recorded
+	 */
+	public synchronized List<Migration> migrate(int targetVersion) throws SQLException {
+		createVersionTable();
+		Set<Integer> recorded = getAppliedVersions();
+		List<Migration> applied = new ArrayList<>();
+		for (Migration migration : migrations) {
+			if (recorded.contains(migration.getVersion()) || migration.getVersion() > targetVersion) {
+				continue;
+			}
+			try (Statement statement = connection.createStatement()) {
+				migration.apply(statement);
+			}
+			recordVersion(migration);
+			applied.add(migration);
+			System.out.println("Applied schema migration " + migration.getVersion() + ": " + migration.getDescription());
+		}
+		return applied;
+	}
+
+	/**
+	 * Retrieves the version of the schema, which is the highest migration version recorded.
+	 *
+	 * @return the current schema version, 0 if no migration has been applied
+	 * @throws SQLException if the schema_version table cannot be read
+	 */
+	public int getCurrentVersion() throws SQLException {
+		createVersionTable();
+		try (Statement statement = connection.createStatement();
+				ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+
+	/**
+	 * Retrieves the versions of every migration recorded in the schema_version table.
+	 *
+	 * @return the applied versions
+	 * @throws SQLException if the schema_version table cannot be read
+	 */
+	public Set<Integer> getAppliedVersions() throws SQLException {
+		createVersionTable();
+		Set<Integer> versions = new HashSet<>();
+		try (Statement statement = connection.createStatement();
+				ResultSet rs = statement.executeQuery("SELECT version FROM schema_version")) {
+			while (rs.next()) {
+				versions.add(rs.getInt(1));
+			}
+		}
+		return versions;
+	}
+
+	/**
+	 * @return the version of the newest migration known to this migrator
+	 */
+	public int getLatestVersion() {
+		return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+	}
+
+	/**
+	 * Creates the schema_version table if it does not already exist.
+	 *
+	 * @throws SQLException if table creation fails
+	 */
+	private void createVersionTable() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+					+ "version INT PRIMARY KEY, "
+					+ "description VARCHAR(255), "
+					+ "appliedAt DATETIME"
+					+ ")");
+		}
+	}
+
+	/**
+	 * Records that a migration has been applied.
+	 *
+	 * @param migration the migration which was applied
+	 * @throws SQLException if the row cannot be inserted
+	 */
+	private void recordVersion(Migration migration) throws SQLException {
+		String query = "INSERT INTO schema_version (version, description, appliedAt) VALUES (?, ?, ?)";
+		try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+			pstmt.setInt(1, migration.getVersion());
+			pstmt.setString(2, migration.getDescription());
+			pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+			pstmt.executeUpdate();
+		}
+	}
+}
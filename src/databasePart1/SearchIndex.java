@@ -0,0 +1,602 @@
+package databasePart1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The SearchIndex class is an in-memory inverted index over the text of questions, question replies, answers and
+ * reviews, used for keyword search. Text is split into lower-case words, and each word points to the posts which
+ * contain it together with a weight: words in a question title count three times, words in an author's name twice
+ * and words in a body once.
+ *
+ * A query matches a post when every word of the query is the start of a word in the post, so results appear while
+ * the last word is still being typed. Matches are ranked by the weighted number of times the words occur, scaled by
+ * how rare each word is across all posts.
+ *
+ * For misspelled queries, every distinct word is also indexed by its trigrams, the runs of three characters in the
+ * word padded with spaces. {@link #fuzzySearch(String, Set, int)} looks up the words which share the most trigrams
+ * with each query word and ranks posts by how similar their words are, so "recusion" or "jonson" still find
+ * "recursion" and "Johnson".
+ *
+ * Posts are added, replaced and removed one at a time, so the index can be kept up to date as posts change instead
+ * of being rebuilt. Searching and updating are safe to call from different threads.
+ */
+public class SearchIndex {
+
+	/**
+	 * Weight of a word in a question title
+	 */
+	static final int TITLE_WEIGHT = 3;
+
+	/**
+	 * Weight of a word in the author's first or last name
+	 */
+	static final int AUTHOR_WEIGHT = 2;
+
+	/**
+	 * Weight of a word in the body of a post
+	 */
+	static final int BODY_WEIGHT = 1;
+
+	/**
+	 * Lowest trigram similarity, from 0 to 1, at which a word counts as a misspelling of a query word
+	 */
+	static final double MIN_SIMILARITY = 0.5;
+
+	/**
+	 * Shortest query word looked up by similarity; shorter words share too few trigrams to tell typos from other words
+	 */
+	static final int MIN_FUZZY_LENGTH = 3;
+
+	/**
+	 * Most similar words used for each query word in a fuzzy search
+	 */
+	static final int MAX_SIMILAR_TERMS = 20;
+
+	/**
+	 * A post which matched a query.
+	 */
+	public static class Hit {
+		private final ChangeEvent.Entity entity;
+		private final int id;
+		private final int questionID;
+		private final double score;
+
+		/**
+		 * Constructs a Hit.
+		 *
+		 * @param entity the kind of post
+		 * @param id the primary key of the post
+		 * @param questionID the question the post belongs to
+		 * @param score the relevance of the post, higher is better
+		 */
+		Hit(ChangeEvent.Entity entity, int id, int questionID, double score) {
+			this.entity = entity;
+			this.id = id;
+			this.questionID = questionID;
+			this.score = score;
+		}
+
+		/**
+		 * @return the kind of post
+		 */
+		public ChangeEvent.Entity getEntity() { return entity; }
+
+		/**
+		 * @return the primary key of the post
+		 */
+		public int getId() { return id; }
+
+		/**
+		 * @return the question the post belongs to, the post's own ID for a question
+		 */
+		public int getQuestionID() { return questionID; }
+
+		/**
+		 * @return the relevance of the post, higher is better
+		 */
+		public double getScore() { return score; }
+
+		/**
+		 * @return the key of the post, as returned by {@link SearchIndex#key(ChangeEvent.Entity, int)}
+		 */
+		public long getKey() { return key(entity, id); }
+
+		@Override
+		public String toString() {
+			return entity + " " + id + " (" + score + ")";
+		}
+	}
+
+	/**
+	 * A post held by the index.
+	 */
+	private static class Document {
+		final ChangeEvent.Entity entity;
+		final int id;
+		final int questionID;
+
+		/**
+		 * Weighted number of occurrences of each word in the post
+		 */
+		final Map<String, Integer> termWeights;
+
+		Document(ChangeEvent.Entity entity, int id, int questionID, Map<String, Integer> termWeights) {
+			this.entity = entity;
+			this.id = id;
+			this.questionID = questionID;
+			this.termWeights = termWeights;
+		}
+	}
+
+	/**
+	 * The score of a post in a fuzzy search, which adds up the best score of each query word.
+	 */
+	private static class FuzzyScore {
+		double previousWords;
+		double currentWord;
+		int queryWord = -1;
+
+		/**
+		 * Counts a word of the post which is similar to a query word, keeping only the best for each query word.
+		 *
+		 * @param queryWord the index of the query word, visited in increasing order
+		 * @param score the score of the word of the post
+		 */
+		void add(int queryWord, double score) {
+			if (queryWord != this.queryWord) {
+				previousWords += currentWord;
+				currentWord = 0;
+				this.queryWord = queryWord;
+			}
+			currentWord = Math.max(currentWord, score);
+		}
+
+		/**
+		 * @return the score of the post
+		 */
+		double total() {
+			return previousWords + currentWord;
+		}
+	}
+
+	/**
+	 * Posts containing each word, keyed by word in sorted order so every word starting with a prefix is one range
+	 */
+	private final TreeMap<String, Map<Long, Document>> postings = new TreeMap<>();
+
+	/**
+	 * Every post, keyed by key(entity, id)
+	 */
+	private final Map<Long, Document> documents = new HashMap<>();
+
+	/**
+	 * Every word in postings, keyed by each of its trigrams
+	 */
+	private final Map<String, Set<String>> trigramTerms = new HashMap<>();
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Constructs an empty SearchIndex; posts are added with put().
+	 */
+	public SearchIndex() {
+	}
+
+	/**
+	 * Combines the kind of a post and its primary key into one number which identifies the post.
+	 *
+	 * @param entity the kind of post
+	 * @param id the primary key of the post
+	 * @return the key of the post
+	 */
+	public static long key(ChangeEvent.Entity entity, int id) {
+		return ((long) entity.ordinal() << 32) | (id & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Adds a post to the index, replacing any earlier version of it.
+	 *
+	 * @param entity the kind of post
+	 * @param id the primary key of the post
+	 * @param questionID the question the post belongs to, the post's own ID for a question
+	 * @param title the question title, or null for other posts
+	 * @param body the text of the post
+	 * @param firstName the author's first name
+	 * @param lastName the author's last name
+	 */
+	public void put(ChangeEvent.Entity entity, int id, int questionID, String title, String body, String firstName, String lastName) {
+		Map<String, Integer> termWeights = new HashMap<>();
+		addTerms(termWeights, title, TITLE_WEIGHT);
+		addTerms(termWeights, firstName, AUTHOR_WEIGHT);
+		addTerms(termWeights, lastName, AUTHOR_WEIGHT);
+		addTerms(termWeights, body, BODY_WEIGHT);
+		Document document = new Document(entity, id, questionID, termWeights);
+
+		lock.writeLock().lock();
+		try {
+			removeLocked(key(entity, id));
+			documents.put(key(entity, id), document);
+			for (String term : termWeights.keySet()) {
+				postings.computeIfAbsent(term, this::addTrigramsLocked).put(key(entity, id), document);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes a post from the index.
+	 *
+	 * @param entity the kind of post
+	 * @param id the primary key of the post
+	 */
+	public void remove(ChangeEvent.Entity entity, int id) {
+		lock.writeLock().lock();
+		try {
+			removeLocked(key(entity, id));
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes every post.
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			documents.clear();
+			trigramTerms.clear();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of posts in the index
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the posts of the specified kinds which contain every word of the query, the last word possibly
+	 * incomplete.
+	 *
+	 * @param query the words to search for
+	 * @param entities the kinds of post to return
+	 * @return the matching posts, most relevant first; empty if the query has no words
+	 */
+	public List<Hit> search(String query, Set<ChangeEvent.Entity> entities) {
+		List<String> queryTerms = tokenize(query);
+		if (queryTerms.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, Double> scores = null;
+		Map<Long, Document> matched = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			int total = Math.max(1, documents.size());
+			for (String queryTerm : queryTerms) {
+				// Score of each post for this query word, keeping its best matching word
+				Map<Long, Double> termScores = new HashMap<>();
+				SortedMap<String, Map<Long, Document>> range = postings.subMap(queryTerm, queryTerm + Character.MAX_VALUE);
+				for (Map.Entry<String, Map<Long, Document>> posting : range.entrySet()) {
+					double idf = Math.log(1.0 + (double) total / posting.getValue().size());
+					for (Map.Entry<Long, Document> entry : posting.getValue().entrySet()) {
+						Document document = entry.getValue();
+						if (!entities.contains(document.entity) || (scores != null && !scores.containsKey(entry.getKey()))) {
+							continue;
+						}
+						double score = document.termWeights.get(posting.getKey()) * idf;
+						termScores.merge(entry.getKey(), score, Math::max);
+						matched.put(entry.getKey(), document);
+					}
+				}
+				if (scores == null) {
+					scores = termScores;
+				}
+				else {
+					Map<Long, Double> previous = scores;
+					termScores.replaceAll((key, score) -> score + previous.get(key));
+					scores = termScores;
+				}
+				if (scores.isEmpty()) {
+					return List.of();
+				}
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+
+		List<Hit> hits = new ArrayList<>(scores.size());
+		for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+			Document document = matched.get(entry.getKey());
+			hits.add(new Hit(document.entity, document.id, document.questionID, entry.getValue()));
+		}
+		hits.sort((a, b) -> a.score != b.score ? Double.compare(b.score, a.score) : Long.compare(a.getKey(), b.getKey()));
+		return hits;
+	}
+
+	/**
+	 * Finds the posts of the specified kinds whose words are most similar to the words of the query, for when a
+	 * misspelled query has no exact matches. Each query word counts the best matching word of a post, weighted like
+	 * {@link #search(String, Set)} and scaled by its similarity, and posts need not match every query word.
+	 *
+	 * @param query the words to search for
+	 * @param entities the kinds of post to return
+	 * @param limit the most posts to return
+	 * @return at most limit posts, most relevant first
+	 */
+	public List<Hit> fuzzySearch(String query, Set<ChangeEvent.Entity> entities, int limit) {
+		List<String> queryTerms = tokenize(query);
+		if (queryTerms.isEmpty() || limit <= 0) {
+			return List.of();
+		}
+		Map<Document, FuzzyScore> scores = new HashMap<>();
+		lock.readLock().lock();
+		try {
+			int total = Math.max(1, documents.size());
+			for (int q = 0; q < queryTerms.size(); q++) {
+				for (Map.Entry<String, Double> similar : similarTermsLocked(queryTerms.get(q)).entrySet()) {
+					Map<Long, Document> posting = postings.get(similar.getKey());
+					double idf = Math.log(1.0 + (double) total / posting.size()) * similar.getValue();
+					for (Document document : posting.values()) {
+						if (entities.contains(document.entity)) {
+							scores.computeIfAbsent(document, d -> new FuzzyScore()).add(q, document.termWeights.get(similar.getKey()) * idf);
+						}
+					}
+				}
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+
+		// Keep the best posts in a heap whose head is the worst of them
+		Comparator<Hit> byRelevance = (a, b) -> a.score != b.score ? Double.compare(b.score, a.score) : Long.compare(a.getKey(), b.getKey());
+		PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, byRelevance.reversed());
+		for (Map.Entry<Document, FuzzyScore> entry : scores.entrySet()) {
+			double score = entry.getValue().total();
+			if (best.size() == limit && score < best.peek().score) {
+				continue;
+			}
+			Document document = entry.getKey();
+			best.add(new Hit(document.entity, document.id, document.questionID, score));
+			if (best.size() > limit) {
+				best.poll();
+			}
+		}
+		List<Hit> hits = new ArrayList<>(best);
+		hits.sort(byRelevance);
+		return hits;
+	}
+
+	/**
+	 * Finds the words of a text which match a query, so they can be highlighted.
+	 *
+	 * @param text the displayed text
+	 * @param query the words searched for
+	 * @return the start (inclusive) and end (exclusive) index of every word of the text which starts with, or is
+	 *         similar to, a query word, in order
+	 */
+	public static List<int[]> highlight(String text, String query) {
+		List<String> queryTerms = tokenize(query);
+		if (text == null || queryTerms.isEmpty()) {
+			return List.of();
+		}
+		List<int[]> ranges = new ArrayList<>();
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean wordCharacter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (wordCharacter && start < 0) {
+				start = i;
+			}
+			else if (!wordCharacter && start >= 0) {
+				String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+				for (String queryTerm : queryTerms) {
+					if (word.startsWith(queryTerm) || (queryTerm.length() >= MIN_FUZZY_LENGTH && similarity(word, queryTerm) >= MIN_SIMILARITY)) {
+						ranges.add(new int[] {start, i});
+						break;
+					}
+				}
+				start = -1;
+			}
+		}
+		return ranges;
+	}
+
+	/**
+	 * Splits text into lower-case words made of letters and digits.
+	 *
+	 * @param text the text, may be null
+	 * @return the words in order, including repeats
+	 */
+	static List<String> tokenize(String text) {
+		if (text == null || text.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<String> words = new ArrayList<>();
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean wordCharacter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (wordCharacter && start < 0) {
+				start = i;
+			}
+			else if (!wordCharacter && start >= 0) {
+				words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				start = -1;
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Splits a word into its distinct trigrams, after padding it with two spaces in front and one behind so the start
+	 * of a word weighs more than its end.
+	 *
+	 * @param word the lower-case word
+	 * @return the trigrams of the word
+	 */
+	static Set<String> trigrams(String word) {
+		String padded = "  " + word + " ";
+		Set<String> trigrams = new HashSet<>();
+		for (int i = 0; i + 3 <= padded.length(); i++) {
+			trigrams.add(padded.substring(i, i + 3));
+		}
+		return trigrams;
+	}
+
+	/**
+	 * Measures how alike two words are as the Dice coefficient of their trigrams: twice the number of shared trigrams
+	 * over the total number of trigrams.
+	 *
+	 * @param a the first lower-case word
+	 * @param b the second lower-case word
+	 * @return the similarity, from 0 for nothing shared to 1 for the same trigrams
+	 */
+	static double similarity(String a, String b) {
+		Set<String> trigramsA = trigrams(a);
+		Set<String> trigramsB = trigrams(b);
+		int shared = 0;
+		for (String trigram : trigramsA) {
+			if (trigramsB.contains(trigram)) {
+				shared++;
+			}
+		}
+		return 2.0 * shared / (trigramsA.size() + trigramsB.size());
+	}
+
+	/**
+	 * Finds the indexed words most similar to a query word while the read lock is held. Words which start with the
+	 * query word count as exact matches, as in {@link #search(String, Set)}.
+	 *
+	 * @param queryTerm the lower-case query word
+	 * @return at most MAX_SIMILAR_TERMS words with a similarity of at least MIN_SIMILARITY, with their similarity
+	 */
+	private Map<String, Double> similarTermsLocked(String queryTerm) {
+		Map<String, Double> similar = new HashMap<>();
+		for (String term : postings.subMap(queryTerm, queryTerm + Character.MAX_VALUE).keySet()) {
+			similar.put(term, 1.0);
+			if (similar.size() >= MAX_SIMILAR_TERMS) {
+				return similar;
+			}
+		}
+		if (queryTerm.length() < MIN_FUZZY_LENGTH) {
+			return similar;
+		}
+
+		Set<String> queryTrigrams = trigrams(queryTerm);
+		Map<String, Integer> shared = new HashMap<>();
+		for (String trigram : queryTrigrams) {
+			for (String term : trigramTerms.getOrDefault(trigram, Set.of())) {
+				shared.merge(term, 1, Integer::sum);
+			}
+		}
+		PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(Map.Entry.comparingByValue());
+		for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+			if (similar.containsKey(entry.getKey())) {
+				continue;
+			}
+			double score = 2.0 * entry.getValue() / (queryTrigrams.size() + trigrams(entry.getKey()).size());
+			if (score >= MIN_SIMILARITY) {
+				best.add(Map.entry(entry.getKey(), score));
+				if (best.size() > MAX_SIMILAR_TERMS - similar.size()) {
+					best.poll();
+				}
+			}
+		}
+		for (Map.Entry<String, Double> entry : best) {
+			similar.put(entry.getKey(), entry.getValue());
+		}
+		return similar;
+	}
+
+	/**
+	 * Indexes a new word by its trigrams while the write lock is held.
+	 *
+	 * @param term the word
+	 * @return a new empty posting for the word
+	 */
+	private Map<Long, Document> addTrigramsLocked(String term) {
+		for (String trigram : trigrams(term)) {
+			trigramTerms.computeIfAbsent(trigram, t -> new HashSet<>()).add(term);
+		}
+		return new HashMap<>();
+	}
+
+	/**
+	 * Forgets the trigrams of a word which is no longer in any post while the write lock is held.
+	 *
+	 * @param term the word
+	 */
+	private void removeTrigramsLocked(String term) {
+		for (String trigram : trigrams(term)) {
+			Set<String> terms = trigramTerms.get(trigram);
+			if (terms != null) {
+				terms.remove(term);
+				if (terms.isEmpty()) {
+					trigramTerms.remove(trigram);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the words of one field to the weighted word counts of a post.
+	 *
+	 * @param termWeights the weighted word counts of the post
+	 * @param text the text of the field, may be null
+	 * @param weight the weight of a word in the field
+	 */
+	private static void addTerms(Map<String, Integer> termWeights, String text, int weight) {
+		for (String term : tokenize(text)) {
+			termWeights.merge(term, weight, Integer::sum);
+		}
+	}
+
+	/**
+	 * Removes a post while the write lock is held.
+	 *
+	 * @param key the key of the post
+	 */
+	private void removeLocked(long key) {
+		Document old = documents.remove(key);
+		if (old == null) {
+			return;
+		}
+		for (String term : old.termWeights.keySet()) {
+			Map<Long, Document> posting = postings.get(term);
+			if (posting != null) {
+				posting.remove(key);
+				if (posting.isEmpty()) {
+					postings.remove(term);
+					removeTrigramsLocked(term);
+				}
+			}
+		}
+	}
+}
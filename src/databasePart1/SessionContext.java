@@ -0,0 +1,177 @@
+package databasePart1;
+
+import java.sql.SQLException;
+import java.util.EnumSet;
+
+import application.Role;
+import application.User;
+
+/**
+ * The SessionContext class stands for the logged in user between login and logout. Their userID, which never changes
+ * for a user, is read once and kept, so getUserID answers for the logged in user without a query. Their names, email,
+ * roles and whether they are muted can be changed at any time by another DatabaseHelper or by the server process, so
+ * they are read from cse360users with one query each time they are asked for.
+ *
+ * The userID is read again after a {@link ChangeEvent.Entity#USER} event for the user, which DatabaseHelper publishes
+ * when a user is deleted.
+ */
+public class SessionContext {
+
+	/**
+	 * Reads the profile of a user from the database.
+	 */
+	@FunctionalInterface
+	interface ProfileLoader {
+
+		/**
+		 * @param userName the user's userName
+		 * @return the profile, or null if there is no such user
+		 * @throws SQLException if the profile cannot be read
+		 */
+		Profile load(String userName) throws SQLException;
+	}
+
+	/**
+	 * The profile of the user at one moment.
+	 */
+	static class Profile {
+		final int userID;
+		final String firstName;
+		final String lastName;
+		final String email;
+		final EnumSet<Role> roles;
+		final boolean muted;
+
+		/**
+		 * Constructs a Profile.
+		 *
+		 * @param userID the user's id
+		 * @param firstName the user's first name
+		 * @param lastName the user's last name
+		 * @param email the user's email
+		 * @param roles the roles the user holds
+		 * @param muted whether the user is muted
+		 */
+		Profile(int userID, String firstName, String lastName, String email, EnumSet<Role> roles, boolean muted) {
+			this.userID = userID;
+			this.firstName = firstName;
+			this.lastName = lastName;
+			this.email = email;
+			this.roles = roles;
+			this.muted = muted;
+		}
+	}
+
+	private final String userName;
+	private final ProfileLoader loader;
+
+	/**
+	 * The userID last read, or -1 if it must be read again
+	 */
+	private volatile int userID = -1;
+
+	/**
+	 * Constructs a SessionContext, reading the userID on first use.
+	 *
+	 * @param userName the logged in user's userName
+	 * @param loader reads the profile from the database
+	 */
+	SessionContext(String userName, ProfileLoader loader) {
+		this.userName = userName;
+		this.loader = loader;
+	}
+
+	/**
+	 * @return the logged in user's userName
+	 */
+	public String getUserName() { return userName; }
+
+	/**
+	 * @return the user's id, or -1 if the user does not exist
+	 */
+	public int getUserID() {
+		int current = userID;
+		if (current < 0) {
+			synchronized (this) {
+				current = userID;
+				if (current < 0) {
+					Profile profile = read();
+					current = profile == null ? -1 : profile.userID;
+					userID = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * @return a copy of the roles the user holds now; empty if the user does not exist
+	 */
+	public EnumSet<Role> getRoles() {
+		Profile current = read();
+		return current == null ? EnumSet.noneOf(Role.class) : EnumSet.copyOf(current.roles);
+	}
+
+	/**
+	 * @param role a role
+	 * @return true if the user holds the role now
+	 */
+	public boolean hasRole(Role role) {
+		Profile current = read();
+		return current != null && current.roles.contains(role);
+	}
+
+	/**
+	 * @return true if the user is muted now
+	 */
+	public boolean isMuted() {
+		Profile current = read();
+		return current != null && current.muted;
+	}
+
+	/**
+	 * Returns the user's current profile as a new User without a password, which the caller may change.
+	 *
+	 * @return the user, or null if the user does not exist
+	 */
+	public User getUser() {
+		Profile current = read();
+		return current == null ? null
+				: new User(userName, Role.toArray(current.roles), current.email, current.firstName, current.lastName, current.muted);
+	}
+
+	/**
+	 * Drops the userID so it is read again on next use. Waits for a read in progress, whose result may already be out
+	 * of date.
+	 */
+	public synchronized void invalidate() {
+		userID = -1;
+	}
+
+	/**
+	 * Drops the userID if a ChangeEvent is about the logged in user.
+	 *
+	 * @param event a USER event
+	 */
+	void onUserChanged(ChangeEvent event) {
+		int current = userID;
+		if (event.affectsAllRows() || current < 0 || event.getId() == current) {
+			invalidate();
+		}
+	}
+
+	/**
+	 * Reads the user's profile from the database.
+	 *
+	 * @return the profile, or null if the user does not exist or the profile cannot be read
+	 */
+	private Profile read() {
+		try {
+			return loader.load(userName);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package databasePart1;
+
+import java.util.function.Supplier;
+
+/**
+ * The SnapshotCache class holds a value computed from the database, such as a map of counts built by one GROUP BY
+ * query, and hands out the same value until it is invalidated. The value is computed again on the first call to
+ * {@link #get()} after an invalidation, so any number of writes between two reads cost a single reload.
+ *
+ * The cache is safe to use from several threads. If the value is invalidated while it is being loaded, the freshly
+ * loaded value is returned to the caller but not kept, so a write can never be hidden by a reload that started
+ * before it.
+ *
+ * @param <T> the type of the cached value, which should be immutable
+ */
+public class SnapshotCache<T> {
+
+	/**
+	 * Computes the value from the database
+	 */
+	private final Supplier<T> loader;
+
+	/**
+	 * The cached value, null when it must be loaded
+	 */
+	private T value;
+
+	/**
+	 * Incremented by every invalidation so a load can tell whether it raced with a write
+	 */
+	private long generation;
+
+	private long loads;
+
+	/**
+	 * Constructs a SnapshotCache.
+	 *
+	 * @param loader computes the value from the database; it must not return null
+	 */
+	public SnapshotCache(Supplier<T> loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Returns the cached value, loading it first if it has been invalidated.
+	 *
+	 * @return the cached value
+	 */
+	public T get() {
+		long loadingGeneration;
+		synchronized (this) {
+			if (value != null) {
+				return value;
+			}
+			loadingGeneration = generation;
+			loads++;
+		}
+		T loaded = loader.get();
+		synchronized (this) {
+			if (generation == loadingGeneration) {
+				value = loaded;
+			}
+		}
+		return loaded;
+	}
+
+	/**
+	 * Discards the cached value so the next call to get() loads it again.
+	 */
+	public synchronized void invalidate() {
+		value = null;
+		generation++;
+	}
+
+	/**
+	 * @return the number of times the value has been loaded from the database
+	 */
+	public synchronized long getLoadCount() {
+		return loads;
+	}
+}
@@ -0,0 +1,219 @@
+package databasePart1;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The StatementCache class keeps the most recently used prepared statements of one physical connection, keyed by their
+ * SQL text, so that a query run over and over (for example once per row by a ListView cell factory) is parsed and
+ * planned by the database only once.
+ *
+ * A statement is checked out of the cache while it is in use and checked back in when the caller closes it, so two
+ * callers can never share the same statement. If the same SQL is prepared again while an earlier copy is still open,
+ * a second statement is prepared; only one copy is kept when both are closed. When the cache is full the least
+ * recently used statement is closed.
+ */
+class StatementCache {
+
+	/**
+	 * Maximum number of idle statements kept, 0 disables caching
+	 */
+	private final int capacity;
+
+	/**
+	 * Idle statements in least recently used order
+	 */
+	private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Counters shared by every cache of the same pool
+	 */
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+	private final AtomicLong evictions;
+
+	/**
+	 * Constructs a StatementCache.
+	 *
+	 * @param capacity the maximum number of idle statements kept, 0 disables caching
+	 * @param hits counter incremented when a statement is reused
+	 * @param misses counter incremented when a statement has to be prepared
+	 * @param evictions counter incremented when a cached statement is closed to make room
+	 */
+	StatementCache(int capacity, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+		this.capacity = capacity;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+	}
+
+	/**
+	 * Returns a prepared statement for the SQL text, reusing a cached statement when one is available. Closing the
+	 * returned statement hands it back to the cache instead of closing it.
+	 *
+	 * @param physical the physical connection which owns this cache
+	 * @param lease the connection the caller borrowed, reported by getConnection() on the statement
+	 * @param sql the SQL text
+	 * @return a statement ready for its parameters to be set
+	 * @throws SQLException if the statement cannot be prepared
+	 */
+	PreparedStatement prepare(Connection physical, Connection lease, String sql) throws SQLException {
+		if (capacity <= 0) {
+			return physical.prepareStatement(sql);
+		}
+		PreparedStatement statement;
+		synchronized (this) {
+			statement = statements.remove(sql);
+		}
+		if (statement != null && !statement.isClosed()) {
+			hits.incrementAndGet();
+		}
+		else {
+			misses.incrementAndGet();
+			statement = physical.prepareStatement(sql);
+		}
+		return wrap(statement, lease, sql);
+	}
+
+	/**
+	 * Puts a statement the caller has finished with back into the cache, closing the least recently used statement if
+	 * the cache is full. A result set the caller left open is closed first, so the next caller does not find it.
+	 *
+	 * @param sql the SQL text of the statement
+	 * @param statement the statement being checked back in
+	 */
+	private void checkIn(String sql, PreparedStatement statement) {
+		try {
+			if (statement.isClosed()) {
+				return;
+			}
+			ResultSet open = statement.getResultSet();
+			if (open != null) {
+				open.close();
+			}
+			statement.clearParameters();
+			statement.clearWarnings();
+		}
+		catch (SQLException e) {
+			close(statement);
+			return;
+		}
+
+		PreparedStatement discarded = null;
+		PreparedStatement eldest = null;
+		synchronized (this) {
+			if (statements.containsKey(sql)) {
+				discarded = statement;
+			}
+			else {
+				statements.put(sql, statement);
+				if (statements.size() > capacity) {
+					Iterator<Map.Entry<String, PreparedStatement>> iterator = statements.entrySet().iterator();
+					eldest = iterator.next().getValue();
+					iterator.remove();
+				}
+			}
+		}
+		if (discarded != null) {
+			close(discarded);
+		}
+		if (eldest != null) {
+			evictions.incrementAndGet();
+			close(eldest);
+		}
+	}
+
+	/**
+	 * @return the number of idle statements currently cached
+	 */
+	synchronized int size() {
+		return statements.size();
+	}
+
+	/**
+	 * Closes every cached statement. Called when the physical connection is closed.
+	 */
+	void clear() {
+		PreparedStatement[] cached;
+		synchronized (this) {
+			cached = statements.values().toArray(new PreparedStatement[0]);
+			statements.clear();
+		}
+		for (PreparedStatement statement : cached) {
+			close(statement);
+		}
+	}
+
+	/**
+	 * Closes a statement, ignoring errors.
+	 *
+	 * @param statement the statement to close
+	 */
+	private void close(PreparedStatement statement) {
+		try {
+			statement.close();
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Wraps a cached statement in a proxy whose close() method checks the statement back in. Once closed, the proxy
+	 * rejects further use so a stale reference cannot touch a statement which has since been handed to someone else.
+	 *
+	 * @param statement the statement being handed out
+	 * @param lease the connection the caller borrowed
+	 * @param sql the SQL text of the statement
+	 * @return the statement proxy given to the caller
+	 */
+	private PreparedStatement wrap(PreparedStatement statement, Connection lease, String sql) {
+		InvocationHandler handler = new InvocationHandler() {
+			private boolean returned = false;
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "close":
+					if (!returned) {
+						returned = true;
+						checkIn(sql, statement);
+					}
+					return null;
+				case "isClosed":
+					return returned || statement.isClosed();
+				case "getConnection":
+					return lease;
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "CachedStatement[" + sql + "]";
+				default:
+					break;
+				}
+				if (returned) {
+					throw new SQLException("Statement has already been closed");
+				}
+				try {
+					return method.invoke(statement, args);
+				}
+				catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		};
+		return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, handler);
+	}
+}
@@ -0,0 +1,114 @@
+package databasePart1;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The TrustedReviewerCache class keeps each student's Trusted Reviewers List in memory, as a map from reviewer
+ * userName to the weight the student assigned. A student's list is loaded from the database the first time it is
+ * needed and is then kept up to date by the DatabaseHelper methods that add, remove or re-weight trusted reviewers,
+ * so checking whether a review was written by a trusted reviewer is a single hash lookup.
+ */
+class TrustedReviewerCache {
+
+	/**
+	 * Loads the Trusted Reviewers List of one student from the database
+	 */
+	private final Function<String, Map<String, Integer>> loader;
+
+	/**
+	 * Loaded lists, keyed by student userName
+	 */
+	private final ConcurrentHashMap<String, Map<String, Integer>> weightsByStudent = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructs a TrustedReviewerCache.
+	 *
+	 * @param loader loads the reviewer userName to weight map of one student from the database
+	 */
+	TrustedReviewerCache(Function<String, Map<String, Integer>> loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Retrieves the Trusted Reviewers List of a student, loading it if this is the first request for that student.
+	 *
+	 * @param studentUserName the student's userName
+	 * @return an unmodifiable view of the reviewer userName to weight map
+	 */
+	Map<String, Integer> getWeights(String studentUserName) {
+		return Collections.unmodifiableMap(load(studentUserName));
+	}
+
+	/**
+	 * Checks whether a reviewer is on a student's Trusted Reviewers List.
+	 *
+	 * @param studentUserName the student's userName
+	 * @param reviewerUserName the reviewer's userName
+	 * @return true if the reviewer is trusted by the student
+	 */
+	boolean isTrusted(String studentUserName, String reviewerUserName) {
+		return reviewerUserName != null && load(studentUserName).containsKey(reviewerUserName);
+	}
+
+	/**
+	 * Records that a reviewer has been added to a student's list, or that its weight has changed.
+	 *
+	 * @param studentUserName the student's userName
+	 * @param reviewerUserName the reviewer's userName
+	 * @param weight the weight assigned by the student
+	 */
+	void put(String studentUserName, String reviewerUserName, int weight) {
+		weightsByStudent.computeIfPresent(studentUserName, (student, weights) -> {
+			weights.put(reviewerUserName, weight);
+			return weights;
+		});
+	}
+
+	/**
+	 * Records a new weight for a reviewer which is already on a student's list. Does nothing if the reviewer is not on
+	 * the list, matching an UPDATE which affects no rows.
+	 *
+	 * @param studentUserName the student's userName
+	 * @param reviewerUserName the reviewer's userName
+	 * @param weight the weight assigned by the student
+	 */
+	void updateWeight(String studentUserName, String reviewerUserName, int weight) {
+		weightsByStudent.computeIfPresent(studentUserName, (student, weights) -> {
+			weights.replace(reviewerUserName, weight);
+			return weights;
+		});
+	}
+
+	/**
+	 * Records that a reviewer has been removed from a student's list.
+	 *
+	 * @param studentUserName the student's userName
+	 * @param reviewerUserName the reviewer's userName
+	 */
+	void remove(String studentUserName, String reviewerUserName) {
+		weightsByStudent.computeIfPresent(studentUserName, (student, weights) -> {
+			weights.remove(reviewerUserName);
+			return weights;
+		});
+	}
+
+	/**
+	 * Forgets every loaded list so each one is loaded again when next needed.
+	 */
+	void clear() {
+		weightsByStudent.clear();
+	}
+
+	/**
+	 * Returns the loaded list of a student, loading it first if needed.
+	 *
+	 * @param studentUserName the student's userName
+	 * @return the mutable reviewer userName to weight map held by the cache
+	 */
+	private Map<String, Integer> load(String studentUserName) {
+		return weightsByStudent.computeIfAbsent(studentUserName, student -> new ConcurrentHashMap<>(loader.apply(student)));
+	}
+}
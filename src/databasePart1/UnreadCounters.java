@@ -0,0 +1,176 @@
+package databasePart1;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import application.InboxMessage;
+
+/**
+ * The UnreadCounters class keeps the number of unread private messages of every user, in total for each messaging
+ * feature and for each conversation about a question or a review, so message pages and list cells can show their
+ * unread badges without a COUNT query per page visit or per cell.
+ *
+ * The counters are kept up to date one message at a time: every unread message is remembered with the user and
+ * conversation it is counted under, and putting a message again first takes back what was counted for its earlier
+ * version. Messages deleted from the recipient's inbox are not counted. Every method is synchronized, so updates and
+ * reads may come from different threads.
+ */
+public class UnreadCounters {
+
+	/**
+	 * What is counted of an unread message.
+	 */
+	private static class UnreadMessage {
+		final String recipient;
+		final int questionID;
+		final int reviewID;
+
+		UnreadMessage(String recipient, int questionID, int reviewID) {
+			this.recipient = recipient;
+			this.questionID = questionID;
+			this.reviewID = reviewID;
+		}
+	}
+
+	/**
+	 * The counters of one user.
+	 */
+	private static class UserCounts {
+		final Map<InboxMessage.Source, Integer> bySource = new EnumMap<>(InboxMessage.Source.class);
+		final Map<InboxMessage.Source, Map<Integer, Integer>> byQuestion = new EnumMap<>(InboxMessage.Source.class);
+		final Map<InboxMessage.Source, Map<Integer, Integer>> byReview = new EnumMap<>(InboxMessage.Source.class);
+
+		boolean isEmpty() {
+			return bySource.isEmpty();
+		}
+	}
+
+	/**
+	 * Unread messages keyed by the messageID of their row in the table of each messaging feature
+	 */
+	private final Map<InboxMessage.Source, Map<Integer, UnreadMessage>> messages = new EnumMap<>(InboxMessage.Source.class);
+
+	/**
+	 * Counters keyed by the recipient's userName, only for users with unread messages
+	 */
+	private final Map<String, UserCounts> users = new HashMap<>();
+
+	/**
+	 * Constructs UnreadCounters with no unread messages counted.
+	 */
+	public UnreadCounters() {
+	}
+
+	/**
+	 * Counts an unread message, replacing what was counted for an earlier version of it.
+	 *
+	 * @param source the messaging feature the message was sent through
+	 * @param sourceID the messageID in that feature's table
+	 * @param recipient the recipient's userName
+	 * @param questionID the question the message is about, or -1
+	 * @param reviewID the review the message is about, or -1
+	 */
+	public synchronized void putUnread(InboxMessage.Source source, int sourceID, String recipient, int questionID, int reviewID) {
+		remove(source, sourceID);
+		UnreadMessage message = new UnreadMessage(recipient, questionID, reviewID);
+		messages.computeIfAbsent(source, s -> new HashMap<>()).put(sourceID, message);
+		count(source, message, 1);
+	}
+
+	/**
+	 * Stops counting a message, once it has been read, deleted from the inbox or deleted.
+	 *
+	 * @param source the messaging feature the message was sent through
+	 * @param sourceID the messageID in that feature's table
+	 */
+	public synchronized void remove(InboxMessage.Source source, int sourceID) {
+		Map<Integer, UnreadMessage> sourceMessages = messages.get(source);
+		UnreadMessage old = sourceMessages == null ? null : sourceMessages.remove(sourceID);
+		if (old != null) {
+			count(source, old, -1);
+		}
+	}
+
+	/**
+	 * Forgets every message, before the counters are loaded again.
+	 */
+	public synchronized void clear() {
+		messages.clear();
+		users.clear();
+	}
+
+	/**
+	 * Returns the number of unread messages in a user's inbox.
+	 *
+	 * @param recipient the recipient's userName
+	 * @param sources the messaging features to include
+	 * @return the number of unread messages
+	 */
+	public synchronized int getUnread(String recipient, Set<InboxMessage.Source> sources) {
+		UserCounts counts = users.get(recipient);
+		if (counts == null) {
+			return 0;
+		}
+		int unread = 0;
+		for (InboxMessage.Source source : sources) {
+			unread += counts.bySource.getOrDefault(source, 0);
+		}
+		return unread;
+	}
+
+	/**
+	 * Returns the number of unread messages a user received about a question.
+	 *
+	 * @param recipient the recipient's userName
+	 * @param source the messaging feature
+	 * @param questionID the questionID
+	 * @return the number of unread messages
+	 */
+	public synchronized int getUnreadAboutQuestion(String recipient, InboxMessage.Source source, int questionID) {
+		UserCounts counts = users.get(recipient);
+		return counts == null ? 0 : counts.byQuestion.getOrDefault(source, Map.of()).getOrDefault(questionID, 0);
+	}
+
+	/**
+	 * Returns the number of unread messages a user received about a review.
+	 *
+	 * @param recipient the recipient's userName
+	 * @param source the messaging feature
+	 * @param reviewID the reviewID
+	 * @return the number of unread messages
+	 */
+	public synchronized int getUnreadAboutReview(String recipient, InboxMessage.Source source, int reviewID) {
+		UserCounts counts = users.get(recipient);
+		return counts == null ? 0 : counts.byReview.getOrDefault(source, Map.of()).getOrDefault(reviewID, 0);
+	}
+
+	/**
+	 * Adds or takes back one unread message from its recipient's counters, dropping counters which reach zero.
+	 *
+	 * @param source the messaging feature the message was sent through
+	 * @param message the message
+	 * @param delta 1 to count the message, -1 to take it back
+	 */
+	private void count(InboxMessage.Source source, UnreadMessage message, int delta) {
+		UserCounts counts = users.computeIfAbsent(message.recipient, r -> new UserCounts());
+		add(counts.bySource, source, delta);
+		if (message.questionID != -1) {
+			add(counts.byQuestion.computeIfAbsent(source, s -> new HashMap<>()), message.questionID, delta);
+		}
+		if (message.reviewID != -1) {
+			add(counts.byReview.computeIfAbsent(source, s -> new HashMap<>()), message.reviewID, delta);
+		}
+		if (counts.isEmpty()) {
+			users.remove(message.recipient);
+		}
+	}
+
+	/**
+	 * Adds a delta to a counter in a map, removing the counter when it reaches zero.
+	 */
+	private static <K> void add(Map<K, Integer> counters, K key, int delta) {
+		counters.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+	}
+}
@@ -0,0 +1,259 @@
+package databasePart1;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import application.Role;
+import application.User;
+
+/**
+ * The UserIndex class is an in-memory prefix index over the userName, first name, last name, full name and email of
+ * every user, used to suggest recipients while a name is being typed and to find a user by their full name without a
+ * query on the unindexed name columns.
+ *
+ * Every name is kept lower-case in a sorted map, so the names starting with what has been typed form one range of the
+ * map and a suggestion costs a lookup plus one step per suggested user, however many users there are. Users are added,
+ * replaced and removed one at a time as they register, change and are deleted. Looking up and updating are safe to
+ * call from different threads.
+ */
+public class UserIndex {
+
+	/**
+	 * What is indexed of a user.
+	 */
+	private static class Entry {
+		final int userID;
+		final String userName;
+		final String firstName;
+		final String lastName;
+		final String email;
+		final int roleMask;
+		final boolean muted;
+
+		Entry(int userID, String userName, String firstName, String lastName, String email, int roleMask, boolean muted) {
+			this.userID = userID;
+			this.userName = userName;
+			this.firstName = firstName;
+			this.lastName = lastName;
+			this.email = email;
+			this.roleMask = roleMask;
+			this.muted = muted;
+		}
+
+		/**
+		 * @return the full name the messaging pages show and resolve, first and last name separated by a space, or null
+		 *         if either is missing
+		 */
+		String fullName() {
+			return firstName == null || lastName == null ? null : firstName + " " + lastName;
+		}
+
+		/**
+		 * @return the names the user can be found by, lower-case, without duplicates or missing names
+		 */
+		Set<String> terms() {
+			Set<String> terms = new LinkedHashSet<>();
+			for (String name : new String[] {userName, firstName, lastName, email, fullName()}) {
+				if (name != null && !name.isEmpty()) {
+					terms.add(name.toLowerCase(Locale.ROOT));
+				}
+			}
+			return terms;
+		}
+
+		/**
+		 * @return a new User without a password, which the caller may change
+		 */
+		User toUser() {
+			return new User(userName, Role.toArray(Role.fromMask(roleMask)), email, firstName, lastName, muted);
+		}
+	}
+
+	/**
+	 * Every user, keyed by userID
+	 */
+	private final Map<Integer, Entry> users = new HashMap<>();
+
+	/**
+	 * userIDs of the users with each lower-case name, in the order the users registered
+	 */
+	private final TreeMap<String, Set<Integer>> terms = new TreeMap<>();
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Constructs an empty UserIndex; users are added with put().
+	 */
+	public UserIndex() {
+	}
+
+	/**
+	 * Adds a user to the index, replacing any earlier version of them.
+	 *
+	 * @param userID the user's id
+	 * @param userName the user's userName
+	 * @param firstName the user's first name
+	 * @param lastName the user's last name
+	 * @param email the user's email
+	 * @param roleMask the roles the user holds, as stored in the roleMask column
+	 * @param muted whether the user is muted
+	 */
+	public void put(int userID, String userName, String firstName, String lastName, String email, int roleMask, boolean muted) {
+		Entry entry = new Entry(userID, userName, firstName, lastName, email, roleMask, muted);
+		lock.writeLock().lock();
+		try {
+			removeLocked(userID);
+			users.put(userID, entry);
+			for (String term : entry.terms()) {
+				terms.computeIfAbsent(term, t -> new TreeSet<>()).add(userID);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes a user from the index.
+	 *
+	 * @param userID the user's id
+	 */
+	public void remove(int userID) {
+		lock.writeLock().lock();
+		try {
+			removeLocked(userID);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes every user.
+	 */
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			users.clear();
+			terms.clear();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the number of users in the index
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return users.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Suggests the users whose userName, first name, last name, full name or email starts with what has been typed,
+	 * ignoring case. Users are listed in the alphabetical order of the name which matched.
+	 *
+	 * @param prefix what has been typed; an empty prefix suggests users in the alphabetical order of their names
+	 * @param roles the users must hold at least one of these roles; empty for users with any roles
+	 * @param limit the most users to return, at least 1
+	 * @return the suggested users, without passwords
+	 */
+	public List<User> complete(String prefix, Set<Role> roles, int limit) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("limit must be at least 1");
+		}
+		String term = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+		int roleBits = Role.toMask(roles);
+		Set<Entry> matched = new LinkedHashSet<>();
+		lock.readLock().lock();
+		try {
+			SortedMap<String, Set<Integer>> range = term.isEmpty() ? terms : terms.subMap(term, term + Character.MAX_VALUE);
+			for (Set<Integer> userIDs : range.values()) {
+				for (int userID : userIDs) {
+					Entry entry = users.get(userID);
+					if (roleBits == 0 || (entry.roleMask & roleBits) != 0) {
+						matched.add(entry);
+						if (matched.size() == limit) {
+							return toUsers(matched);
+						}
+					}
+				}
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		return toUsers(matched);
+	}
+
+	/**
+	 * Finds the users with a full name, the first and last name separated by a space. Case must match.
+	 *
+	 * @param fullName the full name, such as "Mary Ann Smith"
+	 * @return the users with that full name, in the order they registered
+	 */
+	public List<User> findByFullName(String fullName) {
+		List<User> found = new ArrayList<>();
+		if (fullName == null) {
+			return found;
+		}
+		lock.readLock().lock();
+		try {
+			for (int userID : terms.getOrDefault(fullName.toLowerCase(Locale.ROOT), Set.of())) {
+				Entry entry = users.get(userID);
+				if (fullName.equals(entry.fullName())) {
+					found.add(entry.toUser());
+				}
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		return found;
+	}
+
+	/**
+	 * Removes a user while the write lock is held, dropping names no other user has.
+	 *
+	 * @param userID the user's id
+	 */
+	private void removeLocked(int userID) {
+		Entry old = users.remove(userID);
+		if (old == null) {
+			return;
+		}
+		for (String term : old.terms()) {
+			Set<Integer> userIDs = terms.get(term);
+			userIDs.remove(userID);
+			if (userIDs.isEmpty()) {
+				terms.remove(term);
+			}
+		}
+	}
+
+	/**
+	 * Converts matched entries into new Users.
+	 */
+	private static List<User> toUsers(Set<Entry> entries) {
+		List<User> found = new ArrayList<>(entries.size());
+		for (Entry entry : entries) {
+			found.add(entry.toUser());
+		}
+		return found;
+	}
+}
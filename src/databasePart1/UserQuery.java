@@ -0,0 +1,151 @@
+package databasePart1;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import application.Role;
+
+/**
+ * The UserQuery class describes which users a page of the user directory holds and the order they are listed in. It
+ * is passed to {@link DatabaseHelper#getUserDirectoryPage}, which filters and sorts in the database so only the
+ * requested page of users is read.
+ *
+ * Every filter is optional: an empty set of roles, a null or empty name prefix or email domain and a null muted state
+ * leave the users unfiltered by that criterion.
+ */
+public class UserQuery {
+
+	/**
+	 * The columns the user directory can be sorted by. Users with the same value are listed in the order they
+	 * registered.
+	 */
+	public enum SortColumn {
+		USER_NAME("userName"),
+		FIRST_NAME("firstName"),
+		LAST_NAME("lastName"),
+		EMAIL("email");
+
+		/**
+		 * Column of cse360users holding the value
+		 */
+		private final String column;
+
+		SortColumn(String column) {
+			this.column = column;
+		}
+
+		/**
+		 * @return the column of cse360users the directory is sorted by
+		 */
+		String getColumn() { return column; }
+	}
+
+	/**
+	 * Query listing every user by userName
+	 */
+	public static final UserQuery ALL_USERS = new UserQuery(EnumSet.noneOf(Role.class), null, null, null, SortColumn.USER_NAME, true);
+
+	private final EnumSet<Role> roles;
+	private final String namePrefix;
+	private final String emailDomain;
+	private final Boolean muted;
+	private final SortColumn sortColumn;
+	private final boolean ascending;
+
+	/**
+	 * Constructs a UserQuery.
+	 *
+	 * @param roles the users must hold at least one of these roles; empty for users with any roles
+	 * @param namePrefix the userName, first name or last name must start with this, ignoring case; null for any name
+	 * @param emailDomain the email must be at this domain, such as "asu.edu", ignoring case; null for any email
+	 * @param muted true for muted users only, false for unmuted users only, null for both
+	 * @param sortColumn the column the users are sorted by
+	 * @param ascending true to sort from A to Z, false from Z to A
+	 */
+	public UserQuery(Set<Role> roles, String namePrefix, String emailDomain, Boolean muted, SortColumn sortColumn, boolean ascending) {
+		this.roles = roles.isEmpty() ? EnumSet.noneOf(Role.class) : EnumSet.copyOf(roles);
+		this.namePrefix = namePrefix == null || namePrefix.isEmpty() ? null : namePrefix;
+		this.emailDomain = emailDomain == null || emailDomain.isEmpty() ? null : emailDomain;
+		this.muted = muted;
+		this.sortColumn = sortColumn;
+		this.ascending = ascending;
+	}
+
+	/**
+	 * Reads the words typed into the search box of the user directory. The role names (such as "student") select
+	 * users holding any of the roles typed, "muted" and "unmuted" select by muted state, a word containing '@' selects
+	 * the email domain after it, and any other word is a name prefix. Words are separated by spaces and case is
+	 * ignored.
+	 *
+	 * @param search the text typed into the search box, may be null
+	 * @param sortColumn the column the users are sorted by
+	 * @param ascending true to sort from A to Z, false from Z to A
+	 * @return the query
+	 */
+	public static UserQuery fromSearch(String search, SortColumn sortColumn, boolean ascending) {
+		EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+		String namePrefix = null;
+		String emailDomain = null;
+		Boolean muted = null;
+		if (search != null) {
+			for (String word : search.trim().split("\\s+")) {
+				if (word.isEmpty()) {
+					continue;
+				}
+				Role role = Role.fromName(word);
+				if (role != null) {
+					roles.add(role);
+				}
+				else if (word.equalsIgnoreCase("muted")) {
+					muted = true;
+				}
+				else if (word.equalsIgnoreCase("unmuted")) {
+					muted = false;
+				}
+				else if (word.contains("@")) {
+					emailDomain = word.substring(word.indexOf('@') + 1);
+				}
+				else if (namePrefix == null) {
+					namePrefix = word;
+				}
+			}
+		}
+		return new UserQuery(roles, namePrefix, emailDomain, muted, sortColumn, ascending);
+	}
+
+	/**
+	 * @return a copy of the roles of which the users must hold at least one; empty for users with any roles
+	 */
+	public EnumSet<Role> getRoles() { return EnumSet.copyOf(roles); }
+
+	/**
+	 * @return the prefix of the userName, first name or last name, or null for any name
+	 */
+	public String getNamePrefix() { return namePrefix; }
+
+	/**
+	 * @return the domain of the email, or null for any email
+	 */
+	public String getEmailDomain() { return emailDomain; }
+
+	/**
+	 * @return true for muted users only, false for unmuted users only, null for both
+	 */
+	public Boolean getMuted() { return muted; }
+
+	/**
+	 * @return the column the users are sorted by
+	 */
+	public SortColumn getSortColumn() { return sortColumn; }
+
+	/**
+	 * @return true if the users are sorted from A to Z
+	 */
+	public boolean isAscending() { return ascending; }
+
+	@Override
+	public String toString() {
+		return "UserQuery[roles=" + roles + ", namePrefix=" + namePrefix + ", emailDomain=" + emailDomain + ", muted=" + muted
+				+ ", sortColumn=" + sortColumn + ", ascending=" + ascending + "]";
+	}
+}
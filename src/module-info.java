@@ -4,8 +4,12 @@
 module TP3_Pre_Final {
    	exports databasePart1;
     exports application;
+    exports server;
 
     requires java.sql;
+    requires com.h2database;
+    requires java.net.http;
+    requires jdk.httpserver;
     requires javafx.base;
     requires javafx.controls;
     requires javafx.graphics;
@@ -0,0 +1,368 @@
+package server;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Json class converts between JSON text and plain Java values, so the server does not need a JSON library.
+ *
+ * Objects are read into LinkedHashMaps, arrays into ArrayLists, numbers into Longs (or Doubles when they have a
+ * fraction or exponent), and true, false and null into Boolean and null. When writing, Maps, Iterables, Strings,
+ * Numbers, Booleans and LocalDateTimes are supported; LocalDateTimes are written as ISO-8601 strings.
+ */
+public final class Json {
+
+	private final String text;
+	private int pos;
+
+	/**
+	 * Constructs a parser positioned at the start of the text.
+	 *
+	 * @param text the JSON text
+	 */
+	private Json(String text) {
+		this.text = text;
+	}
+
+	/**
+	 * Parses JSON text.
+	 *
+	 * @param text the JSON text
+	 * @return the parsed value
+	 * @throws IllegalArgumentException if the text is not valid JSON
+	 */
+	public static Object parse(String text) {
+		Json parser = new Json(text);
+		parser.skipWhitespace();
+		Object value = parser.readValue();
+		parser.skipWhitespace();
+		if (parser.pos != text.length()) {
+			throw parser.error("Unexpected trailing characters");
+		}
+		return value;
+	}
+
+	/**
+	 * Parses JSON text which must contain an object.
+	 *
+	 * @param text the JSON text
+	 * @return the parsed object
+	 * @throws IllegalArgumentException if the text is not a valid JSON object
+	 */
+	@SuppressWarnings("unchecked")
+	public static Map<String, Object> parseObject(String text) {
+		Object value = parse(text);
+		if (!(value instanceof Map)) {
+			throw new IllegalArgumentException("Expected a JSON object");
+		}
+		return (Map<String, Object>) value;
+	}
+
+	/**
+	 * Converts a value to JSON text.
+	 *
+	 * @param value a Map, Iterable, String, Number, Boolean, LocalDateTime or null
+	 * @return the JSON text
+	 */
+	public static String write(Object value) {
+		StringBuilder out = new StringBuilder();
+		write(value, out);
+		return out.toString();
+	}
+
+	/**
+	 * Appends a value as JSON text.
+	 *
+	 * @param value the value
+	 * @param out the text written so far
+	 */
+	private static void write(Object value, StringBuilder out) {
+		if (value == null) {
+			out.append("null");
+		}
+		else if (value instanceof String || value instanceof LocalDateTime) {
+			writeString(value.toString(), out);
+		}
+		else if (value instanceof Number || value instanceof Boolean) {
+			out.append(value);
+		}
+		else if (value instanceof Map) {
+			out.append('{');
+			boolean first = true;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				if (!first) {
+					out.append(',');
+				}
+				first = false;
+				writeString(String.valueOf(entry.getKey()), out);
+				out.append(':');
+				write(entry.getValue(), out);
+			}
+			out.append('}');
+		}
+		else if (value instanceof Iterable) {
+			out.append('[');
+			boolean first = true;
+			for (Object item : (Iterable<?>) value) {
+				if (!first) {
+					out.append(',');
+				}
+				first = false;
+				write(item, out);
+			}
+			out.append(']');
+		}
+		else {
+			throw new IllegalArgumentException("Cannot write " + value.getClass().getName() + " as JSON");
+		}
+	}
+
+	/**
+	 * Appends a string as a quoted and escaped JSON string.
+	 *
+	 * @param value the string
+	 * @param out the text written so far
+	 */
+	private static void writeString(String value, StringBuilder out) {
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"': out.append("\\\""); break;
+				case '\\': out.append("\\\\"); break;
+				case '\n': out.append("\\n"); break;
+				case '\r': out.append("\\r"); break;
+				case '\t': out.append("\\t"); break;
+				default:
+					if (c < 0x20) {
+						out.append(String.format("\\u%04x", (int) c));
+					}
+					else {
+						out.append(c);
+					}
+			}
+		}
+		out.append('"');
+	}
+
+	/**
+	 * Reads the value starting at the current position.
+	 *
+	 * @return the value
+	 */
+	private Object readValue() {
+		if (pos >= text.length()) {
+			throw error("Unexpected end of input");
+		}
+		char c = text.charAt(pos);
+		switch (c) {
+			case '{': return readObject();
+			case '[': return readArray();
+			case '"': return readString();
+			case 't': return readLiteral("true", Boolean.TRUE);
+			case 'f': return readLiteral("false", Boolean.FALSE);
+			case 'n': return readLiteral("null", null);
+			default:
+				if (c == '-' || (c >= '0' && c <= '9')) {
+					return readNumber();
+				}
+				throw error("Unexpected character '" + c + "'");
+		}
+	}
+
+	/**
+	 * Reads an object starting at the current position.
+	 *
+	 * @return the object
+	 */
+	private Map<String, Object> readObject() {
+		Map<String, Object> object = new LinkedHashMap<>();
+		pos++;
+		skipWhitespace();
+		if (peek() == '}') {
+			pos++;
+			return object;
+		}
+		while (true) {
+			skipWhitespace();
+			if (peek() != '"') {
+				throw error("Expected a property name");
+			}
+			String key = readString();
+			skipWhitespace();
+			expect(':');
+			skipWhitespace();
+			object.put(key, readValue());
+			skipWhitespace();
+			if (peek() == ',') {
+				pos++;
+			}
+			else {
+				expect('}');
+				return object;
+			}
+		}
+	}
+
+	/**
+	 * Reads an array starting at the current position.
+	 *
+	 * @return the array
+	 */
+	private List<Object> readArray() {
+		List<Object> array = new ArrayList<>();
+		pos++;
+		skipWhitespace();
+		if (peek() == ']') {
+			pos++;
+			return array;
+		}
+		while (true) {
+			skipWhitespace();
+			array.add(readValue());
+			skipWhitespace();
+			if (peek() == ',') {
+				pos++;
+			}
+			else {
+				expect(']');
+				return array;
+			}
+		}
+	}
+
+	/**
+	 * Reads a string starting at the opening quote.
+	 *
+	 * @return the unescaped string
+	 */
+	private String readString() {
+		StringBuilder value = new StringBuilder();
+		pos++;
+		while (true) {
+			if (pos >= text.length()) {
+				throw error("Unterminated string");
+			}
+			char c = text.charAt(pos++);
+			if (c == '"') {
+				return value.toString();
+			}
+			if (c != '\\') {
+				value.append(c);
+				continue;
+			}
+			if (pos >= text.length()) {
+				throw error("Unterminated escape");
+			}
+			char escaped = text.charAt(pos++);
+			switch (escaped) {
+				case '"': case '\\': case '/': value.append(escaped); break;
+				case 'b': value.append('\b'); break;
+				case 'f': value.append('\f'); break;
+				case 'n': value.append('\n'); break;
+				case 'r': value.append('\r'); break;
+				case 't': value.append('\t'); break;
+				case 'u':
+					if (pos + 4 > text.length()) {
+						throw error("Invalid unicode escape");
+					}
+					try {
+						value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+					}
+					catch (NumberFormatException e) {
+						throw error("Invalid unicode escape");
+					}
+					pos += 4;
+					break;
+				default:
+					throw error("Invalid escape '\\" + escaped + "'");
+			}
+		}
+	}
+
+	/**
+	 * Reads a number starting at the current position.
+	 *
+	 * @return a Long, or a Double if the number has a fraction or exponent
+	 */
+	private Number readNumber() {
+		int start = pos;
+		boolean decimal = false;
+		while (pos < text.length()) {
+			char c = text.charAt(pos);
+			if (c == '.' || c == 'e' || c == 'E') {
+				decimal = true;
+			}
+			else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+				break;
+			}
+			pos++;
+		}
+		String number = text.substring(start, pos);
+		try {
+			return decimal ? (Number) Double.parseDouble(number) : (Number) Long.parseLong(number);
+		}
+		catch (NumberFormatException e) {
+			throw error("Invalid number '" + number + "'");
+		}
+	}
+
+	/**
+	 * Reads true, false or null.
+	 *
+	 * @param literal the expected literal
+	 * @param value the value of the literal
+	 * @return the value
+	 */
+	private Object readLiteral(String literal, Object value) {
+		if (!text.startsWith(literal, pos)) {
+			throw error("Unexpected token");
+		}
+		pos += literal.length();
+		return value;
+	}
+
+	/**
+	 * @return the character at the current position
+	 */
+	private char peek() {
+		if (pos >= text.length()) {
+			throw error("Unexpected end of input");
+		}
+		return text.charAt(pos);
+	}
+
+	/**
+	 * Moves past the expected character.
+	 *
+	 * @param c the character which must be at the current position
+	 */
+	private void expect(char c) {
+		if (peek() != c) {
+			throw error("Expected '" + c + "'");
+		}
+		pos++;
+	}
+
+	/**
+	 * Moves past any whitespace.
+	 */
+	private void skipWhitespace() {
+		while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+			pos++;
+		}
+	}
+
+	/**
+	 * Creates the exception thrown for invalid JSON.
+	 *
+	 * @param message what is wrong
+	 * @return the exception, including the current position
+	 */
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at position " + pos);
+	}
+}
@@ -0,0 +1,1018 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import application.Answer;
+import application.InboxMessage;
+import application.Question;
+import application.Review;
+import application.Role;
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.Page;
+import databasePart1.PageCursor;
+import databasePart1.PoolConfig;
+import databasePart1.PoolMetrics;
+
+/**
+ * The StudySyncServer class is the headless entry point of the platform. It serves the question, answer, review and
+ * private message operations of DatabaseHelper as JSON over HTTP with the JDK's built-in HttpServer, so many clients
+ * can share one database instead of each opening the H2 file themselves.
+ *
+ * Every request is handled on a bounded pool of handler threads and runs inside
+ * {@link DatabaseHelper#withPooledConnection(DatabaseHelper.SqlWork)}, so concurrent requests use separate pooled
+ * connections. When every handler thread is busy and the queue is full, the thread accepting connections runs the
+ * request itself, which stops it accepting more until the server catches up.
+ *
+ * Routes:
+ * <pre>
+ * GET    /api/health
+ * GET    /api/questions?after=&amp;limit=       POST /api/questions             {userName, title, body}
+ * GET    /api/questions/{id}                PUT  /api/questions/{id}        {title, body}     DELETE
+ * GET    /api/questions/{id}/answers        POST /api/questions/{id}/answers {userName, text}
+ * GET    /api/answers?after=&amp;limit=
+ * GET    /api/answers/{id}                  PUT  /api/answers/{id}          {text}            DELETE
+ * GET    /api/answers/{id}/reviews          POST /api/answers/{id}/reviews  {userName, body}
+ * GET    /api/reviews?after=&amp;limit=
+ * GET    /api/reviews/{id}                  PUT  /api/reviews/{id}          {body}            DELETE
+ * GET    /api/messages?user=                POST /api/messages              {sender, receiver, subject, body}
+ * </pre>
+ *
+ * The server listens on the loopback interface unless it is started with --expose. Reading or sending private
+ * messages and every PUT or DELETE require HTTP Basic credentials, checked with
+ * {@link DatabaseHelper#login(User)}. Messages can only be read by their recipient and sent as the signed in user,
+ * and posts can only be edited or deleted by their author or by staff, instructors and admins.
+ *
+ * Usage: java server.StudySyncServer [--port 8080] [--db jdbcUrl] [--threads 8] [--expose]
+ */
+public class StudySyncServer implements AutoCloseable {
+
+	/**
+	 * Port used when none is specified
+	 */
+	public static final int DEFAULT_PORT = 8080;
+
+	/**
+	 * Number of handler threads used when none is specified
+	 */
+	public static final int DEFAULT_THREADS = 8;
+
+	/**
+	 * Page size used when a paged GET does not specify a limit
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 20;
+
+	/**
+	 * Largest page size a client may request
+	 */
+	public static final int MAX_PAGE_SIZE = 200;
+
+	/**
+	 * Roles which may edit and delete posts written by others
+	 */
+	private static final EnumSet<Role> MODERATOR_ROLES = EnumSet.of(Role.ADMIN, Role.INSTRUCTOR, Role.STAFF);
+
+	/**
+	 * Number of requests which may wait for a handler thread
+	 */
+	private static final int QUEUE_CAPACITY = 512;
+
+	static {
+		// Without TCP_NODELAY small responses wait for the client's delayed ACK, adding ~40 ms to every request. The
+		// property is read once, when the first HttpServer is created.
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	private final DatabaseHelper databaseHelper;
+	private final HttpServer httpServer;
+	private final ThreadPoolExecutor handlers;
+
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong errorCount = new AtomicLong();
+
+	/**
+	 * An error which is returned to the client with its HTTP status code.
+	 */
+	private static class HttpError extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		final int status;
+
+		HttpError(int status, String message) {
+			super(message);
+			this.status = status;
+		}
+	}
+
+	/**
+	 * The parts of an HttpExchange a route needs, read before a connection is borrowed so a slow client never holds
+	 * a database connection while it uploads its request body.
+	 */
+	private static class Request {
+		final String method;
+		final String[] segments;
+		final Map<String, String> query;
+		final String body;
+
+		/**
+		 * The Authorization header, or null if the client sent none
+		 */
+		final String authorization;
+
+		Request(String method, String[] segments, Map<String, String> query, String body, String authorization) {
+			this.method = method;
+			this.segments = segments;
+			this.query = query;
+			this.body = body;
+			this.authorization = authorization;
+		}
+	}
+
+	/**
+	 * A status code and the value written as the JSON body, or null for no body.
+	 */
+	private static class Response {
+		final int status;
+		final Object body;
+
+		Response(int status, Object body) {
+			this.status = status;
+			this.body = body;
+		}
+	}
+
+	/**
+	 * Constructs a StudySyncServer bound to the specified port on the loopback interface, so only clients on the same
+	 * machine can connect. The server does not accept requests until start() is called.
+	 *
+	 * @param databaseHelper the connected DatabaseHelper which serves the requests; its pool should have at least one
+	 *        more connection than there are handler threads
+	 * @param port the port to listen on, or 0 for any free port
+	 * @param threads the number of handler threads, at least 1
+	 * @throws IOException if the port cannot be bound
+	 */
+	public StudySyncServer(DatabaseHelper databaseHelper, int port, int threads) throws IOException {
+		this(databaseHelper, InetAddress.getLoopbackAddress(), port, threads);
+	}
+
+	/**
+	 * Constructs a StudySyncServer bound to the specified address and port. The server does not accept requests until
+	 * start() is called.
+	 *
+	 * @param databaseHelper the connected DatabaseHelper which serves the requests; its pool should have at least one
+	 *        more connection than there are handler threads
+	 * @param address the address to listen on, or null for every interface
+	 * @param port the port to listen on, or 0 for any free port
+	 * @param threads the number of handler threads, at least 1
+	 * @throws IOException if the port cannot be bound
+	 */
+	public StudySyncServer(DatabaseHelper databaseHelper, InetAddress address, int port, int threads) throws IOException {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be at least 1");
+		}
+		this.databaseHelper = databaseHelper;
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.handlers = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+			Thread thread = new Thread(runnable, "http-handler-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}, new ThreadPoolExecutor.CallerRunsPolicy());
+		this.httpServer = HttpServer.create(new InetSocketAddress(address, port), 0);
+		httpServer.createContext("/api/", this::handle);
+		httpServer.setExecutor(handlers);
+	}
+
+	/**
+	 * Starts accepting requests.
+	 */
+	public void start() {
+		httpServer.start();
+	}
+
+	/**
+	 * @return the address the server is listening on
+	 */
+	public InetAddress getAddress() {
+		return httpServer.getAddress().getAddress();
+	}
+
+	/**
+	 * @return the port the server is listening on
+	 */
+	public int getPort() {
+		return httpServer.getAddress().getPort();
+	}
+
+	/**
+	 * @return the number of requests handled so far
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Stops accepting requests, waits up to one second for the exchanges in progress and stops the handler threads.
+	 * The DatabaseHelper is left open.
+	 */
+	@Override
+	public void close() {
+		httpServer.stop(1);
+		handlers.shutdown();
+		try {
+			handlers.awaitTermination(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Starts a server on the database file used by the JavaFX client, or on the database given with --db, and runs
+	 * until the process is stopped. The server only accepts connections from the same machine unless --expose is
+	 * given.
+	 *
+	 * @param args optional --port, --db and --threads settings and the --expose flag
+	 * @throws Exception if the database cannot be opened or the port cannot be bound
+	 */
+	public static void main(String[] args) throws Exception {
+		int port = DEFAULT_PORT;
+		int threads = DEFAULT_THREADS;
+		String dbUrl = null;
+		InetAddress address = InetAddress.getLoopbackAddress();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--expose")) {
+				address = null;
+				continue;
+			}
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("Missing value for " + args[i]);
+			}
+			switch (args[i]) {
+				case "--port": port = Integer.parseInt(args[++i]); break;
+				case "--threads": threads = Integer.parseInt(args[++i]); break;
+				case "--db": dbUrl = args[++i]; break;
+				default: throw new IllegalArgumentException("Unknown option " + args[i]);
+			}
+		}
+
+		DatabaseHelper databaseHelper = dbUrl == null ? new DatabaseHelper() : new DatabaseHelper(dbUrl);
+		// One connection is pinned by the DatabaseHelper, so each handler thread can still have its own
+		databaseHelper.connectToDatabase(new PoolConfig(2, threads + 1));
+		StudySyncServer server = new StudySyncServer(databaseHelper, address, port, threads);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			server.close();
+			databaseHelper.closeConnection();
+		}));
+		server.start();
+		System.out.println("StudySync server listening on " + (address == null ? "every interface" : address.getHostAddress()) + " port "
+				+ server.getPort() + " with " + threads + " handler threads");
+	}
+
+	/**
+	 * Handles one exchange on a handler thread.
+	 *
+	 * @param exchange the exchange
+	 * @throws IOException if the response cannot be written
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+		requestCount.incrementAndGet();
+		Response response;
+		try {
+			Request request = readRequest(exchange);
+			response = databaseHelper.withPooledConnection(() -> route(request));
+		}
+		catch (HttpError e) {
+			response = error(e.status, e.getMessage());
+		}
+		catch (IllegalArgumentException e) {
+			response = error(400, e.getMessage());
+		}
+		catch (SQLException | RuntimeException e) {
+			e.printStackTrace();
+			response = error(500, "Internal server error");
+		}
+		try {
+			send(exchange, response);
+		}
+		finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Reads the method, path, query string and body of an exchange.
+	 *
+	 * @param exchange the exchange
+	 * @return the request
+	 * @throws IOException if the body cannot be read
+	 */
+	private static Request readRequest(HttpExchange exchange) throws IOException {
+		String path = exchange.getRequestURI().getPath();
+		List<String> segments = new ArrayList<>();
+		for (String segment : path.split("/")) {
+			if (!segment.isEmpty()) {
+				segments.add(segment);
+			}
+		}
+		Map<String, String> query = new HashMap<>();
+		String rawQuery = exchange.getRequestURI().getRawQuery();
+		if (rawQuery != null) {
+			for (String pair : rawQuery.split("&")) {
+				int equals = pair.indexOf('=');
+				String key = equals < 0 ? pair : pair.substring(0, equals);
+				String value = equals < 0 ? "" : pair.substring(equals + 1);
+				query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+			}
+		}
+		String body;
+		try (InputStream in = exchange.getRequestBody()) {
+			body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		return new Request(exchange.getRequestMethod(), segments.toArray(new String[0]), query, body,
+				exchange.getRequestHeaders().getFirst("Authorization"));
+	}
+
+	/**
+	 * Writes a response and its JSON body.
+	 *
+	 * @param exchange the exchange
+	 * @param response the response
+	 * @throws IOException if the response cannot be written
+	 */
+	private void send(HttpExchange exchange, Response response) throws IOException {
+		if (response.status >= 400) {
+			errorCount.incrementAndGet();
+		}
+		if (response.status == 401) {
+			exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"StudySync\", charset=\"UTF-8\"");
+		}
+		if (response.body == null) {
+			exchange.sendResponseHeaders(response.status, -1);
+			return;
+		}
+		byte[] bytes = Json.write(response.body).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(response.status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Dispatches a request to the route for its path, on a thread with a pooled connection bound.
+	 *
+	 * @param request the request
+	 * @return the response
+	 */
+	private Response route(Request request) throws SQLException {
+		String[] s = request.segments;
+		if (s.length < 2 || !s[0].equals("api")) {
+			throw new HttpError(404, "Not found");
+		}
+		switch (s[1]) {
+			case "health":
+				if (s.length == 2) {
+					return health(request);
+				}
+				break;
+			case "questions":
+				if (s.length == 2) {
+					return questions(request);
+				}
+				if (s.length == 3) {
+					return question(request, parseID(s[2]));
+				}
+				if (s.length == 4 && s[3].equals("answers")) {
+					return answersOfQuestion(request, parseID(s[2]));
+				}
+				break;
+			case "answers":
+				if (s.length == 2) {
+					return answers(request);
+				}
+				if (s.length == 3) {
+					return answer(request, parseID(s[2]));
+				}
+				if (s.length == 4 && s[3].equals("reviews")) {
+					return reviewsOfAnswer(request, parseID(s[2]));
+				}
+				break;
+			case "reviews":
+				if (s.length == 2) {
+					return reviews(request);
+				}
+				if (s.length == 3) {
+					return review(request, parseID(s[2]));
+				}
+				break;
+			case "messages":
+				if (s.length == 2) {
+					return messages(request);
+				}
+				break;
+			default:
+				break;
+		}
+		throw new HttpError(404, "Not found");
+	}
+
+	/**
+	 * GET /api/health: request counters and connection pool metrics.
+	 *
+	 * @param request the request
+	 * @return the response
+	 */
+	private Response health(Request request) {
+		requireMethod(request, "GET");
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("status", "ok");
+		body.put("requests", requestCount.get());
+		body.put("errors", errorCount.get());
+		body.put("activeHandlers", handlers.getActiveCount());
+		body.put("queuedRequests", handlers.getQueue().size());
+		PoolMetrics metrics = databaseHelper.getPoolMetrics();
+		if (metrics != null) {
+			Map<String, Object> pool = new LinkedHashMap<>();
+			pool.put("active", metrics.getActive());
+			pool.put("idle", metrics.getIdle());
+			pool.put("waiting", metrics.getWaiting());
+			pool.put("totalBorrows", metrics.getTotalBorrows());
+			pool.put("timeouts", metrics.getTimeouts());
+			pool.put("borrowP99Micros", metrics.getBorrowLatency().getPercentileMicros(99));
+			body.put("pool", pool);
+		}
+		return new Response(200, body);
+	}
+
+	/**
+	 * GET or POST /api/questions. Questions are posted as the signed in user.
+	 *
+	 * @param request the request
+	 * @return the response
+	 * @throws SQLException if the credentials cannot be checked
+	 */
+	private Response questions(Request request) throws SQLException {
+		if (request.method.equals("GET")) {
+			Page<Question> page = databaseHelper.getQuestionsPage(null, parseCursor(request), parseLimit(request));
+			return page(page, StudySyncServer::toJson);
+		}
+		requireMethod(request, "POST");
+		Map<String, Object> json = Json.parseObject(request.body);
+		User student = requirePoster(request, json);
+		String title = requireString(json, "title");
+		String body = requireString(json, "body");
+		int questionID;
+		try {
+			questionID = databaseHelper.addQuestion(title, body, new Question(student, title, body), student);
+		}
+		catch (SQLException e) {
+			e.printStackTrace();
+			questionID = -1;
+		}
+		return created("questionID", questionID);
+	}
+
+	/**
+	 * GET, PUT or DELETE /api/questions/{id}.
+	 *
+	 * @param request the request
+	 * @param questionID the questionID from the path
+	 * @return the response
+	 * @throws SQLException if the credentials cannot be checked
+	 */
+	private Response question(Request request, int questionID) throws SQLException {
+		Question question = databaseHelper.getQuestionRow(questionID, false);
+		if (question == null) {
+			throw new HttpError(404, "Question " + questionID + " not found");
+		}
+		switch (request.method) {
+			case "GET":
+				return new Response(200, toJson(question));
+			case "PUT":
+				requireAuthor(request, question.getStudentUserName());
+				Map<String, Object> json = Json.parseObject(request.body);
+				databaseHelper.editQuestion(requireString(json, "title"), requireString(json, "body"), questionID);
+				return new Response(204, null);
+			case "DELETE":
+				requireAuthor(request, question.getStudentUserName());
+				databaseHelper.deleteQuestion(questionID);
+				return new Response(204, null);
+			default:
+				throw methodNotAllowed(request);
+		}
+	}
+
+	/**
+	 * GET or POST /api/questions/{id}/answers. Answers are posted as the signed in user.
+	 *
+	 * @param request the request
+	 * @param questionID the questionID from the path
+	 * @return the response
+	 * @throws SQLException if the credentials cannot be checked
+	 */
+	private Response answersOfQuestion(Request request, int questionID) throws SQLException {
+		if (databaseHelper.getQuestionRow(questionID, false) == null) {
+			throw new HttpError(404, "Question " + questionID + " not found");
+		}
+		if (request.method.equals("GET")) {
+			List<Object> items = new ArrayList<>();
+			for (Answer answer : databaseHelper.getAnswersByQuestionID(questionID)) {
+				items.add(toJson(answer));
+			}
+			return new Response(200, Map.of("items", items));
+		}
+		requireMethod(request, "POST");
+		Map<String, Object> json = Json.parseObject(request.body);
+		User student = requirePoster(request, json);
+		String text = requireString(json, "text");
+		Answer answer = new Answer(student.getUserName(), student.getFirstName(), student.getLastName(), text);
+		return created("answerID", databaseHelper.addAnswers(text, answer, student, questionID));
+	}
+
+	/**
+	 * GET /api/answers.
+	 *
+	 * @param request the request
+	 * @return the response
+	 */
+	private Response answers(Request request) {
+		requireMethod(request, "GET");
+		Page<Answer> page = databaseHelper.getAnswersPage(null, parseCursor(request), parseLimit(request));
+		return page(page, StudySyncServer::toJson);
+	}
+
+	/**
+	 * GET, PUT or DELETE /api/answers/{id}.
+	 *
+	 * @param request the request
+	 * @param answerID the answerID from the path
+	 * @return the response
+	 * @throws SQLException if the credentials cannot be checked
+	 */
+	private Response answer(Request request, int answerID) throws SQLException {
+		Answer answer = databaseHelper.getAnswerRow(answerID, false);
+		if (answer == null) {
+			throw new HttpError(404, "Answer " + answerID + " not found");
+		}
+		switch (request.method) {
+			case "GET":
+				return new Response(200, toJson(answer));
+			case "PUT":
+				requireAuthor(request, answer.getStudentUserName());
+				databaseHelper.editAnswer(requireString(Json.parseObject(request.body), "text"), answerID);
+				return new Response(204, null);
+			case "DELETE":
+				requireAuthor(request, answer.getStudentUserName());
+				databaseHelper.deleteAnswer(answerID);
+				return new Response(204, null);
+			default:
+				throw methodNotAllowed(request);
+		}
+	}
+
+	/**
+	 * GET or POST /api/answers/{id}/reviews. Reviews are posted as the signed in user.
+	 *
+	 * @param request the request
+	 * @param answerID the answerID from the path
+	 * @return the response
+	 * @throws SQLException if the credentials cannot be checked
+	 */
+	private Response reviewsOfAnswer(Request request, int answerID) throws SQLException {
+		Answer answer = databaseHelper.getAnswerRow(answerID, false);
+		if (answer == null) {
+			throw new HttpError(404, "Answer " + answerID + " not found");
+		}
+		if (request.method.equals("GET")) {
+			List<Object> items = new ArrayList<>();
+			for (Review review : databaseHelper.getReviewByAnswerID(answerID)) {
+				items.add(toJson(review));
+			}
+			return new Response(200, Map.of("items", items));
+		}
+		requireMethod(request, "POST");
+		Map<String, Object> json = Json.parseObject(request.body);
+		User reviewer = requirePoster(request, json);
+		int reviewID = databaseHelper.addReview(reviewer.getUserName(), reviewer.getFirstName(), reviewer.getLastName(),
+				requireString(json, "body"), answer.getQuestionID(), answerID, -1);
+		return created("reviewID", reviewID);
+	}
+
+	/**
+	 * GET /api/reviews.
+	 *
+	 * @param request the request
+	 * @return the response
+	 */
+	private Response reviews(Request request) {
+		requireMethod(request, "GET");
+		Page<Review> page = databaseHelper.getReviewsPage(null, parseCursor(request), parseLimit(request));
+		return page(page, StudySyncServer::toJson);
+	}
+
+	/**
+	 * GET, PUT or DELETE /api/reviews/{id}.
+	 *
+	 * @param request the request
+	 * @param reviewID the reviewID from the path
+	 * @return the response
+	 * @throws SQLException if the credentials cannot be checked
+	 */
+	private Response review(Request request, int reviewID) throws SQLException {
+		Review review = databaseHelper.getReviewRow(reviewID, false);
+		if (review == null) {
+			throw new HttpError(404, "Review " + reviewID + " not found");
+		}
+		switch (request.method) {
+			case "GET":
+				return new Response(200, toJson(review));
+			case "PUT":
+				requireAuthor(request, review.getReviewerUserName());
+				databaseHelper.editReview(requireString(Json.parseObject(request.body), "body"), reviewID);
+				return new Response(204, null);
+			case "DELETE":
+				requireAuthor(request, review.getReviewerUserName());
+				databaseHelper.deleteReview(reviewID);
+				return new Response(204, null);
+			default:
+				throw methodNotAllowed(request);
+		}
+	}
+
+	/**
+	 * GET or POST /api/messages, as the signed in user.
+	 *
+	 * @param request the request
+	 * @return the response
+	 * @throws SQLException if the credentials cannot be checked
+	 */
+	private Response messages(Request request) throws SQLException {
+		User signedIn = authenticate(request);
+		if (request.method.equals("GET")) {
+			String user = request.query.get("user");
+			if (user == null || user.isEmpty()) {
+				throw new HttpError(400, "Missing query parameter 'user'");
+			}
+			if (!user.equals(signedIn.getUserName())) {
+				throw new HttpError(403, "Messages can only be read by their recipient");
+			}
+			List<Map<String, Object>> items = new ArrayList<>();
+			for (InboxMessage message : databaseHelper.getStudentInbox(user)) {
+				items.add(toJson(message));
+			}
+			return new Response(200, Map.of("items", items));
+		}
+		requireMethod(request, "POST");
+		Map<String, Object> json = Json.parseObject(request.body);
+		String sender = requireString(json, "sender");
+		if (!sender.equals(signedIn.getUserName())) {
+			throw new HttpError(403, "Messages can only be sent as the signed in user");
+		}
+		String receiver = findUser(requireString(json, "receiver")).getUserName();
+		boolean sent = databaseHelper.sendPrivateMessage(sender, receiver, requireString(json, "subject"), requireString(json, "body"), null);
+		if (!sent) {
+			throw new HttpError(500, "Message could not be sent");
+		}
+		return new Response(201, Map.of("sent", true));
+	}
+
+	/**
+	 * Checks the HTTP Basic credentials of a request with {@link DatabaseHelper#login(User)}.
+	 *
+	 * @param request the request
+	 * @return the signed in user, with their current roles
+	 * @throws HttpError with status 401 if the credentials are missing or wrong
+	 * @throws SQLException if the credentials cannot be checked
+	 */
+	private User authenticate(Request request) throws SQLException {
+		String authorization = request.authorization;
+		if (authorization == null || !authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+			throw new HttpError(401, "Authentication required");
+		}
+		String credentials;
+		try {
+			credentials = new String(Base64.getDecoder().decode(authorization.substring(6).trim()), StandardCharsets.UTF_8);
+		}
+		catch (IllegalArgumentException e) {
+			throw new HttpError(401, "Malformed credentials");
+		}
+		int colon = credentials.indexOf(':');
+		if (colon < 0) {
+			throw new HttpError(401, "Malformed credentials");
+		}
+		String userName = credentials.substring(0, colon);
+		boolean[] roles = databaseHelper.getUserRole(userName);
+		if (roles == null || !databaseHelper.login(new User(userName, credentials.substring(colon + 1), roles, "", "", ""))) {
+			throw new HttpError(401, "Invalid userName or password");
+		}
+		return new User(userName, roles, "", "", "");
+	}
+
+	/**
+	 * Checks that the signed in user wrote a post, or may moderate posts written by others.
+	 *
+	 * @param request the request
+	 * @param author the userName of the post's author
+	 * @throws HttpError with status 401 if the credentials are missing or wrong, or 403 if the user may not change the
+	 *         post
+	 * @throws SQLException if the credentials cannot be checked
+	 */
+	private void requireAuthor(Request request, String author) throws SQLException {
+		User signedIn = authenticate(request);
+		if (signedIn.getUserName().equals(author)) {
+			return;
+		}
+		EnumSet<Role> roles = Role.fromArray(signedIn.getRole());
+		roles.retainAll(MODERATOR_ROLES);
+		if (roles.isEmpty()) {
+			throw new HttpError(403, "Only the author or staff may change this post");
+		}
+	}
+
+	/**
+	 * Checks that the signed in user may post, and returns them as the author of the new post. A userName in the body
+	 * must be the signed in user's.
+	 *
+	 * @param request the request
+	 * @param json the body of the request
+	 * @return the signed in user, with their names
+	 * @throws HttpError with status 401 if the credentials are missing or wrong, or 403 if the body names another
+	 *         user or the signed in user is muted
+	 * @throws SQLException if the credentials cannot be checked
+	 */
+	private User requirePoster(Request request, Map<String, Object> json) throws SQLException {
+		User signedIn = authenticate(request);
+		Object userName = json.get("userName");
+		if (userName != null && !userName.equals(signedIn.getUserName())) {
+			throw new HttpError(403, "Posts can only be written as the signed in user");
+		}
+		User author = findUser(signedIn.getUserName());
+		if (databaseHelper.checkIfUserMuted(author)) {
+			throw new HttpError(403, "Muted users may not post");
+		}
+		return author;
+	}
+
+	/**
+	 * Looks up a user in the database, so that their current roles and muted state are used.
+	 *
+	 * @param userName the userName
+	 * @return the user
+	 * @throws HttpError with status 404 if there is no such user
+	 */
+	private User findUser(String userName) {
+		User user = databaseHelper.getUserInfo(userName);
+		if (user == null) {
+			throw new HttpError(404, "User " + userName + " not found");
+		}
+		return user;
+	}
+
+	/**
+	 * Converts a page into a JSON object with its items, the cursor of the next page and whether there is one.
+	 *
+	 * @param <T> the type of the rows
+	 * @param page the page
+	 * @param toJson converts one row
+	 * @return the response
+	 */
+	private static <T> Response page(Page<T> page, Function<T, Map<String, Object>> toJson) {
+		List<Object> items = new ArrayList<>();
+		for (T item : page.getItems()) {
+			items.add(toJson.apply(item));
+		}
+		Map<String, Object> body = new LinkedHashMap<>();
+		body.put("items", items);
+		body.put("next", page.hasMore() ? formatCursor(page.getNextCursor()) : null);
+		body.put("hasMore", page.hasMore());
+		return new Response(200, body);
+	}
+
+	/**
+	 * Formats a cursor as "id" or "creationTime|id" so clients can pass it back in the after parameter.
+	 *
+	 * @param cursor the cursor
+	 * @return the formatted cursor
+	 */
+	static String formatCursor(PageCursor cursor) {
+		if (cursor == null) {
+			return null;
+		}
+		return cursor.getCreationTime() == null ? String.valueOf(cursor.getId()) : cursor.getCreationTime() + "|" + cursor.getId();
+	}
+
+	/**
+	 * Reads the after parameter of a paged GET.
+	 *
+	 * @param request the request
+	 * @return the cursor, or null for the first page
+	 */
+	private static PageCursor parseCursor(Request request) {
+		String after = request.query.get("after");
+		if (after == null || after.isEmpty()) {
+			return null;
+		}
+		try {
+			int bar = after.lastIndexOf('|');
+			if (bar < 0) {
+				return new PageCursor(null, Integer.parseInt(after));
+			}
+			return new PageCursor(LocalDateTime.parse(after.substring(0, bar)), Integer.parseInt(after.substring(bar + 1)));
+		}
+		catch (NumberFormatException | DateTimeParseException e) {
+			throw new HttpError(400, "Invalid cursor '" + after + "'");
+		}
+	}
+
+	/**
+	 * Reads the limit parameter of a paged GET.
+	 *
+	 * @param request the request
+	 * @return the page size, between 1 and MAX_PAGE_SIZE
+	 */
+	private static int parseLimit(Request request) {
+		String limit = request.query.get("limit");
+		if (limit == null || limit.isEmpty()) {
+			return DEFAULT_PAGE_SIZE;
+		}
+		try {
+			return Math.max(1, Math.min(MAX_PAGE_SIZE, Integer.parseInt(limit)));
+		}
+		catch (NumberFormatException e) {
+			throw new HttpError(400, "Invalid limit '" + limit + "'");
+		}
+	}
+
+	/**
+	 * Reads an ID from the path.
+	 *
+	 * @param segment the path segment
+	 * @return the ID
+	 */
+	private static int parseID(String segment) {
+		try {
+			return Integer.parseInt(segment);
+		}
+		catch (NumberFormatException e) {
+			throw new HttpError(404, "Not found");
+		}
+	}
+
+	/**
+	 * Reads a required, non-empty string property of a JSON body.
+	 *
+	 * @param json the body
+	 * @param name the property name
+	 * @return the value
+	 */
+	private static String requireString(Map<String, Object> json, String name) {
+		Object value = json.get(name);
+		if (!(value instanceof String) || ((String) value).isEmpty()) {
+			throw new HttpError(400, "Missing string property '" + name + "'");
+		}
+		return (String) value;
+	}
+
+	/**
+	 * Rejects a request whose method is not the one the route accepts.
+	 *
+	 * @param request the request
+	 * @param method the accepted method
+	 */
+	private static void requireMethod(Request request, String method) {
+		if (!request.method.equals(method)) {
+			throw methodNotAllowed(request);
+		}
+	}
+
+	/**
+	 * @param request the request
+	 * @return the error for a method the route does not accept
+	 */
+	private static HttpError methodNotAllowed(Request request) {
+		return new HttpError(405, "Method " + request.method + " not allowed");
+	}
+
+	/**
+	 * @param name the name of the generated key
+	 * @param id the generated key, -1 if the insert failed
+	 * @return a 201 response with the generated key, or a 500 response if the insert failed
+	 */
+	private static Response created(String name, int id) {
+		if (id < 0) {
+			return error(500, "Insert failed");
+		}
+		return new Response(201, Map.of(name, id));
+	}
+
+	/**
+	 * @param status the HTTP status code
+	 * @param message the error message
+	 * @return an error response
+	 */
+	private static Response error(int status, String message) {
+		return new Response(status, Map.of("error", message == null ? "" : message));
+	}
+
+	/**
+	 * @param question a question
+	 * @return its JSON representation
+	 */
+	static Map<String, Object> toJson(Question question) {
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("questionID", question.getQuestionID());
+		json.put("studentUserName", question.getStudentUserName());
+		json.put("studentFirstName", question.getStudentFirstName());
+		json.put("studentLastName", question.getStudentLastName());
+		json.put("title", question.getQuestionTitle());
+		json.put("body", question.getQuestionBody());
+		json.put("isResolved", question.getIsResolved());
+		json.put("creationTime", question.getCreationTime());
+		json.put("isFlagged", question.getIsFlagged());
+		return json;
+	}
+
+	/**
+	 * @param answer an answer
+	 * @return its JSON representation
+	 */
+	static Map<String, Object> toJson(Answer answer) {
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("answerID", answer.getAnswerID());
+		json.put("questionID", answer.getQuestionID());
+		json.put("studentUserName", answer.getStudentUserName());
+		json.put("studentFirstName", answer.getStudentFirstName());
+		json.put("studentLastName", answer.getStudentLastName());
+		json.put("text", answer.getAnswerText());
+		json.put("isResolved", answer.getIsResolved());
+		json.put("creationTime", answer.getCreationTime());
+		json.put("isFlagged", answer.getIsFlagged());
+		return json;
+	}
+
+	/**
+	 * @param review a review
+	 * @return its JSON representation
+	 */
+	static Map<String, Object> toJson(Review review) {
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("reviewID", review.getReviewID());
+		json.put("questionID", review.getQuestionID());
+		json.put("answerID", review.getAnswerID());
+		json.put("prevReviewID", review.getPrevReviewID());
+		json.put("reviewerUserName", review.getReviewerUserName());
+		json.put("reviewerFirstName", review.getReviewerFirstName());
+		json.put("reviewerLastName", review.getReviewerLastName());
+		json.put("body", review.getReviewBody());
+		json.put("isFlagged", review.getIsFlagged());
+		return json;
+	}
+
+	/**
+	 * @param message a private message
+	 * @return its JSON representation
+	 */
+	static Map<String, Object> toJson(InboxMessage message) {
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("messageID", message.getMessageID());
+		json.put("source", message.getSource().name());
+		json.put("sender", message.getSender());
+		json.put("senderRole", message.getSenderRole());
+		json.put("recipient", message.getRecipient());
+		json.put("recipientRole", message.getRecipientRole());
+		json.put("subject", message.getSubject());
+		json.put("body", message.getBody());
+		json.put("sentTime", message.getSentTime());
+		json.put("isRead", message.isRead());
+		json.put("questionID", message.getQuestionID());
+		json.put("reviewID", message.getReviewID());
+		json.put("isFlagged", message.isFlagged());
+		return json;
+	}
+}
@@ -0,0 +1,218 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.LatestRequest;
+import databasePart1.AsyncDatabase;
+import databasePart1.DatabaseHelper;
+
+/**
+ * The AsyncDatabaseTest class performs JUnit testing on AsyncDatabase.java and LatestRequest.java, using an in-memory
+ * H2 database. A single thread executor stands in for the JavaFX Application Thread so the tests can run without
+ * starting the JavaFX toolkit.
+ */
+class AsyncDatabaseTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:asyncDatabaseTest;DB_CLOSE_DELAY=-1";
+
+	/**
+	 * Length of one frame at 60 frames per second
+	 */
+	private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+
+	private DatabaseHelper databaseHelper;
+
+	/**
+	 * Stands in for the JavaFX Application Thread
+	 */
+	private ExecutorService uiThread;
+
+	/**
+	 * Connects to an empty database and starts the stand-in UI thread.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+		uiThread = Executors.newSingleThreadExecutor();
+	}
+
+	/**
+	 * Stops the stand-in UI thread and closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		uiThread.shutdownNow();
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Runs a task on the stand-in UI thread and waits for it.
+	 *
+	 * @param task the task
+	 */
+	private void onUiThread(Runnable task) throws Exception {
+		uiThread.submit(task).get(5, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Sleeps on a worker thread to stand in for a slow query.
+	 *
+	 * @param millis the time to sleep
+	 */
+	private static void slowQuery(long millis) throws SQLException {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException(e);
+		}
+	}
+
+	/**
+	 * Test that the UI thread is never busy for more than a frame while slow loads run, neither when submitting them
+	 * nor when their results are handed back.
+	 */
+	@Test
+	void uiThreadNeverBlockedTest() throws Exception {
+		AtomicLong longestUiTask = new AtomicLong();
+		List<Integer> delivered = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(10);
+		List<LatestRequest<Integer>> requests = new ArrayList<>();
+
+		onUiThread(() -> {
+			for (int i = 0; i < 10; i++) {
+				requests.add(new LatestRequest<>(databaseHelper.getAsync(), uiThread));
+			}
+		});
+		// Warm up the classes and worker threads so the measurement is not of the JVM starting them
+		for (int i = 0; i < 10; i++) {
+			databaseHelper.getAsync().submit(() -> null).get(5, TimeUnit.SECONDS);
+		}
+		onUiThread(() -> requests.get(0).submit(() -> 0, value -> { }));
+		for (int i = 0; i < 10; i++) {
+			int number = i;
+			onUiThread(() -> {
+				long start = System.nanoTime();
+				requests.get(number).submit(() -> {
+					slowQuery(200);
+					databaseHelper.getUnreadAnswerCounts();
+					return number;
+				}, value -> {
+					long handOff = System.nanoTime();
+					delivered.add(value);
+					longestUiTask.accumulateAndGet(System.nanoTime() - handOff, Math::max);
+					done.countDown();
+				});
+				longestUiTask.accumulateAndGet(System.nanoTime() - start, Math::max);
+			});
+		}
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(10, delivered.size());
+		assertTrue(longestUiTask.get() < FRAME_NANOS, "UI thread was blocked for " + longestUiTask.get() / 1_000_000 + " ms");
+	}
+
+	/**
+	 * Test that a request still waiting for a worker is cancelled when a newer one is submitted, and only the newest
+	 * result is delivered.
+	 */
+	@Test
+	void staleQueuedRequestCancelledTest() throws Exception {
+		try (AsyncDatabase oneWorker = new AsyncDatabase(databaseHelper, 1, 4)) {
+			CountDownLatch release = new CountDownLatch(1);
+			CompletableFuture<Void> blocker = oneWorker.submit(() -> {
+				try {
+					release.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			});
+
+			List<String> delivered = new CopyOnWriteArrayList<>();
+			LatestRequest<String> request = new LatestRequest<>(oneWorker, uiThread);
+			List<CompletableFuture<String>> futures = new ArrayList<>();
+			onUiThread(() -> {
+				futures.add(request.submit(() -> "old filter", delivered::add));
+				futures.add(request.submit(() -> "new filter", delivered::add));
+			});
+
+			assertTrue(futures.get(0).isCancelled());
+			assertEquals(1, oneWorker.getCancelledBeforeStartCount());
+			release.countDown();
+			blocker.get(5, TimeUnit.SECONDS);
+			assertEquals("new filter", futures.get(1).get(5, TimeUnit.SECONDS));
+			onUiThread(() -> { });
+			assertEquals(List.of("new filter"), delivered);
+		}
+	}
+
+	/**
+	 * Test that a request which is already running when a newer one is submitted finishes, but its result is dropped.
+	 */
+	@Test
+	void staleRunningResultDroppedTest() throws Exception {
+		try (AsyncDatabase twoWorkers = new AsyncDatabase(databaseHelper, 2, 4)) {
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			List<String> delivered = new CopyOnWriteArrayList<>();
+			LatestRequest<String> request = new LatestRequest<>(twoWorkers, uiThread);
+			List<CompletableFuture<String>> futures = new ArrayList<>();
+
+			onUiThread(() -> futures.add(request.submit(() -> {
+				started.countDown();
+				try {
+					release.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "old filter";
+			}, delivered::add)));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			onUiThread(() -> futures.add(request.submit(() -> "new filter", delivered::add)));
+			futures.get(1).get(5, TimeUnit.SECONDS);
+			release.countDown();
+			onUiThread(() -> { });
+			onUiThread(() -> { });
+			assertEquals(List.of("new filter"), delivered);
+		}
+	}
+
+	/**
+	 * Test that an SQLException thrown by the work is handed to the failure callback.
+	 */
+	@Test
+	void failureDeliveredTest() throws Exception {
+		CountDownLatch failed = new CountDownLatch(1);
+		LatestRequest<Integer> request = new LatestRequest<>(databaseHelper.getAsync(), uiThread);
+		onUiThread(() -> request.submit(() -> {
+			throw new SQLException("query failed");
+		}, value -> fail("no result expected"), error -> failed.countDown()));
+		assertTrue(failed.await(5, TimeUnit.SECONDS));
+	}
+}
@@ -0,0 +1,285 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.Answer;
+import application.LiveListUpdater;
+import application.Question;
+import application.User;
+import databasePart1.ChangeBus;
+import databasePart1.ChangeEvent;
+import databasePart1.DatabaseHelper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * The ChangeBusTest class performs JUnit testing on the ChangeEvents published by DatabaseHelper.java and on
+ * LiveListUpdater.java, using an in-memory H2 database.
+ */
+class ChangeBusTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:changeBusTest;DB_CLOSE_DELAY=-1";
+
+	private DatabaseHelper databaseHelper;
+
+	/**
+	 * Stands in for the JavaFX Application Thread
+	 */
+	private ExecutorService uiThread;
+
+	private final List<ChangeEvent> events = new CopyOnWriteArrayList<>();
+
+	private final User student = new User("student", "Password1!", new boolean[] {false, true, false, false, false}, "student@asu.edu", "Stu", "Dent");
+
+	/**
+	 * Connects to an empty database and records every event.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+		databaseHelper.getChangeBus().subscribe(events::add);
+		uiThread = Executors.newSingleThreadExecutor();
+	}
+
+	/**
+	 * Stops the stand-in UI thread and closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		uiThread.shutdownNow();
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Adds a question and an answer to it.
+	 *
+	 * @return the new answer with its generated answerID
+	 */
+	private Answer addQuestionAndAnswer() throws SQLException {
+		Question question = new Question(-1, student.getUserName(), "Stu", "Dent", "Title", "Body", false, LocalDateTime.now(), false, "", false);
+		int questionID = databaseHelper.addQuestion("Title", "Body", question, student);
+		Answer answer = new Answer(student.getUserName(), "Stu", "Dent", false, "An answer", true, LocalDateTime.now());
+		answer.setAnswerID(databaseHelper.addAnswers("An answer", answer, student, questionID));
+		answer.setQuestionID(questionID);
+		return answer;
+	}
+
+	/**
+	 * Waits for the tasks queued on the stand-in UI thread, including those queued by worker threads.
+	 */
+	private void drainUiThread() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			Thread.sleep(50);
+			uiThread.submit(() -> { }).get(5, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Test that mutating methods publish typed events carrying the affected ids.
+	 */
+	@Test
+	void mutationsPublishEventsTest() throws SQLException {
+		Answer answer = addQuestionAndAnswer();
+		answer.setReasonIsFlagged("Off topic");
+		databaseHelper.markAnswerFlagged(answer);
+		databaseHelper.hideAnswer(answer);
+		int reviewID = databaseHelper.addReview("rev", "Re", "Viewer", "Looks good", answer.getQuestionID(), answer.getAnswerID(), -1);
+		databaseHelper.deleteReview(reviewID);
+		databaseHelper.hideAllAnswersForMutedUser(student);
+
+		assertEquals(List.of(
+				"QUESTION ADDED " + answer.getQuestionID(),
+				"ANSWER ADDED " + answer.getAnswerID(),
+				"ANSWER UPDATED " + answer.getAnswerID(),
+				"ANSWER UPDATED " + answer.getAnswerID(),
+				"REVIEW ADDED " + reviewID,
+				"REVIEW DELETED " + reviewID,
+				"ANSWER UPDATED *"),
+				events.stream().map(ChangeEvent::toString).toList());
+	}
+
+	/**
+	 * Test that a listener only hears about the entities it subscribed to, and nothing after it unsubscribes.
+	 */
+	@Test
+	void subscriptionFiltersAndClosesTest() throws SQLException {
+		List<ChangeEvent> answerEvents = new CopyOnWriteArrayList<>();
+		ChangeBus.Subscription subscription = databaseHelper.getChangeBus().subscribe(EnumSet.of(ChangeEvent.Entity.ANSWER), answerEvents::add);
+		addQuestionAndAnswer();
+		assertEquals(1, answerEvents.size());
+		assertEquals(ChangeEvent.Entity.ANSWER, answerEvents.get(0).getEntity());
+
+		subscription.close();
+		addQuestionAndAnswer();
+		assertEquals(1, answerEvents.size());
+	}
+
+	/**
+	 * Test that LiveListUpdater adds, replaces and removes single rows, and reloads after a change to many rows.
+	 */
+	@Test
+	void liveListUpdaterAppliesDiffsTest() throws Exception {
+		ObservableList<Answer> answers = FXCollections.observableArrayList();
+		int[] reloads = {0};
+		int listeners = databaseHelper.getChangeBus().getListenerCount();
+		LiveListUpdater<Answer> updater = new LiveListUpdater<>(databaseHelper, ChangeEvent.Entity.ANSWER, answers, Answer::getAnswerID,
+				id -> databaseHelper.getAnswerRow(id, false), () -> reloads[0]++, uiThread);
+		try {
+			Answer answer = addQuestionAndAnswer();
+			drainUiThread();
+			assertEquals(1, answers.size());
+			assertEquals("An answer", answers.get(0).getAnswerText());
+
+			databaseHelper.editAnswer("Edited answer", answer.getAnswerID());
+			drainUiThread();
+			assertEquals(1, answers.size());
+			assertEquals("Edited answer", answers.get(0).getAnswerText());
+
+			// A hidden answer is not shown by this list, so it is removed
+			databaseHelper.hideAnswer(answer);
+			drainUiThread();
+			assertTrue(answers.isEmpty());
+
+			databaseHelper.hideAllAnswersForMutedUser(student);
+			drainUiThread();
+			assertEquals(1, reloads[0]);
+		}
+		finally {
+			updater.close();
+		}
+		assertEquals(listeners, databaseHelper.getChangeBus().getListenerCount());
+	}
+
+	/**
+	 * Test that when two reads of the same row finish out of order, the older copy does not replace the newer one, and
+	 * that a row whose ADDED read is overtaken is still added.
+	 */
+	@Test
+	void liveListUpdaterDropsOutOfOrderReadsTest() throws Exception {
+		ObservableList<Answer> answers = FXCollections.observableArrayList();
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger reads = new AtomicInteger();
+		LiveListUpdater<Answer> updater = new LiveListUpdater<>(databaseHelper, ChangeEvent.Entity.ANSWER, answers, Answer::getAnswerID, id -> {
+			Answer row = databaseHelper.getAnswerRow(id, false);
+			if (reads.incrementAndGet() == 1) {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return row;
+		}, () -> { }, uiThread);
+		try {
+			// The ADDED read is held back until the read for the edit has been applied
+			Answer answer = addQuestionAndAnswer();
+			databaseHelper.editAnswer("Edited answer", answer.getAnswerID());
+			drainUiThread();
+			assertEquals(1, answers.size());
+			assertEquals("Edited answer", answers.get(0).getAnswerText());
+
+			release.countDown();
+			drainUiThread();
+			assertEquals(2, reads.get());
+			assertEquals(1, answers.size());
+			assertEquals("Edited answer", answers.get(0).getAnswerText());
+		}
+		finally {
+			updater.close();
+		}
+	}
+
+	/**
+	 * Adds a question.
+	 *
+	 * @return the new question with its generated questionID
+	 */
+	private Question addQuestion(String title) throws SQLException {
+		Question question = new Question(-1, student.getUserName(), "Stu", "Dent", title, "Body", false, LocalDateTime.now(), false, "", false);
+		question.setQuestionID(databaseHelper.addQuestion(title, "Body", question, student));
+		return question;
+	}
+
+	/**
+	 * Adds a reply to a question.
+	 *
+	 * @return the new reply with its generated replyID
+	 */
+	private Question addReply(Question question, String text) {
+		Question reply = new Question(text, question.getStudentUserName(), student);
+		reply.setReplyID(databaseHelper.addReply(text, question.getQuestionID(), reply, student, question.getStudentUserName()));
+		reply.setQuestionID(question.getQuestionID());
+		return reply;
+	}
+
+	/**
+	 * @return each row of a question list as "Q" and its questionID or "R" and its replyID
+	 */
+	private static List<String> rowsOf(List<Question> rows) {
+		return rows.stream().map(q -> q.getReplyID() > 0 ? "R" + q.getReplyID() : "Q" + q.getQuestionID()).toList();
+	}
+
+	/**
+	 * Test that a question list following replies inserts each new reply after its question's last reply, edits and
+	 * hides replies by replyID, removes the replies of a deleted question and reloads after a change to many replies.
+	 */
+	@Test
+	void liveListUpdaterFollowsRepliesTest() throws Exception {
+		Question first = addQuestion("First");
+		Question second = addQuestion("Second");
+		Question earlier = addReply(first, "Earlier reply");
+		ObservableList<Question> rows = FXCollections.observableArrayList(first, earlier, second);
+		int[] reloads = {0};
+		LiveListUpdater<Question> updater = new LiveListUpdater<>(databaseHelper, ChangeEvent.Entity.QUESTION, rows,
+				q -> q.getReplyID() > 0 ? -1 : q.getQuestionID(), id -> databaseHelper.getQuestionRow(id, false),
+				new LiveListUpdater.ChildRows<>(ChangeEvent.Entity.REPLY, q -> q.getReplyID() > 0 ? q.getReplyID() : -1, Question::getQuestionID,
+						id -> databaseHelper.getReplyRow(id, false)),
+				() -> reloads[0]++, uiThread);
+		try {
+			Question later = addReply(first, "Later reply");
+			Question onSecond = addReply(second, "Reply to second");
+			drainUiThread();
+			assertEquals(List.of("Q" + first.getQuestionID(), "R" + earlier.getReplyID(), "R" + later.getReplyID(),
+					"Q" + second.getQuestionID(), "R" + onSecond.getReplyID()), rowsOf(rows));
+
+			databaseHelper.hideQuestionReply(earlier);
+			drainUiThread();
+			assertEquals(List.of("Q" + first.getQuestionID(), "R" + later.getReplyID(), "Q" + second.getQuestionID(), "R" + onSecond.getReplyID()),
+					rowsOf(rows));
+
+			databaseHelper.deleteQuestion(second.getQuestionID());
+			drainUiThread();
+			assertEquals(List.of("Q" + first.getQuestionID(), "R" + later.getReplyID()), rowsOf(rows));
+			assertEquals(0, reloads[0]);
+
+			databaseHelper.deleteRepliesForQuestion(first.getQuestionID());
+			drainUiThread();
+			assertEquals(1, reloads[0]);
+		}
+		finally {
+			updater.close();
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import databasePart1.ConnectionPool;
+import databasePart1.PoolConfig;
+import databasePart1.PoolMetrics;
+
+/**
+ * The ConnectionPoolTest class performs JUnit testing on ConnectionPool.java against an in-memory H2 database, so
+ * unlike the other test classes it does not need the FoundationDatabase file.
+ */
+class ConnectionPoolTest {
+
+	/**
+	 * In-memory database kept alive until the JVM exits so every pooled connection sees the same data
+	 */
+	private static final String TEST_DB_URL = "jdbc:h2:mem:connectionPoolTest;DB_CLOSE_DELAY=-1";
+
+	/**
+	 * Pool under test, closed after every test
+	 */
+	private ConnectionPool pool;
+
+	/**
+	 * Closes the pool created by the test.
+	 */
+	@AfterEach
+	void tearDown() {
+		if (pool != null) {
+			pool.close();
+		}
+	}
+
+	/**
+	 * Creates a pool with short timeouts so eviction and leak detection can be observed quickly.
+	 *
+	 * @param minSize the minimum pool size
+	 * @param maxSize the maximum pool size
+	 * @return the configuration
+	 */
+	private PoolConfig fastConfig(int minSize, int maxSize) {
+		PoolConfig config = new PoolConfig(minSize, maxSize);
+		config.setBorrowTimeoutMillis(200);
+		config.setIdleTimeoutMillis(50);
+		config.setLeakThresholdMillis(100);
+		config.setMaintenanceIntervalMillis(25);
+		return config;
+	}
+
+	/**
+	 * Test that borrowing and returning a connection is reflected in the active and idle counts.
+	 */
+	@Test
+	void borrowAndReturnTest() throws SQLException {
+		pool = new ConnectionPool(TEST_DB_URL, "sa", "", new PoolConfig(2, 4));
+		assertEquals(2, pool.getMetrics().getIdle());
+
+		try (Connection conn = pool.borrow(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT 1")) {
+			assertTrue(rs.next());
+			assertEquals(1, pool.getMetrics().getActive());
+			assertEquals(1, pool.getMetrics().getIdle());
+		}
+
+		PoolMetrics metrics = pool.getMetrics();
+		assertEquals(0, metrics.getActive());
+		assertEquals(2, metrics.getIdle());
+		assertEquals(1, metrics.getTotalBorrows());
+		assertEquals(1, metrics.getBorrowLatency().getSampleCount());
+	}
+
+	/**
+	 * Test that a connection cannot be used after it has been returned to the pool.
+	 */
+	@Test
+	void returnedConnectionIsUnusableTest() throws SQLException {
+		pool = new ConnectionPool(TEST_DB_URL, "sa", "", new PoolConfig(1, 1));
+		Connection conn = pool.borrow();
+		conn.close();
+		assertTrue(conn.isClosed());
+		assertThrows(SQLException.class, () -> conn.createStatement());
+	}
+
+	/**
+	 * Test that the pool never hands out more than maxSize connections and times out waiting callers.
+	 */
+	@Test
+	void maxSizeIsEnforcedTest() throws SQLException {
+		pool = new ConnectionPool(TEST_DB_URL, "sa", "", fastConfig(0, 2));
+		Connection first = pool.borrow();
+		Connection second = pool.borrow();
+
+		assertThrows(SQLTimeoutException.class, () -> pool.borrow());
+		assertEquals(1, pool.getMetrics().getTimeouts());
+
+		first.close();
+		try (Connection third = pool.borrow()) {
+			assertFalse(third.isClosed());
+			assertEquals(2, pool.getMetrics().getActive());
+		}
+		second.close();
+	}
+
+	/**
+	 * Test that a connection which was closed underneath the pool fails validation and is replaced on borrow.
+	 */
+	@Test
+	void validationOnBorrowTest() throws SQLException {
+		pool = new ConnectionPool(TEST_DB_URL, "sa", "", new PoolConfig(1, 1));
+		Connection conn = pool.borrow();
+		Connection physical = conn.unwrap(Connection.class);
+		conn.close();
+		physical.close(); // close the idle physical connection behind the pool's back
+
+		try (Connection replacement = pool.borrow(); Statement stmt = replacement.createStatement()) {
+			assertTrue(stmt.execute("SELECT 1"));
+		}
+		assertTrue(pool.getMetrics().getEvictions() >= 1);
+	}
+
+	/**
+	 * Test that idle connections above the minimum size are evicted.
+	 */
+	@Test
+	void idleEvictionTest() throws Exception {
+		pool = new ConnectionPool(TEST_DB_URL, "sa", "", fastConfig(1, 3));
+		List<Connection> connections = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			connections.add(pool.borrow());
+		}
+		for (Connection conn : connections) {
+			conn.close();
+		}
+		assertEquals(3, pool.getMetrics().getIdle());
+
+		Thread.sleep(300);
+		assertEquals(1, pool.getMetrics().getIdle());
+	}
+
+	/**
+	 * Test that a connection held longer than the leak threshold is reported, but a pinned connection is not.
+	 */
+	@Test
+	void leakDetectionTest() throws Exception {
+		pool = new ConnectionPool(TEST_DB_URL, "sa", "", fastConfig(0, 2));
+		try (Connection pinned = pool.borrowPinned(); Connection leaked = pool.borrow()) {
+			Thread.sleep(300);
+			assertFalse(pinned.isClosed());
+			assertFalse(leaked.isClosed());
+			assertEquals(1, pool.getMetrics().getLeaksDetected());
+		}
+	}
+
+	/**
+	 * Test that several threads can run queries at the same time without exceeding the pool size.
+	 */
+	@Test
+	void concurrentBorrowTest() throws Exception {
+		PoolConfig config = new PoolConfig(2, 4);
+		config.setBorrowTimeoutMillis(5_000);
+		pool = new ConnectionPool(TEST_DB_URL, "sa", "", config);
+
+		ExecutorService workers = Executors.newFixedThreadPool(8);
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int i = 0; i < 64; i++) {
+			results.add(workers.submit(() -> {
+				try (Connection conn = pool.borrow(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT 1")) {
+					assertTrue(pool.getMetrics().getActive() <= 4);
+					rs.next();
+					return rs.getInt(1);
+				}
+			}));
+		}
+		for (Future<Integer> result : results) {
+			assertEquals(1, result.get());
+		}
+		workers.shutdown();
+		assertTrue(workers.awaitTermination(5, TimeUnit.SECONDS));
+
+		PoolMetrics metrics = pool.getMetrics();
+		assertEquals(0, metrics.getActive());
+		assertEquals(64, metrics.getTotalBorrows());
+		assertTrue(metrics.getIdle() <= 4);
+	}
+}
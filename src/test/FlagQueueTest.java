@@ -0,0 +1,244 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.Question;
+import application.User;
+import databasePart1.ChangeEvent;
+import databasePart1.DatabaseHelper;
+import databasePart1.ModerationFlag;
+import databasePart1.Page;
+
+/**
+ * The FlagQueueTest class performs JUnit testing on the moderation queue DatabaseHelper.java keeps in the flags table,
+ * using an in-memory H2 database.
+ */
+class FlagQueueTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:flagQueueTest;DB_CLOSE_DELAY=-1";
+
+	private static final Duration LEASE = Duration.ofMinutes(15);
+
+	private DatabaseHelper databaseHelper;
+
+	private final User student = new User("student", "Password1!", new boolean[] {false, true, false, false, false}, "student@asu.edu", "Stu", "Dent");
+
+	/**
+	 * Connects to an empty database with one student.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+		databaseHelper.register(student);
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Adds a question and flags it.
+	 *
+	 * @return the flagged question
+	 */
+	private Question addFlaggedQuestion(String title, String reason) throws SQLException {
+		Question question = new Question(-1, student.getUserName(), "Stu", "Dent", title, "Body", false, LocalDateTime.now(), false, "", false);
+		question.setQuestionID(databaseHelper.addQuestion(title, "Body", question, student));
+		question.setReasonIsFlagged(reason);
+		databaseHelper.markQuestionFlagged(question);
+		return question;
+	}
+
+	/**
+	 * @return the itemIDs of the entries, in order
+	 */
+	private static List<Integer> itemIDs(List<ModerationFlag> flags) {
+		List<Integer> ids = new ArrayList<>();
+		for (ModerationFlag flag : flags) {
+			ids.add(flag.getItemID());
+		}
+		return ids;
+	}
+
+	/**
+	 * Test that an item has one entry however often it is flagged, that unflagging or deleting it resolves the entry
+	 * and that flagging it again, while open or after it was resolved, raises the entry's priority.
+	 */
+	@Test
+	void entriesFollowItemsTest() throws SQLException {
+		Question question = addFlaggedQuestion("First", "Off topic");
+		question.setReasonIsFlagged("Rude");
+		databaseHelper.markQuestionFlagged(question);
+		assertEquals(1, databaseHelper.countOpenFlags());
+
+		List<ModerationFlag> claimed = databaseHelper.claimFlags("staff", 5, LEASE);
+		assertEquals(1, claimed.size());
+		assertEquals(ChangeEvent.Entity.QUESTION, claimed.get(0).getItemType());
+		assertEquals(question.getQuestionID(), claimed.get(0).getItemID());
+		assertEquals("Rude", claimed.get(0).getReason());
+		assertEquals(2, claimed.get(0).getFlagCount());
+		assertEquals(1, claimed.get(0).getPriority());
+		assertEquals("staff", claimed.get(0).getClaimedBy());
+
+		databaseHelper.clearQuestionFlag(question.getQuestionID());
+		assertEquals(0, databaseHelper.countOpenFlags());
+		assertTrue(databaseHelper.getClaimedFlags("staff").isEmpty());
+
+		databaseHelper.markQuestionFlagged(question);
+		ModerationFlag reopened = databaseHelper.claimFlags("staff", 5, LEASE).get(0);
+		assertEquals(claimed.get(0).getFlagID(), reopened.getFlagID());
+		assertEquals(3, reopened.getFlagCount());
+		assertEquals(2, reopened.getPriority());
+
+		databaseHelper.deleteQuestion(question.getQuestionID());
+		assertEquals(0, databaseHelper.countOpenFlags());
+
+		// Rows flagged outside DatabaseHelper are queued by the write itself, and an unflag which is rolled back leaves the entry open
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", ""); Statement stmt = conn.createStatement()) {
+			stmt.execute("INSERT INTO answers (questionID, studentUserName, isFlagged, reasonIsFlagged) VALUES (1, 'student', TRUE, 'Spam')");
+			assertEquals("Spam", databaseHelper.claimFlags("staff", 5, LEASE).get(0).getReason());
+			conn.setAutoCommit(false);
+			stmt.execute("UPDATE answers SET isFlagged = FALSE");
+			try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM flags WHERE isResolved = FALSE")) {
+				rs.next();
+				assertEquals(0, rs.getInt(1));
+			}
+			conn.rollback();
+			conn.setAutoCommit(true);
+			assertEquals(1, databaseHelper.countOpenFlags());
+			stmt.execute("DELETE FROM answers");
+		}
+		assertEquals(0, databaseHelper.countOpenFlags());
+	}
+
+	/**
+	 * Test that entries are claimed by priority then age, are never handed to two staff members while a claim lasts,
+	 * and that resolving an entry clears the flag of its item.
+	 */
+	@Test
+	void claimAndResolveTest() throws SQLException {
+		Question first = addFlaggedQuestion("First", "a");
+		Question second = addFlaggedQuestion("Second", "b");
+		Question third = addFlaggedQuestion("Third", "c");
+		int thirdFlag = databaseHelper.claimFlags("lead", 3, Duration.ZERO).get(2).getFlagID();
+		assertTrue(databaseHelper.setFlagPriority(thirdFlag, 5));
+
+		List<ModerationFlag> alice = databaseHelper.claimFlags("alice", 2, LEASE);
+		assertEquals(List.of(third.getQuestionID(), first.getQuestionID()), itemIDs(alice));
+		List<ModerationFlag> bob = databaseHelper.claimFlags("bob", 2, LEASE);
+		assertEquals(List.of(second.getQuestionID()), itemIDs(bob));
+		assertTrue(databaseHelper.claimFlags("bob", 1, LEASE).isEmpty());
+
+		// Another staff member can neither resolve nor release an entry held by alice
+		assertFalse(databaseHelper.resolveFlag(alice.get(0).getFlagID(), "bob"));
+		assertFalse(databaseHelper.releaseFlag(alice.get(0).getFlagID(), "bob"));
+		assertTrue(databaseHelper.releaseFlag(alice.get(1).getFlagID(), "alice"));
+		assertEquals(List.of(first.getQuestionID()), itemIDs(databaseHelper.claimFlags("bob", 5, LEASE)));
+
+		assertTrue(databaseHelper.resolveFlag(alice.get(0).getFlagID(), "alice"));
+		assertFalse(databaseHelper.resolveFlag(alice.get(0).getFlagID(), "alice"));
+		assertEquals(2, databaseHelper.countOpenFlags());
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", ""); Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT isFlagged, reasonIsFlagged FROM questions WHERE questionID = " + third.getQuestionID())) {
+			assertTrue(rs.next());
+			assertFalse(rs.getBoolean(1));
+			assertEquals("", rs.getString(2));
+		}
+
+		// An expired claim goes back to the queue unless its holder renews it first
+		int bobsFirst = bob.get(0).getFlagID();
+		assertTrue(databaseHelper.renewFlagLease(bobsFirst, "bob", Duration.ZERO));
+		assertEquals(List.of(second.getQuestionID()), itemIDs(databaseHelper.claimFlags("carol", 5, LEASE)));
+		assertFalse(databaseHelper.renewFlagLease(bobsFirst, "bob", LEASE));
+		assertEquals(1, databaseHelper.getClaimedFlags("carol").size());
+		assertThrows(IllegalArgumentException.class, () -> databaseHelper.claimFlags("carol", 0, LEASE));
+	}
+
+	/**
+	 * Test that the open entries are read a page at a time whoever holds them, oldest first, and that unflagging the
+	 * item of an entry takes it out of the pages.
+	 */
+	@Test
+	void openFlagsPagesTest() throws SQLException {
+		List<Integer> questionIDs = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			questionIDs.add(addFlaggedQuestion("Question " + i, "reason " + i).getQuestionID());
+		}
+		databaseHelper.claimFlags("staff", 2, LEASE);
+
+		Page<ModerationFlag> first = databaseHelper.getOpenFlagsPage(null, 3);
+		assertEquals(questionIDs.subList(0, 3), itemIDs(first.getItems()));
+		assertTrue(first.hasMore());
+		Page<ModerationFlag> second = databaseHelper.getOpenFlagsPage(first.getNextCursor(), 3);
+		assertEquals(questionIDs.subList(3, 5), itemIDs(second.getItems()));
+		assertFalse(second.hasMore());
+
+		assertTrue(databaseHelper.clearFlaggedItem(first.getItems().get(0)));
+		assertEquals(questionIDs.subList(1, 5), itemIDs(databaseHelper.getOpenFlagsPage(null, 10).getItems()));
+		assertEquals(4, databaseHelper.countOpenFlags());
+	}
+
+	/**
+	 * Test that staff members claiming from several threads at once never receive the same entry.
+	 */
+	@Test
+	void concurrentClaimsTest() throws Exception {
+		for (int i = 0; i < 40; i++) {
+			addFlaggedQuestion("Question " + i, "reason " + i);
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<List<Integer>>> results = new ArrayList<>();
+			for (int worker = 0; worker < 4; worker++) {
+				String staff = "staff" + worker;
+				results.add(pool.submit(() -> databaseHelper.withPooledConnection(() -> {
+					List<Integer> mine = new ArrayList<>();
+					List<ModerationFlag> claimed;
+					while (!(claimed = databaseHelper.claimFlags(staff, 3, LEASE)).isEmpty()) {
+						mine.addAll(itemIDs(claimed));
+					}
+					return mine;
+				})));
+			}
+			List<Integer> all = new ArrayList<>();
+			for (Future<List<Integer>> result : results) {
+				all.addAll(result.get());
+			}
+			Set<Integer> distinct = new HashSet<>(all);
+			assertEquals(40, all.size());
+			assertEquals(all.size(), distinct.size());
+			assertEquals(40, (int) Collections.max(distinct) - Collections.min(distinct) + 1);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+}
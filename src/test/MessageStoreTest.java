@@ -0,0 +1,218 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.InboxMessage;
+import application.ReviewerMessage;
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.Page;
+import databasePart1.SchemaMigrator;
+
+/**
+ * The MessageStoreTest class performs JUnit testing on the unified messages table: the migration copying the four
+ * private messages tables into it, the inbox, sent and unread count reads DatabaseHelper serves from it, the
+ * messageID based read and flag updates, and the message records the views display, using an in-memory H2 database.
+ */
+class MessageStoreTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:messageStoreTest;DB_CLOSE_DELAY=-1";
+
+	private static final Set<InboxMessage.Source> ALL_SOURCES = EnumSet.allOf(InboxMessage.Source.class);
+
+	private DatabaseHelper databaseHelper;
+
+	/**
+	 * Connects to an empty database.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Test that the migration copies the rows already in the four tables, and copies them only once when run again.
+	 */
+	@Test
+	void migrationCopiesExistingMessagesTest() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", ""); Statement stmt = conn.createStatement()) {
+			stmt.execute("INSERT INTO PrivateMessages (sender_user_name, receiver_user_name, subject, message_body, is_read, timestamp) "
+					+ "VALUES ('bob', 'alice', 'Hi', 'From a student', FALSE, TIMESTAMP '2025-04-01 10:00:00')");
+			stmt.execute("INSERT INTO reviewerMessages (sender, recipient, recipientRole, subject, body, sentTime, isRead, reviewID) "
+					+ "VALUES ('rev', 'alice', 'Student', 'Re', 'From a reviewer', TIMESTAMP '2025-04-02 10:00:00', TRUE, 7)");
+			stmt.execute("INSERT INTO staffMessages (senderUserName, senderRole, messageSubject, messageBody, recipientUserName, recipientRole, timeSent) "
+					+ "VALUES ('staff', 'Staff', 'Notice', 'From staff', 'alice', 'Student', TIMESTAMP '2025-04-03 10:00:00')");
+			stmt.execute("INSERT INTO instructorMessages (senderUserName, senderRole, messageSubject, messageBody, recipientUserName, recipientRole, timeSent, isDeletedInbox) "
+					+ "VALUES ('prof', 'Instructor', 'Old', 'Deleted from the inbox', 'alice', 'Student', TIMESTAMP '2025-04-04 10:00:00', TRUE)");
+			stmt.execute("DELETE FROM schema_version WHERE version = 6");
+			assertEquals(1, new SchemaMigrator(conn).migrate().size());
+			stmt.execute("DELETE FROM schema_version WHERE version = 6");
+			new SchemaMigrator(conn).migrate();
+		}
+
+		List<InboxMessage> inbox = databaseHelper.getInboxPage("alice", ALL_SOURCES, null, 10).getItems();
+		assertEquals(List.of(InboxMessage.Source.STAFF, InboxMessage.Source.REVIEWER, InboxMessage.Source.STUDENT),
+				inbox.stream().map(InboxMessage::getSource).toList());
+		assertEquals(7, inbox.get(1).getReviewID());
+		assertEquals(2, databaseHelper.countUnreadMessages("alice", ALL_SOURCES));
+		assertEquals(1, databaseHelper.getUnreadPrivateMessageCount("alice"));
+		assertEquals(1, databaseHelper.getSentMessagesPage("prof", ALL_SOURCES, null, 10).getItems().size());
+	}
+
+	/**
+	 * Test that messages sent through different features are read back as one time ordered inbox, page by page, and
+	 * that marking read and deleting through the original tables is followed.
+	 */
+	@Test
+	void inboxFollowsWritesTest() {
+		databaseHelper.sendPrivateMessageToStudent("bob", "alice", 1, "First", "One");
+		ReviewerMessage reviewerMessage = new ReviewerMessage(-1, "rev", "alice", "Student", "Second", "Two", LocalDateTime.now(), false, 3);
+		int reviewerMessageID = databaseHelper.saveReviewerMessage(reviewerMessage);
+		databaseHelper.sendPrivateMessage("carol", "alice", "Third", "Three", null);
+		databaseHelper.sendPrivateMessage("alice", "bob", "Reply", "Four", null);
+
+		Page<InboxMessage> first = databaseHelper.getInboxPage("alice", ALL_SOURCES, null, 2);
+		assertEquals(List.of("Third", "Second"), first.getItems().stream().map(InboxMessage::getSubject).toList());
+		assertTrue(first.hasMore());
+		Page<InboxMessage> second = databaseHelper.getInboxPage("alice", ALL_SOURCES, first.getNextCursor(), 2);
+		assertEquals(List.of("First"), second.getItems().stream().map(InboxMessage::getSubject).toList());
+		assertFalse(second.hasMore());
+		assertEquals(List.of("Reply"), databaseHelper.getSentMessagesPage("alice", ALL_SOURCES, null, 10).getItems().stream()
+				.map(InboxMessage::getSubject).toList());
+		assertEquals(3, databaseHelper.getUnreadPrivateMessageCount("alice"));
+
+		databaseHelper.markReviewerMessageAsRead(reviewerMessageID, reviewerMessage);
+		databaseHelper.markStudentToStudentMessageAsRead("alice", "bob", "First", "One");
+		assertEquals(1, databaseHelper.getUnreadPrivateMessageCount("alice"));
+
+		databaseHelper.deleteReviewerMessage(reviewerMessageID);
+		List<InboxMessage> messages = databaseHelper.getStudentInbox("alice");
+		assertEquals(2, messages.size());
+		assertTrue(messages.get(0).toString().startsWith("To [Student]: alice\nFrom [Student]: carol\n"));
+		assertEquals(1, databaseHelper.getStudentSentMessages("alice").size());
+	}
+
+	/**
+	 * Test that rows written outside DatabaseHelper are copied without any ChangeEvent, that a rolled back write
+	 * leaves no copy, and that a write whose copy fails is rolled back with it.
+	 */
+	@Test
+	void copyInWritersTransactionTest() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", ""); Statement stmt = conn.createStatement()) {
+			stmt.execute("INSERT INTO PrivateMessages (sender_user_name, receiver_user_name, subject, message_body, is_read) "
+					+ "VALUES ('bob', 'alice', 'Raw', 'Written directly', FALSE)");
+			assertEquals(1, databaseHelper.getUnreadPrivateMessageCount("alice"));
+
+			conn.setAutoCommit(false);
+			stmt.execute("INSERT INTO PrivateMessages (sender_user_name, receiver_user_name, subject, message_body, is_read) "
+					+ "VALUES ('bob', 'alice', 'Undone', 'Rolled back', FALSE)");
+			conn.rollback();
+			conn.setAutoCommit(true);
+			assertEquals(List.of("Raw"), databaseHelper.getInboxPage("alice", ALL_SOURCES, null, 10).getItems().stream()
+					.map(InboxMessage::getSubject).toList());
+
+			stmt.execute("ALTER TABLE messages ADD CONSTRAINT noBadSubject CHECK (subject <> 'Bad')");
+			assertFalse(databaseHelper.sendPrivateMessage("bob", "alice", "Bad", "Not copied", null));
+			assertThrows(SQLException.class, () -> stmt.execute("UPDATE PrivateMessages SET subject = 'Bad'"));
+			assertEquals(List.of("Raw"), databaseHelper.getInboxPage("alice", ALL_SOURCES, null, 10).getItems().stream()
+					.map(InboxMessage::getSubject).toList());
+			assertEquals(1, databaseHelper.getMessagesBySource(InboxMessage.Source.STUDENT, false).size());
+
+			stmt.execute("DELETE FROM PrivateMessages");
+			assertTrue(databaseHelper.getInboxPage("alice", ALL_SOURCES, null, 10).getItems().isEmpty());
+		}
+	}
+
+	/**
+	 * Test that batches of messages are marked read, flagged and unflagged by messageID, that the messages read back
+	 * carry the change, and that the methods which identify a message by its text find the same rows.
+	 */
+	@Test
+	void idBasedUpdatesTest() throws SQLException {
+		databaseHelper.register(new User("alice", "Password1!", new boolean[] {false, true, false, false, false}, "alice@asu.edu", "Al", "Ice"));
+		databaseHelper.register(new User("bob", "Password1!", new boolean[] {false, true, false, false, false}, "bob@asu.edu", "Bo", "B"));
+		databaseHelper.register(new User("rev", "Password1!", new boolean[] {false, false, true, false, false}, "rev@asu.edu", "Re", "V"));
+		databaseHelper.sendPrivateMessage("bob", "alice", "One", "First", null);
+		databaseHelper.sendPrivateMessage("bob", "alice", "Two", "Second", null);
+		databaseHelper.sendPrivateMessage("bob", "alice", "Three", "Third", null);
+		databaseHelper.sendPrivateMessage("alice", "rev", "Question", "About a review", null);
+		databaseHelper.saveReviewerMessage(new ReviewerMessage(-1, "rev", "alice", "Student", "Answer", "About your answer", LocalDateTime.now(), false, 3));
+
+		List<Integer> fromBob = databaseHelper.getStudentInbox("alice").stream().filter(m -> m.getSender().equals("bob"))
+				.map(InboxMessage::getSourceID).toList();
+		assertEquals(3, fromBob.size());
+		assertEquals(4, databaseHelper.getUnreadPrivateMessageCount("alice"));
+
+		assertEquals(2, databaseHelper.markMessagesRead(InboxMessage.Source.STUDENT, fromBob.subList(0, 2)));
+		assertEquals(2, databaseHelper.getUnreadPrivateMessageCount("alice"));
+		assertTrue(databaseHelper.getMessage(InboxMessage.Source.STUDENT, fromBob.get(0)).isRead());
+
+		assertEquals(3, databaseHelper.markMessagesFlagged(InboxMessage.Source.STUDENT, fromBob, "Spam"));
+		InboxMessage flagged = databaseHelper.getMessage(InboxMessage.Source.STUDENT, fromBob.get(2));
+		assertTrue(flagged.isFlagged());
+		assertEquals("Spam", flagged.getReasonIsFlagged());
+		assertTrue(databaseHelper.checkIfStudentPrivateMessageFlagged("alice", "bob", null, flagged.getSubject(), flagged.getBody()));
+
+		databaseHelper.clearStudentPrivateMessageFlag("alice", "bob", null, flagged.getSubject(), flagged.getBody());
+		assertFalse(databaseHelper.getMessage(InboxMessage.Source.STUDENT, fromBob.get(2)).isFlagged());
+		assertEquals(1, databaseHelper.clearMessageFlags(InboxMessage.Source.STUDENT, fromBob.subList(1, 2)));
+		assertEquals("Spam", databaseHelper.getReasonStudentPrivateMessageFlagged("alice", "bob", null, "Three", "Third"));
+
+		assertEquals(3, databaseHelper.getMessagesBetweenStudents().size());
+		assertEquals(List.of(InboxMessage.Source.STUDENT, InboxMessage.Source.REVIEWER),
+				databaseHelper.getMessagesBetweenReviewersAndStudents().stream().map(InboxMessage::getSource).toList());
+		assertThrows(IllegalArgumentException.class, () -> databaseHelper.markMessagesFlagged(InboxMessage.Source.STAFF, List.of(1), "Spam"));
+	}
+
+	/**
+	 * Test that messages are read back by source as records, newest first, that only flagged ones are returned when
+	 * asked, and that the records format themselves the way the message lists show them.
+	 */
+	@Test
+	void messagesBySourceTest() throws SQLException {
+		databaseHelper.sendPrivateMessage("bob", "alice", "One", "First", null);
+		databaseHelper.sendPrivateMessage("carol", "alice", "Two", "Second", null);
+		databaseHelper.saveReviewerMessage(new ReviewerMessage(-1, "rev", "alice", "Student", "Answer", "About your answer", LocalDateTime.now(), false, 3));
+
+		List<InboxMessage> messages = databaseHelper.getMessagesBySource(InboxMessage.Source.STUDENT, false);
+		assertEquals(List.of("Two", "One"), messages.stream().map(InboxMessage::getSubject).toList());
+		assertTrue(databaseHelper.getMessagesBySource(InboxMessage.Source.STUDENT, true).isEmpty());
+
+		databaseHelper.markMessagesFlagged(InboxMessage.Source.STUDENT, List.of(messages.get(1).getSourceID()), "Spam");
+		List<InboxMessage> flagged = databaseHelper.getMessagesBySource(InboxMessage.Source.STUDENT, true);
+		assertEquals(List.of("One"), flagged.stream().map(InboxMessage::getSubject).toList());
+		assertEquals(flagged.get(0).getSourceID(), databaseHelper.getFlaggedStudentMessagesWithIds().get(flagged.get(0).toString()));
+
+		InboxMessage reviewerMessage = databaseHelper.getMessagesBySource(InboxMessage.Source.REVIEWER, false).get(0);
+		assertTrue(reviewerMessage.toString().startsWith("To [Student]: alice\nFrom [Reviewer]: rev\nDate: "));
+		assertTrue(messages.get(0).toDisplayString("Reviewer", "Student").startsWith("To [Reviewer]: alice\nFrom [Student]: carol\n"));
+		assertTrue(messages.get(0).contains("carol"));
+		assertTrue(messages.get(0).contains("second"));
+		assertFalse(messages.get(0).contains("bob"));
+	}
+}
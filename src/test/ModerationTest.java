@@ -0,0 +1,160 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.Role;
+import application.User;
+import databasePart1.ChangeEvent;
+import databasePart1.DatabaseHelper;
+import databasePart1.ModerationBatch;
+import databasePart1.ModerationResult;
+
+/**
+ * The ModerationTest class performs JUnit testing on the moderation batches applied by DatabaseHelper.java, using an
+ * in-memory H2 database.
+ */
+class ModerationTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:moderationTest;DB_CLOSE_DELAY=-1";
+
+	private static final boolean[] STUDENT = {false, true, false, false, false};
+
+	private static final boolean[] REVIEWER = {false, true, true, false, false};
+
+	private DatabaseHelper databaseHelper;
+
+	/**
+	 * Connects to an empty database with two students and a reviewer, each with posts of their own.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+		databaseHelper.register(new User("ann", "Password1!", STUDENT, "ann@asu.edu", "Ann", "Lee"));
+		databaseHelper.register(new User("ben", "Password1!", STUDENT, "ben@asu.edu", "Ben", "Ng"));
+		databaseHelper.register(new User("rita", "Password1!", REVIEWER, "rita@asu.edu", "Rita", "Cho"));
+		execute("INSERT INTO questions (studentUserName) VALUES ('ann'), ('ann'), ('ben'), ('rita')",
+				"INSERT INTO questionReplies (questionID, studentUserName) VALUES (1, 'ann'), (3, 'ben')",
+				"INSERT INTO answers (questionID, studentUserName) VALUES (3, 'ann'), (1, 'ben')",
+				"INSERT INTO reviews (answerID, reviewerUserName) VALUES (1, 'rita'), (2, 'rita')");
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Runs statements on a connection of its own.
+	 */
+	private static void execute(String... sql) throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", ""); Statement stmt = conn.createStatement()) {
+			for (String statement : sql) {
+				stmt.execute(statement);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of rows of a table matching a condition
+	 */
+	private static int count(String table, String condition) throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", ""); Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table + " WHERE " + condition)) {
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+
+	/**
+	 * Test that muting users hides all their posts in one batch, that applying it again changes nothing, and that the
+	 * reversed batch and unmuteUser restore everything.
+	 */
+	@Test
+	void muteAndReverseTest() throws SQLException {
+		ModerationBatch batch = new ModerationBatch().mute("ann").mute("rita").mute("nobody");
+		ModerationResult result = databaseHelper.applyModeration(batch);
+		assertEquals(2, result.getCount(ChangeEvent.Entity.USER));
+		assertEquals(3, result.getCount(ChangeEvent.Entity.QUESTION));
+		assertEquals(1, result.getCount(ChangeEvent.Entity.REPLY));
+		assertEquals(1, result.getCount(ChangeEvent.Entity.ANSWER));
+		assertEquals(2, result.getCount(ChangeEvent.Entity.REVIEW));
+		assertEquals(9, result.getTotal());
+		assertEquals(2, count("cse360users", "isMuted"));
+		assertEquals(0, count("questions", "isHidden AND studentUserName = 'ben'"));
+		assertTrue(databaseHelper.completeUsers("ann", EnumSet.noneOf(Role.class), 1).get(0).getIsMuted());
+
+		assertEquals(0, databaseHelper.applyModeration(batch).getTotal());
+
+		result = databaseHelper.applyModeration(batch.reversed().mute("ben"));
+		assertEquals(3, result.getCount(ChangeEvent.Entity.USER));
+		assertEquals(4, result.getCount(ChangeEvent.Entity.QUESTION));
+		assertEquals(1, count("cse360users", "isMuted"));
+		assertEquals(3, count("questions", "NOT isHidden"));
+
+		databaseHelper.unmuteUser("ben");
+		assertEquals(0, count("cse360users", "isMuted"));
+		assertEquals(0, count("questions", "isHidden") + count("questionReplies", "isHidden") + count("answers", "isHidden") + count("reviews", "isHidden"));
+	}
+
+	/**
+	 * Test that single posts are hidden and shown by id, that a later action on a post replaces an earlier one and
+	 * that only posts can be hidden.
+	 */
+	@Test
+	void singlePostsTest() throws SQLException {
+		ModerationBatch batch = new ModerationBatch()
+				.hide(ChangeEvent.Entity.QUESTION, 3)
+				.hide(ChangeEvent.Entity.REVIEW, 2)
+				.hide(ChangeEvent.Entity.ANSWER, 1)
+				.unhide(ChangeEvent.Entity.ANSWER, 1);
+		ModerationResult result = databaseHelper.applyModeration(batch);
+		assertEquals(2, result.getTotal());
+		assertEquals(0, result.getCount(ChangeEvent.Entity.USER));
+		assertEquals(1, count("questions", "isHidden AND questionID = 3"));
+		assertEquals(1, count("reviews", "isHidden AND reviewID = 2"));
+		assertEquals(0, count("answers", "isHidden"));
+
+		// A post shown explicitly stays shown while its author is muted
+		result = databaseHelper.applyModeration(new ModerationBatch().mute("ben").unhide(ChangeEvent.Entity.QUESTION, 3));
+		assertEquals(0, count("questions", "isHidden"));
+		assertEquals(1, count("answers", "isHidden AND answerID = 2"));
+
+		assertTrue(new ModerationBatch().isEmpty());
+		assertEquals(0, databaseHelper.applyModeration(new ModerationBatch()).getTotal());
+		assertThrows(IllegalArgumentException.class, () -> new ModerationBatch().hide(ChangeEvent.Entity.USER, 1));
+	}
+
+	/**
+	 * Test that a batch which fails part way changes nothing, and that the connection goes back to committing each
+	 * statement afterwards.
+	 */
+	@Test
+	void failedBatchRollsBackTest() throws SQLException {
+		execute("ALTER TABLE reviews DROP COLUMN isHidden");
+		ModerationResult result = databaseHelper.applyModeration(new ModerationBatch().mute("ann").mute("rita"));
+		assertEquals(0, result.getTotal());
+		assertEquals(0, count("cse360users", "isMuted"));
+		assertEquals(0, count("questions", "isHidden"));
+
+		databaseHelper.muteUser(new User("ben", STUDENT, "ben@asu.edu", "Ben", "Ng"));
+		assertEquals(1, count("cse360users", "isMuted AND userName = 'ben'"));
+	}
+}
@@ -0,0 +1,179 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import application.Answer;
+import application.Question;
+import application.Review;
+import databasePart1.DatabaseHelper;
+import databasePart1.Page;
+import databasePart1.PageCursor;
+
+/**
+ * The PaginationTest class performs JUnit testing on the keyset paginated question, answer and review queries in
+ * DatabaseHelper.java, using an in-memory H2 database.
+ */
+class PaginationTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:paginationTest;DB_CLOSE_DELAY=-1";
+
+	private static DatabaseHelper databaseHelper;
+
+	/**
+	 * Creates the schema and inserts 25 questions (every fifth one hidden, several sharing a creationTime), one answer
+	 * and one review per question, and a reply to the first question.
+	 */
+	@BeforeAll
+	static void setUp() throws SQLException {
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+
+		LocalDateTime start = LocalDateTime.of(2025, 4, 1, 9, 0);
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "");
+				PreparedStatement question = conn.prepareStatement("INSERT INTO questions (studentUserName, questionTitle, questionBody, creationTime, isHidden) VALUES (?, ?, ?, ?, ?)");
+				PreparedStatement answer = conn.prepareStatement("INSERT INTO answers (studentUserName, questionID, answerText, creationTime, isHidden) VALUES (?, ?, ?, ?, ?)");
+				PreparedStatement review = conn.prepareStatement("INSERT INTO reviews (questionID, reviewerUserName, reviewBody, isHidden) VALUES (?, ?, ?, ?)")) {
+			for (int i = 1; i <= 25; i++) {
+				// Insert in reverse time order, with groups of three sharing a creationTime, so ID order and time order differ
+				Timestamp creationTime = Timestamp.valueOf(start.plusMinutes((25 - i) / 3));
+				boolean hidden = i % 5 == 0;
+				question.setString(1, "student" + i);
+				question.setString(2, "Question " + i);
+				question.setString(3, "Body " + i);
+				question.setTimestamp(4, creationTime);
+				question.setBoolean(5, hidden);
+				question.executeUpdate();
+
+				answer.setString(1, "student" + i);
+				answer.setInt(2, i);
+				answer.setString(3, "Answer " + i);
+				answer.setTimestamp(4, creationTime);
+				answer.setBoolean(5, hidden);
+				answer.executeUpdate();
+
+				review.setInt(1, i);
+				review.setString(2, "reviewer");
+				review.setString(3, "Review " + i);
+				review.setBoolean(4, hidden);
+				review.executeUpdate();
+			}
+			conn.createStatement().execute("INSERT INTO questionReplies (questionID, studentUserName, questionReplyText, isHidden) VALUES (1, 'student2', 'Reply to 1', FALSE)");
+		}
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterAll
+	static void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Test that paging through the visible questions returns every one exactly once, in creationTime then ID order.
+	 */
+	@Test
+	void questionsPagesInOrderTest() {
+		List<Question> all = new ArrayList<>();
+		PageCursor cursor = null;
+		int pages = 0;
+		Page<Question> page;
+		do {
+			page = databaseHelper.getQuestionsPage(null, cursor, 4);
+			assertTrue(page.getItems().size() <= 4);
+			all.addAll(page.getItems());
+			cursor = page.getNextCursor();
+			pages++;
+		} while (page.hasMore());
+
+		assertEquals(20, all.size());
+		assertEquals(5, pages);
+		for (int i = 1; i < all.size(); i++) {
+			Question previous = all.get(i - 1);
+			Question current = all.get(i);
+			int byTime = previous.getCreationTime().compareTo(current.getCreationTime());
+			assertTrue(byTime < 0 || (byTime == 0 && previous.getQuestionID() < current.getQuestionID()));
+			assertFalse(current.getIsHidden());
+		}
+	}
+
+	/**
+	 * Test that the EvenHidden variants include hidden rows.
+	 */
+	@Test
+	void evenHiddenIncludesHiddenTest() {
+		assertEquals(25, databaseHelper.getQuestionsPageEvenHidden(null, null, 100).getItems().size());
+		assertEquals(25, databaseHelper.getAnswersPageEvenHidden(null, null, 100).getItems().size());
+		assertEquals(25, databaseHelper.getReviewsPageEvenHidden(null, null, 100).getItems().size());
+		assertFalse(databaseHelper.getReviewsPageEvenHidden(null, null, 100).hasMore());
+	}
+
+	/**
+	 * Test that answers and reviews page without gaps or duplicates.
+	 */
+	@Test
+	void answersAndReviewsPagesTest() {
+		List<Integer> answerIDs = new ArrayList<>();
+		Page<Answer> answers = databaseHelper.getAnswersPage(null, null, 7);
+		answers.getItems().forEach(a -> answerIDs.add(a.getAnswerID()));
+		while (answers.hasMore()) {
+			answers = databaseHelper.getAnswersPage(null, answers.getNextCursor(), 7);
+			answers.getItems().forEach(a -> answerIDs.add(a.getAnswerID()));
+		}
+		assertEquals(20, answerIDs.size());
+		assertEquals(20, answerIDs.stream().distinct().count());
+
+		List<Integer> reviewIDs = new ArrayList<>();
+		Page<Review> reviews = databaseHelper.getReviewsPage(null, null, 6);
+		reviews.getItems().forEach(r -> reviewIDs.add(r.getReviewID()));
+		while (reviews.hasMore()) {
+			reviews = databaseHelper.getReviewsPage(null, reviews.getNextCursor(), 6);
+			reviews.getItems().forEach(r -> reviewIDs.add(r.getReviewID()));
+		}
+		assertEquals(20, reviewIDs.size());
+		for (int i = 1; i < reviewIDs.size(); i++) {
+			assertTrue(reviewIDs.get(i - 1) < reviewIDs.get(i));
+		}
+	}
+
+	/**
+	 * Test that replies are placed directly underneath their parent question without moving the cursor.
+	 */
+	@Test
+	void repliesFollowTheirQuestionTest() {
+		Page<Question> page = databaseHelper.getQuestionsPageEvenHidden(null, null, 100);
+		Page<Question> withReplies = databaseHelper.addRepliesToPage(page, false);
+
+		assertEquals(page.getItems().size() + 1, withReplies.getItems().size());
+		assertSame(page.getNextCursor(), withReplies.getNextCursor());
+		for (int i = 0; i < withReplies.getItems().size(); i++) {
+			Question item = withReplies.getItems().get(i);
+			if (item.getReplyID() > 0) {
+				Question parent = withReplies.getItems().get(i - 1);
+				assertEquals(1, parent.getQuestionID());
+				assertEquals(1, item.getQuestionID());
+			}
+		}
+	}
+
+	/**
+	 * Test that an invalid page size is rejected.
+	 */
+	@Test
+	void invalidPageSizeTest() {
+		assertThrows(IllegalArgumentException.class, () -> databaseHelper.getQuestionsPage(null, null, 0));
+	}
+}
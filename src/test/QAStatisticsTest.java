@@ -0,0 +1,170 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.Answer;
+import application.Question;
+import application.StaffSummaryReportsPage;
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.QAStatistics;
+
+/**
+ * The QAStatisticsTest class performs JUnit testing on QAStatistics.java and on the statistics DatabaseHelper keeps
+ * up to date, using an in-memory H2 database.
+ */
+class QAStatisticsTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:qaStatisticsTest;DB_CLOSE_DELAY=-1";
+
+	private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 3, 3, 12, 0);
+
+	private DatabaseHelper databaseHelper;
+
+	private final User student = new User("student", "Password1!", new boolean[] {false, true, false, false, false}, "student@asu.edu", "Stu", "Dent");
+
+	/**
+	 * Connects to an empty database.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+		databaseHelper.register(student);
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Test that the counts follow questions and answers being added, changed, hidden and removed.
+	 */
+	@Test
+	void countsFollowChangesTest() {
+		QAStatistics statistics = new QAStatistics();
+		statistics.putQuestion(1, false, false, MONDAY);
+		statistics.putQuestion(2, true, false, MONDAY);
+		statistics.putQuestion(3, false, false, MONDAY);
+		statistics.putAnswer(10, 2, false, MONDAY);
+		statistics.putAnswer(11, 1, false, MONDAY);
+		statistics.putAnswer(12, 1, false, MONDAY);
+		assertSummary(statistics, 3, 1, 1, 3, 1.0);
+
+		// Hiding the only answer to a question makes it unanswered again
+		statistics.putAnswer(10, 2, true, MONDAY);
+		assertSummary(statistics, 3, 1, 2, 2, 2.0 / 3);
+
+		statistics.putQuestion(3, true, false, MONDAY);
+		assertSummary(statistics, 3, 2, 2, 2, 2.0 / 3);
+
+		// A hidden question is not counted, but its answers still are
+		statistics.putQuestion(1, false, true, MONDAY);
+		assertSummary(statistics, 2, 2, 2, 2, 0.0);
+		statistics.putQuestion(1, false, false, MONDAY);
+		assertSummary(statistics, 3, 2, 2, 2, 2.0 / 3);
+
+		statistics.removeAnswer(11);
+		statistics.removeQuestion(2);
+		assertSummary(statistics, 2, 1, 1, 1, 0.5);
+	}
+
+	/**
+	 * Test that trends count the questions and answers posted in each period, oldest first.
+	 */
+	@Test
+	void trendTest() {
+		QAStatistics statistics = new QAStatistics();
+		statistics.putQuestion(1, false, false, MONDAY);
+		statistics.putQuestion(2, false, false, MONDAY.plusDays(6));
+		statistics.putQuestion(3, false, false, MONDAY.plusDays(7));
+		statistics.putAnswer(10, 1, false, MONDAY.plusDays(8));
+		statistics.putQuestion(4, false, true, MONDAY.plusDays(8));
+
+		List<QAStatistics.TrendBucket> weeks = statistics.getTrend(ChronoUnit.WEEKS, 3, MONDAY.toLocalDate().plusDays(9));
+		assertEquals(List.of(MONDAY.toLocalDate().minusWeeks(1), MONDAY.toLocalDate(), MONDAY.toLocalDate().plusWeeks(1)),
+				weeks.stream().map(QAStatistics.TrendBucket::getStart).toList());
+		assertEquals(List.of(0, 2, 1), weeks.stream().map(QAStatistics.TrendBucket::getQuestionsAsked).toList());
+		assertEquals(List.of(0, 0, 1), weeks.stream().map(QAStatistics.TrendBucket::getAnswersPosted).toList());
+
+		List<QAStatistics.TrendBucket> days = statistics.getTrend(ChronoUnit.DAYS, 2, MONDAY.toLocalDate().plusDays(7));
+		assertEquals(List.of(1, 1), days.stream().map(QAStatistics.TrendBucket::getQuestionsAsked).toList());
+
+		statistics.removeQuestion(3);
+		assertEquals(1, statistics.getTrend(ChronoUnit.MONTHS, 1, MONDAY.toLocalDate()).get(0).getAnswersPosted());
+		assertEquals(2, statistics.getTrend(ChronoUnit.MONTHS, 1, MONDAY.toLocalDate()).get(0).getQuestionsAsked());
+		assertThrows(IllegalArgumentException.class, () -> statistics.getTrend(ChronoUnit.HOURS, 1, LocalDate.now()));
+	}
+
+	/**
+	 * Test that the statistics kept by DatabaseHelper follow writes made after they were loaded.
+	 */
+	@Test
+	void databaseStatisticsFollowWritesTest() throws SQLException {
+		int firstID = addQuestion("First");
+		assertSummary(databaseHelper.getStatistics(), 1, 0, 1, 0, 0.0);
+
+		int secondID = addQuestion("Second");
+		Answer answer = new Answer(student.getUserName(), "Stu", "Dent", false, "An answer", true, LocalDateTime.now());
+		answer.setAnswerID(databaseHelper.addAnswers("An answer", answer, student, firstID));
+		answer.setQuestionID(firstID);
+		databaseHelper.markQuestionResolved(firstID, new Question());
+		assertSummary(databaseHelper.getStatistics(), 2, 1, 1, 1, 0.5);
+
+		databaseHelper.hideAnswer(answer);
+		assertSummary(databaseHelper.getStatistics(), 2, 1, 2, 0, 0.0);
+
+		databaseHelper.deleteQuestion(secondID);
+		assertSummary(databaseHelper.getStatistics(), 1, 1, 1, 0, 0.0);
+
+		// A change to every row reloads the counts from the tables
+		databaseHelper.hideAllAnswersForMutedUser(student);
+		assertSummary(databaseHelper.getStatistics(), 1, 1, 1, 0, 0.0);
+
+		String report = StaffSummaryReportsPage.buildReport(databaseHelper.getStatistics(), LocalDate.now());
+		assertTrue(report.startsWith("Total Questions: 1\nResolved: 1\nUnresolved: 0\nUnanswered: 1\n"));
+		assertTrue(report.contains("Weekly Activity"));
+	}
+
+	/**
+	 * Adds a question.
+	 *
+	 * @return the generated questionID
+	 */
+	private int addQuestion(String title) throws SQLException {
+		Question question = new Question(-1, student.getUserName(), "Stu", "Dent", title, "Body", false, LocalDateTime.now(), false, "", false);
+		return databaseHelper.addQuestion(title, "Body", question, student);
+	}
+
+	/**
+	 * Asserts every count of the summary.
+	 */
+	private static void assertSummary(QAStatistics statistics, int total, int resolved, int unanswered, int answers, double answersPerQuestion) {
+		QAStatistics.Summary summary = statistics.getSummary();
+		assertEquals(total, summary.getTotalQuestions(), "total questions");
+		assertEquals(resolved, summary.getResolvedQuestions(), "resolved");
+		assertEquals(total - resolved, summary.getUnresolvedQuestions(), "unresolved");
+		assertEquals(unanswered, summary.getUnansweredQuestions(), "unanswered");
+		assertEquals(answers, summary.getTotalAnswers(), "answers");
+		assertEquals(answersPerQuestion, summary.getAnswersPerQuestion(), 1e-9, "answers per question");
+	}
+}
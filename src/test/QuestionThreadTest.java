@@ -0,0 +1,138 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.Answer;
+import application.Question;
+import application.QuestionThread;
+import application.Review;
+import application.User;
+import databasePart1.DatabaseHelper;
+
+/**
+ * The QuestionThreadTest class performs JUnit testing on QuestionThread.java and on
+ * DatabaseHelper.getQuestionThreads(), using an in-memory H2 database.
+ */
+class QuestionThreadTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:questionThreadTest;DB_CLOSE_DELAY=-1";
+
+	private DatabaseHelper databaseHelper;
+
+	private final User student = new User("student", "Password1!", new boolean[] {false, true, false, false, false}, "student@asu.edu", "Stu", "Dent");
+
+	/**
+	 * Connects to an empty database.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+		databaseHelper.register(student);
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * @return a question with the specified questionID
+	 */
+	private static Question question(int questionID, String title) {
+		return new Question(questionID, "student", "Stu", "Dent", title, "Body", false, LocalDateTime.now());
+	}
+
+	/**
+	 * @return a reply with the specified replyID to the specified question
+	 */
+	private static Question reply(int replyID, int questionID, String text) {
+		return new Question(replyID, questionID, "student", "Ann", "Lee", text, "Stu Dent");
+	}
+
+	/**
+	 * Test that replies, answers and reviews are grouped under their question, in the order of the questions, and that
+	 * rows of questions not in the list are left out.
+	 */
+	@Test
+	void buildGroupsRowsByQuestionTest() {
+		Question first = question(1, "First");
+		Question second = question(2, "Second");
+		Answer answer = new Answer(10, 2, "student", "Stu", "Dent", "An answer", false, false, LocalDateTime.now());
+		Review review = new Review(2, 10, -1, 20, "A review", "reviewer", "Rev", "Iewer", false, "", false);
+		Review orphanReview = new Review(3, 11, -1, 21, "Other", "reviewer", "Rev", "Iewer", false, "", false);
+
+		List<QuestionThread> threads = QuestionThread.build(List.of(second, first), List.of(reply(5, 1, "a"), reply(6, 2, "b"), reply(7, 1, "c"), reply(8, 3, "orphan")),
+				List.of(answer), List.of(review, orphanReview));
+
+		assertEquals(List.of(second, first), threads.stream().map(QuestionThread::getQuestion).toList());
+		assertEquals(List.of(6), threads.get(0).getReplies().stream().map(Question::getReplyID).toList());
+		assertEquals(List.of(5, 7), threads.get(1).getReplies().stream().map(Question::getReplyID).toList());
+		assertEquals(List.of(answer), threads.get(0).getAnswers());
+		assertEquals(List.of(review), threads.get(0).getReviews(10));
+		assertTrue(threads.get(1).getReviews(10).isEmpty());
+
+		assertEquals(List.of(2, 6, 1, 5, 7), QuestionThread.toQuestionsAndReplies(threads).stream()
+				.map(q -> q.getReplyID() != -1 ? q.getReplyID() : q.getQuestionID()).toList());
+	}
+
+	/**
+	 * Test that replies mixed into the list of questions are placed under their question.
+	 */
+	@Test
+	void buildMovesRepliesAmongQuestionsTest() {
+		List<QuestionThread> threads = QuestionThread.build(List.of(reply(5, 1, "early"), question(1, "First")), List.of(reply(6, 1, "late")));
+		assertEquals(1, threads.size());
+		assertEquals(List.of(5, 6), threads.get(0).getReplies().stream().map(Question::getReplyID).toList());
+	}
+
+	/**
+	 * Test that a matching question keeps all of its replies, while a thread matched only by replies keeps just those.
+	 */
+	@Test
+	void keywordKeepsMatchingThreadsTest() {
+		List<QuestionThread> threads = QuestionThread.build(List.of(question(1, "Recursion"), question(2, "Sorting"), question(3, "Graphs")),
+				List.of(reply(5, 1, "base case"), reply(6, 2, "see recursion"), reply(7, 2, "merge sort")));
+
+		assertEquals(List.of(1, 5, 2, 6), QuestionThread.toQuestionsAndRepliesContaining(threads, "RECURSION").stream()
+				.map(q -> q.getReplyID() != -1 ? q.getReplyID() : q.getQuestionID()).toList());
+	}
+
+	/**
+	 * Test that getQuestionThreads reads every table and respects hidden rows.
+	 */
+	@Test
+	void getQuestionThreadsTest() throws SQLException {
+		Question question = new Question(-1, student.getUserName(), "Stu", "Dent", "Title", "Body", false, LocalDateTime.now(), false, "", false);
+		int questionID = databaseHelper.addQuestion("Title", "Body", question, student);
+		Answer answer = new Answer(student.getUserName(), "Stu", "Dent", false, "An answer", true, LocalDateTime.now());
+		answer.setAnswerID(databaseHelper.addAnswers("An answer", answer, student, questionID));
+		int reviewID = databaseHelper.addReview("rev", "Re", "Viewer", "Looks good", questionID, answer.getAnswerID(), -1);
+
+		List<QuestionThread> threads = databaseHelper.getQuestionThreads(false);
+		assertEquals(1, threads.size());
+		assertEquals(questionID, threads.get(0).getQuestion().getQuestionID());
+		assertEquals(answer.getAnswerID(), threads.get(0).getAnswers().get(0).getAnswerID());
+		assertEquals(reviewID, threads.get(0).getReviews(answer.getAnswerID()).get(0).getReviewID());
+
+		databaseHelper.hideAnswer(answer);
+		assertTrue(databaseHelper.getQuestionThreads(false).get(0).getAnswers().isEmpty());
+		assertEquals(1, databaseHelper.getQuestionThreads(true).get(0).getAnswers().size());
+	}
+}
@@ -0,0 +1,236 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.Answer;
+import application.Question;
+import application.ReviewerMessage;
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.ReviewerScorecards;
+
+/**
+ * The ReviewerScorecardsTest class performs JUnit testing on ReviewerScorecards.java and on the scorecards
+ * DatabaseHelper keeps up to date, using an in-memory H2 database.
+ */
+class ReviewerScorecardsTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:reviewerScorecardsTest;DB_CLOSE_DELAY=-1";
+
+	private DatabaseHelper databaseHelper;
+
+	private final User student = new User("student", "Password1!", new boolean[] {false, true, false, false, false}, "student@asu.edu", "Stu", "Dent");
+
+	private final User reviewer = new User("reviewer", "Password1!", new boolean[] {false, true, true, false, false}, "reviewer@asu.edu", "Rev", "Iewer");
+
+	/**
+	 * An ActivitySource over fixed inputs which records the reviewers whose inputs were loaded and how often the list
+	 * of reviewers was read.
+	 */
+	private static class FixedSource implements ReviewerScorecards.ActivitySource {
+		final Set<String> reviewers;
+		final Map<String, ReviewerScorecards.ReviewerActivity> activities = new HashMap<>();
+		final List<Set<String>> loads = new ArrayList<>();
+		int reviewerLoads;
+
+		FixedSource(Set<String> reviewers) {
+			this.reviewers = reviewers;
+		}
+
+		@Override
+		public Set<String> loadReviewerUserNames() {
+			reviewerLoads++;
+			return reviewers;
+		}
+
+		@Override
+		public Set<String> loadReviewAuthorUserNames() {
+			return activities.keySet();
+		}
+
+		@Override
+		public Map<String, ReviewerScorecards.ReviewerActivity> loadActivity(Set<String> reviewerUserNames) {
+			loads.add(reviewerUserNames);
+			return activities;
+		}
+	}
+
+	/**
+	 * Connects to an empty database.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+		databaseHelper.register(student);
+		databaseHelper.register(reviewer);
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Test that the score combines resolved answers, trust and feedback, less the share of flagged reviews.
+	 */
+	@Test
+	void scoreTest() throws SQLException {
+		FixedSource source = new FixedSource(Set.of("ann", "bob"));
+		ReviewerScorecards.ReviewerActivity ann = new ReviewerScorecards.ReviewerActivity();
+		ann.addReview(1, 10, true, false, false);
+		ann.addReview(2, 11, false, false, false);
+		ann.addTrust(10);
+		ann.addTrust(6);
+		ann.addFeedback(100);
+		source.activities.put("ann", ann);
+		ReviewerScorecards.ReviewerActivity bob = new ReviewerScorecards.ReviewerActivity();
+		bob.addReview(3, 10, true, false, true);
+		bob.addReview(4, 12, true, true, false);
+		source.activities.put("bob", bob);
+
+		List<ReviewerScorecards.Scorecard> scorecards = new ReviewerScorecards().refresh(source);
+		assertEquals(List.of("ann", "bob"), scorecards.stream().map(ReviewerScorecards.Scorecard::getReviewerUserName).toList());
+
+		ReviewerScorecards.Scorecard first = scorecards.get(0);
+		assertEquals(2, first.getTotalReviews());
+		assertEquals(1, first.getHelpfulReviews());
+		assertEquals(2, first.getTrustedBy());
+		assertEquals(8.0, first.getMeanTrustWeight(), 1e-9);
+		assertEquals(100 * (0.5 * 0.5 + 0.3 * 0.8 + 0.2 * 0.5), first.getScore(), 1e-9);
+
+		// Both of bob's reviews were flagged or hidden, which takes away the whole score
+		ReviewerScorecards.Scorecard second = scorecards.get(1);
+		assertEquals(1, second.getTotalReviews());
+		assertEquals(2, second.getFlaggedReviews());
+		assertEquals(0.0, second.getScore(), 1e-9);
+	}
+
+	/**
+	 * Test that a refresh loads only the reviewers marked as changed, found through their reviews, answers, feedback
+	 * messages and roles, drops users who are no longer reviewers, and reads the list of reviewers only after
+	 * markAllChanged().
+	 */
+	@Test
+	void refreshIsIncrementalTest() throws SQLException {
+		FixedSource source = new FixedSource(Set.of("ann", "bob", "cy"));
+		ReviewerScorecards.ReviewerActivity ann = new ReviewerScorecards.ReviewerActivity();
+		ann.addReview(1, 10, false, false, false);
+		ann.addFeedback(100);
+		source.activities.put("ann", ann);
+		ReviewerScorecards.ReviewerActivity bob = new ReviewerScorecards.ReviewerActivity();
+		bob.addReview(2, 10, false, false, false);
+		source.activities.put("bob", bob);
+
+		ReviewerScorecards scorecards = new ReviewerScorecards();
+		scorecards.refresh(source);
+		assertEquals(Set.of("ann", "bob", "cy"), source.loads.get(0));
+
+		scorecards.refresh(source);
+		assertEquals(1, source.loads.size(), "nothing changed, so nothing is loaded");
+
+		scorecards.markReviewChanged(2);
+		scorecards.refresh(source);
+		assertEquals(Set.of("bob"), source.loads.get(1));
+
+		scorecards.markFeedbackChanged(100);
+		scorecards.refresh(source);
+		assertEquals(Set.of("ann"), source.loads.get(2));
+
+		scorecards.markAnswerChanged(10);
+		scorecards.markReviewerChanged("cy");
+		scorecards.refresh(source);
+		assertEquals(Set.of("ann", "bob", "cy"), source.loads.get(3));
+
+		// Role changes are applied without reading the list of reviewers; bob keeps his scorecard for his review
+		scorecards.setReviewerRole("dee", true);
+		scorecards.setReviewerRole("bob", false);
+		scorecards.setReviewerRole("cy", false);
+		scorecards.setReviewerRole("ann", true);
+		List<ReviewerScorecards.Scorecard> refreshed = scorecards.refresh(source);
+		assertEquals(Set.of("bob", "cy", "dee"), source.loads.get(4));
+		assertNull(scorecards.getScorecard("cy"));
+		assertEquals(3, refreshed.size());
+		assertEquals(1, source.reviewerLoads);
+
+		// Once bob's review is gone he is no longer a reviewer
+		source.activities.remove("bob");
+		scorecards.markReviewChanged(2);
+		scorecards.refresh(source);
+		assertNull(scorecards.getScorecard("bob"));
+
+		scorecards.markAllChanged();
+		FixedSource reread = new FixedSource(Set.of("ann", "eve"));
+		refreshed = scorecards.refresh(reread);
+		assertEquals(Set.of("ann", "eve"), reread.loads.get(0));
+		assertEquals(List.of("ann", "eve"), refreshed.stream().map(ReviewerScorecards.Scorecard::getReviewerUserName).sorted().toList());
+	}
+
+	/**
+	 * Test that the scorecards kept by DatabaseHelper follow reviews, resolved answers, trust and feedback written
+	 * after they were computed.
+	 */
+	@Test
+	void databaseScorecardsFollowWritesTest() throws SQLException {
+		assertEquals(0, scorecard().getTotalReviews());
+
+		Question question = new Question(-1, student.getUserName(), "Stu", "Dent", "Title", "Body", false, LocalDateTime.now(), false, "", false);
+		int questionID = databaseHelper.addQuestion("Title", "Body", question, student);
+		Answer answer = new Answer(student.getUserName(), "Stu", "Dent", false, "An answer", true, LocalDateTime.now());
+		answer.setAnswerID(databaseHelper.addAnswers("An answer", answer, student, questionID));
+		int reviewID = databaseHelper.addReview(reviewer.getUserName(), "Rev", "Iewer", "Looks good", questionID, answer.getAnswerID(), -1);
+		assertEquals(1, scorecard().getTotalReviews());
+		assertEquals(0, scorecard().getHelpfulReviews());
+
+		databaseHelper.markAnswerResolved(answer.getAnswerID(), answer);
+		assertEquals(1, scorecard().getHelpfulReviews());
+
+		databaseHelper.addTrustedReviewer(student, 5, reviewer.getUserName());
+		assertEquals(1, scorecard().getTrustedBy());
+		databaseHelper.assignTrustedReviewerWeight(student, 10, reviewer.getUserName());
+		assertEquals(10.0, scorecard().getMeanTrustWeight(), 1e-9);
+
+		int messageID = databaseHelper.saveReviewerMessage(new ReviewerMessage(-1, student.getUserName(), reviewer.getUserName(), "Reviewer", "Thanks",
+				"Helpful review", LocalDateTime.now(), false, reviewID));
+		assertEquals(1, scorecard().getFeedbackMessages());
+		assertEquals(100.0, scorecard().getScore(), 1e-9);
+
+		databaseHelper.deleteReviewerMessage(messageID);
+		assertEquals(0, scorecard().getFeedbackMessages());
+		databaseHelper.deleteReview(reviewID);
+		assertEquals(0, scorecard().getTotalReviews());
+
+		// The student gains a scorecard with the Reviewer role, and the reviewer loses theirs without it
+		databaseHelper.setUserRoles(student, new boolean[] {false, true, true, false, false});
+		databaseHelper.setUserRoles(reviewer, new boolean[] {false, true, false, false, false});
+		assertEquals(List.of(student.getUserName()),
+				databaseHelper.getReviewerScorecards().stream().map(ReviewerScorecards.Scorecard::getReviewerUserName).toList());
+	}
+
+	/**
+	 * @return the reviewer's scorecard from DatabaseHelper
+	 */
+	private ReviewerScorecards.Scorecard scorecard() {
+		return databaseHelper.getReviewerScorecards().stream().filter(s -> s.getReviewerUserName().equals(reviewer.getUserName())).findFirst().orElseThrow();
+	}
+}
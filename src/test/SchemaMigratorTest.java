@@ -0,0 +1,193 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import application.Role;
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.Migration;
+import databasePart1.SchemaMigrator;
+
+/**
+ * The SchemaMigratorTest class performs JUnit testing on SchemaMigrator.java and the migrations it applies, using
+ * in-memory H2 databases.
+ */
+class SchemaMigratorTest {
+
+	/**
+	 * Checks whether an index with the specified name exists.
+	 *
+	 * @param conn the connection to inspect
+	 * @param indexName the index name
+	 * @return true if the index exists
+	 * @throws SQLException if the information schema cannot be read
+	 */
+	private boolean indexExists(Connection conn, String indexName) throws SQLException {
+		try (PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE UPPER(INDEX_NAME) = UPPER(?)")) {
+			pstmt.setString(1, indexName);
+			try (ResultSet rs = pstmt.executeQuery()) {
+				rs.next();
+				return rs.getInt(1) > 0;
+			}
+		}
+	}
+
+	/**
+	 * Test that connecting a DatabaseHelper brings a new database to the latest version with the lookup indexes.
+	 */
+	@Test
+	void connectMigratesToLatestTest() throws SQLException {
+		String url = "jdbc:h2:mem:schemaMigratorLatest;DB_CLOSE_DELAY=-1";
+		DatabaseHelper databaseHelper = new DatabaseHelper(url);
+		databaseHelper.connectToDatabase();
+		try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+			SchemaMigrator migrator = new SchemaMigrator(conn);
+			assertEquals(migrator.getLatestVersion(), migrator.getCurrentVersion());
+			assertTrue(indexExists(conn, "idx_answers_question"));
+			assertTrue(indexExists(conn, "idx_privateMessages_receiver"));
+			assertTrue(indexExists(conn, "idx_trustedReviewers_pair"));
+			assertFalse(indexExists(conn, "idx_trustedReviewers_dedupe"));
+
+			// Running again is a no-op
+			assertTrue(migrator.migrate().isEmpty());
+		}
+		finally {
+			databaseHelper.closeConnection();
+		}
+	}
+
+	/**
+	 * Test that migrations are applied in order, only once, and only up to the target version.
+	 */
+	@Test
+	void appliesInOrderUpToTargetTest() throws SQLException {
+		try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:schemaMigratorOrder", "sa", "")) {
+			List<Integer> applied = new ArrayList<>();
+			List<Migration> migrations = List.of(
+					new Migration(1, "first", statement -> applied.add(1)),
+					new Migration(2, "second", statement -> applied.add(2)),
+					new Migration(5, "third", statement -> applied.add(5)));
+			SchemaMigrator migrator = new SchemaMigrator(conn, migrations);
+
+			assertEquals(2, migrator.migrate(2).size());
+			assertEquals(2, migrator.getCurrentVersion());
+			assertEquals(1, migrator.migrate().size());
+			assertEquals(List.of(1, 2, 5), applied);
+			assertEquals(5, migrator.getCurrentVersion());
+		}
+	}
+
+	/**
+	 * Test that out of order migrations are rejected.
+	 */
+	@Test
+	void rejectsUnorderedMigrationsTest() throws SQLException {
+		try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:schemaMigratorUnordered", "sa", "")) {
+			List<Migration> migrations = List.of(new Migration(2, "second"), new Migration(1, "first"));
+			assertThrows(IllegalArgumentException.class, () -> new SchemaMigrator(conn, migrations));
+		}
+	}
+
+	/**
+	 * Test that the trusted reviewer migration removes duplicate pairs before adding the unique index, and that
+	 * adding the same trusted reviewer twice afterwards updates the weight instead of failing.
+	 */
+	@Test
+	void trustedReviewersDedupeTest() throws SQLException {
+		String url = "jdbc:h2:mem:schemaMigratorDedupe;DB_CLOSE_DELAY=-1";
+		try (Connection conn = DriverManager.getConnection(url, "sa", ""); Statement stmt = conn.createStatement()) {
+			stmt.execute("CREATE TABLE trustedReviewers (studentUserName VARCHAR(255), reviewerUserName VARCHAR(255), weight INT)");
+			stmt.execute("INSERT INTO trustedReviewers VALUES ('alice', 'rev1', 3), ('alice', 'rev1', 7), ('alice', 'rev2', 1), ('bob', 'rev1', 2)");
+
+			Migration trustedReviewers = SchemaMigrator.MIGRATIONS.stream()
+					.filter(migration -> migration.getDescription().contains("trusted reviewer")).findFirst().get();
+			new SchemaMigrator(conn, List.of(trustedReviewers)).migrate();
+
+			try (ResultSet rs = stmt.executeQuery("SELECT weight FROM trustedReviewers WHERE studentUserName = 'alice' AND reviewerUserName = 'rev1'")) {
+				assertTrue(rs.next());
+				assertEquals(3, rs.getInt(1));
+				assertFalse(rs.next());
+			}
+			assertThrows(SQLException.class, () -> stmt.execute("INSERT INTO trustedReviewers VALUES ('bob', 'rev1', 9)"));
+		}
+
+		DatabaseHelper databaseHelper = new DatabaseHelper(url);
+		databaseHelper.connectToDatabase();
+		try {
+			User alice = new User("alice", "Password1!", new boolean[] {false, true, false, false, false}, "alice@asu.edu", "Alice", "A");
+			databaseHelper.addTrustedReviewer(alice, 9, "rev1");
+			ArrayList<String> reviewers = databaseHelper.getTrustedReviewers(alice);
+			assertEquals(2, reviewers.size());
+			assertTrue(reviewers.contains("rev1 9"));
+		}
+		finally {
+			databaseHelper.closeConnection();
+		}
+	}
+
+	/**
+	 * Test that the role bitmask migration fills roleMask for existing users, that roleMask follows every later change
+	 * to the role text, and that the role filtered user lookups read it.
+	 */
+	@Test
+	void roleMaskFollowsRoleTextTest() throws SQLException {
+		String url = "jdbc:h2:mem:schemaMigratorRoleMask;DB_CLOSE_DELAY=-1";
+		try (Connection conn = DriverManager.getConnection(url, "sa", ""); Statement stmt = conn.createStatement()) {
+			stmt.execute("CREATE TABLE cse360users (id INT AUTO_INCREMENT PRIMARY KEY, userName VARCHAR(255) UNIQUE, password VARCHAR(255), "
+					+ "firstName VARCHAR(255), lastName VARCHAR (255), email VARCHAR(255), role VARCHAR(255), isMuted BOOLEAN DEFAULT FALSE)");
+			stmt.execute("INSERT INTO cse360users (userName, role) VALUES ('admin', '[true, false, false, false, false]'), "
+					+ "('both', '[false, true, true, false, false]'), ('staff', '[false, false, false, false, true]')");
+
+			Migration roleMask = SchemaMigrator.MIGRATIONS.stream().filter(migration -> migration.getDescription().contains("role bitmask")).findFirst().get();
+			new SchemaMigrator(conn, List.of(roleMask)).migrate();
+			assertTrue(indexExists(conn, "idx_users_roleMask"));
+			try (ResultSet rs = stmt.executeQuery("SELECT roleMask FROM cse360users ORDER BY id")) {
+				List<Integer> masks = new ArrayList<>();
+				while (rs.next()) {
+					masks.add(rs.getInt(1));
+				}
+				assertEquals(List.of(1, 6, 16), masks);
+			}
+		}
+
+		DatabaseHelper databaseHelper = new DatabaseHelper(url);
+		databaseHelper.connectToDatabase();
+		try {
+			User instructor = new User("instructor", "Password1!", new boolean[] {false, false, false, true, false}, "i@asu.edu", "In", "Structor");
+			databaseHelper.register(instructor);
+			assertEquals(List.of("staff", "instructor"), databaseHelper.getUsersWithAnyRole(EnumSet.of(Role.STAFF, Role.INSTRUCTOR)).stream()
+					.map(User::getUserName).toList());
+			assertEquals(List.of("staff"), databaseHelper.getStaffAndInstructorUsers(instructor).stream().map(User::getUserName).toList());
+
+			databaseHelper.setUserRoles(new User("admin", null, "", "", ""), new boolean[] {true, false, true, false, false});
+			List<User> reviewers = databaseHelper.getUsersWithAnyRole(EnumSet.of(Role.REVIEWER));
+			assertEquals(List.of("admin", "both"), reviewers.stream().map(User::getUserName).toList());
+			assertArrayEquals(new boolean[] {true, false, true, false, false}, reviewers.get(0).getRole());
+			assertEquals(2, databaseHelper.getStudentAndReviewerUsers().size());
+
+			databaseHelper.unmuteUser("both");
+			assertTrue(databaseHelper.getMutedUsersByRole("Student").isEmpty());
+			try (Connection conn = DriverManager.getConnection(url, "sa", ""); Statement stmt = conn.createStatement()) {
+				stmt.execute("UPDATE cse360users SET isMuted = TRUE WHERE userName = 'both'");
+			}
+			assertEquals(List.of("both"), databaseHelper.getMutedUsersByRole("Student"));
+			assertEquals(List.of("both"), databaseHelper.getMutedUsersByRole("reviewer"));
+			assertTrue(databaseHelper.getMutedUsersByRole("Nobody").isEmpty());
+		}
+		finally {
+			databaseHelper.closeConnection();
+		}
+	}
+}
@@ -0,0 +1,186 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.Answer;
+import application.Question;
+import application.User;
+import databasePart1.ChangeEvent;
+import databasePart1.DatabaseHelper;
+import databasePart1.SearchIndex;
+
+/**
+ * The SearchIndexTest class performs JUnit testing on SearchIndex.java and on the keyword search of
+ * DatabaseHelper.java, using an in-memory H2 database.
+ */
+class SearchIndexTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:searchIndexTest;DB_CLOSE_DELAY=-1";
+
+	private static final Set<ChangeEvent.Entity> QUESTIONS = EnumSet.of(ChangeEvent.Entity.QUESTION, ChangeEvent.Entity.REPLY);
+
+	private DatabaseHelper databaseHelper;
+
+	private final User student = new User("student", "Password1!", new boolean[] {false, true, false, false, false}, "student@asu.edu", "Stu", "Dent");
+
+	/**
+	 * Connects to an empty database.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+		databaseHelper.register(student);
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Adds a question.
+	 *
+	 * @return the generated questionID
+	 */
+	private int addQuestion(String title, String body) throws SQLException {
+		Question question = new Question(-1, student.getUserName(), "Stu", "Dent", title, body, false, LocalDateTime.now(), false, "", false);
+		return databaseHelper.addQuestion(title, body, question, student);
+	}
+
+	/**
+	 * Test that every query word must start a word of the post, and that the last word may be incomplete.
+	 */
+	@Test
+	void prefixMatchingTest() {
+		SearchIndex index = new SearchIndex();
+		index.put(ChangeEvent.Entity.QUESTION, 1, 1, "Recursion help", "How does recursive descent parsing work?", "Stu", "Dent");
+		index.put(ChangeEvent.Entity.QUESTION, 2, 2, "Sorting", "Merge sort versus quick sort", "Ann", "Lee");
+		index.put(ChangeEvent.Entity.ANSWER, 3, 1, null, "Recursion calls itself", "Ann", "Lee");
+
+		assertEquals(List.of(1), ids(index.search("recurs", QUESTIONS)));
+		assertEquals(List.of(1), ids(index.search("RECURSIVE pars", QUESTIONS)));
+		assertEquals(List.of(), ids(index.search("recursion sort", QUESTIONS)));
+		assertEquals(List.of(), ids(index.search("cursion", QUESTIONS)));
+		assertEquals(List.of(), ids(index.search("  ?! ", QUESTIONS)));
+		assertEquals(List.of(3), ids(index.search("ann recursion", EnumSet.of(ChangeEvent.Entity.ANSWER))));
+	}
+
+	/**
+	 * Test that title words outrank author names, which outrank body words.
+	 */
+	@Test
+	void rankingTest() {
+		SearchIndex index = new SearchIndex();
+		index.put(ChangeEvent.Entity.QUESTION, 1, 1, "Other", "A question about java", "Stu", "Dent");
+		index.put(ChangeEvent.Entity.QUESTION, 2, 2, "Java streams", "Mapping lists", "Stu", "Dent");
+		index.put(ChangeEvent.Entity.QUESTION, 3, 3, "Other", "Nothing", "Java", "Dent");
+		index.put(ChangeEvent.Entity.QUESTION, 4, 4, "Other", "Nothing", "Stu", "Dent");
+
+		assertEquals(List.of(2, 3, 1), ids(index.search("java", QUESTIONS)));
+	}
+
+	/**
+	 * Test that replacing and removing a post updates the index.
+	 */
+	@Test
+	void updateAndRemoveTest() {
+		SearchIndex index = new SearchIndex();
+		index.put(ChangeEvent.Entity.REVIEW, 7, 1, null, "Needs more detail", "Rev", "Iewer");
+		index.put(ChangeEvent.Entity.REVIEW, 7, 1, null, "Looks complete", "Rev", "Iewer");
+		Set<ChangeEvent.Entity> reviews = EnumSet.of(ChangeEvent.Entity.REVIEW);
+
+		assertEquals(1, index.size());
+		assertEquals(List.of(), ids(index.search("detail", reviews)));
+		assertEquals(List.of(7), ids(index.search("complete", reviews)));
+
+		index.remove(ChangeEvent.Entity.REVIEW, 7);
+		assertEquals(0, index.size());
+		assertEquals(List.of(), ids(index.search("complete", reviews)));
+	}
+
+	/**
+	 * Test that highlight returns the ranges of the matching words.
+	 */
+	@Test
+	void highlightTest() {
+		List<int[]> ranges = SearchIndex.highlight("Is Java's JVM fast?", "jav fast");
+		assertEquals(2, ranges.size());
+		assertArrayEquals(new int[] {3, 7}, ranges.get(0));
+		assertArrayEquals(new int[] {14, 18}, ranges.get(1));
+		assertTrue(SearchIndex.highlight("Anything", "").isEmpty());
+		assertEquals(1, SearchIndex.highlight("Ask Johnson", "jonson").size());
+	}
+
+	/**
+	 * Test that fuzzySearch finds misspelled titles, bodies and names, best match first and at most limit posts.
+	 */
+	@Test
+	void fuzzySearchTest() {
+		SearchIndex index = new SearchIndex();
+		index.put(ChangeEvent.Entity.QUESTION, 1, 1, "Recursion help", "Base case never reached", "Stu", "Dent");
+		index.put(ChangeEvent.Entity.QUESTION, 2, 2, "Sorting", "Merge sort versus quick sort", "Ann", "Johnson");
+		index.put(ChangeEvent.Entity.QUESTION, 3, 3, "Recurrence relations", "Solving them", "Ann", "Lee");
+
+		assertEquals(List.of(), ids(index.search("recusion", QUESTIONS)));
+		assertEquals(1, ids(index.fuzzySearch("recusion", QUESTIONS, 10)).get(0));
+		assertEquals(List.of(2), ids(index.fuzzySearch("jonson", QUESTIONS, 10)));
+		assertEquals(List.of(2), ids(index.fuzzySearch("marge sortt", QUESTIONS, 10)));
+		assertEquals(List.of(), ids(index.fuzzySearch("xyzzy", QUESTIONS, 10)));
+		assertEquals(1, index.fuzzySearch("ann", QUESTIONS, 1).size());
+
+		// Removing the only post with a word also forgets the word's trigrams
+		index.remove(ChangeEvent.Entity.QUESTION, 2);
+		assertEquals(List.of(), ids(index.fuzzySearch("jonson", QUESTIONS, 10)));
+	}
+
+	/**
+	 * Test that DatabaseHelper.search reflects posts added, edited and deleted after the index was loaded.
+	 */
+	@Test
+	void databaseSearchFollowsChangesTest() throws SQLException {
+		int existingID = addQuestion("Binary trees", "How do I balance one?");
+		assertEquals(List.of(existingID), ids(databaseHelper.search("balanc", QUESTIONS)));
+
+		int addedID = addQuestion("Hash maps", "When do they resize?");
+		assertEquals(List.of(addedID), ids(databaseHelper.search("resize", QUESTIONS)));
+
+		databaseHelper.editQuestion("Hash tables", "What is the load factor?", addedID);
+		assertEquals(List.of(), ids(databaseHelper.search("resize", QUESTIONS)));
+		assertEquals(List.of(addedID), ids(databaseHelper.search("load factor", QUESTIONS)));
+
+		Answer answer = new Answer(student.getUserName(), "Stu", "Dent", false, "Rotate the tree", true, LocalDateTime.now());
+		int answerID = databaseHelper.addAnswers("Rotate the tree", answer, student, existingID);
+		List<SearchIndex.Hit> hits = databaseHelper.search("rotate", EnumSet.of(ChangeEvent.Entity.ANSWER));
+		assertEquals(List.of(answerID), ids(hits));
+		assertEquals(existingID, hits.get(0).getQuestionID());
+
+		databaseHelper.deleteQuestion(existingID);
+		assertEquals(List.of(), ids(databaseHelper.search("binary", QUESTIONS)));
+	}
+
+	/**
+	 * @return the IDs of the hits in order
+	 */
+	private static List<Integer> ids(List<SearchIndex.Hit> hits) {
+		return hits.stream().map(SearchIndex.Hit::getId).toList();
+	}
+}
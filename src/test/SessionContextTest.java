@@ -0,0 +1,124 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.Role;
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.SessionContext;
+
+/**
+ * The SessionContextTest class performs JUnit testing on SessionContext.java and on the DatabaseHelper methods which
+ * answer for the logged in user from it, using an in-memory H2 database.
+ */
+class SessionContextTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:sessionContextTest;DB_CLOSE_DELAY=-1";
+
+	private DatabaseHelper databaseHelper;
+
+	private final User student = new User("student", "Password1!", new boolean[] {false, true, false, false, false}, "student@asu.edu", "Stu", "Dent");
+
+	private final User other = new User("other", "Password1!", new boolean[] {false, true, false, false, false}, "other@asu.edu", "Oth", "Er");
+
+	/**
+	 * Connects to an empty database with two students.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+		databaseHelper.register(student);
+		databaseHelper.register(other);
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Changes a user's row without going through DatabaseHelper, so no event is published.
+	 */
+	private void updateBehindTheHelper(String sqlUpdate) throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", ""); Statement stmt = conn.createStatement()) {
+			stmt.execute(sqlUpdate);
+		}
+	}
+
+	/**
+	 * Test that role arrays and role sets convert into each other.
+	 */
+	@Test
+	void roleConversionTest() {
+		assertEquals(EnumSet.of(Role.STUDENT, Role.STAFF), Role.fromArray(new boolean[] {false, true, false, false, true}));
+		assertEquals(EnumSet.of(Role.ADMIN), Role.fromArray(new boolean[] {true}));
+		assertTrue(Role.fromArray(null).isEmpty());
+		assertArrayEquals(new boolean[] {false, false, true, true, false}, Role.toArray(EnumSet.of(Role.REVIEWER, Role.INSTRUCTOR)));
+	}
+
+	/**
+	 * Test that the logged in user's mute state, roles and profile are read from the database on every call, so a
+	 * change made behind the helper is seen at once, while their userID is read once and kept.
+	 */
+	@Test
+	void onlyUserIDIsCachedTest() throws SQLException {
+		SessionContext session = databaseHelper.openSession("student");
+		assertSame(session, databaseHelper.getSession());
+		assertEquals(EnumSet.of(Role.STUDENT), session.getRoles());
+		assertFalse(databaseHelper.checkIfUserMuted(student));
+		int userID = databaseHelper.getUserID(student);
+		assertTrue(userID > 0);
+
+		// A change the session has not been told about is seen at once
+		updateBehindTheHelper("UPDATE cse360users SET isMuted = TRUE, email = 'new@asu.edu' WHERE userName = 'student'");
+		assertTrue(databaseHelper.checkIfUserMuted(student));
+		assertTrue(session.isMuted());
+		assertEquals("new@asu.edu", databaseHelper.getUserInfo("student").getEmail());
+		assertEquals("new@asu.edu", session.getUser().getEmail());
+		assertFalse(databaseHelper.checkIfUserMuted(other));
+
+		updateBehindTheHelper("UPDATE cse360users SET role = '[false, true, true, false, false]', isMuted = FALSE WHERE userName = 'student'");
+		assertTrue(session.hasRole(Role.REVIEWER));
+		assertArrayEquals(new boolean[] {false, true, true, false, false}, databaseHelper.getUserRole("student"));
+		assertFalse(databaseHelper.checkIfUserMuted(student));
+		assertEquals(userID, databaseHelper.getUserID(student));
+	}
+
+	/**
+	 * Test that the userID is kept until the user is deleted through the helper or the session is closed.
+	 */
+	@Test
+	void userIDIsKeptUntilUserChangesTest() throws SQLException {
+		databaseHelper.openSession("student");
+		int userID = databaseHelper.getUserID(student);
+		updateBehindTheHelper("UPDATE cse360users SET userName = 'renamed' WHERE userName = 'student'");
+		assertEquals(userID, databaseHelper.getUserID(student));
+
+		databaseHelper.closeSession();
+		assertNull(databaseHelper.getSession());
+		assertEquals(-1, databaseHelper.getUserID(student));
+
+		updateBehindTheHelper("UPDATE cse360users SET userName = 'student' WHERE userName = 'renamed'");
+		SessionContext session = databaseHelper.openSession("student");
+		assertEquals(userID, databaseHelper.getUserID(student));
+		databaseHelper.deleteUser(student);
+		assertEquals(-1, session.getUserID());
+	}
+}
@@ -0,0 +1,173 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import databasePart1.ConnectionPool;
+import databasePart1.PoolConfig;
+import databasePart1.PoolMetrics;
+
+/**
+ * The StatementCacheTest class performs JUnit testing on the prepared statement cache kept by ConnectionPool.java
+ * for each physical connection, using an in-memory H2 database.
+ */
+class StatementCacheTest {
+
+	/**
+	 * In-memory database kept alive until the JVM exits
+	 */
+	private static final String TEST_DB_URL = "jdbc:h2:mem:statementCacheTest;DB_CLOSE_DELAY=-1";
+
+	/**
+	 * Pool under test, closed after every test
+	 */
+	private ConnectionPool pool;
+
+	/**
+	 * Closes the pool created by the test.
+	 */
+	@AfterEach
+	void tearDown() {
+		if (pool != null) {
+			pool.close();
+		}
+	}
+
+	/**
+	 * Creates a single connection pool with the given statement cache size.
+	 *
+	 * @param cacheSize the number of statements cached per connection
+	 * @return the pool
+	 * @throws SQLException if the pool cannot be created
+	 */
+	private ConnectionPool createPool(int cacheSize) throws SQLException {
+		PoolConfig config = new PoolConfig(1, 1);
+		config.setStatementCacheSize(cacheSize);
+		return new ConnectionPool(TEST_DB_URL, "sa", "", config);
+	}
+
+	/**
+	 * Test that preparing the same SQL twice reuses the statement and that parameters are cleared in between.
+	 */
+	@Test
+	void reuseStatementTest() throws SQLException {
+		pool = createPool(4);
+		String sql = "SELECT CAST(? AS INT) + 1";
+		PreparedStatement first;
+		try (Connection conn = pool.borrow()) {
+			try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+				first = pstmt.unwrap(PreparedStatement.class);
+				pstmt.setInt(1, 41);
+				try (ResultSet rs = pstmt.executeQuery()) {
+					assertTrue(rs.next());
+					assertEquals(42, rs.getInt(1));
+				}
+			}
+			try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+				assertSame(first, pstmt.unwrap(PreparedStatement.class));
+				assertThrows(SQLException.class, () -> pstmt.executeQuery());
+			}
+		}
+
+		PoolMetrics metrics = pool.getMetrics();
+		assertEquals(1, metrics.getStatementCacheHits());
+		assertEquals(1, metrics.getStatementCacheMisses());
+	}
+
+	/**
+	 * Test that a result set left open by the caller is closed when its statement is checked back in.
+	 */
+	@Test
+	void openResultSetIsClosedTest() throws SQLException {
+		pool = createPool(4);
+		ResultSet leftOpen;
+		try (Connection conn = pool.borrow()) {
+			try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1")) {
+				leftOpen = pstmt.executeQuery();
+			}
+			assertTrue(leftOpen.isClosed());
+			try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1"); ResultSet rs = pstmt.executeQuery()) {
+				assertTrue(rs.next());
+			}
+		}
+		assertEquals(1, pool.getMetrics().getStatementCacheHits());
+	}
+
+	/**
+	 * Test that the cache survives the connection going back to the pool.
+	 */
+	@Test
+	void cacheSurvivesReturnToPoolTest() throws SQLException {
+		pool = createPool(4);
+		for (int i = 0; i < 5; i++) {
+			try (Connection conn = pool.borrow(); PreparedStatement pstmt = conn.prepareStatement("SELECT 1")) {
+				pstmt.executeQuery().close();
+			}
+		}
+		assertEquals(4, pool.getMetrics().getStatementCacheHits());
+		assertEquals(1, pool.getMetrics().getStatementCacheMisses());
+	}
+
+	/**
+	 * Test that two open statements for the same SQL are never the same statement.
+	 */
+	@Test
+	void nestedStatementsAreDistinctTest() throws SQLException {
+		pool = createPool(4);
+		try (Connection conn = pool.borrow();
+				PreparedStatement outer = conn.prepareStatement("SELECT 1");
+				PreparedStatement inner = conn.prepareStatement("SELECT 1")) {
+			assertNotSame(outer.unwrap(PreparedStatement.class), inner.unwrap(PreparedStatement.class));
+			assertSame(conn, inner.getConnection());
+		}
+		assertEquals(2, pool.getMetrics().getStatementCacheMisses());
+	}
+
+	/**
+	 * Test that the least recently used statement is evicted when the cache is full.
+	 */
+	@Test
+	void leastRecentlyUsedEvictionTest() throws SQLException {
+		pool = createPool(2);
+		try (Connection conn = pool.borrow()) {
+			PreparedStatement physicalA;
+			try (PreparedStatement a = conn.prepareStatement("SELECT 'a'")) {
+				physicalA = a.unwrap(PreparedStatement.class);
+			}
+			conn.prepareStatement("SELECT 'b'").close();
+			conn.prepareStatement("SELECT 'a'").close();
+			conn.prepareStatement("SELECT 'c'").close(); // evicts 'b', the least recently used
+
+			assertEquals(1, pool.getMetrics().getStatementCacheEvictions());
+			assertFalse(physicalA.isClosed());
+			conn.prepareStatement("SELECT 'b'").close();
+		}
+		PoolMetrics metrics = pool.getMetrics();
+		assertEquals(1, metrics.getStatementCacheHits());
+		assertEquals(4, metrics.getStatementCacheMisses());
+	}
+
+	/**
+	 * Test that a closed statement proxy cannot be used and that a cache size of 0 disables caching.
+	 */
+	@Test
+	void closedAndDisabledTest() throws SQLException {
+		pool = createPool(0);
+		try (Connection conn = pool.borrow()) {
+			PreparedStatement pstmt = conn.prepareStatement("SELECT 1");
+			pstmt.close();
+			assertTrue(pstmt.isClosed());
+			assertThrows(SQLException.class, () -> pstmt.executeQuery());
+			conn.prepareStatement("SELECT 1").close();
+		}
+		assertEquals(0, pool.getMetrics().getStatementCacheHits());
+		assertEquals(0, pool.getMetrics().getStatementCacheMisses());
+	}
+}
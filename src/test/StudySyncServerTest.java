@@ -0,0 +1,251 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.PoolConfig;
+import server.Json;
+import server.StudySyncServer;
+
+/**
+ * The StudySyncServerTest class performs JUnit testing on StudySyncServer.java and Json.java, sending real HTTP
+ * requests to a server on a free port backed by an in-memory H2 database.
+ */
+class StudySyncServerTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:studySyncServerTest;DB_CLOSE_DELAY=-1";
+
+	private DatabaseHelper databaseHelper;
+	private StudySyncServer server;
+	private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+	/**
+	 * Starts a server on an empty database with two registered users.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException, IOException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase(new PoolConfig(2, 5));
+		databaseHelper.register(new User("student", "Password1!", new boolean[] {false, true, false, false, false}, "student@asu.edu", "Stu", "Dent"));
+		databaseHelper.register(new User("reviewer", "Password1!", new boolean[] {false, false, false, true, false}, "reviewer@asu.edu", "Rev", "Iewer"));
+		server = new StudySyncServer(databaseHelper, 0, 4);
+		server.start();
+	}
+
+	/**
+	 * Stops the server and closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		server.close();
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Tests that Json reads back what it writes, including escapes and nested values.
+	 */
+	@Test
+	void testJsonRoundTrip() {
+		Map<String, Object> value = Json.parseObject("{\"a\": [1, 2.5, true, null], \"b\": \"x\\\"y\\n\\u00e9\", \"c\": {}}");
+		List<?> array = (List<?>) value.get("a");
+		assertEquals(List.of(1L, 2.5, true), array.subList(0, 3));
+		assertNull(array.get(3));
+		assertEquals("x\"y\né", value.get("b"));
+		assertEquals(value, Json.parseObject(Json.write(value)));
+		assertThrows(IllegalArgumentException.class, () -> Json.parse("{\"a\": 1"));
+		assertThrows(IllegalArgumentException.class, () -> Json.parse("[1] 2"));
+	}
+
+	/**
+	 * Tests creating, reading, paging, editing and deleting questions, answers and reviews over HTTP.
+	 */
+	@Test
+	void testQuestionAnswerReviewLifecycle() throws Exception {
+		HttpResponse<String> created = sendAs("student", "POST", "/api/questions", "{\"title\":\"Title 1\",\"body\":\"Body 1\"}");
+		assertEquals(201, created.statusCode());
+		long questionID = (Long) Json.parseObject(created.body()).get("questionID");
+		sendAs("student", "POST", "/api/questions", "{\"userName\":\"student\",\"title\":\"Title 2\",\"body\":\"Body 2\"}");
+
+		Map<String, Object> question = Json.parseObject(send("GET", "/api/questions/" + questionID, null).body());
+		assertEquals("Title 1", question.get("title"));
+		assertEquals("Stu", question.get("studentFirstName"));
+
+		Map<String, Object> firstPage = Json.parseObject(send("GET", "/api/questions?limit=1", null).body());
+		assertEquals(1, ((List<?>) firstPage.get("items")).size());
+		assertEquals(true, firstPage.get("hasMore"));
+		String next = (String) firstPage.get("next");
+		Map<String, Object> secondPage = Json.parseObject(send("GET", "/api/questions?limit=1&after=" + next.replace("|", "%7C"), null).body());
+		assertEquals("Title 2", ((Map<?, ?>) ((List<?>) secondPage.get("items")).get(0)).get("title"));
+		assertEquals(false, secondPage.get("hasMore"));
+
+		HttpResponse<String> answerCreated = sendAs("student", "POST", "/api/questions/" + questionID + "/answers", "{\"text\":\"An answer\"}");
+		assertEquals(201, answerCreated.statusCode());
+		long answerID = (Long) Json.parseObject(answerCreated.body()).get("answerID");
+		assertEquals(1, ((List<?>) Json.parseObject(send("GET", "/api/questions/" + questionID + "/answers", null).body()).get("items")).size());
+
+		HttpResponse<String> reviewCreated = sendAs("reviewer", "POST", "/api/answers/" + answerID + "/reviews", "{\"body\":\"A review\"}");
+		assertEquals(201, reviewCreated.statusCode());
+		long reviewID = (Long) Json.parseObject(reviewCreated.body()).get("reviewID");
+		Map<String, Object> review = Json.parseObject(send("GET", "/api/reviews/" + reviewID, null).body());
+		assertEquals(questionID, review.get("questionID"));
+		assertEquals("reviewer", review.get("reviewerUserName"));
+
+		assertEquals(401, send("PUT", "/api/answers/" + answerID, "{\"text\":\"Edited answer\"}").statusCode());
+		assertEquals(204, sendAs("student", "PUT", "/api/answers/" + answerID, "{\"text\":\"Edited answer\"}").statusCode());
+		assertEquals("Edited answer", Json.parseObject(send("GET", "/api/answers/" + answerID, null).body()).get("text"));
+
+		assertEquals(401, send("DELETE", "/api/questions/" + questionID, null).statusCode());
+		assertEquals(204, sendAs("student", "DELETE", "/api/questions/" + questionID, null).statusCode());
+		assertEquals(404, send("GET", "/api/questions/" + questionID, null).statusCode());
+	}
+
+	/**
+	 * Tests sending and reading private messages over HTTP.
+	 */
+	@Test
+	void testMessages() throws Exception {
+		String hello = "{\"sender\":\"reviewer\",\"receiver\":\"student\",\"subject\":\"Hi\",\"body\":\"Hello\"}";
+		assertEquals(401, send("POST", "/api/messages", hello).statusCode());
+		assertEquals(403, sendAs("student", "POST", "/api/messages", hello).statusCode());
+		assertEquals(201, sendAs("reviewer", "POST", "/api/messages", hello).statusCode());
+		assertEquals(401, send("GET", "/api/messages?user=student", null).statusCode());
+		assertEquals(403, sendAs("reviewer", "GET", "/api/messages?user=student", null).statusCode());
+		List<?> messages = (List<?>) Json.parseObject(sendAs("student", "GET", "/api/messages?user=student", null).body()).get("items");
+		assertEquals(1, messages.size());
+		Map<?, ?> message = (Map<?, ?>) messages.get(0);
+		assertEquals("reviewer", message.get("sender"));
+		assertEquals("student", message.get("recipient"));
+		assertEquals("Hi", message.get("subject"));
+		assertEquals("Hello", message.get("body"));
+		assertEquals(false, message.get("isRead"));
+	}
+
+	/**
+	 * Tests that wrong credentials are refused and that only a post's author or staff may change it.
+	 */
+	@Test
+	void testAuthentication() throws Exception {
+		databaseHelper.register(new User("other", "Password1!", new boolean[] {false, true, false, false, false}, "other@asu.edu", "Oth", "Er"));
+		long questionID = (Long) Json.parseObject(sendAs("student", "POST", "/api/questions", "{\"title\":\"T\",\"body\":\"B\"}").body())
+				.get("questionID");
+		String edit = "{\"title\":\"Edited\",\"body\":\"B\"}";
+
+		HttpResponse<String> refused = send("PUT", "/api/questions/" + questionID, edit, "student", "wrong");
+		assertEquals(401, refused.statusCode());
+		assertTrue(refused.headers().firstValue("WWW-Authenticate").orElse("").startsWith("Basic"));
+		assertEquals(401, send("PUT", "/api/questions/" + questionID, edit, "nobody", "Password1!").statusCode());
+		assertEquals(403, sendAs("other", "PUT", "/api/questions/" + questionID, edit).statusCode());
+		// The reviewer user holds the Instructor role, so it may edit posts of others
+		assertEquals(204, sendAs("reviewer", "PUT", "/api/questions/" + questionID, edit).statusCode());
+		assertEquals("Edited", Json.parseObject(send("GET", "/api/questions/" + questionID, null).body()).get("title"));
+	}
+
+	/**
+	 * Tests that posts are written as the signed in user only, and never by a muted user.
+	 */
+	@Test
+	void testPostingRequiresSignedInUser() throws Exception {
+		String question = "{\"title\":\"T\",\"body\":\"B\"}";
+		assertEquals(401, send("POST", "/api/questions", question).statusCode());
+		assertEquals(403, sendAs("student", "POST", "/api/questions", "{\"userName\":\"reviewer\",\"title\":\"T\",\"body\":\"B\"}").statusCode());
+		long questionID = (Long) Json.parseObject(sendAs("student", "POST", "/api/questions", question).body()).get("questionID");
+		assertEquals("student", Json.parseObject(send("GET", "/api/questions/" + questionID, null).body()).get("studentUserName"));
+		assertEquals(401, send("POST", "/api/questions/" + questionID + "/answers", "{\"text\":\"A\"}").statusCode());
+		long answerID = (Long) Json.parseObject(sendAs("student", "POST", "/api/questions/" + questionID + "/answers", "{\"text\":\"A\"}").body())
+				.get("answerID");
+		assertEquals(401, send("POST", "/api/answers/" + answerID + "/reviews", "{\"body\":\"R\"}").statusCode());
+
+		databaseHelper.muteUser(databaseHelper.getUserInfo("student"));
+		assertEquals(403, sendAs("student", "POST", "/api/questions", question).statusCode());
+		assertEquals(403, sendAs("student", "POST", "/api/questions/" + questionID + "/answers", "{\"text\":\"A\"}").statusCode());
+		assertEquals(403, sendAs("student", "POST", "/api/answers/" + answerID + "/reviews", "{\"body\":\"R\"}").statusCode());
+	}
+
+	/**
+	 * Tests that the server only listens on the loopback interface unless told otherwise.
+	 */
+	@Test
+	void testBindsToLoopback() {
+		assertTrue(server.getAddress().isLoopbackAddress());
+	}
+
+	/**
+	 * Tests the status codes returned for invalid requests.
+	 */
+	@Test
+	void testErrors() throws Exception {
+		assertEquals(404, send("GET", "/api/nothing", null).statusCode());
+		assertEquals(404, send("GET", "/api/questions/42", null).statusCode());
+		assertEquals(400, sendAs("student", "POST", "/api/questions", "{not json").statusCode());
+		assertEquals(400, sendAs("student", "POST", "/api/questions", "{\"title\":\"t\"}").statusCode());
+		assertEquals(400, send("GET", "/api/questions?after=yesterday", null).statusCode());
+		assertEquals(405, send("DELETE", "/api/questions", null).statusCode());
+		assertEquals(200, send("GET", "/api/health", null).statusCode());
+	}
+
+	/**
+	 * Sends a request to the server.
+	 *
+	 * @param method the HTTP method
+	 * @param path the path and query string
+	 * @param json the request body, or null for none
+	 * @return the response
+	 */
+	private HttpResponse<String> send(String method, String path, String json) throws IOException, InterruptedException {
+		return send(method, path, json, null, null);
+	}
+
+	/**
+	 * Sends a request to the server as a registered user, whose password is always Password1!.
+	 *
+	 * @param userName the user's userName
+	 * @param method the HTTP method
+	 * @param path the path and query string
+	 * @param json the request body, or null for none
+	 * @return the response
+	 */
+	private HttpResponse<String> sendAs(String userName, String method, String path, String json) throws IOException, InterruptedException {
+		return send(method, path, json, userName, "Password1!");
+	}
+
+	/**
+	 * Sends a request to the server with HTTP Basic credentials.
+	 *
+	 * @param method the HTTP method
+	 * @param path the path and query string
+	 * @param json the request body, or null for none
+	 * @param userName the userName sent, or null to send no credentials
+	 * @param password the password sent
+	 * @return the response
+	 */
+	private HttpResponse<String> send(String method, String path, String json, String userName, String password) throws IOException, InterruptedException {
+		HttpRequest.BodyPublisher body = json == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json);
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path)).method(method, body);
+		if (userName != null) {
+			String credentials = userName + ":" + password;
+			request.header("Authorization", "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+		}
+		return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+	}
+}
@@ -0,0 +1,104 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.Review;
+import application.User;
+import databasePart1.DatabaseHelper;
+
+/**
+ * The TrustedReviewerCacheTest class performs JUnit testing on the in-memory Trusted Reviewers Lists kept by
+ * DatabaseHelper.java, using an in-memory H2 database.
+ */
+class TrustedReviewerCacheTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:trustedReviewerCacheTest;DB_CLOSE_DELAY=-1";
+
+	private DatabaseHelper databaseHelper;
+
+	private final User student = new User("student", "Password1!", new boolean[] {false, true, false, false, false}, "student@asu.edu", "Stu", "Dent");
+
+	private final User otherStudent = new User("other", "Password1!", new boolean[] {false, true, false, false, false}, "other@asu.edu", "Oth", "Er");
+
+	/**
+	 * Connects to an empty database.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Creates a review written by the given reviewer.
+	 *
+	 * @param reviewerUserName the reviewer's userName
+	 * @return the review
+	 */
+	private Review reviewBy(String reviewerUserName) {
+		Review review = new Review();
+		review.setReviewerUserName(reviewerUserName);
+		return review;
+	}
+
+	/**
+	 * Test that adding, re-weighting and removing trusted reviewers is reflected without reloading the list.
+	 */
+	@Test
+	void followsChangesTest() {
+		assertFalse(databaseHelper.checkIfReviewCreatedByTrustedReviewer(reviewBy("rev1"), student));
+
+		databaseHelper.addTrustedReviewer(student, 5, "rev1");
+		databaseHelper.addTrustedReviewer(student, 3, "rev2");
+		assertTrue(databaseHelper.checkIfReviewCreatedByTrustedReviewer(reviewBy("rev1"), student));
+		assertFalse(databaseHelper.checkIfReviewCreatedByTrustedReviewer(reviewBy("rev1"), otherStudent));
+		assertEquals(Map.of("rev1", 5, "rev2", 3), databaseHelper.getTrustedReviewerWeights(student));
+
+		databaseHelper.assignTrustedReviewerWeight(student, 9, "rev1");
+		databaseHelper.assignTrustedReviewerWeight(student, 9, "rev3");
+		assertEquals(Map.of("rev1", 9, "rev2", 3), databaseHelper.getTrustedReviewerWeights(student));
+
+		databaseHelper.removeTrustedReviewer(student, "rev2");
+		assertFalse(databaseHelper.checkIfReviewCreatedByTrustedReviewer(reviewBy("rev2"), student));
+		assertEquals(Map.of("rev1", 9), databaseHelper.getTrustedReviewerWeights(student));
+	}
+
+	/**
+	 * Test that the list is loaded from the database once and then served from memory.
+	 */
+	@Test
+	void loadedOnceTest() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("INSERT INTO trustedReviewers (studentUserName, reviewerUserName, weight) VALUES ('student', 'rev1', 4)");
+		}
+		assertEquals(Map.of("rev1", 4), databaseHelper.getTrustedReviewerWeights(student));
+
+		// A write made behind the helper's back is not seen until the lists are invalidated
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DELETE FROM trustedReviewers");
+		}
+		assertTrue(databaseHelper.checkIfReviewCreatedByTrustedReviewer(reviewBy("rev1"), student));
+		databaseHelper.invalidateTrustedReviewers();
+		assertFalse(databaseHelper.checkIfReviewCreatedByTrustedReviewer(reviewBy("rev1"), student));
+	}
+}
@@ -0,0 +1,135 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.Answer;
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.SnapshotCache;
+
+/**
+ * The UnreadAnswerCountsTest class performs JUnit testing on the cached unread answer counts in DatabaseHelper.java
+ * and on SnapshotCache.java, using an in-memory H2 database.
+ */
+class UnreadAnswerCountsTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:unreadAnswerCountsTest;DB_CLOSE_DELAY=-1";
+
+	private DatabaseHelper databaseHelper;
+
+	private final User student = new User("student", "Password1!", new boolean[] {false, true, false, false, false}, "student@asu.edu", "Stu", "Dent");
+
+	/**
+	 * Connects to an empty database.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Adds an unread answer to a question.
+	 *
+	 * @param questionID the question being answered
+	 * @return the new answer with its generated answerID
+	 */
+	private Answer addAnswer(int questionID) {
+		Answer answer = new Answer(student.getUserName(), "Stu", "Dent", false, "An answer", true, LocalDateTime.now());
+		int answerID = databaseHelper.addAnswers("An answer", answer, student, questionID);
+		answer.setAnswerID(answerID);
+		answer.setQuestionID(questionID);
+		return answer;
+	}
+
+	/**
+	 * Test that the bulk map matches the per question counts and follows adds, reads and deletes.
+	 */
+	@Test
+	void countsFollowAnswerChangesTest() {
+		Answer first = addAnswer(1);
+		addAnswer(1);
+		addAnswer(2);
+
+		Map<Integer, Integer> counts = databaseHelper.getUnreadAnswerCounts();
+		assertEquals(Map.of(1, 2, 2, 1), counts);
+		assertEquals(2, databaseHelper.countUnreadPotentialAnswers(1));
+		assertEquals(0, databaseHelper.countUnreadPotentialAnswers(3));
+
+		databaseHelper.markAnswerAsRead(first);
+		assertEquals(1, databaseHelper.countUnreadPotentialAnswers(1));
+
+		databaseHelper.deleteAnswer(addAnswer(2).getAnswerID());
+		assertEquals(1, databaseHelper.countUnreadPotentialAnswers(2));
+	}
+
+	/**
+	 * Test that rendering many rows reads the cached map instead of querying the database each time.
+	 */
+	@Test
+	void countsAreCachedTest() throws SQLException {
+		addAnswer(1);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(1, databaseHelper.countUnreadPotentialAnswers(1));
+		}
+
+		// A write made behind the helper's back is not seen until the cache is invalidated
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("UPDATE answers SET isAnswerUnread = FALSE");
+		}
+		assertEquals(1, databaseHelper.countUnreadPotentialAnswers(1));
+		databaseHelper.invalidateUnreadAnswerCounts();
+		assertEquals(0, databaseHelper.countUnreadPotentialAnswers(1));
+	}
+
+	/**
+	 * Test that SnapshotCache loads once per invalidation and does not keep a value loaded before an invalidation.
+	 */
+	@Test
+	void snapshotCacheTest() {
+		int[] source = {1};
+		AtomicReference<SnapshotCache<Integer>> holder = new AtomicReference<>();
+		holder.set(new SnapshotCache<>(() -> {
+			int value = source[0];
+			if (value == 2) {
+				// Simulate a write landing while the value is being loaded
+				source[0] = 3;
+				holder.get().invalidate();
+			}
+			return value;
+		}));
+		SnapshotCache<Integer> cache = holder.get();
+
+		assertEquals(1, cache.get());
+		assertEquals(1, cache.get());
+		assertEquals(1, cache.getLoadCount());
+
+		source[0] = 2;
+		cache.invalidate();
+		assertEquals(2, cache.get());
+		assertEquals(3, cache.get());
+		assertEquals(3, cache.getLoadCount());
+	}
+}
@@ -0,0 +1,118 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.InboxMessage;
+import application.ReviewerMessage;
+import databasePart1.ChangeEvent;
+import databasePart1.DatabaseHelper;
+import databasePart1.UnreadCounters;
+
+/**
+ * The UnreadCountersTest class performs JUnit testing on UnreadCounters.java and on the unread message counts
+ * DatabaseHelper keeps up to date, using an in-memory H2 database.
+ */
+class UnreadCountersTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:unreadCountersTest;DB_CLOSE_DELAY=-1";
+
+	private static final Set<InboxMessage.Source> ALL_SOURCES = EnumSet.allOf(InboxMessage.Source.class);
+
+	private DatabaseHelper databaseHelper;
+
+	/**
+	 * Connects to an empty database.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Test that the counters follow messages being counted, counted again and taken back.
+	 */
+	@Test
+	void countsFollowChangesTest() {
+		UnreadCounters counters = new UnreadCounters();
+		counters.putUnread(InboxMessage.Source.STUDENT, 1, "alice", 5, -1);
+		counters.putUnread(InboxMessage.Source.STUDENT, 2, "alice", 5, -1);
+		counters.putUnread(InboxMessage.Source.REVIEWER, 1, "alice", -1, 9);
+		counters.putUnread(InboxMessage.Source.STAFF, 1, "bob", -1, -1);
+		assertEquals(3, counters.getUnread("alice", ALL_SOURCES));
+		assertEquals(2, counters.getUnread("alice", EnumSet.of(InboxMessage.Source.STUDENT)));
+		assertEquals(2, counters.getUnreadAboutQuestion("alice", InboxMessage.Source.STUDENT, 5));
+		assertEquals(1, counters.getUnreadAboutReview("alice", InboxMessage.Source.REVIEWER, 9));
+		assertEquals(0, counters.getUnreadAboutReview("alice", InboxMessage.Source.STUDENT, 9));
+
+		// Putting a message again replaces what was counted for it
+		counters.putUnread(InboxMessage.Source.STUDENT, 2, "alice", 6, -1);
+		assertEquals(3, counters.getUnread("alice", ALL_SOURCES));
+		assertEquals(1, counters.getUnreadAboutQuestion("alice", InboxMessage.Source.STUDENT, 5));
+		assertEquals(1, counters.getUnreadAboutQuestion("alice", InboxMessage.Source.STUDENT, 6));
+
+		counters.remove(InboxMessage.Source.STUDENT, 1);
+		counters.remove(InboxMessage.Source.STUDENT, 1);
+		assertEquals(2, counters.getUnread("alice", ALL_SOURCES));
+		assertEquals(0, counters.getUnreadAboutQuestion("alice", InboxMessage.Source.STUDENT, 5));
+		assertEquals(1, counters.getUnread("bob", ALL_SOURCES));
+		assertEquals(0, counters.getUnread("carol", ALL_SOURCES));
+
+		counters.clear();
+		assertEquals(0, counters.getUnread("alice", ALL_SOURCES));
+	}
+
+	/**
+	 * Test that the counts DatabaseHelper returns are loaded from the messages already stored and then follow
+	 * messages being sent, read and deleted, and rows changed outside DatabaseHelper once ALL_ROWS is published.
+	 */
+	@Test
+	void countsFollowMessagesTest() throws SQLException {
+		databaseHelper.sendPrivateMessageToStudent("bob", "alice", 4, "First", "One");
+		assertEquals(1, databaseHelper.getUnreadPrivateMessageCount("alice"));
+
+		databaseHelper.sendPrivateMessageToStudent("carol", "alice", 4, "Second", "Two");
+		int reviewerMessageID = databaseHelper.saveReviewerMessage(
+				new ReviewerMessage(-1, "alice", "rev", "Reviewer", "About", "Your review", LocalDateTime.now(), false, 8));
+		assertEquals(2, databaseHelper.getUnreadPrivateMessageCount("alice"));
+		assertEquals(2, databaseHelper.getUnreadPrivateMessageCountByQuestion("alice", 4));
+		assertEquals(1, databaseHelper.countUnreadReviewerPrivateMessages("rev", 8));
+
+		List<InboxMessage> inbox = databaseHelper.getStudentInbox("alice");
+		databaseHelper.markMessagesRead(InboxMessage.Source.STUDENT, List.of(inbox.get(0).getSourceID()));
+		assertEquals(1, databaseHelper.getUnreadPrivateMessageCountByQuestion("alice", 4));
+		databaseHelper.deleteReviewerMessage(reviewerMessageID);
+		assertEquals(0, databaseHelper.countUnreadReviewerPrivateMessages("rev", 8));
+
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", ""); Statement stmt = conn.createStatement()) {
+			stmt.execute("UPDATE PrivateMessages SET is_read = TRUE");
+		}
+		assertEquals(1, databaseHelper.getUnreadPrivateMessageCount("alice"));
+		databaseHelper.getChangeBus().publish(new ChangeEvent(ChangeEvent.Entity.STUDENT_MESSAGE, ChangeEvent.Kind.UPDATED, ChangeEvent.ALL_ROWS));
+		assertEquals(0, databaseHelper.getUnreadPrivateMessageCount("alice"));
+	}
+}
@@ -0,0 +1,159 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.Role;
+import application.User;
+import databasePart1.DatabaseHelper;
+import databasePart1.Page;
+import databasePart1.PageCursor;
+import databasePart1.UserQuery;
+
+/**
+ * The UserDirectoryTest class performs JUnit testing on the paged user directory of DatabaseHelper.java and on
+ * UserQuery.java, using an in-memory H2 database.
+ */
+class UserDirectoryTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:userDirectoryTest;DB_CLOSE_DELAY=-1";
+
+	private static final boolean[] STUDENT = {false, true, false, false, false};
+
+	private static final boolean[] REVIEWER = {false, true, true, false, false};
+
+	private static final boolean[] STAFF = {false, false, false, false, true};
+
+	private DatabaseHelper databaseHelper;
+
+	/**
+	 * Connects to an empty database with five users, one of them without a first name.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+		databaseHelper.register(new User("carol", "Password1!", STUDENT, "carol@asu.edu", "Carol", "Smith, Jr."));
+		databaseHelper.register(new User("alice", "Password1!", REVIEWER, "alice@ASU.edu", "Alice", "Jones"));
+		databaseHelper.register(new User("bob", "Password1!", STAFF, "bob@gmail.com", "Bob", "Adams"));
+		databaseHelper.register(new User("dave", "Password1!", STUDENT, "dave@gmail.com", null, "Brown"));
+		databaseHelper.register(new User("al_x", "Password1!", STUDENT, "alx@asu.edu", "Xander", "Cole"));
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * Reads every page of a query, checking no page is larger than the page size.
+	 *
+	 * @return the userNames in the order they were listed
+	 */
+	private List<String> readAllPages(UserQuery query, int pageSize) {
+		List<String> userNames = new ArrayList<>();
+		PageCursor after = null;
+		Page<User> page;
+		do {
+			page = databaseHelper.getUserDirectoryPage(query, after, pageSize);
+			assertTrue(page.getItems().size() <= pageSize);
+			for (User user : page.getItems()) {
+				userNames.add(user.getUserName());
+			}
+			after = page.getNextCursor();
+		} while (page.hasMore());
+		return userNames;
+	}
+
+	/**
+	 * Test that users are listed in the same order whatever the page size, with users without a first name first from
+	 * A to Z and last from Z to A.
+	 */
+	@Test
+	void pagesFollowSortOrderTest() {
+		for (int pageSize = 1; pageSize <= 6; pageSize++) {
+			assertEquals(List.of("al_x", "alice", "bob", "carol", "dave"),
+					readAllPages(new UserQuery(EnumSet.noneOf(Role.class), null, null, null, UserQuery.SortColumn.USER_NAME, true), pageSize));
+			assertEquals(List.of("dave", "alice", "bob", "carol", "al_x"),
+					readAllPages(new UserQuery(EnumSet.noneOf(Role.class), null, null, null, UserQuery.SortColumn.FIRST_NAME, true), pageSize));
+			assertEquals(List.of("al_x", "carol", "bob", "alice", "dave"),
+					readAllPages(new UserQuery(EnumSet.noneOf(Role.class), null, null, null, UserQuery.SortColumn.FIRST_NAME, false), pageSize));
+			assertEquals(List.of("dave", "carol", "bob", "al_x", "alice"),
+					readAllPages(new UserQuery(EnumSet.noneOf(Role.class), null, null, null, UserQuery.SortColumn.EMAIL, false), pageSize));
+		}
+	}
+
+	/**
+	 * Test that the filters select users by role, name prefix, email domain and muted state.
+	 */
+	@Test
+	void filtersTest() {
+		assertEquals(List.of("alice", "bob"),
+				readAllPages(new UserQuery(EnumSet.of(Role.REVIEWER, Role.STAFF), null, null, null, UserQuery.SortColumn.USER_NAME, true), 2));
+		// The prefix matches any of the names ignoring case, and '_' is not a wildcard
+		assertEquals(List.of("al_x", "alice"), readAllPages(UserQuery.fromSearch("AL", UserQuery.SortColumn.USER_NAME, true), 2));
+		assertEquals(List.of("al_x"), readAllPages(UserQuery.fromSearch("al_", UserQuery.SortColumn.USER_NAME, true), 2));
+		assertEquals(List.of("bob", "dave"), readAllPages(UserQuery.fromSearch("b", UserQuery.SortColumn.LAST_NAME, true), 2));
+		assertEquals(List.of("al_x", "alice", "carol"), readAllPages(UserQuery.fromSearch("@asu.edu", UserQuery.SortColumn.USER_NAME, true), 2));
+		assertEquals(List.of("bob"), readAllPages(UserQuery.fromSearch("staff @GMail.com", UserQuery.SortColumn.USER_NAME, true), 2));
+
+		databaseHelper.unmuteUser("carol");
+		databaseHelper.muteUser(new User("bob", STAFF, "bob@gmail.com", "Bob", "Adams"));
+		assertEquals(List.of("bob"), readAllPages(UserQuery.fromSearch("muted", UserQuery.SortColumn.USER_NAME, true), 2));
+		assertEquals(List.of("dave", "carol", "alice", "al_x"), readAllPages(UserQuery.fromSearch("unmuted", UserQuery.SortColumn.USER_NAME, false), 3));
+		assertTrue(readAllPages(UserQuery.fromSearch("staff unmuted", UserQuery.SortColumn.USER_NAME, true), 2).isEmpty());
+	}
+
+	/**
+	 * Test that the search box words are read into a query.
+	 */
+	@Test
+	void fromSearchTest() {
+		UserQuery query = UserQuery.fromSearch("  Student reviewer jo  jane@asu.edu MUTED ", UserQuery.SortColumn.EMAIL, false);
+		assertEquals(EnumSet.of(Role.STUDENT, Role.REVIEWER), query.getRoles());
+		assertEquals("jo", query.getNamePrefix());
+		assertEquals("asu.edu", query.getEmailDomain());
+		assertEquals(Boolean.TRUE, query.getMuted());
+		assertEquals(UserQuery.SortColumn.EMAIL, query.getSortColumn());
+		assertFalse(query.isAscending());
+
+		UserQuery empty = UserQuery.fromSearch("", UserQuery.SortColumn.USER_NAME, true);
+		assertTrue(empty.getRoles().isEmpty());
+		assertNull(empty.getNamePrefix());
+		assertNull(empty.getEmailDomain());
+		assertNull(empty.getMuted());
+	}
+
+	/**
+	 * Test that the full user list keeps names containing commas intact and counts admins in the database.
+	 */
+	@Test
+	void userListReadsTypedColumnsTest() throws SQLException {
+		List<User> users = databaseHelper.getUserList();
+		assertEquals(5, users.size());
+		assertEquals("carol", users.get(0).getUserName());
+		assertEquals("Smith, Jr.", users.get(0).getLastName());
+		assertEquals("carol@asu.edu", users.get(0).getEmail());
+		assertArrayEquals(STUDENT, users.get(0).getRole());
+
+		assertEquals(0, databaseHelper.countAdminDataBase());
+		databaseHelper.register(new User("admin", "Password1!", new boolean[] {true, false, false, false, true}, "admin@asu.edu", "Ad", "Min"));
+		assertEquals(1, databaseHelper.countAdminDataBase());
+	}
+}
@@ -0,0 +1,146 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import application.Role;
+import application.User;
+import databasePart1.ChangeEvent;
+import databasePart1.DatabaseHelper;
+import databasePart1.UserIndex;
+
+/**
+ * The UserIndexTest class performs JUnit testing on UserIndex.java and on the recipient lookups DatabaseHelper serves
+ * from it, using an in-memory H2 database.
+ */
+class UserIndexTest {
+
+	private static final String TEST_DB_URL = "jdbc:h2:mem:userIndexTest;DB_CLOSE_DELAY=-1";
+
+	private static final Set<Role> ANY_ROLE = EnumSet.noneOf(Role.class);
+
+	private DatabaseHelper databaseHelper;
+
+	/**
+	 * Connects to an empty database.
+	 */
+	@BeforeEach
+	void setUp() throws SQLException {
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", "")) {
+			conn.createStatement().execute("DROP ALL OBJECTS");
+		}
+		databaseHelper = new DatabaseHelper(TEST_DB_URL);
+		databaseHelper.connectToDatabase();
+	}
+
+	/**
+	 * Closes the connection pool.
+	 */
+	@AfterEach
+	void tearDown() {
+		databaseHelper.closeConnection();
+	}
+
+	/**
+	 * @return the userNames of the users, in order
+	 */
+	private static List<String> userNames(List<User> users) {
+		List<String> names = new ArrayList<>();
+		for (User user : users) {
+			names.add(user.getUserName());
+		}
+		return names;
+	}
+
+	/**
+	 * Test that users are suggested by the start of any of their names or email, filtered by role, and that replaced
+	 * and removed users are no longer suggested by their old names.
+	 */
+	@Test
+	void completeTest() {
+		UserIndex index = new UserIndex();
+		index.put(1, "jdoe", "Jane", "Doe", "jane@asu.edu", Role.STUDENT.bit(), false);
+		index.put(2, "bsmith", "Bob", "Smith", "bob@asu.edu", Role.STAFF.bit(), false);
+		index.put(3, "jan", "Jan", "Brown", "brown@gmail.com", Role.INSTRUCTOR.bit() | Role.STAFF.bit(), true);
+		assertEquals(3, index.size());
+
+		assertEquals(List.of("jan", "jdoe"), userNames(index.complete("JA", ANY_ROLE, 10)));
+		assertEquals(List.of("jdoe"), userNames(index.complete("jane d", ANY_ROLE, 10)));
+		assertEquals(List.of("bsmith", "jan"), userNames(index.complete("b", ANY_ROLE, 10)));
+		assertEquals(List.of("jan"), userNames(index.complete("br", ANY_ROLE, 1)));
+		assertEquals(List.of("bsmith", "jan"), userNames(index.complete("", EnumSet.of(Role.STAFF), 10)));
+		assertTrue(index.complete("x", ANY_ROLE, 10).isEmpty());
+		assertTrue(index.complete("jan", ANY_ROLE, 10).get(0).getIsMuted());
+
+		index.put(1, "jdoe", "Janet", "Roe", "janet@asu.edu", Role.STUDENT.bit(), false);
+		assertEquals(List.of("jdoe"), userNames(index.complete("r", ANY_ROLE, 10)));
+		assertTrue(index.complete("doe", ANY_ROLE, 10).isEmpty());
+
+		index.remove(3);
+		index.remove(3);
+		assertEquals(List.of("jdoe"), userNames(index.complete("ja", ANY_ROLE, 10)));
+		assertEquals(2, index.size());
+		assertThrows(IllegalArgumentException.class, () -> index.complete("a", ANY_ROLE, 0));
+	}
+
+	/**
+	 * Test that users are found by their exact full name, including names containing spaces.
+	 */
+	@Test
+	void findByFullNameTest() {
+		UserIndex index = new UserIndex();
+		index.put(1, "mas", "Mary Ann", "Smith", "mas@asu.edu", Role.STUDENT.bit(), false);
+		index.put(2, "noname", null, "Smith", "noname@asu.edu", Role.STUDENT.bit(), false);
+		assertEquals(List.of("mas"), userNames(index.findByFullName("Mary Ann Smith")));
+		assertTrue(index.findByFullName("mary ann smith").isEmpty());
+		assertTrue(index.findByFullName("Mary Ann").isEmpty());
+		assertTrue(index.findByFullName("null Smith").isEmpty());
+		assertTrue(index.findByFullName(null).isEmpty());
+	}
+
+	/**
+	 * Test that the index DatabaseHelper serves suggestions from follows users registering, changing and being deleted,
+	 * and rows changed outside DatabaseHelper once ALL_ROWS is published.
+	 */
+	@Test
+	void indexFollowsUsersTest() throws SQLException {
+		User staff = new User("staff1", "Password1!", new boolean[] {false, false, false, false, true}, "staff@asu.edu", "Sam", "Taylor");
+		databaseHelper.register(staff);
+		assertEquals(List.of("staff1"), userNames(databaseHelper.completeUsers("sam", EnumSet.of(Role.STAFF), 10)));
+		assertEquals("staff1", databaseHelper.getUserInfoByName("Sam Taylor").getUserName());
+
+		User student = new User("student1", "Password1!", new boolean[] {false, true, false, false, false}, "stu@asu.edu", "Sam", "Lee");
+		databaseHelper.register(student);
+		assertEquals(List.of("staff1", "student1"), userNames(databaseHelper.completeUsers("s", ANY_ROLE, 10)));
+		assertTrue(databaseHelper.completeUsers("sam", EnumSet.of(Role.INSTRUCTOR), 10).isEmpty());
+
+		databaseHelper.setUserRoles(student, new boolean[] {false, true, false, true, false});
+		assertEquals(List.of("student1"), userNames(databaseHelper.completeUsers("sam", EnumSet.of(Role.INSTRUCTOR), 10)));
+		databaseHelper.muteUser(student);
+		assertTrue(databaseHelper.completeUsers("student1", ANY_ROLE, 10).get(0).getIsMuted());
+
+		databaseHelper.deleteUser(staff);
+		assertNull(databaseHelper.getUserInfoByName("Sam Taylor"));
+		assertEquals(List.of("student1"), userNames(databaseHelper.completeUsers("s", ANY_ROLE, 10)));
+
+		try (Connection conn = DriverManager.getConnection(TEST_DB_URL, "sa", ""); Statement stmt = conn.createStatement()) {
+			stmt.execute("UPDATE cse360users SET lastName = 'Park'");
+		}
+		assertNotNull(databaseHelper.getUserInfoByName("Sam Lee"));
+		databaseHelper.getChangeBus().publish(new ChangeEvent(ChangeEvent.Entity.USER, ChangeEvent.Kind.UPDATED, ChangeEvent.ALL_ROWS));
+		assertNull(databaseHelper.getUserInfoByName("Sam Lee"));
+		assertEquals("student1", databaseHelper.getUserInfoByName("Sam Park").getUserName());
+	}
+}